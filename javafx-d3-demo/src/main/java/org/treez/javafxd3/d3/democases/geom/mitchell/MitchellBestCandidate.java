@@ -1,16 +1,13 @@
 
 package org.treez.javafxd3.d3.democases.geom.mitchell;
 
-import org.treez.javafxd3.d3.geom.Quadtree.RootNode;
 import org.treez.javafxd3.d3.D3;
 import org.treez.javafxd3.d3.core.Selection;
 import org.treez.javafxd3.d3.demo.AbstractDemoCase;
 import org.treez.javafxd3.d3.demo.DemoCase;
 import org.treez.javafxd3.d3.demo.DemoFactory;
 import org.treez.javafxd3.d3.demo.Margin;
-import org.treez.javafxd3.d3.functions.DataFunction;
 import org.treez.javafxd3.d3.functions.TimerFunction;
-import org.treez.javafxd3.d3.functions.data.wrapper.DataFunctionWrapper;
 
 import javafx.scene.layout.VBox;
 
@@ -73,29 +70,7 @@ public class MitchellBestCandidate extends AbstractDemoCase {
 	}
 
 	private CircleGenerator createBestCircleGenerator(final double maxRadius, final double padding) {
-		
-		DataFunction<Double> xDataFunction = new DataFunctionWrapper<>(Circle.class, engine, (circle)->{
-			if (circle==null){
-				return null;
-			}			
-			return circle.x;			
-		});
-		
-		DataFunction<Double> yDataFunction = new DataFunctionWrapper<>(Circle.class, engine, (circle)->{
-			if (circle==null){
-				return null;
-			}			
-			return circle.y;			
-		});
-
-		final RootNode<Circle> quadtree = d3.geom() //
-				.quadtree() //
-				.x(xDataFunction) //
-				.y(yDataFunction) //
-				.extent(0, 0, width, height) //
-				.apply(new Circle[1]);
-
-		return new MitchellCircleGenerator(engine, quadtree, maxRadius, width, height, padding) ;
+		return new MitchellCircleGenerator(maxRadius, width, height, padding);
 	}
 	
 	//#end region
@@ -1,14 +1,13 @@
 package org.treez.javafxd3.d3.democases.geom.mitchell;
 
-import org.treez.javafxd3.d3.geom.Quadtree.RootNode;
+import java.util.Arrays;
 
-import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.geom.PointQuadtree;
 
 public class MitchellCircleGenerator implements CircleGenerator {
 	
 	//#region ATTRIBUTES
 
-	private JsEngine engine;
 	private double minDistance;
 	double searchRadius;			
 	double bestX;
@@ -20,15 +19,18 @@ public class MitchellCircleGenerator implements CircleGenerator {
 	private double padding;
 	private double maxRadius;
 	
-	private RootNode<Circle> quadtree;
+	private PointQuadtree quadtree = new PointQuadtree();
+
+	/**
+	 * The radii of the circles, indexed like the points of the quadtree
+	 */
+	private double[] radii = new double[256];
 
 	//#end region
 	
 	//#region CONSTRUCTORS
 	
-	public MitchellCircleGenerator(JsEngine engine, RootNode<Circle> quadtree, double maxRadius, double width, double height, double padding){
-		this.engine = engine;
-		this.quadtree = quadtree;
+	public MitchellCircleGenerator(double maxRadius, double width, double height, double padding){
 		this.width = width;
 		this.height = height;
 		this.padding = padding;
@@ -48,11 +50,10 @@ public class MitchellCircleGenerator implements CircleGenerator {
 
 			final double x = (Math.random() * width);
 			final double y = (Math.random() * height);
-			
 
 			minDistance = maxRadius; // minimum distance for this candidate
 
-			quadtree.visit(new MitchellVisitCallback(engine, this,x,y));
+			visitCircles(x, y);
 
 			if (minDistance > bestDistance) {
 				bestX = x;
@@ -62,21 +63,44 @@ public class MitchellCircleGenerator implements CircleGenerator {
 		}
 
 		Circle best = new Circle(bestX, bestY, bestDistance - padding);
-		quadtree.add(best);
+		int index = quadtree.add(best.x, best.y);
+		if (index == radii.length) {
+			radii = Arrays.copyOf(radii, 2 * radii.length);
+		}
+		radii[index] = best.r;
 		return best;
 	}
 
-	public double getMinDistance() {
-		return minDistance;
-	}
-
-	public void setMinDistance(double d) {
-		minDistance=d;
-		
-	}
-
-	public Double getSearchRadius() {
-		return searchRadius;
+	/**
+	 * Reduces the min distance to the distance between the candidate and the
+	 * closest circle within the search radius
+	 */
+	private void visitCircles(double x, double y) {
+		double rx1 = x - searchRadius;
+		double rx2 = x + searchRadius;
+		double ry1 = y - searchRadius;
+		double ry2 = y + searchRadius;
+
+		quadtree.visit((cell, x1, y1, x2, y2) -> {
+			for (int point = quadtree.getFirstPoint(cell); point != PointQuadtree.NO_INDEX; point = quadtree
+					.getNextPoint(point)) {
+				double dx = x - quadtree.getX(point);
+				double dy = y - quadtree.getY(point);
+				double d2 = (dx * dx) + (dy * dy);
+				double r = radii[point];
+				if (d2 < r * r) {
+					// within a circle
+					minDistance = 0;
+					return true;
+				}
+				double d = (Math.sqrt(d2) - r);
+				if (d < minDistance) {
+					minDistance = d;
+				}
+			}
+			// outside search radius
+			return (minDistance == 0) || (x1 > rx2) || (x2 < rx1) || (y1 > ry2) || (y2 < ry1);
+		});
 	}
 
 	//#end region
@@ -11,7 +11,7 @@ import org.treez.javafxd3.d3.demo.DemoFactory;
 import org.treez.javafxd3.d3.functions.TimerFunction;
 import org.treez.javafxd3.d3.scales.LinearScale;
 import org.treez.javafxd3.d3.wrapper.canvas.CanvasElement;
-import org.treez.javafxd3.d3.wrapper.canvas.Context2d;
+import org.treez.javafxd3.d3.wrapper.canvas.RecordingContext2d;
 
 import javafx.application.Platform;
 import javafx.scene.layout.VBox;
@@ -21,7 +21,7 @@ public class LorenzSystem extends AbstractDemoCase {
 
 	//#region ATTRIBUTES
 
-	private Context2d context;
+	private RecordingContext2d context;
 
 	private boolean stopped = false;
 
@@ -58,7 +58,7 @@ public class LorenzSystem extends AbstractDemoCase {
 
 		CanvasElement canvasElement = new CanvasElement(engine, jsCanvas);
 
-		context = canvasElement.getContext2d();
+		context = canvasElement.getRecordingContext2d();
 
 		context.setLineWidth(.2);
 
@@ -110,7 +110,7 @@ public class LorenzSystem extends AbstractDemoCase {
 
 	//#region ACCESSORS
 
-	public Context2d getContext() {
+	public RecordingContext2d getContext() {
 		return context;
 	}
 
@@ -3,7 +3,7 @@ package org.treez.javafxd3.d3.democases.lorenz;
 import org.treez.javafxd3.d3.color.Colors;
 import org.treez.javafxd3.d3.functions.TimerFunction;
 import org.treez.javafxd3.d3.scales.LinearScale;
-import org.treez.javafxd3.d3.wrapper.canvas.Context2d;
+import org.treez.javafxd3.d3.wrapper.canvas.RecordingContext2d;
 
 import org.treez.javafxd3.d3.core.JsEngine;
 
@@ -15,7 +15,7 @@ public class LorenzTimerFunction implements TimerFunction {
 
 	private LorenzSystem lorenzSystem;
 
-	private Context2d context;
+	private RecordingContext2d context;
 
 	private double x = .5;
 	private double y = .5;
@@ -78,6 +78,7 @@ public class LorenzTimerFunction implements TimerFunction {
 			context.stroke();
 		}
 		context.restore();
+		context.flush();
 		return lorenzSystem.getStopped();
 	}
 	
@@ -0,0 +1,84 @@
+package org.treez.javafxd3.d3.arrays;
+
+import java.util.List;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.core.JsObject;
+import org.treez.javafxd3.d3.core.Selection;
+
+public class ArrayTransferTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testTypedArrays();
+		testFromDoubles();
+		testFromDoubleMatrix();
+		testFromEpochMillis();
+		testSelectionData();
+
+	}
+
+	private void testTypedArrays() {
+
+		JsObject float64Array = ArrayTransfer.toTypedArray(engine, new double[] { 1.5, -2.25, 1e300 });
+		assertEquals(3, (int) float64Array.getMember("length"));
+		assertEquals(-2.25, ((Number) float64Array.getSlot(1)).doubleValue(), TOLERANCE);
+		assertEquals(1e300, ((Number) float64Array.getSlot(2)).doubleValue(), 1e290);
+
+		JsObject int32Array = ArrayTransfer.toTypedArray(engine, new int[] { 7, Integer.MIN_VALUE });
+		assertEquals(7, ((Number) int32Array.getSlot(0)).intValue());
+		assertEquals(Integer.MIN_VALUE, ((Number) int32Array.getSlot(1)).intValue());
+
+		JsObject emptyArray = ArrayTransfer.toTypedArray(engine, new float[] {});
+		assertEquals(0, (int) emptyArray.getMember("length"));
+	}
+
+	private void testFromDoubles() {
+
+		Array<Double> doubleArray = Array.fromDoubles(engine, new double[] { 3.0, 4.5 });
+
+		List<Integer> sizes = doubleArray.sizes();
+		assertEquals("number of rows", 1, (int) sizes.get(0));
+		assertEquals("number of columns", 2, (int) sizes.get(1));
+
+		assertEquals("first value", 3.0, doubleArray.get(0, Double.class), TOLERANCE);
+		assertEquals("second value", 4.5, doubleArray.get(1, Double.class), TOLERANCE);
+
+		Array<Double> arrayWithNull = Array.fromDoubles(engine, new Double[] { 1.0, null });
+		assertEquals(2, arrayWithNull.length());
+		assertNull(arrayWithNull.get(1, Double.class));
+	}
+
+	private void testFromDoubleMatrix() {
+
+		Array<Double> matrix = Array.fromDoubles(engine, new double[][] { { 1, 2 }, { 3, 4 }, { 5, 6 } });
+
+		List<Integer> sizes = matrix.sizes();
+		assertEquals("number of rows", 3, (int) sizes.get(0));
+		assertEquals("number of columns", 2, (int) sizes.get(1));
+		assertEquals(6.0, matrix.get(2, 1, Double.class), TOLERANCE);
+	}
+
+	private void testFromEpochMillis() {
+
+		long time = 1234567890123L;
+		Array<JsObject> dates = Array.fromEpochMillis(engine, new long[] { time });
+		JsObject date = dates.get(0, JsObject.class);
+		assertEquals(time, ((Number) date.call("getTime")).longValue());
+	}
+
+	private void testSelectionData() {
+
+		Selection svg = clearSvg();
+		svg.selectAll("rect") //
+				.data(new double[] { 10, 20, 30 }) //
+				.enter() //
+				.append("rect");
+
+		Array<Double> data = svg.selectAll("rect").data();
+		assertEquals(3, data.length());
+		assertEquals(30.0, data.get(2, Double.class), TOLERANCE);
+	}
+
+}
@@ -0,0 +1,77 @@
+package org.treez.javafxd3.d3.arrays;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.core.Selection;
+
+/**
+ * Tests the bulk readback methods of Array and Selection
+ */
+public class BulkReadbackTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testArrays();
+		testSelectionAttrValues();
+		testBoundingBoxes();
+
+	}
+
+	private void testArrays() {
+
+		Array<Double> numbers = Array.fromDoubles(engine, new double[] { 1.5, -2, 3 });
+		double[] doubleValues = numbers.toDoubleArray();
+		assertEquals(3, doubleValues.length);
+		assertEquals(-2.0, doubleValues[1], TOLERANCE);
+
+		long[] millis = new long[] { 0L, 946684800000L };
+		long[] longValues = Array.fromEpochMillis(engine, millis).toLongArray();
+		assertEquals(946684800000L, longValues[1]);
+
+		String[] strings = new String[] { "it's", null, "" };
+		String[] stringValues = Array.fromStrings(engine, strings).toStringArray();
+		assertEquals("it's", stringValues[0]);
+		assertNull(stringValues[1]);
+		assertEquals("", stringValues[2]);
+
+		assertEquals(0, Array.fromDoubles(engine, new double[0]).toDoubleArray().length);
+	}
+
+	private void testSelectionAttrValues() {
+
+		Selection svg = clearSvg();
+		Selection rects = svg.selectAll("rect") //
+				.data(new double[] { 1, 2, 3 }) //
+				.enter() //
+				.append("rect") //
+				.attr("x", new double[] { 10, 20.5, 30 });
+
+		double[] values = rects.attrValues("x");
+		assertEquals(3, values.length);
+		assertEquals(20.5, values[1], TOLERANCE);
+
+		double[] missingValues = rects.attrValues("y");
+		assertTrue(Double.isNaN(missingValues[0]));
+	}
+
+	private void testBoundingBoxes() {
+
+		Selection svg = clearSvg();
+		Selection rects = svg.selectAll("rect") //
+				.data(new double[] { 1, 2 }) //
+				.enter() //
+				.append("rect") //
+				.attr("x", new double[] { 5, 50 }) //
+				.attr("y", 10) //
+				.attr("width", 20) //
+				.attr("height", 30);
+
+		double[] boxes = rects.bboxes();
+		assertEquals(8, boxes.length);
+		assertEquals(50.0, boxes[4], TOLERANCE);
+		assertEquals(10.0, boxes[5], TOLERANCE);
+		assertEquals(20.0, boxes[6], TOLERANCE);
+		assertEquals(30.0, boxes[7], TOLERANCE);
+	}
+
+}
@@ -0,0 +1,103 @@
+package org.treez.javafxd3.d3.arrays;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.core.JsObject;
+import org.treez.javafxd3.d3.core.Selection;
+import org.treez.javafxd3.d3.core.UpdateSelection;
+import org.treez.javafxd3.d3.core.Value;
+
+/**
+ * Tests the class ColumnarDataset
+ */
+public class ColumnarDatasetTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testColumns();
+		testSelectionData();
+		testKeyColumn();
+
+	}
+
+	private void testColumns() {
+
+		ColumnarDataset dataset = new ColumnarDataset(3) //
+				.addColumn("x", new double[] { 1.5, 2.5, 3.5 }) //
+				.addColumn("count", new int[] { 1, 2, 3 }) //
+				.addColumn("time", new long[] { 0L, 1000L, 946684800000L }) //
+				.addColumn("category", new String[] { "a", null, "a" });
+
+		assertEquals(3, dataset.getNumberOfRows());
+		assertEquals("category", dataset.getColumnNames().get(3));
+
+		JsObject rows = dataset.toJsArray(engine);
+
+		JsObject secondRow = (JsObject) rows.getSlot(1);
+		assertEquals(2.5, ((Number) secondRow.getMember("x")).doubleValue(), TOLERANCE);
+		assertEquals(2, ((Number) secondRow.getMember("count")).intValue());
+		assertEquals(1000L, ((Number) secondRow.getMember("time")).longValue());
+		assertNull(secondRow.getMember("category"));
+
+		JsObject thirdRow = (JsObject) rows.getSlot(2);
+		assertEquals("a", thirdRow.getMember("category"));
+		assertEquals(946684800000L, ((Number) thirdRow.getMember("time")).longValue());
+
+		// changes of the columns are included in the next transfer
+		String[] categories = (String[]) dataset.getColumn("category");
+		categories[1] = "b";
+		JsObject changedRows = dataset.toJsArray(engine);
+		assertEquals("b", ((JsObject) changedRows.getSlot(1)).getMember("category"));
+		assertNull(secondRow.getMember("category"));
+
+		try {
+			dataset.addColumn("y", new double[] { 1 });
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException exception) {
+			// expected
+		}
+	}
+
+	private void testSelectionData() {
+
+		ColumnarDataset dataset = new ColumnarDataset(4) //
+				.addColumn("x", new double[] { 10, 20, 30, 40 }) //
+				.addColumn("category", new String[] { "it's", "b", "it's", "c" });
+
+		Selection svg = clearSvg();
+		Selection rects = svg.selectAll("rect") //
+				.data(dataset) //
+				.enter() //
+				.append("rect") //
+				.attrExpression("x", "function(d) { return d.x; }") //
+				.attr("class", (context, d, index) -> {
+					JsObject row = (JsObject) d;
+					return row.getMember("category");
+				});
+
+		assertEquals(4, rects.size());
+		assertEquals("30", svg.select("rect:nth-of-type(3)").attr("x"));
+		assertEquals("it's", svg.select("rect:nth-of-type(3)").attr("class"));
+		Value datum = svg.select("rect:nth-of-type(4)").datum();
+		JsObject row = datum.as();
+		assertEquals("c", row.getMember("category"));
+	}
+
+	private void testKeyColumn() {
+
+		Selection svg = clearSvg();
+		ColumnarDataset dataset = new ColumnarDataset(2) //
+				.addColumn("id", new String[] { "a", "b" });
+		svg.selectAll("circle") //
+				.data(dataset, "id") //
+				.enter() //
+				.append("circle");
+
+		ColumnarDataset update = new ColumnarDataset(3) //
+				.addColumn("id", new String[] { "b", "c", "d" });
+		UpdateSelection joined = svg.selectAll("circle").data(update, "id");
+		assertEquals(2, joined.enter().append("circle").size());
+		assertEquals(1, joined.exit().size());
+	}
+
+}
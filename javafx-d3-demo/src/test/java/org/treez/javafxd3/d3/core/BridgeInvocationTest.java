@@ -0,0 +1,62 @@
+package org.treez.javafxd3.d3.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+
+/**
+ * Tests that selection operations pass names and values as arguments, so
+ * that they do not need to be quoted
+ */
+public class BridgeInvocationTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testQuotedValues();
+		testDataCollections();
+
+	}
+
+	private void testQuotedValues() {
+
+		Selection svg = clearSvg();
+		String[] labels = new String[] { "it's", "say \"hi\"", "back\\slash\nnew line" };
+		Selection texts = svg.selectAll("text") //
+				.data(labels) //
+				.enter() //
+				.append("text") //
+				.attr("class", "label") //
+				.text((context, d, index) -> Value.create(engine, d).asString());
+
+		assertEquals(3, svg.selectAll("text[class='label']").size());
+		assertEquals("it's", texts.text());
+		assertEquals("say \"hi\"", svg.select("text:nth-of-type(2)").text());
+		assertEquals(labels[2], svg.select("text:nth-of-type(3)").text());
+
+		texts.datum("a 'quoted' datum");
+		assertEquals("a 'quoted' datum", texts.datum().asString());
+	}
+
+	private void testDataCollections() {
+
+		Selection svg = clearSvg();
+
+		List<Object> values = Arrays.asList(1, "two", 3.5);
+		Selection rects = svg.selectAll("rect") //
+				.dataObjectCollection(values) //
+				.enter() //
+				.append("rect");
+		assertEquals(3, rects.size());
+		assertEquals("two", svg.select("rect:nth-of-type(2)").datum().asString());
+
+		Selection chars = svg.selectAll("circle") //
+				.data(new char[] { 'a', '\'' }) //
+				.enter() //
+				.append("circle");
+		assertEquals("'", svg.select("circle:nth-of-type(2)").datum().asString());
+		assertEquals(2, chars.size());
+	}
+
+}
@@ -0,0 +1,207 @@
+package org.treez.javafxd3.d3.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.arrays.Array;
+import org.treez.javafxd3.d3.behaviour.Drag;
+import org.treez.javafxd3.d3.behaviour.Drag.DragEventType;
+import org.treez.javafxd3.d3.core.Transition.EventType;
+import org.treez.javafxd3.d3.functions.DataFunction;
+import org.treez.javafxd3.d3.geom.Quadtree;
+import org.treez.javafxd3.d3.svg.Area;
+import org.treez.javafxd3.d3.svg.Line;
+
+/**
+ * Tests the class CallbackDispatcher
+ */
+public class CallbackDispatcherTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testRegistration();
+		testSelectionCallbacks();
+		testListenerRelease();
+		testAccessorRelease();
+		testArrayCallbacks();
+
+	}
+
+	private void testRegistration() {
+
+		CallbackDispatcher dispatcher = engine.getCallbackDispatcher();
+		assertSame(dispatcher, engine.getCallbackDispatcher());
+
+		int numberOfCallbacks = dispatcher.getNumberOfCallbacks();
+
+		DataFunction<Integer> callback = (context, d, index) -> index;
+		int id = dispatcher.register(callback);
+		assertSame(callback, dispatcher.getCallback(id));
+		assertEquals(numberOfCallbacks + 1, dispatcher.getNumberOfCallbacks());
+
+		dispatcher.release(id);
+		assertNull(dispatcher.getCallback(id));
+		assertEquals(numberOfCallbacks, dispatcher.getNumberOfCallbacks());
+
+		// released ids are reused
+		int otherId = dispatcher.register(callback);
+		assertEquals(id, otherId);
+		dispatcher.release(otherId);
+
+		// released callbacks must not be called any more
+		try {
+			dispatcher.dispatch(otherId, null, null, 0);
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException exception) {
+			// expected
+		}
+
+		// engines without a dispatcher of their own get a default dispatcher
+		JsEngine otherEngine = new JsEngine() {
+
+			@Override
+			public Object executeScript(String script) {
+				return null;
+			}
+
+			@Override
+			public Object toJsObjectIfNotSimpleType(Object argument) {
+				return argument;
+			}
+		};
+		CallbackDispatcher otherDispatcher = otherEngine.getCallbackDispatcher();
+		assertSame(otherDispatcher, otherEngine.getCallbackDispatcher());
+		assertNotSame(dispatcher, otherDispatcher);
+	}
+
+	private void testSelectionCallbacks() {
+
+		CallbackDispatcher dispatcher = engine.getCallbackDispatcher();
+		int numberOfCallbacks = dispatcher.getNumberOfCallbacks();
+
+		Selection svg = clearSvg();
+		Selection rects = svg.selectAll("rect") //
+				.data(new double[] { 1, 2, 3 }) //
+				.enter() //
+				.append("rect");
+
+		// lambda expressions can be used as callbacks
+		rects.attr("width", (context, d, index) -> Value.create(engine, d).asDouble() * 10);
+		rects.text((context, d, index) -> "rect" + index);
+
+		assertEquals("20", svg.select("rect:nth-of-type(2)").attr("width"));
+		assertEquals("rect2", svg.select("rect:nth-of-type(3)").text());
+
+		List<Integer> indices = new ArrayList<>();
+		rects.each((context, d, index) -> {
+			indices.add(index);
+			return null;
+		});
+		assertEquals(3, indices.size());
+		assertEquals(2, (int) indices.get(2));
+
+		// callbacks of immediately evaluated functions are released
+		assertEquals(numberOfCallbacks, dispatcher.getNumberOfCallbacks());
+	}
+
+	private void testListenerRelease() {
+
+		CallbackDispatcher dispatcher = engine.getCallbackDispatcher();
+		int numberOfCallbacks = dispatcher.getNumberOfCallbacks();
+
+		Selection rects = clearSvg().selectAll("rect") //
+				.data(new double[] { 1, 2, 3 }) //
+				.enter() //
+				.append("rect");
+
+		DataFunction<Void> listener = (context, d, index) -> null;
+		rects.on("click", listener);
+		assertEquals(numberOfCallbacks + 1, dispatcher.getNumberOfCallbacks());
+
+		// a replaced listener is released
+		rects.on("click", listener);
+		assertEquals(numberOfCallbacks + 1, dispatcher.getNumberOfCallbacks());
+
+		// a listener that is still registered at some elements is kept
+		rects.filter(":first-child").on("click", listener);
+		assertEquals(numberOfCallbacks + 2, dispatcher.getNumberOfCallbacks());
+
+		rects.on("click", null);
+		assertEquals(numberOfCallbacks, dispatcher.getNumberOfCallbacks());
+
+		// all listeners of a namespace are released
+		rects.on("click.foo", listener);
+		rects.on("mouseover.foo", listener);
+		assertEquals(numberOfCallbacks + 2, dispatcher.getNumberOfCallbacks());
+		rects.on(".foo", null);
+		assertEquals(numberOfCallbacks, dispatcher.getNumberOfCallbacks());
+
+		// transition callbacks are released when the transition has been
+		// cancelled on all elements, here by a later transition that starts
+		// first
+		Transition transition = rects.transition().delay(1000);
+		transition.ease((t) -> t);
+		transition.each(EventType.END, listener);
+		assertEquals(numberOfCallbacks + 2, dispatcher.getNumberOfCallbacks());
+		rects.transition();
+		engine.executeScript("d3.timer.flush()");
+		JsBridge.get(engine).call("sweepTransitionCallbacks");
+		assertEquals(numberOfCallbacks, dispatcher.getNumberOfCallbacks());
+	}
+
+	private void testAccessorRelease() {
+
+		CallbackDispatcher dispatcher = engine.getCallbackDispatcher();
+		int numberOfCallbacks = dispatcher.getNumberOfCallbacks();
+
+		// lambda expressions can be used as accessors
+		Line line = d3.svg().line().x((context, d, index) -> index * 10.0);
+		assertEquals(numberOfCallbacks + 1, dispatcher.getNumberOfCallbacks());
+		assertEquals("M0,1L10,2", line.generate(new Double[][] { { 5.0, 1.0 }, { 6.0, 2.0 } }));
+
+		// a replaced accessor is released
+		line.x((context, d, index) -> index * 20.0);
+		assertEquals(numberOfCallbacks + 1, dispatcher.getNumberOfCallbacks());
+
+		// area.x sets x0 and x1, so its accessor is kept until both are
+		// replaced
+		Area area = d3.svg().area().x((context, d, index) -> index);
+		assertEquals(numberOfCallbacks + 2, dispatcher.getNumberOfCallbacks());
+		area.x0((context, d, index) -> 0.0);
+		assertEquals(numberOfCallbacks + 3, dispatcher.getNumberOfCallbacks());
+		area.x1((context, d, index) -> 1.0);
+		assertEquals(numberOfCallbacks + 3, dispatcher.getNumberOfCallbacks());
+
+		// listeners of behaviors are released when they are replaced or
+		// removed
+		Drag drag = d3.behavior().drag().on(DragEventType.DRAGSTART, (context, d, index) -> null);
+		drag.on(DragEventType.DRAGSTART, (context, d, index) -> null);
+		assertEquals(numberOfCallbacks + 4, dispatcher.getNumberOfCallbacks());
+		drag.on(DragEventType.DRAGSTART, null);
+		assertEquals(numberOfCallbacks + 3, dispatcher.getNumberOfCallbacks());
+
+		// the accessors of a quadtree are kept until they are replaced
+		DataFunction<Double> xAccessor = (context, d, index) -> index * 1.0;
+		Quadtree quadtree = d3.geom().quadtree().x(xAccessor);
+		assertEquals(numberOfCallbacks + 4, dispatcher.getNumberOfCallbacks());
+		quadtree.x(xAccessor);
+		assertEquals(numberOfCallbacks + 4, dispatcher.getNumberOfCallbacks());
+	}
+
+	private void testArrayCallbacks() {
+
+		Array<Double> values = Array.fromDoubles(engine, new double[] { 1, 4, 2 });
+
+		Array<Double> doubledValues = values.map((value) -> value * 2);
+		assertEquals(8.0, doubledValues.get(1, Double.class), TOLERANCE);
+
+		Array<Double> largeValues = values.filter((value) -> value > 1);
+		assertEquals(2, largeValues.length());
+
+		Value max = d3.max(values, (context, element, index, array) -> -((Number) element).doubleValue());
+		assertEquals(-1.0, max.asDouble(), TOLERANCE);
+	}
+
+}
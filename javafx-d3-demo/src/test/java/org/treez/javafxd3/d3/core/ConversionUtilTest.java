@@ -0,0 +1,107 @@
+package org.treez.javafxd3.d3.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.arrays.Array;
+import org.treez.javafxd3.d3.coords.Coords;
+
+/**
+ * Tests the class ConversionUtil
+ */
+public class ConversionUtilTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testSimpleTypes();
+		testJavaScriptObjects();
+		testDatumWrappers();
+		testConcurrentConversions();
+
+	}
+
+	private void testSimpleTypes() {
+
+		assertNull(ConversionUtil.convertObjectTo(null, Double.class, engine));
+		assertNull(ConversionUtil.convertObjectTo("undefined", Integer.class, engine));
+
+		assertEquals(2.0, ConversionUtil.convertObjectTo(2, Double.class, engine), TOLERANCE);
+		assertEquals(2.5f, ConversionUtil.convertObjectTo(2.5, Float.class, engine), TOLERANCE);
+		assertEquals(3, (int) ConversionUtil.convertObjectTo(3.7, Integer.class, engine));
+		assertEquals(1, (int) ConversionUtil.convertObjectTo(true, Integer.class, engine));
+		assertEquals(42, (int) ConversionUtil.convertObjectTo("42", Integer.class, engine));
+		assertNull(ConversionUtil.convertObjectTo(Double.NaN, Integer.class, engine));
+		assertEquals((short) 7, (short) ConversionUtil.convertObjectTo(7, Short.class, engine));
+		assertEquals('a', (char) ConversionUtil.convertObjectTo("abc", Character.class, engine));
+		assertEquals("3", ConversionUtil.convertObjectTo(3, String.class, engine));
+		assertEquals(5.0, ConversionUtil.convertObjectTo(5, Number.class, engine).doubleValue(), TOLERANCE);
+
+		try {
+			ConversionUtil.convertObjectTo("text", Double.class, engine);
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException exception) {
+			// expected
+		}
+	}
+
+	private void testJavaScriptObjects() {
+
+		Array<JsObject> coordsArray = Array.fromJavaScriptObjects(engine, new Coords(engine, 1, 2).getJsObject(),
+				new Coords(engine, 3, 4).getJsObject());
+
+		Object jsCoords = coordsArray.getAsObject(1);
+		Coords coords = ConversionUtil.convertObjectTo(jsCoords, Coords.class, engine);
+		assertEquals(3.0, coords.x(), TOLERANCE);
+		assertEquals(4.0, coords.y(), TOLERANCE);
+
+		// converted again with the cached constructor
+		Coords otherCoords = ConversionUtil.convertObjectTo(coordsArray.getAsObject(0), Coords.class, engine);
+		assertEquals(1.0, otherCoords.x(), TOLERANCE);
+	}
+
+	private void testDatumWrappers() {
+
+		JsObject wrapper = ConversionUtil.createJsObject("{datum: 12}", engine);
+		assertEquals(12, (int) ConversionUtil.convertObjectTo(wrapper, Integer.class, engine, true));
+		assertEquals(12, (int) ConversionUtil.convertObjectTo(wrapper, Value.class, engine, true).asInt());
+
+		// not unwrapped by default
+		JsObject unwrapped = ConversionUtil.convertObjectTo(wrapper, JsObject.class, engine);
+		assertEquals(12, unwrapped.getMember("datum"));
+
+		// objects with additional members are no wrappers
+		JsObject object = ConversionUtil.createJsObject("{datum: 12, x: 1}", engine);
+		JsObject result = ConversionUtil.convertObjectTo(object, JsObject.class, engine, true);
+		assertEquals(1, result.getMember("x"));
+	}
+
+	private void testConcurrentConversions() {
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Double>> futures = new ArrayList<>();
+			for (int taskIndex = 0; taskIndex < 8; taskIndex++) {
+				futures.add(executor.submit(() -> {
+					double sum = 0;
+					for (int index = 0; index < 10000; index++) {
+						sum += ConversionUtil.convertObjectTo(index, Double.class, engine);
+					}
+					return sum;
+				}));
+			}
+			for (Future<Double> future : futures) {
+				assertEquals(49995000.0, future.get(), TOLERANCE);
+			}
+		} catch (Exception exception) {
+			throw new IllegalStateException(exception);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
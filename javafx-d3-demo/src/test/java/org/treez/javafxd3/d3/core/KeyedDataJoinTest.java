@@ -0,0 +1,102 @@
+package org.treez.javafxd3.d3.core;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.functions.KeyFunction;
+
+/**
+ * Tests the incremental keyed data join of {@link KeyedDataJoin}
+ */
+public class KeyedDataJoinTest extends AbstractTestCase {
+
+	private int numberOfElementKeyCalls;
+
+	@Override
+	public void doTest() {
+
+		testDelta();
+		testDuplicateKeys();
+		testJoin();
+
+	}
+
+	private void testDelta() {
+
+		Object[] oldKeys = { "a", "b", "c", "d", "e", "f" };
+		Object[] oldData = { 1, 2, 3, 4, 5, 6 };
+		Object[] newKeys = { "a", "c", "d", "x", "f" };
+		Object[] newData = { 1, 3, 40, 7, 6 };
+
+		KeyedDataJoin.Delta delta = KeyedDataJoin.computeDelta(oldKeys, oldData, newKeys, newData);
+		assertArrayEquals(new int[] { 0, 0, 1, 1, 2, 2, 4, 5, 1 }, delta.runs);
+		assertArrayEquals(new int[] { 1, 4 }, delta.exitIndices);
+		assertArrayEquals(new int[] { 2, 3 }, delta.rowIndices);
+	}
+
+	private void testDuplicateKeys() {
+
+		Object[] oldKeys = { "a", "a", null };
+		Object[] oldData = { 1, 2, 3 };
+		Object[] newKeys = { null, "a", "a" };
+		Object[] newData = { 3, 1, 1 };
+
+		// like in d3, the node with the duplicate key exits and the datum
+		// with the duplicate key is skipped
+		KeyedDataJoin.Delta delta = KeyedDataJoin.computeDelta(oldKeys, oldData, newKeys, newData);
+		assertArrayEquals(new int[] { 0, 2, 1, 1, 0, 1 }, delta.runs);
+		assertArrayEquals(new int[] { 1 }, delta.exitIndices);
+		assertArrayEquals(new int[] {}, delta.rowIndices);
+
+		// keys are compared by their string values
+		delta = KeyedDataJoin.computeDelta(new Object[] { 1, 2 }, new Object[] { 1, 2 },
+				new Object[] { "2", "null", null }, new Object[] { 2, 3, 4 });
+		assertArrayEquals(new int[] { 0, 1, 1 }, delta.runs);
+		assertArrayEquals(new int[] { 0 }, delta.exitIndices);
+		assertArrayEquals(new int[] { 1 }, delta.rowIndices);
+	}
+
+	private void testJoin() {
+
+		Selection svg = clearSvg();
+		KeyFunction<String> keyFunction = (context, newDataArray, datum, index) -> {
+			if (context != null) {
+				numberOfElementKeyCalls++;
+			}
+			return String.valueOf(datum).split(":")[0];
+		};
+		KeyedDataJoin join = new KeyedDataJoin(engine, keyFunction);
+
+		UpdateSelection update = svg.selectAll("circle").data(new String[] { "a:1", "b:2", "c:3" }, join);
+		assertEquals(3, update.enter().size());
+		update.enter().append("circle").attr("id", (context, datum, index) -> datum.toString().split(":")[0]);
+
+		numberOfElementKeyCalls = 0;
+		update = svg.selectAll("circle").data(new String[] { "c:30", "a:1", "d:4" }, join);
+		assertEquals(0, numberOfElementKeyCalls);
+		assertEquals(2, update.size());
+		assertEquals(1, update.enter().size());
+		assertEquals(1, update.exit().size());
+		assertEquals("b", update.exit().attr("id"));
+		assertEquals("c:30", svg.select("#c").datum().asString());
+
+		update.exit().remove();
+		update.enter().append("circle").attr("id", "d");
+		assertEquals(3, svg.selectAll("circle").size());
+		assertEquals("d:4", svg.select("#d").datum().asString());
+
+		// a node that has not been created by the join falls back to d3
+		svg.append("circle").attr("id", "other");
+		update = svg.selectAll("circle").data(new String[] { "a:1" }, join);
+		assertTrue(numberOfElementKeyCalls > 0);
+		assertEquals(1, update.size());
+		assertEquals(3, update.exit().size());
+
+		// the join keeps a copy of the data, so the array may be reused
+		update.exit().remove();
+		String[] data = { "a:1" };
+		svg.selectAll("circle").data(data, join);
+		data[0] = "a:2";
+		svg.selectAll("circle").data(data, join);
+		assertEquals("a:2", svg.select("#a").datum().asString());
+	}
+
+}
@@ -0,0 +1,98 @@
+package org.treez.javafxd3.d3.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+
+/**
+ * Tests the chunked rendering of {@link ProgressiveRender}
+ */
+public class ProgressiveRenderTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testAppend();
+		testUpdate();
+		testCancel();
+
+	}
+
+	private void testAppend() {
+
+		Selection svg = clearSvg();
+		CallbackDispatcher dispatcher = engine.getCallbackDispatcher();
+		int numberOfCallbacks = dispatcher.getNumberOfCallbacks();
+
+		UpdateSelection update = svg.selectAll("circle").data(createData(100));
+		List<Integer> progress = new ArrayList<>();
+		ProgressiveRender render = update.enter().appendProgressively("circle", (chunk, offset) -> {
+			chunk.attr("cx", (context, datum, index) -> offset + index);
+		}, currentRender -> progress.add(currentRender.getNumberOfRenderedElements()), 1000);
+
+		assertEquals(100, render.getNumberOfElements());
+		assertEquals(0, render.getNumberOfRenderedElements());
+		assertEquals(0, svg.selectAll("circle").size());
+
+		renderFrame(render);
+		assertTrue(render.isFinished());
+		assertFalse(render.isCancelled());
+		assertEquals(100, svg.selectAll("circle").size());
+		assertEquals(100, update.size());
+		assertEquals("42", update.filter(":nth-child(43)").attr("cx"));
+		assertEquals(1, progress.size());
+		assertEquals(100, (int) progress.get(0));
+		assertEquals(numberOfCallbacks, dispatcher.getNumberOfCallbacks());
+	}
+
+	private void testUpdate() {
+
+		Selection svg = clearSvg();
+		svg.selectAll("rect").data(createData(50)).enter().append("rect");
+
+		UpdateSelection update = svg.selectAll("rect").data(createData(50));
+		ProgressiveRender render = update.renderProgressively((chunk, offset) -> chunk.attr("width", 3), null, 1000);
+		renderFrame(render);
+		assertTrue(render.isFinished());
+		assertEquals(50, svg.selectAll("rect[width='3']").size());
+	}
+
+	private void testCancel() {
+
+		Selection svg = clearSvg();
+		CallbackDispatcher dispatcher = engine.getCallbackDispatcher();
+		int numberOfCallbacks = dispatcher.getNumberOfCallbacks();
+
+		UpdateSelection update = svg.selectAll("circle").data(createData(100));
+		List<Boolean> cancellations = new ArrayList<>();
+		ProgressiveRender render = update.enter().appendProgressively("circle", null,
+				currentRender -> cancellations.add(currentRender.isCancelled()));
+
+		UpdateSelection newUpdate = svg.selectAll("circle").data(createData(10));
+		ProgressiveRender newRender = newUpdate.enter().appendProgressively("circle", null, null);
+		assertTrue(render.isCancelled());
+		assertFalse(render.isFinished());
+		assertEquals(1, cancellations.size());
+		assertTrue(cancellations.get(0));
+
+		newRender.cancel();
+		newRender.cancel();
+		assertTrue(newRender.isCancelled());
+		assertEquals(0, svg.selectAll("circle").size());
+		assertEquals(numberOfCallbacks, dispatcher.getNumberOfCallbacks());
+	}
+
+	private void renderFrame(ProgressiveRender render) {
+		JsBridge.get(engine).call("renderProgressiveFrame", render.getJsObject());
+	}
+
+	private static int[] createData(int length) {
+		int[] data = new int[length];
+		for (int index = 0; index < length; index++) {
+			data[index] = index;
+		}
+		return data;
+	}
+
+}
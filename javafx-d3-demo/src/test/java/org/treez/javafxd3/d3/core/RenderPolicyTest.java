@@ -0,0 +1,116 @@
+package org.treez.javafxd3.d3.core;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+
+/**
+ * Tests the canvas layers of a {@link RenderPolicy}
+ */
+public class RenderPolicyTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		try {
+			testCanvasLayer();
+			testSmallSelection();
+			testRemovedLayers();
+			testMarkNames();
+		} finally {
+			RenderPolicy.remove(engine);
+		}
+
+	}
+
+	private void testCanvasLayer() {
+
+		Selection svg = clearSvg();
+		new RenderPolicy().elementBudget(5).apply(engine);
+
+		Selection group = svg.append("g");
+		Selection circles = group.selectAll("circle").data(createData(10)).enter().append("circle")
+				.attr("cx", (context, datum, index) -> index * 10).attr("cy", 5).attr("r", 4).classed("dot", true);
+
+		assertTrue(circles.isRenderedToCanvas());
+		assertEquals(1, svg.selectAll("foreignObject").size());
+		assertEquals(10, group.selectAll("circle").size());
+		assertEquals(10, svg.selectAll("circle.dot").size());
+		assertArrayEquals(new double[] { 0, 10, 20, 30, 40, 50, 60, 70, 80, 90 }, circles.attrValues("cx"),
+				TOLERANCE);
+
+		assertEquals(3, circles.indexAt(30, 5));
+		assertEquals(-1, circles.indexAt(35, 5));
+		assertArrayEquals(new int[] { 2, 3, 4 }, circles.indicesIn(15, 0, 42, 10));
+
+		UpdateSelection update = group.selectAll("circle").data(createData(3));
+		update.exit().remove();
+		assertEquals(3, group.selectAll("circle").size());
+	}
+
+	private void testSmallSelection() {
+
+		Selection svg = clearSvg();
+		new RenderPolicy().elementBudget(5).apply(engine);
+
+		Selection rects = svg.selectAll("rect").data(createData(2)).enter().append("rect").attr("x", 3)
+				.attr("width", 4).attr("height", 4);
+
+		assertFalse(rects.isRenderedToCanvas());
+		assertEquals(0, svg.selectAll("foreignObject").size());
+		assertEquals(1, rects.indexAt(5, 2));
+	}
+
+	private void testRemovedLayers() {
+
+		Selection svg = clearSvg();
+		new RenderPolicy().elementBudget(5).apply(engine);
+		assertEquals(0, svg.selectAll("circle").size());
+		int numberOfLayers = getNumberOfCanvasLayers();
+
+		Selection group = svg.append("g");
+		Selection circles = group.selectAll("circle").data(createData(10)).enter().append("circle").attr("cx",
+				(context, datum, index) -> index * 10).attr("cy", 5).attr("r", 4);
+		assertEquals(0, circles.indexAt(0, 5));
+		assertEquals(numberOfLayers + 1, getNumberOfCanvasLayers());
+
+		// the layer of a removed group is neither searched nor hit tested
+		group.remove();
+		assertEquals(0, svg.selectAll("circle").size());
+		assertEquals(-1, circles.indexAt(0, 5));
+		assertEquals(numberOfLayers, getNumberOfCanvasLayers());
+
+		// a new layer is created for new marks after the layer was removed
+		Selection otherGroup = svg.append("g");
+		otherGroup.selectAll("circle").data(createData(10)).enter().append("circle");
+		otherGroup.selectAll("*").remove();
+		otherGroup.selectAll("circle").data(createData(10)).enter().append("circle");
+		assertEquals(1, otherGroup.selectAll("foreignObject").size());
+		assertEquals(10, svg.selectAll("circle").size());
+		assertEquals(numberOfLayers + 1, getNumberOfCanvasLayers());
+	}
+
+	private int getNumberOfCanvasLayers() {
+		JsObject canvasLayers = (JsObject) JsBridge.get(engine).getMember("canvasLayers");
+		return ((Number) canvasLayers.getMember("length")).intValue();
+	}
+
+	private void testMarkNames() {
+
+		RenderPolicy policy = new RenderPolicy().markNames("circle");
+		assertEquals(1, policy.getMarkNames().size());
+		try {
+			policy.markNames("text");
+			fail("Unsupported mark names must be rejected");
+		} catch (IllegalArgumentException exception) {
+			assertEquals(1, policy.getMarkNames().size());
+		}
+	}
+
+	private static int[] createData(int length) {
+		int[] data = new int[length];
+		for (int index = 0; index < length; index++) {
+			data[index] = index;
+		}
+		return data;
+	}
+
+}
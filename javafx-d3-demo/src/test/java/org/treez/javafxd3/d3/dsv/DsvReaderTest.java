@@ -0,0 +1,113 @@
+package org.treez.javafxd3.d3.dsv;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.arrays.ColumnarDataset;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * Tests the class DsvReader
+ */
+public class DsvReaderTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testTypes();
+		testQuotes();
+		testFile();
+		testCharsets();
+
+	}
+
+	private void testTypes() {
+
+		String content = "id,value,name,empty\r\n1,1.5,a,\r\n2,,b,\r\n\r\n3,2e3,a,";
+		ColumnarDataset dataset = DsvReader.csv().parse(content);
+		assertEquals(3, dataset.getNumberOfRows());
+		assertEquals("empty", dataset.getColumnNames().get(3));
+
+		int[] ids = (int[]) dataset.getColumn("id");
+		assertEquals(3, ids[2]);
+
+		double[] values = (double[]) dataset.getColumn("value");
+		assertEquals(1.5, values[0], TOLERANCE);
+		assertTrue(Double.isNaN(values[1]));
+		assertEquals(2000.0, values[2], TOLERANCE);
+
+		String[] names = (String[]) dataset.getColumn("name");
+		assertEquals("b", names[1]);
+		assertNull(((String[]) dataset.getColumn("empty"))[0]);
+
+		ColumnarDataset strings = DsvReader.csv().inferTypes(false).parse(content);
+		assertEquals("1.5", ((String[]) strings.getColumn("value"))[0]);
+	}
+
+	private void testQuotes() {
+
+		String content = "name\tcomment\n\"a\tb\"\t\"line\nbreak \"\"quoted\"\"\"\nc\tshort";
+		ColumnarDataset dataset = DsvReader.tsv().parse(content);
+		assertEquals(2, dataset.getNumberOfRows());
+
+		String[] names = (String[]) dataset.getColumn("name");
+		assertEquals("a\tb", names[0]);
+		String[] comments = (String[]) dataset.getColumn("comment");
+		assertEquals("line\nbreak \"quoted\"", comments[0]);
+		assertEquals("short", comments[1]);
+	}
+
+	private void testFile() {
+
+		int numberOfRows = 100000;
+		StringBuilder content = new StringBuilder("x,y,category\n");
+		for (int row = 0; row < numberOfRows; row++) {
+			content.append(row).append(',').append(row * 0.25).append(",\"c,").append(row % 3).append("\"\n");
+		}
+
+		Path file = null;
+		try {
+			file = Files.createTempFile("dsv-reader-test", ".csv");
+			Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+
+			ColumnarDataset dataset = d3.readCsv(file);
+			assertEquals(numberOfRows, dataset.getNumberOfRows());
+			double[] y = (double[]) dataset.getColumn("y");
+			assertEquals(24999.75, y[numberOfRows - 1], TOLERANCE);
+
+			ColumnarDataset heapDataset = DsvReader.csv().memoryMapped(false).parallelism(3).read(file);
+			String[] categories = (String[]) heapDataset.getColumn("category");
+			assertEquals("c,0", categories[numberOfRows - 1]);
+
+			JsObject rows = dataset.toJsArray(engine);
+			JsObject row = (JsObject) rows.getSlot(5);
+			assertEquals(5, ((Number) row.getMember("x")).intValue());
+			assertEquals("c,2", row.getMember("category"));
+		} catch (IOException exception) {
+			throw new IllegalStateException("Could not write the test file", exception);
+		} finally {
+			if (file != null) {
+				file.toFile().delete();
+			}
+		}
+	}
+
+	private void testCharsets() {
+
+		String content = "name\n\u00e4\u00f6";
+		ColumnarDataset dataset = DsvReader.csv().charset(StandardCharsets.ISO_8859_1).parse(content);
+		assertEquals("\u00e4\u00f6", ((String[]) dataset.getColumn("name"))[0]);
+
+		// charsets that encode ASCII characters with several bytes are rejected
+		try {
+			DsvReader.csv().charset(StandardCharsets.UTF_16);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException exception) {
+			// expected
+		}
+	}
+
+}
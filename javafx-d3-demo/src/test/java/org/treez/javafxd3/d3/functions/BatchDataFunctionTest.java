@@ -0,0 +1,91 @@
+package org.treez.javafxd3.d3.functions;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.arrays.Array;
+import org.treez.javafxd3.d3.core.Selection;
+import org.treez.javafxd3.d3.geom.Hull;
+
+public class BatchDataFunctionTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testSelectionAttr();
+		testSelectionTextAndFilter();
+		testHullAccessors();
+
+	}
+
+	private void testSelectionAttr() {
+
+		Selection svg = clearSvg();
+		svg.selectAll("rect") //
+				.data(new double[] { 1, 2, 3 }) //
+				.enter() //
+				.append("rect");
+
+		int[] numberOfCalls = { 0 };
+		Selection rects = svg.selectAll("rect");
+		rects.attr("width", (data, indices) -> {
+			numberOfCalls[0]++;
+			Double[] widths = new Double[indices.length];
+			for (int index = 0; index < indices.length; index++) {
+				widths[index] = data.get(index, Double.class) * 10;
+			}
+			return widths;
+		});
+
+		assertEquals("number of calls", 1, numberOfCalls[0]);
+		assertEquals("10", rects.attr("width"));
+		assertEquals("30", svg.select("rect:nth-child(3)").attr("width"));
+	}
+
+	private void testSelectionTextAndFilter() {
+
+		Selection svg = clearSvg();
+		svg.selectAll("text") //
+				.data(new int[] { 5, 6, 7, 8 }) //
+				.enter() //
+				.append("text");
+
+		Selection texts = svg.selectAll("text");
+		texts.text((data, indices) -> {
+			String[] labels = new String[indices.length];
+			for (int index = 0; index < indices.length; index++) {
+				labels[index] = "label '" + indices[index] + "'";
+			}
+			return labels;
+		});
+		assertEquals("label '0'", texts.text());
+
+		Selection evenTexts = texts.filter((data, indices) -> {
+			Boolean[] isEven = new Boolean[indices.length];
+			for (int index = 0; index < indices.length; index++) {
+				isEven[index] = data.get(index, Integer.class) % 2 == 0;
+			}
+			return isEven;
+		});
+		assertEquals(2, evenTexts.size());
+		assertEquals("label '1'", evenTexts.text());
+	}
+
+	private void testHullAccessors() {
+
+		Array<Double> vertices = Array.fromDoubles(engine,
+				new double[][] { { 0, 0 }, { 10, 0 }, { 5, 5 }, { 10, 10 }, { 0, 10 } });
+
+		Hull hull = d3.geom() //
+				.hull() //
+				.x((data, indices) -> {
+					Double[] xValues = new Double[indices.length];
+					for (int index = 0; index < indices.length; index++) {
+						xValues[index] = vertices.get(index, 0, Double.class);
+					}
+					return xValues;
+				});
+
+		Array<Double> result = hull.apply(vertices);
+		assertEquals(4, result.length());
+	}
+
+}
@@ -0,0 +1,112 @@
+package org.treez.javafxd3.d3.geom;
+
+import java.util.Random;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * Tests the classes Delaunay and VoronoiDiagram
+ */
+public class DelaunayTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testSquare();
+		testRandomPoints();
+		testCollinearPoints();
+		testPaths();
+
+	}
+
+	private void testSquare() {
+
+		Delaunay delaunay = new Delaunay(new double[] { 0, 10, 10, 0, 5 }, new double[] { 0, 0, 10, 10, 5 });
+		assertEquals(4 * 3, delaunay.getTriangles().length);
+		assertEquals(4, delaunay.getHull().length);
+		assertEquals(8, delaunay.getLinks().length / 2);
+		assertEquals(4, delaunay.getNeighbors(4).length);
+
+		VoronoiDiagram voronoi = delaunay.voronoi(0, 0, 10, 10);
+		double[] centerCell = voronoi.getCell(4);
+		assertEquals(4, centerCell.length / 2);
+		assertEquals(50.0, getArea(centerCell), TOLERANCE);
+		assertEquals(4, voronoi.find(6, 4));
+		assertEquals(2, voronoi.find(9, 9));
+	}
+
+	private void testRandomPoints() {
+
+		Random random = new Random(7);
+		int numberOfPoints = 2000;
+		double[] x = new double[numberOfPoints];
+		double[] y = new double[numberOfPoints];
+		for (int index = 0; index < numberOfPoints; index++) {
+			x[index] = random.nextDouble() * 500;
+			y[index] = random.nextDouble() * 300;
+		}
+		// coincident point
+		x[1] = x[0];
+		y[1] = y[0];
+
+		Delaunay delaunay = new Delaunay(x, y);
+		VoronoiDiagram voronoi = delaunay.voronoi(0, 0, 500, 300);
+
+		// the cells cover the extent
+		double area = 0;
+		for (int index = 0; index < numberOfPoints; index++) {
+			area += getArea(voronoi.getCell(index));
+		}
+		assertEquals(500 * 300, area, 1e-6);
+		int[] offsets = voronoi.getCellOffsets();
+		assertEquals(numberOfPoints + 1, offsets.length);
+		assertEquals(2 * offsets[numberOfPoints], voronoi.getCellVertices().length);
+
+		// the search returns the closest point
+		for (int query = 0; query < 50; query++) {
+			double queryX = random.nextDouble() * 500;
+			double queryY = random.nextDouble() * 300;
+			double minDistance = Double.POSITIVE_INFINITY;
+			for (int index = 0; index < numberOfPoints; index++) {
+				minDistance = Math.min(minDistance, Math.hypot(x[index] - queryX, y[index] - queryY));
+			}
+			int point = voronoi.find(queryX, queryY);
+			assertEquals(minDistance, Math.hypot(x[point] - queryX, y[point] - queryY), TOLERANCE);
+		}
+	}
+
+	private void testCollinearPoints() {
+
+		Delaunay delaunay = new Delaunay(new double[] { 0, 2, 1 }, new double[] { 0, 2, 1 });
+		assertEquals(0, delaunay.getTriangles().length);
+		assertEquals(3, delaunay.getHull().length);
+		assertEquals(2, delaunay.getLinks().length / 2);
+
+		VoronoiDiagram voronoi = delaunay.voronoi(0, 0, 2, 2);
+		assertEquals(0.5, getArea(voronoi.getCell(0)), TOLERANCE);
+		assertEquals(3.0, getArea(voronoi.getCell(2)), TOLERANCE);
+	}
+
+	private void testPaths() {
+
+		Delaunay delaunay = new Delaunay(new double[] { 0, 10 }, new double[] { 0, 0 });
+		VoronoiDiagram voronoi = delaunay.voronoi(0, 0, 10, 10);
+		String[] paths = voronoi.toPathStrings();
+		assertEquals("M0,0L5,0L5,10L0,10Z", paths[0]);
+
+		JsObject jsPaths = voronoi.toJsPaths(engine);
+		assertEquals(paths[1], jsPaths.getSlot(1));
+	}
+
+	private static double getArea(double[] polygon) {
+		int numberOfVertices = polygon.length / 2;
+		double area = 0;
+		for (int index = 0; index < numberOfVertices; index++) {
+			int next = (index + 1) % numberOfVertices;
+			area += polygon[2 * index] * polygon[2 * next + 1] - polygon[2 * next] * polygon[2 * index + 1];
+		}
+		return Math.abs(area) / 2;
+	}
+
+}
@@ -0,0 +1,132 @@
+package org.treez.javafxd3.d3.geom;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * Tests the class PointQuadtree
+ */
+public class PointQuadtreeTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testQueries();
+		testIncrementalAdd();
+		testVisit();
+		testExport();
+
+	}
+
+	private void testQueries() {
+
+		Random random = new Random(42);
+		int numberOfPoints = 5000;
+		double[] x = new double[numberOfPoints];
+		double[] y = new double[numberOfPoints];
+		for (int index = 0; index < numberOfPoints; index++) {
+			x[index] = random.nextDouble() * 100;
+			y[index] = random.nextDouble() * 100;
+		}
+		// coincident point
+		x[1] = x[0];
+		y[1] = y[0];
+
+		PointQuadtree quadtree = new PointQuadtree(x, y);
+		assertEquals(numberOfPoints, quadtree.size());
+
+		for (int query = 0; query < 20; query++) {
+			double queryX = random.nextDouble() * 120 - 10;
+			double queryY = random.nextDouble() * 120 - 10;
+
+			double[] distances = new double[numberOfPoints];
+			for (int index = 0; index < numberOfPoints; index++) {
+				distances[index] = Math.hypot(x[index] - queryX, y[index] - queryY);
+			}
+			double[] sortedDistances = distances.clone();
+			Arrays.sort(sortedDistances);
+
+			int closestPoint = quadtree.find(queryX, queryY);
+			assertEquals(sortedDistances[0], distances[closestPoint], TOLERANCE);
+
+			int[] nearestPoints = quadtree.findNearest(queryX, queryY, 5);
+			assertEquals(5, nearestPoints.length);
+			for (int index = 0; index < 5; index++) {
+				assertEquals(sortedDistances[index], distances[nearestPoints[index]], TOLERANCE);
+			}
+
+			assertEquals(PointQuadtree.NO_INDEX, quadtree.find(queryX, queryY, sortedDistances[0] * 0.99));
+
+			int numberOfPointsInRectangle = 0;
+			for (int index = 0; index < numberOfPoints; index++) {
+				boolean isInside = x[index] >= queryX && x[index] <= queryX + 20 && y[index] >= queryY
+						&& y[index] <= queryY + 10;
+				if (isInside) {
+					numberOfPointsInRectangle++;
+				}
+			}
+			int[] pointsInRectangle = quadtree.findInRectangle(queryX, queryY, queryX + 20, queryY + 10);
+			assertEquals(numberOfPointsInRectangle, pointsInRectangle.length);
+		}
+	}
+
+	private void testIncrementalAdd() {
+
+		PointQuadtree quadtree = new PointQuadtree();
+		assertEquals(PointQuadtree.NO_INDEX, quadtree.find(0, 0));
+
+		assertEquals(0, quadtree.add(5, 5));
+		assertEquals(1, quadtree.add(-100, 40));
+		assertEquals(2, quadtree.add(300, -20));
+		assertEquals(3, quadtree.add(Double.NaN, 1));
+
+		assertEquals(4, quadtree.size());
+		assertEquals(1, quadtree.find(-90, 40));
+		assertEquals(2, quadtree.find(1000, 0));
+		assertEquals(0, quadtree.find(4, 4, 2));
+		assertEquals(3, quadtree.findNearest(0, 0, 10).length);
+	}
+
+	private void testVisit() {
+
+		PointQuadtree quadtree = new PointQuadtree(new double[] { 0, 10, 10 }, new double[] { 0, 0, 10 });
+		int[] numberOfVisitedCells = { 0 };
+		int[] numberOfVisitedPoints = { 0 };
+		quadtree.visit((cell, x1, y1, x2, y2) -> {
+			numberOfVisitedCells[0]++;
+			assertEquals(x2 - x1, y2 - y1, TOLERANCE);
+			for (int point = quadtree.getFirstPoint(cell); point != PointQuadtree.NO_INDEX; point = quadtree
+					.getNextPoint(point)) {
+				numberOfVisitedPoints[0]++;
+			}
+			return false;
+		});
+		assertEquals(quadtree.getNumberOfCells(), numberOfVisitedCells[0]);
+		assertEquals(3, numberOfVisitedPoints[0]);
+
+		// returning true skips the children of the root
+		numberOfVisitedCells[0] = 0;
+		quadtree.visit((cell, x1, y1, x2, y2) -> {
+			numberOfVisitedCells[0]++;
+			return true;
+		});
+		assertEquals(1, numberOfVisitedCells[0]);
+	}
+
+	private void testExport() {
+
+		PointQuadtree quadtree = new PointQuadtree(new double[] { 0, 10 }, new double[] { 0, 10 });
+		double[] bounds = quadtree.getCellBounds();
+		assertEquals(4 * quadtree.getNumberOfCells(), bounds.length);
+		assertEquals(10, bounds[2], TOLERANCE);
+
+		JsObject cells = quadtree.toJsCells(engine);
+		assertEquals(quadtree.getNumberOfCells(), ((Number) cells.getMember("length")).intValue());
+		JsObject rootCell = (JsObject) cells.getSlot(quadtree.getRoot());
+		assertEquals(10.0, ((Number) rootCell.getMember("y2")).doubleValue(), TOLERANCE);
+	}
+
+}
@@ -0,0 +1,115 @@
+package org.treez.javafxd3.d3.geom;
+
+import java.util.Random;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * Tests the class PolygonMath
+ */
+public class PolygonMathTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testHull();
+		testGroupHulls();
+		testMetrics();
+		testClip();
+		testPaths();
+
+	}
+
+	private void testHull() {
+
+		double[] x = { 0, 10, 10, 0, 5, 5 };
+		double[] y = { 0, 0, 10, 10, 5, 0 };
+		int[] hull = PolygonMath.hull(x, y);
+		assertEquals(4, hull.length);
+
+		// same orientation as the hull of d3
+		double[] polygon = PolygonMath.hullPolygon(x, y);
+		assertEquals(100.0, PolygonMath.area(polygon), TOLERANCE);
+
+		assertEquals(0, PolygonMath.hull(new double[] { 0, 1 }, new double[] { 0, 1 }).length);
+	}
+
+	private void testGroupHulls() {
+
+		Random random = new Random(11);
+		int numberOfPoints = 5000;
+		int numberOfGroups = 200;
+		double[] x = new double[numberOfPoints];
+		double[] y = new double[numberOfPoints];
+		int[] groups = new int[numberOfPoints];
+		for (int index = 0; index < numberOfPoints; index++) {
+			x[index] = random.nextDouble() * 400;
+			y[index] = random.nextDouble() * 300;
+			groups[index] = random.nextInt(numberOfGroups);
+		}
+
+		double[][] hulls = PolygonMath.hulls(x, y, groups, numberOfGroups);
+		assertEquals(numberOfGroups, hulls.length);
+		for (int index = 0; index < numberOfPoints; index++) {
+			double[] hull = hulls[groups[index]];
+			assertTrue(isInside(hull, x[index], y[index]));
+		}
+		double[] areas = PolygonMath.areas(hulls);
+		for (double area : areas) {
+			assertTrue(area > 0);
+		}
+	}
+
+	private void testMetrics() {
+
+		double[] square = { 0, 0, 0, 10, 10, 10, 10, 0 };
+		assertEquals(100.0, PolygonMath.area(square), TOLERANCE);
+
+		double[] centroid = PolygonMath.centroid(square);
+		assertEquals(5.0, centroid[0], TOLERANCE);
+		assertEquals(5.0, centroid[1], TOLERANCE);
+
+		double[] centroids = PolygonMath.centroids(new double[][] { square, { 0, 0, 0, 3, 3, 0 } });
+		assertEquals(1.0, centroids[2], TOLERANCE);
+		assertEquals(1.0, centroids[3], TOLERANCE);
+	}
+
+	private void testClip() {
+
+		double[] square = { 0, 0, 0, 10, 10, 10, 10, 0 };
+		double[] triangle = { 5, 5, 15, 5, 15, 15 };
+		double[] clipped = PolygonMath.clip(square, triangle);
+		assertEquals(3, clipped.length / 2);
+		assertEquals(12.5, Math.abs(PolygonMath.area(clipped)), TOLERANCE);
+
+		double[] outside = PolygonMath.clip(square, new double[] { 20, 20, 30, 20, 30, 30 });
+		assertEquals(0, outside.length);
+	}
+
+	private void testPaths() {
+
+		double[][] polygons = { { 0, 0, 10, 0, 10, 10 }, {}, { 0.5, 1, 2, 3, 4, 5 } };
+		assertEquals("M0,0L10,0L10,10Z", PolygonMath.toPathString(polygons[0]));
+		assertEquals("M0,0L10,0L10,10ZM0.5,1L2,3L4,5Z", PolygonMath.toPathString(polygons));
+
+		JsObject jsPaths = PolygonMath.toJsPaths(engine, polygons);
+		assertEquals(null, jsPaths.getSlot(1));
+		assertEquals("M0.5,1L2,3L4,5Z", jsPaths.getSlot(2));
+	}
+
+	private static boolean isInside(double[] convexPolygon, double x, double y) {
+		int numberOfVertices = convexPolygon.length / 2;
+		for (int index = 0; index < numberOfVertices; index++) {
+			int next = (index + 1) % numberOfVertices;
+			double edgeX = convexPolygon[2 * next] - convexPolygon[2 * index];
+			double edgeY = convexPolygon[2 * next + 1] - convexPolygon[2 * index + 1];
+			double cross = edgeX * (y - convexPolygon[2 * index + 1]) - edgeY * (x - convexPolygon[2 * index]);
+			if (cross > 1e-9) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,118 @@
+package org.treez.javafxd3.d3.layout;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.arrays.Array;
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.core.JsBridge;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * Tests the classes ForceSimulation and ForceSimulationRunner
+ */
+public class ForceSimulationTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testLinkDistance();
+		testChargeAndFixedNodes();
+		testLargeGraph();
+		testPublishPositions();
+
+	}
+
+	private void testLinkDistance() {
+
+		ForceSimulation simulation = new ForceSimulation(2) //
+				.size(100, 100) //
+				.gravity(0) //
+				.charge(0) //
+				.linkDistance(30) //
+				.links(new int[] { 0 }, new int[] { 1 });
+		simulation.position(0, 10, 50);
+		simulation.position(1, 90, 50);
+		simulation.start();
+		assertEquals(0.1, simulation.alpha(), TOLERANCE);
+
+		int numberOfTicks = 0;
+		while (!simulation.tick()) {
+			numberOfTicks++;
+		}
+		assertEquals(0.0, simulation.alpha(), TOLERANCE);
+		assertTrue(numberOfTicks > 250);
+		assertEquals(30, simulation.getX(1) - simulation.getX(0), 1e-3);
+		assertEquals(50, simulation.getY(0), TOLERANCE);
+
+		try {
+			simulation.links(new int[] { 0 }, new int[] { 2 });
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException exception) {
+			// expected
+		}
+	}
+
+	private void testChargeAndFixedNodes() {
+
+		ForceSimulation simulation = new ForceSimulation(3) //
+				.size(100, 100) //
+				.gravity(0);
+		simulation.position(0, 40, 50);
+		simulation.position(1, 60, 50);
+		simulation.position(2, 50, 20);
+		simulation.fixed(2, true);
+		simulation.start();
+		for (int tick = 0; tick < 50; tick++) {
+			simulation.tick();
+		}
+
+		// the nodes repel each other but the fixed node keeps its position
+		assertTrue(simulation.getX(0) < 40);
+		assertTrue(simulation.getX(1) > 60);
+		assertEquals(50, simulation.getX(2), TOLERANCE);
+		assertEquals(20, simulation.getY(2), TOLERANCE);
+	}
+
+	private void testLargeGraph() {
+
+		int numberOfNodes = 2000;
+		int[] sources = new int[numberOfNodes - 1];
+		int[] targets = new int[numberOfNodes - 1];
+		for (int index = 1; index < numberOfNodes; index++) {
+			sources[index - 1] = index;
+			targets[index - 1] = (index - 1) / 2;
+		}
+
+		ForceSimulation simulation = new ForceSimulation(numberOfNodes) //
+				.size(1000, 1000) //
+				.links(sources, targets) //
+				.start();
+		for (int tick = 0; tick < 20; tick++) {
+			simulation.tick();
+		}
+
+		double[] positions = simulation.getPositions();
+		assertEquals(2 * numberOfNodes, positions.length);
+		for (double value : positions) {
+			assertFalse(Double.isNaN(value));
+		}
+	}
+
+	private void testPublishPositions() {
+
+		ForceSimulation simulation = new ForceSimulation(2);
+		simulation.position(0, 1, 2);
+		simulation.position(1, 3, 4);
+
+		JsObject nodes = Array.fromJavaScriptObjects(engine, createNode(), createNode()).getJsObject();
+		JsBridge.get(engine).call("setNodePositions", nodes, ArrayTransfer.encode(simulation.getPositions()));
+
+		JsObject secondNode = (JsObject) nodes.getSlot(1);
+		assertEquals(3.0, ((Number) secondNode.getMember("x")).doubleValue(), TOLERANCE);
+		assertEquals(4.0, ((Number) secondNode.getMember("y")).doubleValue(), TOLERANCE);
+	}
+
+	private JsObject createNode() {
+		return (JsObject) JsBridge.get(engine).call("newObject");
+	}
+
+}
@@ -0,0 +1,98 @@
+package org.treez.javafxd3.d3.layout;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * Tests the classes IndexedHierarchy, TreeLayout and ClusterLayout
+ */
+public class HierarchyLayoutTest extends AbstractTestCase {
+
+	private static final int[] PARENTS = { -1, 0, 0, 1, 1, 2 };
+
+	@Override
+	public void doTest() {
+
+		testHierarchy();
+		testTree();
+		testCluster();
+		testTransfer();
+
+	}
+
+	private void testHierarchy() {
+
+		IndexedHierarchy hierarchy = new IndexedHierarchy(PARENTS);
+		assertEquals(0, hierarchy.getRoot());
+		assertEquals(2, hierarchy.getHeight());
+		assertEquals(2, hierarchy.getDepth(5));
+		assertEquals(1, hierarchy.getChildNumber(4));
+		assertEquals(4, hierarchy.getChild(1, 1));
+		assertEquals(0, hierarchy.getPostOrder()[5]);
+		assertEquals(3, hierarchy.getPostOrder()[0]);
+
+		try {
+			new IndexedHierarchy(new int[] { -1, 2, 1 });
+			fail("Expected an exception for a cycle");
+		} catch (IllegalStateException exception) {
+			// expected
+		}
+	}
+
+	private void testTree() {
+
+		IndexedHierarchy hierarchy = new IndexedHierarchy(PARENTS);
+		double[] positions = new TreeLayout().size(100, 100).apply(hierarchy);
+		double[] expected = { 55, 0, 30, 50, 80, 50, 20, 100, 40, 100, 80, 100 };
+		assertPositions(expected, positions);
+
+		double[] nodeSizePositions = new TreeLayout().nodeSize(10, 20).apply(hierarchy);
+		assertEquals(0.0, nodeSizePositions[0], TOLERANCE);
+		assertEquals(40.0, nodeSizePositions[11], TOLERANCE);
+
+		double[] wideSeparation = new TreeLayout().nodeSize(1, 1)
+				.separation((tree, first, second) -> 3)
+				.apply(hierarchy);
+		assertEquals(3.0, wideSeparation[8] - wideSeparation[6], TOLERANCE);
+	}
+
+	private void testCluster() {
+
+		IndexedHierarchy hierarchy = new IndexedHierarchy(PARENTS);
+		double[] positions = new ClusterLayout().size(100, 100).apply(hierarchy);
+		double[] expected = { 55, 0, 30, 50, 80, 50, 20, 100, 40, 100, 80, 100 };
+		assertPositions(expected, positions);
+	}
+
+	private void testTransfer() {
+
+		IndexedHierarchy hierarchy = new IndexedHierarchy(PARENTS);
+		double[] positions = new TreeLayout().size(100, 100).apply(hierarchy);
+
+		String[] paths = IndexedHierarchyLayout.toLinkPaths(hierarchy, positions, false);
+		assertEquals(5, paths.length);
+		assertEquals("M55,0C55,25 30,25 30,50", paths[0]);
+		assertEquals("M0,55C25,55 25,30 50,30", IndexedHierarchyLayout.toLinkPaths(hierarchy, positions, true)[0]);
+
+		String path = IndexedHierarchyLayout.toLinkPath(hierarchy, positions, false);
+		assertTrue(path.startsWith(paths[0] + paths[1]));
+
+		JsObject nodes = IndexedHierarchyLayout.toJsNodes(engine, hierarchy, positions);
+		JsObject node = (JsObject) nodes.getSlot(3);
+		assertEquals(1, ((Number) node.getMember("parent")).intValue());
+		assertEquals(2, ((Number) node.getMember("depth")).intValue());
+		assertEquals(20.0, ((Number) node.getMember("x")).doubleValue(), TOLERANCE);
+
+		double[] nodeSizePositions = new TreeLayout().nodeSize(10, 20).apply(hierarchy);
+		IndexedHierarchyLayout.setNodePositions(engine, nodes, nodeSizePositions);
+		assertEquals(40.0, ((Number) node.getMember("y")).doubleValue(), TOLERANCE);
+	}
+
+	private static void assertPositions(double[] expected, double[] positions) {
+		assertEquals(expected.length, positions.length);
+		for (int index = 0; index < expected.length; index++) {
+			assertEquals(expected[index], positions[index], TOLERANCE);
+		}
+	}
+
+}
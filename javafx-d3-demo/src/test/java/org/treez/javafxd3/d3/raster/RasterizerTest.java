@@ -0,0 +1,130 @@
+package org.treez.javafxd3.d3.raster;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.core.Selection;
+import org.treez.javafxd3.d3.scales.ContinuousScaleMirror;
+
+/**
+ * Tests the {@link Rasterizer}, the {@link PngEncoder} and the image element
+ * of a {@link RasterLayer}
+ */
+public class RasterizerTest extends AbstractTestCase {
+
+	private static final int RED = 0xffff0000;
+
+	@Override
+	public void doTest() {
+
+		testPoints();
+		testLines();
+		testDensity();
+		testProjection();
+		testPngEncoding();
+		testLayer();
+
+	}
+
+	private void testPoints() {
+
+		Rasterizer rasterizer = new Rasterizer(100, 70).radius(2).color(RED);
+		float[] x = { 10.5f, 50f, Float.NaN, -100f };
+		float[] y = { 10.5f, 33f, 3f, 5f };
+		int[] pixels = rasterizer.rasterize(x, y);
+
+		assertEquals(RED, pixels[10 * 100 + 10]);
+		assertEquals(0, pixels[10 * 100 + 14]);
+		int edgeAlpha = pixels[10 * 100 + 12] >>> 24;
+		assertTrue(edgeAlpha > 0 && edgeAlpha < 255);
+		assertEquals(0xff0000, pixels[10 * 100 + 12] & 0xffffff);
+
+		// the point near the tile border is drawn in both tiles
+		assertTrue((pixels[31 * 100 + 50] >>> 24) > 0);
+		assertEquals(RED, pixels[33 * 100 + 50]);
+		assertEquals(0, pixels[0]);
+	}
+
+	private void testLines() {
+
+		Rasterizer rasterizer = new Rasterizer(100, 70).mode(RasterMode.LINES).lineWidth(1).color(RED);
+		float[] x = { 0, 99.9f, Float.NaN, 0, 99.9f };
+		float[] y = { 5.5f, 5.5f, 0, 20.5f, 20.5f };
+		int[] pixels = rasterizer.rasterize(x, y);
+
+		assertEquals(RED, pixels[5 * 100 + 50]);
+		assertEquals(RED, pixels[20 * 100 + 50]);
+		assertEquals(0, pixels[12 * 100 + 50]);
+		assertEquals(0, pixels[4 * 100 + 50]);
+	}
+
+	private void testDensity() {
+
+		float[] x = new float[1000];
+		float[] y = new float[1000];
+		for (int index = 0; index < x.length; index++) {
+			boolean isCluster = index < 900;
+			x[index] = isCluster ? 5.5f : 60f;
+			y[index] = isCluster ? 5.5f : 40f;
+		}
+		Rasterizer rasterizer = new Rasterizer(100, 70).mode(RasterMode.DENSITY).densityColors(0x00000000,
+				0xffffffff);
+		int[] pixels = rasterizer.rasterize(x, y);
+
+		assertEquals(0xffffffff, pixels[5 * 100 + 5]);
+		int sparseAlpha = pixels[40 * 100 + 60] >>> 24;
+		assertTrue(sparseAlpha > 0 && sparseAlpha < 255);
+		assertEquals(0, pixels[0]);
+	}
+
+	private void testProjection() {
+
+		ContinuousScaleMirror scale = new ContinuousScaleMirror().domain(0, 10).range(0, 100);
+		float[] coordinates = Rasterizer.project(new double[] { 0, 5, 10 }, scale, 10, 2);
+		assertEquals(-20, coordinates[0], TOLERANCE);
+		assertEquals(80, coordinates[1], TOLERANCE);
+		assertEquals(180, coordinates[2], TOLERANCE);
+	}
+
+	private void testPngEncoding() {
+
+		int[] pixels = new Rasterizer(30, 20).radius(3).color(0x80336699).rasterize(new float[] { 15 },
+				new float[] { 10 });
+		byte[] png = PngEncoder.encode(pixels, 30, 20);
+
+		BufferedImage image;
+		try {
+			image = ImageIO.read(new ByteArrayInputStream(png));
+		} catch (IOException exception) {
+			throw new IllegalStateException(exception);
+		}
+		assertEquals(30, image.getWidth());
+		assertEquals(20, image.getHeight());
+		for (int row = 0; row < 20; row++) {
+			for (int column = 0; column < 30; column++) {
+				assertEquals(pixels[row * 30 + column], image.getRGB(column, row));
+			}
+		}
+		assertTrue(PngEncoder.toDataUri(pixels, 30, 20).startsWith("data:image/png;base64,"));
+	}
+
+	private void testLayer() {
+
+		Selection svg = clearSvg();
+		Selection group = svg.append("g");
+		group.append("circle");
+
+		RasterLayer layer = new RasterLayer(engine, group);
+		assertEquals(1, group.selectAll("image.jfxd3-raster-layer").size());
+		assertEquals(1, group.selectAll("image:first-child").size());
+		assertEquals("none", layer.getImage().attr("pointer-events"));
+
+		layer.dispose();
+		assertEquals(0, group.selectAll("image").size());
+	}
+
+}
@@ -0,0 +1,143 @@
+package org.treez.javafxd3.d3.scales;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.arrays.Array;
+import org.treez.javafxd3.d3.time.JsDate;
+import org.treez.javafxd3.d3.time.TimeScale;
+
+public class ScaleMirrorTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testLinearScale();
+		testPowAndLogScales();
+		testDiscreteScales();
+		testOrdinalScale();
+		testTimeScale();
+
+	}
+
+	private void testLinearScale() {
+
+		LinearScale scale = d3.scale().linear().domain(0, 10).range(0, 100);
+		assertEquals(scale.apply(2.5).asDouble(), scale.applyAsDouble(2.5), TOLERANCE);
+		assertEquals(2.5, scale.invertAsDouble(25), TOLERANCE);
+
+		// the mirror is invalidated when the JavaScript scale is modified
+		scale.domain(0, 20);
+		assertEquals(12.5, scale.applyAsDouble(2.5), TOLERANCE);
+
+		// polylinear, descending domain
+		scale.domain(10, 5, 0).range(0, 50, 200);
+		assertEquals(scale.apply(2).asDouble(), scale.applyAsDouble(2), TOLERANCE);
+
+		// domain and range of unequal length are truncated to the shorter one
+		scale.domain(10, 0, -5).range(0, 100);
+		assertEquals(scale.apply(5).asDouble(), scale.applyAsDouble(5), TOLERANCE);
+		assertEquals(50.0, scale.applyAsDouble(5), TOLERANCE);
+		assertEquals(5.0, scale.invertAsDouble(50), TOLERANCE);
+
+		ContinuousScaleMirror detachedMirror = new ContinuousScaleMirror().domain(10, 0, -5).range(0, 100);
+		assertEquals(50.0, detachedMirror.applyAsDouble(5), TOLERANCE);
+		assertEquals(150.0, detachedMirror.applyAsDouble(-5), TOLERANCE);
+
+		// clamping and rounding
+		scale.domain(0, 10).clamp(true).rangeRound(0, 3);
+		assertEquals(3.0, scale.applyAsDouble(20), TOLERANCE);
+		assertEquals(scale.apply(5.1).asDouble(), scale.applyAsDouble(5.1), TOLERANCE);
+
+		// ticks
+		scale = d3.scale().linear().domain(-0.3, 1.7);
+		Array<Double> ticks = scale.ticks(5);
+		double[] ticksAsDoubles = scale.ticksAsDoubles(5);
+		assertEquals(ticks.length(), ticksAsDoubles.length);
+		for (int index = 0; index < ticksAsDoubles.length; index++) {
+			assertEquals(ticks.get(index, Double.class), ticksAsDoubles[index], TOLERANCE);
+		}
+
+		// detached copies are not modified
+		ContinuousScaleMirror copy = scale.mirror().copy();
+		scale.domain(0, 1000);
+		assertEquals(true, copy.isDetached());
+		assertEquals(1.0, copy.applyAsDouble(1.7), TOLERANCE);
+		assertEquals(0.0017, scale.applyAsDouble(1.7), TOLERANCE);
+
+		// non numeric ranges fall back to JavaScript
+		LinearScale colorScale = d3.scale().linear().range("red", "blue");
+		assertEquals(true, Double.isNaN(colorScale.applyAsDouble(0.5)));
+	}
+
+	private void testPowAndLogScales() {
+
+		PowScale powScale = d3.scale().sqrt().domain(-4, 16).range(0, 100);
+		for (double value : new double[] { -4, -1, 0, 2, 9, 16, 25 }) {
+			assertEquals(powScale.apply(value).asDouble(), powScale.applyAsDouble(value), TOLERANCE);
+		}
+		assertEquals(powScale.invert(40).asDouble(), powScale.invertAsDouble(40), TOLERANCE);
+
+		LogScale logScale = d3.scale().log().domain(1, 1000).range(0, 3);
+		assertEquals(2.0, logScale.applyAsDouble(100), TOLERANCE);
+		assertEquals(100.0, logScale.invertAsDouble(2), TOLERANCE);
+		Array<Double> ticks = logScale.ticks();
+		double[] ticksAsDoubles = logScale.ticksAsDoubles();
+		assertEquals(ticks.length(), ticksAsDoubles.length);
+		assertEquals(ticks.get(ticks.length() - 1, Double.class), ticksAsDoubles[ticksAsDoubles.length - 1],
+				TOLERANCE);
+	}
+
+	private void testDiscreteScales() {
+
+		QuantizeScale quantizeScale = d3.scale().quantize().domain(0, 1).range(10, 20, 30);
+		assertEquals(10.0, quantizeScale.applyAsDouble(0.2), TOLERANCE);
+		assertEquals(30.0, quantizeScale.applyAsDouble(0.9), TOLERANCE);
+
+		QuantileScale quantileScale = d3.scale().quantile().domain(3, 6, 7, 8, 8, 10, 13, 15, 16, 20).range(0, 1,
+				2, 3);
+		for (double value : new double[] { 0, 7, 7.25, 8, 12, 15, 30 }) {
+			assertEquals(quantileScale.apply(value).asDouble(), quantileScale.applyAsDouble(value), TOLERANCE);
+		}
+
+		ThresholdScale thresholdScale = d3.scale().threshold().domain(0, 1).range("a", "b", "c");
+		assertEquals("a", thresholdScale.applyAsString(-1));
+		assertEquals("b", thresholdScale.applyAsString(0.5));
+		assertEquals("c", thresholdScale.applyAsString(1));
+	}
+
+	private void testOrdinalScale() {
+
+		OrdinalScale scale = d3.scale().ordinal().domain("a", "b", "c").rangePoints(0, 100);
+		assertEquals(0.0, scale.applyAsDouble("a"), TOLERANCE);
+		assertEquals(50.0, scale.applyAsDouble("b"), TOLERANCE);
+
+		scale.range("red", "green");
+		assertEquals("green", scale.applyAsString("b"));
+		assertEquals("red", scale.applyAsString("c"));
+
+		// unknown keys are added to the domain by the JavaScript scale
+		assertEquals("green", scale.applyAsString("d"));
+		assertEquals(4, scale.domain().length());
+	}
+
+	private void testTimeScale() {
+
+		TimeScale scale = d3.time().scale();
+		long start = 946684800000L; // 2000-01-01T00:00Z
+		long end = 953078400000L; // 2000-03-15T00:00Z
+		scale.domain(start, end).range(0, 100);
+
+		double middle = (start + end) / 2.0;
+		assertEquals(50.0, scale.applyAsDouble(middle), TOLERANCE);
+		assertEquals(middle, scale.invertAsDouble(50), 1);
+
+		for (int count : new int[] { 5, 10, 50, 500 }) {
+			Array<JsDate> ticks = scale.ticks(count);
+			long[] ticksAsEpochMillis = scale.ticksAsEpochMillis(count);
+			assertEquals(ticks.length(), ticksAsEpochMillis.length);
+			for (int index = 0; index < ticksAsEpochMillis.length; index++) {
+				assertEquals(ticks.get(index, JsDate.class).getTime(), ticksAsEpochMillis[index]);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,68 @@
+package org.treez.javafxd3.d3.selection;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.core.Selection;
+
+/**
+ * Tests the setters of Selection that take one value per element
+ */
+public class SelectionBulkSettersTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testAttr();
+		testTextAndClassed();
+		testStyle();
+
+	}
+
+	private void testAttr() {
+
+		Selection svg = clearSvg();
+		Selection rects = svg.selectAll("rect") //
+				.data(new double[] { 1, 2, 3 }) //
+				.enter() //
+				.append("rect");
+
+		rects.attr("width", new double[] { 10.5, 20, 30 });
+		rects.attr("id", new String[] { "first", null, "third" });
+
+		assertEquals("10.5", svg.select("rect:nth-of-type(1)").attr("width"));
+		assertEquals("30", svg.select("rect:nth-of-type(3)").attr("width"));
+		assertEquals("third", svg.select("rect:nth-of-type(3)").attr("id"));
+		assertNull(svg.select("rect:nth-of-type(2)").attr("id"));
+	}
+
+	private void testTextAndClassed() {
+
+		Selection svg = clearSvg();
+		Selection texts = svg.selectAll("text") //
+				.data(new double[] { 1, 2, 3 }) //
+				.enter() //
+				.append("text");
+
+		String[] labels = new String[] { "it's", "say \"hi\"", "" };
+		texts.text(labels);
+		texts.classed("selected", new boolean[] { true, false, true });
+
+		assertEquals("it's", svg.select("text:nth-of-type(1)").text());
+		assertEquals("say \"hi\"", svg.select("text:nth-of-type(2)").text());
+		assertEquals(2, svg.selectAll("text.selected").size());
+		assertFalse(svg.select("text:nth-of-type(2)").classed("selected"));
+	}
+
+	private void testStyle() {
+
+		Selection svg = clearSvg();
+		Selection circles = svg.selectAll("circle") //
+				.data(new double[] { 1, 2 }) //
+				.enter() //
+				.append("circle");
+
+		circles.style("fill", new String[] { "red", "blue" });
+		String style = svg.select("circle:nth-of-type(2)").attr("style");
+		assertTrue(style.contains("blue"));
+	}
+
+}
@@ -0,0 +1,116 @@
+package org.treez.javafxd3.d3.svg;
+
+import java.util.Arrays;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.scales.LinearScale;
+
+/**
+ * Tests the downsampling of series with {@link Downsampler}
+ */
+public class DownsamplerTest extends AbstractTestCase {
+
+	private static final int NUMBER_OF_POINTS = 10000;
+
+	@Override
+	public void doTest() {
+
+		testLttb();
+		testMinMax();
+		testGaps();
+		testScale();
+		testLine();
+
+	}
+
+	private void testLttb() {
+
+		int[] indices = Downsampler.lttb(new double[] { 0, 1, 2, 3, 4, 5, 6 },
+				new double[] { 0, 0, 5, 0, 0, 0, 0 }, 4);
+		assertEquals("[0, 2, 3, 6]", Arrays.toString(indices));
+
+		double[] x = createX();
+		double[] y = createY();
+		Downsampler downsampler = new Downsampler(DownsamplingMode.LTTB).domain(0, NUMBER_OF_POINTS)
+				.pixelWidth(100);
+		indices = downsampler.indices(x, y);
+		assertTrue(indices.length <= 2 * 101 + 2);
+		assertEquals(0, indices[0]);
+		assertEquals(NUMBER_OF_POINTS - 1, indices[indices.length - 1]);
+		assertTrue(Arrays.binarySearch(indices, NUMBER_OF_POINTS / 2) >= 0);
+	}
+
+	private void testMinMax() {
+
+		int[] indices = Downsampler.minMax(new double[] { 0, 1, 2, 3, 4, 5, 6, 7 },
+				new double[] { 0, 3, -1, 2, 5, 1, 0, 4 }, 0, 8, 2);
+		assertEquals("[0, 1, 2, 3, 4, 6, 7]", Arrays.toString(indices));
+
+		double[] x = createX();
+		double[] y = createY();
+		Downsampler downsampler = new Downsampler(DownsamplingMode.MIN_MAX).domain(0, NUMBER_OF_POINTS)
+				.pixelWidth(100);
+		double[][] points = downsampler.apply(x, y);
+		assertTrue(points[0].length <= 4 * 100);
+		assertEquals(10.0, Arrays.stream(points[1]).max().getAsDouble(), TOLERANCE);
+
+		// the indices are cached until the configuration changes
+		assertSame(downsampler.indices(x, y), downsampler.indices(x, y));
+		int[] visibleIndices = downsampler.domain(1000, 2000).indices(x, y);
+		assertEquals(999, visibleIndices[0]);
+		assertEquals(2001, visibleIndices[visibleIndices.length - 1]);
+	}
+
+	private void testGaps() {
+
+		double[] x = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 };
+		double[] y = { 0, 1, 2, Double.NaN, Double.NaN, 5, 6, 7, 8, 9 };
+		int[] indices = new Downsampler(DownsamplingMode.LTTB).pixelWidth(1).indices(x, y);
+		assertEquals("[0, 1, 2, 3, 5, 7, 9]", Arrays.toString(indices));
+	}
+
+	private void testScale() {
+
+		double[] x = createX();
+		double[] y = createY();
+		LinearScale scale = d3.scale().linear().domain(0, NUMBER_OF_POINTS).range(0, 100);
+		Downsampler downsampler = new Downsampler(DownsamplingMode.MIN_MAX).xScale(scale);
+		int[] indices = downsampler.indices(x, y);
+		assertSame(indices, downsampler.indices(x, y));
+
+		// modifying the scale, e.g. by zooming, invalidates the cached indices
+		scale.domain(0, NUMBER_OF_POINTS / 10);
+		int[] zoomedIndices = downsampler.indices(x, y);
+		assertNotSame(indices, zoomedIndices);
+		assertEquals(NUMBER_OF_POINTS / 10 + 1, zoomedIndices[zoomedIndices.length - 1]);
+	}
+
+	private void testLine() {
+
+		double[] x = { 0, 1, 2, 3 };
+		double[] y = { 0, 1, 0, 1 };
+		Line line = d3.svg().line();
+		assertEquals("M0,0L1,1L2,0L3,1", line.generate(x, y));
+
+		Downsampler downsampler = new Downsampler(DownsamplingMode.LTTB).pixelWidth(0).pointsPerPixel(1);
+		assertEquals("M0,0L1,1L3,1", line.generate(x, y, downsampler));
+	}
+
+	private static double[] createX() {
+		double[] x = new double[NUMBER_OF_POINTS];
+		for (int index = 0; index < NUMBER_OF_POINTS; index++) {
+			x[index] = index;
+		}
+		return x;
+	}
+
+	private static double[] createY() {
+		double[] y = new double[NUMBER_OF_POINTS];
+		for (int index = 0; index < NUMBER_OF_POINTS; index++) {
+			y[index] = Math.sin(index / 100.0);
+		}
+		y[NUMBER_OF_POINTS / 2] = 10;
+		return y;
+	}
+
+}
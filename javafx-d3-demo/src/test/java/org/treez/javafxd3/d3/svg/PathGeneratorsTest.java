@@ -0,0 +1,121 @@
+package org.treez.javafxd3.d3.svg;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+
+/**
+ * Tests the Java path data generators by comparing them with the path data
+ * generators of d3
+ */
+public class PathGeneratorsTest extends AbstractTestCase {
+
+	private static final double[] X = { 0, 10, 20, 30, 40, 50, 60 };
+
+	private static final double[] Y = { 5, 20, 15, 40, 25, 0, 10 };
+
+	@Override
+	public void doTest() {
+
+		testLine();
+		testArea();
+		testArc();
+		testSymbol();
+		testDiagonal();
+		testPrecisionAndCache();
+
+	}
+
+	private void testLine() {
+
+		Double[][] coordinates = createCoordinates();
+		for (InterpolationMode mode : InterpolationMode.values()) {
+			String expected = d3.svg().line().interpolate(mode).generate(coordinates);
+			String path = new LinePathGenerator().interpolate(mode).path(X, Y);
+			assertEquals("Interpolation " + mode, expected, path);
+		}
+
+		double[] y = Y.clone();
+		y[3] = Double.NaN;
+		String path = new LinePathGenerator().path(X, y);
+		assertEquals("M0,5L10,20L20,15M40,25L50,0L60,10", path);
+		assertNull(new LinePathGenerator().path(new double[] { Double.NaN }, new double[] { 1 }));
+		assertEquals("M0,0H5V5H15V10H20", new LinePathGenerator().interpolate(InterpolationMode.STEP)
+				.path(new double[] { 0, 10, 20 }, new double[] { 0, 5, 10 }));
+	}
+
+	private void testArea() {
+
+		Double[][] coordinates = createCoordinates();
+		for (InterpolationMode mode : InterpolationMode.values()) {
+			String expected = d3.svg().area().interpolate(mode).generate(coordinates);
+			String path = new AreaPathGenerator().interpolate(mode).path(X, 0, Y);
+			assertEquals("Interpolation " + mode, expected, path);
+		}
+	}
+
+	private void testArc() {
+
+		ArcPathGenerator arc = new ArcPathGenerator().outerRadius(10).precision(3);
+		assertEquals("M0,-10A10,10 0 0,1 10,0L0,0Z", arc.path(0, Math.PI / 2));
+		assertEquals("M0,10A10,10 0 1,1 0,-10A10,10 0 1,1 0,10M0,5A5,5 0 1,0 0,-5A5,5 0 1,0 0,5Z",
+				arc.innerRadius(5).path(0, 2 * Math.PI));
+
+		String[] paths = arc.paths(new double[] { 0, Math.PI }, new double[] { Math.PI, 2 * Math.PI });
+		assertEquals(2, paths.length);
+		assertEquals(arc.path(Math.PI, 2 * Math.PI), paths[1]);
+
+		double[] centroid = arc.centroid(0, Math.PI);
+		assertEquals(7.5, centroid[0], TOLERANCE);
+		assertEquals(0.0, centroid[1], TOLERANCE);
+	}
+
+	private void testSymbol() {
+
+		SymbolPathGenerator symbol = new SymbolPathGenerator();
+		assertEquals("M-5,-5L5,-5 5,5 -5,5Z", symbol.path(SymbolType.SQUARE, 100));
+		assertEquals("M-3,-1H-1V-3H1V-1H3V1H1V3H-1V1H-3Z", symbol.path(SymbolType.CROSS, 20));
+
+		String[] paths = symbol.size(100).paths(new SymbolType[] { SymbolType.SQUARE, SymbolType.SQUARE }, null);
+		assertSame(paths[0], paths[1]);
+	}
+
+	private void testDiagonal() {
+
+		DiagonalPathGenerator diagonal = new DiagonalPathGenerator();
+		assertEquals("M0,0C0,50 100,50 100,100", diagonal.path(0, 0, 100, 100));
+
+		String[] paths = diagonal.projection(DiagonalPathGenerator.HORIZONTAL).paths(new double[] { 0, 0, 10, 20 },
+				new int[] { 0 }, new int[] { 1 });
+		assertEquals("M0,0C10,0 10,10 20,10", paths[0]);
+	}
+
+	private void testPrecisionAndCache() {
+
+		LinePathGenerator line = new LinePathGenerator().precision(2);
+		assertEquals("M0.33,-1.25L1,0", line.path(new double[] { 1.0 / 3, 1 }, new double[] { -1.2451, 0 }));
+
+		double[][] xs = { X, X };
+		double[][] ys = { Y, Y };
+		long[] versions = { 1, 1 };
+		String[] firstPaths = line.paths(xs, ys, versions);
+		String[] secondPaths = line.paths(xs, ys, versions);
+		assertSame(firstPaths[0], secondPaths[0]);
+
+		versions[1] = 2;
+		String[] thirdPaths = line.paths(xs, ys, versions);
+		assertSame(firstPaths[0], thirdPaths[0]);
+		assertNotSame(firstPaths[1], thirdPaths[1]);
+
+		line.interpolate(InterpolationMode.STEP);
+		String[] stepPaths = line.paths(xs, ys, versions);
+		assertFalse(stepPaths[0].equals(firstPaths[0]));
+	}
+
+	private static Double[][] createCoordinates() {
+		Double[][] coordinates = new Double[X.length][];
+		for (int index = 0; index < X.length; index++) {
+			coordinates[index] = new Double[] { X[index], Y[index] };
+		}
+		return coordinates;
+	}
+
+}
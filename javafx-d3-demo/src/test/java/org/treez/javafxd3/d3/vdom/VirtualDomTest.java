@@ -0,0 +1,106 @@
+package org.treez.javafxd3.d3.vdom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.core.Selection;
+
+/**
+ * Tests the diff and patch rendering of {@link VirtualDom}
+ */
+public class VirtualDomTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testMinimalPatches();
+		testLongestIncreasingSubsequence();
+		testReusedNodes();
+		testRender();
+
+	}
+
+	private void testMinimalPatches() {
+
+		VirtualDom dom = new VirtualDom(engine, null);
+		DomPatch patch = dom.diff(createCircles(Arrays.asList(1, 2, 3, 4), 0));
+		assertEquals(12, patch.getNumberOfOperations());
+
+		patch = dom.diff(createCircles(Arrays.asList(1, 2, 3, 4), 0));
+		assertTrue(patch.isEmpty());
+
+		patch = dom.diff(createCircles(Arrays.asList(4, 1, 2, 3), 2));
+		assertEquals(2, patch.getNumberOfOperations());
+		int[] values = patch.getValues();
+		assertEquals(DomPatch.SET_ATTRIBUTE, values[0]);
+		assertEquals(DomPatch.MOVE, values[2]);
+		assertArrayEquals(new String[] { "cx", "-1" }, patch.getStrings());
+
+		patch = dom.diff(createCircles(Arrays.asList(4, 2, 3), 2));
+		assertEquals(1, patch.getNumberOfOperations());
+		assertEquals(DomPatch.REMOVE, patch.getValues()[0]);
+	}
+
+	private void testLongestIncreasingSubsequence() {
+
+		boolean[] isStable = VirtualDom.findLongestIncreasingSubsequence(new int[] { 3, -1, 0, 1, 5, 2 });
+		assertArrayEquals(new boolean[] { false, false, true, true, false, true }, isStable);
+	}
+
+	private void testReusedNodes() {
+
+		VirtualDom dom = new VirtualDom(engine, null);
+		VNode group = VNode.element("g");
+		for (int index = 0; index < 100; index++) {
+			group.child(VNode.element("rect").attr("x", index));
+		}
+		dom.diff(Arrays.asList(group));
+		assertTrue(group.isRendered());
+
+		DomPatch patch = dom.diff(Arrays.asList(group, group));
+		assertEquals(1 + 100 * 2, patch.getNumberOfOperations());
+		assertNotSame(group, dom.getChildren().get(1));
+
+		try {
+			group.attr("class", "axis");
+			fail("A rendered node must not be modified.");
+		} catch (IllegalStateException exception) {
+			// expected
+		}
+	}
+
+	private void testRender() {
+
+		Selection svg = clearSvg();
+		VirtualDom dom = new VirtualDom(engine, svg);
+
+		VNode label = VNode.element("text").attr("x", 5).text("first");
+		dom.render(VNode.element("g").attr("class", "chart").child(label), VNode.element("circle").attr("r", 2.5));
+		assertEquals(1, svg.selectAll("g.chart").size());
+		assertEquals("first", svg.select("text").text());
+		assertEquals("2.5", svg.select("circle").attr("r"));
+
+		dom.render(VNode.element("g").attr("class", "chart")
+				.child(VNode.element("text").attr("x", 5).style("fill", "red").text("second")));
+		assertEquals(0, svg.selectAll("circle").size());
+		assertEquals("second", svg.select("text").text());
+		assertEquals("red", svg.select("text").style("fill"));
+
+		VNode renderedLabel = dom.getChildren().get(0).getChildren().get(0);
+		assertEquals("second", dom.select(renderedLabel).text());
+
+		dom.clear();
+		assertEquals(0, svg.selectAll("*").size());
+	}
+
+	private static List<VNode> createCircles(List<Integer> keys, int changedKey) {
+		List<VNode> circles = new ArrayList<>();
+		for (int key : keys) {
+			circles.add(VNode.element("circle").key(key).attr("cx", key == changedKey ? -1 : key).attr("r", 2));
+		}
+		return circles;
+	}
+
+}
@@ -0,0 +1,94 @@
+package org.treez.javafxd3.d3.wrapper.canvas;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.core.JsObject;
+import org.treez.javafxd3.d3.core.Selection;
+
+/**
+ * Tests the recording of canvas commands with {@link RecordingContext2d}
+ */
+public class RecordingContext2dTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testDisplayList();
+		testReplay();
+		testStateTracking();
+
+	}
+
+	private void testDisplayList() {
+
+		DisplayList displayList = new DisplayList();
+		displayList.add(DisplayList.MOVE_TO, 1, 2);
+		displayList.add(DisplayList.SET_STROKE_STYLE, "red");
+
+		DisplayList otherDisplayList = new DisplayList();
+		otherDisplayList.add(DisplayList.SET_FILL_STYLE, "blue");
+		otherDisplayList.add(DisplayList.STROKE);
+		displayList.append(otherDisplayList);
+
+		assertEquals(6, displayList.size());
+		assertArrayEquals(new double[] { DisplayList.MOVE_TO, 1, 2, DisplayList.SET_STROKE_STYLE,
+				DisplayList.SET_FILL_STYLE, DisplayList.STROKE }, displayList.getValues(), TOLERANCE);
+		assertArrayEquals(new String[] { "red", "blue" }, displayList.getStrings());
+
+		displayList.clear();
+		assertTrue(displayList.isEmpty());
+	}
+
+	private void testReplay() {
+
+		RecordingContext2d context = createContext();
+		context.setFillStyle("rgb(255,0,0)");
+		context.fillRect(0, 0, 10, 10);
+		context.setFillStyle("rgb(0,0,255)");
+		context.beginPath();
+		context.rect(5, 5, 5, 5);
+		context.fill();
+
+		// nothing is drawn before the commands are flushed
+		assertEquals("0,0,0,0", getPixel(context, 0, 0));
+
+		context.flush();
+		assertEquals("255,0,0,255", getPixel(context, 0, 0));
+		assertEquals("0,0,255,255", getPixel(context, 7, 7));
+	}
+
+	private void testStateTracking() {
+
+		RecordingContext2d context = createContext();
+		context.setFillStyle("rgb(255,0,0)");
+		context.save();
+		context.setFillStyle("rgb(0,0,255)");
+		context.restore();
+
+		// the restored style is known and must not be set again
+		context.setFillStyle("rgb(255,0,0)");
+		context.fillRect(0, 0, 10, 10);
+		context.flush();
+		assertEquals("255,0,0,255", getPixel(context, 0, 0));
+
+		context.setFillStyle("rgb(0,0,255)");
+		context.fillRect(0, 0, 10, 10);
+		context.flush();
+		assertEquals("0,0,255,255", getPixel(context, 0, 0));
+	}
+
+	private RecordingContext2d createContext() {
+		Selection canvas = d3.select("body") //
+				.append("canvas") //
+				.attr("width", 10) //
+				.attr("height", 10);
+		CanvasElement canvasElement = new CanvasElement(engine, canvas.node().getJsObject());
+		return canvasElement.getRecordingContext2d();
+	}
+
+	private static String getPixel(Context2d context, int x, int y) {
+		JsObject jsContext = context.getJsObject();
+		String command = "Array.prototype.join.call(this.getImageData(" + x + "," + y + ",1,1).data, ',')";
+		return (String) jsContext.eval(command);
+	}
+
+}
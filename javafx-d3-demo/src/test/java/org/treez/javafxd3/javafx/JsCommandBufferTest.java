@@ -0,0 +1,69 @@
+package org.treez.javafxd3.javafx;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.core.Selection;
+
+import javafx.scene.web.WebEngine;
+
+/**
+ * Tests the buffering of fire-and-forget commands by the JsCommandBuffer
+ */
+public class JsCommandBufferTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		browser.setCommandBuffering(true);
+		try {
+			testBufferedAttributes();
+			testBufferedMembers();
+		} finally {
+			browser.setCommandBuffering(false);
+		}
+
+	}
+
+	private void testBufferedAttributes() {
+
+		Selection svg = clearSvg();
+		Selection rect = svg.append("rect") //
+				.attr("id", "bufferedRect") //
+				.attr("width", 10) //
+				.attr("height", "20") //
+				.style("opacity", "0.5") //
+				.classed("foo", true);
+
+		// the commands do not reach the page before the buffer is flushed
+		WebEngine webEngine = getWebEngine();
+		assertEquals(null, webEngine.executeScript("document.getElementById('bufferedRect')"));
+
+		engine.flush();
+		assertEquals("10", webEngine.executeScript("document.getElementById('bufferedRect').getAttribute('width')"));
+
+		// reading a value flushes the buffer
+		rect.attr("width", 30);
+		assertEquals("10", webEngine.executeScript("document.getElementById('bufferedRect').getAttribute('width')"));
+		assertEquals("30", rect.attr("width"));
+		assertEquals("20", rect.attr("height"));
+		assertEquals("0.5", rect.style("opacity"));
+		assertTrue(rect.classed("foo"));
+	}
+
+	private void testBufferedMembers() {
+
+		WebEngine webEngine = getWebEngine();
+
+		d3.setMember("bufferedMember", "foo");
+		assertEquals("undefined", webEngine.executeScript("typeof d3.bufferedMember"));
+		assertEquals("foo", d3.evalForString("this.bufferedMember"));
+
+		d3.removeMember("bufferedMember");
+		assertEquals("string", webEngine.executeScript("typeof d3.bufferedMember"));
+		assertEquals("undefined", d3.evalForString("typeof this.bufferedMember"));
+	}
+
+	private WebEngine getWebEngine() {
+		return ((JavaFxJsEngine) engine).getWebEngine();
+	}
+
+}
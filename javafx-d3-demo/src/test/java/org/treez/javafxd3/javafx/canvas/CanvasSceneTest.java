@@ -0,0 +1,121 @@
+package org.treez.javafxd3.javafx.canvas;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.treez.javafxd3.d3.AbstractTestCase;
+import org.treez.javafxd3.d3.scales.ContinuousScaleMirror;
+import org.treez.javafxd3.d3.svg.Axis.Orientation;
+
+/**
+ * Tests the retained scene of the JavaFX canvas backend
+ */
+public class CanvasSceneTest extends AbstractTestCase {
+
+	@Override
+	public void doTest() {
+
+		testDataJoin();
+		testKeyedDataJoin();
+		testSelectors();
+		testBounds();
+		testAxis();
+
+	}
+
+	private void testDataJoin() {
+
+		CanvasScene scene = new CanvasScene(100, 100);
+		CanvasSelection group = scene.root().append("g");
+
+		List<Integer> data = Arrays.asList(1, 2, 3, 4);
+		CanvasUpdateSelection update = group.selectAll("circle").data(data);
+		assertEquals(0, update.size());
+		assertEquals(4, update.enter().size());
+		assertTrue(update.exit().empty());
+
+		update.enter().append("circle").attr("cx", (context, datum, index) -> (Integer) datum * 10);
+		assertEquals(4, update.size());
+		assertEquals(4, scene.selectAll("circle").size());
+		assertEquals("30", scene.selectAll("circle").nodes().get(2).getAttribute("cx"));
+
+		CanvasUpdateSelection smallerUpdate = group.selectAll("circle").data(Arrays.asList(5, 6));
+		assertEquals(2, smallerUpdate.size());
+		assertTrue(smallerUpdate.enter().empty());
+		assertEquals(2, smallerUpdate.exit().size());
+		smallerUpdate.exit().remove();
+		assertEquals(2, scene.selectAll("circle").size());
+		assertEquals(5, scene.select("circle").datum());
+	}
+
+	private void testKeyedDataJoin() {
+
+		CanvasScene scene = new CanvasScene(100, 100);
+		CanvasSelection group = scene.root().append("g");
+		group.selectAll("rect").data(Arrays.asList(1, 2, 3, 4)).enter().append("rect");
+
+		CanvasUpdateSelection update = group.selectAll("rect").data(Arrays.asList(3, 4, 5),
+				(context, newDataArray, datum, index) -> datum);
+		assertEquals(2, update.size());
+		assertEquals(1, update.enter().size());
+		assertEquals(2, update.exit().size());
+
+		update.exit().remove();
+		update.enter().append("rect");
+		assertEquals(3, update.size());
+		assertEquals(3, scene.selectAll("rect").size());
+	}
+
+	private void testSelectors() {
+
+		CanvasScene scene = new CanvasScene(100, 100);
+		CanvasSelection group = scene.root().append("g").attr("id", "plot");
+		group.append("circle").attr("class", "point selected");
+		group.append("circle").attr("class", "point");
+		group.append("rect").classed("point", true);
+
+		assertEquals(3, scene.selectAll(".point").size());
+		assertEquals(2, scene.selectAll("circle.point").size());
+		assertEquals(1, scene.selectAll(".selected").size());
+		assertEquals(1, scene.selectAll("#plot").size());
+		assertTrue(scene.selectAll("ellipse").empty());
+	}
+
+	private void testBounds() {
+
+		CanvasScene scene = new CanvasScene(100, 100);
+		CanvasSelection group = scene.root().append("g").attr("transform", "translate(10,20)");
+		CanvasSelection circle = group.append("circle").attr("cx", 30).attr("cy", 5).attr("r", 2).attr("stroke-width",
+				0);
+
+		// the bounds include one pixel for anti-aliasing
+		SceneRenderer renderer = new SceneRenderer();
+		double[] bounds = renderer.computeBounds(circle.node());
+		assertArrayEquals(new double[] { 37, 22, 43, 28 }, bounds, TOLERANCE);
+
+		double[] matrix = SceneRenderer.parseTransform("translate(10,20) scale(2)");
+		assertArrayEquals(new double[] { 2, 0, 0, 2, 10, 20 }, matrix, TOLERANCE);
+
+		double[] pathBounds = new double[4];
+		boolean hasBounds = PathBounds.compute("m5 5l10 10h-20v3c1 2 3 4 5 6z", pathBounds);
+		assertTrue(hasBounds);
+		assertArrayEquals(new double[] { -5, 5, 15, 24 }, pathBounds, TOLERANCE);
+	}
+
+	private void testAxis() {
+
+		CanvasScene scene = new CanvasScene(600, 400);
+		ContinuousScaleMirror scale = new ContinuousScaleMirror().domain(0, 100).range(0, 500);
+		CanvasSelection axisGroup = scene.root().append("g");
+
+		CanvasAxis axis = new CanvasAxis(scale).orient(Orientation.BOTTOM).ticks(5);
+		axis.apply(axisGroup);
+		axis.apply(axisGroup);
+
+		assertEquals(6, axisGroup.selectAll(".tick").size());
+		assertEquals("M0,6V0H500V6", axisGroup.select(".domain").attr("d"));
+		assertEquals("translate(100,0)", axisGroup.selectAll(".tick").nodes().get(1).getAttribute("transform"));
+		assertEquals("20", axisGroup.selectAll(".tick").nodes().get(1).getChildren().get(1).getText());
+	}
+
+}
@@ -1,5 +1,6 @@
 package org.treez.javafxd3.d3;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -8,6 +9,8 @@ import java.util.Objects;
 import java.util.Random;
 
 import org.treez.javafxd3.d3.arrays.Array;
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.arrays.ColumnarDataset;
 import org.treez.javafxd3.d3.arrays.foreach.ForEachCallback;
 import org.treez.javafxd3.d3.arrays.foreach.ForEachCallbackWrapper;
 import org.treez.javafxd3.d3.behaviour.Behavior;
@@ -16,6 +19,7 @@ import org.treez.javafxd3.d3.behaviour.Drag.DragEvent;
 import org.treez.javafxd3.d3.behaviour.Zoom;
 import org.treez.javafxd3.d3.behaviour.Zoom.ZoomEvent;
 import org.treez.javafxd3.d3.coords.Coords;
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.Formatter;
 import org.treez.javafxd3.d3.core.Prefix;
 import org.treez.javafxd3.d3.core.Selection;
@@ -25,6 +29,7 @@ import org.treez.javafxd3.d3.core.Value;
 import org.treez.javafxd3.d3.dsv.Dsv;
 import org.treez.javafxd3.d3.dsv.DsvCallback;
 import org.treez.javafxd3.d3.dsv.DsvObjectAccessor;
+import org.treez.javafxd3.d3.dsv.DsvReader;
 import org.treez.javafxd3.d3.event.D3Event;
 import org.treez.javafxd3.d3.event.Event;
 import org.treez.javafxd3.d3.functions.TimerFunction;
@@ -44,6 +49,7 @@ import org.treez.javafxd3.d3.wrapper.NodeList;
 import org.treez.javafxd3.d3.wrapper.Sort;
 import org.treez.javafxd3.d3.wrapper.Widget;
 
+import org.treez.javafxd3.d3.core.JsBridge;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -164,7 +170,8 @@ public class D3 extends JavaScriptObject {
 	 * @return
 	 */
 	public Selection selectAll(String selector) {
-		JsObject result = evalForJsObject("this.selectAll('" + selector + "')");
+
+		JsObject result = call("selectAll", selector);
 		return new Selection(engine, result);
 	};
 
@@ -189,30 +196,11 @@ public class D3 extends JavaScriptObject {
 	 */
 	public Selection selectAll(Element... nodes) {
 
-		JsObject d3JsObject = getD3();
-
-		List<String> fullVarNames = new ArrayList<>();
-		List<String> varNames = new ArrayList<>();
-		for (Element element : nodes) {
-			String varName = createNewTemporaryInstanceName();
-			d3JsObject.setMember(varName, element.getJsObject());
-			fullVarNames.add("d3." + varName);
-			varNames.add(varName);
-		}
-
-		String command = "this.selectAll([" + String.join(",", fullVarNames) + "])";
-		JsObject result = evalForJsObject(command);
-
-		for (String varName : varNames) {
-			d3JsObject.removeMember(varName);
-		}
-
+		JsObject result = call("selectAll", ArrayTransfer.toJsArray(engine, nodes));
 		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
-
 	};
 
 	/**
@@ -382,24 +370,10 @@ public class D3 extends JavaScriptObject {
 	 */
 	public void timer(TimerFunction timerFunction) {
 
-		assertObjectIsNotAnonymous(timerFunction);
-
-		String methodName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-
-		Object method = timerFunction;
-		boolean isJavaScriptObject = timerFunction instanceof JavaScriptObject;
-		if (isJavaScriptObject) {
-			JavaScriptObject javaScriptObject = (JavaScriptObject) timerFunction;
-			method = javaScriptObject.getJsObject();
-		}
-
-		d3JsObject.setMember(methodName, method);
-
-		String command = "d3.timer(function() { " //
-				+ "return d3." + methodName + ".execute();" //
-				+ "});";
-		eval(command);
+		// hint: the timer function is released by the CallbackDispatcher when
+		// it returns true
+		JsObject jsTimerFunction = createCallbackFunction(CallbackDispatcher.TIMER_FUNCTION, timerFunction);
+		call("timer", jsTimerFunction);
 	};
 
 	/**
@@ -414,14 +388,8 @@ public class D3 extends JavaScriptObject {
 	 */
 	public void timer(TimerFunction timerFunction, int delayMillis) {
 
-		assertObjectIsNotAnonymous(timerFunction);
-
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(funcName, timerFunction);
-
-		String command = "this.timer(function(d, i) { return d3." + funcName + ".execute();}, " + delayMillis + ");";
-		eval(command);
+		JsObject jsTimerFunction = createCallbackFunction(CallbackDispatcher.TIMER_FUNCTION, timerFunction);
+		call("timer", jsTimerFunction, delayMillis);
 	};
 
 	/**
@@ -463,16 +431,8 @@ public class D3 extends JavaScriptObject {
 	 */
 	public void timer(TimerFunction timerFunction, int delayMillis, int markMillis) {
 
-		assertObjectIsNotAnonymous(timerFunction);
-
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(funcName, timerFunction);
-
-		String command = "this.timer(function(d, i) { return d3." + funcName + ".execute();}, " + delayMillis + ", "
-				+ markMillis + ");";
-		eval(command);
-
+		JsObject jsTimerFunction = createCallbackFunction(CallbackDispatcher.TIMER_FUNCTION, timerFunction);
+		call("timer", jsTimerFunction, delayMillis, markMillis);
 	};
 
 	/**
@@ -698,16 +658,10 @@ public class D3 extends JavaScriptObject {
 	 */
 	public <T> Dsv<T> csv(String url, DsvCallback<T> callback) {
 
-		assertObjectIsNotAnonymous(callback);
-
-		String callbackName = createNewTemporaryInstanceName();
-		JsObject jsObj = getJsObject();
-		jsObj.setMember(callbackName, callback);
-
-		String command = "this.csv('" + url + "', function(error, rows) { " //
-				+ "  this." + callbackName + ".get(error, rows); " //
-				+ "});";
-		JsObject result = evalForJsObject(command);
+		// hint: the callback is released by the CallbackDispatcher after the
+		// request has been completed
+		JsObject jsCallback = createCallbackFunction(CallbackDispatcher.DSV_CALLBACK, callback);
+		JsObject result = call("csv", url, jsCallback);
 		return new Dsv<T>(engine, result);
 	};
 
@@ -731,24 +685,12 @@ public class D3 extends JavaScriptObject {
 	 */
 	public <T> Dsv<T> csv(String url, DsvObjectAccessor<T> accessor, DsvCallback<T> callback) {
 
-		assertObjectIsNotAnonymous(accessor);
-		assertObjectIsNotAnonymous(callback);
-
-		String accessorMemberName = createNewTemporaryInstanceName();
-		String callbackName = createNewTemporaryInstanceName();
-
-		JsObject jsObj = getJsObject();
-		jsObj.setMember(accessorMemberName, accessor);
-		jsObj.setMember(callbackName, callback);
-
-		String command = "this.csv('" + url + "', function(row, index) { " //			
-				+ "  return this." + accessorMemberName + ".apply(row, index);" //
-				+ " }, " + "function(error, rows) { " //			
-				+ "  this." + callbackName + ".get(error, rows); " //
-				+ "});";
-		JsObject result = evalForJsObject(command);
+		// hint: the accessor is released after the request has been completed
+		JsObject jsAccessor = createCallbackFunction(CallbackDispatcher.ROW_FUNCTION, accessor);
+		JsObject jsCallback = createCallbackFunction(CallbackDispatcher.DSV_CALLBACK, callback);
+		JsObject result = call("csv", url, jsAccessor, jsCallback);
+		JsBridge.get(engine).call("releaseRowOnCompletion", result);
 		return new Dsv<T>(engine, result);
-
 	};
 
 	/**
@@ -770,17 +712,10 @@ public class D3 extends JavaScriptObject {
 	 */
 	public <T> Dsv<T> csv(String url, DsvObjectAccessor<T> accessor) {
 
-		assertObjectIsNotAnonymous(accessor);
-
-		String accessorMemberName = createNewTemporaryInstanceName();
-
-		JsObject jsObj = getJsObject();
-		jsObj.setMember(accessorMemberName, accessor);
-
-		String command = "this.csv('" + url + "', function(row, index) { " //				
-				+ "  return this." + accessorMemberName + ".apply(row, index);" //
-				+ " });";
-		JsObject result = evalForJsObject(command);
+		// hint: the accessor is released after the request has been completed
+		JsObject jsAccessor = createCallbackFunction(CallbackDispatcher.ROW_FUNCTION, accessor);
+		JsObject result = call("csv", url, jsAccessor);
+		JsBridge.get(engine).call("releaseRowOnCompletion", result);
 		return new Dsv<T>(engine, result);
 	};
 
@@ -830,18 +765,11 @@ public class D3 extends JavaScriptObject {
 	 */
 	public <T> Dsv<T> tsv(String url, DsvCallback<T> callback) {
 
-		assertObjectIsNotAnonymous(callback);
-
-		String callbackName = createNewTemporaryInstanceName();
-		JsObject jsObj = getJsObject();
-		jsObj.setMember(callbackName, callback);
-
-		String command = "this.tsv('" + url + "', function(error, rows) { " //
-				+ "  this." + callbackName + ".get(error, rows); " //
-				+ "});";
-		JsObject result = evalForJsObject(command);
+		// hint: the callback is released by the CallbackDispatcher after the
+		// request has been completed
+		JsObject jsCallback = createCallbackFunction(CallbackDispatcher.DSV_CALLBACK, callback);
+		JsObject result = call("tsv", url, jsCallback);
 		return new Dsv<T>(engine, result);
-
 	};
 
 	/**
@@ -864,25 +792,12 @@ public class D3 extends JavaScriptObject {
 	 */
 	public <T> Dsv<T> tsv(String url, DsvObjectAccessor<T> accessor, DsvCallback<T> callback) {
 
-		assertObjectIsNotAnonymous(accessor);
-		assertObjectIsNotAnonymous(callback);
-
-		String accessorMemberName = createNewTemporaryInstanceName();
-		String callbackName = createNewTemporaryInstanceName();
-
-		JsObject jsObj = getJsObject();
-		jsObj.setMember(accessorMemberName, accessor);
-		jsObj.setMember(callbackName, callback);
-
-		String command = "this.tsv('" + url + "', function(row, index) { " //		
-				+ "alert('inside tsv callback'); " //
-				+ "  return this." + accessorMemberName + ".apply(row, index);" //
-				+ " }, " + "function(error, rows) { " //			
-				+ "  this." + callbackName + ".get(error, rows); " //
-				+ "});";
-		JsObject result = evalForJsObject(command);
+		// hint: the accessor is released after the request has been completed
+		JsObject jsAccessor = createCallbackFunction(CallbackDispatcher.ROW_FUNCTION, accessor);
+		JsObject jsCallback = createCallbackFunction(CallbackDispatcher.DSV_CALLBACK, callback);
+		JsObject result = call("tsv", url, jsAccessor, jsCallback);
+		JsBridge.get(engine).call("releaseRowOnCompletion", result);
 		return new Dsv<T>(engine, result);
-
 	};
 
 	/**
@@ -904,19 +819,11 @@ public class D3 extends JavaScriptObject {
 	 */
 	public <T> Dsv<T> tsv(String url, DsvObjectAccessor<T> accessor) {
 
-		assertObjectIsNotAnonymous(accessor);
-
-		String accessorMemberName = createNewTemporaryInstanceName();
-
-		JsObject jsObj = getJsObject();
-		jsObj.setMember(accessorMemberName, accessor);
-
-		String command = "this.tsv('" + url + "', function(row, index) { " //				
-				+ "  return this." + accessorMemberName + ".apply(row, index);" //
-				+ " });";
-		JsObject result = evalForJsObject(command);
+		// hint: the accessor is released after the request has been completed
+		JsObject jsAccessor = createCallbackFunction(CallbackDispatcher.ROW_FUNCTION, accessor);
+		JsObject result = call("tsv", url, jsAccessor);
+		JsBridge.get(engine).call("releaseRowOnCompletion", result);
 		return new Dsv<T>(engine, result);
-
 	};
 
 	/**
@@ -935,6 +842,33 @@ public class D3 extends JavaScriptObject {
 		return new Dsv<T>(engine, result);
 	};
 
+	// =========== dsv files ==============
+
+	/**
+	 * Reads the comma-separated values (CSV) file at the specified path in
+	 * Java, see {@link DsvReader}. Unlike {@link #csv(String)}, the content
+	 * does not pass through the page: the typed columns of the returned
+	 * dataset are transferred when it is bound to a selection with
+	 * {@link Selection#data(ColumnarDataset)}.
+	 *
+	 * @param file
+	 * @return the columns
+	 */
+	public ColumnarDataset readCsv(Path file) {
+		return DsvReader.csv().read(file);
+	}
+
+	/**
+	 * Reads the tab-separated values (TSV) file at the specified path in
+	 * Java, see {@link #readCsv(Path)}
+	 *
+	 * @param file
+	 * @return the columns
+	 */
+	public ColumnarDataset readTsv(Path file) {
+		return DsvReader.tsv().read(file);
+	}
+
 	// ============= json ============
 
 	// ============= array ============
@@ -1207,29 +1141,12 @@ public class D3 extends JavaScriptObject {
 
 	public <R, A> Array<R> extent(Array<A> array, ForEachCallback<R> accessor) {
 
-		assertObjectIsNotAnonymous(accessor);
-
-		String arrayMemberName = createNewTemporaryInstanceName();
-		String accessorMemberName = createNewTemporaryInstanceName();
-
-		JsObject jsObj = getJsObject();
-		jsObj.setMember(arrayMemberName, array.getJsObject());
-		jsObj.setMember(accessorMemberName, accessor);
-
-		String command = "d3.extent(d3." + arrayMemberName + ", function(d, index, array) { " + //
-				"   return d3." + accessorMemberName + ".forEach(this, d, index, array);" + //
-				"}); ";
-
-		JsObject result = evalForJsObject(command);
-
-		jsObj.removeMember(arrayMemberName);
-		jsObj.removeMember(accessorMemberName);
-
+		JsObject result = callWithCallback("extent", CallbackDispatcher.FOR_EACH_FUNCTION, accessor,
+				array.getJsObject());
 		if (result == null) {
 			return null;
 		}
 		return new Array<>(engine, result);
-
 	}
 
 	private <T> List<JsObject> extractJsObjectElements(Array<T> array) {
@@ -1252,29 +1169,20 @@ public class D3 extends JavaScriptObject {
 
 	public Value max(Array<?> array, ForEachCallback<?> accessor) {
 
-		assertObjectIsNotAnonymous(accessor);
-
-		String arrayMemberName = createNewTemporaryInstanceName();
-		String accessorMemberName = createNewTemporaryInstanceName();
-
-		JsObject jsObj = getJsObject();
-		jsObj.setMember(arrayMemberName, array.getJsObject());
-		jsObj.setMember(accessorMemberName, accessor);
-
-		String command = "d3.max(d3." + arrayMemberName + ", function(d, index, array) { " + //
-				"   return d3." + accessorMemberName + ".forEach(this, d, index, array);" + //
-				"}); ";
-
-		Object valueResult = eval(command);
-
-		jsObj.removeMember(arrayMemberName);
-		jsObj.removeMember(accessorMemberName);
+		CallbackDispatcher dispatcher = engine.getCallbackDispatcher();
+		int callbackId = dispatcher.register(accessor);
+		Object valueResult;
+		try {
+			JsObject jsAccessor = dispatcher.createFunction(CallbackDispatcher.FOR_EACH_FUNCTION, callbackId);
+			valueResult = getJsObject().call("max", array.getJsObject(), jsAccessor);
+		} finally {
+			dispatcher.release(callbackId);
+		}
 
 		if (valueResult == null) {
 			return null;
 		}
 		return Value.create(engine, valueResult);
-
 	}
 
 	public Value min(Array<?> array) {
@@ -8,7 +8,9 @@ import org.treez.javafxd3.d3.arrays.foreach.ForEachCallback;
 import org.treez.javafxd3.d3.arrays.foreach.ForEachCallbackWrapper;
 import org.treez.javafxd3.d3.arrays.foreach.ForEachObjectDelegate;
 import org.treez.javafxd3.d3.arrays.foreach.ForEachObjectDelegateWrapper;
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.ConversionUtil;
+import org.treez.javafxd3.d3.core.JsBridge;
 import org.treez.javafxd3.d3.functions.data.wrapper.PlainDataFunction;
 import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
 
@@ -115,7 +117,9 @@ public class Array<T> extends JavaScriptObject {
 	}
 
 	/**
-	 * Creates a one-dimensional Array from the given Double array
+	 * Creates a one-dimensional Array from the given Double array. If the
+	 * array does not contain null values it is transferred with
+	 * {@link ArrayTransfer}.
 	 * 
 	 * @param engine
 	 * @param data
@@ -123,6 +127,11 @@ public class Array<T> extends JavaScriptObject {
 	 */
 	public static Array<Double> fromDoubles(JsEngine engine, Double[] data) {
 
+		double[] unboxedData = ArrayTransfer.unbox(data);
+		if (unboxedData != null) {
+			return fromDoubles(engine, unboxedData);
+		}
+
 		String varName = createNewTemporaryInstanceName();
 		String arrayString = ArrayUtils.createArrayString(data);
 		String command = "var " + varName + " = " + arrayString + ";";
@@ -136,7 +145,25 @@ public class Array<T> extends JavaScriptObject {
 		return new Array<Double>(engine, result);
 	}
 
+	/**
+	 * Creates a one-dimensional Array from the given double array
+	 * 
+	 * @param engine
+	 * @param data
+	 * @return
+	 */
+	public static Array<Double> fromDoubles(JsEngine engine, double[] data) {
+		JsObject result = ArrayTransfer.toJsArray(engine, data);
+		return new Array<Double>(engine, result);
+	}
+
 	public static Array<Double> fromDoubles(JsEngine engine, Double[][] data) {
+
+		double[][] unboxedData = ArrayTransfer.unbox(data);
+		if (unboxedData != null) {
+			return fromDoubles(engine, unboxedData);
+		}
+
 		String varName = createNewTemporaryInstanceName();
 		String arrayString = ArrayUtils.createArrayString(data);
 		String command = "var " + varName + " = " + arrayString + ";";
@@ -150,18 +177,58 @@ public class Array<T> extends JavaScriptObject {
 		return new Array<Double>(engine, result);
 	}
 
-	public static Array<String> fromStrings(JsEngine engine, String[] data) {
+	/**
+	 * Creates a two-dimensional Array from the given double matrix. All rows
+	 * must have the same length.
+	 * 
+	 * @param engine
+	 * @param data
+	 * @return
+	 */
+	public static Array<Double> fromDoubles(JsEngine engine, double[][] data) {
+		JsObject result = ArrayTransfer.toJsMatrix(engine, data);
+		return new Array<Double>(engine, result);
+	}
 
-		String varName = createNewTemporaryInstanceName();
-		String arrayString = ArrayUtils.createArrayString(data);
-		String command = "var " + varName + " = " + arrayString + ";";
-		engine.executeScript(command);
+	/**
+	 * Creates a one-dimensional Array from the given float array
+	 * 
+	 * @param engine
+	 * @param data
+	 * @return
+	 */
+	public static Array<Double> fromFloats(JsEngine engine, float[] data) {
+		JsObject result = ArrayTransfer.toJsArray(engine, data);
+		return new Array<Double>(engine, result);
+	}
 
-		// execute command and return result as Array
-		JsObject result = (JsObject) engine.executeScript(varName);
+	/**
+	 * Creates a one-dimensional Array from the given int array
+	 * 
+	 * @param engine
+	 * @param data
+	 * @return
+	 */
+	public static Array<Integer> fromInts(JsEngine engine, int[] data) {
+		JsObject result = ArrayTransfer.toJsArray(engine, data);
+		return new Array<Integer>(engine, result);
+	}
 
-		engine.executeScript(varName + " = undefined;");
+	/**
+	 * Creates a one-dimensional Array of JavaScript Date objects from the given
+	 * epoch milliseconds
+	 * 
+	 * @param engine
+	 * @param epochMillis
+	 * @return
+	 */
+	public static Array<JsObject> fromEpochMillis(JsEngine engine, long[] epochMillis) {
+		JsObject result = ArrayTransfer.toJsDateArray(engine, epochMillis);
+		return new Array<JsObject>(engine, result);
+	}
 
+	public static Array<String> fromStrings(JsEngine engine, String[] data) {
+		JsObject result = ArrayTransfer.toJsArray(engine, data);
 		return new Array<String>(engine, result);
 	}
 
@@ -317,21 +384,7 @@ public class Array<T> extends JavaScriptObject {
 	public void forEach(ForEachObjectDelegate forEachDelegate) {
 
 		ForEachObjectDelegateWrapper delegateWrapper = new ForEachObjectDelegateWrapper(engine, forEachDelegate);
-
-		D3 d3 = new D3(engine);
-		JsObject d3Obj = d3.getJsObject();
-		String delegateName = createNewTemporaryInstanceName();
-		d3Obj.setMember(delegateName, delegateWrapper);
-
-		String command = "this.forEach(" + //
-				"  function(element){" + //			
-				"    d3." + delegateName + ".process(element);" + //
-				"  }" + //
-				")";
-		eval(command);
-
-		d3Obj.removeMember(delegateName);
-
+		callWithCallback("forEach", CallbackDispatcher.ELEMENT_FUNCTION, delegateWrapper);
 	}
 
 	/**
@@ -351,21 +404,7 @@ public class Array<T> extends JavaScriptObject {
 		ForEachCallback<R> callbackWrapper = new ForEachCallbackWrapper<R, T>(argumentClass, engine,
 				mappingFunction);
 
-		D3 d3 = new D3(engine);
-		JsObject d3Obj = d3.getJsObject();
-		String callbackName = createNewTemporaryInstanceName();
-		d3Obj.setMember(callbackName, callbackWrapper);
-
-		String command = "this.map(" + //
-				"  function(d, i, a){" + //			
-				"    var elementResult = d3." + callbackName + ".forEach(this, {datum: d}, i, a);" + //				
-				"    return elementResult; " + //
-				"  }" + //
-				")";
-
-		JsObject jsResult = evalForJsObject(command);
-
-		d3Obj.removeMember(callbackName);
+		JsObject jsResult = callWithCallback("map", CallbackDispatcher.FOR_EACH_FUNCTION, callbackWrapper);
 
 		if (jsResult == null) {
 			return null;
@@ -388,21 +427,7 @@ public class Array<T> extends JavaScriptObject {
 
 		ForEachCallback<Boolean> callbackWrapper = new ForEachCallbackWrapper<>(elementClass, engine, callback);
 
-		D3 d3 = new D3(engine);
-		JsObject d3Obj = d3.getJsObject();
-		String callbackName = createNewTemporaryInstanceName();
-		d3Obj.setMember(callbackName, callbackWrapper);
-
-		String command = "this.filter(" + //
-				"  function(d, i, a){" + //			
-				"    var includeElement = d3." + callbackName + ".forEach(this, {datum: d}, i, a);" + //				
-				"    return includeElement; " + //
-				"  }" + //
-				")";
-
-		JsObject jsResult = evalForJsObject(command);
-
-		d3Obj.removeMember(callbackName);
+		JsObject jsResult = callWithCallback("filter", CallbackDispatcher.FOR_EACH_FUNCTION, callbackWrapper);
 
 		if (jsResult == null) {
 			return null;
@@ -495,6 +520,51 @@ public class Array<T> extends JavaScriptObject {
 
 	//#end region
 
+	//#region BULK READBACK
+
+	/**
+	 * Returns the elements of this one-dimensional array as double values.
+	 * The elements are transferred with a single encoded call instead of one
+	 * call per element. Dates are returned as epoch milliseconds; null values
+	 * and elements that are no numbers (e.g. strings) are returned as NaN.
+	 *
+	 * @return
+	 */
+	public double[] toDoubleArray() {
+		String encodedValues = (String) JsBridge.get(engine).call("encodeNumbers", getJsObject());
+		return ArrayTransfer.decodeDoubles(encodedValues);
+	}
+
+	/**
+	 * Returns the elements of this one-dimensional array as long values, e.g.
+	 * the epoch milliseconds of an array of dates. See
+	 * {@link #toDoubleArray()}. Values that are no numbers are returned as 0.
+	 *
+	 * @return
+	 */
+	public long[] toLongArray() {
+		double[] doubleValues = toDoubleArray();
+		long[] values = new long[doubleValues.length];
+		for (int index = 0; index < doubleValues.length; index++) {
+			values[index] = Math.round(doubleValues[index]);
+		}
+		return values;
+	}
+
+	/**
+	 * Returns the string representations of the elements of this
+	 * one-dimensional array. Null and undefined elements are returned as
+	 * null. See {@link #toDoubleArray()}.
+	 *
+	 * @return
+	 */
+	public String[] toStringArray() {
+		String encodedValues = (String) JsBridge.get(engine).call("encodeStrings", getJsObject());
+		return ArrayTransfer.decodeStrings(encodedValues);
+	}
+
+	//#end region
+
 	//#region REVERSE
 
 	public Array<T> reverse() {
@@ -0,0 +1,559 @@
+package org.treez.javafxd3.d3.arrays;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Base64;
+
+import org.treez.javafxd3.d3.core.JsBridge;
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
+
+/**
+ * Transfers primitive Java arrays to JavaScript in a single call. The values
+ * are written as little endian bytes, encoded as one base64 string and decoded
+ * by the page directly into a Float64Array, Float32Array or Int32Array. This
+ * avoids the creation and parsing of huge array literals like "[1.0,2.0,...]".
+ * Numbers that are encoded by the page (see __jfxd3.encodeTypedArray) are
+ * decoded the same way.
+ */
+public final class ArrayTransfer {
+
+	//#region ATTRIBUTES
+
+	public static final String FLOAT64 = "float64";
+
+	public static final String FLOAT32 = "float32";
+
+	public static final String INT32 = "int32";
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	private ArrayTransfer() {
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	//#region ENCODE
+
+	/**
+	 * Encodes the given values as base64 string of little endian float64
+	 * values
+	 *
+	 * @param values
+	 * @return
+	 */
+	public static String encode(double[] values) {
+		ByteBuffer buffer = createBuffer(values.length * Double.BYTES);
+		buffer.asDoubleBuffer().put(values);
+		return encode(buffer);
+	}
+
+	/**
+	 * Encodes the given values as base64 string of little endian float32
+	 * values
+	 *
+	 * @param values
+	 * @return
+	 */
+	public static String encode(float[] values) {
+		ByteBuffer buffer = createBuffer(values.length * Float.BYTES);
+		buffer.asFloatBuffer().put(values);
+		return encode(buffer);
+	}
+
+	/**
+	 * Encodes the given values as base64 string of little endian int32 values
+	 *
+	 * @param values
+	 * @return
+	 */
+	public static String encode(int[] values) {
+		ByteBuffer buffer = createBuffer(values.length * Integer.BYTES);
+		buffer.asIntBuffer().put(values);
+		return encode(buffer);
+	}
+
+	/**
+	 * Encodes the given values (e.g. epoch milliseconds) as base64 string of
+	 * little endian float64 values. Values with an absolute value larger than
+	 * 2^53 lose precision.
+	 *
+	 * @param values
+	 * @return
+	 */
+	public static String encode(long[] values) {
+		ByteBuffer buffer = createBuffer(values.length * Double.BYTES);
+		for (long value : values) {
+			buffer.putDouble((double) value);
+		}
+		return encode(buffer);
+	}
+
+	private static ByteBuffer createBuffer(int numberOfBytes) {
+		return ByteBuffer.allocate(numberOfBytes).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static String encode(ByteBuffer buffer) {
+		return Base64.getEncoder().encodeToString(buffer.array());
+	}
+
+	/**
+	 * Encodes the lengths of the given strings as base64 string of little
+	 * endian int32 values. The length of null is encoded as -1. The strings
+	 * can be restored from the lengths and the concatenated strings (see
+	 * {@link #concat(String[])}) by __jfxd3.decodeStrings.
+	 *
+	 * @param values
+	 * @return
+	 */
+	public static String encodeLengths(String[] values) {
+		int[] lengths = new int[values.length];
+		for (int index = 0; index < values.length; index++) {
+			String value = values[index];
+			lengths[index] = value == null ? -1 : value.length();
+		}
+		return encode(lengths);
+	}
+
+	/**
+	 * Concatenates the given strings and skips null values
+	 *
+	 * @param values
+	 * @return
+	 */
+	public static String concat(String[] values) {
+		StringBuilder builder = new StringBuilder();
+		for (String value : values) {
+			if (value != null) {
+				builder.append(value);
+			}
+		}
+		return builder.toString();
+	}
+
+	//#end region
+
+	//#region DECODE
+
+	/**
+	 * Decodes a base64 string of little endian float64 values (e.g. created by
+	 * __jfxd3.encodeTypedArray)
+	 *
+	 * @param base64
+	 * @return
+	 */
+	public static double[] decodeDoubles(String base64) {
+		ByteBuffer buffer = decode(base64);
+		double[] values = new double[buffer.remaining() / Double.BYTES];
+		buffer.asDoubleBuffer().get(values);
+		return values;
+	}
+
+	/**
+	 * Decodes a base64 string of little endian int32 values (e.g. created by
+	 * __jfxd3.encodeTypedArray)
+	 *
+	 * @param base64
+	 * @return
+	 */
+	public static int[] decodeInts(String base64) {
+		ByteBuffer buffer = decode(base64);
+		int[] values = new int[buffer.remaining() / Integer.BYTES];
+		buffer.asIntBuffer().get(values);
+		return values;
+	}
+
+	/**
+	 * Decodes strings that have been encoded by __jfxd3.encodeStrings: the
+	 * base64 encoded int32 lengths of the strings (-1 for null), a colon and
+	 * the concatenated strings
+	 *
+	 * @param encodedStrings
+	 * @return
+	 */
+	public static String[] decodeStrings(String encodedStrings) {
+		int separatorIndex = encodedStrings.indexOf(':');
+		int[] lengths = decodeInts(encodedStrings.substring(0, separatorIndex));
+		String[] values = new String[lengths.length];
+		int offset = separatorIndex + 1;
+		for (int index = 0; index < lengths.length; index++) {
+			int length = lengths[index];
+			if (length >= 0) {
+				values[index] = encodedStrings.substring(offset, offset + length);
+				offset += length;
+			}
+		}
+		return values;
+	}
+
+	private static ByteBuffer decode(String base64) {
+		byte[] bytes = Base64.getDecoder().decode(base64);
+		return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	//#end region
+
+	//#region TYPED ARRAYS
+
+	/**
+	 * Creates a JavaScript Float64Array with the given values
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toTypedArray(JsEngine engine, double[] values) {
+		return (JsObject) JsBridge.get(engine).call("decodeTypedArray", FLOAT64, encode(values));
+	}
+
+	/**
+	 * Creates a JavaScript Float32Array with the given values
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toTypedArray(JsEngine engine, float[] values) {
+		return (JsObject) JsBridge.get(engine).call("decodeTypedArray", FLOAT32, encode(values));
+	}
+
+	/**
+	 * Creates a JavaScript Int32Array with the given values
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toTypedArray(JsEngine engine, int[] values) {
+		return (JsObject) JsBridge.get(engine).call("decodeTypedArray", INT32, encode(values));
+	}
+
+	/**
+	 * Creates a JavaScript Float64Array with the given values
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toTypedArray(JsEngine engine, long[] values) {
+		return (JsObject) JsBridge.get(engine).call("decodeTypedArray", FLOAT64, encode(values));
+	}
+
+	//#end region
+
+	//#region PLAIN ARRAYS
+
+	/**
+	 * Creates a plain JavaScript array with the given values. The values are
+	 * transferred as Float64Array and copied into the plain array by the page.
+	 * Use plain arrays if the receiving JavaScript code relies on methods like
+	 * map or concat.
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toJsArray(JsEngine engine, double[] values) {
+		return (JsObject) JsBridge.get(engine).call("decodeArray", FLOAT64, encode(values));
+	}
+
+	/**
+	 * Creates a plain JavaScript array with the given values
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toJsArray(JsEngine engine, float[] values) {
+		return (JsObject) JsBridge.get(engine).call("decodeArray", FLOAT32, encode(values));
+	}
+
+	/**
+	 * Creates a plain JavaScript array with the given values
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toJsArray(JsEngine engine, int[] values) {
+		return (JsObject) JsBridge.get(engine).call("decodeArray", INT32, encode(values));
+	}
+
+	/**
+	 * Creates a plain JavaScript array with the given values
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toJsArray(JsEngine engine, long[] values) {
+		return (JsObject) JsBridge.get(engine).call("decodeArray", FLOAT64, encode(values));
+	}
+
+	/**
+	 * Creates a plain JavaScript array with the given values
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toJsArray(JsEngine engine, short[] values) {
+		int[] intValues = new int[values.length];
+		for (int index = 0; index < values.length; index++) {
+			intValues[index] = values[index];
+		}
+		return toJsArray(engine, intValues);
+	}
+
+	/**
+	 * Creates a plain JavaScript array with the given values
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toJsArray(JsEngine engine, byte[] values) {
+		int[] intValues = new int[values.length];
+		for (int index = 0; index < values.length; index++) {
+			intValues[index] = values[index];
+		}
+		return toJsArray(engine, intValues);
+	}
+
+	/**
+	 * Creates a plain JavaScript array that contains the given characters as
+	 * strings of length one
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toJsArray(JsEngine engine, char[] values) {
+		String[] stringValues = new String[values.length];
+		for (int index = 0; index < values.length; index++) {
+			stringValues[index] = String.valueOf(values[index]);
+		}
+		return toJsArray(engine, stringValues);
+	}
+
+	/**
+	 * Creates a plain JavaScript array with the given strings (that may be
+	 * null). The strings are concatenated to a single string and split by the
+	 * page using the transferred string lengths, so no quoting is required.
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toJsArray(JsEngine engine, String[] values) {
+		return (JsObject) JsBridge.get(engine).call("decodeStrings", encodeLengths(values), concat(values));
+	}
+
+	/**
+	 * Creates a plain JavaScript array with the given boolean values
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toJsArray(JsEngine engine, boolean[] values) {
+		int[] intValues = new int[values.length];
+		for (int index = 0; index < values.length; index++) {
+			intValues[index] = values[index] ? 1 : 0;
+		}
+		return (JsObject) JsBridge.get(engine).call("decodeBooleans", encode(intValues));
+	}
+
+	/**
+	 * Creates a plain JavaScript array with the given values. Arrays that only
+	 * contain numbers, strings or booleans are transferred in bulk. Other
+	 * values (e.g. JavaScriptObjects) are passed as arguments of a single
+	 * call.
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toJsArray(JsEngine engine, Object[] values) {
+
+		boolean isStringArray = values instanceof String[];
+		if (isStringArray) {
+			return toJsArray(engine, (String[]) values);
+		}
+
+		double[] doubleValues = unboxNumbers(values);
+		if (doubleValues != null) {
+			return toJsArray(engine, doubleValues);
+		}
+
+		boolean[] booleanValues = unboxBooleans(values);
+		if (booleanValues != null) {
+			return toJsArray(engine, booleanValues);
+		}
+
+		String[] stringValues = castToStrings(values);
+		if (stringValues != null) {
+			return toJsArray(engine, stringValues);
+		}
+
+		Object[] jsValues = new Object[values.length];
+		for (int index = 0; index < values.length; index++) {
+			Object value = values[index];
+			boolean isJavaScriptObject = value instanceof JavaScriptObject;
+			if (isJavaScriptObject) {
+				value = ((JavaScriptObject) value).getJsObject();
+			}
+			jsValues[index] = value;
+		}
+		return (JsObject) JsBridge.get(engine).call("toArray", jsValues);
+	}
+
+	private static double[] unboxNumbers(Object[] values) {
+		double[] result = new double[values.length];
+		for (int index = 0; index < values.length; index++) {
+			Object value = values[index];
+			boolean isNumber = value instanceof Number;
+			if (!isNumber) {
+				return null;
+			}
+			result[index] = ((Number) value).doubleValue();
+		}
+		return result;
+	}
+
+	private static boolean[] unboxBooleans(Object[] values) {
+		boolean[] result = new boolean[values.length];
+		for (int index = 0; index < values.length; index++) {
+			Object value = values[index];
+			boolean isBoolean = value instanceof Boolean;
+			if (!isBoolean) {
+				return null;
+			}
+			result[index] = (Boolean) value;
+		}
+		return result;
+	}
+
+	private static String[] castToStrings(Object[] values) {
+		String[] result = new String[values.length];
+		for (int index = 0; index < values.length; index++) {
+			Object value = values[index];
+			boolean isStringOrNull = value == null || value instanceof String;
+			if (!isStringOrNull) {
+				return null;
+			}
+			result[index] = (String) value;
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a plain JavaScript array of Date objects from the given epoch
+	 * milliseconds
+	 *
+	 * @param engine
+	 * @param epochMillis
+	 * @return
+	 */
+	public static JsObject toJsDateArray(JsEngine engine, long[] epochMillis) {
+		return (JsObject) JsBridge.get(engine).call("decodeDates", encode(epochMillis));
+	}
+
+	/**
+	 * Creates a two-dimensional plain JavaScript array from the given values.
+	 * All rows must have the same length.
+	 *
+	 * @param engine
+	 * @param values
+	 * @return
+	 */
+	public static JsObject toJsMatrix(JsEngine engine, double[][] values) {
+		int numberOfColumns = values.length == 0 ? 0 : values[0].length;
+		double[] flatValues = new double[values.length * numberOfColumns];
+		for (int rowIndex = 0; rowIndex < values.length; rowIndex++) {
+			double[] row = values[rowIndex];
+			if (row.length != numberOfColumns) {
+				String message = "All rows must have the same length";
+				throw new IllegalArgumentException(message);
+			}
+			System.arraycopy(row, 0, flatValues, rowIndex * numberOfColumns, numberOfColumns);
+		}
+		return (JsObject) JsBridge.get(engine).call("decodeMatrix", FLOAT64, encode(flatValues), values.length,
+				numberOfColumns);
+	}
+
+	//#end region
+
+	//#region BOXED ARRAYS
+
+	/**
+	 * Unboxes the given values. Returns null if one of the values is null and
+	 * the values can therefore not be transferred as typed array.
+	 *
+	 * @param values
+	 * @return
+	 */
+	public static double[] unbox(Double[] values) {
+		double[] result = new double[values.length];
+		for (int index = 0; index < values.length; index++) {
+			Double value = values[index];
+			if (value == null) {
+				return null;
+			}
+			result[index] = value;
+		}
+		return result;
+	}
+
+	/**
+	 * Unboxes the given values. Returns null if one of the values is null or if
+	 * the rows have different lengths.
+	 *
+	 * @param values
+	 * @return
+	 */
+	public static double[][] unbox(Double[][] values) {
+		int numberOfColumns = values.length == 0 ? 0 : values[0].length;
+		double[][] result = new double[values.length][];
+		for (int rowIndex = 0; rowIndex < values.length; rowIndex++) {
+			Double[] row = values[rowIndex];
+			if (row == null || row.length != numberOfColumns) {
+				return null;
+			}
+			double[] unboxedRow = unbox(row);
+			if (unboxedRow == null) {
+				return null;
+			}
+			result[rowIndex] = unboxedRow;
+		}
+		return result;
+	}
+
+	/**
+	 * Unboxes the given values. Returns null if one of the values is null.
+	 *
+	 * @param values
+	 * @return
+	 */
+	public static int[] unbox(Integer[] values) {
+		int[] result = new int[values.length];
+		for (int index = 0; index < values.length; index++) {
+			Integer value = values[index];
+			if (value == null) {
+				return null;
+			}
+			result[index] = value;
+		}
+		return result;
+	}
+
+	//#end region
+
+	//#end region
+
+}
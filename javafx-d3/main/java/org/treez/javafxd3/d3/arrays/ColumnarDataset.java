@@ -0,0 +1,259 @@
+package org.treez.javafxd3.d3.arrays;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.treez.javafxd3.d3.core.JsBridge;
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * A table of named primitive columns that can be bound to a selection with
+ * {@link org.treez.javafxd3.d3.core.Selection#data(ColumnarDataset)}.
+ * <p>
+ * Each column is transferred as a single typed array (see
+ * {@link ArrayTransfer}). String columns are dictionary encoded: the distinct
+ * values are transferred once and the rows only hold int32 codes. The page
+ * creates light weight row views that only store their row index; the values
+ * are read from the columns when they are accessed, e.g. by d.x or
+ * d.category in an accessor or in an expression of
+ * {@link org.treez.javafxd3.d3.core.Selection#attrExpression(String, String)}.
+ * The columns are also available as typed arrays with rows.columns.
+ * <p>
+ * The columns are encoded and transferred for each join, so changes of the
+ * Java arrays (e.g. of the arrays that are returned by
+ * {@link #getColumn(String)}) are included in the next join.
+ */
+public class ColumnarDataset {
+
+	//#region ATTRIBUTES
+
+	private static final String DICTIONARY = "dictionary";
+
+	private final int numberOfRows;
+
+	private final Map<String, Column> columns = new LinkedHashMap<>();
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * @param numberOfRows
+	 *            the number of rows; all columns must have this length
+	 */
+	public ColumnarDataset(int numberOfRows) {
+		if (numberOfRows < 0) {
+			String message = "The number of rows must not be negative but is " + numberOfRows;
+			throw new IllegalStateException(message);
+		}
+		this.numberOfRows = numberOfRows;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	//#region COLUMNS
+
+	/**
+	 * Adds a float64 column
+	 *
+	 * @param name
+	 * @param values
+	 * @return this dataset
+	 */
+	public ColumnarDataset addColumn(String name, double[] values) {
+		assertLength(name, values.length);
+		return putColumn(name, new Column(ArrayTransfer.FLOAT64, values));
+	}
+
+	/**
+	 * Adds an int32 column
+	 *
+	 * @param name
+	 * @param values
+	 * @return this dataset
+	 */
+	public ColumnarDataset addColumn(String name, int[] values) {
+		assertLength(name, values.length);
+		return putColumn(name, new Column(ArrayTransfer.INT32, values));
+	}
+
+	/**
+	 * Adds a column of long values (e.g. epoch milliseconds) that is
+	 * transferred as float64 column. Values with an absolute value larger than
+	 * 2^53 lose precision.
+	 *
+	 * @param name
+	 * @param values
+	 * @return this dataset
+	 */
+	public ColumnarDataset addColumn(String name, long[] values) {
+		assertLength(name, values.length);
+		return putColumn(name, new Column(ArrayTransfer.FLOAT64, values));
+	}
+
+	/**
+	 * Adds a dictionary encoded string column. Null values are supported.
+	 *
+	 * @param name
+	 * @param values
+	 * @return this dataset
+	 */
+	public ColumnarDataset addColumn(String name, String[] values) {
+		assertLength(name, values.length);
+		return putColumn(name, new Column(DICTIONARY, values));
+	}
+
+	private ColumnarDataset putColumn(String name, Column column) {
+		columns.put(name, column);
+		return this;
+	}
+
+	private void assertLength(String name, int length) {
+		boolean hasWrongLength = length != numberOfRows;
+		if (hasWrongLength) {
+			String message = "The column '" + name + "' has " + length + " values but the dataset has "
+					+ numberOfRows + " rows.";
+			throw new IllegalStateException(message);
+		}
+	}
+
+	//#end region
+
+	//#region TRANSFER
+
+	/**
+	 * Encodes the current values of the columns and returns a new JavaScript
+	 * array of row views
+	 *
+	 * @param engine
+	 * @return
+	 */
+	public JsObject toJsArray(JsEngine engine) {
+
+		// arguments: number of rows, then name, type, payload, dictionary
+		// lengths and dictionary text for each column
+		Object[] args = new Object[1 + columns.size() * 5];
+		args[0] = numberOfRows;
+		int offset = 1;
+		for (Map.Entry<String, Column> entry : columns.entrySet()) {
+			Column column = entry.getValue();
+			args[offset] = entry.getKey();
+			args[offset + 1] = column.type;
+			boolean isDictionaryEncoded = column.type.equals(DICTIONARY);
+			if (isDictionaryEncoded) {
+				encodeDictionaryColumn((String[]) column.values, args, offset + 2);
+			} else {
+				args[offset + 2] = encodeNumberColumn(column.values);
+			}
+			offset += 5;
+		}
+
+		return (JsObject) JsBridge.get(engine).call("createColumnarRows", args);
+	}
+
+	private static String encodeNumberColumn(Object values) {
+		boolean isDoubleArray = values instanceof double[];
+		if (isDoubleArray) {
+			return ArrayTransfer.encode((double[]) values);
+		}
+		boolean isIntArray = values instanceof int[];
+		if (isIntArray) {
+			return ArrayTransfer.encode((int[]) values);
+		}
+		return ArrayTransfer.encode((long[]) values);
+	}
+
+	/**
+	 * Writes the encoded row codes, the dictionary lengths and the dictionary
+	 * text of the given string column to the given arguments
+	 */
+	private static void encodeDictionaryColumn(String[] values, Object[] args, int offset) {
+		Map<String, Integer> codes = new HashMap<>();
+		List<String> dictionary = new ArrayList<>();
+		int[] rowCodes = new int[values.length];
+		for (int index = 0; index < values.length; index++) {
+			String value = values[index];
+			if (value == null) {
+				rowCodes[index] = -1;
+				continue;
+			}
+			Integer code = codes.get(value);
+			if (code == null) {
+				code = dictionary.size();
+				codes.put(value, code);
+				dictionary.add(value);
+			}
+			rowCodes[index] = code;
+		}
+
+		String[] dictionaryValues = dictionary.toArray(new String[dictionary.size()]);
+		args[offset] = ArrayTransfer.encode(rowCodes);
+		args[offset + 1] = ArrayTransfer.encodeLengths(dictionaryValues);
+		args[offset + 2] = ArrayTransfer.concat(dictionaryValues);
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	public int getNumberOfRows() {
+		return numberOfRows;
+	}
+
+	/**
+	 * Returns the names of the columns in the order they have been added
+	 *
+	 * @return
+	 */
+	public List<String> getColumnNames() {
+		return Collections.unmodifiableList(new ArrayList<>(columns.keySet()));
+	}
+
+	/**
+	 * Returns the values of the column with the given name: a double[], int[],
+	 * long[] or String[]. Changes of the returned array are included in the
+	 * next join.
+	 *
+	 * @param name
+	 * @return
+	 */
+	public Object getColumn(String name) {
+		Column column = columns.get(name);
+		if (column == null) {
+			String message = "The dataset has no column '" + name + "'";
+			throw new IllegalStateException(message);
+		}
+		return column.values;
+	}
+
+	//#end region
+
+	//#end region
+
+	//#region COLUMN
+
+	/**
+	 * A transferable column
+	 */
+	private static class Column {
+
+		final String type;
+
+		final Object values;
+
+		Column(String type, Object values) {
+			this.type = type;
+			this.values = values;
+		}
+	}
+
+	//#end region
+
+}
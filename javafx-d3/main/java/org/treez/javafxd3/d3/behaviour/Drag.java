@@ -7,6 +7,7 @@ import org.treez.javafxd3.d3.functions.DragFunction;
 import org.treez.javafxd3.d3.functions.JsFunction;
 import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -67,79 +68,48 @@ public class Drag extends JavaScriptObject implements JsFunction {
 	 * @return
 	 */
 	public Drag on(DragEventType type, DataFunction<Void> listener) {
-
 		String eventName = type.name().toLowerCase().replace("_", "-");
-		String listenerName = createNewTemporaryInstanceName();
-		String varName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(listenerName, listener);
-		String command = "var "+varName+" = d3." + listenerName + " == null ? null : " + "function(d, index) {" //		      
-				+ "d3." + listenerName + ".apply(this,d,index);" //
-				+ " }; ";
-		eval(command);
-		String onCommand = "this.on('" + eventName + "', "+varName+");";
-
-		JsObject result = evalForJsObject(onCommand);
-		
-		if(result==null){
+		JsObject result = callWithPermanentCallback("on", CallbackDispatcher.DATA_FUNCTION, listener, eventName);
+		if (result == null) {
 			return null;
 		}
-		
 		return new Drag(engine, result);
 	}
 	
 	
 	public Drag onDragStart(DragFunction listener) {
-		assertObjectIsNotAnonymous(listener);
-		String listenerName = createNewTemporaryInstanceName();
-		String varName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(listenerName, listener);
-		String command = "var "+varName+" = d3." + listenerName + " == null ? null : " + "function(d, index) {" //		      
-				+ "d3." + listenerName + ".handleDragStart(this,d,index);" //
-				+ " }; ";
-		eval(command);
-		String onCommand = "this.on('dragstart', "+varName+");";
-		JsObject result = evalForJsObject(onCommand);
-		
-		if(result==null){
+		DataFunction<Void> dataFunction = (context, d, index) -> {
+			listener.handleDragStart(context, d, index);
+			return null;
+		};
+		JsObject result = callWithPermanentCallback("on", CallbackDispatcher.DATA_FUNCTION, dataFunction, "dragstart");
+		if (result == null) {
 			return null;
 		}
-		
 		return new Drag(engine, result);
 	}
 	
 	public Drag onDrag(DragFunction listener) {
-		assertObjectIsNotAnonymous(listener);
-		String listenerName = createNewTemporaryInstanceName();
-		String varName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(listenerName, listener);
-		String command = "var "+varName+" = d3." + listenerName + " == null ? null : " + "function(d, index) {" //		      
-				+ "d3." + listenerName + ".handleDrag(this,d,index);" //
-				+ " }; ";
-		eval(command);
-		String onCommand = "this.on('drag', "+varName+");";
-		JsObject result = evalForJsObject(onCommand);
-		
-		if(result==null){
+		DataFunction<Void> dataFunction = (context, d, index) -> {
+			listener.handleDrag(context, d, index);
+			return null;
+		};
+		JsObject result = callWithPermanentCallback("on", CallbackDispatcher.DATA_FUNCTION, dataFunction, "drag");
+		if (result == null) {
 			return null;
 		}
 		return new Drag(engine, result);
 	}
 	
 	public Drag onDragEnd(DragFunction listener) {
-		assertObjectIsNotAnonymous(listener);
-		String listenerName = createNewTemporaryInstanceName();
-		String varName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(listenerName, listener);
-		String command = "var "+varName+" = d3." + listenerName + " == null ? null : " + "function(d, index) {" //		      
-				+ "d3." + listenerName + ".handleDragEnd(this,d,index);" //
-				+ " }; ";
-		eval(command);
-		String onCommand = "this.on('dragend', "+varName+");";
-		JsObject result = evalForJsObject(onCommand);
+		DataFunction<Void> dataFunction = (context, d, index) -> {
+			listener.handleDragEnd(context, d, index);
+			return null;
+		};
+		JsObject result = callWithPermanentCallback("on", CallbackDispatcher.DATA_FUNCTION, dataFunction, "dragend");
+		if (result == null) {
+			return null;
+		}
 		return new Drag(engine, result);
 	}
 
@@ -207,18 +177,8 @@ public class Drag extends JavaScriptObject implements JsFunction {
 	 * @return the object Drag.
 	 */
 	public Drag origin(DataFunction<Coords> originAccesor) {
-
-		String originAccessorName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(originAccessorName, originAccesor);
-
-		String command = "this.origin(function(d, i) { return d3." + originAccessorName
-				+ ".apply(this,d,i); });";
-		JsObject result = evalForJsObject(command);
-		
-		d3JsObject.removeMember(originAccessorName);
-		
-		if(result==null){
+		JsObject result = callWithPermanentCallback("origin", CallbackDispatcher.DATA_FUNCTION, originAccesor);
+		if (result == null) {
 			return null;
 		}
 		return new Drag(engine, result);
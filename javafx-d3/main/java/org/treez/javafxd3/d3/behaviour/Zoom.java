@@ -12,6 +12,7 @@ import org.treez.javafxd3.d3.functions.JsFunction;
 import org.treez.javafxd3.d3.scales.LinearScale;
 import org.treez.javafxd3.d3.scales.QuantitativeScale;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -83,26 +84,8 @@ public class Zoom extends JavaScriptObject implements JsFunction {
 	 * @return the current zoom instance
 	 */
 	public Zoom on(ZoomEventType type, DataFunction<Void> listener) {
-
-		assertObjectIsNotAnonymous(listener);
-
-		String listenerName = createNewTemporaryInstanceName();
-		String varName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(listenerName, listener);
-
 		String eventName = type.name().toLowerCase();
-				
-		String command = "var "+varName+" = d3." + listenerName + " == null ? null : " + "function(d, i) {" //		      
-				+ "d3." + listenerName + ".apply(this,d,i);" //
-				+ " }; ";
-
-		eval(command);
-		String onCommand = "this.on('" + eventName + "', "+varName+");";
-
-		JsObject result = evalForJsObject(onCommand);
-		
-
+		JsObject result = callWithPermanentCallback("on", CallbackDispatcher.DATA_FUNCTION, listener, eventName);
 		if (result == null) {
 			return null;
 		}
@@ -0,0 +1,535 @@
+package org.treez.javafxd3.d3.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.treez.javafxd3.d3.arrays.foreach.ForEachCallback;
+import org.treez.javafxd3.d3.arrays.foreach.ForEachObjectDelegate;
+import org.treez.javafxd3.d3.dsv.DsvArrayAccessor;
+import org.treez.javafxd3.d3.dsv.DsvCallback;
+import org.treez.javafxd3.d3.ease.EasingFunction;
+import org.treez.javafxd3.d3.functions.ChunkFunction;
+import org.treez.javafxd3.d3.functions.DataFunction;
+import org.treez.javafxd3.d3.functions.KeyFunction;
+import org.treez.javafxd3.d3.functions.ObjectAccessor;
+import org.treez.javafxd3.d3.functions.TimerFunction;
+import org.treez.javafxd3.d3.geom.Quadtree;
+import org.treez.javafxd3.d3.interpolators.Interpolator;
+import org.treez.javafxd3.d3.interpolators.InterpolatorFactory;
+import org.treez.javafxd3.d3.tweens.TweenFunction;
+import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
+
+/**
+ * Routes calls from the JavaScript engine to Java callbacks (e.g.
+ * DataFunctions) that are identified by an integer id.
+ * <p>
+ * There is one long-lived dispatcher per engine (see
+ * {@link JsEngine#getCallbackDispatcher()}). A callback is registered by
+ * writing it into an array slot, and a JavaScript function that forwards its
+ * arguments to the dispatcher is created by one of the trampolines of
+ * __jfxd3 (e.g. __jfxd3.dataFunction). Therefore no script has to be
+ * generated and evaluated for passing a callback to d3.
+ * <p>
+ * Since the callbacks are invoked from Java and not by the JavaScript engine,
+ * they may be lambda expressions, anonymous or non-public classes.
+ * <p>
+ * The dispatcher must be used on the JavaFX application thread.
+ */
+public class CallbackDispatcher {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * Trampoline for a DataFunction: function(d, i)
+	 */
+	public static final String DATA_FUNCTION = "dataFunction";
+
+	/**
+	 * Trampoline for a DataFunction whose result is converted to a string or
+	 * null: function(d, i)
+	 */
+	public static final String STRING_DATA_FUNCTION = "stringDataFunction";
+
+	/**
+	 * Trampoline for a DataFunction whose null result is replaced by false:
+	 * function(d, i)
+	 */
+	public static final String BOOLEAN_DATA_FUNCTION = "booleanDataFunction";
+
+	/**
+	 * Trampoline for a ForEachCallback: function(d, i, a)
+	 */
+	public static final String FOR_EACH_FUNCTION = "forEachFunction";
+
+	/**
+	 * Trampoline for a ForEachObjectDelegate: function(element)
+	 */
+	public static final String ELEMENT_FUNCTION = "elementFunction";
+
+	/**
+	 * Trampoline for a KeyFunction of selection.data(values, key). The values
+	 * are passed as additional argument: function(d, i)
+	 */
+	public static final String KEY_FUNCTION = "keyFunction";
+
+	/**
+	 * Trampoline for a Comparator that is called with the values a and b:
+	 * function(a, b)
+	 */
+	public static final String COMPARATOR = "comparator";
+
+	/**
+	 * Trampoline for a TweenFunction that is called with the current value a
+	 * of the attribute or style: function(d, i, a)
+	 */
+	public static final String TWEEN_FUNCTION = "tweenFunction";
+
+	/**
+	 * Trampoline for an EasingFunction: function(t)
+	 */
+	public static final String EASING_FUNCTION = "easingFunction";
+
+	/**
+	 * Trampoline for a TimerFunction: function()
+	 */
+	public static final String TIMER_FUNCTION = "timerFunction";
+
+	/**
+	 * Trampoline for a Quadtree.Callback: function(node, x1, y1, x2, y2)
+	 */
+	public static final String VISIT_FUNCTION = "visitFunction";
+
+	/**
+	 * Trampoline for a DsvCallback: function(error, rows)
+	 */
+	public static final String DSV_CALLBACK = "dsvCallback";
+
+	/**
+	 * Trampoline for an ObjectAccessor or DsvArrayAccessor: function(row, i)
+	 */
+	public static final String ROW_FUNCTION = "rowFunction";
+
+	/**
+	 * Trampoline for a ChunkFunction: function(chunk, offset)
+	 */
+	public static final String CHUNK_FUNCTION = "chunkFunction";
+
+	/**
+	 * Trampoline for the progress of a ProgressiveRender: function(rendered,
+	 * total, isCancelled)
+	 */
+	public static final String PROGRESS_FUNCTION = "progressFunction";
+
+	/**
+	 * Trampoline for a CallableInterpolator: function(t)
+	 */
+	public static final String INTERPOLATOR_FUNCTION = "interpolatorFunction";
+
+	/**
+	 * Trampoline for an AbstractInterpolatorFactory: function(a, b)
+	 */
+	public static final String INTERPOLATOR_FACTORY_FUNCTION = "interpolatorFactoryFunction";
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The dispatchers of engines that do not provide a dispatcher of their
+	 * own, see {@link #get(JsEngine)}
+	 */
+	private static final Map<JsEngine, CallbackDispatcher> DISPATCHERS = Collections
+			.synchronizedMap(new WeakHashMap<>());
+
+	private JsEngine engine;
+
+	/**
+	 * The registered callbacks. The index is the id of the callback.
+	 */
+	private Object[] callbacks = new Object[INITIAL_CAPACITY];
+
+	/**
+	 * The ids of released callbacks that can be reused
+	 */
+	private int[] freeIds = new int[INITIAL_CAPACITY];
+
+	private int numberOfFreeIds = 0;
+
+	/**
+	 * The smallest id that has never been used
+	 */
+	private int nextId = 0;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public CallbackDispatcher(JsEngine engine) {
+		this.engine = engine;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Returns the dispatcher of the given engine and creates it on the first
+	 * call. This is used by the default implementation of
+	 * {@link JsEngine#getCallbackDispatcher()}.
+	 *
+	 * @param engine
+	 * @return
+	 */
+	public static CallbackDispatcher get(JsEngine engine) {
+		return DISPATCHERS.computeIfAbsent(engine, CallbackDispatcher::new);
+	}
+
+	//#region REGISTRATION
+
+	/**
+	 * Registers the given callback and returns its id
+	 *
+	 * @param callback
+	 * @return
+	 */
+	public int register(Object callback) {
+		if (callback == null) {
+			throw new IllegalArgumentException("Callback must not be null");
+		}
+
+		int id;
+		if (numberOfFreeIds > 0) {
+			numberOfFreeIds--;
+			id = freeIds[numberOfFreeIds];
+		} else {
+			id = nextId;
+			nextId++;
+			if (id == callbacks.length) {
+				callbacks = Arrays.copyOf(callbacks, callbacks.length * 2);
+			}
+		}
+		callbacks[id] = callback;
+		return id;
+	}
+
+	/**
+	 * Releases the callback with the given id. The id may be reused for
+	 * other callbacks afterwards, so the JavaScript functions that have been
+	 * created for the callback must not be called any more.
+	 *
+	 * @param id
+	 */
+	public void release(int id) {
+		boolean isRegistered = id >= 0 && id < nextId && callbacks[id] != null;
+		if (!isRegistered) {
+			return;
+		}
+		callbacks[id] = null;
+		if (numberOfFreeIds == freeIds.length) {
+			freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+		}
+		freeIds[numberOfFreeIds] = id;
+		numberOfFreeIds++;
+	}
+
+	/**
+	 * Creates a JavaScript function for the callback with the given id
+	 *
+	 * @param trampolineName
+	 *            the name of the trampoline, e.g. {@link #DATA_FUNCTION}
+	 * @param id
+	 * @param additionalArgs
+	 *            additional arguments of the trampoline
+	 * @return
+	 */
+	public JsObject createFunction(String trampolineName, int id, Object... additionalArgs) {
+		Object[] args = new Object[additionalArgs.length + 2];
+		args[0] = this;
+		args[1] = id;
+		System.arraycopy(additionalArgs, 0, args, 2, additionalArgs.length);
+		return (JsObject) getBridge().call(trampolineName, args);
+	}
+
+	/**
+	 * Registers the given callback and creates a JavaScript function for it.
+	 * The callback stays registered as long as the function might be called,
+	 * e.g. for event listeners. The id is stored at the function, so that
+	 * the bridge can release the callback when the function is not used any
+	 * more (e.g. __jfxd3.on and __jfxd3.callWithTransitionCallback).
+	 *
+	 * @param trampolineName
+	 * @param callback
+	 * @return
+	 */
+	public JsObject createPermanentFunction(String trampolineName, Object callback) {
+		int id = register(callback);
+		return (JsObject) getBridge().call("permanentFunction", trampolineName, this, id);
+	}
+
+	/**
+	 * Calls the method of the given target with the given arguments, followed
+	 * by a JavaScript function for the given callback. The function is
+	 * created by the JavaScript engine in the same call. The callback is
+	 * released afterwards, so this must only be used for methods that call
+	 * the function immediately, e.g. selection.attr(name, function).
+	 *
+	 * @param target
+	 * @param methodName
+	 * @param trampolineName
+	 *            the name of the trampoline, e.g. {@link #DATA_FUNCTION}
+	 * @param callback
+	 * @param args
+	 * @return the raw result of the method
+	 */
+	public Object callWithCallback(JsObject target, String methodName, String trampolineName, Object callback,
+			Object... args) {
+		int id = register(callback);
+		try {
+			Object[] bridgeArgs = new Object[args.length + 5];
+			bridgeArgs[0] = target;
+			bridgeArgs[1] = methodName;
+			bridgeArgs[2] = trampolineName;
+			bridgeArgs[3] = this;
+			bridgeArgs[4] = id;
+			System.arraycopy(args, 0, bridgeArgs, 5, args.length);
+			return getBridge().call("callWithCallback", bridgeArgs);
+		} finally {
+			release(id);
+		}
+	}
+
+	/**
+	 * Returns the callback with the given id or null if no callback is
+	 * registered for the id
+	 *
+	 * @param id
+	 * @return
+	 */
+	public Object getCallback(int id) {
+		boolean isInRange = id >= 0 && id < nextId;
+		return isInRange ? callbacks[id] : null;
+	}
+
+	/**
+	 * Returns the number of currently registered callbacks
+	 *
+	 * @return
+	 */
+	public int getNumberOfCallbacks() {
+		return nextId - numberOfFreeIds;
+	}
+
+	/**
+	 * Returns the JavaScript helper object __jfxd3 that provides the
+	 * trampolines. It is not cached here since a new helper object is injected
+	 * if a new page is loaded.
+	 *
+	 * @return
+	 */
+	private JsObject getBridge() {
+		return JsBridge.get(engine);
+	}
+
+	//#end region
+
+	//#region DISPATCH
+
+	/**
+	 * Calls the DataFunction with the given id. Called by the JavaScript
+	 * engine.
+	 */
+	public Object dispatch(int id, Object context, Object datum, int index) {
+		DataFunction<?> dataFunction = (DataFunction<?>) getRegisteredCallback(id);
+		Object result = dataFunction.apply(context, datum, index);
+		return toJavaScriptResult(result);
+	}
+
+	/**
+	 * Calls the ForEachCallback with the given id. Called by the JavaScript
+	 * engine.
+	 */
+	public Object dispatchForEach(int id, Object context, Object element, int index, Object array) {
+		ForEachCallback<?> callback = (ForEachCallback<?>) getRegisteredCallback(id);
+		Object result = callback.forEach(context, element, index, array);
+		return toJavaScriptResult(result);
+	}
+
+	/**
+	 * Calls the ForEachObjectDelegate with the given id. Called by the
+	 * JavaScript engine.
+	 */
+	public void dispatchElement(int id, Object element) {
+		ForEachObjectDelegate delegate = (ForEachObjectDelegate) getRegisteredCallback(id);
+		delegate.process(element);
+	}
+
+	/**
+	 * Calls the KeyFunction with the given id. Called by the JavaScript
+	 * engine.
+	 */
+	public Object dispatchKey(int id, Object context, Object newDataArray, Object datum, int index) {
+		KeyFunction<?> keyFunction = (KeyFunction<?>) getRegisteredCallback(id);
+		Object result = keyFunction.call(context, newDataArray, datum, index);
+		return toJavaScriptResult(result);
+	}
+
+	/**
+	 * Calls the Comparator with the given id. Called by the JavaScript
+	 * engine.
+	 */
+	@SuppressWarnings("unchecked")
+	public int dispatchCompare(int id, Object first, Object second) {
+		Comparator<Object> comparator = (Comparator<Object>) getRegisteredCallback(id);
+		return comparator.compare(first, second);
+	}
+
+	/**
+	 * Calls the TweenFunction with the given id. Called by the JavaScript
+	 * engine.
+	 */
+	public Object dispatchTween(int id, Object context, Object datum, int index, Object value) {
+		TweenFunction<?> tweenFunction = (TweenFunction<?>) getRegisteredCallback(id);
+		JsObject interpolator = tweenFunction.apply(context, datum, index, value);
+		return toJavaScriptResult(interpolator);
+	}
+
+	/**
+	 * Calls the EasingFunction with the given id. Called by the JavaScript
+	 * engine.
+	 */
+	public double dispatchEase(int id, double t) {
+		EasingFunction easingFunction = (EasingFunction) getRegisteredCallback(id);
+		return easingFunction.ease(t);
+	}
+
+	/**
+	 * Calls the TimerFunction with the given id. The callback is released if
+	 * it returns true, since d3 stops the timer in that case. Called by the
+	 * JavaScript engine.
+	 */
+	public boolean dispatchTimer(int id) {
+		TimerFunction timerFunction = (TimerFunction) getRegisteredCallback(id);
+		boolean isFinished = timerFunction.execute();
+		if (isFinished) {
+			release(id);
+		}
+		return isFinished;
+	}
+
+	/**
+	 * Calls the Quadtree.Callback with the given id. Called by the JavaScript
+	 * engine.
+	 */
+	public boolean dispatchVisit(int id, Object node, double x1, double y1, double x2, double y2) {
+		Quadtree.Callback<?> callback = (Quadtree.Callback<?>) getRegisteredCallback(id);
+		return callback.visit(node, x1, y1, x2, y2);
+	}
+
+	/**
+	 * Calls the DsvCallback with the given id. The callback is released
+	 * afterwards, since a request completes only once. The row accessor of
+	 * the request is released by the bridge (see releaseRowOnCompletion).
+	 * Called by the JavaScript engine.
+	 */
+	public void dispatchDsv(int id, Object error, Object rows) {
+		DsvCallback<?> callback = (DsvCallback<?>) getRegisteredCallback(id);
+		try {
+			callback.get(error, rows);
+		} finally {
+			release(id);
+		}
+	}
+
+	/**
+	 * Calls the ObjectAccessor or DsvArrayAccessor with the given id. Called
+	 * by the JavaScript engine.
+	 */
+	@SuppressWarnings("unchecked")
+	public Object dispatchRow(int id, Object row, int index) {
+		Object callback = getRegisteredCallback(id);
+		Object result;
+		boolean isArrayAccessor = callback instanceof DsvArrayAccessor;
+		if (isArrayAccessor) {
+			result = ((DsvArrayAccessor<?>) callback).parse(row, index);
+		} else {
+			result = ((ObjectAccessor<Object, ?>) callback).apply(row, index);
+		}
+		return toJavaScriptResult(result);
+	}
+
+	/**
+	 * Calls the ChunkFunction with the given id and executes the buffered
+	 * commands, so that the chunk is complete when the function returns.
+	 * Called by the JavaScript engine.
+	 */
+	public void dispatchChunk(int id, Object chunk, int offset) {
+		ChunkFunction chunkFunction = (ChunkFunction) getRegisteredCallback(id);
+		chunkFunction.apply(new Selection(engine, (JsObject) chunk), offset);
+		engine.flush();
+	}
+
+	/**
+	 * Updates the ProgressiveRender with the given id. Called by the
+	 * JavaScript engine.
+	 */
+	public void dispatchProgress(int id, int numberOfRenderedElements, int numberOfElements, boolean isCancelled) {
+		ProgressiveRender render = (ProgressiveRender) getRegisteredCallback(id);
+		render.update(numberOfRenderedElements, numberOfElements, isCancelled);
+	}
+
+	/**
+	 * Calls the CallableInterpolator with the given id. Called by the
+	 * JavaScript engine.
+	 */
+	public Object dispatchInterpolate(int id, Object t) {
+		Interpolator<?> interpolator = (Interpolator<?>) getRegisteredCallback(id);
+		Object result = interpolator.interpolate(t);
+		return toJavaScriptResult(result);
+	}
+
+	/**
+	 * Calls the AbstractInterpolatorFactory with the given id and returns the
+	 * JavaScript function of the created interpolator or null if the factory
+	 * does not support the values. Called by the JavaScript engine.
+	 */
+	public Object dispatchInterpolatorFactory(int id, Object a, Object b) {
+		InterpolatorFactory<?> factory = (InterpolatorFactory<?>) getRegisteredCallback(id);
+		Interpolator<?> interpolator = factory.create(a, b);
+		if (interpolator == null) {
+			return null;
+		}
+		return toJavaScriptResult(interpolator.asJsFunction());
+	}
+
+	private Object getRegisteredCallback(int id) {
+		Object callback = getCallback(id);
+		if (callback == null) {
+			String message = "There is no callback with id " + id + ". It might have been released already.";
+			throw new IllegalStateException(message);
+		}
+		return callback;
+	}
+
+	/**
+	 * Unwraps JavaScript objects that are returned by callbacks, so that the
+	 * JavaScript engine receives the original objects
+	 */
+	private static Object toJavaScriptResult(Object result) {
+		boolean isJavaScriptObject = result instanceof JavaScriptObject;
+		if (isJavaScriptObject) {
+			JsObject jsObject = ((JavaScriptObject) result).getJsObject();
+			return jsObject == null ? null : jsObject.unwrap();
+		}
+		boolean isJsObject = result instanceof JsObject;
+		if (isJsObject) {
+			return ((JsObject) result).unwrap();
+		}
+		return result;
+	}
+
+	//#end region
+
+	//#end region
+
+}
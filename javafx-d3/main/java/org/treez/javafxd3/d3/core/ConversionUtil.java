@@ -1,112 +1,236 @@
 package org.treez.javafxd3.d3.core;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.treez.javafxd3.d3.D3;
 import org.treez.javafxd3.d3.time.JsDate;
 import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
 
-import org.treez.javafxd3.d3.core.JsEngine;
-import netscape.javascript.JSException;
-import org.treez.javafxd3.d3.core.JsObject;
-
+/**
+ * Converts objects that are passed from the JavaScript engine to Java (e.g. the
+ * arguments of data functions) to the required Java types.
+ * <p>
+ * The conversion for a pair of source and target type is resolved once and
+ * stored in a converter table. The table is read without locking, so that
+ * conversions of several threads do not block each other. JavaScriptObject
+ * targets are created with cached constructor handles instead of reflection.
+ */
 public class ConversionUtil {
 
+	//#region ATTRIBUTES
+
+	/**
+	 * The converters for each target type, stored by source type
+	 */
+	private static final ClassValue<ConcurrentHashMap<Class<?>, Converter>> CONVERTERS = //
+			new ClassValue<ConcurrentHashMap<Class<?>, Converter>>() {
+
+				@Override
+				protected ConcurrentHashMap<Class<?>, Converter> computeValue(Class<?> targetClass) {
+					return new ConcurrentHashMap<>();
+				}
+			};
+
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, JsEngine.class,
+			Object.class);
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Converts the given object to the given type. Wrapper objects {datum: d}
+	 * are not unwrapped, see {@link #convertObjectTo(Object, Class, JsEngine, boolean)}.
+	 *
+	 * @param argumentObj
+	 * @param classObj
+	 * @param engine
+	 * @return the converted object or null if the object is null or undefined
+	 */
+	public static <T> T convertObjectTo(Object argumentObj, Class<T> classObj, JsEngine engine) {
+		return convertObjectTo(argumentObj, classObj, engine, false);
+	}
+
+	/**
+	 * Converts the given object to the given type.
+	 *
+	 * @param argumentObj
+	 * @param classObj
+	 * @param engine
+	 * @param isUnwrappingDatum
+	 *            if true, a JavaScript wrapper object {datum: d} that has
+	 *            been created to pass a value to Java is replaced by its datum
+	 *            before the conversion. This requires an additional call to
+	 *            the JavaScript engine and is only done for target types
+	 *            other than Value.
+	 * @return the converted object or null if the object is null or undefined
+	 */
 	@SuppressWarnings("unchecked")
-	public synchronized static <T> T convertObjectTo(Object argumentObj, Class<T> classObj, JsEngine engine) {
+	public static <T> T convertObjectTo(Object argumentObj, Class<T> classObj, JsEngine engine,
+			boolean isUnwrappingDatum) {
 
 		if (argumentObj == null) {
 			return null;
 		}
-		
+
 		Object object = engine.toJsObjectIfNotSimpleType(argumentObj);
-		
 
-		boolean isUndefined = object.equals("undefined");
+		boolean isUndefined = isUndefined(object);
 		if (isUndefined) {
 			return null;
 		}
-		
-		boolean objectAlreadyHasWantedType = object.getClass().equals(classObj);
+
+		boolean objectAlreadyHasWantedType = object.getClass() == classObj;
 		if (objectAlreadyHasWantedType) {
-			T convertedResult = (T) object;
-			return convertedResult;
-		}
-		
-		boolean targetIsValue = classObj.equals(Value.class);
-		if (targetIsValue) {
-			T result = (T) convertToValue(object, engine);
-			return result;
+			return (T) object;
 		}
 
-		Object resultObj = extractDataIfObjectIsWrapper(object);
-		if (resultObj == null) {
-			return null;
+		boolean targetIsValue = classObj == Value.class;
+		boolean isPotentialDatumWrapper = isUnwrappingDatum && !targetIsValue && object instanceof JsObject;
+		if (isPotentialDatumWrapper) {
+			object = unwrapDatum((JsObject) object, engine);
+			if (object == null || isUndefined(object)) {
+				return null;
+			}
+			boolean datumHasWantedType = object.getClass() == classObj;
+			if (datumHasWantedType) {
+				return (T) object;
+			}
 		}
 
-		boolean alreadyHasWantedType = resultObj.getClass().equals(classObj);
-		if (alreadyHasWantedType) {
-			T convertedResult = (T) resultObj;
-			return convertedResult;
+		Converter converter = getConverter(object.getClass(), classObj);
+		return (T) converter.convert(object, engine);
+	}
+
+	/**
+	 * Returns the converter for the given source and target type. The
+	 * converter is created on first use; concurrent first uses might create
+	 * equal converters, of which only one is kept.
+	 */
+	private static Converter getConverter(Class<?> sourceClass, Class<?> targetClass) {
+		ConcurrentHashMap<Class<?>, Converter> convertersForTarget = CONVERTERS.get(targetClass);
+		Converter converter = convertersForTarget.get(sourceClass);
+		if (converter != null) {
+			return converter;
+		}
+		Converter newConverter = createConverter(sourceClass, targetClass);
+		Converter existingConverter = convertersForTarget.putIfAbsent(sourceClass, newConverter);
+		return existingConverter != null ? existingConverter : newConverter;
+	}
+
+	private static Converter createConverter(Class<?> sourceClass, Class<?> targetClass) {
+
+		boolean targetIsValue = targetClass == Value.class;
+		if (targetIsValue) {
+			return (source, engine) -> convertToValue(source, engine);
 		}
 
-		boolean targetIsString = classObj.equals(String.class);
+		boolean targetIsString = targetClass == String.class;
 		if (targetIsString) {
-			T result = (T) convertToString(resultObj);
-			return result;
+			return (source, engine) -> convertToString(source);
 		}
 
-		boolean targetIsDouble = classObj.equals(Double.class);
+		boolean targetIsDouble = targetClass == Double.class;
 		if (targetIsDouble) {
-			T result = (T) convertToDouble(resultObj);
-			return result;
+			return (source, engine) -> convertToDouble(source);
 		}
 
-		boolean targetIsFloat = classObj.equals(Float.class);
+		boolean targetIsFloat = targetClass == Float.class;
 		if (targetIsFloat) {
-			T result = (T) convertToFloat(resultObj);
-			return result;
+			return (source, engine) -> convertToFloat(source);
 		}
 
-		boolean targetIsInteger = classObj.equals(Integer.class);
+		boolean targetIsInteger = targetClass == Integer.class;
 		if (targetIsInteger) {
-			T result = (T) convertToInteger(resultObj);
-			return result;
+			return (source, engine) -> convertToInteger(source);
 		}
 
-		boolean targetIsShort = classObj.equals(Short.class);
+		boolean targetIsShort = targetClass == Short.class;
 		if (targetIsShort) {
-			T result = (T) convertToShort(resultObj);
-			return result;
+			return (source, engine) -> convertToShort(source);
 		}
 
-		boolean targetIsCharacter = classObj.equals(Character.class);
+		boolean targetIsCharacter = targetClass == Character.class;
 		if (targetIsCharacter) {
-			T result = (T) convertToCharacter(resultObj);
-			return result;
-		}		
+			return (source, engine) -> convertToCharacter(source);
+		}
 
-		boolean targetIsJavaScriptObject = JavaScriptObject.class.isAssignableFrom(classObj);
+		boolean targetIsJavaScriptObject = JavaScriptObject.class.isAssignableFrom(targetClass);
 		if (targetIsJavaScriptObject) {
-			T result = convertToJavaScriptObject(resultObj, classObj, engine);
-			return result;
+			return createJavaScriptObjectConverter(sourceClass, targetClass);
+		}
+
+		boolean isAssignable = targetClass.isAssignableFrom(sourceClass);
+		if (isAssignable) {
+			return (source, engine) -> source;
+		}
+
+		boolean isNumber = Number.class.isAssignableFrom(sourceClass);
+		boolean acceptsDouble = targetClass.isAssignableFrom(Double.class);
+		if (isNumber && acceptsDouble) {
+			return (source, engine) -> ((Number) source).doubleValue();
 		}
 
+		return (source, engine) -> {
+			String message = "Could not convert item of type '" + source.getClass().getName()
+					+ "' to required type '" + targetClass.getName() + "'";
+			throw new IllegalStateException(message);
+		};
+	}
+
+	/**
+	 * Creates a converter that passes the source to the constructor
+	 * (JsEngine, JsObject) or (JsEngine, source type) of the target type
+	 */
+	private static Converter createJavaScriptObjectConverter(Class<?> sourceClass, Class<?> targetClass) {
+
+		MethodHandle constructorHandle;
 		try {
-			T result = classObj.cast(resultObj);
-			return result;
-		} catch (ClassCastException exception) {
-			boolean isNumber = resultObj instanceof Number;
-			if (isNumber) {
-				T result = tryToCastFromDoubleValue(resultObj, classObj, exception);
-				return result;
+			Constructor<?> constructor = getConstructorForJavaScriptObject(sourceClass, targetClass);
+			constructorHandle = MethodHandles.publicLookup().unreflectConstructor(constructor).asType(
+					CONSTRUCTOR_TYPE);
+		} catch (Exception exception) {
+			String message = "Could not get constructor for JavaScriptObject of " + "type '" + targetClass.getName()
+					+ "' with parameters of type JsEngine and '" + sourceClass.getName() + "'.";
+			return (source, engine) -> {
+				throw new IllegalStateException(message, exception);
+			};
+		}
+
+		return (source, engine) -> {
+			try {
+				return constructorHandle.invokeExact(engine, source);
+			} catch (Throwable exception) {
+				String message = "Could not construct new instance of type '" + targetClass.getName() + "' with "
+						+ "object of type " + source.getClass().getName();
+				throw new IllegalStateException(message, exception);
 			}
+		};
+	}
 
-			String message = "Could not convert item of type '" + resultObj.getClass().getName()
-					+ "' to required type '" + classObj.getName() + "'";
-			throw new IllegalStateException(message, exception);
+	private static Constructor<?> getConstructorForJavaScriptObject(Class<?> sourceClass, Class<?> targetClass)
+			throws NoSuchMethodException {
+		boolean sourceIsJsObject = JsObject.class.isAssignableFrom(sourceClass);
+		Class<?> parameterClass = sourceIsJsObject ? JsObject.class : sourceClass;
+		return targetClass.getConstructor(JsEngine.class, parameterClass);
+	}
+
+	private static boolean isUndefined(Object object) {
+		boolean isString = object instanceof String;
+		return isString && object.equals("undefined");
+	}
+
+	private static Object unwrapDatum(JsObject jsObject, JsEngine engine) {
+		Object datum = JsBridge.get(engine).call("unwrapDatum", jsObject);
+		if (datum == null) {
+			return null;
 		}
+		return engine.toJsObjectIfNotSimpleType(datum);
 	}
 
 	private static Character convertToCharacter(Object resultObj) {
@@ -128,15 +252,6 @@ public class ConversionUtil {
 
 	}
 
-	private static <T> Object extractDataIfObjectIsWrapper(Object resultObj) {
-		Object result = resultObj;
-		boolean isWrappingDatumObject = isJsDataObject(resultObj);
-		if (isWrappingDatumObject) {
-			result = extractDatum(resultObj);
-		}
-		return result;
-	}
-
 	private static Short convertToShort(Object resultObj) {
 
 		String resultString = resultObj.toString();
@@ -172,6 +287,11 @@ public class ConversionUtil {
 
 	private static Integer convertToInteger(Object resultObj) {
 
+		boolean isNumber = resultObj instanceof Number;
+		if (isNumber) {
+			return convertNumberToInteger((Number) resultObj);
+		}
+
 		String resultString = resultObj.toString();
 		boolean isNaN = resultString.equals("NaN");
 		if (isNaN) {
@@ -198,30 +318,43 @@ public class ConversionUtil {
 			return integerResult;
 		} catch (Exception exception) {
 			double doubleResult = Double.parseDouble(resultString);
+			return convertNumberToInteger(doubleResult);
+		}
+	}
 
-			if (doubleResult > Integer.MAX_VALUE) {
-				String message = "The value " + doubleResult + " exceeds the maximum integer value " + Integer.MAX_VALUE
-						+ " and can not be returned as integer.";
-				throw new IllegalStateException(message);
-			}
+	private static Integer convertNumberToInteger(Number number) {
 
-			if (doubleResult < Integer.MIN_VALUE) {
-				String message = "The value " + doubleResult + " exceeds the minimum integer value " + Integer.MIN_VALUE
-						+ " and can not be returned as integer.";
-				throw new IllegalStateException(message);
-			}
+		boolean isInteger = number instanceof Integer;
+		if (isInteger) {
+			return (Integer) number;
+		}
+
+		double doubleResult = number.doubleValue();
+		if (Double.isNaN(doubleResult)) {
+			return null;
+		}
+
+		if (doubleResult > Integer.MAX_VALUE) {
+			String message = "The value " + doubleResult + " exceeds the maximum integer value " + Integer.MAX_VALUE
+					+ " and can not be returned as integer.";
+			throw new IllegalStateException(message);
+		}
 
-			int intResult = (int) doubleResult;
-			return intResult;
+		if (doubleResult < Integer.MIN_VALUE) {
+			String message = "The value " + doubleResult + " exceeds the minimum integer value " + Integer.MIN_VALUE
+					+ " and can not be returned as integer.";
+			throw new IllegalStateException(message);
 		}
+
+		int intResult = (int) doubleResult;
+		return intResult;
 	}
 
 	private static Float convertToFloat(Object resultObj) {
 
 		boolean isNumber = resultObj instanceof Number;
 		if (isNumber) {
-			Float result = Float.parseFloat("" + resultObj);
-			return result;
+			return ((Number) resultObj).floatValue();
 		}
 
 		String message = "Could not convert result of type " + resultObj.getClass().getName() + " to float.";
@@ -232,8 +365,7 @@ public class ConversionUtil {
 
 		boolean isNumber = resultObj instanceof Number;
 		if (isNumber) {
-			Double result = Double.parseDouble("" + resultObj);
-			return result;
+			return ((Number) resultObj).doubleValue();
 		}
 
 		String message = "Could not convert result of type " + resultObj.getClass().getName() + " to Double.";
@@ -255,7 +387,7 @@ public class ConversionUtil {
 
 		boolean isJsObject = resultObj instanceof JsObject;
 		if (isJsObject) {
-			JsObject jsValue = (JsObject) resultObj;			
+			JsObject jsValue = (JsObject) resultObj;
 			Value value = new Value(engine, jsValue);
 			return value;
 		} else {
@@ -264,34 +396,10 @@ public class ConversionUtil {
 		}
 	}
 
+	@SuppressWarnings("unchecked")
 	public static <T> T convertToJavaScriptObject(Object resultObj, Class<T> classObj, JsEngine engine) {
-
-		Constructor<T> constructor = createConstructorForJavaScriptObject(resultObj, classObj);
-		T newJavaScriptObject = tryToCreateNewInstance(resultObj, classObj, constructor, engine);
-		return newJavaScriptObject;
-	}
-
-	private static Object extractDatum(Object resultObj) {
-		JsObject jsObject = (JsObject) resultObj;
-		return jsObject.eval("this.datum");
-	}
-
-	private static boolean isJsDataObject(Object resultObj) {
-
-		boolean isJsObject = resultObj instanceof JsObject;
-		if (!isJsObject) {
-			return false;
-		}
-
-		JsObject jsObject = (JsObject) resultObj;
-
-		try {
-			String command = "this.datum != undefined && Object.keys(this).length ==1";
-			return (boolean) jsObject.eval(command);
-		} catch (JSException exception) {
-			return false;
-		}
-
+		Converter converter = getConverter(resultObj.getClass(), classObj);
+		return (T) converter.convert(resultObj, engine);
 	}
 
 	public static <T> T tryToCreateNewInstance(Object resultObj, Class<T> classObj, Constructor<T> constructor,
@@ -307,34 +415,6 @@ public class ConversionUtil {
 		return newJavaScriptObject;
 	}
 
-	private static <T> Constructor<T> createConstructorForJavaScriptObject(Object resultObj, Class<T> classObj) {
-
-		Class<?> resultObjClass = resultObj.getClass();
-
-		Constructor<T> constructor;
-
-		boolean resultIsJsObject = resultObj instanceof JsObject;
-		if (resultIsJsObject) {
-			try {
-				constructor = classObj.getConstructor(new Class<?>[] { JsEngine.class, JsObject.class });
-			} catch (Exception exception) {
-				String message = "Could not get constructor for JavaScriptObject of " + "type '" + classObj.getName()
-						+ "' with parameters of type JsEngine and '" + resultObjClass.getName() + "'.";
-				throw new IllegalStateException(message, exception);
-			}
-
-		} else {
-			try {
-				constructor = classObj.getConstructor(new Class<?>[] { JsEngine.class, resultObjClass });
-			} catch (Exception exception) {
-				String message = "Could not get constructor for JavaScriptObject of " + "type '" + classObj.getName()
-						+ "' with parameters of type JsEngine and '" + resultObjClass.getName() + "'.";
-				throw new IllegalStateException(message, exception);
-			}
-		}
-		return constructor;
-	}
-
 	public static <T> T tryToCastFromDoubleValue(Object resultObj, Class<T> classObj, Exception exception) {
 		Number number = (Number) resultObj;
 		Object doubleValue = number.doubleValue();
@@ -367,4 +447,19 @@ public class ConversionUtil {
 
 	}
 
+	//#end region
+
+	//#region CONVERTER
+
+	/**
+	 * Converts a source object of a fixed type to a fixed target type
+	 */
+	@FunctionalInterface
+	private interface Converter {
+
+		Object convert(Object source, JsEngine engine);
+	}
+
+	//#end region
+
 }
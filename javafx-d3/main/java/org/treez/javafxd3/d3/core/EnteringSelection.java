@@ -4,6 +4,7 @@ import java.util.Objects;
 
 import org.treez.javafxd3.d3.D3;
 import org.treez.javafxd3.d3.arrays.Array;
+import org.treez.javafxd3.d3.functions.ChunkFunction;
 import org.treez.javafxd3.d3.functions.DataFunction;
 import org.treez.javafxd3.d3.functions.JsFunction;
 import org.treez.javafxd3.d3.wrapper.Element;
@@ -100,22 +101,54 @@ public class EnteringSelection extends JavaScriptObject {
 
 	public Selection append(DataFunction<JsObject> function) {
 
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(funcName, function);
-
-		String command = "this.append(function(d, i) { return d3." + funcName + ".apply(this,d,i); });";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(funcName);
-		
-		if(result==null){
+		JsObject result = callWithCallback("append", CallbackDispatcher.DATA_FUNCTION, function);
+		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
 	}
 
+	/**
+	 * Like {@link #append(String)} but appends the elements progressively in
+	 * chunks over several animation frames, so that the application stays
+	 * responsive while a large number of elements is entered. The chunk
+	 * function is applied to the appended elements of each chunk, e.g. to set
+	 * their attributes. Uses a time budget of
+	 * {@link ProgressiveRender#DEFAULT_BUDGET} milliseconds per frame.
+	 * <p>
+	 * The appended elements are merged into the update selection like for
+	 * {@link #append(String)}.
+	 *
+	 * @param name
+	 *            the name of the new elements
+	 * @param chunkFunction
+	 *            is applied to each chunk of appended elements; may be null
+	 * @param listener
+	 *            is notified about the progress; may be null
+	 * @return the render that can be used to cancel it
+	 */
+	public ProgressiveRender appendProgressively(String name, ChunkFunction chunkFunction,
+			ProgressiveRender.Listener listener) {
+		return appendProgressively(name, chunkFunction, listener, ProgressiveRender.DEFAULT_BUDGET);
+	}
+
+	/**
+	 * Like {@link #appendProgressively(String, ChunkFunction, ProgressiveRender.Listener)}
+	 * with a custom time budget.
+	 *
+	 * @param name
+	 * @param chunkFunction
+	 * @param listener
+	 * @param budget
+	 *            the time budget per animation frame in milliseconds
+	 * @return
+	 */
+	public ProgressiveRender appendProgressively(String name, ChunkFunction chunkFunction,
+			ProgressiveRender.Listener listener, double budget) {
+		Objects.requireNonNull(name);
+		return ProgressiveRender.start(engine, getJsObject(), name, chunkFunction, listener, budget);
+	}
+
 	/**
 	 * Insert a new element before any other existing children.
 	 * <p>
@@ -170,24 +203,10 @@ public class EnteringSelection extends JavaScriptObject {
 	 */
 	public Selection select(DataFunction<Element> func) {
 
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(funcName, func);
-
-		String command = "this.select(function(d, i) { " + //
-				"     var element = d3." + funcName + ".apply(this,d,i);" + //
-				"     var jsElement = element.getJsObject().unwrap();" + //
-				"     return jsElement; " + //
-				"   }" + //
-				")";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(funcName);
-		
-		if(result==null){
+		JsObject result = callWithCallback("select", CallbackDispatcher.DATA_FUNCTION, func);
+		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
 	}
 
@@ -235,6 +254,17 @@ public class EnteringSelection extends JavaScriptObject {
 		return result;
 	}
 
+	/**
+	 * Returns the number of placeholders in the current selection, i.e. the
+	 * number of entering data.
+	 *
+	 * @return the number of placeholders
+	 */
+	public int size() {
+		int result = callForInteger("size");
+		return result;
+	}
+
 	/**
 	 * Invokes the specified function once, passing in the current selection as
 	 * a single parameter.
@@ -280,12 +310,14 @@ public class EnteringSelection extends JavaScriptObject {
 	 * @return
 	 */
 	public Element parentNode(int index) {
-		String command = "this[" + index + "].parentNode";
-		JsObject result = evalForJsObject(command);
-		if (result == null) {
+
+		JsObject group = (JsObject) getJsObject().getSlot(index);
+		Object result = group.getMember("parentNode");
+		boolean isElement = result instanceof JsObject;
+		if (!isElement) {
 			return null;
 		}
-		return new Element(engine, result);
+		return new Element(engine, (JsObject) result);
 	}
 
 	/**
@@ -0,0 +1,126 @@
+package org.treez.javafxd3.d3.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Provides access to the JavaScript helper functions of javafx-d3 that are
+ * defined in the file javafx-d3-bridge.js. The helper object is available as
+ * global variable __jfxd3 and its functions are called with JsObject.call(...)
+ * instead of evaluating newly created JavaScript code.
+ */
+public final class JsBridge {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The name of the global JavaScript variable that holds the helper
+	 * functions
+	 */
+	public static final String NAME = "__jfxd3";
+
+	private static final String SCRIPT_FILE_NAME = "javafx-d3-bridge.js";
+
+	private static String script;
+
+	/**
+	 * The helper objects of the engines. They are cached since the lookup of
+	 * the global variable would require the evaluation of a script for each
+	 * call.
+	 */
+	private static final Map<JsEngine, JsObject> BRIDGES = Collections.synchronizedMap(new WeakHashMap<>());
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	private JsBridge() {
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Returns the JavaScript helper object. If the helper functions have not
+	 * been injected yet, they are injected first.
+	 *
+	 * @param engine
+	 * @return
+	 */
+	public static JsObject get(JsEngine engine) {
+
+		JsObject bridge = BRIDGES.get(engine);
+		if (bridge != null) {
+			return bridge;
+		}
+
+		Object bridgeObj = engine.executeScript("window." + NAME);
+		boolean isJsObject = bridgeObj instanceof JsObject;
+		if (isJsObject) {
+			bridge = (JsObject) bridgeObj;
+			BRIDGES.put(engine, bridge);
+			return bridge;
+		}
+		return inject(engine);
+	}
+
+	/**
+	 * Injects the JavaScript helper functions. This is done by the
+	 * JavaFxD3Browser after loading d3 and does not need to be called
+	 * manually. If a new page has been loaded, the helper functions have to be
+	 * injected again.
+	 *
+	 * @param engine
+	 * @return the helper object
+	 */
+	public static JsObject inject(JsEngine engine) {
+
+		engine.executeScript(getScript());
+		JsObject bridge = (JsObject) engine.executeScript(NAME);
+		BRIDGES.put(engine, bridge);
+		return bridge;
+	}
+
+	/**
+	 * Returns the content of the file javafx-d3-bridge.js
+	 *
+	 * @return
+	 */
+	public static synchronized String getScript() {
+		if (script == null) {
+			script = readScript();
+		}
+		return script;
+	}
+
+	private static String readScript() {
+		InputStream inputStream = JsBridge.class.getClassLoader().getResourceAsStream(SCRIPT_FILE_NAME);
+		if (inputStream == null) {
+			String message = "Could not find resource '" + SCRIPT_FILE_NAME + "'";
+			throw new IllegalStateException(message);
+		}
+
+		StringBuilder scriptContent = new StringBuilder();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, "UTF8"))) {
+			String line = reader.readLine();
+			while (line != null) {
+				scriptContent.append(line);
+				scriptContent.append("\n");
+				line = reader.readLine();
+			}
+		} catch (IOException exception) {
+			String message = "Could not read resource '" + SCRIPT_FILE_NAME + "'";
+			throw new IllegalStateException(message, exception);
+		}
+		return scriptContent.toString();
+	}
+
+	//#end region
+
+}
@@ -23,6 +23,52 @@ public interface JsEngine {
 	 * a simple type
 	 * @return
 	 */
-	Object toJsObjectIfNotSimpleType(Object argument);       
+	Object toJsObjectIfNotSimpleType(Object argument);
+
+	/**
+	 * Invokes the method with the given name on the given target and ignores
+	 * the result. Engines that support command buffering may postpone the
+	 * execution until a result is needed or the buffer is flushed. The default
+	 * implementation executes the command immediately.
+	 */
+	default void enqueueCall(JsObject target, String methodName, Object... args) {
+		target.call(methodName, args);
+	}
+
+	/**
+	 * Sets a member of the given target. Engines that support command
+	 * buffering may postpone the execution, also see
+	 * {@link #enqueueCall(JsObject, String, Object...)}
+	 */
+	default void enqueueSetMember(JsObject target, String name, Object value) {
+		target.setMember(name, value);
+	}
+
+	/**
+	 * Removes a member of the given target. Engines that support command
+	 * buffering may postpone the execution, also see
+	 * {@link #enqueueCall(JsObject, String, Object...)}
+	 */
+	default void enqueueRemoveMember(JsObject target, String name) {
+		target.removeMember(name);
+	}
+
+	/**
+	 * Returns the dispatcher that routes calls of the JavaScript engine to
+	 * Java callbacks. Implementations must return the same dispatcher for
+	 * each call since the registered callbacks are stored in the dispatcher.
+	 * The default implementation creates a dispatcher for this engine on the
+	 * first call.
+	 */
+	default CallbackDispatcher getCallbackDispatcher() {
+		return CallbackDispatcher.get(this);
+	}
+
+	/**
+	 * Executes all buffered commands. Does nothing if the engine does not
+	 * support command buffering.
+	 */
+	default void flush() {
+	}
 
 }
@@ -0,0 +1,398 @@
+package org.treez.javafxd3.d3.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.functions.KeyFunction;
+import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
+
+/**
+ * A keyed data join that is computed in Java. It is an alternative to
+ * {@link Selection#data(List, KeyFunction)} for data that is joined
+ * repeatedly to the same selection, e.g. for a dashboard that is refreshed
+ * every second and only changes a few rows.
+ * <p>
+ * The join remembers the keys and the data of the previous join. The next
+ * join only calls the {@link KeyFunction} for the new data (with a null
+ * context and the new Java data array), matches the keys in Java and sends
+ * the differences to the page in a single call: the ranges of nodes that are
+ * kept, the indices of the removed nodes and the rows that are new or have
+ * changed (compared with {@link Object#equals(Object)}). The page creates the
+ * update, enter and exit selections from these differences, so the result can
+ * be used like the result of a d3 join:
+ *
+ * <pre>
+ * {@code
+ * KeyedDataJoin join = new KeyedDataJoin(engine, (context, array, datum, index) -> ((Row) datum).getId());
+ * ...
+ * UpdateSelection update = svg.selectAll("circle").data(rows, join);
+ * update.enter().append("circle");
+ * update.exit().remove();
+ * }
+ * </pre>
+ *
+ * The first join and joins of a selection that contains nodes that have not
+ * been created for the previous join (e.g. nodes that have been appended
+ * otherwise or a selection with a different parent) are done by d3. Kept
+ * nodes that have been removed in the meantime enter again. Only selections
+ * with a single group are joined incrementally.
+ * Keys are compared by their string values ({@link String#valueOf(Object)}),
+ * since d3 converts keys to strings. As in d3, nodes with duplicate keys exit
+ * and data with a key that occurred before is skipped: it neither enters nor
+ * updates a node.
+ */
+public class KeyedDataJoin {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The source index of new data that is skipped since its key occurred
+	 * before
+	 */
+	private static final int SKIPPED = -2;
+
+	private final JsEngine engine;
+
+	private final KeyFunction<?> keyFunction;
+
+	/**
+	 * The state of the previous join in the page: the parent node, the
+	 * update nodes and the data. Null if the next join has to be done by d3.
+	 */
+	private JsObject state;
+
+	private Object[] previousKeys;
+
+	private Object[] previousData;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * @param engine
+	 * @param keyFunction
+	 *            the function that returns the key of a datum; it is only
+	 *            called for the new data, except for joins that are done by d3
+	 */
+	public KeyedDataJoin(JsEngine engine, KeyFunction<?> keyFunction) {
+		this.engine = engine;
+		this.keyFunction = keyFunction;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Joins the given data with the given selection
+	 *
+	 * @param selection
+	 * @param values
+	 * @return the update selection
+	 */
+	public UpdateSelection join(Selection selection, List<?> values) {
+		return join(selection, values.toArray());
+	}
+
+	/**
+	 * Joins the given data with the given selection
+	 *
+	 * @param selection
+	 * @param values
+	 * @return the update selection
+	 */
+	public UpdateSelection join(Selection selection, Object[] values) {
+		Object[] keys = computeKeys(values);
+
+		JsObject result = null;
+		boolean isIncremental = state != null;
+		if (isIncremental) {
+			Delta delta = computeDelta(previousKeys, previousData, keys, values);
+			result = patch(selection, values.length, delta, values);
+		}
+
+		if (result == null) {
+			result = joinWithD3(selection, values);
+		}
+
+		previousKeys = keys;
+		// hint: the caller may modify its array before the next join
+		previousData = values.clone();
+		if (result == null) {
+			return null;
+		}
+		return new UpdateSelection(engine, result);
+	}
+
+	/**
+	 * Forgets the previous join; the next join is done by d3
+	 */
+	public void reset() {
+		state = null;
+		previousKeys = null;
+		previousData = null;
+	}
+
+	private Object[] computeKeys(Object[] values) {
+		Object[] keys = new Object[values.length];
+		for (int index = 0; index < values.length; index++) {
+			keys[index] = keyFunction.call(null, values, values[index], index);
+		}
+		return keys;
+	}
+
+	private JsObject patch(Selection selection, int length, Delta delta, Object[] values) {
+		int numberOfRows = delta.rowIndices.length;
+		Object[] arguments = new Object[6 + numberOfRows];
+		arguments[0] = state;
+		arguments[1] = selection.getJsObject();
+		arguments[2] = length;
+		arguments[3] = ArrayTransfer.encode(delta.runs);
+		arguments[4] = ArrayTransfer.encode(delta.exitIndices);
+		arguments[5] = ArrayTransfer.encode(delta.rowIndices);
+		for (int rowIndex = 0; rowIndex < numberOfRows; rowIndex++) {
+			arguments[6 + rowIndex] = toJsValue(values[delta.rowIndices[rowIndex]]);
+		}
+
+		Object result = JsBridge.get(engine).call("patchDataJoin", arguments);
+		boolean isPatched = result instanceof JsObject;
+		if (!isPatched) {
+			state = null;
+			return null;
+		}
+		return (JsObject) result;
+	}
+
+	private JsObject joinWithD3(Selection selection, Object[] values) {
+		JsObject valuesJsObject = ArrayTransfer.toJsArray(engine, values);
+		UpdateSelection update = selection.data(valuesJsObject, keyFunction);
+		if (update == null) {
+			state = null;
+			return null;
+		}
+		JsObject updateJsObject = update.getJsObject();
+		Object newState = JsBridge.get(engine).call("createDataJoin", updateJsObject);
+		boolean hasState = newState instanceof JsObject;
+		state = hasState ? (JsObject) newState : null;
+		return updateJsObject;
+	}
+
+	private static Object toJsValue(Object value) {
+		boolean isJavaScriptObject = value instanceof JavaScriptObject;
+		if (isJavaScriptObject) {
+			return ((JavaScriptObject) value).getJsObject();
+		}
+		return value;
+	}
+
+	/**
+	 * Computes the differences between two joins with the semantics of a d3
+	 * keyed join
+	 *
+	 * @param oldKeys
+	 *            the keys of the nodes
+	 * @param oldData
+	 *            the data of the nodes
+	 * @param newKeys
+	 *            the keys of the new data
+	 * @param newData
+	 *            the new data
+	 */
+	static Delta computeDelta(Object[] oldKeys, Object[] oldData, Object[] newKeys, Object[] newData) {
+		int oldLength = oldKeys.length;
+		int newLength = newKeys.length;
+
+		KeyIndexMap oldIndices = new KeyIndexMap(oldLength);
+		for (int oldIndex = 0; oldIndex < oldLength; oldIndex++) {
+			oldIndices.putIfAbsent(oldKeys[oldIndex], oldIndex);
+		}
+
+		// hint: like d3, data with a key that occurred before is skipped
+		KeyIndexMap newIndices = new KeyIndexMap(newLength);
+		boolean[] isMatched = new boolean[oldLength];
+		int[] sources = new int[newLength];
+		for (int index = 0; index < newLength; index++) {
+			boolean isDuplicate = !newIndices.putIfAbsent(newKeys[index], index);
+			if (isDuplicate) {
+				sources[index] = SKIPPED;
+				continue;
+			}
+			int oldIndex = oldIndices.remove(newKeys[index]);
+			sources[index] = oldIndex;
+			if (oldIndex >= 0) {
+				isMatched[oldIndex] = true;
+			}
+		}
+
+		IntList runs = new IntList();
+		IntList rowIndices = new IntList();
+		int index = 0;
+		while (index < newLength) {
+			int oldIndex = sources[index];
+			boolean isSkipped = oldIndex == SKIPPED;
+			if (isSkipped) {
+				index++;
+				continue;
+			}
+
+			boolean isEntering = oldIndex < 0;
+			if (isEntering) {
+				rowIndices.add(index);
+				index++;
+				continue;
+			}
+
+			int runStart = index;
+			do {
+				boolean isChanged = !Objects.equals(oldData[sources[index]], newData[index]);
+				if (isChanged) {
+					rowIndices.add(index);
+				}
+				index++;
+			} while (index < newLength && sources[index] == sources[index - 1] + 1);
+			runs.add(runStart);
+			runs.add(oldIndex);
+			runs.add(index - runStart);
+		}
+
+		IntList exitIndices = new IntList();
+		for (int oldIndex = 0; oldIndex < oldLength; oldIndex++) {
+			if (!isMatched[oldIndex]) {
+				exitIndices.add(oldIndex);
+			}
+		}
+
+		return new Delta(runs.toArray(), exitIndices.toArray(), rowIndices.toArray());
+	}
+
+	//#end region
+
+	//#region CLASSES
+
+	/**
+	 * The differences between two joins
+	 */
+	static class Delta {
+
+		/**
+		 * Triples of new start index, old start index and length of the
+		 * ranges of nodes that are kept
+		 */
+		final int[] runs;
+
+		/**
+		 * The old indices of the exiting nodes
+		 */
+		final int[] exitIndices;
+
+		/**
+		 * The new indices of the entering data and of the data that changed.
+		 * Skipped data is neither contained in the runs nor in the row
+		 * indices.
+		 */
+		final int[] rowIndices;
+
+		Delta(int[] runs, int[] exitIndices, int[] rowIndices) {
+			this.runs = runs;
+			this.exitIndices = exitIndices;
+			this.rowIndices = rowIndices;
+		}
+
+	}
+
+	/**
+	 * A hash map with open addressing from keys to non-negative int indices
+	 * that does not box the indices. The keys are compared by their string
+	 * values like the keys of a d3 map.
+	 */
+	static class KeyIndexMap {
+
+		private static final Object REMOVED_KEY = new Object();
+
+		private final Object[] keys;
+
+		private final int[] indices;
+
+		private final int mask;
+
+		KeyIndexMap(int expectedSize) {
+			int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+			keys = new Object[capacity];
+			indices = new int[capacity];
+			mask = capacity - 1;
+		}
+
+		/**
+		 * Adds the given key if it is not contained yet
+		 *
+		 * @return true if the key has been added
+		 */
+		boolean putIfAbsent(Object key, int index) {
+			String mappedKey = String.valueOf(key);
+			int slot = hash(mappedKey) & mask;
+			while (keys[slot] != null) {
+				boolean isContained = keys[slot] != REMOVED_KEY && keys[slot].equals(mappedKey);
+				if (isContained) {
+					return false;
+				}
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = mappedKey;
+			indices[slot] = index;
+			return true;
+		}
+
+		/**
+		 * Removes the given key
+		 *
+		 * @return the index of the key or -1 if it is not contained
+		 */
+		int remove(Object key) {
+			String mappedKey = String.valueOf(key);
+			int slot = hash(mappedKey) & mask;
+			while (keys[slot] != null) {
+				boolean isContained = keys[slot] != REMOVED_KEY && keys[slot].equals(mappedKey);
+				if (isContained) {
+					keys[slot] = REMOVED_KEY;
+					return indices[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
+			return -1;
+		}
+
+		private static int hash(Object key) {
+			int hash = key.hashCode() * 0x9E3779B9;
+			return hash ^ (hash >>> 16);
+		}
+
+	}
+
+	/**
+	 * A growing list of primitive ints
+	 */
+	private static class IntList {
+
+		private int[] values = new int[16];
+
+		private int size;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+
+	}
+
+	//#end region
+
+}
@@ -0,0 +1,196 @@
+package org.treez.javafxd3.d3.core;
+
+import org.treez.javafxd3.d3.functions.ChunkFunction;
+import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
+
+/**
+ * A progressive render of the elements of a selection, started by
+ * {@link EnteringSelection#appendProgressively} or
+ * {@link UpdateSelection#renderProgressively}.
+ * <p>
+ * The elements are processed in chunks. Each animation frame processes as
+ * many chunks as fit into the time budget, so that the JavaFX application
+ * thread and WebKit stay responsive while a large selection is rendered. The
+ * size of the chunks is adapted to the measured duration of the previous
+ * chunks. After each frame the {@link Listener} is notified about the
+ * progress.
+ * <p>
+ * A render can be cancelled with {@link #cancel()}. It is also cancelled
+ * automatically if a progressive render is started for a new data join of
+ * the same parent element, e.g. if new data arrived while the elements of the
+ * previous data are still being appended. The elements that have been
+ * rendered so far are kept.
+ * <p>
+ * Wraps the task object of __jfxd3.renderProgressively.
+ */
+public class ProgressiveRender extends JavaScriptObject {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The default time budget per animation frame in milliseconds
+	 */
+	public static final double DEFAULT_BUDGET = 8;
+
+	private final CallbackDispatcher dispatcher;
+
+	private final Listener listener;
+
+	private int chunkFunctionId = -1;
+
+	private int progressFunctionId = -1;
+
+	private int numberOfRenderedElements;
+
+	private int numberOfElements;
+
+	private boolean isFinished;
+
+	private boolean isCancelled;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	private ProgressiveRender(JsEngine engine, Listener listener) {
+		super(engine);
+		this.dispatcher = engine.getCallbackDispatcher();
+		this.listener = listener;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Starts a progressive render. If a name is given, elements with that name
+	 * are appended for the placeholders of the given entering selection.
+	 * Otherwise the chunk function is applied to the elements of the given
+	 * selection.
+	 *
+	 * @param engine
+	 * @param selection
+	 * @param name
+	 *            the name of the appended elements or null
+	 * @param chunkFunction
+	 *            may be null if elements are appended
+	 * @param listener
+	 *            may be null
+	 * @param budget
+	 *            the time budget per animation frame in milliseconds
+	 * @return
+	 */
+	static ProgressiveRender start(JsEngine engine, JsObject selection, String name, ChunkFunction chunkFunction,
+			Listener listener, double budget) {
+
+		boolean isValidBudget = budget > 0;
+		if (!isValidBudget) {
+			String message = "The time budget must be positive but is " + budget;
+			throw new IllegalArgumentException(message);
+		}
+
+		ProgressiveRender render = new ProgressiveRender(engine, listener);
+		CallbackDispatcher dispatcher = render.dispatcher;
+
+		JsObject jsChunkFunction = null;
+		if (chunkFunction != null) {
+			render.chunkFunctionId = dispatcher.register(chunkFunction);
+			jsChunkFunction = dispatcher.createFunction(CallbackDispatcher.CHUNK_FUNCTION, render.chunkFunctionId);
+		}
+		render.progressFunctionId = dispatcher.register(render);
+		JsObject jsProgressFunction = dispatcher.createFunction(CallbackDispatcher.PROGRESS_FUNCTION,
+				render.progressFunctionId);
+
+		JsObject bridge = JsBridge.get(engine);
+		JsObject task;
+		boolean isAppending = name != null;
+		if (isAppending) {
+			task = (JsObject) bridge.call("appendProgressively", selection, name, jsChunkFunction, jsProgressFunction,
+					budget);
+		} else {
+			task = (JsObject) bridge.call("updateProgressively", selection, jsChunkFunction, jsProgressFunction,
+					budget);
+		}
+		render.setJsObject(task);
+		render.numberOfElements = ((Number) task.getMember("total")).intValue();
+		return render;
+	}
+
+	/**
+	 * Stops the render after the current chunk. The elements that have been
+	 * rendered so far are kept. Does nothing if the render is already
+	 * finished or cancelled.
+	 */
+	public void cancel() {
+		boolean isDone = isFinished || isCancelled;
+		if (isDone) {
+			return;
+		}
+		JsBridge.get(engine).call("cancelProgressiveRender", getJsObject());
+	}
+
+	/**
+	 * Updates the progress. Called by the {@link CallbackDispatcher} after each
+	 * animation frame and when the render is cancelled.
+	 */
+	void update(int numberOfRenderedElements, int numberOfElements, boolean isCancelled) {
+		this.numberOfRenderedElements = numberOfRenderedElements;
+		this.numberOfElements = numberOfElements;
+		this.isCancelled = isCancelled;
+		isFinished = !isCancelled && numberOfRenderedElements >= numberOfElements;
+
+		boolean isDone = isFinished || isCancelled;
+		if (isDone) {
+			dispatcher.release(chunkFunctionId);
+			dispatcher.release(progressFunctionId);
+		}
+
+		if (listener != null) {
+			listener.progress(this);
+		}
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	public int getNumberOfRenderedElements() {
+		return numberOfRenderedElements;
+	}
+
+	public int getNumberOfElements() {
+		return numberOfElements;
+	}
+
+	/**
+	 * Returns true if all elements have been rendered
+	 */
+	public boolean isFinished() {
+		return isFinished;
+	}
+
+	public boolean isCancelled() {
+		return isCancelled;
+	}
+
+	//#end region
+
+	//#region LISTENER
+
+	/**
+	 * Is notified about the progress of a {@link ProgressiveRender}
+	 */
+	public interface Listener {
+
+		/**
+		 * Called after each animation frame of the render and when the render
+		 * is cancelled
+		 *
+		 * @param render
+		 */
+		void progress(ProgressiveRender render);
+	}
+
+	//#end region
+
+}
@@ -0,0 +1,123 @@
+package org.treez.javafxd3.d3.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Switches dense mark layers from SVG to canvas, see
+ * JavaFxD3Browser.setRenderPolicy.
+ * <p>
+ * If more elements of a mark type (circle, rect or path) would be appended to
+ * a parent element than the element budget allows, the new elements are drawn
+ * as marks of a canvas layer instead of being created as SVG elements. A
+ * canvas layer draws all of its marks in a single loop. The marks behave like
+ * the SVG elements for the existing {@link Selection} calls: attributes,
+ * styles, classes, data joins, removal and the listeners of
+ * {@link Selection#on} still work. Mouse events are dispatched to the marks
+ * by a hit test with a grid index of their bounds.
+ * <p>
+ * Existing SVG elements are not converted. Marks can be selected with element
+ * names, classes, ids and attributes, e.g. "circle.dot"; pseudo classes like
+ * ":hover" and CSS rules with pseudo classes do not apply to marks.
+ */
+public class RenderPolicy {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The default number of elements of a mark type per parent element
+	 */
+	public static final int DEFAULT_ELEMENT_BUDGET = 20000;
+
+	private static final List<String> SUPPORTED_MARK_NAMES = Collections
+			.unmodifiableList(Arrays.asList("circle", "rect", "path"));
+
+	private int elementBudget = DEFAULT_ELEMENT_BUDGET;
+
+	private List<String> markNames = new ArrayList<>(SUPPORTED_MARK_NAMES);
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Sets the maximum number of elements of a mark type per parent element
+	 * that are rendered as SVG elements
+	 *
+	 * @param elementBudget
+	 * @return this policy for chaining
+	 */
+	public RenderPolicy elementBudget(int elementBudget) {
+		boolean isValidBudget = elementBudget >= 0;
+		if (!isValidBudget) {
+			String message = "The element budget must not be negative but is " + elementBudget;
+			throw new IllegalArgumentException(message);
+		}
+		this.elementBudget = elementBudget;
+		return this;
+	}
+
+	/**
+	 * Sets the names of the elements that may be drawn on canvas layers. By
+	 * default circles, rects and paths are drawn on canvas layers.
+	 *
+	 * @param names
+	 *            a subset of "circle", "rect" and "path"
+	 * @return this policy for chaining
+	 */
+	public RenderPolicy markNames(String... names) {
+		List<String> newMarkNames = new ArrayList<>();
+		for (String name : names) {
+			boolean isSupported = SUPPORTED_MARK_NAMES.contains(name);
+			if (!isSupported) {
+				String message = "The element '" + name + "' can not be drawn on a canvas layer. Supported elements: "
+						+ SUPPORTED_MARK_NAMES;
+				throw new IllegalArgumentException(message);
+			}
+			newMarkNames.add(name);
+		}
+		markNames = newMarkNames;
+		return this;
+	}
+
+	/**
+	 * Applies this policy to the elements that are appended afterwards
+	 *
+	 * @param engine
+	 */
+	public void apply(JsEngine engine) {
+		Object[] args = new Object[markNames.size() + 1];
+		args[0] = elementBudget;
+		for (int index = 0; index < markNames.size(); index++) {
+			args[index + 1] = markNames.get(index);
+		}
+		JsBridge.get(engine).call("setRenderPolicy", args);
+	}
+
+	/**
+	 * Removes the render policy, so that all elements that are appended
+	 * afterwards are SVG elements. Existing canvas layers are kept.
+	 *
+	 * @param engine
+	 */
+	public static void remove(JsEngine engine) {
+		JsBridge.get(engine).call("setRenderPolicy", -1);
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	public int getElementBudget() {
+		return elementBudget;
+	}
+
+	public List<String> getMarkNames() {
+		return Collections.unmodifiableList(markNames);
+	}
+
+	//#end region
+
+}
@@ -10,7 +10,10 @@ import java.util.Map;
 
 import org.treez.javafxd3.d3.D3;
 import org.treez.javafxd3.d3.arrays.Array;
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.arrays.ColumnarDataset;
 import org.treez.javafxd3.d3.arrays.ArrayUtils;
+import org.treez.javafxd3.d3.functions.BatchDataFunction;
 import org.treez.javafxd3.d3.functions.DataFunction;
 import org.treez.javafxd3.d3.functions.KeyFunction;
 import org.treez.javafxd3.d3.functions.MouseClickFunction;
@@ -175,7 +178,8 @@ public class Selection extends EnteringSelection {
 	 * @return
 	 */
 	public Selection selectAll(String selector) {
-		JsObject result = evalForJsObject("this.selectAll('" + selector + "');");
+
+		JsObject result = call("selectAll", selector);
 		return new Selection(engine, result);
 	}
 
@@ -214,18 +218,10 @@ public class Selection extends EnteringSelection {
 	 * @return
 	 */
 	public <T extends Element> Selection selectAll(DataFunction<T[]> func) {
-
-		assertObjectIsNotAnonymous(func);
-
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(funcName, func);
-
-		String command = "this.selectAll(function(d, i) { return d3." + funcName + ".apply(this,d,i); });";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObj.removeMember(funcName);
-
+		JsObject result = callWithCallback("selectAll", CallbackDispatcher.DATA_FUNCTION, func);
+		if (result == null) {
+			return null;
+		}
 		return new Selection(engine, result);
 	}
 
@@ -237,19 +233,12 @@ public class Selection extends EnteringSelection {
 	 */
 	public Selection get(int index) {
 
-		String command = "this[" + index + "]";
-		Object resultObj = eval(command);
-
-		if (resultObj == null) {
-			return null;
-		}
-
-		if (resultObj.equals("undefined")) {
+		Object resultObj = getJsObject().getSlot(index);
+		boolean isMissing = resultObj == null || resultObj.equals("undefined");
+		if (isMissing) {
 			return null;
 		}
-
-		JsObject result = (JsObject) resultObj;
-		return new Selection(engine, result);
+		return new Selection(engine, (JsObject) resultObj);
 	}
 
 	/**
@@ -280,8 +269,8 @@ public class Selection extends EnteringSelection {
 	 * @return the value of the attribute
 	 */
 	public String attr(final String name) {
-		String command = "this.attr('" + name + "')";
-		Object attrObj = eval(command);
+
+		Object attrObj = getJsObject().call("attr", name);
 		if (attrObj == null) {
 			return null;
 		}
@@ -297,6 +286,80 @@ public class Selection extends EnteringSelection {
 		return Double.parseDouble(attribute);
 	}
 
+	/**
+	 * Returns the numeric values of the specified attribute of all selected
+	 * elements, in the order of {@link #each(DataFunction)}. The values are
+	 * transferred with a single encoded call. Missing attributes and values
+	 * that are no numbers are returned as NaN.
+	 *
+	 * @param name
+	 *            the name of the attribute
+	 * @return the values of the attribute
+	 */
+	public double[] attrValues(String name) {
+		String encodedValues = (String) JsBridge.get(engine).call("encodeAttributeValues", getJsObject(), name);
+		return ArrayTransfer.decodeDoubles(encodedValues);
+	}
+
+	/**
+	 * Returns the bounding boxes of all selected elements in the order of
+	 * {@link #each(DataFunction)} with a single encoded call. The array holds
+	 * x, y, width and height for each element, so the box of the element with
+	 * index i starts at 4 * i. Elements that have no bounding box (e.g. html
+	 * elements) get NaN values.
+	 *
+	 * @return the bounding boxes
+	 */
+	public double[] bboxes() {
+		String encodedValues = (String) JsBridge.get(engine).call("encodeBoundingBoxes", getJsObject());
+		return ArrayTransfer.decodeDoubles(encodedValues);
+	}
+
+	/**
+	 * Returns true if the selection contains marks that are drawn on a canvas
+	 * layer, see {@link RenderPolicy}
+	 *
+	 * @return
+	 */
+	public boolean isRenderedToCanvas() {
+		return (Boolean) JsBridge.get(engine).call("isCanvasSelection", getJsObject());
+	}
+
+	/**
+	 * Returns the index (in the order of {@link #each(DataFunction)}) of the
+	 * topmost selected element at the given position, e.g. for hover effects.
+	 * Works for SVG elements and for the marks of canvas layers (see
+	 * {@link RenderPolicy}). Marks are tested with their shape; SVG elements
+	 * with their bounding box.
+	 *
+	 * @param x
+	 *            the x coordinate in the user space of the parent elements
+	 * @param y
+	 *            the y coordinate in the user space of the parent elements
+	 * @return the index or -1 if no element is at the given position
+	 */
+	public int indexAt(double x, double y) {
+		Object result = JsBridge.get(engine).call("hitTest", getJsObject(), x, y);
+		return ((Number) result).intValue();
+	}
+
+	/**
+	 * Returns the indices (in the order of {@link #each(DataFunction)}) of the
+	 * selected elements whose bounds intersect the given rectangle, e.g. for
+	 * brushing. Works for SVG elements and for the marks of canvas layers.
+	 *
+	 * @param x0
+	 * @param y0
+	 * @param x1
+	 * @param y1
+	 * @return the indices in ascending order
+	 */
+	public int[] indicesIn(double x0, double y0, double x1, double y1) {
+		String encodedIndices = (String) JsBridge.get(engine).call("encodeIndicesInRect", getJsObject(), x0, y0, x1,
+				y1);
+		return ArrayTransfer.decodeInts(encodedIndices);
+	}
+
 	/**
 	 * Removes the attribute with the given name
 	 */
@@ -324,8 +387,8 @@ public class Selection extends EnteringSelection {
 	 * @return the current selection
 	 */
 	public <T> Selection attr(final String name, String value) {
-		JsObject result = call("attr", name, value);
-		return new Selection(engine, result);
+		enqueueCall("attr", name, value);
+		return new Selection(engine, getJsObject());
 	}
 
 	/**
@@ -338,8 +401,8 @@ public class Selection extends EnteringSelection {
 	 */
 	public Selection attr(final String name, JavaScriptObject value) {
 		JsObject valueObj = value.getJsObject();
-		JsObject result = call("attr", name, valueObj);
-		return new Selection(engine, result);
+		enqueueCall("attr", name, valueObj);
+		return new Selection(engine, getJsObject());
 	}
 
 	/**
@@ -363,21 +426,10 @@ public class Selection extends EnteringSelection {
 	 */
 	public Selection attr(final String name, PathDataGenerator generator) {
 
-		JsObject jsObject = generator.getJsObject();
-		String memberName = createNewTemporaryInstanceName();
-
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(memberName, jsObject);
-
-		String command = "this.attr('" + name + "',d3." + memberName + ")";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObj.removeMember(memberName);
-
+		JsObject result = call("attr", name, generator.getJsObject());
 		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
 	}
 
@@ -389,8 +441,8 @@ public class Selection extends EnteringSelection {
 	 * @return
 	 */
 	public Selection attr(final String name, double value) {
-		JsObject result = call("attr", name, value);
-		return new Selection(engine, result);
+		enqueueCall("attr", name, value);
+		return new Selection(engine, getJsObject());
 	}
 
 	/**
@@ -401,7 +453,44 @@ public class Selection extends EnteringSelection {
 	 * @return
 	 */
 	public Selection attr(final String name, boolean value) {
-		JsObject result = call("attr", name, value);
+		enqueueCall("attr", name, value);
+		return new Selection(engine, getJsObject());
+	}
+
+	/**
+	 * Sets the attribute with the specified name on all selected elements to
+	 * the value with the index of the element in the given array. The values
+	 * are transferred with a single call and assigned in one loop on the page,
+	 * so no Java callback is invoked for the elements. The number of values
+	 * should match the size of the selection.
+	 *
+	 * @param name
+	 * @param values
+	 *            the attribute values in the order of the selected elements
+	 * @return the current selection
+	 */
+	public Selection attr(final String name, double[] values) {
+		JsObject result = callWithValues("attr", name, values);
+		if (result == null) {
+			return null;
+		}
+		return new Selection(engine, result);
+	}
+
+	/**
+	 * See {@link #attr(String, double[])}. A null value removes the attribute
+	 * of the corresponding element.
+	 *
+	 * @param name
+	 * @param values
+	 *            the attribute values in the order of the selected elements
+	 * @return the current selection
+	 */
+	public Selection attr(final String name, String[] values) {
+		JsObject result = callWithValues("attr", name, values);
+		if (result == null) {
+			return null;
+		}
 		return new Selection(engine, result);
 	}
 
@@ -426,23 +515,30 @@ public class Selection extends EnteringSelection {
 	 * @return the current selection
 	 */
 	public Selection attr(final String name, final DataFunction<?> callback) {
+		JsObject result = callWithCallback("attr", CallbackDispatcher.DATA_FUNCTION, callback, name);
+		if (result == null) {
+			return null;
+		}
+		return new Selection(engine, result);
+	}
 
-		assertObjectIsNotAnonymous(callback);
-
-		String memberName = createNewTemporaryInstanceName();
-
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(memberName, callback);
-
-		// tell x to use the callback
-		String command = "this.attr('" + name + "', function(d,i) {" //				
-				+ "return d3." + memberName + ".apply(this, d, i);" //
-				+ "})";
-
-		JsObject result = evalForJsObject(command);
-
-		d3JsObj.removeMember(memberName);
-
+	/**
+	 * Sets the attribute with the specified name to the values returned by the
+	 * specified batch function on all selected elements.
+	 * <p>
+	 * In contrast to {@link #attr(String, DataFunction)}, the function is
+	 * called only once with the data of all selected elements and returns one
+	 * value per element. The values are applied by a single JavaScript loop.
+	 *
+	 * @param name
+	 *            the name of the attribute
+	 * @param batchFunction
+	 *            the function used to compute the new values of the attribute
+	 * @return the current selection
+	 */
+	public Selection attr(final String name, final BatchDataFunction<?> batchFunction) {
+		JsObject valueFunction = createBatchValueFunction(batchFunction);
+		JsObject result = call("attr", name, valueFunction);
 		if (result == null) {
 			return null;
 		}
@@ -494,8 +590,8 @@ public class Selection extends EnteringSelection {
 	 * @return
 	 */
 	public Selection style(String name, String value) {
-		JsObject result = (JsObject) eval("this.style('" + name + "','" + value + "')");
-		return new Selection(engine, result);
+		enqueueCall("style", name, value);
+		return new Selection(engine, getJsObject());
 	}
 
 	/**
@@ -506,7 +602,47 @@ public class Selection extends EnteringSelection {
 	 * @return
 	 */
 	public Selection style(String name, double value) {
-		JsObject result = call("style", name, value);
+		enqueueCall("style", name, value);
+		return new Selection(engine, getJsObject());
+	}
+
+	/**
+	 * Sets the style property with the specified name on all selected elements
+	 * to the value with the index of the element in the given array. See
+	 * {@link #attr(String, double[])}.
+	 *
+	 * @param name
+	 *            the name of the style property
+	 * @param values
+	 *            the style values in the order of the selected elements
+	 * @return the current selection
+	 */
+	public Selection style(String name, String[] values) {
+		JsObject result = callWithValues("style", name, values);
+		if (result == null) {
+			return null;
+		}
+		return new Selection(engine, result);
+	}
+
+	/**
+	 * See {@link #style(String, String[])}.
+	 *
+	 * @param name
+	 *            the name of the style property
+	 * @param values
+	 *            the style values in the order of the selected elements
+	 * @param important
+	 *            true if the priority of the style property should be
+	 *            "important"
+	 * @return the current selection
+	 */
+	public Selection style(String name, String[] values, boolean important) {
+		String priority = important ? "important" : null;
+		JsObject result = callWithValues("style", name, values, priority);
+		if (result == null) {
+			return null;
+		}
 		return new Selection(engine, result);
 	}
 
@@ -518,29 +654,29 @@ public class Selection extends EnteringSelection {
 	 * @return
 	 */
 	public Selection style(String name, DataFunction<?> callback) {
+		JsObject result = callWithCallback("style", CallbackDispatcher.DATA_FUNCTION, callback, name);
+		if (result == null) {
+			return null;
+		}
+		return new Selection(engine, result);
+	}
 
-		assertObjectIsNotAnonymous(callback);
-
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(funcName, callback);
-
-		String command = "this.style('" + name + "', " + //
-				"      function(d, i) { " + //
-				"        try { " + //
-				"               var result = d3." + funcName + ".apply(this,d,i);" + //
-				"               return result; " + "             } " + //
-				"         catch (exception) {" + //
-				"            alert(exception);" + //
-				"            return null; " + //
-				"         } " + //
-				"      }" + //
-				"    );";
-
-		JsObject result = evalForJsObject(command);
-
-		d3JsObj.removeMember(funcName);
-
+	/**
+	 * Sets the CSS style property with the specified name to the values
+	 * returned by the specified batch function on all selected elements. The
+	 * function is called only once with the data of all selected elements.
+	 * See {@link #attr(String, BatchDataFunction)}.
+	 *
+	 * @param name
+	 * @param batchFunction
+	 * @return the current selection
+	 */
+	public Selection style(String name, BatchDataFunction<?> batchFunction) {
+		JsObject valueFunction = createBatchValueFunction(batchFunction);
+		JsObject result = call("style", name, valueFunction);
+		if (result == null) {
+			return null;
+		}
 		return new Selection(engine, result);
 	}
 
@@ -568,26 +704,21 @@ public class Selection extends EnteringSelection {
 	 */
 	public Selection style(String name, DataFunction<?> callback, boolean important) {
 
-		assertObjectIsNotAnonymous(callback);
-
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(funcName, callback);
-
-		String command = "var imp = " + important + " ? 'important' : null; " + //
-				"this.style('" + name + "', function(d, i) { " + //
-				"   var r = d3." + funcName + ".apply(this,d,i);" + //
-				"   return r?r.toString():null;" + //
-				"}, imp);";
-
-		JsObject result = evalForJsObject(command);
+		CallbackDispatcher dispatcher = engine.getCallbackDispatcher();
+		int callbackId = dispatcher.register(callback);
+		JsObject result;
+		try {
+			JsObject valueFunction = dispatcher.createFunction(CallbackDispatcher.STRING_DATA_FUNCTION, callbackId);
+			String priority = important ? "important" : null;
+			result = call("style", name, valueFunction, priority);
+		} finally {
+			dispatcher.release(callbackId);
+		}
 
-		d3JsObj.removeMember(funcName);
 		if (result == null) {
 			return null;
 		}
 		return new Selection(engine, result);
-
 	}
 
 	// ================ classed functions ================
@@ -615,7 +746,27 @@ public class Selection extends EnteringSelection {
 	 * @return the current selection
 	 */
 	public Selection classed(String classNames, boolean add) {
-		JsObject result = call("classed", classNames, add);
+		enqueueCall("classed", classNames, add);
+		return new Selection(engine, getJsObject());
+	}
+
+	/**
+	 * Adds or removes the given class(es) on each selected element depending
+	 * on the value with the index of the element in the given array. See
+	 * {@link #attr(String, double[])}.
+	 *
+	 * @param classNames
+	 *            the className(s) to add or remove
+	 * @param add
+	 *            true to add false to remove the class(es), in the order of
+	 *            the selected elements
+	 * @return the current selection
+	 */
+	public Selection classed(String classNames, boolean[] add) {
+		JsObject result = callWithValues("classed", classNames, add);
+		if (result == null) {
+			return null;
+		}
 		return new Selection(engine, result);
 	}
 
@@ -662,24 +813,11 @@ public class Selection extends EnteringSelection {
 	 * @return the current selection
 	 */
 	public Selection classed(String classNames, DataFunction<Boolean> assignSwitchFunction) {
-
-		assertObjectIsNotAnonymous(assignSwitchFunction);
-
-		String methodName = createNewTemporaryInstanceName();
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(methodName, assignSwitchFunction);
-
-		String command = "this.classed('" + classNames + "', function(d, i) { " + //		
-				"   var r = d3." + methodName + ".apply(this,d,i);" + //
-				"   return r == null ? false : r; " + //			
-				"});";
-		JsObject result = evalForJsObject(command);
-		d3JsObj.removeMember(methodName);
+		JsObject result = callWithCallback("classed", CallbackDispatcher.BOOLEAN_DATA_FUNCTION, assignSwitchFunction, classNames);
 		if (result == null) {
 			return null;
 		}
 		return new Selection(engine, result);
-
 	}
 
 	// ================ property functions ================
@@ -803,23 +941,11 @@ public class Selection extends EnteringSelection {
 	 * @return the current selection
 	 */
 	public Selection property(final String name, final DataFunction<?> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String methodName = createNewTemporaryInstanceName();
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(methodName, callback);
-
-		String command = "this.property('" + name + "', function(d, i) {" + "return d3." + methodName
-				+ ".apply(this,d,i);" + " });";
-
-		JsObject result = evalForJsObject(command);
-		d3JsObj.removeMember(methodName);
+		JsObject result = callWithCallback("property", CallbackDispatcher.DATA_FUNCTION, callback, name);
 		if (result == null) {
 			return null;
 		}
 		return new Selection(engine, result);
-
 	}
 
 	// ================ text functions ================
@@ -850,7 +976,24 @@ public class Selection extends EnteringSelection {
 	 * @return the current selection
 	 */
 	public <T> Selection text(String value) {
-		JsObject result = call("text", value);
+		enqueueCall("text", value);
+		return new Selection(engine, getJsObject());
+	}
+
+	/**
+	 * Sets the text content of each selected element to the value with the
+	 * index of the element in the given array. A null value clears the
+	 * content. See {@link #attr(String, double[])}.
+	 *
+	 * @param values
+	 *            the text values in the order of the selected elements
+	 * @return the current selection
+	 */
+	public Selection text(String[] values) {
+		JsObject result = callWithValues("text", null, values);
+		if (result == null) {
+			return null;
+		}
 		return new Selection(engine, result);
 	}
 
@@ -870,25 +1013,30 @@ public class Selection extends EnteringSelection {
 	 * @return the current selection
 	 */
 	public Selection text(final DataFunction<String> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String methodName = createNewTemporaryInstanceName();
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(methodName, callback);
-
-		String command = "this.text(function(d, i) {" + "return d3." + methodName + ".apply(this,d,i);"
-				+ " });";
-
-		JsObject result = evalForJsObject(command);
-
-		d3JsObj.removeMember(methodName);
+		JsObject result = callWithCallback("text", CallbackDispatcher.DATA_FUNCTION, callback);
 		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
+	}
 
+	/**
+	 * Sets the text content of all selected elements to the values returned by
+	 * the specified batch function. The function is called only once with the
+	 * data of all selected elements. See
+	 * {@link #attr(String, BatchDataFunction)}.
+	 *
+	 * @param batchFunction
+	 *            the function used to compute the new text properties
+	 * @return the current selection
+	 */
+	public Selection text(final BatchDataFunction<String> batchFunction) {
+		JsObject valueFunction = createBatchValueFunction(batchFunction);
+		JsObject result = call("text", valueFunction);
+		if (result == null) {
+			return null;
+		}
+		return new Selection(engine, result);
 	}
 
 	/**
@@ -929,21 +1077,7 @@ public class Selection extends EnteringSelection {
 	 * @return the current selection
 	 */
 	public Selection html(final DataFunction<String> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String memberName = createNewTemporaryInstanceName();
-
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(memberName, callback);
-
-		// tell x to use the callback
-		String command = "this.html(function(d,i) {" //				
-				+ "return d3." + memberName + ".apply(this, d, i);" //
-				+ "})";
-
-		JsObject result = evalForJsObject(command);
-		d3JsObj.removeMember(memberName);
+		JsObject result = callWithCallback("html", CallbackDispatcher.DATA_FUNCTION, callback);
 		if (result == null) {
 			return null;
 		}
@@ -1066,26 +1200,30 @@ public class Selection extends EnteringSelection {
 	 * @return the current selection
 	 */
 	public Selection each(DataFunction<Void> function) {
-
-		assertObjectIsNotAnonymous(function);
-
-		String functionName = createNewTemporaryInstanceName();
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(functionName, function);
-
-		String command = "this.each(function(d, i) { " + //
-				"   d3." + functionName + ".apply(this,d,i); " + //
-				" });";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObj.removeMember(functionName);
+		JsObject result = callWithCallback("each", CallbackDispatcher.DATA_FUNCTION, function);
 		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
 	}
 
+	/**
+	 * Invokes the specified batch function once with the data of all elements
+	 * in the current selection. The results of the function are ignored and
+	 * may be null.
+	 *
+	 * @param batchFunction
+	 *            the callback function
+	 * @return the current selection
+	 */
+	public Selection each(BatchDataFunction<?> batchFunction) {
+		createBatchValueFunction((data, indices) -> {
+			batchFunction.apply(data, indices);
+			return new Object[indices.length];
+		});
+		return this;
+	}
+
 	// ================================ data getter functions ========
 
 	/**
@@ -1119,6 +1257,12 @@ public class Selection extends EnteringSelection {
 	 * @return the update selection
 	 */
 	public final UpdateSelection data(Double[][] array) {
+		double[][] unboxedArray = ArrayTransfer.unbox(array);
+		if (unboxedArray != null) {
+			JsObject jsArrayObject = ArrayTransfer.toJsMatrix(engine, unboxedArray);
+			return data(jsArrayObject);
+		}
+
 		String arrayString = ArrayUtils.createArrayString(array);
 		return data(arrayString);
 	}
@@ -1188,54 +1332,65 @@ public class Selection extends EnteringSelection {
 	 */
 	public UpdateSelection data(Collection<? extends JavaScriptObject> collection) {
 
-		JsObject d3JsObj = getD3();
-
-		List<String> fullVarNames = new ArrayList<>();
-		List<String> varNames = new ArrayList<>();
-		for (JavaScriptObject javaScriptObject : collection) {
-			String varName = createNewTemporaryInstanceName();
-			JsObject jsObject = javaScriptObject.getJsObject();
-			d3JsObj.setMember(varName, jsObject);
-			fullVarNames.add("d3." + varName);
-			varNames.add(varName);
-		}
-
-		String command = "this.data([" + String.join(",", fullVarNames) + "])";
-		JsObject result = evalForJsObject(command);
-
-		for (String varName : varNames) {
-			d3JsObj.removeMember(varName);
-		}
+		JsObject result = call("data", ArrayTransfer.toJsArray(engine, collection.toArray()));
 		if (result == null) {
 			return null;
 		}
-
 		return new UpdateSelection(engine, result);
 	}
 
-	public UpdateSelection dataObjectCollection(Collection<Object> collection) {
+	/**
+	 * Joins the rows of the given {@link ColumnarDataset} with the current
+	 * selection using the default by-index key mapping.
+	 * <p>
+	 * The columns are transferred as typed arrays and each element is bound
+	 * to a light weight row view whose members are the columns, e.g. d.x or
+	 * d.category.
+	 *
+	 * @param dataset
+	 * @return the update selection
+	 */
+	public UpdateSelection data(ColumnarDataset dataset) {
+		return data(dataset.toJsArray(engine));
+	}
 
-		JsObject d3JsObj = getD3();
+	/**
+	 * Same as {@link #data(ColumnarDataset)} but uses the given
+	 * {@link KeyFunction} to map the rows to the selection elements.
+	 *
+	 * @param dataset
+	 * @param keyFunction
+	 * @return the update selection
+	 */
+	public UpdateSelection data(ColumnarDataset dataset, KeyFunction<?> keyFunction) {
+		return data(dataset.toJsArray(engine), keyFunction);
+	}
 
-		List<String> fullVarNames = new ArrayList<>();
-		List<String> varNames = new ArrayList<>();
-		for (Object object : collection) {
-			String varName = createNewTemporaryInstanceName();
-			d3JsObj.setMember(varName, object);
-			fullVarNames.add("d3." + varName);
-			varNames.add(varName);
+	/**
+	 * Same as {@link #data(ColumnarDataset)} but uses the values of the column
+	 * with the given name as keys to map the rows to the selection elements.
+	 * The key function is created by the page, so no Java callback is
+	 * involved.
+	 *
+	 * @param dataset
+	 * @param keyColumnName
+	 * @return the update selection
+	 */
+	public UpdateSelection data(ColumnarDataset dataset, String keyColumnName) {
+		JsObject keyFunction = (JsObject) JsBridge.get(engine).call("memberKey", keyColumnName);
+		JsObject result = call("data", dataset.toJsArray(engine), keyFunction);
+		if (result == null) {
+			return null;
 		}
+		return new UpdateSelection(engine, result);
+	}
 
-		String command = "this.data([" + String.join(",", fullVarNames) + "])";
-		JsObject result = evalForJsObject(command);
+	public UpdateSelection dataObjectCollection(Collection<Object> collection) {
 
-		for (String varName : varNames) {
-			d3JsObj.removeMember(varName);
-		}
+		JsObject result = call("data", ArrayTransfer.toJsArray(engine, collection.toArray()));
 		if (result == null) {
 			return null;
 		}
-
 		return new UpdateSelection(engine, result);
 	}
 
@@ -1261,35 +1416,21 @@ public class Selection extends EnteringSelection {
 
 	public UpdateSelection data(JsObject values, KeyFunction<?> keyFunction) {
 
-		JsObject d3JsObj = getD3();
-
-		String methodName = createNewTemporaryInstanceName();
-		d3JsObj.setMember(methodName, keyFunction);
-
-		String arrayName = createNewTemporaryInstanceName();
-
-		d3JsObj.setMember(arrayName, values);
-
-		String command = "this.data( d3." + arrayName + ", " + "function(d, i) {" //
-				+ "  var ctxEl = null;" + "  var newDataArray = null;" //
-				+ "  if (this == d3." + arrayName + ") {" //
-				+ "     newDataArray = this; " //
-				+ "  } else { " //
-				+ "    ctxEl = this; " //
-				+ "  } " //
-				+ "  return d3." + methodName + ".call(ctxEl,newDataArray,d,i);" //
-				+ "});";
-
-		JsObject result = evalForJsObject(command);
+		CallbackDispatcher dispatcher = engine.getCallbackDispatcher();
+		int callbackId = dispatcher.register(keyFunction);
+		JsObject result;
+		try {
+			JsObject jsKeyFunction = dispatcher.createFunction(CallbackDispatcher.KEY_FUNCTION, callbackId, values);
+			result = call("data", values, jsKeyFunction);
+		} finally {
+			dispatcher.release(callbackId);
+		}
 
-		d3JsObj.removeMember(methodName);
-		d3JsObj.removeMember(arrayName);
 		if (result == null) {
 			return null;
 		}
 
 		return new UpdateSelection(engine, result);
-
 	}
 
 	/**
@@ -1351,27 +1492,11 @@ public class Selection extends EnteringSelection {
 	 * @return the {@link UpdateSelection}
 	 */
 	public <T> UpdateSelection data(DataFunction<T> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String methodName = createNewTemporaryInstanceName();
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(methodName, callback);
-
-		String command = "this.data(function(d, i) {" //
-				+ "var result = d3." + methodName + ".apply(this,d,i);" //				
-				+ "return result; " //
-				+ "});";
-
-		JsObject result = evalForJsObject(command);
-
-		d3JsObj.removeMember(methodName);
-
+		JsObject result = callWithCallback("data", CallbackDispatcher.DATA_FUNCTION, callback);
 		if (result == null) {
 			return null;
 		}
 		return new UpdateSelection(engine, result);
-
 	}
 
 	/**
@@ -1385,9 +1510,13 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(Double[] array) {
 
-		String arrayString = ArrayUtils.createArrayString(array);
+		double[] unboxedArray = ArrayTransfer.unbox(array);
+		if (unboxedArray != null) {
+			return data(unboxedArray);
+		}
 
-		return data(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
+		return data(jsArrayObject);
 	}
 
 	/**
@@ -1401,9 +1530,8 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(String[] array) {
 
-		String arrayString = ArrayUtils.createArrayString(array);
-
-		return data(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
+		return data(jsArrayObject);
 	}
 
 	/**
@@ -1417,9 +1545,13 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(Integer[] array) {
 
-		String arrayString = ArrayUtils.createArrayString(array);
+		int[] unboxedArray = ArrayTransfer.unbox(array);
+		if (unboxedArray != null) {
+			return data(unboxedArray);
+		}
 
-		return data(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
+		return data(jsArrayObject);
 	}
 
 	/**
@@ -1433,29 +1565,10 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(final Object[] array) {
 
-		JsObject d3JsObj = getD3();
-		List<String> fullVarNames = new ArrayList<>();
-		List<String> varNames = new ArrayList<>();
-
-		for (Object object : array) {
-			String varName = JavaScriptObject.createNewTemporaryInstanceName();
-			d3JsObj.setMember(varName, object);
-			fullVarNames.add("d3." + varName);
-			varNames.add(varName);
-		}
-
-		String command = "this.data([" + String.join(",", fullVarNames) + "])";
-
-		JsObject result = evalForJsObject(command);
-
-		for (String varName : varNames) {
-			d3JsObj.removeMember(varName);
-		}
-
+		JsObject result = call("data", ArrayTransfer.toJsArray(engine, array));
 		if (result == null) {
 			return null;
 		}
-
 		return new UpdateSelection(engine, result);
 	}
 
@@ -1472,29 +1585,8 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(final Object[] array, final KeyFunction<?> keyFunction) {
 
-		JsObject d3JsObj = getD3();
-
-		List<String> fullVarNames = new ArrayList<>();
-		List<String> varNames = new ArrayList<>();
-
-		for (Object object : array) {
-			String varName = createNewTemporaryInstanceName();
-			d3JsObj.setMember(varName, object);
-			fullVarNames.add("d3." + varName);
-			varNames.add(varName);
-		}
-
-		String arrayCommand = "[" + String.join(",", fullVarNames) + "]";
-		JsObject jsArrayObject = evalForJsObject(arrayCommand);
-
-		for (String varName : varNames) {
-			d3JsObj.removeMember(varName);
-		}
-
-		JavaScriptObject arrayObject = new JavaScriptObject(engine, jsArrayObject);
-
-		return data(arrayObject, keyFunction);
-
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
+		return data(jsArrayObject, keyFunction);
 	}
 
 	/**
@@ -1508,8 +1600,8 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(final byte[] array) {
 
-		String arrayString = ArrayUtils.createArrayString(array);
-		return data(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
+		return data(jsArrayObject);
 	}
 
 	/**
@@ -1525,8 +1617,7 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(final byte[] array, final KeyFunction<?> keyFunction) {
 
-		String arrayString = ArrayUtils.createArrayString(array);
-		JsObject jsArrayObject = evalForJsObject(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
 		return data(jsArrayObject, keyFunction);
 	}
 
@@ -1540,8 +1631,8 @@ public class Selection extends EnteringSelection {
 	 * @return the update selection
 	 */
 	public final UpdateSelection data(final double[] array) {
-		String arrayString = ArrayUtils.createArrayString(array);
-		return data(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
+		return data(jsArrayObject);
 	}
 
 	/**
@@ -1557,10 +1648,8 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(final double[] array, final KeyFunction<?> keyFunction) {
 
-		String arrayString = ArrayUtils.createArrayString(array);
-		JsObject jsArrayObject = evalForJsObject(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
 		return data(jsArrayObject, keyFunction);
-
 	}
 
 	/**
@@ -1573,9 +1662,8 @@ public class Selection extends EnteringSelection {
 	 * @return the update selection
 	 */
 	public final UpdateSelection data(final float[] array) {
-
-		String arrayString = ArrayUtils.createArrayString(array);
-		return data(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
+		return data(jsArrayObject);
 	}
 
 	/**
@@ -1591,8 +1679,7 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(final float[] array, final KeyFunction<?> keyFunction) {
 
-		String arrayString = ArrayUtils.createArrayString(array);
-		JsObject jsArrayObject = evalForJsObject(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
 		return data(jsArrayObject, keyFunction);
 	}
 
@@ -1606,9 +1693,8 @@ public class Selection extends EnteringSelection {
 	 * @return the update selection
 	 */
 	public final UpdateSelection data(final int[] array) {
-
-		String arrayString = ArrayUtils.createArrayString(array);
-		return data(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
+		return data(jsArrayObject);
 	}
 
 	/**
@@ -1624,8 +1710,7 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(final int[] array, final KeyFunction<?> keyFunction) {
 
-		String arrayString = ArrayUtils.createArrayString(array);
-		JsObject jsArrayObject = evalForJsObject(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
 		return data(jsArrayObject, keyFunction);
 	}
 
@@ -1639,9 +1724,8 @@ public class Selection extends EnteringSelection {
 	 * @return the update selection
 	 */
 	public final UpdateSelection data(final long[] array) {
-
-		String arrayString = ArrayUtils.createArrayString(array);
-		return data(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
+		return data(jsArrayObject);
 	}
 
 	/**
@@ -1657,8 +1741,7 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(final long[] array, final KeyFunction<?> keyFunction) {
 
-		String arrayString = ArrayUtils.createArrayString(array);
-		JsObject jsArrayObject = evalForJsObject(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
 		return data(jsArrayObject, keyFunction);
 	}
 
@@ -1673,8 +1756,8 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(final short[] array) {
 
-		String arrayString = ArrayUtils.createArrayString(array);
-		return data(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
+		return data(jsArrayObject);
 	}
 
 	/**
@@ -1688,9 +1771,7 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(final char[] array, final KeyFunction<?> keyFunction) {
 
-		String arrayString = ArrayUtils.createArrayString(array);
-
-		JsObject jsArrayObject = evalForJsObject(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
 		return data(jsArrayObject, keyFunction);
 	}
 
@@ -1705,8 +1786,8 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(final char[] array) {
 
-		String arrayString = ArrayUtils.createArrayString(array);
-		return data(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
+		return data(jsArrayObject);
 	}
 
 	/**
@@ -1722,8 +1803,7 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(final short[] array, final KeyFunction<?> keyFunction) {
 
-		String arrayString = ArrayUtils.createArrayString(array);
-		JsObject jsArrayObject = evalForJsObject(arrayString);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, array);
 		return data(jsArrayObject, keyFunction);
 	}
 
@@ -1736,29 +1816,10 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(final List<JavaScriptObject> list) {
 
-		JsObject d3JsObj = getD3();
-		List<String> fullVarNames = new ArrayList<>();
-		List<String> varNames = new ArrayList<>();
-
-		for (JavaScriptObject javaScriptObject : list) {
-			String varName = createNewTemporaryInstanceName();
-			JsObject jsObject = javaScriptObject.getJsObject();
-			d3JsObj.setMember(varName, jsObject);
-			fullVarNames.add("d3." + varName);
-			varNames.add(varName);
-		}
-
-		String command = "this.data([" + String.join(",", fullVarNames) + "])";
-		JsObject result = evalForJsObject(command);
-
-		for (String varName : varNames) {
-			d3JsObj.removeMember(varName);
-		}
-
+		JsObject result = call("data", ArrayTransfer.toJsArray(engine, list.toArray()));
 		if (result == null) {
 			return null;
 		}
-
 		return new UpdateSelection(engine, result);
 	}
 
@@ -1775,33 +1836,37 @@ public class Selection extends EnteringSelection {
 	 */
 	public final UpdateSelection data(final List<?> list, final KeyFunction<?> keyFunction) {
 
-		JsObject d3JsObj = getD3();
-
-		List<String> fullVarNames = new ArrayList<>();
-		List<String> varNames = new ArrayList<>();
-
-		for (Object object : list) {
-			String varName = createNewTemporaryInstanceName();
-			d3JsObj.setMember(varName, object);
-			fullVarNames.add("d3." + varName);
-			varNames.add(varName);
-		}
-
-		String arrayCommand = "[" + String.join(",", fullVarNames) + "]";
-		JsObject jsArrayObject = evalForJsObject(arrayCommand);
-
-		for (String varName : varNames) {
-			d3JsObj.removeMember(varName);
-		}
-
-		if (jsArrayObject == null) {
-			return null;
-		}
-
-		JavaScriptObject arrayObject = new JavaScriptObject(engine, jsArrayObject);
+		JsObject jsArrayObject = ArrayTransfer.toJsArray(engine, list.toArray());
+		return data(jsArrayObject, keyFunction);
+	}
 
-		return data(arrayObject, keyFunction);
+	/**
+	 * Joins the given list with the current selection using the given
+	 * {@link KeyedDataJoin}. The join is computed in Java and only the
+	 * differences to the previous join of the {@link KeyedDataJoin} are sent
+	 * to the page.
+	 *
+	 * @param list
+	 *            the data
+	 * @param join
+	 *            the join that remembers the keys of the previous join
+	 * @return the {@link UpdateSelection}
+	 */
+	public final UpdateSelection data(final List<?> list, final KeyedDataJoin join) {
+		return join.join(this, list);
+	}
 
+	/**
+	 * Same as {@link #data(List, KeyedDataJoin)} for an array.
+	 *
+	 * @param array
+	 *            the data
+	 * @param join
+	 *            the join that remembers the keys of the previous join
+	 * @return the {@link UpdateSelection}
+	 */
+	public final UpdateSelection data(final Object[] array, final KeyedDataJoin join) {
+		return join.join(this, array);
 	}
 
 	// ================================ datum functions ========
@@ -1826,88 +1891,43 @@ public class Selection extends EnteringSelection {
 	 */
 	public Selection datum(JsObject object) {
 
-		String dataName = createNewTemporaryInstanceName();
-
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(dataName, object);
-		String command = "this.datum(d3." + dataName + ")";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObj.removeMember(dataName);
-
+		JsObject result = call("datum", object);
 		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
-
 	}
 
 	public Selection datum(JavaScriptObject object) {
 
-		JsObject datumObj = object.getJsObject();
-		String dataName = createNewTemporaryInstanceName();
-
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(dataName, datumObj);
-		String command = "this.datum(d3." + dataName + ")";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObj.removeMember(dataName);
-
+		JsObject result = call("datum", object.getJsObject());
 		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
-
 	}
 
 	public Selection datum(String object) {
 
-		String dataName = createNewTemporaryInstanceName();
-
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(dataName, object);
-		String command = "this.datum(d3." + dataName + ")";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObj.removeMember(dataName);
-
+		JsObject result = call("datum", object);
 		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
-
 	}
 
 	public Selection datum(Array<? extends JavaScriptObject> array) {
 
-		JsObject d3JsObj = getD3();
-		List<String> fullVarNames = new ArrayList<>();
-		List<String> varNames = new ArrayList<>();
-
+		List<JsObject> elements = new ArrayList<>();
 		array.forEach((element) -> {
-			JsObject jsElement = (JsObject) engine.toJsObjectIfNotSimpleType(element);
-			String varName = createNewTemporaryInstanceName();
-			d3JsObj.setMember(varName, jsElement);
-			fullVarNames.add("d3." + varName);
+			elements.add((JsObject) engine.toJsObjectIfNotSimpleType(element));
 		});
 
-		String command = "this.datum([" + String.join(",", fullVarNames) + "])";
-		JsObject result = evalForJsObject(command);
-
-		for (String varName : varNames) {
-			d3JsObj.removeMember(varName);
-		}
-
+		JsObject result = call("datum", ArrayTransfer.toJsArray(engine, elements.toArray()));
 		if (result == null) {
 			return null;
 		}
-
 		return new UpdateSelection(engine, result);
-
 	}
 
 	/**
@@ -1930,36 +1950,19 @@ public class Selection extends EnteringSelection {
 	 */
 	public <T> Selection datum(DataFunction<T> datumFunction) {
 
-		if (datumFunction != null) {
-
-			assertObjectIsNotAnonymous(datumFunction);
+		boolean isRemovingData = datumFunction == null;
+		JsObject result;
+		if (isRemovingData) {
+			result = call("datum", (Object) null);
+		} else {
+			result = callWithCallback("datum", CallbackDispatcher.DATA_FUNCTION, datumFunction);
 		}
 
-		String methodName = createNewTemporaryInstanceName();
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(methodName, datumFunction);
-
-		String varName = createNewTemporaryInstanceName();
-		String command = "var " + varName + " = null;" + "if (d3." + methodName + " == null) { " //
-				+ varName + "= this.datum(null); "//
-				+ "} else { "//
-				+ varName + "= this.datum(function(d, i) { "//
-				+ "  return d3." + methodName + ".apply(this,d,i); "//
-				+ "});" //
-				+ "}";
-
-		eval(command);
-		JsObject result = evalForJsObject(varName);
-
-		d3JsObj.removeMember(varName);
-		d3JsObj.removeMember(methodName);
-
 		if (result == null) {
 			return null;
 		}
 
 		return new Selection(engine, result);
-
 	}
 
 	/**
@@ -1971,8 +1974,8 @@ public class Selection extends EnteringSelection {
 	 * @return the datum of the first non null element
 	 */
 	public Value datum() {
-		String command = "this.datum()";
-		Object result = eval(command);
+
+		Object result = getJsObject().call("datum");
 		Value value = Value.create(engine, result);
 		return value;
 	}
@@ -2012,27 +2015,29 @@ public class Selection extends EnteringSelection {
 	 * @return a new selection containing the filtered elements
 	 */
 	public Selection filter(final DataFunction<Element> datumFunction) {
-
-		assertObjectIsNotAnonymous(datumFunction);
-
-		String methodName = createNewTemporaryInstanceName();
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(methodName, datumFunction);
-
-		String command = "this.filter(function(d, i) { " //
-				+ "return d3." + methodName + ".apply(this,d,i);" //
-				+ " });";
-
-		JsObject result = evalForJsObject(command);
-
-		d3JsObj.removeMember(methodName);
-
+		JsObject result = callWithCallback("filter", CallbackDispatcher.DATA_FUNCTION, datumFunction);
 		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
+	}
 
+	/**
+	 * Filters the selection, returning a new selection that contains only the
+	 * elements for which the specified batch function returns true. The
+	 * function is called only once with the data of all selected elements.
+	 *
+	 * @param batchFunction
+	 *            the function to be used as a filter
+	 * @return a new selection containing the filtered elements
+	 */
+	public Selection filter(final BatchDataFunction<Boolean> batchFunction) {
+		JsObject valueFunction = createBatchValueFunction(batchFunction);
+		JsObject result = call("filter", valueFunction);
+		if (result == null) {
+			return null;
+		}
+		return new Selection(engine, result);
 	}
 
 	/**
@@ -2054,25 +2059,10 @@ public class Selection extends EnteringSelection {
 	 * @return
 	 */
 	public Selection sort(final Comparator<Object> comparator) {
-
-		assertObjectIsNotAnonymous(comparator);
-
-		String methodName = createNewTemporaryInstanceName();
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(methodName, comparator);
-
-		String command = "this.sort(function(o1, o2) { " //
-				+ "return d3." + methodName + ".compare({datum:o1},{datum:o2});" //
-				+ " });";
-
-		JsObject result = evalForJsObject(command);
-
-		d3JsObj.removeMember(methodName);
-
+		JsObject result = callWithCallback("sort", CallbackDispatcher.COMPARATOR, comparator);
 		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
 	}
 
@@ -2146,31 +2136,19 @@ public class Selection extends EnteringSelection {
 	 */
 	public Selection on(String eventType, DataFunction<Void> listener) {
 
-		assertObjectIsNotAnonymous(listener);
-
-		String listenerName = createNewTemporaryInstanceName();
-		String varName = createNewTemporaryInstanceName();
-
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(listenerName, listener);
-
-		String command = "var "+varName+" = d3." + listenerName + " == null ? null : " + "function(d, i) {" //		      
-				+ "d3." + listenerName + ".apply(this,d,i);" //
-				+ " }; ";
-
-		eval(command);
-		String onCommand = "this.on('" + eventType + "', "+varName+");";
-
-		JsObject result = evalForJsObject(onCommand);
+		boolean isRemovingListener = listener == null;
+		JsObject jsListener = isRemovingListener ? null
+				: createCallbackFunction(CallbackDispatcher.DATA_FUNCTION, listener);
 
-		//hint: the "temporary" member of d3JsObj must stay as long as it is used. 
-		//don't remove it here with d3JsObj.removeMember(listenerName)
+		// hint: the listener stays registered at the CallbackDispatcher
+		// as long as the event listener exists. The bridge releases it when
+		// it is replaced or removed.
+		JsObject result = callBridge("on", eventType, jsListener, false);
 
 		if (result == null) {
 			return null;
 		}
 		return new Selection(engine, result);
-
 	}
 
 	/**
@@ -2217,59 +2195,28 @@ public class Selection extends EnteringSelection {
 	 */
 	public Selection on(String eventType, DataFunction<Void> listener, boolean useCapture) {
 
-		assertObjectIsNotAnonymous(listener);
-
-		String methodName = createNewTemporaryInstanceName();
-		String varName = createNewTemporaryInstanceName();
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(methodName, listener);
+		boolean isRemovingListener = listener == null;
+		JsObject jsListener = isRemovingListener ? null
+				: createCallbackFunction(CallbackDispatcher.DATA_FUNCTION, listener);
 
-		String command = "var "+varName+" = (d3." + methodName + " == null ? null : function(d, i) {" + "d3." + methodName
-				+ ".apply(this,d,i);" //
-				+ " });" //
-				+ "return this.on('" + eventType + "', "+varName+", " + useCapture + ");";
-
-		JsObject result = evalForJsObject(command);
-
-		//hint: the "temporary" member of d3JsObj must stay as long as it is used. 
-		//don't remove it here with d3JsObj.removeMember(methodName)
+		// hint: the listener stays registered at the CallbackDispatcher
+		// as long as the event listener exists. The bridge releases it when
+		// it is replaced or removed.
+		JsObject result = callBridge("on", eventType, jsListener, useCapture);
 
 		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
-
 	}
 
 	public Selection onMouseClick(MouseClickFunction listener) {
 
-		assertObjectIsNotAnonymous(listener);
-
-		String listenerName = createNewTemporaryInstanceName();
-		String varName = createNewTemporaryInstanceName();
-
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(listenerName, listener);
-
-		String command = "var "+varName+" = d3." + listenerName + " == null ? null : " + "function(d, i) {" //		      
-				+ "d3." + listenerName + ".handleMouseClick(this);" //
-				+ " }; ";
-
-		eval(command);
-		String onCommand = "this.on('click', "+varName+");";
-
-		JsObject result = evalForJsObject(onCommand);
-
-		//hint: the "temporary" member of d3JsObj must stay as long as it is used. 
-		//don't remove it here with d3JsObj.removeMember(listenerName)
-
-		if (result == null) {
+		DataFunction<Void> clickListener = (context, d, index) -> {
+			listener.handleMouseClick(context);
 			return null;
-		}
-
-		return new Selection(engine, result);
-
+		};
+		return on("click", clickListener);
 	}
 
 	@Override
@@ -1,9 +1,12 @@
 package org.treez.javafxd3.d3.core;
 
+import java.util.Objects;
+
 import org.treez.javafxd3.d3.D3;
 import org.treez.javafxd3.d3.color.Color;
 import org.treez.javafxd3.d3.ease.Easing;
 import org.treez.javafxd3.d3.ease.EasingFunction;
+import org.treez.javafxd3.d3.functions.BatchDataFunction;
 import org.treez.javafxd3.d3.functions.DataFunction;
 import org.treez.javafxd3.d3.functions.JsFunction;
 import org.treez.javafxd3.d3.interpolators.Interpolator;
@@ -102,8 +105,8 @@ public class Transition extends JavaScriptObject {
 	 * @return the current transition
 	 */
 	public Transition delay(int milliseconds) {
-		JsObject result = call("delay", milliseconds);
-		return new Transition(engine, result);
+		enqueueCall("delay", milliseconds);
+		return new Transition(engine, getJsObject());
 	}
 
 	/**
@@ -138,24 +141,10 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Transition delay(DataFunction<Integer> func) {
 
-		assertObjectIsNotAnonymous(func);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(memberName, func);
-
-		String command = "this.delay(function(d, i) { " //
-				+ "return d3." + memberName + ".apply(this,d,i);"//
-				+ " });";
-
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(memberName);
-
+		JsObject result = callWithCallback("delay", CallbackDispatcher.DATA_FUNCTION, func);
 		if (result == null) {
 			return null;
 		}
-
 		return new Transition(engine, result);
 	}
 
@@ -185,24 +174,10 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Transition duration(DataFunction<Integer> func) {
 
-		assertObjectIsNotAnonymous(func);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(memberName, func);
-
-		String command = "this.duration(function(d, i) { " //
-				+ "return d3." + memberName + ".apply(this,d,i);"//
-				+ " });";
-
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(memberName);
-
+		JsObject result = callWithCallback("duration", CallbackDispatcher.DATA_FUNCTION, func);
 		if (result == null) {
 			return null;
 		}
-
 		return new Transition(engine, result);
 	}
 
@@ -224,24 +199,14 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Transition ease(EasingFunction callback) {
 
-		assertObjectIsNotAnonymous(callback);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(memberName, callback);
-
-		String command = "this.ease(function(t) { " //
-				+ "    d3." + memberName + ".ease(t);" //
-				+ "  })";
-
-		JsObject result = evalForJsObject(command);
-
-	
-
+		// hint: the easing function is called while the transition runs, so
+		// it stays registered at the CallbackDispatcher until the transition
+		// and the transitions that inherit the easing have finished
+		JsObject easingFunction = createCallbackFunction(CallbackDispatcher.EASING_FUNCTION, callback);
+		JsObject result = callWithTransitionCallback("ease", easingFunction, easingFunction);
 		if (result == null) {
 			return null;
 		}
-
 		return new Transition(engine, result);
 	}
 
@@ -273,8 +238,8 @@ public class Transition extends JavaScriptObject {
 	 * @return the current transition
 	 */
 	public Transition attr(final String name, String value) {
-		JsObject result = call("attr", name, value);
-		return new Transition(engine, result);
+		enqueueCall("attr", name, value);
+		return new Transition(engine, getJsObject());
 	}
 
 	/**
@@ -289,7 +254,42 @@ public class Transition extends JavaScriptObject {
 	 * @return the current transition
 	 */
 	public Transition attr(final String name, double value) {
-		JsObject result = call("attr", name, value);
+		enqueueCall("attr", name, value);
+		return new Transition(engine, getJsObject());
+	}
+
+	/**
+	 * Transitions the attribute with the specified name on all selected
+	 * elements to the value with the index of the element in the given array.
+	 * The values are transferred with a single call and assigned in one loop
+	 * on the page, so no Java callback is invoked for the elements.
+	 * 
+	 * @param name
+	 * @param values
+	 *            the ending values in the order of the selected elements
+	 * @return the current transition
+	 */
+	public Transition attr(final String name, double[] values) {
+		JsObject result = callWithValues("attr", name, values);
+		if (result == null) {
+			return null;
+		}
+		return new Transition(engine, result);
+	}
+
+	/**
+	 * See {@link #attr(String, double[])}.
+	 * 
+	 * @param name
+	 * @param values
+	 *            the ending values in the order of the selected elements
+	 * @return the current transition
+	 */
+	public Transition attr(final String name, String[] values) {
+		JsObject result = callWithValues("attr", name, values);
+		if (result == null) {
+			return null;
+		}
 		return new Transition(engine, result);
 	}
 
@@ -323,20 +323,28 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Transition attr(final String name, final DataFunction<?> callback) {
 
-		assertObjectIsNotAnonymous(callback);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(memberName, callback);
-
-		String command = "this.attr('" + name + "', function(d, i) {" //
-				+ "return d3." + memberName + ".apply(this,d,i);" //
-				+ "});";
-
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(memberName);
+		JsObject result = callWithCallback("attr", CallbackDispatcher.DATA_FUNCTION, callback, name);
+		if (result == null) {
+			return null;
+		}
+		return new Transition(engine, result);
+	}
 
+	/**
+	 * Transitions the attribute with the specified name to the end values
+	 * returned by the specified batch function on all selected elements. The
+	 * function is called only once with the data of all selected elements and
+	 * returns one end value per element.
+	 * 
+	 * @param name
+	 *            the name of the attribute
+	 * @param batchFunction
+	 *            the function used to compute the end values of the attribute
+	 * @return the current transition
+	 */
+	public Transition attr(final String name, final BatchDataFunction<?> batchFunction) {
+		JsObject valueFunction = createBatchValueFunction(batchFunction);
+		JsObject result = call("attr", name, valueFunction);
 		if (result == null) {
 			return null;
 		}
@@ -363,8 +371,9 @@ public class Transition extends JavaScriptObject {
 	 * @return the current transition
 	 */
 	public Transition attr(final String name, PathDataGenerator pathDataGenerator) {
+
 		JsObject generator = pathDataGenerator.getJsObject();
-		JsObject result = call("duration", generator);
+		JsObject result = call("attr", name, generator);
 		return new Transition(engine, result);
 	}
 
@@ -390,32 +399,16 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Transition attrTween(String nameOfTheAttributeToTween, TweenFunction<?> tweenFunction) {
 
-		assertObjectIsNotAnonymous(tweenFunction);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(memberName, tweenFunction);
-
-		String command = "this.attrTween('" + nameOfTheAttributeToTween + "', " + //
-				"  function(d, i, a) { " + //
-				//"     alert('attrTweenDelegate');" + //
-				"     var interpolator = d3." + memberName + ".apply(this,d,i,{datum:a});" + //				
-				//"     alert('attrTweenDelegate interpolator: ' + interpolator);" + //
-				"     return interpolator.unwrap();" + //
-				"  }" + //
-				");";
-
-		JsObject result = evalForJsObject(command);
-
-		//Do not remove the member with d3JsObject.removeMember(memberName);
-		//since it is needed later
-
+		// hint: the tween function is called when the transition starts, so
+		// it stays registered at the CallbackDispatcher until the transition
+		// has finished
+		JsObject jsTweenFunction = createCallbackFunction(CallbackDispatcher.TWEEN_FUNCTION, tweenFunction);
+		JsObject result = callWithTransitionCallback("attrTween", jsTweenFunction, nameOfTheAttributeToTween,
+				jsTweenFunction);
 		if (result == null) {
 			return null;
 		}
-
 		return new Transition(engine, result);
-
 	}
 
 	// ================ style functions ================
@@ -456,8 +449,8 @@ public class Transition extends JavaScriptObject {
 	 * @return the current transition
 	 */
 	public Transition style(String name, String value) {
-		JsObject result = call("style", name, value);
-		return new Transition(engine, result);
+		enqueueCall("style", name, value);
+		return new Transition(engine, getJsObject());
 	}
 
 	/**
@@ -470,7 +463,26 @@ public class Transition extends JavaScriptObject {
 	 * @return the current transition
 	 */
 	public Transition style(String name, double value) {
-		JsObject result = call("style", name, value);
+		enqueueCall("style", name, value);
+		return new Transition(engine, getJsObject());
+	}
+
+	/**
+	 * Transitions the style property with the specified name on all selected
+	 * elements to the value with the index of the element in the given array.
+	 * See {@link #attr(String, double[])}.
+	 * 
+	 * @param name
+	 *            the name of the style, such as font-size
+	 * @param values
+	 *            the ending values in the order of the selected elements
+	 * @return the current transition
+	 */
+	public Transition style(String name, String[] values) {
+		JsObject result = callWithValues("style", name, values);
+		if (result == null) {
+			return null;
+		}
 		return new Transition(engine, result);
 	}
 
@@ -485,38 +497,31 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Transition style(String name, DataFunction<?> callback) {
 
-		assertObjectIsNotAnonymous(callback);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(memberName, callback);
-
-		try {
-			String command = "this.style('" + name + "', function(d, i) {" //
-					+ "             try { "//
-					+ "               var r = d3." + memberName + ".apply(this,d,i);" //
-					+ "               return r;" //
-					+ "             } catch (e) {"//
-					+ "               alert(e); "//
-					+ "               return null; "//
-					+ "             }"//
-					+ "          });";
-
-			JsObject result = evalForJsObject(command);
-
-			d3JsObject.removeMember(memberName);
-
-			if (result == null) {
-				return null;
-			}
-
-			return new Transition(engine, result);
-
-		} catch (Exception exception) {
-			System.out.println("Could call style in Transition:\n" + exception.getMessage());
+		JsObject result = callWithCallback("style", CallbackDispatcher.STRING_DATA_FUNCTION, callback, name);
+		if (result == null) {
 			return null;
 		}
+		return new Transition(engine, result);
+	}
 
+	/**
+	 * Transitions the style with the specified name to the end values returned
+	 * by the specified batch function. The function is called only once with
+	 * the data of all selected elements.
+	 * 
+	 * @param name
+	 *            the name of the style, such as font-size
+	 * @param batchFunction
+	 *            the function used to compute the end values of the style
+	 * @return the current transition
+	 */
+	public Transition style(String name, BatchDataFunction<?> batchFunction) {
+		JsObject valueFunction = createBatchValueFunction(batchFunction);
+		JsObject result = call("style", name, valueFunction);
+		if (result == null) {
+			return null;
+		}
+		return new Transition(engine, result);
 	}
 
 	/**
@@ -564,30 +569,20 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Selection style(String name, DataFunction<?> callback, boolean important) {
 
-		assertObjectIsNotAnonymous(callback);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(memberName, callback);
-
-		String impCommand = "var imp = " + important + " ? 'important' : null;";
-		eval(impCommand);
-
-		String command = "this.style('" + name + "'," //
-				+ "  function(d, i) { "//
-				+ "    var r = d3." + memberName + ".apply(this,d,i); "//
-				+ "    return r ? r.toString() : null;"//
-				+ "  },"//
-				+ "imp);";
-
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(memberName);
+		CallbackDispatcher dispatcher = engine.getCallbackDispatcher();
+		int callbackId = dispatcher.register(callback);
+		JsObject result;
+		try {
+			JsObject valueFunction = dispatcher.createFunction(CallbackDispatcher.STRING_DATA_FUNCTION, callbackId);
+			String priority = important ? "important" : null;
+			result = call("style", name, valueFunction, priority);
+		} finally {
+			dispatcher.release(callbackId);
+		}
 
 		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
 	}
 
@@ -617,32 +612,13 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Selection styleTween(String name, TweenFunction<?> tweenFunction, boolean important) {
 
-		assertObjectIsNotAnonymous(tweenFunction);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(memberName, tweenFunction);
-
-		String impCommand = "var imp = " + important + " ? 'important' : null;";
-		eval(impCommand);
-
-		String command = "this.styleTween('" + name + "', " //
-				+ "  function(d, i, a) {" //
-				+ "    var interpolator = d3." + memberName + ".apply(this,d,i,{datum:a});" //
-				+ "    return interpolator.unwrap();" //
-				+ "  }, " //
-				+ "imp);";
-
-		JsObject result = evalForJsObject(command);
-
-		
-
+		JsObject jsTweenFunction = createCallbackFunction(CallbackDispatcher.TWEEN_FUNCTION, tweenFunction);
+		String priority = important ? "important" : null;
+		JsObject result = callWithTransitionCallback("styleTween", jsTweenFunction, name, jsTweenFunction, priority);
 		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
-
 	}
 
 	// ==================== text content ==========================
@@ -659,7 +635,24 @@ public class Transition extends JavaScriptObject {
 	 * @return the current transition
 	 */
 	public <T> Transition text(String value) {
-		JsObject result = call("text", value);
+		enqueueCall("text", value);
+		return new Transition(engine, getJsObject());
+	}
+
+	/**
+	 * Sets the text content of each selected element to the value with the
+	 * index of the element in the given array when the transition starts. See
+	 * {@link #attr(String, double[])}.
+	 * 
+	 * @param values
+	 *            the text values in the order of the selected elements
+	 * @return the current transition
+	 */
+	public Transition text(String[] values) {
+		JsObject result = callWithValues("text", null, values);
+		if (result == null) {
+			return null;
+		}
 		return new Transition(engine, result);
 	}
 
@@ -686,26 +679,29 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Transition text(final DataFunction<String> callback) {
 
-		assertObjectIsNotAnonymous(callback);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(memberName, callback);
-
-		String command = "this.text(function(d, i) { " //
-				+ "return d3." + memberName + ".apply(this,d,i);"//
-				+ "});";
-
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(memberName);
-
+		JsObject result = callWithCallback("text", CallbackDispatcher.STRING_DATA_FUNCTION, callback);
 		if (result == null) {
 			return null;
 		}
-
 		return new Transition(engine, result);
+	}
 
+	/**
+	 * Sets the text content of all selected elements to the values returned by
+	 * the specified batch function when the transition starts. The function is
+	 * called only once with the data of all selected elements.
+	 * 
+	 * @param batchFunction
+	 *            the function used to compute the new text properties
+	 * @return the current transition
+	 */
+	public Transition text(final BatchDataFunction<String> batchFunction) {
+		JsObject valueFunction = createBatchValueFunction(batchFunction);
+		JsObject result = call("text", valueFunction);
+		if (result == null) {
+			return null;
+		}
+		return new Transition(engine, result);
 	}
 
 	/**
@@ -727,26 +723,15 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Transition tween(String name, DataFunction<Interpolator<?>> factory) {
 
-		assertObjectIsNotAnonymous(factory);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(memberName, factory);
-
-		String command = "this.tween('" + name + "', function(d, i) { " //
-				+ "return d3." + memberName + ".apply(this,d,i);" //
-				+ "});";
-
-		JsObject result = evalForJsObject(command);
-
-		
-
+		// hint: the factory is called when the transition starts, so it stays
+		// registered at the CallbackDispatcher until the transition has
+		// finished
+		JsObject factoryFunction = createCallbackFunction(CallbackDispatcher.DATA_FUNCTION, factory);
+		JsObject result = callWithTransitionCallback("tween", factoryFunction, name, factoryFunction);
 		if (result == null) {
 			return null;
 		}
-
 		return new Transition(engine, result);
-
 	}
 
 	/**
@@ -793,7 +778,10 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Transition select(String selector) {
 		JsObject result = call("select", selector);
-		return new Transition(engine, result);
+		Transition transition = new Transition(engine, result);
+		// hint: the sub transition may inherit a custom easing function
+		transition.callBridge("inheritTransitionCallbacks");
+		return transition;
 	}
 
 	/**
@@ -820,7 +808,10 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Transition selectAll(String selector) {
 		JsObject result = call("selectAll", selector);
-		return new Transition(engine, result);
+		Transition transition = new Transition(engine, result);
+		// hint: the sub transition may inherit a custom easing function
+		transition.callBridge("inheritTransitionCallbacks");
+		return transition;
 	}
 
 	// ================ filter ======================
@@ -863,26 +854,28 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Transition filter(final DataFunction<Element> datumFunction) {
 
-		assertObjectIsNotAnonymous(datumFunction);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(memberName, datumFunction);
-
-		String command = "this.filter(function(d, i) { " //
-				+ "return d3." + memberName + ".apply(this,d,i);" //
-				+ "});";
-
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(memberName);
-
-		d3JsObject.removeMember(memberName);
-
+		JsObject result = callWithCallback("filter", CallbackDispatcher.BOOLEAN_DATA_FUNCTION, datumFunction);
 		if (result == null) {
 			return null;
 		}
+		return new Transition(engine, result);
+	}
 
+	/**
+	 * Filters the transition, returning a new transition that contains only
+	 * the elements for which the specified batch function returns true. The
+	 * function is called only once with the data of all selected elements.
+	 * 
+	 * @param batchFunction
+	 *            the function to be used as a filter
+	 * @return a new transition containing the filtered elements
+	 */
+	public Transition filter(final BatchDataFunction<Boolean> batchFunction) {
+		JsObject valueFunction = createBatchValueFunction(batchFunction);
+		JsObject result = call("filter", valueFunction);
+		if (result == null) {
+			return null;
+		}
 		return new Transition(engine, result);
 	}
 
@@ -978,28 +971,15 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Transition each(EventType type, DataFunction<Void> listener) {
 
-		assertObjectIsNotAnonymous(listener);
-
-		String typeString = type.getType();
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(memberName, listener);
-
-		String command = "this.each('" + typeString + "', function(d, i) {" //
-				+ "d3." + memberName + ".apply(this,d,i);"//
-				+ "});";
-
-		JsObject result = evalForJsObject(command);
-
-		
-
+		// hint: the listener is called when the event occurs, so it stays
+		// registered at the CallbackDispatcher until the transition has
+		// finished
+		JsObject jsListener = createCallbackFunction(CallbackDispatcher.DATA_FUNCTION, listener);
+		JsObject result = callWithTransitionCallback("each", jsListener, type.getType(), jsListener);
 		if (result == null) {
 			return null;
 		}
-
 		return new Transition(engine, result);
-
 	}
 
 	/**
@@ -1022,26 +1002,29 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Transition each(DataFunction<Void> listener) {
 
-		assertObjectIsNotAnonymous(listener);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(memberName, listener);
-
-		String command = "this.each(function(d, i) {" //
-				+ "d3." + memberName + ".apply(this,d,i);" //
-				+ "});";
-
-		JsObject result = evalForJsObject(command);
-
-		
-
+		JsObject result = callWithCallback("each", CallbackDispatcher.DATA_FUNCTION, listener);
 		if (result == null) {
 			return null;
 		}
 		return new Transition(engine, result);
 	}
 
+	/**
+	 * Invokes the specified batch function once with the data of all elements
+	 * of the transition. The results of the function are ignored and may be
+	 * null.
+	 * 
+	 * @param batchFunction
+	 * @return the current transition
+	 */
+	public Transition each(BatchDataFunction<?> batchFunction) {
+		createBatchValueFunction((data, indices) -> {
+			batchFunction.apply(data, indices);
+			return new Object[indices.length];
+		});
+		return this;
+	}
+
 	/**
 	 * Invokes the specified function once, passing in the current transition as
 	 * a single parameter.
@@ -1051,7 +1034,7 @@ public class Transition extends JavaScriptObject {
 	 */
 	public Transition call(JsFunction jsFunction) {
 
-		assertObjectIsNotAnonymous(jsFunction);
+		Objects.requireNonNull(jsFunction, "Function must not be null");
 
 		boolean isJavaScriptObject = jsFunction instanceof JavaScriptObject;
 		if (!isJavaScriptObject) {
@@ -1069,5 +1052,25 @@ public class Transition extends JavaScriptObject {
 		return new Transition(engine, result);
 	}
 
+	/**
+	 * Invokes the method with the given name and arguments and releases the
+	 * given permanent callback function (see
+	 * {@link #createCallbackFunction(String, Object)}) when the transition
+	 * has ended, has been interrupted or has been cancelled on all elements
+	 * 
+	 * @param methodName
+	 * @param callbackFunction
+	 * @param args
+	 *            the arguments of the method, including the callback function
+	 * @return
+	 */
+	private JsObject callWithTransitionCallback(String methodName, JsObject callbackFunction, Object... args) {
+		Object[] bridgeArgs = new Object[args.length + 2];
+		bridgeArgs[0] = methodName;
+		bridgeArgs[1] = callbackFunction;
+		System.arraycopy(args, 0, bridgeArgs, 2, args.length);
+		return callBridge("callWithTransitionCallback", bridgeArgs);
+	}
+
 	//#end region
 }
@@ -1,5 +1,9 @@
 package org.treez.javafxd3.d3.core;
 
+import java.util.Objects;
+
+import org.treez.javafxd3.d3.functions.ChunkFunction;
+
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -88,5 +92,41 @@ public class UpdateSelection extends Selection {
 		
 	}
 
+	/**
+	 * Applies the chunk function progressively to chunks of the elements of
+	 * this selection over several animation frames, so that the application
+	 * stays responsive while a large number of elements is updated. Uses a
+	 * time budget of {@link ProgressiveRender#DEFAULT_BUDGET} milliseconds per
+	 * frame.
+	 * <p>
+	 * To render the entering elements progressively, use
+	 * {@link EnteringSelection#appendProgressively}.
+	 *
+	 * @param chunkFunction
+	 *            is applied to each chunk of elements
+	 * @param listener
+	 *            is notified about the progress; may be null
+	 * @return the render that can be used to cancel it
+	 */
+	public ProgressiveRender renderProgressively(ChunkFunction chunkFunction, ProgressiveRender.Listener listener) {
+		return renderProgressively(chunkFunction, listener, ProgressiveRender.DEFAULT_BUDGET);
+	}
+
+	/**
+	 * Like {@link #renderProgressively(ChunkFunction, ProgressiveRender.Listener)}
+	 * with a custom time budget.
+	 *
+	 * @param chunkFunction
+	 * @param listener
+	 * @param budget
+	 *            the time budget per animation frame in milliseconds
+	 * @return
+	 */
+	public ProgressiveRender renderProgressively(ChunkFunction chunkFunction, ProgressiveRender.Listener listener,
+			double budget) {
+		Objects.requireNonNull(chunkFunction);
+		return ProgressiveRender.start(engine, getJsObject(), null, chunkFunction, listener, budget);
+	}
+
 	//#end region
 }
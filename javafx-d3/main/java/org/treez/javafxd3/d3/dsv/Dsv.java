@@ -3,6 +3,7 @@ package org.treez.javafxd3.d3.dsv;
 import org.treez.javafxd3.d3.arrays.Array;
 import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -36,26 +37,14 @@ public class Dsv<T> extends JavaScriptObject {
 	 */
 	public DsvRow get(DsvCallback<T> callback) {
 
-		assertObjectIsNotAnonymous(callback);
-
-		String callbackName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(callbackName, callback);		
-		
-		String command = "this.get(function(row, index) {" + //				
-				"   return d3." + callbackName + ".get(row, index);" //
-				+ "}" +//
-				");";
-		JsObject result = evalForJsObject(command);
-		
-		
+		// hint: the callback is released by the CallbackDispatcher after the
+		// request has been completed
+		JsObject jsCallback = createCallbackFunction(CallbackDispatcher.DSV_CALLBACK, callback);
+		JsObject result = call("get", jsCallback);
 		if (result == null) {
 			return null;
 		}
-
 		return new DsvRow(engine, result);
-
-		
 	}
 
 	/**
@@ -71,26 +60,14 @@ public class Dsv<T> extends JavaScriptObject {
 	 */
 	public Dsv<T> row(DsvObjectAccessor<T> accessor) {
 
-		assertObjectIsNotAnonymous(accessor);		
-
-		String accessorName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(accessorName, accessor);
-		
-		String command = "this.row(function(row, index) {" + //				
-				"   return d3." + accessorName + ".apply(row, index);" //
-				+ "}" +//
-				");";
-		JsObject result = evalForJsObject(command);		
-		
-		
-
+		// hint: the accessor is released when it is replaced or after the
+		// request has been completed
+		JsObject result = callWithPermanentCallback("row", CallbackDispatcher.ROW_FUNCTION, accessor);
 		if (result == null) {
 			return null;
 		}
-
-		return new Dsv<T>(engine, result);		
-		
+		callBridge("releaseRowOnCompletion");
+		return new Dsv<T>(engine, result);
 	}
 
 	/**
@@ -134,26 +111,10 @@ public class Dsv<T> extends JavaScriptObject {
 	 */
 	public Array<T> parse(String csvContent, DsvObjectAccessor<T> accessor) {
 
-		assertObjectIsNotAnonymous(accessor);
-
-		String accessorName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(accessorName, accessor);
-
-		String correctedCsvContent = csvContent.replace("\n", "\\n");
-
-		String command = "this.parse('" + correctedCsvContent + "', function(row, index) {" + "   return d3."
-				+ accessorName + ".apply(row, index);" //
-				+ "}" + ");";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(accessorName);
-		
-	
+		JsObject result = callWithCallback("parse", CallbackDispatcher.ROW_FUNCTION, accessor, csvContent);
 		if (result == null) {
 			return null;
 		}
-
 		return new Array<T>(engine, result);
 	}
 
@@ -195,26 +156,10 @@ public class Dsv<T> extends JavaScriptObject {
 	 */
 	public Array<T> parseRows(String csvContent, DsvArrayAccessor<T> accessor) {
 
-		assertObjectIsNotAnonymous(accessor);
-
-		String accessorName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(accessorName, accessor);
-
-		String correctedCsvContent = csvContent.replace("\n", "\\n");
-
-		String command = "this.parseRows('" + correctedCsvContent + "', function(row, index) {" + "   return d3."
-				+ accessorName + ".parse(row, index);" //
-				+ "}" + ");";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(accessorName);
-		
-	
+		JsObject result = callWithCallback("parseRows", CallbackDispatcher.ROW_FUNCTION, accessor, csvContent);
 		if (result == null) {
 			return null;
 		}
-
 		return new Array<T>(engine, result);
 	}
 }
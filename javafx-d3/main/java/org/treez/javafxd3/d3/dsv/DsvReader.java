@@ -0,0 +1,783 @@
+package org.treez.javafxd3.d3.dsv;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import org.treez.javafxd3.d3.arrays.ColumnarDataset;
+
+/**
+ * Reads delimiter-separated values (CSV, TSV, ...) in Java and returns them
+ * as typed columns. Use it instead of {@link Dsv#parse(String)} for large
+ * files: the content never becomes a JavaScript string and no accessor is
+ * called back for each row. The resulting {@link ColumnarDataset} is bound to
+ * a selection with a single transfer per column, see
+ * {@link org.treez.javafxd3.d3.core.Selection#data(ColumnarDataset)}.
+ * <p>
+ * The content is assumed to be RFC4180-compliant: the first line holds the
+ * column names, fields may be quoted and quoted fields may contain
+ * delimiters, line breaks and escaped quotes (""). Empty lines are skipped;
+ * missing fields are treated as empty fields and extra fields are ignored.
+ * The charset must be ASCII compatible, e.g. UTF-8 (the default) or
+ * ISO-8859-1.
+ * <p>
+ * Files are memory mapped by default. The content is split into chunks at
+ * line boundaries that are parsed in parallel: a first pass counts the rows
+ * and infers the type of each column, a second pass writes the values
+ * directly into the final arrays. A column whose values are all integers
+ * becomes an int column, a column whose values are all numbers (or empty)
+ * becomes a double column with NaN for empty values and all other columns
+ * become string columns with null for empty values.
+ */
+public class DsvReader {
+
+	//#region ATTRIBUTES
+
+	private static final byte QUOTE = '"';
+
+	private static final byte LINE_FEED = '\n';
+
+	private static final byte CARRIAGE_RETURN = '\r';
+
+	private static final int EMPTY = 0;
+
+	private static final int INT = 1;
+
+	private static final int DOUBLE = 2;
+
+	private static final int STRING = 3;
+
+	private static final int STRING_CACHE_SIZE = 1024;
+
+	private static final int MAX_CACHED_LENGTH = 32;
+
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private final byte delimiter;
+
+	private Charset charset = StandardCharsets.UTF_8;
+
+	private boolean isMemoryMapped = true;
+
+	private boolean isInferringTypes = true;
+
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * @param delimiter
+	 *            an ASCII character that is not a quote or a line break
+	 */
+	public DsvReader(char delimiter) {
+		boolean isValidDelimiter = delimiter < 128 && delimiter != QUOTE && delimiter != LINE_FEED
+				&& delimiter != CARRIAGE_RETURN;
+		if (!isValidDelimiter) {
+			String message = "The delimiter '" + delimiter + "' is not supported";
+			throw new IllegalStateException(message);
+		}
+		this.delimiter = (byte) delimiter;
+	}
+
+	/**
+	 * @return a reader for comma-separated values
+	 */
+	public static DsvReader csv() {
+		return new DsvReader(',');
+	}
+
+	/**
+	 * @return a reader for tab-separated values
+	 */
+	public static DsvReader tsv() {
+		return new DsvReader('\t');
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	//#region OPTIONS
+
+	/**
+	 * Sets the charset of the content; the default is UTF-8. The content is
+	 * scanned for delimiters, quotes and line breaks before it is decoded, so
+	 * only charsets that encode each character either as its ASCII byte or
+	 * with bytes outside of the ASCII range are supported: UTF-8 and single
+	 * byte charsets like ISO-8859-1. Other charsets (e.g. UTF-16) are
+	 * rejected.
+	 *
+	 * @param charset
+	 *            an ASCII compatible charset
+	 * @return this reader
+	 */
+	public DsvReader charset(Charset charset) {
+		Objects.requireNonNull(charset, "The charset must not be null");
+		if (!isAsciiCompatible(charset)) {
+			String message = "The charset " + charset.name()
+					+ " is not supported. Please use an ASCII compatible charset like UTF-8 or ISO-8859-1.";
+			throw new IllegalArgumentException(message);
+		}
+		this.charset = charset;
+		return this;
+	}
+
+	/**
+	 * Checks if the ASCII bytes of the given charset represent the ASCII
+	 * characters and can not be part of the encoding of other characters
+	 *
+	 * @param charset
+	 * @return
+	 */
+	private static boolean isAsciiCompatible(Charset charset) {
+		// hint: in UTF-8 all bytes of multi byte sequences are outside of the
+		// ASCII range; other multi byte charsets (e.g. Shift_JIS) do not
+		// guarantee that
+		boolean isUtf8 = charset.equals(StandardCharsets.UTF_8);
+		boolean isSingleByte = charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1;
+		if (!isUtf8 && !isSingleByte) {
+			return false;
+		}
+
+		byte[] asciiBytes = new byte[128];
+		for (int index = 0; index < asciiBytes.length; index++) {
+			asciiBytes[index] = (byte) index;
+		}
+		String decodedAscii = new String(asciiBytes, charset);
+		String expectedAscii = new String(asciiBytes, StandardCharsets.US_ASCII);
+		return decodedAscii.equals(expectedAscii);
+	}
+
+	/**
+	 * Sets whether files are memory mapped (the default) or read into the
+	 * heap
+	 *
+	 * @param isMemoryMapped
+	 * @return this reader
+	 */
+	public DsvReader memoryMapped(boolean isMemoryMapped) {
+		this.isMemoryMapped = isMemoryMapped;
+		return this;
+	}
+
+	/**
+	 * Sets whether numeric columns are detected (the default); otherwise all
+	 * columns are string columns
+	 *
+	 * @param isInferringTypes
+	 * @return this reader
+	 */
+	public DsvReader inferTypes(boolean isInferringTypes) {
+		this.isInferringTypes = isInferringTypes;
+		return this;
+	}
+
+	/**
+	 * Sets the number of chunks that are parsed in parallel; the default is
+	 * the number of available processors
+	 *
+	 * @param parallelism
+	 * @return this reader
+	 */
+	public DsvReader parallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+		return this;
+	}
+
+	//#end region
+
+	//#region READ
+
+	/**
+	 * Reads the given file
+	 *
+	 * @param file
+	 * @return the columns
+	 */
+	public ColumnarDataset read(Path file) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				String message = "The file '" + file + "' is larger than 2 GB";
+				throw new IllegalStateException(message);
+			}
+			ByteBuffer buffer;
+			if (isMemoryMapped) {
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			} else {
+				buffer = ByteBuffer.allocate((int) size);
+				while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+					// read until the buffer is full
+				}
+				buffer.flip();
+			}
+			return read(buffer);
+		} catch (IOException exception) {
+			String message = "Could not read the file '" + file + "'";
+			throw new IllegalStateException(message, exception);
+		}
+	}
+
+	/**
+	 * Reads the content of the given stream into the heap and parses it; the
+	 * stream is not closed
+	 *
+	 * @param inputStream
+	 * @return the columns
+	 */
+	public ColumnarDataset read(InputStream inputStream) {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		byte[] bytes = new byte[65536];
+		try {
+			int length;
+			while ((length = inputStream.read(bytes)) >= 0) {
+				outputStream.write(bytes, 0, length);
+			}
+		} catch (IOException exception) {
+			throw new IllegalStateException("Could not read the input stream", exception);
+		}
+		return read(ByteBuffer.wrap(outputStream.toByteArray()));
+	}
+
+	/**
+	 * Parses the given content
+	 *
+	 * @param content
+	 * @return the columns
+	 */
+	public ColumnarDataset parse(String content) {
+		return read(ByteBuffer.wrap(content.getBytes(charset)));
+	}
+
+	private ColumnarDataset read(ByteBuffer buffer) {
+		int start = hasByteOrderMark(buffer) ? 3 : 0;
+		int end = buffer.limit();
+
+		FieldScanner headerScanner = new FieldScanner(buffer, start, end);
+		String[] names = new String[0];
+		if (headerScanner.hasNextRecord()) {
+			names = readHeader(headerScanner);
+		}
+		int numberOfColumns = names.length;
+
+		int[] chunkOffsets = createChunkOffsets(buffer, headerScanner.position, end);
+		int numberOfChunks = chunkOffsets.length - 1;
+
+		// first pass: count the rows and infer the column types
+		int[][] chunkTypes = new int[numberOfChunks][];
+		boolean[][] chunkEmptyValues = new boolean[numberOfChunks][];
+		int[] chunkRowOffsets = new int[numberOfChunks + 1];
+		IntStream.range(0, numberOfChunks).parallel().forEach((chunk) -> {
+			int[] types = new int[numberOfColumns];
+			boolean[] hasEmptyValues = new boolean[numberOfColumns];
+			chunkRowOffsets[chunk + 1] = inferTypes(buffer, chunkOffsets[chunk], chunkOffsets[chunk + 1], types,
+					hasEmptyValues);
+			chunkTypes[chunk] = types;
+			chunkEmptyValues[chunk] = hasEmptyValues;
+		});
+		for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+			chunkRowOffsets[chunk + 1] += chunkRowOffsets[chunk];
+		}
+		int numberOfRows = chunkRowOffsets[numberOfChunks];
+		int[] types = mergeTypes(chunkTypes, chunkEmptyValues, numberOfColumns);
+
+		// second pass: fill the columns
+		Object[] columns = new Object[numberOfColumns];
+		for (int column = 0; column < numberOfColumns; column++) {
+			columns[column] = createColumn(types[column], numberOfRows);
+		}
+		IntStream.range(0, numberOfChunks).parallel().forEach((chunk) -> {
+			fillColumns(buffer, chunkOffsets[chunk], chunkOffsets[chunk + 1], chunkRowOffsets[chunk], types,
+					columns);
+		});
+
+		ColumnarDataset dataset = new ColumnarDataset(numberOfRows);
+		for (int column = 0; column < numberOfColumns; column++) {
+			addColumn(dataset, names[column], columns[column]);
+		}
+		return dataset;
+	}
+
+	private static boolean hasByteOrderMark(ByteBuffer buffer) {
+		return buffer.limit() >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB
+				&& buffer.get(2) == (byte) 0xBF;
+	}
+
+	private String[] readHeader(FieldScanner scanner) {
+		String[] names = new String[8];
+		int numberOfNames = 0;
+		do {
+			scanner.nextField();
+			if (numberOfNames == names.length) {
+				names = Arrays.copyOf(names, 2 * numberOfNames);
+			}
+			names[numberOfNames++] = decodeField(scanner);
+		} while (!scanner.isEndOfRecord);
+		return Arrays.copyOf(names, numberOfNames);
+	}
+
+	/**
+	 * Splits the content into chunks of about the same size; a chunk starts
+	 * after a line break that is not inside a quoted field
+	 */
+	private int[] createChunkOffsets(ByteBuffer buffer, int start, int end) {
+		int length = end - start;
+		int numberOfChunks = Math.max(1, Math.min(parallelism, length / 65536));
+		int[] offsets = new int[numberOfChunks + 1];
+		int numberOfOffsets = 1;
+		offsets[0] = start;
+
+		long chunkSize = length / numberOfChunks;
+		long nextTarget = start + chunkSize;
+		boolean isInsideQuotes = false;
+		for (int position = start; position < end && numberOfOffsets < numberOfChunks; position++) {
+			byte value = buffer.get(position);
+			if (value == QUOTE) {
+				isInsideQuotes = !isInsideQuotes;
+			} else if (value == LINE_FEED && !isInsideQuotes && position >= nextTarget) {
+				offsets[numberOfOffsets++] = position + 1;
+				nextTarget = start + numberOfOffsets * chunkSize;
+			}
+		}
+		offsets[numberOfOffsets++] = end;
+		return Arrays.copyOf(offsets, numberOfOffsets);
+	}
+
+	//#end region
+
+	//#region TYPES
+
+	/**
+	 * Infers the types of the columns of the given chunk and whether they
+	 * have empty values
+	 *
+	 * @return the number of rows of the chunk
+	 */
+	private int inferTypes(ByteBuffer buffer, int start, int end, int[] types, boolean[] hasEmptyValues) {
+		FieldScanner scanner = new FieldScanner(buffer, start, end);
+		int numberOfColumns = types.length;
+		int numberOfRows = 0;
+		while (scanner.hasNextRecord()) {
+			int column = 0;
+			do {
+				scanner.nextField();
+				if (column < numberOfColumns && isInferringTypes && types[column] != STRING) {
+					int type = getType(scanner);
+					if (type == EMPTY) {
+						hasEmptyValues[column] = true;
+					} else {
+						types[column] = Math.max(types[column], type);
+					}
+				}
+				column++;
+			} while (!scanner.isEndOfRecord);
+			for (; column < numberOfColumns; column++) {
+				hasEmptyValues[column] = true;
+			}
+			numberOfRows++;
+		}
+		return numberOfRows;
+	}
+
+	/**
+	 * Returns the type of the current field: EMPTY, INT (if the value is an
+	 * int32), DOUBLE (if the value is a decimal number) or STRING
+	 */
+	private static int getType(FieldScanner scanner) {
+		ByteBuffer buffer = scanner.buffer;
+		int start = scanner.fieldStart;
+		int end = scanner.fieldEnd;
+		if (start == end) {
+			return EMPTY;
+		}
+		if (scanner.hasEscapedQuotes) {
+			return STRING;
+		}
+
+		int position = start;
+		byte value = buffer.get(position);
+		if (value == '-' || value == '+') {
+			position++;
+		}
+		int numberOfDigits = 0;
+		long integer = 0;
+		while (position < end && isDigit(value = buffer.get(position))) {
+			integer = numberOfDigits < 11 ? 10 * integer + (value - '0') : integer;
+			numberOfDigits++;
+			position++;
+		}
+		if (position == end) {
+			if (numberOfDigits == 0) {
+				return STRING;
+			}
+			boolean isNegative = buffer.get(start) == '-';
+			long signedInteger = isNegative ? -integer : integer;
+			boolean isInt = numberOfDigits <= 10 && signedInteger >= Integer.MIN_VALUE
+					&& signedInteger <= Integer.MAX_VALUE;
+			return isInt ? INT : DOUBLE;
+		}
+
+		if (value == '.') {
+			position++;
+			while (position < end && isDigit(buffer.get(position))) {
+				numberOfDigits++;
+				position++;
+			}
+		}
+		if (numberOfDigits == 0) {
+			return STRING;
+		}
+		if (position < end) {
+			value = buffer.get(position);
+			if (value != 'e' && value != 'E') {
+				return STRING;
+			}
+			position++;
+			if (position < end && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+				position++;
+			}
+			int numberOfExponentDigits = 0;
+			while (position < end && isDigit(buffer.get(position))) {
+				numberOfExponentDigits++;
+				position++;
+			}
+			if (numberOfExponentDigits == 0 || position < end) {
+				return STRING;
+			}
+		}
+		return DOUBLE;
+	}
+
+	private static boolean isDigit(byte value) {
+		return value >= '0' && value <= '9';
+	}
+
+	private int[] mergeTypes(int[][] chunkTypes, boolean[][] chunkEmptyValues, int numberOfColumns) {
+		int[] types = new int[numberOfColumns];
+		boolean[] hasEmptyValues = new boolean[numberOfColumns];
+		for (int chunk = 0; chunk < chunkTypes.length; chunk++) {
+			for (int column = 0; column < numberOfColumns; column++) {
+				types[column] = Math.max(types[column], chunkTypes[chunk][column]);
+				hasEmptyValues[column] |= chunkEmptyValues[chunk][column];
+			}
+		}
+		for (int column = 0; column < numberOfColumns; column++) {
+			// columns without values are string columns of null values
+			boolean isString = !isInferringTypes || types[column] == EMPTY;
+			boolean isIntWithEmptyValues = types[column] == INT && hasEmptyValues[column];
+			if (isString) {
+				types[column] = STRING;
+			} else if (isIntWithEmptyValues) {
+				types[column] = DOUBLE;
+			}
+		}
+		return types;
+	}
+
+	//#end region
+
+	//#region COLUMNS
+
+	private static Object createColumn(int type, int numberOfRows) {
+		switch (type) {
+		case INT:
+			return new int[numberOfRows];
+		case DOUBLE:
+			return new double[numberOfRows];
+		default:
+			return new String[numberOfRows];
+		}
+	}
+
+	private static void addColumn(ColumnarDataset dataset, String name, Object column) {
+		if (column instanceof int[]) {
+			dataset.addColumn(name, (int[]) column);
+		} else if (column instanceof double[]) {
+			dataset.addColumn(name, (double[]) column);
+		} else {
+			dataset.addColumn(name, (String[]) column);
+		}
+	}
+
+	/**
+	 * Writes the values of the given chunk into the columns, starting at the
+	 * given row
+	 */
+	private void fillColumns(ByteBuffer buffer, int start, int end, int firstRow, int[] types, Object[] columns) {
+		FieldScanner scanner = new FieldScanner(buffer, start, end);
+		int numberOfColumns = types.length;
+		int row = firstRow;
+		while (scanner.hasNextRecord()) {
+			int column = 0;
+			do {
+				scanner.nextField();
+				if (column < numberOfColumns) {
+					fillValue(scanner, types[column], columns[column], row);
+				}
+				column++;
+			} while (!scanner.isEndOfRecord);
+			for (; column < numberOfColumns; column++) {
+				if (types[column] == DOUBLE) {
+					((double[]) columns[column])[row] = Double.NaN;
+				}
+			}
+			row++;
+		}
+	}
+
+	private void fillValue(FieldScanner scanner, int type, Object column, int row) {
+		boolean isEmpty = scanner.fieldStart == scanner.fieldEnd;
+		switch (type) {
+		case INT:
+			((int[]) column)[row] = (int) parseLong(scanner.buffer, scanner.fieldStart, scanner.fieldEnd);
+			break;
+		case DOUBLE:
+			double value = isEmpty ? Double.NaN : parseDouble(scanner);
+			((double[]) column)[row] = value;
+			break;
+		default:
+			((String[]) column)[row] = isEmpty ? null : decodeField(scanner);
+			break;
+		}
+	}
+
+	private static long parseLong(ByteBuffer buffer, int start, int end) {
+		int position = start;
+		byte sign = buffer.get(position);
+		boolean isNegative = sign == '-';
+		if (isNegative || sign == '+') {
+			position++;
+		}
+		long value = 0;
+		for (; position < end; position++) {
+			value = 10 * value + (buffer.get(position) - '0');
+		}
+		return isNegative ? -value : value;
+	}
+
+	/**
+	 * Parses a decimal number; numbers with up to 15 significant digits and
+	 * without exponent are computed exactly from their digits, other numbers
+	 * are parsed with {@link Double#parseDouble(String)}
+	 */
+	private double parseDouble(FieldScanner scanner) {
+		ByteBuffer buffer = scanner.buffer;
+		int start = scanner.fieldStart;
+		int end = scanner.fieldEnd;
+
+		int position = start;
+		byte sign = buffer.get(position);
+		boolean isNegative = sign == '-';
+		if (isNegative || sign == '+') {
+			position++;
+		}
+		long mantissa = 0;
+		int numberOfDigits = 0;
+		int numberOfDecimals = 0;
+		boolean isDecimal = false;
+		boolean isSimple = true;
+		for (; position < end && isSimple; position++) {
+			byte value = buffer.get(position);
+			if (isDigit(value)) {
+				mantissa = 10 * mantissa + (value - '0');
+				if (mantissa > 0) {
+					numberOfDigits++;
+				}
+				if (isDecimal) {
+					numberOfDecimals++;
+				}
+			} else if (value == '.' && !isDecimal) {
+				isDecimal = true;
+			} else {
+				isSimple = false;
+			}
+		}
+
+		boolean isExact = isSimple && numberOfDigits <= 15 && numberOfDecimals < POWERS_OF_TEN.length;
+		if (isExact) {
+			double value = mantissa / POWERS_OF_TEN[numberOfDecimals];
+			return isNegative ? -value : value;
+		}
+		return Double.parseDouble(decodeField(scanner));
+	}
+
+	/**
+	 * Decodes the current field. Short values are cached by their bytes, so
+	 * repeated values, e.g. categories, are only decoded once per chunk.
+	 */
+	private String decodeField(FieldScanner scanner) {
+		int length = scanner.copyField();
+		byte[] bytes = scanner.scratch;
+		if (scanner.hasEscapedQuotes) {
+			return new String(bytes, 0, length, charset).replace("\"\"", "\"");
+		}
+		if (length > MAX_CACHED_LENGTH) {
+			return new String(bytes, 0, length, charset);
+		}
+
+		int hash = length;
+		for (int index = 0; index < length; index++) {
+			hash = 31 * hash + bytes[index];
+		}
+		int slot = (hash ^ (hash >>> 16)) & (STRING_CACHE_SIZE - 1);
+		byte[] cachedBytes = scanner.cachedBytes[slot];
+		boolean isCached = cachedBytes != null && cachedBytes.length == length;
+		for (int index = 0; index < length && isCached; index++) {
+			isCached = cachedBytes[index] == bytes[index];
+		}
+		if (isCached) {
+			return scanner.cachedStrings[slot];
+		}
+		String value = new String(bytes, 0, length, charset);
+		scanner.cachedBytes[slot] = Arrays.copyOf(bytes, length);
+		scanner.cachedStrings[slot] = value;
+		return value;
+	}
+
+	//#end region
+
+	//#end region
+
+	//#region FIELD SCANNER
+
+	/**
+	 * Finds the fields of the records in a part of the content
+	 */
+	private class FieldScanner {
+
+		final ByteBuffer buffer;
+
+		/**
+		 * A view of the buffer for bulk copies
+		 */
+		final ByteBuffer view;
+
+		final int end;
+
+		byte[] scratch = new byte[256];
+
+		final byte[][] cachedBytes = new byte[STRING_CACHE_SIZE][];
+
+		final String[] cachedStrings = new String[STRING_CACHE_SIZE];
+
+		int position;
+
+		int fieldStart;
+
+		int fieldEnd;
+
+		boolean hasEscapedQuotes;
+
+		boolean isEndOfRecord = true;
+
+		FieldScanner(ByteBuffer buffer, int start, int end) {
+			this.buffer = buffer;
+			this.view = buffer.duplicate();
+			this.position = start;
+			this.end = end;
+		}
+
+		/**
+		 * Skips empty lines and returns true if there is another record
+		 */
+		boolean hasNextRecord() {
+			while (position < end) {
+				byte value = buffer.get(position);
+				boolean isLineBreak = value == LINE_FEED || value == CARRIAGE_RETURN;
+				if (!isLineBreak) {
+					return true;
+				}
+				position++;
+			}
+			return false;
+		}
+
+		/**
+		 * Finds the next field of the current record and sets isEndOfRecord
+		 * if it is the last field
+		 */
+		void nextField() {
+			hasEscapedQuotes = false;
+			int index = position;
+			boolean isQuoted = index < end && buffer.get(index) == QUOTE;
+			if (isQuoted) {
+				index++;
+				fieldStart = index;
+				while (index < end) {
+					if (buffer.get(index) == QUOTE) {
+						boolean isEscapedQuote = index + 1 < end && buffer.get(index + 1) == QUOTE;
+						if (!isEscapedQuote) {
+							break;
+						}
+						hasEscapedQuotes = true;
+						index++;
+					}
+					index++;
+				}
+				fieldEnd = index;
+				index = Math.min(index + 1, end);
+				// characters between the closing quote and the delimiter are
+				// ignored
+				while (index < end && !isSeparator(buffer.get(index))) {
+					index++;
+				}
+			} else {
+				fieldStart = index;
+				while (index < end && !isSeparator(buffer.get(index))) {
+					index++;
+				}
+				fieldEnd = index;
+			}
+
+			if (index >= end) {
+				isEndOfRecord = true;
+				position = end;
+				return;
+			}
+			byte separator = buffer.get(index);
+			isEndOfRecord = separator != delimiter;
+			index++;
+			boolean isWindowsLineBreak = separator == CARRIAGE_RETURN && index < end
+					&& buffer.get(index) == LINE_FEED;
+			if (isWindowsLineBreak) {
+				index++;
+			}
+			position = index;
+		}
+
+		/**
+		 * Copies the current field into the scratch array
+		 *
+		 * @return the length of the field
+		 */
+		int copyField() {
+			int length = fieldEnd - fieldStart;
+			if (scratch.length < length) {
+				scratch = new byte[Math.max(length, 2 * scratch.length)];
+			}
+			view.position(fieldStart);
+			view.get(scratch, 0, length);
+			return length;
+		}
+
+		private boolean isSeparator(byte value) {
+			return value == delimiter || value == LINE_FEED || value == CARRIAGE_RETURN;
+		}
+
+	}
+
+	//#end region
+
+}
@@ -0,0 +1,35 @@
+package org.treez.javafxd3.d3.functions;
+
+import org.treez.javafxd3.d3.arrays.Array;
+import org.treez.javafxd3.d3.core.Selection;
+
+/**
+ * A vectorized alternative to {@link DataFunction}: the function is called
+ * only once for all elements of a {@link Selection} (or all nodes, links or
+ * vertices of a layout) instead of once per element. It receives the data of
+ * all elements and their indices and returns one result per element. The
+ * results are applied to the elements by a single JavaScript loop.
+ * <p>
+ * Since the function is not called by the JavaScript engine directly, it may
+ * be implemented as lambda expression or anonymous class.
+ *
+ * @param <R>
+ *            the type of the results
+ */
+@FunctionalInterface
+public interface BatchDataFunction<R> {
+
+	/**
+	 * Computes the results for all elements
+	 *
+	 * @param data
+	 *            the data of all elements, in the order of the elements
+	 * @param indices
+	 *            the index of each element in its group (for a selection) or
+	 *            in the data array (for layouts)
+	 * @return an array with one result per element. Numbers, strings and
+	 *         booleans are transferred in bulk.
+	 */
+	public R[] apply(Array<Object> data, int[] indices);
+
+}
@@ -0,0 +1,29 @@
+package org.treez.javafxd3.d3.functions;
+
+import org.treez.javafxd3.d3.core.EnteringSelection;
+import org.treez.javafxd3.d3.core.Selection;
+import org.treez.javafxd3.d3.core.UpdateSelection;
+
+/**
+ * A function that is applied to the chunks of a progressive render, see
+ * {@link EnteringSelection#appendProgressively} and
+ * {@link UpdateSelection#renderProgressively}.
+ */
+public interface ChunkFunction {
+
+	/**
+	 * Invoked once for each chunk of the rendered elements, e.g. to set their
+	 * attributes.
+	 * <p>
+	 * Note that the index that is passed to the operator functions of the
+	 * chunk is the index within the chunk. For selections with a single group,
+	 * the index of the datum is the given offset plus the index within the
+	 * chunk.
+	 *
+	 * @param chunk
+	 *            a selection that contains the elements of the chunk
+	 * @param offset
+	 *            the number of elements of the previous chunks
+	 */
+	void apply(Selection chunk, int offset);
+}
@@ -0,0 +1,74 @@
+package org.treez.javafxd3.d3.functions.data.wrapper;
+
+import org.treez.javafxd3.d3.arrays.Array;
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+import org.treez.javafxd3.d3.functions.BatchDataFunction;
+
+/**
+ * Exposes a BatchDataFunction to the JavaScript engine. The method applyBatch
+ * is called once by the helper functions of __jfxd3 (e.g.
+ * __jfxd3.batchValueFunction) with the data of all elements. The wrapped
+ * function itself may be a lambda expression since it is called from Java.
+ */
+public class BatchDataFunctionWrapper<R> {
+
+	//#region ATTRIBUTES
+
+	private JsEngine engine;
+
+	private BatchDataFunction<R> batchFunction;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public BatchDataFunctionWrapper(JsEngine engine, BatchDataFunction<R> batchFunction) {
+		this.engine = engine;
+		this.batchFunction = batchFunction;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Applies the wrapped function and returns the results as JavaScript array
+	 *
+	 * @param data
+	 *            the JavaScript array of data
+	 * @param encodedIndices
+	 *            the indices as base64 encoded int32 values
+	 * @return the unwrapped JavaScript array of results
+	 */
+	public Object applyBatch(Object data, String encodedIndices) {
+
+		JsObject jsData = (JsObject) engine.toJsObjectIfNotSimpleType(data);
+		Array<Object> dataArray = new Array<>(engine, jsData);
+		int[] indices = ArrayTransfer.decodeInts(encodedIndices);
+
+		R[] results;
+		try {
+			results = batchFunction.apply(dataArray, indices);
+		} catch (Exception exception) {
+			String message = "Could not execute wrapped batch data function!";
+			System.out.println("BatchDataFunctionWrapper: " + message);
+			exception.printStackTrace();
+			throw new IllegalStateException(message, exception);
+		}
+
+		boolean hasResultForEachElement = results != null && results.length == indices.length;
+		if (!hasResultForEachElement) {
+			String message = "The batch data function must return one result for each of the " + indices.length
+					+ " elements.";
+			throw new IllegalStateException(message);
+		}
+
+		JsObject jsResults = ArrayTransfer.toJsArray(engine, results);
+		return jsResults.unwrap();
+	}
+
+	//#end region
+
+}
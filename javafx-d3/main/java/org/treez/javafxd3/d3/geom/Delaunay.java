@@ -0,0 +1,831 @@
+package org.treez.javafxd3.d3.geom;
+
+import java.util.Arrays;
+
+/**
+ * Delaunay triangulation of points that is computed in Java with the sweep
+ * hull algorithm (as in the Delaunator library), in O(n log n). In contrast to
+ * {@link Voronoi#triangles(Object[])} and {@link Voronoi#links(Object[])} the
+ * results are flat int arrays of point indices:
+ * <ul>
+ * <li>{@link #getTriangles()}: three point indices per triangle</li>
+ * <li>{@link #getHalfedges()}: for each edge (index into the triangles), the
+ * index of the opposite edge of the adjacent triangle or -1 on the hull</li>
+ * <li>{@link #getHull()}: the indices of the points on the convex hull</li>
+ * </ul>
+ * If all points are collinear there are no triangles and the hull contains
+ * the points in order along the line. Of coincident points only one is
+ * triangulated.
+ * <p>
+ * The Voronoi cells can be created with {@link #voronoi(double, double,
+ * double, double)}.
+ */
+public class Delaunay {
+
+	//#region ATTRIBUTES
+
+	private static final double EPSILON = Math.pow(2, -52);
+
+	private final double[] coordinates;
+
+	private final int numberOfPoints;
+
+	private int[] triangles;
+
+	private int[] halfedges;
+
+	private int[] hull;
+
+	private int numberOfTriangleEdges;
+
+	private int[] edgeStack = new int[512];
+
+	private int hashSize;
+
+	private int[] hullPrevious;
+
+	private int[] hullNext;
+
+	private int[] hullTriangle;
+
+	private int[] hullHash;
+
+	private int hullStart;
+
+	private double centerX;
+
+	private double centerY;
+
+	private int[] neighborOffsets;
+
+	private int[] neighbors;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * Triangulates the given points
+	 *
+	 * @param x
+	 * @param y
+	 */
+	public Delaunay(double[] x, double[] y) {
+		if (x.length != y.length) {
+			String message = "The number of x values (" + x.length + ") and y values (" + y.length
+					+ ") must be equal";
+			throw new IllegalStateException(message);
+		}
+		numberOfPoints = x.length;
+		coordinates = new double[2 * numberOfPoints];
+		for (int index = 0; index < numberOfPoints; index++) {
+			coordinates[2 * index] = x[index];
+			coordinates[2 * index + 1] = y[index];
+		}
+		triangulate();
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	//#region TRIANGULATION
+
+	private void triangulate() {
+		int n = numberOfPoints;
+		int maxNumberOfTriangles = Math.max(2 * n - 5, 0);
+		triangles = new int[3 * maxNumberOfTriangles];
+		halfedges = new int[3 * maxNumberOfTriangles];
+		hashSize = (int) Math.ceil(Math.sqrt(n));
+		hullPrevious = new int[n];
+		hullNext = new int[n];
+		hullTriangle = new int[n];
+		hullHash = new int[Math.max(hashSize, 1)];
+
+		if (n == 0) {
+			hull = new int[0];
+			return;
+		}
+
+		int[] ids = new int[n];
+		double[] distances = new double[n];
+
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int index = 0; index < n; index++) {
+			double x = coordinates[2 * index];
+			double y = coordinates[2 * index + 1];
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+			ids[index] = index;
+		}
+		double boundsCenterX = (minX + maxX) / 2;
+		double boundsCenterY = (minY + maxY) / 2;
+
+		// seed point close to the center
+		int i0 = 0;
+		double minDistance = Double.POSITIVE_INFINITY;
+		for (int index = 0; index < n; index++) {
+			double distance = squaredDistance(boundsCenterX, boundsCenterY, coordinates[2 * index],
+					coordinates[2 * index + 1]);
+			if (distance < minDistance) {
+				i0 = index;
+				minDistance = distance;
+			}
+		}
+		double i0x = coordinates[2 * i0];
+		double i0y = coordinates[2 * i0 + 1];
+
+		// point closest to the seed
+		int i1 = -1;
+		minDistance = Double.POSITIVE_INFINITY;
+		for (int index = 0; index < n; index++) {
+			if (index == i0) {
+				continue;
+			}
+			double distance = squaredDistance(i0x, i0y, coordinates[2 * index], coordinates[2 * index + 1]);
+			if (distance < minDistance && distance > 0) {
+				i1 = index;
+				minDistance = distance;
+			}
+		}
+
+		// third point that creates the smallest circumcircle
+		int i2 = -1;
+		double minRadius = Double.POSITIVE_INFINITY;
+		if (i1 >= 0) {
+			double i1x = coordinates[2 * i1];
+			double i1y = coordinates[2 * i1 + 1];
+			for (int index = 0; index < n; index++) {
+				if (index == i0 || index == i1) {
+					continue;
+				}
+				double radius = circumradius(i0x, i0y, i1x, i1y, coordinates[2 * index],
+						coordinates[2 * index + 1]);
+				if (radius < minRadius) {
+					i2 = index;
+					minRadius = radius;
+				}
+			}
+		}
+
+		boolean isCollinear = minRadius == Double.POSITIVE_INFINITY;
+		if (isCollinear) {
+			createCollinearHull(ids, distances);
+			return;
+		}
+
+		double i1x = coordinates[2 * i1];
+		double i1y = coordinates[2 * i1 + 1];
+		double i2x = coordinates[2 * i2];
+		double i2y = coordinates[2 * i2 + 1];
+
+		// orient the seed triangle
+		if (orient(i0x, i0y, i1x, i1y, i2x, i2y)) {
+			int swap = i1;
+			i1 = i2;
+			i2 = swap;
+			double swapX = i1x;
+			double swapY = i1y;
+			i1x = i2x;
+			i1y = i2y;
+			i2x = swapX;
+			i2y = swapY;
+		}
+
+		double[] center = circumcenter(i0x, i0y, i1x, i1y, i2x, i2y);
+		centerX = center[0];
+		centerY = center[1];
+
+		for (int index = 0; index < n; index++) {
+			distances[index] = squaredDistance(coordinates[2 * index], coordinates[2 * index + 1], centerX,
+					centerY);
+		}
+
+		// sort the points by distance from the seed triangle circumcenter
+		quicksort(ids, distances, 0, n - 1);
+
+		hullStart = i0;
+		int hullSize = 3;
+
+		hullNext[i0] = hullPrevious[i2] = i1;
+		hullNext[i1] = hullPrevious[i0] = i2;
+		hullNext[i2] = hullPrevious[i1] = i0;
+
+		hullTriangle[i0] = 0;
+		hullTriangle[i1] = 1;
+		hullTriangle[i2] = 2;
+
+		Arrays.fill(hullHash, -1);
+		hullHash[hashKey(i0x, i0y)] = i0;
+		hullHash[hashKey(i1x, i1y)] = i1;
+		hullHash[hashKey(i2x, i2y)] = i2;
+
+		numberOfTriangleEdges = 0;
+		addTriangle(i0, i1, i2, -1, -1, -1);
+
+		double previousX = 0;
+		double previousY = 0;
+		for (int k = 0; k < n; k++) {
+			int i = ids[k];
+			double x = coordinates[2 * i];
+			double y = coordinates[2 * i + 1];
+
+			// skip near-duplicate points
+			boolean isDuplicate = k > 0 && Math.abs(x - previousX) <= EPSILON
+					&& Math.abs(y - previousY) <= EPSILON;
+			if (isDuplicate) {
+				continue;
+			}
+			previousX = x;
+			previousY = y;
+
+			// skip seed triangle points
+			if (i == i0 || i == i1 || i == i2) {
+				continue;
+			}
+
+			// find a visible edge on the convex hull using the edge hash
+			int start = 0;
+			int key = hashKey(x, y);
+			for (int j = 0; j < hashSize; j++) {
+				start = hullHash[(key + j) % hashSize];
+				if (start != -1 && start != hullNext[start]) {
+					break;
+				}
+			}
+
+			start = hullPrevious[start];
+			int e = start;
+			int q = hullNext[e];
+			while (!orient(x, y, coordinates[2 * e], coordinates[2 * e + 1], coordinates[2 * q],
+					coordinates[2 * q + 1])) {
+				e = q;
+				if (e == start) {
+					e = -1;
+					break;
+				}
+				q = hullNext[e];
+			}
+
+			// likely a near-duplicate point
+			if (e == -1) {
+				continue;
+			}
+
+			// add the first triangle from the point
+			int t = addTriangle(e, i, hullNext[e], -1, -1, hullTriangle[e]);
+
+			// recursively flip triangles from the point until they satisfy the
+			// Delaunay condition
+			hullTriangle[i] = legalize(t + 2);
+			hullTriangle[e] = t;
+			hullSize++;
+
+			// walk forward through the hull, adding more triangles and flipping
+			// recursively
+			int next = hullNext[e];
+			q = hullNext[next];
+			while (orient(x, y, coordinates[2 * next], coordinates[2 * next + 1], coordinates[2 * q],
+					coordinates[2 * q + 1])) {
+				t = addTriangle(next, i, q, hullTriangle[i], -1, hullTriangle[next]);
+				hullTriangle[i] = legalize(t + 2);
+				// mark as removed
+				hullNext[next] = next;
+				hullSize--;
+				next = q;
+				q = hullNext[next];
+			}
+
+			// walk backward from the other side, adding more triangles and
+			// flipping
+			if (e == start) {
+				q = hullPrevious[e];
+				while (orient(x, y, coordinates[2 * q], coordinates[2 * q + 1], coordinates[2 * e],
+						coordinates[2 * e + 1])) {
+					t = addTriangle(q, i, e, -1, hullTriangle[e], hullTriangle[q]);
+					legalize(t + 2);
+					hullTriangle[q] = t;
+					// mark as removed
+					hullNext[e] = e;
+					hullSize--;
+					e = q;
+					q = hullPrevious[e];
+				}
+			}
+
+			// update the hull indices
+			hullStart = hullPrevious[i] = e;
+			hullNext[e] = hullPrevious[next] = i;
+			hullNext[i] = next;
+
+			// save the two new edges in the hash table
+			hullHash[hashKey(x, y)] = i;
+			hullHash[hashKey(coordinates[2 * e], coordinates[2 * e + 1])] = e;
+		}
+
+		hull = new int[hullSize];
+		int e = hullStart;
+		for (int index = 0; index < hullSize; index++) {
+			hull[index] = e;
+			e = hullNext[e];
+		}
+
+		triangles = Arrays.copyOf(triangles, numberOfTriangleEdges);
+		halfedges = Arrays.copyOf(halfedges, numberOfTriangleEdges);
+
+		// the temporary arrays are not needed any more
+		hullPrevious = null;
+		hullNext = null;
+		hullTriangle = null;
+		hullHash = null;
+		edgeStack = null;
+	}
+
+	/**
+	 * Orders collinear points by their distance from the first point
+	 */
+	private void createCollinearHull(int[] ids, double[] distances) {
+		int n = numberOfPoints;
+		for (int index = 0; index < n; index++) {
+			double dx = coordinates[2 * index] - coordinates[0];
+			double dy = coordinates[2 * index + 1] - coordinates[1];
+			distances[index] = dx != 0 ? dx : dy;
+		}
+		quicksort(ids, distances, 0, n - 1);
+
+		int[] collinearHull = new int[n];
+		int hullSize = 0;
+		double previousDistance = Double.NEGATIVE_INFINITY;
+		for (int index = 0; index < n; index++) {
+			int id = ids[index];
+			if (distances[id] > previousDistance) {
+				collinearHull[hullSize++] = id;
+				previousDistance = distances[id];
+			}
+		}
+		hull = Arrays.copyOf(collinearHull, hullSize);
+		triangles = new int[0];
+		halfedges = new int[0];
+	}
+
+	private int legalize(int a) {
+		int stackSize = 0;
+		int ar = 0;
+
+		// recursion eliminated with a fixed-size stack
+		while (true) {
+			int b = halfedges[a];
+
+			/*
+			 * if the pair of triangles doesn't satisfy the Delaunay condition
+			 * (p1 is inside the circumcircle of [p0, pl, pr]), flip them, then
+			 * do the same check/flip recursively for the new pair of triangles
+			 */
+			int a0 = a - a % 3;
+			ar = a0 + (a + 2) % 3;
+
+			// convex hull edge
+			if (b == -1) {
+				if (stackSize == 0) {
+					break;
+				}
+				a = edgeStack[--stackSize];
+				continue;
+			}
+
+			int b0 = b - b % 3;
+			int al = a0 + (a + 1) % 3;
+			int bl = b0 + (b + 2) % 3;
+
+			int p0 = triangles[ar];
+			int pr = triangles[a];
+			int pl = triangles[al];
+			int p1 = triangles[bl];
+
+			boolean isIllegal = inCircle(coordinates[2 * p0], coordinates[2 * p0 + 1], coordinates[2 * pr],
+					coordinates[2 * pr + 1], coordinates[2 * pl], coordinates[2 * pl + 1], coordinates[2 * p1],
+					coordinates[2 * p1 + 1]);
+
+			if (isIllegal) {
+				triangles[a] = p1;
+				triangles[b] = p0;
+
+				int hbl = halfedges[bl];
+
+				// edge swapped on the other side of the hull (rare); fix the
+				// halfedge reference
+				if (hbl == -1) {
+					int e = hullStart;
+					do {
+						if (hullTriangle[e] == bl) {
+							hullTriangle[e] = a;
+							break;
+						}
+						e = hullPrevious[e];
+					} while (e != hullStart);
+				}
+				link(a, hbl);
+				link(b, halfedges[ar]);
+				link(ar, bl);
+
+				int br = b0 + (b + 1) % 3;
+
+				if (stackSize == edgeStack.length) {
+					edgeStack = Arrays.copyOf(edgeStack, 2 * edgeStack.length);
+				}
+				edgeStack[stackSize++] = br;
+			} else {
+				if (stackSize == 0) {
+					break;
+				}
+				a = edgeStack[--stackSize];
+			}
+		}
+
+		return ar;
+	}
+
+	private void link(int a, int b) {
+		halfedges[a] = b;
+		if (b != -1) {
+			halfedges[b] = a;
+		}
+	}
+
+	/**
+	 * Adds a new triangle given vertex indices and adjacent half-edge ids
+	 */
+	private int addTriangle(int i0, int i1, int i2, int a, int b, int c) {
+		int t = numberOfTriangleEdges;
+
+		triangles[t] = i0;
+		triangles[t + 1] = i1;
+		triangles[t + 2] = i2;
+
+		link(t, a);
+		link(t + 1, b);
+		link(t + 2, c);
+
+		numberOfTriangleEdges += 3;
+		return t;
+	}
+
+	private int hashKey(double x, double y) {
+		return (int) Math.floor(pseudoAngle(x - centerX, y - centerY) * hashSize) % hashSize;
+	}
+
+	/**
+	 * Monotonically increases with the real angle, but doesn't need expensive
+	 * trigonometry
+	 */
+	private static double pseudoAngle(double dx, double dy) {
+		double p = dx / (Math.abs(dx) + Math.abs(dy));
+		// [0..1]
+		return (dy > 0 ? 3 - p : 1 + p) / 4;
+	}
+
+	private static double squaredDistance(double ax, double ay, double bx, double by) {
+		double dx = ax - bx;
+		double dy = ay - by;
+		return dx * dx + dy * dy;
+	}
+
+	private static boolean orient(double px, double py, double qx, double qy, double rx, double ry) {
+		return (qy - py) * (rx - qx) - (qx - px) * (ry - qy) < 0;
+	}
+
+	private static boolean inCircle(double ax, double ay, double bx, double by, double cx, double cy, double px,
+			double py) {
+		double dx = ax - px;
+		double dy = ay - py;
+		double ex = bx - px;
+		double ey = by - py;
+		double fx = cx - px;
+		double fy = cy - py;
+
+		double ap = dx * dx + dy * dy;
+		double bp = ex * ex + ey * ey;
+		double cp = fx * fx + fy * fy;
+
+		return dx * (ey * cp - bp * fy) - dy * (ex * cp - bp * fx) + ap * (ex * fy - ey * fx) < 0;
+	}
+
+	private static double circumradius(double ax, double ay, double bx, double by, double cx, double cy) {
+		double dx = bx - ax;
+		double dy = by - ay;
+		double ex = cx - ax;
+		double ey = cy - ay;
+
+		double bl = dx * dx + dy * dy;
+		double cl = ex * ex + ey * ey;
+		double d = 0.5 / (dx * ey - dy * ex);
+
+		double x = (ey * bl - dy * cl) * d;
+		double y = (dx * cl - ex * bl) * d;
+
+		return x * x + y * y;
+	}
+
+	private static double[] circumcenter(double ax, double ay, double bx, double by, double cx, double cy) {
+		double dx = bx - ax;
+		double dy = by - ay;
+		double ex = cx - ax;
+		double ey = cy - ay;
+
+		double bl = dx * dx + dy * dy;
+		double cl = ex * ex + ey * ey;
+		double d = 0.5 / (dx * ey - dy * ex);
+
+		double x = ax + (ey * bl - dy * cl) * d;
+		double y = ay + (dx * cl - ex * bl) * d;
+
+		return new double[] { x, y };
+	}
+
+	private static void quicksort(int[] ids, double[] distances, int left, int right) {
+		if (right - left <= 20) {
+			for (int i = left + 1; i <= right; i++) {
+				int temp = ids[i];
+				double tempDistance = distances[temp];
+				int j = i - 1;
+				while (j >= left && distances[ids[j]] > tempDistance) {
+					ids[j + 1] = ids[j--];
+				}
+				ids[j + 1] = temp;
+			}
+			return;
+		}
+
+		int median = (left + right) >> 1;
+		int i = left + 1;
+		int j = right;
+		swap(ids, median, i);
+		if (distances[ids[left]] > distances[ids[right]]) {
+			swap(ids, left, right);
+		}
+		if (distances[ids[i]] > distances[ids[right]]) {
+			swap(ids, i, right);
+		}
+		if (distances[ids[left]] > distances[ids[i]]) {
+			swap(ids, left, i);
+		}
+
+		int temp = ids[i];
+		double tempDistance = distances[temp];
+		while (true) {
+			do {
+				i++;
+			} while (distances[ids[i]] < tempDistance);
+			do {
+				j--;
+			} while (distances[ids[j]] > tempDistance);
+			if (j < i) {
+				break;
+			}
+			swap(ids, i, j);
+		}
+		ids[left + 1] = ids[j];
+		ids[j] = temp;
+
+		if (right - i + 1 >= j - left) {
+			quicksort(ids, distances, i, right);
+			quicksort(ids, distances, left, j - 1);
+		} else {
+			quicksort(ids, distances, left, j - 1);
+			quicksort(ids, distances, i, right);
+		}
+	}
+
+	private static void swap(int[] values, int first, int second) {
+		int temp = values[first];
+		values[first] = values[second];
+		values[second] = temp;
+	}
+
+	//#end region
+
+	//#region NEIGHBORS
+
+	/**
+	 * Computes the neighbors of all points in compressed form: the neighbors
+	 * of point i are stored in neighbors[neighborOffsets[i]] to
+	 * neighbors[neighborOffsets[i + 1] - 1]
+	 */
+	private synchronized void computeNeighbors() {
+		if (neighborOffsets != null) {
+			return;
+		}
+
+		int[] links = getLinks();
+		int[] offsets = new int[numberOfPoints + 1];
+		for (int index = 0; index < links.length; index++) {
+			offsets[links[index] + 1]++;
+		}
+		for (int index = 0; index < numberOfPoints; index++) {
+			offsets[index + 1] += offsets[index];
+		}
+
+		int[] positions = Arrays.copyOf(offsets, numberOfPoints);
+		int[] neighborIndices = new int[links.length];
+		for (int index = 0; index < links.length; index += 2) {
+			int source = links[index];
+			int target = links[index + 1];
+			neighborIndices[positions[source]++] = target;
+			neighborIndices[positions[target]++] = source;
+		}
+
+		neighbors = neighborIndices;
+		neighborOffsets = offsets;
+	}
+
+	/**
+	 * Returns the index of the point that is closest to the given position.
+	 * The search walks from the given start point along the edges of the
+	 * triangulation to neighbors that are closer to the position, so it is
+	 * fast if the start point is close to the result (e.g. the result of the
+	 * previous search for a moving mouse).
+	 *
+	 * @param x
+	 * @param y
+	 * @param startPoint
+	 *            the index of the point at which the search starts
+	 * @return the index of the closest point or -1 if there are no points
+	 */
+	public int find(double x, double y, int startPoint) {
+		if (numberOfPoints == 0) {
+			return -1;
+		}
+		computeNeighbors();
+
+		int current = startPoint;
+		boolean isUntriangulated = neighborOffsets[current] == neighborOffsets[current + 1] && numberOfPoints > 1;
+		if (isUntriangulated) {
+			current = hull[0];
+		}
+
+		double currentDistance = squaredDistance(x, y, coordinates[2 * current], coordinates[2 * current + 1]);
+		while (true) {
+			int closest = current;
+			for (int index = neighborOffsets[current]; index < neighborOffsets[current + 1]; index++) {
+				int neighbor = neighbors[index];
+				double distance = squaredDistance(x, y, coordinates[2 * neighbor], coordinates[2 * neighbor + 1]);
+				if (distance < currentDistance) {
+					closest = neighbor;
+					currentDistance = distance;
+				}
+			}
+			if (closest == current) {
+				return current;
+			}
+			current = closest;
+		}
+	}
+
+	//#end region
+
+	//#region VORONOI
+
+	/**
+	 * Creates the Voronoi cells of the points, clipped to the given extent
+	 *
+	 * @param x1
+	 *            the left side of the extent
+	 * @param y1
+	 *            the top side of the extent
+	 * @param x2
+	 *            the right side of the extent
+	 * @param y2
+	 *            the bottom side of the extent
+	 * @return
+	 */
+	public VoronoiDiagram voronoi(double x1, double y1, double x2, double y2) {
+		return new VoronoiDiagram(this, x1, y1, x2, y2);
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	public int getNumberOfPoints() {
+		return numberOfPoints;
+	}
+
+	public double getX(int point) {
+		return coordinates[2 * point];
+	}
+
+	public double getY(int point) {
+		return coordinates[2 * point + 1];
+	}
+
+	/**
+	 * Returns three point indices for each triangle
+	 *
+	 * @return
+	 */
+	public int[] getTriangles() {
+		return triangles;
+	}
+
+	/**
+	 * Returns the index of the opposite half edge for each half edge of
+	 * {@link #getTriangles()} or -1 for edges on the hull
+	 *
+	 * @return
+	 */
+	public int[] getHalfedges() {
+		return halfedges;
+	}
+
+	/**
+	 * Returns the indices of the points on the convex hull
+	 *
+	 * @return
+	 */
+	public int[] getHull() {
+		return hull;
+	}
+
+	/**
+	 * Returns the edges of the triangulation as pairs of source and target
+	 * point indices; each edge is contained once. Like
+	 * {@link Voronoi#links(Object[])}.
+	 *
+	 * @return
+	 */
+	public int[] getLinks() {
+		boolean hasTriangles = triangles.length > 0;
+		if (!hasTriangles) {
+			// collinear points are linked along the line
+			int numberOfLinks = Math.max(hull.length - 1, 0);
+			int[] links = new int[2 * numberOfLinks];
+			for (int index = 0; index < numberOfLinks; index++) {
+				links[2 * index] = hull[index];
+				links[2 * index + 1] = hull[index + 1];
+			}
+			return links;
+		}
+
+		int numberOfLinks = 0;
+		for (int edge = 0; edge < halfedges.length; edge++) {
+			if (edge > halfedges[edge]) {
+				numberOfLinks++;
+			}
+		}
+		int[] links = new int[2 * numberOfLinks];
+		int offset = 0;
+		for (int edge = 0; edge < halfedges.length; edge++) {
+			if (edge > halfedges[edge]) {
+				int nextEdge = edge % 3 == 2 ? edge - 2 : edge + 1;
+				links[offset++] = triangles[edge];
+				links[offset++] = triangles[nextEdge];
+			}
+		}
+		return links;
+	}
+
+	/**
+	 * Returns the indices of the points that share an edge with the given
+	 * point
+	 *
+	 * @param point
+	 * @return
+	 */
+	public int[] getNeighbors(int point) {
+		computeNeighbors();
+		return Arrays.copyOfRange(neighbors, neighborOffsets[point], neighborOffsets[point + 1]);
+	}
+
+	/**
+	 * Returns the neighbors of all points; see
+	 * {@link #getNeighborOffsets()}
+	 *
+	 * @return
+	 */
+	int[] getNeighbors() {
+		computeNeighbors();
+		return neighbors;
+	}
+
+	/**
+	 * Returns the offsets of the neighbors of the points in
+	 * {@link #getNeighbors()}: the neighbors of the point i are stored from
+	 * offsets[i] to offsets[i + 1] - 1.
+	 *
+	 * @return
+	 */
+	int[] getNeighborOffsets() {
+		computeNeighbors();
+		return neighborOffsets;
+	}
+
+	//#end region
+
+	//#end region
+
+}
@@ -3,9 +3,11 @@ package org.treez.javafxd3.d3.geom;
 import java.util.List;
 
 import org.treez.javafxd3.d3.arrays.Array;
+import org.treez.javafxd3.d3.functions.BatchDataFunction;
 import org.treez.javafxd3.d3.functions.DataFunction;
 import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -40,19 +42,7 @@ public class Hull extends JavaScriptObject {
 	 * @return the current hull
 	 */
 	public Hull x(DataFunction<Double> xAccessor) {
-
-		assertObjectIsNotAnonymous(xAccessor);
-
-		String accessorName = createNewTemporaryInstanceName();
-
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(accessorName, xAccessor);
-
-		String command = "this.x(function(d, i) { return d3." + accessorName + ".apply(this,d,i); });";
-
-		JsObject result = evalForJsObject(command);
-		
-	
+		JsObject result = callWithPermanentCallback("x", CallbackDispatcher.DATA_FUNCTION, xAccessor);
 		if (result == null) {
 			return null;
 		}
@@ -71,19 +61,43 @@ public class Hull extends JavaScriptObject {
 	 */
 
 	public Hull y(DataFunction<Double> yAccessor) {
+		JsObject result = callWithPermanentCallback("y", CallbackDispatcher.DATA_FUNCTION, yAccessor);
+		if (result == null) {
+			return null;
+		}
+		return new Hull(engine, result);
+	}
 
-		assertObjectIsNotAnonymous(yAccessor);
-
-		String accessorName = createNewTemporaryInstanceName();
-
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(accessorName, yAccessor);
-
-		String command = "this.y(function(d, i) { return d3." + accessorName + ".apply(this,d,i); });";
+	/**
+	 * Sets the x-coordinate accessor as batch function that is called only
+	 * once with all vertices when the hull is applied (instead of once per
+	 * vertex).
+	 * 
+	 * @param xAccessor
+	 *            the x accessor
+	 * @return the current hull
+	 */
+	public Hull x(BatchDataFunction<Double> xAccessor) {
+		JsObject accessor = createBatchAccessor(xAccessor);
+		JsObject result = callReplacingFunction("x", accessor);
+		if (result == null) {
+			return null;
+		}
+		return new Hull(engine, result);
+	}
 
-		JsObject result = evalForJsObject(command);
-		
-		
+	/**
+	 * Sets the y-coordinate accessor as batch function that is called only
+	 * once with all vertices when the hull is applied (instead of once per
+	 * vertex).
+	 * 
+	 * @param yAccessor
+	 *            the y accessor
+	 * @return the current hull
+	 */
+	public Hull y(BatchDataFunction<Double> yAccessor) {
+		JsObject accessor = createBatchAccessor(yAccessor);
+		JsObject result = callReplacingFunction("y", accessor);
 		if (result == null) {
 			return null;
 		}
@@ -105,16 +119,7 @@ public class Hull extends JavaScriptObject {
 	 */
 	public <T> Array<T> apply(Array<T> vertices) {
 		JsObject arrayObj = vertices.getJsObject();
-
-		String tempVarName = createNewTemporaryInstanceName();
-
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(tempVarName, arrayObj);
-
-		String command = "this(d3." + tempVarName + ")";
-		JsObject result = evalForJsObject(command);
-		
-		d3JsObject.removeMember(tempVarName);
+		JsObject result = applyWithBatchAccessors(arrayObj);
 
 		if (result == null) {
 			return null;
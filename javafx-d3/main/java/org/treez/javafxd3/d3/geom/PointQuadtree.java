@@ -0,0 +1,708 @@
+package org.treez.javafxd3.d3.geom;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.core.JsBridge;
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * A quadtree of points that is implemented in Java. In contrast to
+ * {@link Quadtree} it does not call the page or Java callbacks for each
+ * visited node, so it can be used for picking and collision tests over
+ * hundreds of thousands of points.
+ * <p>
+ * The points are addressed by the index in which they have been added. Their
+ * coordinates and the cells of the tree are stored in primitive arrays. Like
+ * in d3, the cells are squares that are divided into four equally-sized
+ * squares. The cells are addressed by an index, too: leaf cells hold a linked
+ * list of points (see {@link #getFirstPoint(int)} and
+ * {@link #getNextPoint(int)}) with more than one point only if the points are
+ * coincident or the maximum depth is reached. Points with NaN or infinite
+ * coordinates get an index but are not inserted.
+ * <p>
+ * The queries reuse internal buffers, so they are not thread safe and must
+ * not be called from a {@link Visitor}.
+ */
+public class PointQuadtree {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * Is returned if a cell or point does not exist
+	 */
+	public static final int NO_INDEX = -1;
+
+	private static final int MAX_DEPTH = 48;
+
+	private int numberOfPoints;
+
+	private double[] pointX;
+
+	private double[] pointY;
+
+	private int[] nextPoint;
+
+	private int root = NO_INDEX;
+
+	private int numberOfCells;
+
+	private int[] children = new int[0];
+
+	private boolean[] isInternal = new boolean[0];
+
+	private int[] firstPoint = new int[0];
+
+	private double[] cellX = new double[0];
+
+	private double[] cellY = new double[0];
+
+	private double[] cellSize = new double[0];
+
+	private int[] stack = new int[64];
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * Creates an empty quadtree; the extent grows with the added points
+	 */
+	public PointQuadtree() {
+		allocatePoints(16);
+		allocateCells(16);
+	}
+
+	/**
+	 * Creates a quadtree with the given points. The extent of the root cell
+	 * is the square bounding box of the points.
+	 *
+	 * @param x
+	 * @param y
+	 */
+	public PointQuadtree(double[] x, double[] y) {
+		if (x.length != y.length) {
+			String message = "The number of x values (" + x.length + ") and y values (" + y.length
+					+ ") must be equal";
+			throw new IllegalStateException(message);
+		}
+		int length = x.length;
+		allocatePoints(Math.max(16, length));
+		allocateCells(Math.max(16, 2 * length));
+		System.arraycopy(x, 0, pointX, 0, length);
+		System.arraycopy(y, 0, pointY, 0, length);
+		numberOfPoints = length;
+
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int index = 0; index < length; index++) {
+			boolean isDefined = Double.isFinite(x[index]) && Double.isFinite(y[index]);
+			if (isDefined) {
+				minX = Math.min(minX, x[index]);
+				minY = Math.min(minY, y[index]);
+				maxX = Math.max(maxX, x[index]);
+				maxY = Math.max(maxY, y[index]);
+			}
+		}
+
+		boolean hasPoints = minX <= maxX;
+		if (hasPoints) {
+			double size = Math.max(maxX - minX, maxY - minY);
+			root = createCell(minX, minY, size > 0 ? size : 1);
+		}
+		for (int index = 0; index < length; index++) {
+			insert(index);
+		}
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	//#region BUILD
+
+	private void allocatePoints(int capacity) {
+		pointX = pointX == null ? new double[capacity] : Arrays.copyOf(pointX, capacity);
+		pointY = pointY == null ? new double[capacity] : Arrays.copyOf(pointY, capacity);
+		nextPoint = nextPoint == null ? new int[capacity] : Arrays.copyOf(nextPoint, capacity);
+	}
+
+	private void allocateCells(int capacity) {
+		children = Arrays.copyOf(children, 4 * capacity);
+		isInternal = Arrays.copyOf(isInternal, capacity);
+		firstPoint = Arrays.copyOf(firstPoint, capacity);
+		cellX = Arrays.copyOf(cellX, capacity);
+		cellY = Arrays.copyOf(cellY, capacity);
+		cellSize = Arrays.copyOf(cellSize, capacity);
+	}
+
+	private int createCell(double x1, double y1, double size) {
+		boolean isFull = numberOfCells == cellSize.length;
+		if (isFull) {
+			allocateCells(Math.max(16, 2 * cellSize.length));
+		}
+		int cell = numberOfCells++;
+		Arrays.fill(children, 4 * cell, 4 * cell + 4, NO_INDEX);
+		isInternal[cell] = false;
+		firstPoint[cell] = NO_INDEX;
+		cellX[cell] = x1;
+		cellY[cell] = y1;
+		cellSize[cell] = size;
+		return cell;
+	}
+
+	/**
+	 * Adds a point. If the point is outside of the current extent, the extent
+	 * is doubled until it covers the point.
+	 *
+	 * @param x
+	 * @param y
+	 * @return the index of the point
+	 */
+	public int add(double x, double y) {
+		boolean isFull = numberOfPoints == pointX.length;
+		if (isFull) {
+			allocatePoints(2 * pointX.length);
+		}
+		int point = numberOfPoints++;
+		pointX[point] = x;
+		pointY[point] = y;
+
+		boolean isDefined = Double.isFinite(x) && Double.isFinite(y);
+		if (isDefined) {
+			cover(x, y);
+			insert(point);
+		}
+		return point;
+	}
+
+	/**
+	 * Grows the root cell until it contains the given position
+	 */
+	private void cover(double x, double y) {
+		if (root == NO_INDEX) {
+			root = createCell(Math.floor(x), Math.floor(y), 1);
+		}
+		while (!contains(root, x, y)) {
+			double size = cellSize[root];
+			boolean isLeft = x < cellX[root];
+			boolean isTop = y < cellY[root];
+			double newX = isLeft ? cellX[root] - size : cellX[root];
+			double newY = isTop ? cellY[root] - size : cellY[root];
+			boolean isEmpty = !isInternal[root] && firstPoint[root] == NO_INDEX;
+			if (isEmpty) {
+				cellX[root] = newX;
+				cellY[root] = newY;
+				cellSize[root] = 2 * size;
+				continue;
+			}
+			int newRoot = createCell(newX, newY, 2 * size);
+			isInternal[newRoot] = true;
+			children[4 * newRoot + (isTop ? 2 : 0) + (isLeft ? 1 : 0)] = root;
+			root = newRoot;
+		}
+	}
+
+	private boolean contains(int cell, double x, double y) {
+		double size = cellSize[cell];
+		return x >= cellX[cell] && x <= cellX[cell] + size && y >= cellY[cell] && y <= cellY[cell] + size;
+	}
+
+	private void insert(int point) {
+		double x = pointX[point];
+		double y = pointY[point];
+		boolean isDefined = Double.isFinite(x) && Double.isFinite(y);
+		if (!isDefined) {
+			return;
+		}
+
+		int cell = root;
+		int depth = 0;
+		while (true) {
+			if (!isInternal[cell]) {
+				int first = firstPoint[cell];
+				if (first == NO_INDEX) {
+					firstPoint[cell] = point;
+					nextPoint[point] = NO_INDEX;
+					return;
+				}
+
+				boolean isCoincident = pointX[first] == x && pointY[first] == y;
+				if (isCoincident || depth >= MAX_DEPTH) {
+					nextPoint[point] = first;
+					firstPoint[cell] = point;
+					return;
+				}
+
+				// split the leaf and move its points to a child
+				isInternal[cell] = true;
+				firstPoint[cell] = NO_INDEX;
+				int child = getOrCreateChild(cell, pointX[first], pointY[first]);
+				firstPoint[child] = first;
+			}
+
+			cell = getOrCreateChild(cell, x, y);
+			depth++;
+		}
+	}
+
+	private int getOrCreateChild(int cell, double x, double y) {
+		double halfSize = cellSize[cell] / 2;
+		boolean isRight = x >= cellX[cell] + halfSize;
+		boolean isBottom = y >= cellY[cell] + halfSize;
+		int childSlot = 4 * cell + (isBottom ? 2 : 0) + (isRight ? 1 : 0);
+		int child = children[childSlot];
+		if (child == NO_INDEX) {
+			double childX = isRight ? cellX[cell] + halfSize : cellX[cell];
+			double childY = isBottom ? cellY[cell] + halfSize : cellY[cell];
+			child = createCell(childX, childY, halfSize);
+			children[childSlot] = child;
+		}
+		return child;
+	}
+
+	//#end region
+
+	//#region QUERIES
+
+	/**
+	 * Returns the index of the point that is closest to the given position
+	 *
+	 * @param x
+	 * @param y
+	 * @return the index of the closest point or {@link #NO_INDEX} if the tree
+	 *         is empty
+	 */
+	public int find(double x, double y) {
+		return find(x, y, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Returns the index of the point that is closest to the given position and
+	 * whose distance is less than the given radius, e.g. for hover picking
+	 *
+	 * @param x
+	 * @param y
+	 * @param radius
+	 * @return the index of the closest point or {@link #NO_INDEX} if there is
+	 *         no point within the radius
+	 */
+	public int find(double x, double y, double radius) {
+		int closestPoint = NO_INDEX;
+		double closestDistanceSquared = radius * radius;
+		if (root == NO_INDEX) {
+			return closestPoint;
+		}
+
+		int stackSize = 0;
+		stack[stackSize++] = root;
+		while (stackSize > 0) {
+			int cell = stack[--stackSize];
+			boolean isTooFar = getSquaredDistance(cell, x, y) >= closestDistanceSquared;
+			if (isTooFar) {
+				continue;
+			}
+
+			if (isInternal[cell]) {
+				stackSize = pushChildrenNearestLast(cell, x, y, stackSize);
+				continue;
+			}
+
+			for (int point = firstPoint[cell]; point != NO_INDEX; point = nextPoint[point]) {
+				double dx = pointX[point] - x;
+				double dy = pointY[point] - y;
+				double distanceSquared = dx * dx + dy * dy;
+				if (distanceSquared < closestDistanceSquared) {
+					closestPoint = point;
+					closestDistanceSquared = distanceSquared;
+				}
+			}
+		}
+		return closestPoint;
+	}
+
+	/**
+	 * Returns the indices of the k points that are closest to the given
+	 * position, sorted by distance
+	 *
+	 * @param x
+	 * @param y
+	 * @param k
+	 *            the maximum number of points
+	 * @return the indices of the closest points; less than k if the tree
+	 *         contains less than k points
+	 */
+	public int[] findNearest(double x, double y, int k) {
+		if (root == NO_INDEX || k <= 0) {
+			return new int[0];
+		}
+
+		// max heap of the closest points found so far
+		int heapCapacity = Math.min(k, numberOfPoints);
+		int[] heapPoints = new int[heapCapacity];
+		double[] heapDistances = new double[heapCapacity];
+		int heapSize = 0;
+
+		int stackSize = 0;
+		stack[stackSize++] = root;
+		while (stackSize > 0) {
+			int cell = stack[--stackSize];
+			boolean isHeapFull = heapSize == heapCapacity;
+			boolean isTooFar = isHeapFull && getSquaredDistance(cell, x, y) >= heapDistances[0];
+			if (isTooFar) {
+				continue;
+			}
+
+			if (isInternal[cell]) {
+				stackSize = pushChildrenNearestLast(cell, x, y, stackSize);
+				continue;
+			}
+
+			for (int point = firstPoint[cell]; point != NO_INDEX; point = nextPoint[point]) {
+				double dx = pointX[point] - x;
+				double dy = pointY[point] - y;
+				double distanceSquared = dx * dx + dy * dy;
+				if (heapSize < heapCapacity) {
+					heapPoints[heapSize] = point;
+					heapDistances[heapSize] = distanceSquared;
+					siftUp(heapPoints, heapDistances, heapSize++);
+				} else if (distanceSquared < heapDistances[0]) {
+					heapPoints[0] = point;
+					heapDistances[0] = distanceSquared;
+					siftDown(heapPoints, heapDistances, heapSize);
+				}
+			}
+		}
+
+		// removing the maximum repeatedly sorts the points by distance
+		int[] closestPoints = new int[heapSize];
+		for (int index = heapSize - 1; index >= 0; index--) {
+			closestPoints[index] = heapPoints[0];
+			heapPoints[0] = heapPoints[index];
+			heapDistances[0] = heapDistances[index];
+			siftDown(heapPoints, heapDistances, index);
+		}
+		return closestPoints;
+	}
+
+	private static void siftUp(int[] heapPoints, double[] heapDistances, int index) {
+		while (index > 0) {
+			int parent = (index - 1) / 2;
+			if (heapDistances[parent] >= heapDistances[index]) {
+				return;
+			}
+			swap(heapPoints, heapDistances, parent, index);
+			index = parent;
+		}
+	}
+
+	private static void siftDown(int[] heapPoints, double[] heapDistances, int heapSize) {
+		int index = 0;
+		while (true) {
+			int largest = index;
+			int left = 2 * index + 1;
+			int right = left + 1;
+			if (left < heapSize && heapDistances[left] > heapDistances[largest]) {
+				largest = left;
+			}
+			if (right < heapSize && heapDistances[right] > heapDistances[largest]) {
+				largest = right;
+			}
+			if (largest == index) {
+				return;
+			}
+			swap(heapPoints, heapDistances, largest, index);
+			index = largest;
+		}
+	}
+
+	private static void swap(int[] heapPoints, double[] heapDistances, int first, int second) {
+		int point = heapPoints[first];
+		heapPoints[first] = heapPoints[second];
+		heapPoints[second] = point;
+		double distance = heapDistances[first];
+		heapDistances[first] = heapDistances[second];
+		heapDistances[second] = distance;
+	}
+
+	/**
+	 * Returns the indices of the points within the given rectangle (including
+	 * its border)
+	 *
+	 * @param x1
+	 * @param y1
+	 * @param x2
+	 * @param y2
+	 * @return
+	 */
+	public int[] findInRectangle(double x1, double y1, double x2, double y2) {
+		int[][] result = { new int[16] };
+		int[] resultSize = { 0 };
+		visitPointsInRectangle(x1, y1, x2, y2, (point) -> {
+			if (resultSize[0] == result[0].length) {
+				result[0] = Arrays.copyOf(result[0], 2 * result[0].length);
+			}
+			result[0][resultSize[0]++] = point;
+		});
+		return Arrays.copyOf(result[0], resultSize[0]);
+	}
+
+	/**
+	 * Passes the indices of the points within the given rectangle (including
+	 * its border) to the given consumer
+	 *
+	 * @param x1
+	 * @param y1
+	 * @param x2
+	 * @param y2
+	 * @param consumer
+	 */
+	public void visitPointsInRectangle(double x1, double y1, double x2, double y2, IntConsumer consumer) {
+		if (root == NO_INDEX) {
+			return;
+		}
+
+		int stackSize = 0;
+		stack[stackSize++] = root;
+		while (stackSize > 0) {
+			int cell = stack[--stackSize];
+			double size = cellSize[cell];
+			boolean isOutside = cellX[cell] > x2 || cellX[cell] + size < x1 || cellY[cell] > y2
+					|| cellY[cell] + size < y1;
+			if (isOutside) {
+				continue;
+			}
+
+			if (isInternal[cell]) {
+				stackSize = pushChildren(cell, stackSize);
+				continue;
+			}
+
+			for (int point = firstPoint[cell]; point != NO_INDEX; point = nextPoint[point]) {
+				double x = pointX[point];
+				double y = pointY[point];
+				boolean isInside = x >= x1 && x <= x2 && y >= y1 && y <= y2;
+				if (isInside) {
+					consumer.accept(point);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Calls the given visitor for each cell pre-order, like
+	 * {@link Quadtree.RootNode#visit(Quadtree.Callback)}. If the visitor
+	 * returns true for a cell, the children of that cell are not visited. The
+	 * visitor gets the index and the bounds of the cell, so no objects are
+	 * created while visiting.
+	 *
+	 * @param visitor
+	 */
+	public void visit(Visitor visitor) {
+		if (root == NO_INDEX) {
+			return;
+		}
+
+		int stackSize = 0;
+		stack[stackSize++] = root;
+		while (stackSize > 0) {
+			int cell = stack[--stackSize];
+			double x1 = cellX[cell];
+			double y1 = cellY[cell];
+			double size = cellSize[cell];
+			boolean isSkippingChildren = visitor.visit(cell, x1, y1, x1 + size, y1 + size);
+			if (!isSkippingChildren && isInternal[cell]) {
+				stackSize = pushChildren(cell, stackSize);
+			}
+		}
+	}
+
+	/**
+	 * Pushes the children of the given cell so that they are popped in the
+	 * order top left, top right, bottom left, bottom right
+	 */
+	private int pushChildren(int cell, int stackSize) {
+		ensureStackCapacity(stackSize + 4);
+		for (int slot = 4 * cell + 3; slot >= 4 * cell; slot--) {
+			int child = children[slot];
+			if (child != NO_INDEX) {
+				stack[stackSize++] = child;
+			}
+		}
+		return stackSize;
+	}
+
+	/**
+	 * Pushes the children of the given cell so that the child that contains
+	 * the given position is popped first
+	 */
+	private int pushChildrenNearestLast(int cell, double x, double y, int stackSize) {
+		ensureStackCapacity(stackSize + 4);
+		double halfSize = cellSize[cell] / 2;
+		boolean isRight = x >= cellX[cell] + halfSize;
+		boolean isBottom = y >= cellY[cell] + halfSize;
+		int nearestQuadrant = (isBottom ? 2 : 0) + (isRight ? 1 : 0);
+		for (int offset = 3; offset >= 0; offset--) {
+			int child = children[4 * cell + (nearestQuadrant ^ offset)];
+			if (child != NO_INDEX) {
+				stack[stackSize++] = child;
+			}
+		}
+		return stackSize;
+	}
+
+	private void ensureStackCapacity(int capacity) {
+		if (capacity > stack.length) {
+			stack = Arrays.copyOf(stack, 2 * capacity);
+		}
+	}
+
+	private double getSquaredDistance(int cell, double x, double y) {
+		double size = cellSize[cell];
+		double dx = Math.max(0, Math.max(cellX[cell] - x, x - cellX[cell] - size));
+		double dy = Math.max(0, Math.max(cellY[cell] - y, y - cellY[cell] - size));
+		return dx * dx + dy * dy;
+	}
+
+	//#end region
+
+	//#region EXPORT
+
+	/**
+	 * Returns the bounds of all cells as x1, y1, x2 and y2 values for each
+	 * cell, e.g. to draw the tree
+	 *
+	 * @return
+	 */
+	public double[] getCellBounds() {
+		double[] bounds = new double[4 * numberOfCells];
+		for (int cell = 0; cell < numberOfCells; cell++) {
+			bounds[4 * cell] = cellX[cell];
+			bounds[4 * cell + 1] = cellY[cell];
+			bounds[4 * cell + 2] = cellX[cell] + cellSize[cell];
+			bounds[4 * cell + 3] = cellY[cell] + cellSize[cell];
+		}
+		return bounds;
+	}
+
+	/**
+	 * Creates a JavaScript array with an object {x1, y1, x2, y2} for each
+	 * cell that can be bound to rect elements. The bounds are transferred
+	 * with a single call.
+	 *
+	 * @param engine
+	 * @return
+	 */
+	public JsObject toJsCells(JsEngine engine) {
+		String encodedBounds = ArrayTransfer.encode(getCellBounds());
+		return (JsObject) JsBridge.get(engine).call("createQuadtreeCells", encodedBounds);
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	/**
+	 * Returns the number of points, including points that are not inserted
+	 *
+	 * @return
+	 */
+	public int size() {
+		return numberOfPoints;
+	}
+
+	public double getX(int point) {
+		return pointX[point];
+	}
+
+	public double getY(int point) {
+		return pointY[point];
+	}
+
+	/**
+	 * Returns the index of the root cell or {@link #NO_INDEX} if the tree is
+	 * empty
+	 *
+	 * @return
+	 */
+	public int getRoot() {
+		return root;
+	}
+
+	public int getNumberOfCells() {
+		return numberOfCells;
+	}
+
+	public boolean isLeaf(int cell) {
+		return !isInternal[cell];
+	}
+
+	/**
+	 * Returns the child of the given cell
+	 *
+	 * @param cell
+	 * @param quadrant
+	 *            0: top left, 1: top right, 2: bottom left, 3: bottom right
+	 * @return the index of the child or {@link #NO_INDEX}
+	 */
+	public int getChild(int cell, int quadrant) {
+		return children[4 * cell + quadrant];
+	}
+
+	/**
+	 * Returns the first point of a leaf cell
+	 *
+	 * @param cell
+	 * @return the index of the point or {@link #NO_INDEX}
+	 */
+	public int getFirstPoint(int cell) {
+		return firstPoint[cell];
+	}
+
+	/**
+	 * Returns the next point of the same leaf cell
+	 *
+	 * @param point
+	 * @return the index of the point or {@link #NO_INDEX}
+	 */
+	public int getNextPoint(int point) {
+		return nextPoint[point];
+	}
+
+	//#end region
+
+	//#end region
+
+	//#region VISITOR
+
+	/**
+	 * A visitor to be passed to {@link PointQuadtree#visit(Visitor)}
+	 */
+	public interface Visitor {
+
+		/**
+		 * Called for each cell of the quadtree
+		 *
+		 * @param cell
+		 *            the index of the cell
+		 * @param x1
+		 *            the top left x coordinate
+		 * @param y1
+		 *            the top left y coordinate
+		 * @param x2
+		 *            the bottom right x coordinate
+		 * @param y2
+		 *            the bottom right y coordinate
+		 * @return false if children should be visited, true otherwise
+		 */
+		boolean visit(int cell, double x1, double y1, double x2, double y2);
+
+	}
+
+	//#end region
+
+}
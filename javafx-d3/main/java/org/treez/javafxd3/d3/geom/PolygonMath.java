@@ -0,0 +1,486 @@
+package org.treez.javafxd3.d3.geom;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+import org.treez.javafxd3.d3.svg.PathStringBuilder;
+
+/**
+ * Convex hulls and polygon metrics that are computed in Java on primitive
+ * arrays. Use them instead of {@link Hull} and {@link Polygon} if there are
+ * many points or many polygons, e.g. to draw the hull of each cluster of a
+ * scatter plot: no values are copied to the page and no accessor is called
+ * back for each vertex.
+ * <p>
+ * A polygon is a flat array of x and y values: x0, y0, x1, y1, ... The
+ * orientation follows d3: a polygon is counterclockwise if it is
+ * counterclockwise on the screen (with the y axis pointing down); then its
+ * area is positive, see {@link #area(double[])}. The hulls are
+ * counterclockwise.
+ * <p>
+ * The methods that take several groups or polygons process them in parallel.
+ * The results can be transferred to the page with a single call, either as
+ * one path string (see {@link #toPathString(double[][])}) or as an array of
+ * path strings (see {@link #toJsPaths(JsEngine, double[][])}).
+ */
+public class PolygonMath {
+
+	//#region CONSTRUCTORS
+
+	private PolygonMath() {
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	//#region HULL
+
+	/**
+	 * Computes the convex hull of the given points with Andrew's monotone
+	 * chain algorithm. Like {@link Hull}, an empty hull is returned for less
+	 * than three points. Points on the edges of the hull are not included. If
+	 * all points are collinear, the hull only contains the two end points.
+	 *
+	 * @param x
+	 * @param y
+	 * @return the indices of the hull points in counterclockwise order
+	 */
+	public static int[] hull(double[] x, double[] y) {
+		int numberOfPoints = Math.min(x.length, y.length);
+		int[] indices = new int[numberOfPoints];
+		for (int index = 0; index < numberOfPoints; index++) {
+			indices[index] = index;
+		}
+		return hull(x, y, indices, 0, numberOfPoints);
+	}
+
+	/**
+	 * Computes the convex hull of the given points, see
+	 * {@link #hull(double[], double[])}
+	 *
+	 * @param x
+	 * @param y
+	 * @return the vertices of the hull
+	 */
+	public static double[] hullPolygon(double[] x, double[] y) {
+		return toPolygon(x, y, hull(x, y));
+	}
+
+	/**
+	 * Computes the convex hull of each group of points in parallel, e.g. the
+	 * hulls of the clusters of a scatter plot
+	 *
+	 * @param x
+	 * @param y
+	 * @param groups
+	 *            the group of each point: a value from 0 to numberOfGroups - 1;
+	 *            points with a negative group are skipped
+	 * @param numberOfGroups
+	 * @return the vertices of the hull of each group; groups with less than
+	 *         three points get an empty hull
+	 */
+	public static double[][] hulls(double[] x, double[] y, int[] groups, int numberOfGroups) {
+		int numberOfPoints = Math.min(Math.min(x.length, y.length), groups.length);
+
+		// sort the point indices by group (counting sort)
+		int[] groupOffsets = new int[numberOfGroups + 1];
+		for (int index = 0; index < numberOfPoints; index++) {
+			int group = groups[index];
+			if (group >= numberOfGroups) {
+				String message = "The group " + group + " of the point " + index + " is not smaller than the number of groups "
+						+ numberOfGroups;
+				throw new IllegalStateException(message);
+			}
+			if (group >= 0) {
+				groupOffsets[group + 1]++;
+			}
+		}
+		for (int group = 0; group < numberOfGroups; group++) {
+			groupOffsets[group + 1] += groupOffsets[group];
+		}
+		int[] indices = new int[groupOffsets[numberOfGroups]];
+		int[] positions = Arrays.copyOf(groupOffsets, numberOfGroups);
+		for (int index = 0; index < numberOfPoints; index++) {
+			int group = groups[index];
+			if (group >= 0) {
+				indices[positions[group]++] = index;
+			}
+		}
+
+		double[][] hulls = new double[numberOfGroups][];
+		IntStream.range(0, numberOfGroups).parallel().forEach((group) -> {
+			int[] hull = hull(x, y, indices, groupOffsets[group], groupOffsets[group + 1]);
+			hulls[group] = toPolygon(x, y, hull);
+		});
+		return hulls;
+	}
+
+	/**
+	 * Computes the hull of the points with the given indices from start to
+	 * end - 1; sorts that part of the indices
+	 */
+	private static int[] hull(double[] x, double[] y, int[] indices, int start, int end) {
+		int numberOfPoints = end - start;
+		if (numberOfPoints < 3) {
+			return new int[0];
+		}
+
+		sortByPosition(x, y, indices, start, end);
+
+		// lower chain from left to right, then upper chain from right to left;
+		// a counterclockwise turn with the y axis pointing up is kept
+		int[] chain = new int[2 * numberOfPoints];
+		int size = 0;
+		for (int position = start; position < end; position++) {
+			int point = indices[position];
+			while (size >= 2 && cross(x, y, chain[size - 2], chain[size - 1], point) <= 0) {
+				size--;
+			}
+			chain[size++] = point;
+		}
+		int lowerSize = size + 1;
+		for (int position = end - 2; position >= start; position--) {
+			int point = indices[position];
+			while (size >= lowerSize && cross(x, y, chain[size - 2], chain[size - 1], point) <= 0) {
+				size--;
+			}
+			chain[size++] = point;
+		}
+		// the last point equals the first point
+		size--;
+
+		// reverse to get the d3 orientation (y axis pointing down)
+		int[] hull = new int[size];
+		for (int index = 0; index < size; index++) {
+			hull[index] = chain[size - 1 - index];
+		}
+		return hull;
+	}
+
+	private static double cross(double[] x, double[] y, int first, int second, int third) {
+		return (x[second] - x[first]) * (y[third] - y[first]) - (y[second] - y[first]) * (x[third] - x[first]);
+	}
+
+	/**
+	 * Sorts the given part of the indices by x and then by y (merge sort)
+	 */
+	private static void sortByPosition(double[] x, double[] y, int[] indices, int start, int end) {
+		int length = end - start;
+		int[] source = Arrays.copyOfRange(indices, start, end);
+		int[] target = new int[length];
+		for (int width = 1; width < length; width *= 2) {
+			for (int left = 0; left < length; left += 2 * width) {
+				int middle = Math.min(left + width, length);
+				int right = Math.min(left + 2 * width, length);
+				int first = left;
+				int second = middle;
+				for (int position = left; position < right; position++) {
+					boolean isFirst = second >= right
+							|| (first < middle && compare(x, y, source[first], source[second]) <= 0);
+					target[position] = isFirst ? source[first++] : source[second++];
+				}
+			}
+			int[] swap = source;
+			source = target;
+			target = swap;
+		}
+		System.arraycopy(source, 0, indices, start, length);
+	}
+
+	private static int compare(double[] x, double[] y, int first, int second) {
+		int result = Double.compare(x[first], x[second]);
+		if (result == 0) {
+			result = Double.compare(y[first], y[second]);
+		}
+		return result;
+	}
+
+	private static double[] toPolygon(double[] x, double[] y, int[] indices) {
+		double[] polygon = new double[2 * indices.length];
+		for (int index = 0; index < indices.length; index++) {
+			polygon[2 * index] = x[indices[index]];
+			polygon[2 * index + 1] = y[indices[index]];
+		}
+		return polygon;
+	}
+
+	//#end region
+
+	//#region METRICS
+
+	/**
+	 * Returns the signed area of the given polygon, like {@link Polygon#area()}:
+	 * if the vertices are in counterclockwise order, the area is positive,
+	 * otherwise it is negative.
+	 *
+	 * @param polygon
+	 * @return the signed area
+	 */
+	public static double area(double[] polygon) {
+		int numberOfVertices = polygon.length / 2;
+		if (numberOfVertices == 0) {
+			return 0;
+		}
+		double area = 0;
+		double previousX = polygon[2 * numberOfVertices - 2];
+		double previousY = polygon[2 * numberOfVertices - 1];
+		for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+			double vertexX = polygon[2 * vertex];
+			double vertexY = polygon[2 * vertex + 1];
+			area += previousY * vertexX - previousX * vertexY;
+			previousX = vertexX;
+			previousY = vertexY;
+		}
+		return area * 0.5;
+	}
+
+	/**
+	 * Returns the signed areas of the given polygons, computed in parallel
+	 *
+	 * @param polygons
+	 * @return
+	 */
+	public static double[] areas(double[][] polygons) {
+		double[] areas = new double[polygons.length];
+		IntStream.range(0, polygons.length).parallel().forEach((index) -> {
+			areas[index] = area(polygons[index]);
+		});
+		return areas;
+	}
+
+	/**
+	 * Returns the centroid of the given polygon, like
+	 * {@link Polygon#centroid()}
+	 *
+	 * @param polygon
+	 * @return the x and y value of the centroid; NaN for polygons without area
+	 */
+	public static double[] centroid(double[] polygon) {
+		return centroid(polygon, -1 / (6 * area(polygon)));
+	}
+
+	/**
+	 * Returns the centroid of the given polygon, like
+	 * {@link Polygon#centroid(double)}
+	 *
+	 * @param polygon
+	 * @param k
+	 *            a scale factor
+	 * @return the x and y value of the centroid
+	 */
+	public static double[] centroid(double[] polygon, double k) {
+		int numberOfVertices = polygon.length / 2;
+		double centroidX = 0;
+		double centroidY = 0;
+		if (numberOfVertices > 0) {
+			double previousX = polygon[2 * numberOfVertices - 2];
+			double previousY = polygon[2 * numberOfVertices - 1];
+			for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+				double vertexX = polygon[2 * vertex];
+				double vertexY = polygon[2 * vertex + 1];
+				double factor = previousX * vertexY - vertexX * previousY;
+				centroidX += (previousX + vertexX) * factor;
+				centroidY += (previousY + vertexY) * factor;
+				previousX = vertexX;
+				previousY = vertexY;
+			}
+		}
+		return new double[] { centroidX * k, centroidY * k };
+	}
+
+	/**
+	 * Returns the centroids of the given polygons, computed in parallel
+	 *
+	 * @param polygons
+	 * @return the x and y values of the centroids: x0, y0, x1, y1, ...
+	 */
+	public static double[] centroids(double[][] polygons) {
+		double[] centroids = new double[2 * polygons.length];
+		IntStream.range(0, polygons.length).parallel().forEach((index) -> {
+			double[] centroid = centroid(polygons[index]);
+			centroids[2 * index] = centroid[0];
+			centroids[2 * index + 1] = centroid[1];
+		});
+		return centroids;
+	}
+
+	//#end region
+
+	//#region CLIP
+
+	/**
+	 * Clips the subject polygon against the given convex clip polygon
+	 * (Sutherland-Hodgman), like {@link Polygon#clip(Double[][])}. In other
+	 * words, returns the intersection of both polygons. Unlike d3, the clip
+	 * polygon may be clockwise or counterclockwise.
+	 *
+	 * @param clipPolygon
+	 *            a convex polygon
+	 * @param subject
+	 * @return the vertices of the intersection; empty if the polygons do not
+	 *         intersect
+	 */
+	public static double[] clip(double[] clipPolygon, double[] subject) {
+		int numberOfClipVertices = clipPolygon.length / 2;
+		int numberOfVertices = subject.length / 2;
+		if (numberOfClipVertices == 0) {
+			return Arrays.copyOf(subject, 2 * numberOfVertices);
+		}
+
+		// each clip edge adds at most one vertex
+		int capacity = 2 * (numberOfVertices + numberOfClipVertices);
+		double[] polygon = Arrays.copyOf(subject, capacity);
+		double[] clippedPolygon = new double[capacity];
+		double orientation = Math.signum(area(clipPolygon));
+
+		double edgeStartX = clipPolygon[2 * numberOfClipVertices - 2];
+		double edgeStartY = clipPolygon[2 * numberOfClipVertices - 1];
+		for (int clipVertex = 0; clipVertex < numberOfClipVertices && numberOfVertices > 0; clipVertex++) {
+			double edgeEndX = clipPolygon[2 * clipVertex];
+			double edgeEndY = clipPolygon[2 * clipVertex + 1];
+			double edgeX = edgeEndX - edgeStartX;
+			double edgeY = edgeEndY - edgeStartY;
+
+			int numberOfClippedVertices = 0;
+			int previous = numberOfVertices - 1;
+			double previousValue = orientation
+					* (edgeY * (polygon[2 * previous] - edgeStartX) - edgeX * (polygon[2 * previous + 1] - edgeStartY));
+			for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+				double vertexX = polygon[2 * vertex];
+				double vertexY = polygon[2 * vertex + 1];
+				double value = orientation * (edgeY * (vertexX - edgeStartX) - edgeX * (vertexY - edgeStartY));
+				boolean isInside = value >= 0;
+				// vertices on the clip edge are not duplicated
+				boolean isCrossing = (value < 0 && previousValue > 0) || (value > 0 && previousValue < 0);
+				if (isCrossing) {
+					double previousX = polygon[2 * previous];
+					double previousY = polygon[2 * previous + 1];
+					double factor = previousValue / (previousValue - value);
+					clippedPolygon[2 * numberOfClippedVertices] = previousX + (vertexX - previousX) * factor;
+					clippedPolygon[2 * numberOfClippedVertices + 1] = previousY + (vertexY - previousY) * factor;
+					numberOfClippedVertices++;
+				}
+				if (isInside) {
+					clippedPolygon[2 * numberOfClippedVertices] = vertexX;
+					clippedPolygon[2 * numberOfClippedVertices + 1] = vertexY;
+					numberOfClippedVertices++;
+				}
+				previous = vertex;
+				previousValue = value;
+			}
+
+			double[] swap = polygon;
+			polygon = clippedPolygon;
+			clippedPolygon = swap;
+			numberOfVertices = numberOfClippedVertices;
+			edgeStartX = edgeEndX;
+			edgeStartY = edgeEndY;
+		}
+		return Arrays.copyOf(polygon, 2 * numberOfVertices);
+	}
+
+	/**
+	 * Clips each subject polygon against the given convex clip polygon, in
+	 * parallel, see {@link #clip(double[], double[])}
+	 *
+	 * @param clipPolygon
+	 * @param subjects
+	 * @return
+	 */
+	public static double[][] clip(double[] clipPolygon, double[][] subjects) {
+		double[][] clippedPolygons = new double[subjects.length][];
+		IntStream.range(0, subjects.length).parallel().forEach((index) -> {
+			clippedPolygons[index] = clip(clipPolygon, subjects[index]);
+		});
+		return clippedPolygons;
+	}
+
+	//#end region
+
+	//#region PATHS
+
+	/**
+	 * Returns an SVG path string for the given polygon: "M" + the vertices
+	 * joined by "L" + "Z"
+	 *
+	 * @param polygon
+	 * @return the path string or null if the polygon is empty
+	 */
+	public static String toPathString(double[] polygon) {
+		int numberOfVertices = polygon.length / 2;
+		if (numberOfVertices == 0) {
+			return null;
+		}
+		PathStringBuilder path = new PathStringBuilder(24 * numberOfVertices);
+		appendPolygon(path, polygon, 0, numberOfVertices);
+		return path.toString();
+	}
+
+	/**
+	 * Returns a single SVG path string for all given polygons, e.g. to draw
+	 * the hulls of all clusters with one path element. Empty polygons are
+	 * skipped.
+	 *
+	 * @param polygons
+	 * @return the path string; empty if all polygons are empty
+	 */
+	public static String toPathString(double[][] polygons) {
+		String[] paths = toPathStrings(polygons);
+		StringBuilder builder = new StringBuilder();
+		for (String path : paths) {
+			if (path != null) {
+				builder.append(path);
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Returns an SVG path string for each polygon, created in parallel, see
+	 * {@link #toPathString(double[])}
+	 *
+	 * @param polygons
+	 * @return the path strings; null for empty polygons
+	 */
+	public static String[] toPathStrings(double[][] polygons) {
+		String[] paths = new String[polygons.length];
+		IntStream.range(0, polygons.length).parallel().forEach((index) -> {
+			paths[index] = toPathString(polygons[index]);
+		});
+		return paths;
+	}
+
+	/**
+	 * Transfers the SVG path strings of the given polygons (see
+	 * {@link #toPathStrings(double[][])}) to the page with a single call, e.g.
+	 * to bind them to path elements with
+	 * {@link org.treez.javafxd3.d3.core.Selection#data(Object[])}
+	 *
+	 * @param engine
+	 * @param polygons
+	 * @return the JavaScript array of path strings
+	 */
+	public static JsObject toJsPaths(JsEngine engine, double[][] polygons) {
+		return ArrayTransfer.toJsArray(engine, toPathStrings(polygons));
+	}
+
+	/**
+	 * Appends "M" + the vertices from start to end - 1 joined by "L" + "Z"
+	 */
+	static void appendPolygon(PathStringBuilder path, double[] vertices, int start, int end) {
+		path.moveTo(vertices[2 * start], vertices[2 * start + 1]);
+		for (int vertex = start + 1; vertex < end; vertex++) {
+			path.lineTo(vertices[2 * vertex], vertices[2 * vertex + 1]);
+		}
+		path.closePath();
+	}
+
+	//#end region
+
+	//#end region
+
+}
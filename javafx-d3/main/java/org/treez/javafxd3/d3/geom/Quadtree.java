@@ -5,9 +5,11 @@ import java.util.List;
 
 import org.treez.javafxd3.d3.arrays.Array;
 import org.treez.javafxd3.d3.core.ConversionUtil;
+import org.treez.javafxd3.d3.functions.BatchDataFunction;
 import org.treez.javafxd3.d3.functions.DataFunction;
 import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -55,24 +57,13 @@ public class Quadtree extends JavaScriptObject {
 	 */
 	public Quadtree x(DataFunction<Double> xAccessor) {
 
-		assertObjectIsNotAnonymous(xAccessor);
-
-		String methodName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();		
-		d3JsObject.setMember(methodName, xAccessor);
-
-		String command = "this.x(function(d, i) { " //
-				+ "return d3." + methodName + ".apply(this,d,i);" //
-				+ " });";
-		JsObject result = evalForJsObject(command);
-		
-		
-
+		// hint: the accessor is also called when points are added to a created
+		// quadtree, so it stays registered until it is replaced
+		JsObject result = callWithPermanentCallback("x", CallbackDispatcher.DATA_FUNCTION, xAccessor);
 		if (result == null) {
 			return null;
 		}
 		return new Quadtree(engine, result);
-
 	}
 
 	/**
@@ -88,19 +79,45 @@ public class Quadtree extends JavaScriptObject {
 
 	public Quadtree y(DataFunction<Double> yAccessor) {
 
-		assertObjectIsNotAnonymous(yAccessor);
-
-		JsObject d3JsObject = getD3();
-		String methodName = createNewTemporaryInstanceName();
-		d3JsObject.setMember(methodName, yAccessor);
+		// hint: the accessor is also called when points are added to a created
+		// quadtree, so it stays registered until it is replaced
+		JsObject result = callWithPermanentCallback("y", CallbackDispatcher.DATA_FUNCTION, yAccessor);
+		if (result == null) {
+			return null;
+		}
+		return new Quadtree(engine, result);
+	}
 
-		String command = "this.y(function(d, i) { " //
-				+ "return d3." + methodName + ".apply(this,d,i);" //
-				+ " });";
-		JsObject result = evalForJsObject(command);
-		
-		
+	/**
+	 * Sets the x-coordinate accessor as batch function that is called only
+	 * once with all points when the quadtree is constructed (instead of once
+	 * per point). Points that are added later are evaluated one by one.
+	 * 
+	 * @param xAccessor
+	 *            the x accessor
+	 * @return the current Quadtree
+	 */
+	public Quadtree x(BatchDataFunction<Double> xAccessor) {
+		JsObject accessor = createBatchAccessor(xAccessor);
+		JsObject result = callReplacingFunction("x", accessor);
+		if (result == null) {
+			return null;
+		}
+		return new Quadtree(engine, result);
+	}
 
+	/**
+	 * Sets the y-coordinate accessor as batch function that is called only
+	 * once with all points when the quadtree is constructed (instead of once
+	 * per point). Points that are added later are evaluated one by one.
+	 * 
+	 * @param yAccessor
+	 *            the y accessor
+	 * @return the current Quadtree
+	 */
+	public Quadtree y(BatchDataFunction<Double> yAccessor) {
+		JsObject accessor = createBatchAccessor(yAccessor);
+		JsObject result = callReplacingFunction("y", accessor);
 		if (result == null) {
 			return null;
 		}
@@ -126,43 +143,13 @@ public class Quadtree extends JavaScriptObject {
 	 */
 	public <T> RootNode<T> apply(T[] points) {
 
-		JsObject d3JsObject = getD3();
-		List<String> fullVarNames = new ArrayList<>();
-		List<String> varNames = new ArrayList<>();
-		
+		List<T> nonNullPoints = new ArrayList<>();
 		for (T pointObj : points) {
-			
-			if (pointObj==null){
-				continue;
+			if (pointObj != null) {
+				nonNullPoints.add(pointObj);
 			}
-			String varName = createNewTemporaryInstanceName();
-
-			Object point = pointObj;
-			boolean isJavaScriptObject = pointObj instanceof JavaScriptObject;
-			if (isJavaScriptObject) {
-				JavaScriptObject javaScriptObject = (JavaScriptObject) pointObj;
-				point = javaScriptObject.getJsObject();
-			}
-
-			d3JsObject.setMember(varName, point);
-			fullVarNames.add("d3." + varName);
-			varNames.add(varName);
-		}
-		
-
-		String command = "this([" + String.join(",", fullVarNames) + "])";
-		JsObject result = evalForJsObject(command);
-		
-		for(String varName:varNames){
-			d3JsObject.removeMember(varName);
-		}
-		
-		if (result==null){
-			return null;
 		}
-		
-		return new RootNode<T>(engine, result);
-
+		return apply(nonNullPoints);
 	}
 
 	/**
@@ -176,36 +163,13 @@ public class Quadtree extends JavaScriptObject {
 	 */
 	public final <T> RootNode<T> apply(final List<T> points) {
 
-		JsObject d3JsObject = getD3();
-		List<String> fullVarNames = new ArrayList<>();
-		List<String> varNames = new ArrayList<>();
-
-		for (T pointObj : points) {
-			String varName = createNewTemporaryInstanceName();
-
-			Object point = pointObj;
-			boolean isJavaScriptObject = pointObj instanceof JavaScriptObject;
-			if (isJavaScriptObject) {
-				JavaScriptObject javaScriptObject = (JavaScriptObject) pointObj;
-				point = javaScriptObject.getJsObject();
-			}
-
-			d3JsObject.setMember(varName, point);
-			fullVarNames.add("d3." + varName);
-			varNames.add(varName);
-		}
+		Array<T> pointArray = Array.fromList(engine, points);
+		JsObject result = applyWithBatchAccessors(pointArray.getJsObject());
 
-		String command = "this.apply([" + String.join(",", fullVarNames) + "])";
-		JsObject result = evalForJsObject(command);
-		
-		for(String varName:varNames){
-			d3JsObject.removeMember(varName);
-		}
-		
-		if (result==null){
+		if (result == null) {
 			return null;
 		}
-		
+
 		return new RootNode<T>(engine, result);
 	}
 
@@ -406,32 +370,12 @@ public class Quadtree extends JavaScriptObject {
 		 */
 		public RootNode<T> visit(Callback<T> callback) {
 
-			assertObjectIsNotAnonymous(callback);
-
-			JsObject d3JsObject = getD3();
-			String methodName = createNewTemporaryInstanceName();
-			d3JsObject.setMember(methodName, callback);
-
-			String command = "this.visit(function(node, x1, y1, x2, y2) { " //
-					+ "return d3." + methodName + ".visit(node,x1,y1,x2,y2);" //
-					+ " });";
-
-			Object result = eval(command);
-			
-			d3JsObject.removeMember(methodName);
-			
-			if (result==null){
-				return null;
-			}
-			if (result.equals("undefined")){
+			JsObject result = callWithCallback("visit", CallbackDispatcher.VISIT_FUNCTION, callback);
+			if (result == null) {
 				return null;
 			}
-			JsObject jsResult = (JsObject) result;
-						
-			
-			return new RootNode<T>(engine, jsResult);
-			
-		}
+			return new RootNode<T>(engine, result);
+	}
 	}
 
 	/**
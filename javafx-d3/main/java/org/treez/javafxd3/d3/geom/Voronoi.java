@@ -2,10 +2,12 @@ package org.treez.javafxd3.d3.geom;
 
 import org.treez.javafxd3.d3.arrays.Array;
 import org.treez.javafxd3.d3.arrays.ArrayUtils;
+import org.treez.javafxd3.d3.functions.BatchDataFunction;
 import org.treez.javafxd3.d3.functions.DataFunction;
 import org.treez.javafxd3.d3.layout.Link;
 import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -103,7 +105,7 @@ public class Voronoi extends JavaScriptObject {
      */
     public  <T> Array<T> apply(Array<T> vertices){
     	JsObject arrayObj = vertices.getJsObject();
-    	JsObject result = callThisForJsObject(arrayObj);
+    	JsObject result = applyWithBatchAccessors(arrayObj);
     	return new Array<T>(engine, result);    	
     }
     
@@ -125,24 +127,12 @@ public class Voronoi extends JavaScriptObject {
      * @return the current layout
      */
     public  Voronoi x(DataFunction<Double> xAccessor){
-    	
-    	assertObjectIsNotAnonymous(xAccessor);
-
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(funcName, xAccessor);
-
-		String command = "this.x(function(d, i) { return d3." + funcName + ".apply(this,d,i); });";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(funcName);
-
-		if(result==null){
+		JsObject result = callWithPermanentCallback("x", CallbackDispatcher.DATA_FUNCTION, xAccessor);
+		if (result == null) {
 			return null;
 		}
-		return new Voronoi(engine, result);   	
-    	
-    }
+		return new Voronoi(engine, result);
+	}
 
     /**
      * Sets the y-coordinate accessor.
@@ -156,22 +146,47 @@ public class Voronoi extends JavaScriptObject {
      */
 
     public  Voronoi y(DataFunction<Double> yAccessor){
-    	
-    	assertObjectIsNotAnonymous(yAccessor);
-
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(funcName, yAccessor);
-
-		String command = "this.y(function(d, i) { return d3." + funcName + ".apply(this,d,i); });";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(funcName);
-
-		if(result==null){
+		JsObject result = callWithPermanentCallback("y", CallbackDispatcher.DATA_FUNCTION, yAccessor);
+		if (result == null) {
 			return null;
 		}
-		return new Voronoi(engine, result); 
+		return new Voronoi(engine, result);
+	}
+
+    /**
+     * Sets the x-coordinate accessor as batch function that is called only
+     * once with all vertices when the layout is applied (instead of once per
+     * vertex).
+     * 
+     * @param xAccessor
+     *            the x accessor
+     * @return the current layout
+     */
+    public Voronoi x(BatchDataFunction<Double> xAccessor) {
+    	JsObject accessor = createBatchAccessor(xAccessor);
+    	JsObject result = callReplacingFunction("x", accessor);
+    	if (result == null) {
+    		return null;
+    	}
+    	return new Voronoi(engine, result);
+    }
+
+    /**
+     * Sets the y-coordinate accessor as batch function that is called only
+     * once with all vertices when the layout is applied (instead of once per
+     * vertex).
+     * 
+     * @param yAccessor
+     *            the y accessor
+     * @return the current layout
+     */
+    public Voronoi y(BatchDataFunction<Double> yAccessor) {
+    	JsObject accessor = createBatchAccessor(yAccessor);
+    	JsObject result = callReplacingFunction("y", accessor);
+    	if (result == null) {
+    		return null;
+    	}
+    	return new Voronoi(engine, result);
     }
 
     /**
@@ -0,0 +1,267 @@
+package org.treez.javafxd3.d3.geom;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+import org.treez.javafxd3.d3.svg.PathStringBuilder;
+
+/**
+ * The Voronoi cells of the points of a {@link Delaunay} triangulation, clipped
+ * to a rectangular extent. Use it instead of {@link Voronoi#apply(Double[][])}
+ * to create invisible hover regions for dense scatter plots.
+ * <p>
+ * Each cell is the intersection of the clip extent with the half planes that
+ * are closer to its point than to the Delaunay neighbors of the point. The
+ * cells are clipped in parallel. Coincident points that have not been
+ * triangulated get an empty cell.
+ * <p>
+ * The vertices of all cells are stored in a single flat array, see
+ * {@link #getCellVertices()} and {@link #getCellOffsets()}. The cells can also
+ * be transferred to the page as SVG path strings with a single call, see
+ * {@link #toJsPaths(JsEngine)}.
+ */
+public class VoronoiDiagram {
+
+	//#region ATTRIBUTES
+
+	private final Delaunay delaunay;
+
+	private final double x1;
+
+	private final double y1;
+
+	private final double x2;
+
+	private final double y2;
+
+	private int[] cellOffsets;
+
+	private double[] cellVertices;
+
+	private int lastFoundPoint = 0;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * Creates the clipped Voronoi cells of the given triangulation
+	 *
+	 * @param delaunay
+	 * @param x1
+	 *            the left side of the clip extent
+	 * @param y1
+	 *            the top side of the clip extent
+	 * @param x2
+	 *            the right side of the clip extent
+	 * @param y2
+	 *            the bottom side of the clip extent
+	 */
+	public VoronoiDiagram(Delaunay delaunay, double x1, double y1, double x2, double y2) {
+		boolean isValidExtent = x1 <= x2 && y1 <= y2;
+		if (!isValidExtent) {
+			String message = "The clip extent [" + x1 + ", " + y1 + ", " + x2 + ", " + y2 + "] is not valid";
+			throw new IllegalStateException(message);
+		}
+		this.delaunay = delaunay;
+		this.x1 = x1;
+		this.y1 = y1;
+		this.x2 = x2;
+		this.y2 = y2;
+		createCells();
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	private void createCells() {
+		int numberOfPoints = delaunay.getNumberOfPoints();
+		int[] neighbors = delaunay.getNeighbors();
+		int[] neighborOffsets = delaunay.getNeighborOffsets();
+
+		double[][] cells = new double[numberOfPoints][];
+		IntStream.range(0, numberOfPoints).parallel().forEach((point) -> {
+			cells[point] = clipCell(point, neighbors, neighborOffsets[point], neighborOffsets[point + 1]);
+		});
+
+		cellOffsets = new int[numberOfPoints + 1];
+		for (int point = 0; point < numberOfPoints; point++) {
+			cellOffsets[point + 1] = cellOffsets[point] + cells[point].length / 2;
+		}
+		cellVertices = new double[2 * cellOffsets[numberOfPoints]];
+		for (int point = 0; point < numberOfPoints; point++) {
+			double[] cell = cells[point];
+			System.arraycopy(cell, 0, cellVertices, 2 * cellOffsets[point], cell.length);
+		}
+	}
+
+	/**
+	 * Clips the extent with the half planes of the neighbors of the given
+	 * point (Sutherland-Hodgman)
+	 */
+	private double[] clipCell(int point, int[] neighbors, int start, int end) {
+		boolean isUntriangulated = start == end && delaunay.getNumberOfPoints() > 1;
+		if (isUntriangulated) {
+			return new double[0];
+		}
+
+		int capacity = 2 * (4 + end - start);
+		double[] polygon = new double[capacity];
+		double[] clippedPolygon = new double[capacity];
+		int numberOfVertices = 4;
+		polygon[0] = x1;
+		polygon[1] = y1;
+		polygon[2] = x2;
+		polygon[3] = y1;
+		polygon[4] = x2;
+		polygon[5] = y2;
+		polygon[6] = x1;
+		polygon[7] = y2;
+
+		double x = delaunay.getX(point);
+		double y = delaunay.getY(point);
+		for (int index = start; index < end && numberOfVertices > 0; index++) {
+			int neighbor = neighbors[index];
+			double dx = delaunay.getX(neighbor) - x;
+			double dy = delaunay.getY(neighbor) - y;
+			double middleX = x + dx / 2;
+			double middleY = y + dy / 2;
+
+			int numberOfClippedVertices = 0;
+			int previous = numberOfVertices - 1;
+			double previousValue = (polygon[2 * previous] - middleX) * dx
+					+ (polygon[2 * previous + 1] - middleY) * dy;
+			for (int vertex = 0; vertex < numberOfVertices; vertex++) {
+				double vertexX = polygon[2 * vertex];
+				double vertexY = polygon[2 * vertex + 1];
+				double value = (vertexX - middleX) * dx + (vertexY - middleY) * dy;
+				boolean isInside = value <= 0;
+				// vertices on the clip line are not duplicated
+				boolean isCrossing = (value < 0 && previousValue > 0) || (value > 0 && previousValue < 0);
+				if (isCrossing) {
+					double previousX = polygon[2 * previous];
+					double previousY = polygon[2 * previous + 1];
+					double factor = previousValue / (previousValue - value);
+					clippedPolygon[2 * numberOfClippedVertices] = previousX + (vertexX - previousX) * factor;
+					clippedPolygon[2 * numberOfClippedVertices + 1] = previousY + (vertexY - previousY) * factor;
+					numberOfClippedVertices++;
+				}
+				if (isInside) {
+					clippedPolygon[2 * numberOfClippedVertices] = vertexX;
+					clippedPolygon[2 * numberOfClippedVertices + 1] = vertexY;
+					numberOfClippedVertices++;
+				}
+				previous = vertex;
+				previousValue = value;
+			}
+
+			double[] swap = polygon;
+			polygon = clippedPolygon;
+			clippedPolygon = swap;
+			numberOfVertices = numberOfClippedVertices;
+		}
+		return Arrays.copyOf(polygon, 2 * numberOfVertices);
+	}
+
+	/**
+	 * Returns the vertices of the cell of the given point as x and y values
+	 *
+	 * @param point
+	 * @return the vertices or an empty array if the cell is empty
+	 */
+	public double[] getCell(int point) {
+		return Arrays.copyOfRange(cellVertices, 2 * cellOffsets[point], 2 * cellOffsets[point + 1]);
+	}
+
+	/**
+	 * Returns the vertices of all cells as x and y values. The vertices of the
+	 * cell of the point i are stored from 2 * offsets[i] to 2 * offsets[i + 1]
+	 * - 1, see {@link #getCellOffsets()}.
+	 *
+	 * @return
+	 */
+	public double[] getCellVertices() {
+		return cellVertices;
+	}
+
+	/**
+	 * Returns the index of the first vertex of each cell in
+	 * {@link #getCellVertices()} and the total number of vertices as last
+	 * value
+	 *
+	 * @return
+	 */
+	public int[] getCellOffsets() {
+		return cellOffsets;
+	}
+
+	/**
+	 * Returns the index of the point whose cell contains the given position,
+	 * i.e. the closest point. See {@link Delaunay#find(double, double, int)};
+	 * the search starts at the point that has been found last, so it is fast
+	 * for consecutive mouse positions.
+	 *
+	 * @param x
+	 * @param y
+	 * @return the index of the point or -1 if there are no points
+	 */
+	public int find(double x, double y) {
+		int point = delaunay.find(x, y, lastFoundPoint);
+		if (point >= 0) {
+			lastFoundPoint = point;
+		}
+		return point;
+	}
+
+	//#region PATHS
+
+	/**
+	 * Returns an SVG path string for each cell, like the path strings that
+	 * are created from the polygons of {@link Voronoi}: "M" + the vertices
+	 * joined by "L" + "Z". Empty cells get null.
+	 *
+	 * @return
+	 */
+	public String[] toPathStrings() {
+		int numberOfPoints = cellOffsets.length - 1;
+		String[] paths = new String[numberOfPoints];
+		IntStream.range(0, numberOfPoints).parallel().forEach((point) -> {
+			paths[point] = createPathString(point);
+		});
+		return paths;
+	}
+
+	private String createPathString(int point) {
+		int start = cellOffsets[point];
+		int end = cellOffsets[point + 1];
+		if (start == end) {
+			return null;
+		}
+
+		PathStringBuilder path = new PathStringBuilder(24 * (end - start));
+		PolygonMath.appendPolygon(path, cellVertices, start, end);
+		return path.toString();
+	}
+
+	/**
+	 * Transfers the SVG path strings of all cells (see
+	 * {@link #toPathStrings()}) to the page with a single call, e.g. to bind
+	 * them to path elements with
+	 * {@link org.treez.javafxd3.d3.core.Selection#data(Object[])}
+	 *
+	 * @param engine
+	 * @return the JavaScript array of path strings
+	 */
+	public JsObject toJsPaths(JsEngine engine) {
+		return ArrayTransfer.toJsArray(engine, toPathStrings());
+	}
+
+	//#end region
+
+	//#end region
+
+}
@@ -2,6 +2,7 @@ package org.treez.javafxd3.d3.interpolators;
 
 import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -24,24 +25,14 @@ public abstract class AbstractInterpolatorFactory<O> extends JavaScriptObject im
 	@Override
 	public abstract <I> Interpolator<O> create(final Object a, final Object b);
 
+	/**
+	 * Creates a JavaScript function(a, b) that calls
+	 * {@link #create(Object, Object)} and returns the JavaScript function of
+	 * the created interpolator (see {@link CallbackDispatcher}). The callback
+	 * stays registered, since d3.interpolators keeps the function.
+	 */
 	@Override
-	public  JsObject asJSOFunction(){	
-		
-		String interpolatorName = createNewTemporaryInstanceName();
-		String jsInterpolatorName = createNewTemporaryInstanceName();
-		
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(interpolatorName, this);
-
-		String command = "this."+jsInterpolatorName+" = function(a, b) { return d3." + interpolatorName + ".create(a,b);};";
-		d3JsObject.eval(command);		
-		
-		JsObject result = (JsObject) d3JsObject.eval("this." +jsInterpolatorName);
-		
-		
-		
-		return result;			
-			
-		
+	public JsObject asJSOFunction() {
+		return createCallbackFunction(CallbackDispatcher.INTERPOLATOR_FACTORY_FUNCTION, this);
 	}
 }
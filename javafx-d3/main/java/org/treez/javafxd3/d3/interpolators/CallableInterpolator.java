@@ -2,6 +2,7 @@ package org.treez.javafxd3.d3.interpolators;
 
 import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -26,28 +27,16 @@ public abstract class CallableInterpolator<T> extends JavaScriptObject implement
 	@Override
 	public abstract T interpolate(Object t);
 
+	/**
+	 * Creates a JavaScript function(t) that calls {@link #interpolate(Object)}
+	 * (see {@link CallbackDispatcher}). If the function is returned by a tween
+	 * function of a transition, it is released when the transition of the
+	 * element has ended. Therefore create a new function for each call of the
+	 * tween function instead of reusing it.
+	 */
 	@Override
 	public JsObject asJsFunction() {
-		
-		assertObjectIsNotAnonymous(this);
-
-		String interpolatorName = createNewTemporaryInstanceName();
-		String jsInterpolatorName = createNewTemporaryInstanceName();
-
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(interpolatorName, this);
-
-		String command = "this." + jsInterpolatorName + " = function(t) { " + //
-				//"   alert('callableInterpolator with t:' + t);" +//				
-				"   var result =  d3." + interpolatorName + ".interpolate(t);" + //
-				//"   alert('callableInterpolator result: ' + result);" + //
-				"   return result;" + //
-				"};";
-		d3JsObject.eval(command);
-
-		JsObject result = (JsObject) d3JsObject.eval("this." + jsInterpolatorName);
-		return result;
-
+		return createCallbackFunction(CallbackDispatcher.INTERPOLATOR_FUNCTION, this);
 	}
 
 }
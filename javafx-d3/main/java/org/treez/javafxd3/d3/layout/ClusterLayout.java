@@ -0,0 +1,97 @@
+package org.treez.javafxd3.d3.layout;
+
+/**
+ * The dendrogram layout of {@link Cluster}, computed in Java on an
+ * {@link IndexedHierarchy}: all leaf nodes are placed on the same y value
+ * and each parent is centered above its children.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * IndexedHierarchy hierarchy = new IndexedHierarchy(parents);
+ * double[] positions = new ClusterLayout().size(width, height).apply(hierarchy);
+ * }
+ * </pre>
+ */
+public class ClusterLayout extends IndexedHierarchyLayout<ClusterLayout> {
+
+	//#region METHODS
+
+	@Override
+	public double[] apply(IndexedHierarchy hierarchy) {
+		int numberOfNodes = hierarchy.size();
+		double[] positions = new double[2 * numberOfNodes];
+		if (numberOfNodes == 0) {
+			return positions;
+		}
+
+		// the leaves are placed from left to right and the y value is the
+		// height of the subtree
+		int previousLeaf = -1;
+		double x = 0;
+		for (int node : hierarchy.getPostOrder()) {
+			int numberOfChildren = hierarchy.getNumberOfChildren(node);
+			if (numberOfChildren > 0) {
+				double sumX = 0;
+				double maxY = 0;
+				for (int childNumber = 0; childNumber < numberOfChildren; childNumber++) {
+					int child = hierarchy.getChild(node, childNumber);
+					sumX += positions[2 * child];
+					maxY = Math.max(maxY, positions[2 * child + 1]);
+				}
+				positions[2 * node] = sumX / numberOfChildren;
+				positions[2 * node + 1] = 1 + maxY;
+			} else {
+				if (previousLeaf >= 0) {
+					x += separation.separation(hierarchy, node, previousLeaf);
+				}
+				positions[2 * node] = x;
+				positions[2 * node + 1] = 0;
+				previousLeaf = node;
+			}
+		}
+
+		int root = hierarchy.getRoot();
+		double rootX = positions[2 * root];
+		double rootY = positions[2 * root + 1];
+		if (hasNodeSize) {
+			for (int node = 0; node < numberOfNodes; node++) {
+				positions[2 * node] = (positions[2 * node] - rootX) * width;
+				positions[2 * node + 1] = (rootY - positions[2 * node + 1]) * height;
+			}
+			return positions;
+		}
+
+		int left = getLeftmostLeaf(hierarchy);
+		int right = getRightmostLeaf(hierarchy);
+		double x0 = positions[2 * left] - separation.separation(hierarchy, left, right) / 2;
+		double x1 = positions[2 * right] + separation.separation(hierarchy, right, left) / 2;
+		for (int node = 0; node < numberOfNodes; node++) {
+			positions[2 * node] = (positions[2 * node] - x0) / (x1 - x0) * width;
+			double relativeY = rootY == 0 ? 1 : positions[2 * node + 1] / rootY;
+			positions[2 * node + 1] = (1 - relativeY) * height;
+		}
+		return positions;
+	}
+
+	private static int getLeftmostLeaf(IndexedHierarchy hierarchy) {
+		int node = hierarchy.getRoot();
+		while (!hierarchy.isLeaf(node)) {
+			node = hierarchy.getChild(node, 0);
+		}
+		return node;
+	}
+
+	private static int getRightmostLeaf(IndexedHierarchy hierarchy) {
+		int node = hierarchy.getRoot();
+		int numberOfChildren;
+		while ((numberOfChildren = hierarchy.getNumberOfChildren(node)) > 0) {
+			node = hierarchy.getChild(node, numberOfChildren - 1);
+		}
+		return node;
+	}
+
+	//#end region
+
+}
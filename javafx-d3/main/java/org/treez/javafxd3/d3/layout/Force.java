@@ -4,9 +4,11 @@ import org.treez.javafxd3.d3.arrays.Array;
 import org.treez.javafxd3.d3.arrays.ArrayUtils;
 import org.treez.javafxd3.d3.behaviour.Drag;
 import org.treez.javafxd3.d3.core.Selection;
+import org.treez.javafxd3.d3.functions.BatchDataFunction;
 import org.treez.javafxd3.d3.functions.DataFunction;
 import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -129,24 +131,29 @@ public class Force extends JavaScriptObject {
 	 * @return the force layout object.
 	 */
 	public Force linkDistance(DataFunction<?> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(funcName, callback);
-
-		String command = "this.linkDistance(function(d, i) { return d3." + funcName + ".apply(this,d,i); });";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(funcName);
-
+		JsObject result = callWithPermanentCallback("linkDistance", CallbackDispatcher.DATA_FUNCTION, callback);
 		if (result == null) {
 			return null;
 		}
-
 		return new Force(engine, result);
+	}
 
+	/**
+	 * Sets the target distances between linked nodes by a batch function that
+	 * is called only once with all links (instead of once per link) whenever
+	 * the layout starts.
+	 * 
+	 * @param batchFunction
+	 *            function that returns the distance for each link
+	 * @return the force layout object.
+	 */
+	public Force linkDistance(BatchDataFunction<?> batchFunction) {
+		JsObject accessor = createBatchArrayFunction(batchFunction, "links");
+		JsObject result = callReplacingFunction("linkDistance", accessor);
+		if (result == null) {
+			return null;
+		}
+		return new Force(engine, result);
 	}
 
 	/**
@@ -183,22 +190,27 @@ public class Force extends JavaScriptObject {
 	 * @return the force layout object.
 	 */
 	public Force linkStrength(DataFunction<?> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(funcName, callback);
-
-		String command = "this.linkStrenght(function(d, i) { return d3." + funcName + ".apply(this,d,i); });";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(funcName);
-
+		JsObject result = callWithPermanentCallback("linkStrength", CallbackDispatcher.DATA_FUNCTION, callback);
 		if (result == null) {
 			return null;
 		}
+		return new Force(engine, result);
+	}
 
+	/**
+	 * Sets the strengths of the links by a batch function that is called only
+	 * once with all links whenever the layout starts.
+	 * 
+	 * @param batchFunction
+	 *            function that returns the strength for each link
+	 * @return the force layout object.
+	 */
+	public Force linkStrength(BatchDataFunction<?> batchFunction) {
+		JsObject accessor = createBatchArrayFunction(batchFunction, "links");
+		JsObject result = callReplacingFunction("linkStrength", accessor);
+		if (result == null) {
+			return null;
+		}
 		return new Force(engine, result);
 	}
 
@@ -283,22 +295,28 @@ public class Force extends JavaScriptObject {
 	 * @return the force layout object.
 	 */
 	public Force charge(DataFunction<?> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(funcName, callback);
-
-		String command = "this.charge(function(d, i) { return d3." + funcName + ".apply(this,d,i); });";
-		JsObject result = evalForJsObject(command);
-
-		d3JsObject.removeMember(funcName);
-
+		JsObject result = callWithPermanentCallback("charge", CallbackDispatcher.DATA_FUNCTION, callback);
 		if (result == null) {
 			return null;
 		}
+		return new Force(engine, result);
+	}
 
+	/**
+	 * Sets the charges of the nodes by a batch function that is called only
+	 * once with all nodes (instead of once per node) whenever the layout
+	 * starts.
+	 * 
+	 * @param batchFunction
+	 *            function that returns the charge for each node
+	 * @return the force layout object.
+	 */
+	public Force charge(BatchDataFunction<?> batchFunction) {
+		JsObject accessor = createBatchArrayFunction(batchFunction, "nodes");
+		JsObject result = callReplacingFunction("charge", accessor);
+		if (result == null) {
+			return null;
+		}
 		return new Force(engine, result);
 	}
 
@@ -680,27 +698,10 @@ public class Force extends JavaScriptObject {
 	 * @return
 	 */
 	public Selection on(String name, DataFunction<?> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String funcName = createNewTemporaryInstanceName();
-		String varName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(funcName, callback);
-
-		String command = "var "+varName+" = d3." + funcName + " == null ? null : " + "function(d, i) {" //		      
-				+ "d3." + funcName + ".apply(this,d,i);" //
-				+ " }; ";
-
-		eval(command);
-		String onCommand = "this.on("+varName+");";
-
-		JsObject result = evalForJsObject(onCommand);
-
+		JsObject result = callWithPermanentCallback("on", CallbackDispatcher.DATA_FUNCTION, callback, name);
 		if (result == null) {
 			return null;
 		}
-
 		return new Selection(engine, result);
 	}
 
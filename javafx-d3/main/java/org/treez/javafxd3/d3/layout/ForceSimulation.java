@@ -0,0 +1,846 @@
+package org.treez.javafxd3.d3.layout;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Java implementation of the force-directed layout of d3 v3 (see
+ * {@link Force}) with the same parameters and defaults: size 1×1, link
+ * strength 1, friction 0.9, link distance 20, charge -30, gravity 0.1, theta
+ * 0.8 and an unlimited charge distance. Alpha starts at 0.1 and is multiplied
+ * with 0.99 on each tick; the simulation ends if it drops below 0.005.
+ * <p>
+ * The positions and velocities are stored in primitive arrays and the nodes
+ * are addressed by their index. The charge forces are approximated with a
+ * Barnes-Hut quadtree. Gravity, charge and position integration are computed
+ * for ranges of nodes in parallel on a fork join pool; the link constraints
+ * are relaxed sequentially in link order, like in d3.
+ * <p>
+ * The simulation does not depend on the page. Use
+ * {@link ForceSimulationRunner} to run it on a background thread and to
+ * publish the positions to the JavaScript nodes. A simulation is not thread
+ * safe: configure it before it is started or while it is stopped.
+ */
+public class ForceSimulation {
+
+	//#region ATTRIBUTES
+
+	private static final double INITIAL_ALPHA = 0.1;
+
+	private static final double ALPHA_DECAY = 0.99;
+
+	private static final double MIN_ALPHA = 0.005;
+
+	/**
+	 * The minimum number of nodes that is handled by a single fork join task
+	 */
+	private static final int MIN_NODES_PER_TASK = 512;
+
+	private final int numberOfNodes;
+
+	private final double[] x;
+
+	private final double[] y;
+
+	private final double[] px;
+
+	private final double[] py;
+
+	private final boolean[] fixed;
+
+	private final double[] weights;
+
+	private int[] linkSources = new int[0];
+
+	private int[] linkTargets = new int[0];
+
+	private double width = 1;
+
+	private double height = 1;
+
+	private double linkDistance = 20;
+
+	private double[] linkDistances;
+
+	private double linkStrength = 1;
+
+	private double[] linkStrengths;
+
+	private double charge = -30;
+
+	private double[] charges;
+
+	private double friction = 0.9;
+
+	private double gravity = 0.1;
+
+	private double theta = 0.8;
+
+	private double chargeDistance = Double.POSITIVE_INFINITY;
+
+	private double alpha = 0;
+
+	private final ForkJoinPool pool;
+
+	private final BarnesHutTree tree;
+
+	private final Random random = new Random();
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * Creates a simulation that uses the common fork join pool
+	 *
+	 * @param numberOfNodes
+	 */
+	public ForceSimulation(int numberOfNodes) {
+		this(numberOfNodes, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param numberOfNodes
+	 * @param pool
+	 *            the pool that is used to compute the forces in parallel
+	 */
+	public ForceSimulation(int numberOfNodes, ForkJoinPool pool) {
+		if (numberOfNodes < 0) {
+			String message = "The number of nodes must not be negative but is " + numberOfNodes;
+			throw new IllegalStateException(message);
+		}
+		this.numberOfNodes = numberOfNodes;
+		this.pool = pool;
+		x = createUndefinedValues(numberOfNodes);
+		y = createUndefinedValues(numberOfNodes);
+		px = createUndefinedValues(numberOfNodes);
+		py = createUndefinedValues(numberOfNodes);
+		fixed = new boolean[numberOfNodes];
+		weights = new double[numberOfNodes];
+		tree = new BarnesHutTree(numberOfNodes);
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	private static double[] createUndefinedValues(int length) {
+		double[] values = new double[length];
+		Arrays.fill(values, Double.NaN);
+		return values;
+	}
+
+	//#region SIMULATION
+
+	/**
+	 * Starts the simulation like force.start() in d3: nodes without position
+	 * are placed randomly within the size, nodes without previous position get
+	 * zero velocity, the node weights (number of links) are computed and alpha
+	 * is set to 0.1.
+	 *
+	 * @return this simulation
+	 */
+	public ForceSimulation start() {
+		Arrays.fill(weights, 0);
+		for (int index = 0; index < linkSources.length; index++) {
+			weights[linkSources[index]]++;
+			weights[linkTargets[index]]++;
+		}
+
+		for (int index = 0; index < numberOfNodes; index++) {
+			if (Double.isNaN(x[index])) {
+				x[index] = random.nextDouble() * width;
+			}
+			if (Double.isNaN(y[index])) {
+				y[index] = random.nextDouble() * height;
+			}
+			if (Double.isNaN(px[index])) {
+				px[index] = x[index];
+			}
+			if (Double.isNaN(py[index])) {
+				py[index] = y[index];
+			}
+		}
+		return resume();
+	}
+
+	/**
+	 * Sets alpha to 0.1
+	 *
+	 * @return this simulation
+	 */
+	public ForceSimulation resume() {
+		return alpha(INITIAL_ALPHA);
+	}
+
+	/**
+	 * Sets alpha to zero, so that the next tick ends the simulation
+	 *
+	 * @return this simulation
+	 */
+	public ForceSimulation stop() {
+		return alpha(0);
+	}
+
+	/**
+	 * Runs the simulation one step
+	 *
+	 * @return true if the simulation has ended because alpha dropped below
+	 *         0.005
+	 */
+	public boolean tick() {
+		alpha *= ALPHA_DECAY;
+		boolean hasEnded = alpha < MIN_ALPHA;
+		if (hasEnded) {
+			alpha = 0;
+			return true;
+		}
+
+		relaxLinks();
+
+		double gravityFactor = alpha * gravity;
+		if (gravityFactor != 0) {
+			pool.invoke(new NodeTask(NodeTask.GRAVITY, 0, numberOfNodes, gravityFactor));
+		}
+
+		boolean hasCharge = charges != null || charge != 0;
+		if (hasCharge) {
+			tree.build(x, y, numberOfNodes);
+			tree.accumulate(alpha, charge, charges);
+		}
+		int phase = hasCharge ? NodeTask.CHARGE_AND_INTEGRATION : NodeTask.INTEGRATION;
+		pool.invoke(new NodeTask(phase, 0, numberOfNodes, 0));
+		return false;
+	}
+
+	/**
+	 * Moves the linked nodes towards the link distance. The nodes are moved
+	 * inversely proportional to their weights.
+	 */
+	private void relaxLinks() {
+		for (int index = 0; index < linkSources.length; index++) {
+			int source = linkSources[index];
+			int target = linkTargets[index];
+			double dx = x[target] - x[source];
+			double dy = y[target] - y[source];
+			double squaredLength = dx * dx + dy * dy;
+			if (squaredLength == 0) {
+				continue;
+			}
+
+			double length = Math.sqrt(squaredLength);
+			double distance = linkDistances == null ? linkDistance : linkDistances[index];
+			double strength = linkStrengths == null ? linkStrength : linkStrengths[index];
+			double factor = alpha * strength * (length - distance) / length;
+			dx *= factor;
+			dy *= factor;
+
+			double weightSum = weights[source] + weights[target];
+			double targetShare = weightSum == 0 ? 0.5 : weights[source] / weightSum;
+			x[target] -= dx * targetShare;
+			y[target] -= dy * targetShare;
+			double sourceShare = 1 - targetShare;
+			x[source] += dx * sourceShare;
+			y[source] += dy * sourceShare;
+		}
+	}
+
+	private void applyGravity(int start, int end, double gravityFactor) {
+		double centerX = width / 2;
+		double centerY = height / 2;
+		for (int index = start; index < end; index++) {
+			x[index] += (centerX - x[index]) * gravityFactor;
+			y[index] += (centerY - y[index]) * gravityFactor;
+		}
+	}
+
+	/**
+	 * Applies the charge forces to the previous positions (and therefore to
+	 * the velocities) and integrates the positions with the verlet method.
+	 * The quadtree holds a copy of the positions, so the nodes of other tasks
+	 * can be moved concurrently.
+	 */
+	private void applyChargeAndIntegrate(int start, int end, boolean hasCharge) {
+		double thetaSquared = theta * theta;
+		double chargeDistanceSquared = chargeDistance * chargeDistance;
+		int[] stack = hasCharge ? tree.createStack() : null;
+		double[] force = new double[2];
+
+		for (int index = start; index < end; index++) {
+			if (fixed[index]) {
+				x[index] = px[index];
+				y[index] = py[index];
+				continue;
+			}
+
+			if (hasCharge) {
+				tree.computeForce(index, x[index], y[index], thetaSquared, chargeDistanceSquared, stack, force);
+				px[index] -= force[0];
+				py[index] -= force[1];
+			}
+
+			double oldX = x[index];
+			double oldY = y[index];
+			x[index] -= (px[index] - oldX) * friction;
+			y[index] -= (py[index] - oldY) * friction;
+			px[index] = oldX;
+			py[index] = oldY;
+		}
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	public int getNumberOfNodes() {
+		return numberOfNodes;
+	}
+
+	/**
+	 * Sets the size of the layout; gravity pulls the nodes towards its center
+	 *
+	 * @param width
+	 * @param height
+	 * @return this simulation
+	 */
+	public ForceSimulation size(double width, double height) {
+		this.width = width;
+		this.height = height;
+		return this;
+	}
+
+	/**
+	 * Sets the links as pairs of node indices
+	 *
+	 * @param sources
+	 *            the indices of the source nodes
+	 * @param targets
+	 *            the indices of the target nodes
+	 * @return this simulation
+	 */
+	public ForceSimulation links(int[] sources, int[] targets) {
+		if (sources.length != targets.length) {
+			String message = "The number of sources (" + sources.length + ") and targets (" + targets.length
+					+ ") must be equal";
+			throw new IllegalStateException(message);
+		}
+		assertNodeIndices(sources);
+		assertNodeIndices(targets);
+		linkSources = sources.clone();
+		linkTargets = targets.clone();
+		linkDistances = null;
+		linkStrengths = null;
+		return this;
+	}
+
+	private void assertNodeIndices(int[] indices) {
+		for (int index : indices) {
+			boolean isValid = index >= 0 && index < numberOfNodes;
+			if (!isValid) {
+				String message = "The node index " + index + " is not within [0, " + numberOfNodes + ")";
+				throw new IllegalStateException(message);
+			}
+		}
+	}
+
+	public int getNumberOfLinks() {
+		return linkSources.length;
+	}
+
+	public ForceSimulation linkDistance(double distance) {
+		linkDistance = distance;
+		linkDistances = null;
+		return this;
+	}
+
+	/**
+	 * Sets an individual distance for each link
+	 *
+	 * @param distances
+	 * @return this simulation
+	 */
+	public ForceSimulation linkDistances(double[] distances) {
+		assertLength("link distances", distances, linkSources.length);
+		linkDistances = distances.clone();
+		return this;
+	}
+
+	public ForceSimulation linkStrength(double strength) {
+		linkStrength = strength;
+		linkStrengths = null;
+		return this;
+	}
+
+	/**
+	 * Sets an individual strength in [0, 1] for each link
+	 *
+	 * @param strengths
+	 * @return this simulation
+	 */
+	public ForceSimulation linkStrengths(double[] strengths) {
+		assertLength("link strengths", strengths, linkSources.length);
+		linkStrengths = strengths.clone();
+		return this;
+	}
+
+	/**
+	 * Sets the charge of all nodes; negative values repel the nodes
+	 *
+	 * @param charge
+	 * @return this simulation
+	 */
+	public ForceSimulation charge(double charge) {
+		this.charge = charge;
+		charges = null;
+		return this;
+	}
+
+	/**
+	 * Sets an individual charge for each node
+	 *
+	 * @param charges
+	 * @return this simulation
+	 */
+	public ForceSimulation charges(double[] charges) {
+		assertLength("charges", charges, numberOfNodes);
+		this.charges = charges.clone();
+		return this;
+	}
+
+	private static void assertLength(String name, double[] values, int expectedLength) {
+		boolean hasWrongLength = values.length != expectedLength;
+		if (hasWrongLength) {
+			String message = "The number of " + name + " must be " + expectedLength + " but is " + values.length;
+			throw new IllegalStateException(message);
+		}
+	}
+
+	public double friction() {
+		return friction;
+	}
+
+	public ForceSimulation friction(double friction) {
+		this.friction = friction;
+		return this;
+	}
+
+	public double gravity() {
+		return gravity;
+	}
+
+	public ForceSimulation gravity(double gravity) {
+		this.gravity = gravity;
+		return this;
+	}
+
+	public double theta() {
+		return theta;
+	}
+
+	public ForceSimulation theta(double theta) {
+		this.theta = theta;
+		return this;
+	}
+
+	public double chargeDistance() {
+		return chargeDistance;
+	}
+
+	public ForceSimulation chargeDistance(double chargeDistance) {
+		this.chargeDistance = chargeDistance;
+		return this;
+	}
+
+	public double alpha() {
+		return alpha;
+	}
+
+	public ForceSimulation alpha(double alpha) {
+		this.alpha = alpha;
+		return this;
+	}
+
+	/**
+	 * Places the node with the given index at the given position and resets
+	 * its velocity
+	 *
+	 * @param index
+	 * @param nodeX
+	 * @param nodeY
+	 * @return this simulation
+	 */
+	public ForceSimulation position(int index, double nodeX, double nodeY) {
+		x[index] = nodeX;
+		y[index] = nodeY;
+		px[index] = nodeX;
+		py[index] = nodeY;
+		return this;
+	}
+
+	/**
+	 * Fixes the node with the given index at its previous position, e.g.
+	 * while it is dragged
+	 *
+	 * @param index
+	 * @param isFixed
+	 * @return this simulation
+	 */
+	public ForceSimulation fixed(int index, boolean isFixed) {
+		fixed[index] = isFixed;
+		return this;
+	}
+
+	public boolean isFixed(int index) {
+		return fixed[index];
+	}
+
+	public double getX(int index) {
+		return x[index];
+	}
+
+	public double getY(int index) {
+		return y[index];
+	}
+
+	/**
+	 * Returns a copy of the positions as x and y value for each node
+	 *
+	 * @return
+	 */
+	public double[] getPositions() {
+		double[] positions = new double[2 * numberOfNodes];
+		for (int index = 0; index < numberOfNodes; index++) {
+			positions[2 * index] = x[index];
+			positions[2 * index + 1] = y[index];
+		}
+		return positions;
+	}
+
+	//#end region
+
+	//#end region
+
+	//#region NODE TASK
+
+	/**
+	 * Applies a phase of a tick to a range of nodes and splits the range as
+	 * long as it is large enough
+	 */
+	private class NodeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		static final int GRAVITY = 0;
+
+		static final int CHARGE_AND_INTEGRATION = 1;
+
+		static final int INTEGRATION = 2;
+
+		private final int phase;
+
+		private final int start;
+
+		private final int end;
+
+		private final double gravityFactor;
+
+		NodeTask(int phase, int start, int end, double gravityFactor) {
+			this.phase = phase;
+			this.start = start;
+			this.end = end;
+			this.gravityFactor = gravityFactor;
+		}
+
+		@Override
+		protected void compute() {
+			int minNodesPerTask = Math.max(MIN_NODES_PER_TASK, numberOfNodes / (4 * pool.getParallelism()));
+			boolean isSplit = end - start > minNodesPerTask;
+			if (isSplit) {
+				int middle = (start + end) >>> 1;
+				invokeAll(new NodeTask(phase, start, middle, gravityFactor),
+						new NodeTask(phase, middle, end, gravityFactor));
+				return;
+			}
+
+			switch (phase) {
+			case GRAVITY:
+				applyGravity(start, end, gravityFactor);
+				break;
+			case CHARGE_AND_INTEGRATION:
+				applyChargeAndIntegrate(start, end, true);
+				break;
+			default:
+				applyChargeAndIntegrate(start, end, false);
+			}
+		}
+	}
+
+	//#end region
+
+	//#region BARNES HUT TREE
+
+	/**
+	 * A quadtree with the accumulated charges and charge centers of its
+	 * cells. The cells are stored in primitive arrays and addressed by index;
+	 * children are always created after their parents. Leaf cells hold a
+	 * linked list of points that are coincident (or that reached the maximum
+	 * depth).
+	 */
+	private static class BarnesHutTree {
+
+		private static final int MAX_DEPTH = 48;
+
+		private static final int NO_INDEX = -1;
+
+		private int numberOfCells;
+
+		private int[] children;
+
+		private boolean[] isInternal;
+
+		private int[] firstPoint;
+
+		private double[] cellX;
+
+		private double[] cellY;
+
+		private double[] cellSize;
+
+		private double[] cellCharge;
+
+		private double[] chargeX;
+
+		private double[] chargeY;
+
+		private final int[] nextPoint;
+
+		private final double[] pointX;
+
+		private final double[] pointY;
+
+		private final double[] pointCharge;
+
+		BarnesHutTree(int numberOfPoints) {
+			nextPoint = new int[numberOfPoints];
+			pointX = new double[numberOfPoints];
+			pointY = new double[numberOfPoints];
+			pointCharge = new double[numberOfPoints];
+			allocateCells(Math.max(16, 2 * numberOfPoints));
+		}
+
+		private void allocateCells(int capacity) {
+			int oldCapacity = cellSize == null ? 0 : cellSize.length;
+			children = copyOf(children, 4 * capacity, 4 * oldCapacity);
+			isInternal = isInternal == null ? new boolean[capacity] : Arrays.copyOf(isInternal, capacity);
+			firstPoint = copyOf(firstPoint, capacity, oldCapacity);
+			cellX = cellX == null ? new double[capacity] : Arrays.copyOf(cellX, capacity);
+			cellY = cellY == null ? new double[capacity] : Arrays.copyOf(cellY, capacity);
+			cellSize = cellSize == null ? new double[capacity] : Arrays.copyOf(cellSize, capacity);
+			cellCharge = cellCharge == null ? new double[capacity] : Arrays.copyOf(cellCharge, capacity);
+			chargeX = chargeX == null ? new double[capacity] : Arrays.copyOf(chargeX, capacity);
+			chargeY = chargeY == null ? new double[capacity] : Arrays.copyOf(chargeY, capacity);
+		}
+
+		private static int[] copyOf(int[] values, int capacity, int oldCapacity) {
+			int[] copy = values == null ? new int[capacity] : Arrays.copyOf(values, capacity);
+			Arrays.fill(copy, oldCapacity, capacity, NO_INDEX);
+			return copy;
+		}
+
+		private int createCell(double x1, double y1, double size) {
+			boolean isFull = numberOfCells == cellSize.length;
+			if (isFull) {
+				allocateCells(2 * cellSize.length);
+			}
+			int cell = numberOfCells++;
+			Arrays.fill(children, 4 * cell, 4 * cell + 4, NO_INDEX);
+			isInternal[cell] = false;
+			firstPoint[cell] = NO_INDEX;
+			cellX[cell] = x1;
+			cellY[cell] = y1;
+			cellSize[cell] = size;
+			return cell;
+		}
+
+		/**
+		 * Inserts the given points into a new square tree
+		 */
+		void build(double[] x, double[] y, int numberOfPoints) {
+			double minX = Double.POSITIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			for (int index = 0; index < numberOfPoints; index++) {
+				pointX[index] = x[index];
+				pointY[index] = y[index];
+				minX = Math.min(minX, x[index]);
+				minY = Math.min(minY, y[index]);
+				maxX = Math.max(maxX, x[index]);
+				maxY = Math.max(maxY, y[index]);
+			}
+
+			numberOfCells = 0;
+			double size = Math.max(maxX - minX, maxY - minY);
+			createCell(minX, minY, size > 0 ? size : 1);
+			for (int index = 0; index < numberOfPoints; index++) {
+				insert(index);
+			}
+		}
+
+		private void insert(int point) {
+			int cell = 0;
+			int depth = 0;
+			while (true) {
+				if (!isInternal[cell]) {
+					int first = firstPoint[cell];
+					if (first == NO_INDEX) {
+						firstPoint[cell] = point;
+						nextPoint[point] = NO_INDEX;
+						return;
+					}
+
+					boolean isCoincident = pointX[first] == pointX[point] && pointY[first] == pointY[point];
+					if (isCoincident || depth >= MAX_DEPTH) {
+						nextPoint[point] = first;
+						firstPoint[cell] = point;
+						return;
+					}
+
+					// split the leaf and move its points to a child
+					isInternal[cell] = true;
+					firstPoint[cell] = NO_INDEX;
+					int child = getOrCreateChild(cell, pointX[first], pointY[first]);
+					firstPoint[child] = first;
+				}
+
+				cell = getOrCreateChild(cell, pointX[point], pointY[point]);
+				depth++;
+			}
+		}
+
+		private int getOrCreateChild(int cell, double x, double y) {
+			double halfSize = cellSize[cell] / 2;
+			boolean isRight = x >= cellX[cell] + halfSize;
+			boolean isBottom = y >= cellY[cell] + halfSize;
+			int childSlot = 4 * cell + (isBottom ? 2 : 0) + (isRight ? 1 : 0);
+			int child = children[childSlot];
+			if (child == NO_INDEX) {
+				double childX = isRight ? cellX[cell] + halfSize : cellX[cell];
+				double childY = isBottom ? cellY[cell] + halfSize : cellY[cell];
+				child = createCell(childX, childY, halfSize);
+				// the arrays might have been reallocated
+				children[childSlot] = child;
+			}
+			return child;
+		}
+
+		/**
+		 * Computes the charge (multiplied with alpha) and the charge center of
+		 * each cell. The cells are visited in reverse order, so the children
+		 * are handled before their parents.
+		 */
+		void accumulate(double alpha, double charge, double[] charges) {
+			for (int cell = numberOfCells - 1; cell >= 0; cell--) {
+				double sum = 0;
+				double sumX = 0;
+				double sumY = 0;
+				if (isInternal[cell]) {
+					for (int slot = 4 * cell; slot < 4 * cell + 4; slot++) {
+						int child = children[slot];
+						if (child != NO_INDEX) {
+							sum += cellCharge[child];
+							sumX += cellCharge[child] * chargeX[child];
+							sumY += cellCharge[child] * chargeY[child];
+						}
+					}
+				} else {
+					for (int point = firstPoint[cell]; point != NO_INDEX; point = nextPoint[point]) {
+						double pointValue = alpha * (charges == null ? charge : charges[point]);
+						pointCharge[point] = pointValue;
+						sum += pointValue;
+						sumX += pointValue * pointX[point];
+						sumY += pointValue * pointY[point];
+					}
+				}
+				cellCharge[cell] = sum;
+				chargeX[cell] = sum == 0 ? cellX[cell] : sumX / sum;
+				chargeY[cell] = sum == 0 ? cellY[cell] : sumY / sum;
+			}
+		}
+
+		int[] createStack() {
+			return new int[3 * MAX_DEPTH + 8];
+		}
+
+		/**
+		 * Computes the charge force on the given point. Cells that are far
+		 * enough (cell size / distance < theta) are approximated by their
+		 * charge center. Coincident points are separated by a random offset.
+		 */
+		void computeForce(int point, double x, double y, double thetaSquared, double chargeDistanceSquared,
+				int[] stack, double[] force) {
+			double forceX = 0;
+			double forceY = 0;
+			int stackSize = 0;
+			stack[stackSize++] = 0;
+			while (stackSize > 0) {
+				int cell = stack[--stackSize];
+				if (cellCharge[cell] == 0) {
+					continue;
+				}
+
+				if (isInternal[cell]) {
+					double dx = chargeX[cell] - x;
+					double dy = chargeY[cell] - y;
+					double squaredDistance = dx * dx + dy * dy;
+					double size = cellSize[cell];
+					boolean isFarEnough = size * size / thetaSquared < squaredDistance;
+					if (isFarEnough) {
+						if (squaredDistance < chargeDistanceSquared) {
+							double factor = cellCharge[cell] / squaredDistance;
+							forceX += dx * factor;
+							forceY += dy * factor;
+						}
+						continue;
+					}
+					for (int slot = 4 * cell; slot < 4 * cell + 4; slot++) {
+						int child = children[slot];
+						if (child != NO_INDEX) {
+							stack[stackSize++] = child;
+						}
+					}
+					continue;
+				}
+
+				for (int other = firstPoint[cell]; other != NO_INDEX; other = nextPoint[other]) {
+					if (other == point) {
+						continue;
+					}
+					double dx = pointX[other] - x;
+					double dy = pointY[other] - y;
+					double squaredDistance = dx * dx + dy * dy;
+					if (squaredDistance == 0) {
+						// like d3, coincident points are jittered by up to 0.5
+						ThreadLocalRandom random = ThreadLocalRandom.current();
+						dx = random.nextDouble() - 0.5;
+						dy = random.nextDouble() - 0.5;
+						squaredDistance = dx * dx + dy * dy;
+					}
+					if (squaredDistance < chargeDistanceSquared) {
+						double factor = pointCharge[other] / squaredDistance;
+						forceX += dx * factor;
+						forceY += dy * factor;
+					}
+				}
+			}
+			force[0] = forceX;
+			force[1] = forceY;
+		}
+	}
+
+	//#end region
+
+}
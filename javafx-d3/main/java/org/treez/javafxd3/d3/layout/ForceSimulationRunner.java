@@ -0,0 +1,170 @@
+package org.treez.javafxd3.d3.layout;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.core.JsBridge;
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+
+import javafx.application.Platform;
+
+/**
+ * Runs a {@link ForceSimulation} on a background thread and publishes the
+ * node positions to the page. After a tick the positions are transferred as
+ * a single float64 array and assigned to the x and y properties of the
+ * JavaScript nodes; then the tick listener is called on the JavaFX
+ * application thread, e.g. to update the transforms of the node elements.
+ * <p>
+ * If the page is slower than the simulation, the simulation is not blocked:
+ * only the latest positions are published and intermediate ticks are
+ * skipped.
+ */
+public class ForceSimulationRunner {
+
+	//#region ATTRIBUTES
+
+	private final JsEngine engine;
+
+	private final ForceSimulation simulation;
+
+	private final JsObject nodes;
+
+	private Runnable tickListener;
+
+	private Runnable endListener;
+
+	private final AtomicReference<double[]> pendingPositions = new AtomicReference<>();
+
+	private volatile boolean isRunning;
+
+	private Thread thread;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * @param engine
+	 * @param simulation
+	 * @param nodes
+	 *            the JavaScript array of nodes, e.g. the data of the node
+	 *            elements; the node with the index i gets the position of the
+	 *            simulation node i
+	 */
+	public ForceSimulationRunner(JsEngine engine, ForceSimulation simulation, JsObject nodes) {
+		this.engine = engine;
+		this.simulation = simulation;
+		this.nodes = nodes;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Sets the listener that is called on the JavaFX application thread after
+	 * the positions have been published
+	 *
+	 * @param tickListener
+	 * @return this runner
+	 */
+	public ForceSimulationRunner onTick(Runnable tickListener) {
+		this.tickListener = tickListener;
+		return this;
+	}
+
+	/**
+	 * Sets the listener that is called on the JavaFX application thread after
+	 * the simulation has ended and the final positions have been published
+	 *
+	 * @param endListener
+	 * @return this runner
+	 */
+	public ForceSimulationRunner onEnd(Runnable endListener) {
+		this.endListener = endListener;
+		return this;
+	}
+
+	/**
+	 * Starts the background thread. If the simulation has not been started
+	 * yet (alpha is zero) it is started.
+	 */
+	public synchronized void start() {
+		stop();
+		boolean isStarted = simulation.alpha() > 0;
+		if (!isStarted) {
+			simulation.start();
+		}
+		isRunning = true;
+		thread = new Thread(this::run, "force-simulation");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the background thread and waits until the current tick is
+	 * finished. Afterwards the simulation can be configured and resumed with
+	 * {@link #start()}.
+	 */
+	public synchronized void stop() {
+		isRunning = false;
+		if (thread == null) {
+			return;
+		}
+		try {
+			thread.join();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		}
+		thread = null;
+	}
+
+	public boolean isRunning() {
+		return isRunning;
+	}
+
+	private void run() {
+		while (isRunning) {
+			boolean hasEnded = simulation.tick();
+			if (hasEnded) {
+				isRunning = false;
+				Platform.runLater(this::end);
+				return;
+			}
+			publishLater(simulation.getPositions());
+		}
+	}
+
+	private void publishLater(double[] positions) {
+		boolean isPublishScheduled = pendingPositions.getAndSet(positions) != null;
+		if (!isPublishScheduled) {
+			Platform.runLater(this::publish);
+		}
+	}
+
+	/**
+	 * Publishes the latest positions; runs on the JavaFX application thread
+	 */
+	private void publish() {
+		double[] positions = pendingPositions.getAndSet(null);
+		if (positions == null) {
+			return;
+		}
+		JsBridge.get(engine).call("setNodePositions", nodes, ArrayTransfer.encode(positions));
+		if (tickListener != null) {
+			tickListener.run();
+		}
+	}
+
+	private void end() {
+		pendingPositions.set(simulation.getPositions());
+		publish();
+		if (endListener != null) {
+			endListener.run();
+		}
+	}
+
+	//#end region
+
+}
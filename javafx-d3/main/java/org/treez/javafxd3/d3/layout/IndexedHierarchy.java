@@ -0,0 +1,282 @@
+package org.treez.javafxd3.d3.layout;
+
+import java.util.Arrays;
+
+/**
+ * A hierarchy that is stored in int arrays: the nodes are identified by their
+ * index and the hierarchy is defined by the index of the parent of each node.
+ * It is used by the Java hierarchical layouts {@link TreeLayout} and
+ * {@link ClusterLayout}, which can handle hierarchies with hundreds of
+ * thousands of nodes.
+ * <p>
+ * The children of a node are ordered by their index. They are stored in a
+ * single array, see {@link #getChildIndices()} and
+ * {@link #getChildOffsets()}.
+ */
+public class IndexedHierarchy {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The parent of the root node
+	 */
+	public static final int NO_PARENT = -1;
+
+	private final int[] parents;
+
+	private final int root;
+
+	private final int[] childOffsets;
+
+	private final int[] children;
+
+	private final int[] childNumbers;
+
+	private final int[] depths;
+
+	/**
+	 * The nodes in pre-order: each node comes before its children
+	 */
+	private final int[] preOrder;
+
+	/**
+	 * The nodes in post-order: each node comes after its children
+	 */
+	private final int[] postOrder;
+
+	private int height;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * Creates a hierarchy from the parent of each node
+	 *
+	 * @param parents
+	 *            the index of the parent of each node; {@link #NO_PARENT} for
+	 *            the root node
+	 */
+	public IndexedHierarchy(int[] parents) {
+		int numberOfNodes = parents.length;
+		this.parents = parents.clone();
+
+		int rootNode = NO_PARENT;
+		childOffsets = new int[numberOfNodes + 1];
+		for (int node = 0; node < numberOfNodes; node++) {
+			int parent = parents[node];
+			if (parent == NO_PARENT) {
+				if (rootNode != NO_PARENT) {
+					String message = "The nodes " + rootNode + " and " + node + " are both root nodes";
+					throw new IllegalStateException(message);
+				}
+				rootNode = node;
+			} else {
+				boolean isValidParent = parent >= 0 && parent < numberOfNodes && parent != node;
+				if (!isValidParent) {
+					String message = "The parent " + parent + " of the node " + node + " is not valid";
+					throw new IllegalStateException(message);
+				}
+				childOffsets[parent + 1]++;
+			}
+		}
+		boolean hasRoot = rootNode != NO_PARENT || numberOfNodes == 0;
+		if (!hasRoot) {
+			throw new IllegalStateException("The hierarchy has no root node");
+		}
+		root = rootNode;
+
+		for (int node = 0; node < numberOfNodes; node++) {
+			childOffsets[node + 1] += childOffsets[node];
+		}
+		children = new int[childOffsets[numberOfNodes]];
+		childNumbers = new int[numberOfNodes];
+		int[] positions = Arrays.copyOf(childOffsets, numberOfNodes);
+		for (int node = 0; node < numberOfNodes; node++) {
+			int parent = parents[node];
+			if (parent != NO_PARENT) {
+				childNumbers[node] = positions[parent] - childOffsets[parent];
+				children[positions[parent]++] = node;
+			}
+		}
+
+		depths = new int[numberOfNodes];
+		preOrder = createPreOrder();
+		postOrder = createPostOrder();
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	private int[] createPreOrder() {
+		int numberOfNodes = parents.length;
+		int[] order = new int[numberOfNodes];
+		if (numberOfNodes == 0) {
+			return order;
+		}
+
+		int[] stack = new int[numberOfNodes];
+		int stackSize = 0;
+		int size = 0;
+		stack[stackSize++] = root;
+		while (stackSize > 0) {
+			int node = stack[--stackSize];
+			order[size++] = node;
+			height = Math.max(height, depths[node]);
+			// the first child is visited first
+			for (int index = childOffsets[node + 1] - 1; index >= childOffsets[node]; index--) {
+				int child = children[index];
+				depths[child] = depths[node] + 1;
+				stack[stackSize++] = child;
+			}
+		}
+
+		boolean hasCycle = size < numberOfNodes;
+		if (hasCycle) {
+			throw new IllegalStateException("Not all nodes are descendants of the root node " + root);
+		}
+		return order;
+	}
+
+	/**
+	 * Visits the last child first and reverses the visited nodes
+	 */
+	private int[] createPostOrder() {
+		int numberOfNodes = parents.length;
+		int[] order = new int[numberOfNodes];
+		if (numberOfNodes == 0) {
+			return order;
+		}
+
+		int[] stack = new int[numberOfNodes];
+		int stackSize = 0;
+		int size = numberOfNodes;
+		stack[stackSize++] = root;
+		while (stackSize > 0) {
+			int node = stack[--stackSize];
+			order[--size] = node;
+			for (int index = childOffsets[node]; index < childOffsets[node + 1]; index++) {
+				stack[stackSize++] = children[index];
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * @return the number of nodes
+	 */
+	public int size() {
+		return parents.length;
+	}
+
+	/**
+	 * @return the index of the root node or {@link #NO_PARENT} if the hierarchy
+	 *         is empty
+	 */
+	public int getRoot() {
+		return root;
+	}
+
+	/**
+	 * @param node
+	 * @return the index of the parent or {@link #NO_PARENT} for the root node
+	 */
+	public int getParent(int node) {
+		return parents[node];
+	}
+
+	/**
+	 * @param node
+	 * @return the depth of the node; zero for the root node
+	 */
+	public int getDepth(int node) {
+		return depths[node];
+	}
+
+	/**
+	 * @return the maximum depth of the nodes
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	public int getNumberOfChildren(int node) {
+		return childOffsets[node + 1] - childOffsets[node];
+	}
+
+	public boolean isLeaf(int node) {
+		return childOffsets[node + 1] == childOffsets[node];
+	}
+
+	/**
+	 * @param node
+	 * @param childNumber
+	 *            the position of the child among its siblings
+	 * @return the index of the child
+	 */
+	public int getChild(int node, int childNumber) {
+		return children[childOffsets[node] + childNumber];
+	}
+
+	/**
+	 * @param node
+	 * @return the position of the node among its siblings
+	 */
+	public int getChildNumber(int node) {
+		return childNumbers[node];
+	}
+
+	/**
+	 * @param node
+	 * @return the indices of the children of the node
+	 */
+	public int[] getChildren(int node) {
+		return Arrays.copyOfRange(children, childOffsets[node], childOffsets[node + 1]);
+	}
+
+	/**
+	 * Returns the children of all nodes. The children of the node i are
+	 * stored from offsets[i] to offsets[i + 1] - 1, see
+	 * {@link #getChildOffsets()}.
+	 *
+	 * @return
+	 */
+	public int[] getChildIndices() {
+		return children;
+	}
+
+	/**
+	 * Returns the index of the first child of each node in
+	 * {@link #getChildIndices()} and the total number of children as last
+	 * value
+	 *
+	 * @return
+	 */
+	public int[] getChildOffsets() {
+		return childOffsets;
+	}
+
+	/**
+	 * Returns the nodes in pre-order: each node comes before its children and
+	 * the subtrees of the children are ordered like the children
+	 *
+	 * @return
+	 */
+	public int[] getPreOrder() {
+		return preOrder;
+	}
+
+	/**
+	 * Returns the nodes in post-order: each node comes after its children and
+	 * the subtrees of the children are ordered like the children
+	 *
+	 * @return
+	 */
+	public int[] getPostOrder() {
+		return postOrder;
+	}
+
+	//#end region
+
+}
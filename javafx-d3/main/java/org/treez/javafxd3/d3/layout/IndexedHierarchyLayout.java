@@ -0,0 +1,274 @@
+package org.treez.javafxd3.d3.layout;
+
+import java.util.stream.IntStream;
+
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.core.JsBridge;
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+import org.treez.javafxd3.d3.svg.DiagonalPathGenerator;
+import org.treez.javafxd3.d3.svg.PathStringBuilder;
+
+/**
+ * Base class of the hierarchical layouts that are computed in Java on an
+ * {@link IndexedHierarchy}: {@link TreeLayout} and {@link ClusterLayout}. Use
+ * them instead of {@link Tree} and {@link Cluster} for large hierarchies: the
+ * layout does not call back to Java for each node and the positions are
+ * returned as a single array of x and y values: x0, y0, x1, y1, ...
+ * <p>
+ * The positions can be transferred to the page with a single call, either by
+ * assigning them to existing JavaScript nodes (see
+ * {@link #setNodePositions(JsEngine, JsObject, double[])}) or by creating new
+ * nodes (see {@link #toJsNodes(JsEngine, IndexedHierarchy, double[])}). The
+ * links can be transferred as diagonal path strings.
+ *
+ * @param <L>
+ *            the type of the layout
+ */
+public abstract class IndexedHierarchyLayout<L extends IndexedHierarchyLayout<L>> {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The default separation of d3: 1 for siblings and 2 for other neighbors
+	 */
+	public static final Separation DEFAULT_SEPARATION = (hierarchy, first, second) -> {
+		boolean isSibling = hierarchy.getParent(first) == hierarchy.getParent(second);
+		return isSibling ? 1 : 2;
+	};
+
+	private static final DiagonalPathGenerator VERTICAL_LINK = new DiagonalPathGenerator();
+
+	private static final DiagonalPathGenerator HORIZONTAL_LINK = new DiagonalPathGenerator()
+			.projection(DiagonalPathGenerator.HORIZONTAL);
+
+	protected double width = 1;
+
+	protected double height = 1;
+
+	protected boolean hasNodeSize = false;
+
+	protected Separation separation = DEFAULT_SEPARATION;
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Computes the positions of the nodes of the given hierarchy
+	 *
+	 * @param hierarchy
+	 * @return the x and y value of each node: x0, y0, x1, y1, ...
+	 */
+	public abstract double[] apply(IndexedHierarchy hierarchy);
+
+	@SuppressWarnings("unchecked")
+	private L self() {
+		return (L) this;
+	}
+
+	/**
+	 * Sets the available layout size; the positions are scaled to fit into it.
+	 * The default size is 1x1. Resets the node size.
+	 *
+	 * @param width
+	 * @param height
+	 * @return this layout
+	 */
+	public L size(double width, double height) {
+		this.width = width;
+		this.height = height;
+		hasNodeSize = false;
+		return self();
+	}
+
+	/**
+	 * @return the size or null if a node size is used
+	 */
+	public double[] size() {
+		return hasNodeSize ? null : new double[] { width, height };
+	}
+
+	/**
+	 * Sets a fixed size for each node: the neighbors are separated by the
+	 * separation times the given width and the depths by the given height.
+	 * The root node is placed at 0, 0.
+	 *
+	 * @param width
+	 * @param height
+	 * @return this layout
+	 */
+	public L nodeSize(double width, double height) {
+		this.width = width;
+		this.height = height;
+		hasNodeSize = true;
+		return self();
+	}
+
+	/**
+	 * @return the node size or null if the layout has a fixed size
+	 */
+	public double[] nodeSize() {
+		return hasNodeSize ? new double[] { width, height } : null;
+	}
+
+	/**
+	 * Sets the function that computes the separation between neighboring
+	 * nodes; see {@link #DEFAULT_SEPARATION}
+	 *
+	 * @param separation
+	 * @return this layout
+	 */
+	public L separation(Separation separation) {
+		this.separation = separation;
+		return self();
+	}
+
+	public Separation separation() {
+		return separation;
+	}
+
+	//#region TRANSFER
+
+	/**
+	 * Creates a diagonal path string like {@link org.treez.javafxd3.d3.svg.Diagonal}
+	 * for the link from the parent to each node, in parallel. The links are
+	 * ordered like the nodes and the root node is skipped, so the link to the
+	 * node i is at i - 1 if the root node is the first node.
+	 *
+	 * @param hierarchy
+	 * @param positions
+	 *            the positions that have been computed by the layout
+	 * @param isHorizontal
+	 *            if true, the x and y values are swapped, e.g. for a tree that
+	 *            grows from left to right
+	 * @return the path strings
+	 */
+	public static String[] toLinkPaths(IndexedHierarchy hierarchy, double[] positions, boolean isHorizontal) {
+		int numberOfNodes = hierarchy.size();
+		int root = hierarchy.getRoot();
+		String[] paths = new String[Math.max(numberOfNodes - 1, 0)];
+		IntStream.range(0, numberOfNodes).parallel().forEach((node) -> {
+			if (node != root) {
+				PathStringBuilder path = new PathStringBuilder(64);
+				appendLink(path, positions, hierarchy.getParent(node), node, isHorizontal);
+				paths[node < root ? node : node - 1] = path.toString();
+			}
+		});
+		return paths;
+	}
+
+	/**
+	 * Creates a single path string that contains the diagonals of all links,
+	 * e.g. to draw all links with a single path element; see
+	 * {@link #toLinkPaths(IndexedHierarchy, double[], boolean)}
+	 *
+	 * @param hierarchy
+	 * @param positions
+	 * @param isHorizontal
+	 * @return the path string
+	 */
+	public static String toLinkPath(IndexedHierarchy hierarchy, double[] positions, boolean isHorizontal) {
+		int numberOfNodes = hierarchy.size();
+		PathStringBuilder path = new PathStringBuilder(48 * numberOfNodes);
+		for (int node = 0; node < numberOfNodes; node++) {
+			int parent = hierarchy.getParent(node);
+			if (parent != IndexedHierarchy.NO_PARENT) {
+				appendLink(path, positions, parent, node, isHorizontal);
+			}
+		}
+		return path.toString();
+	}
+
+	/**
+	 * Transfers the link path strings (see
+	 * {@link #toLinkPaths(IndexedHierarchy, double[], boolean)}) to the page
+	 * with a single call
+	 *
+	 * @param engine
+	 * @param hierarchy
+	 * @param positions
+	 * @param isHorizontal
+	 * @return the JavaScript array of path strings
+	 */
+	public static JsObject toJsLinkPaths(JsEngine engine, IndexedHierarchy hierarchy, double[] positions,
+			boolean isHorizontal) {
+		return ArrayTransfer.toJsArray(engine, toLinkPaths(hierarchy, positions, isHorizontal));
+	}
+
+	/**
+	 * Appends the cubic Bezier curve of d3.svg.diagonal from the source to the
+	 * target node
+	 */
+	private static void appendLink(PathStringBuilder path, double[] positions, int source, int target,
+			boolean isHorizontal) {
+		DiagonalPathGenerator link = isHorizontal ? HORIZONTAL_LINK : VERTICAL_LINK;
+		link.appendPath(path, positions[2 * source], positions[2 * source + 1], positions[2 * target],
+				positions[2 * target + 1]);
+	}
+
+	/**
+	 * Assigns the given positions to the x and y properties of the given
+	 * JavaScript nodes with a single call; the node with the index i gets the
+	 * position of the hierarchy node i
+	 *
+	 * @param engine
+	 * @param nodes
+	 *            a JavaScript array of nodes, e.g. the data of the node
+	 *            elements
+	 * @param positions
+	 */
+	public static void setNodePositions(JsEngine engine, JsObject nodes, double[] positions) {
+		JsBridge.get(engine).call("setNodePositions", nodes, ArrayTransfer.encode(positions));
+	}
+
+	/**
+	 * Creates a JavaScript node {index, parent, depth, x, y} for each node of
+	 * the hierarchy with a single call; the parent is the index of the parent
+	 * node or -1. The nodes can be bound to elements with
+	 * {@link org.treez.javafxd3.d3.core.Selection#data(Object[])}.
+	 *
+	 * @param engine
+	 * @param hierarchy
+	 * @param positions
+	 * @return the JavaScript array of nodes
+	 */
+	public static JsObject toJsNodes(JsEngine engine, IndexedHierarchy hierarchy, double[] positions) {
+		int numberOfNodes = hierarchy.size();
+		int[] parents = new int[numberOfNodes];
+		int[] depths = new int[numberOfNodes];
+		for (int node = 0; node < numberOfNodes; node++) {
+			parents[node] = hierarchy.getParent(node);
+			depths[node] = hierarchy.getDepth(node);
+		}
+		JsObject bridge = JsBridge.get(engine);
+		return (JsObject) bridge.call("createHierarchyNodes", ArrayTransfer.encode(parents),
+				ArrayTransfer.encode(depths), ArrayTransfer.encode(positions));
+	}
+
+	//#end region
+
+	//#end region
+
+	//#region SEPARATION
+
+	/**
+	 * Computes the separation between two neighboring nodes
+	 */
+	public interface Separation {
+
+		/**
+		 * @param hierarchy
+		 * @param first
+		 *            the index of the first node
+		 * @param second
+		 *            the index of the second node
+		 * @return the separation in units of the node width
+		 */
+		double separation(IndexedHierarchy hierarchy, int first, int second);
+
+	}
+
+	//#end region
+
+}
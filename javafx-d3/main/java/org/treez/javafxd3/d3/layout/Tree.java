@@ -6,6 +6,7 @@ import org.treez.javafxd3.d3.functions.DataFunction;
 import org.treez.javafxd3.d3.functions.data.DelegatingDataFunction;
 import org.treez.javafxd3.d3.wrapper.Sort;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -142,19 +143,12 @@ public class Tree extends HierarchicalLayout {
 	 *            a datum function describing how to compute children
 	 * @return this tree object
 	 */
-	public  Tree children(DataFunction<Array<Node>> function) {		
-		String functionName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(functionName, function);
-		
-		String command = "this.children(function(d) { return d3."+functionName +".apply(this,d,0);})";
-		JsObject result = evalForJsObject(command);
-		
-		if(result==null){
+	public  Tree children(DataFunction<Array<Node>> function) {
+		JsObject result = callWithPermanentCallback("children", CallbackDispatcher.DATA_FUNCTION, function);
+		if (result == null) {
 			return null;
 		}
-		
-		return new Tree(engine, result);		
+		return new Tree(engine, result);
 	}
 
 	/**
@@ -169,16 +163,11 @@ public class Tree extends HierarchicalLayout {
 	 * @return this tree object
 	 */
 	public  Tree value(DataFunction<?> function) {
-		
-		assertObjectIsNotAnonymous(function);
-		
-		String functionName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(functionName, function);
-		
-		String command = "this.value(function(d, i) { return d3."+functionName+".apply(this,d,i);})";
-		JsObject result = evalForJsObject(command);
-		return new Tree(engine, result);	     
+		JsObject result = callWithPermanentCallback("value", CallbackDispatcher.DATA_FUNCTION, function);
+		if (result == null) {
+			return null;
+		}
+		return new Tree(engine, result);
 	}
 
 	/**
@@ -0,0 +1,263 @@
+package org.treez.javafxd3.d3.layout;
+
+import java.util.Arrays;
+
+/**
+ * The Reingold-Tilford "tidy" tree layout of {@link Tree}, computed in Java on
+ * an {@link IndexedHierarchy} in linear time (Buchheim et al.). The nodes of
+ * the same depth are placed on the same y value; the children of a node are
+ * placed in the order of their indices.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * IndexedHierarchy hierarchy = new IndexedHierarchy(parents);
+ * double[] positions = new TreeLayout().size(width, height).apply(hierarchy);
+ * }
+ * </pre>
+ */
+public class TreeLayout extends IndexedHierarchyLayout<TreeLayout> {
+
+	//#region ATTRIBUTES
+
+	private IndexedHierarchy hierarchy;
+
+	/**
+	 * The preliminary x value of each node
+	 */
+	private double[] prelim;
+
+	private double[] modifier;
+
+	private double[] change;
+
+	private double[] shift;
+
+	private int[] thread;
+
+	private int[] ancestor;
+
+	/**
+	 * The default ancestor of the children of each node
+	 */
+	private int[] defaultAncestor;
+
+	//#end region
+
+	//#region METHODS
+
+	@Override
+	public synchronized double[] apply(IndexedHierarchy hierarchy) {
+		int numberOfNodes = hierarchy.size();
+		double[] positions = new double[2 * numberOfNodes];
+		if (numberOfNodes == 0) {
+			return positions;
+		}
+
+		this.hierarchy = hierarchy;
+		prelim = new double[numberOfNodes];
+		modifier = new double[numberOfNodes];
+		change = new double[numberOfNodes];
+		shift = new double[numberOfNodes];
+		thread = new int[numberOfNodes];
+		ancestor = new int[numberOfNodes];
+		defaultAncestor = new int[numberOfNodes];
+		Arrays.fill(thread, -1);
+		Arrays.fill(defaultAncestor, -1);
+		for (int node = 0; node < numberOfNodes; node++) {
+			ancestor[node] = node;
+		}
+
+		for (int node : hierarchy.getPostOrder()) {
+			firstWalk(node);
+		}
+		secondWalk(positions);
+		scale(positions);
+
+		this.hierarchy = null;
+		prelim = null;
+		modifier = null;
+		change = null;
+		shift = null;
+		thread = null;
+		ancestor = null;
+		defaultAncestor = null;
+		return positions;
+	}
+
+	/**
+	 * Computes the preliminary x value of the node; the children have already
+	 * been visited
+	 */
+	private void firstWalk(int node) {
+		int parent = hierarchy.getParent(node);
+		int childNumber = hierarchy.getChildNumber(node);
+		int leftSibling = childNumber > 0 ? hierarchy.getChild(parent, childNumber - 1) : -1;
+		boolean hasLeftSibling = leftSibling >= 0;
+
+		int numberOfChildren = hierarchy.getNumberOfChildren(node);
+		if (numberOfChildren > 0) {
+			executeShifts(node);
+			int firstChild = hierarchy.getChild(node, 0);
+			int lastChild = hierarchy.getChild(node, numberOfChildren - 1);
+			double midpoint = (prelim[firstChild] + prelim[lastChild]) / 2;
+			if (hasLeftSibling) {
+				prelim[node] = prelim[leftSibling] + separation.separation(hierarchy, node, leftSibling);
+				modifier[node] = prelim[node] - midpoint;
+			} else {
+				prelim[node] = midpoint;
+			}
+		} else if (hasLeftSibling) {
+			prelim[node] = prelim[leftSibling] + separation.separation(hierarchy, node, leftSibling);
+		}
+
+		if (parent != IndexedHierarchy.NO_PARENT) {
+			int parentAncestor = defaultAncestor[parent];
+			if (parentAncestor < 0) {
+				parentAncestor = hierarchy.getChild(parent, 0);
+			}
+			defaultAncestor[parent] = apportion(node, leftSibling, parentAncestor);
+		}
+	}
+
+	/**
+	 * Moves the subtree of the node to the right until it does not overlap
+	 * with the subtrees of its left siblings; the contours are followed with
+	 * the threads
+	 */
+	private int apportion(int node, int leftSibling, int defaultAncestor) {
+		if (leftSibling < 0) {
+			return defaultAncestor;
+		}
+
+		int insideRight = node;
+		int outsideRight = node;
+		int insideLeft = leftSibling;
+		int outsideLeft = hierarchy.getChild(hierarchy.getParent(node), 0);
+		double shiftInsideRight = modifier[insideRight];
+		double shiftOutsideRight = modifier[outsideRight];
+		double shiftInsideLeft = modifier[insideLeft];
+		double shiftOutsideLeft = modifier[outsideLeft];
+
+		while (true) {
+			insideLeft = nextRight(insideLeft);
+			insideRight = nextLeft(insideRight);
+			boolean hasNextLevel = insideLeft >= 0 && insideRight >= 0;
+			if (!hasNextLevel) {
+				break;
+			}
+			outsideLeft = nextLeft(outsideLeft);
+			outsideRight = nextRight(outsideRight);
+			ancestor[outsideRight] = node;
+			double distance = prelim[insideLeft] + shiftInsideLeft - prelim[insideRight] - shiftInsideRight
+					+ separation.separation(hierarchy, insideLeft, insideRight);
+			if (distance > 0) {
+				moveSubtree(getAncestor(insideLeft, node, defaultAncestor), node, distance);
+				shiftInsideRight += distance;
+				shiftOutsideRight += distance;
+			}
+			shiftInsideLeft += modifier[insideLeft];
+			shiftInsideRight += modifier[insideRight];
+			shiftOutsideLeft += modifier[outsideLeft];
+			shiftOutsideRight += modifier[outsideRight];
+		}
+
+		if (insideLeft >= 0 && nextRight(outsideRight) < 0) {
+			thread[outsideRight] = insideLeft;
+			modifier[outsideRight] += shiftInsideLeft - shiftOutsideRight;
+		}
+		if (insideRight >= 0 && nextLeft(outsideLeft) < 0) {
+			thread[outsideLeft] = insideRight;
+			modifier[outsideLeft] += shiftInsideRight - shiftOutsideLeft;
+			return node;
+		}
+		return defaultAncestor;
+	}
+
+	private int nextLeft(int node) {
+		boolean isLeaf = hierarchy.isLeaf(node);
+		return isLeaf ? thread[node] : hierarchy.getChild(node, 0);
+	}
+
+	private int nextRight(int node) {
+		int numberOfChildren = hierarchy.getNumberOfChildren(node);
+		return numberOfChildren == 0 ? thread[node] : hierarchy.getChild(node, numberOfChildren - 1);
+	}
+
+	private int getAncestor(int insideLeft, int node, int defaultAncestor) {
+		int candidate = ancestor[insideLeft];
+		boolean isSibling = hierarchy.getParent(candidate) == hierarchy.getParent(node);
+		return isSibling ? candidate : defaultAncestor;
+	}
+
+	private void moveSubtree(int leftNode, int rightNode, double distance) {
+		double distanceChange = distance
+				/ (hierarchy.getChildNumber(rightNode) - hierarchy.getChildNumber(leftNode));
+		change[rightNode] -= distanceChange;
+		shift[rightNode] += distance;
+		change[leftNode] += distanceChange;
+		prelim[rightNode] += distance;
+		modifier[rightNode] += distance;
+	}
+
+	private void executeShifts(int node) {
+		double totalShift = 0;
+		double totalChange = 0;
+		for (int childNumber = hierarchy.getNumberOfChildren(node) - 1; childNumber >= 0; childNumber--) {
+			int child = hierarchy.getChild(node, childNumber);
+			prelim[child] += totalShift;
+			modifier[child] += totalShift;
+			totalChange += change[child];
+			totalShift += shift[child] + totalChange;
+		}
+	}
+
+	/**
+	 * Computes the final x values by summing up the modifiers of the
+	 * ancestors; the root node is placed at zero
+	 */
+	private void secondWalk(double[] positions) {
+		int root = hierarchy.getRoot();
+		for (int node : hierarchy.getPreOrder()) {
+			int parent = hierarchy.getParent(node);
+			double parentModifier = node == root ? -prelim[root] : modifier[parent];
+			positions[2 * node] = prelim[node] + parentModifier;
+			modifier[node] += parentModifier;
+		}
+	}
+
+	private void scale(double[] positions) {
+		int[] preOrder = hierarchy.getPreOrder();
+		if (hasNodeSize) {
+			for (int node : preOrder) {
+				positions[2 * node] *= width;
+				positions[2 * node + 1] = hierarchy.getDepth(node) * height;
+			}
+			return;
+		}
+
+		int left = hierarchy.getRoot();
+		int right = left;
+		for (int node : preOrder) {
+			if (positions[2 * node] < positions[2 * left]) {
+				left = node;
+			}
+			if (positions[2 * node] > positions[2 * right]) {
+				right = node;
+			}
+		}
+		double translation = separation.separation(hierarchy, left, right) / 2 - positions[2 * left];
+		double scaleX = width
+				/ (positions[2 * right] + separation.separation(hierarchy, right, left) / 2 + translation);
+		int maxDepth = hierarchy.getHeight();
+		double scaleY = height / (maxDepth == 0 ? 1 : maxDepth);
+		for (int node : preOrder) {
+			positions[2 * node] = (positions[2 * node] + translation) * scaleX;
+			positions[2 * node + 1] = hierarchy.getDepth(node) * scaleY;
+		}
+	}
+
+	//#end region
+
+}
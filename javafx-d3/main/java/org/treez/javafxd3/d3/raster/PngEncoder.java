@@ -0,0 +1,141 @@
+package org.treez.javafxd3.d3.raster;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Encodes ARGB pixel buffers as PNG images (8 bit RGBA) without depending on
+ * AWT, e.g. to send the images of a {@link RasterLayer} to the page as data
+ * URI. The rows are stored with the sub filter and compressed with the
+ * fastest deflate level, which suits the large transparent areas of scatter
+ * plots.
+ */
+public final class PngEncoder {
+
+	//#region ATTRIBUTES
+
+	private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
+
+	private static final int COLOR_TYPE_RGBA = 6;
+
+	private static final int FILTER_SUB = 1;
+
+	private static final String DATA_URI_PREFIX = "data:image/png;base64,";
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	private PngEncoder() {
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Encodes the given non-premultiplied ARGB pixels as PNG image
+	 *
+	 * @param pixels
+	 *            the pixels row by row
+	 * @param width
+	 * @param height
+	 * @return the content of the PNG file
+	 */
+	public static byte[] encode(int[] pixels, int width, int height) {
+		boolean isValidSize = width > 0 && height > 0 && pixels.length == width * height;
+		if (!isValidSize) {
+			String message = "The number of pixels (" + pixels.length + ") does not match the size " + width + "x"
+					+ height;
+			throw new IllegalArgumentException(message);
+		}
+
+		try {
+			ByteArrayOutputStream png = new ByteArrayOutputStream();
+			png.write(SIGNATURE);
+
+			ByteArrayOutputStream header = new ByteArrayOutputStream();
+			DataOutputStream headerData = new DataOutputStream(header);
+			headerData.writeInt(width);
+			headerData.writeInt(height);
+			headerData.writeByte(8);
+			headerData.writeByte(COLOR_TYPE_RGBA);
+			headerData.writeByte(0);
+			headerData.writeByte(0);
+			headerData.writeByte(0);
+			writeChunk(png, "IHDR", header.toByteArray());
+
+			writeChunk(png, "IDAT", compress(pixels, width, height));
+			writeChunk(png, "IEND", new byte[0]);
+			return png.toByteArray();
+		} catch (IOException exception) {
+			throw new IllegalStateException("Could not encode PNG image", exception);
+		}
+	}
+
+	/**
+	 * Encodes the given pixels as data URI that can be used as href of an
+	 * image element
+	 *
+	 * @param pixels
+	 * @param width
+	 * @param height
+	 * @return
+	 */
+	public static String toDataUri(int[] pixels, int width, int height) {
+		byte[] png = encode(pixels, width, height);
+		return DATA_URI_PREFIX + Base64.getEncoder().encodeToString(png);
+	}
+
+	/**
+	 * Filters the rows with the sub filter (each byte is stored as difference
+	 * to the corresponding byte of the pixel to the left) and deflates them
+	 */
+	private static byte[] compress(int[] pixels, int width, int height) throws IOException {
+		ByteArrayOutputStream compressedData = new ByteArrayOutputStream();
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try (DeflaterOutputStream deflaterStream = new DeflaterOutputStream(compressedData, deflater, 1 << 16)) {
+			byte[] row = new byte[1 + 4 * width];
+			row[0] = FILTER_SUB;
+			for (int rowIndex = 0; rowIndex < height; rowIndex++) {
+				int previousPixel = 0;
+				int offset = rowIndex * width;
+				for (int column = 0; column < width; column++) {
+					int pixel = pixels[offset + column];
+					int position = 1 + 4 * column;
+					row[position] = (byte) ((pixel >> 16) - (previousPixel >> 16));
+					row[position + 1] = (byte) ((pixel >> 8) - (previousPixel >> 8));
+					row[position + 2] = (byte) (pixel - previousPixel);
+					row[position + 3] = (byte) ((pixel >>> 24) - (previousPixel >>> 24));
+					previousPixel = pixel;
+				}
+				deflaterStream.write(row);
+			}
+		} finally {
+			deflater.end();
+		}
+		return compressedData.toByteArray();
+	}
+
+	private static void writeChunk(ByteArrayOutputStream png, String type, byte[] data) throws IOException {
+		byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+		CRC32 checksum = new CRC32();
+		checksum.update(typeBytes);
+		checksum.update(data);
+
+		DataOutputStream chunk = new DataOutputStream(png);
+		chunk.writeInt(data.length);
+		chunk.write(typeBytes);
+		chunk.write(data);
+		chunk.writeInt((int) checksum.getValue());
+	}
+
+	//#end region
+
+}
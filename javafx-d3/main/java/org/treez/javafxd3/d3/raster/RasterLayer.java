@@ -0,0 +1,517 @@
+package org.treez.javafxd3.d3.raster;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.treez.javafxd3.d3.behaviour.Zoom;
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+import org.treez.javafxd3.d3.core.Selection;
+import org.treez.javafxd3.d3.functions.DataFunction;
+import org.treez.javafxd3.d3.scales.ContinuousQuantitativeScale;
+import org.treez.javafxd3.d3.scales.ContinuousScaleMirror;
+import org.treez.javafxd3.d3.svg.Brush;
+
+import javafx.application.Platform;
+
+/**
+ * A layer of a chart that draws dense point clouds as a single image instead
+ * of one SVG element per point. The points, lines or point densities are
+ * rasterized in Java by a {@link Rasterizer} on a background thread and sent
+ * to the page as PNG image. The image element is inserted as first child of
+ * the given parent element, so that axes and annotations stay SVG elements on
+ * top of it.
+ * <p>
+ * The image covers the ranges of the x and y scale and is aligned with the
+ * scales: if a scale is modified (e.g. by a {@link Zoom}), the current image
+ * is transformed immediately and replaced when the new image has been
+ * rasterized. Only one image is rasterized at a time; changes during the
+ * rasterization are combined into a single additional rasterization.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * RasterLayer layer = new RasterLayer(engine, plotGroup) //
+ * 		.x(xScale) //
+ * 		.y(yScale) //
+ * 		.data(xValues, yValues) //
+ * 		.color(0x401f77b4) //
+ * 		.redrawOn(zoom);
+ * layer.render();
+ * }
+ * </pre>
+ *
+ * The methods must be called on the JavaFX application thread. The data
+ * arrays are not copied and must not be modified after they have been passed
+ * to {@link #data(double[], double[])}.
+ */
+public class RasterLayer {
+
+	//#region ATTRIBUTES
+
+	private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+	/**
+	 * Rasterizes the images of all layers; the tiles of an image are drawn in
+	 * parallel
+	 */
+	private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor((runnable) -> {
+		Thread thread = new Thread(runnable, "javafx-d3 raster layer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final JsEngine engine;
+
+	private final Selection image;
+
+	/**
+	 * The namespace of the event listeners, so that they do not replace the
+	 * listeners of the chart
+	 */
+	private final String listenerNamespace;
+
+	private final List<RedrawListener> redrawListeners = new ArrayList<>();
+
+	private ContinuousScaleMirror xScale;
+
+	private ContinuousScaleMirror yScale;
+
+	private double[] xValues = new double[0];
+
+	private double[] yValues = new double[0];
+
+	private RasterMode mode = RasterMode.POINTS;
+
+	private int color = 0xff1f77b4;
+
+	private double radius = 1.5;
+
+	private double lineWidth = 1;
+
+	private int lowDensityColor = 0x331f77b4;
+
+	private int highDensityColor = 0xffd62728;
+
+	private double resolution = 1;
+
+	private boolean isRenderScheduled;
+
+	private boolean isRendering;
+
+	private boolean isRenderPending;
+
+	private boolean isDisposed;
+
+	/**
+	 * Detached copies of the scales of the displayed image
+	 */
+	private ContinuousScaleMirror displayedXScale;
+
+	private ContinuousScaleMirror displayedYScale;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * Creates a raster layer with an image element as first child of the given
+	 * parent element
+	 *
+	 * @param engine
+	 * @param parent
+	 *            the element that contains the plot, e.g. an svg:g element
+	 */
+	public RasterLayer(JsEngine engine, Selection parent) {
+		this.engine = engine;
+		this.listenerNamespace = ".jfxd3raster" + NEXT_ID.getAndIncrement();
+		image = parent.insert("image", ":first-child") //
+				.attr("class", "jfxd3-raster-layer") //
+				.attr("preserveAspectRatio", "none") //
+				.attr("pointer-events", "none");
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Schedules the rasterization of the image with the current state of the
+	 * scales. The rasterization starts after the current JavaFX event has been
+	 * processed, so that all listeners of a zoom or brush event can update
+	 * the scales first. Throws an IllegalStateException if the x or y scale
+	 * has not been set.
+	 */
+	public void render() {
+		if (isRenderScheduled || isDisposed) {
+			return;
+		}
+		boolean hasScales = xScale != null && yScale != null;
+		if (!hasScales) {
+			String message = "The x and y scale of the raster layer must be set before it is rendered";
+			throw new IllegalStateException(message);
+		}
+		isRenderScheduled = true;
+		Platform.runLater(this::startRendering);
+	}
+
+	/**
+	 * Renders the layer again whenever the given zoom behavior changes the
+	 * view. The listener is added with a namespace and does not replace the
+	 * zoom listeners of the chart.
+	 *
+	 * @param zoom
+	 * @return this layer for chaining
+	 */
+	public RasterLayer redrawOn(Zoom zoom) {
+		addRedrawListener(zoom.getJsObject(), Zoom.ZoomEventType.ZOOM.name().toLowerCase(Locale.ROOT));
+		return this;
+	}
+
+	/**
+	 * Renders the layer again whenever the extent of the given brush changes,
+	 * e.g. if the brush of a context chart sets the domain of the scales of
+	 * this layer. The listener is added with a namespace and does not replace
+	 * the brush listeners of the chart.
+	 *
+	 * @param brush
+	 * @return this layer for chaining
+	 */
+	public RasterLayer redrawOn(Brush brush) {
+		addRedrawListener(brush.getJsObject(), Brush.BrushEvent.BRUSH.getValue());
+		return this;
+	}
+
+	/**
+	 * Removes the image element and the event listeners of this layer
+	 */
+	public void dispose() {
+		if (isDisposed) {
+			return;
+		}
+		isDisposed = true;
+		CallbackDispatcher dispatcher = engine.getCallbackDispatcher();
+		for (RedrawListener listener : redrawListeners) {
+			listener.behavior.call("on", listener.eventName, null);
+			dispatcher.release(listener.callbackId);
+		}
+		redrawListeners.clear();
+		image.remove();
+	}
+
+	private void addRedrawListener(JsObject behavior, String eventType) {
+		CallbackDispatcher dispatcher = engine.getCallbackDispatcher();
+		DataFunction<Void> listener = (context, datum, index) -> {
+			render();
+			return null;
+		};
+		int callbackId = dispatcher.register(listener);
+		JsObject function = dispatcher.createFunction(CallbackDispatcher.DATA_FUNCTION, callbackId);
+		String eventName = eventType + listenerNamespace;
+		behavior.call("on", eventName, function);
+		redrawListeners.add(new RedrawListener(behavior, eventName, callbackId));
+	}
+
+	/**
+	 * Starts the rasterization on the background thread. If an image is
+	 * currently rasterized, another rasterization is started when it is
+	 * finished.
+	 */
+	private void startRendering() {
+		isRenderScheduled = false;
+		if (isDisposed) {
+			return;
+		}
+
+		ContinuousScaleMirror currentXScale = xScale.copy();
+		ContinuousScaleMirror currentYScale = yScale.copy();
+		alignImage(currentXScale, currentYScale);
+		if (isRendering) {
+			isRenderPending = true;
+			return;
+		}
+
+		double[] xRange = currentXScale.rangeAsDoubles();
+		double[] yRange = currentYScale.rangeAsDoubles();
+		double originX = Math.min(xRange[0], xRange[xRange.length - 1]);
+		double originY = Math.min(yRange[0], yRange[yRange.length - 1]);
+		double extentX = Math.abs(xRange[xRange.length - 1] - xRange[0]);
+		double extentY = Math.abs(yRange[yRange.length - 1] - yRange[0]);
+		int width = (int) Math.ceil(extentX * resolution);
+		int height = (int) Math.ceil(extentY * resolution);
+		boolean isEmpty = !(width > 0 && height > 0);
+		if (isEmpty) {
+			return;
+		}
+
+		Rasterizer rasterizer = new Rasterizer(width, height) //
+				.mode(mode) //
+				.color(color) //
+				.radius(radius * resolution) //
+				.lineWidth(lineWidth * resolution) //
+				.densityColors(lowDensityColor, highDensityColor);
+		double[] currentXValues = xValues;
+		double[] currentYValues = yValues;
+		double currentResolution = resolution;
+
+		isRendering = true;
+		EXECUTOR.execute(() -> {
+			try {
+				float[] x = Rasterizer.project(currentXValues, currentXScale, originX, currentResolution);
+				float[] y = Rasterizer.project(currentYValues, currentYScale, originY, currentResolution);
+				int[] pixels = rasterizer.rasterize(x, y);
+				String dataUri = PngEncoder.toDataUri(pixels, width, height);
+				Platform.runLater(() -> finishRendering(() -> showImage(dataUri, originX, originY,
+						width / currentResolution, height / currentResolution, currentXScale, currentYScale)));
+			} catch (RuntimeException | Error exception) {
+				Platform.runLater(() -> finishRendering(() -> {
+					if (exception instanceof Error) {
+						throw (Error) exception;
+					}
+					throw new IllegalStateException("Could not rasterize the raster layer", exception);
+				}));
+			}
+		});
+	}
+
+	/**
+	 * Runs the completion of a rasterization on the JavaFX application thread.
+	 * A pending rasterization is started afterwards, also if the
+	 * rasterization or the completion failed.
+	 */
+	private void finishRendering(Runnable completion) {
+		try {
+			completion.run();
+		} finally {
+			isRendering = false;
+			if (isRenderPending) {
+				isRenderPending = false;
+				render();
+			}
+		}
+	}
+
+	private void showImage(String dataUri, double x, double y, double width, double height,
+			ContinuousScaleMirror imageXScale, ContinuousScaleMirror imageYScale) {
+		if (isDisposed) {
+			return;
+		}
+		image.attr("x", x) //
+				.attr("y", y) //
+				.attr("width", width) //
+				.attr("height", height) //
+				.attr("xlink:href", dataUri) //
+				.attrRemove("transform");
+		displayedXScale = imageXScale;
+		displayedYScale = imageYScale;
+		engine.flush();
+	}
+
+	/**
+	 * Transforms the displayed image so that it matches the given scales
+	 * until the image for these scales has been rasterized. The transform is
+	 * exact for linear scales.
+	 */
+	private void alignImage(ContinuousScaleMirror currentXScale, ContinuousScaleMirror currentYScale) {
+		boolean hasImage = displayedXScale != null;
+		if (!hasImage) {
+			return;
+		}
+		double[] xTransform = createAxisTransform(displayedXScale, currentXScale);
+		double[] yTransform = createAxisTransform(displayedYScale, currentYScale);
+		boolean isIdentity = Math.abs(xTransform[0] - 1) < 1e-9 && Math.abs(xTransform[1]) < 1e-9
+				&& Math.abs(yTransform[0] - 1) < 1e-9 && Math.abs(yTransform[1]) < 1e-9;
+		if (isIdentity) {
+			image.attrRemove("transform");
+		} else {
+			String transform = "matrix(" + xTransform[0] + " 0 0 " + yTransform[0] + " " + xTransform[1] + " "
+					+ yTransform[1] + ")";
+			image.attr("transform", transform);
+		}
+	}
+
+	/**
+	 * Returns the scale and the translation that map the output of the image
+	 * scale to the output of the current scale
+	 */
+	private static double[] createAxisTransform(ContinuousScaleMirror imageScale, ContinuousScaleMirror currentScale) {
+		double[] domain = imageScale.domainAsDoubles();
+		double start = domain[0];
+		double end = domain[domain.length - 1];
+		double imageStart = imageScale.applyAsDouble(start);
+		double imageEnd = imageScale.applyAsDouble(end);
+		double currentStart = currentScale.applyAsDouble(start);
+		double currentEnd = currentScale.applyAsDouble(end);
+		boolean isDegenerated = imageEnd == imageStart || Double.isNaN(currentStart) || Double.isNaN(currentEnd);
+		if (isDegenerated) {
+			return new double[] { 1, 0 };
+		}
+		double scale = (currentEnd - currentStart) / (imageEnd - imageStart);
+		return new double[] { scale, currentStart - scale * imageStart };
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	/**
+	 * Returns the image element of this layer
+	 */
+	public Selection getImage() {
+		return image;
+	}
+
+	/**
+	 * Returns true if an image is currently rasterized on the background
+	 * thread
+	 */
+	public boolean isRendering() {
+		return isRendering;
+	}
+
+	/**
+	 * Sets the scale of the x coordinates. Its range defines the horizontal
+	 * extent of the image.
+	 *
+	 * @param scale
+	 * @return this layer for chaining
+	 */
+	public RasterLayer x(ContinuousQuantitativeScale<?> scale) {
+		xScale = Objects.requireNonNull(scale).mirror();
+		return this;
+	}
+
+	/**
+	 * Sets the scale of the y coordinates. Its range defines the vertical
+	 * extent of the image.
+	 *
+	 * @param scale
+	 * @return this layer for chaining
+	 */
+	public RasterLayer y(ContinuousQuantitativeScale<?> scale) {
+		yScale = Objects.requireNonNull(scale).mirror();
+		return this;
+	}
+
+	/**
+	 * Sets the coordinates of the points in the domains of the scales
+	 *
+	 * @param xValues
+	 * @param yValues
+	 * @return this layer for chaining
+	 */
+	public RasterLayer data(double[] xValues, double[] yValues) {
+		boolean hasSameLength = xValues.length == yValues.length;
+		if (!hasSameLength) {
+			String message = "The coordinate arrays must have the same length but have the lengths "
+					+ xValues.length + " and " + yValues.length;
+			throw new IllegalArgumentException(message);
+		}
+		this.xValues = xValues;
+		this.yValues = yValues;
+		return this;
+	}
+
+	public RasterLayer mode(RasterMode mode) {
+		this.mode = Objects.requireNonNull(mode);
+		return this;
+	}
+
+	/**
+	 * Sets the ARGB color of points and lines, see
+	 * {@link Rasterizer#color(int)}
+	 *
+	 * @param color
+	 * @return this layer for chaining
+	 */
+	public RasterLayer color(int color) {
+		this.color = color;
+		return this;
+	}
+
+	/**
+	 * Sets the radius of the points in the units of the parent element
+	 *
+	 * @param radius
+	 * @return this layer for chaining
+	 */
+	public RasterLayer radius(double radius) {
+		this.radius = radius;
+		return this;
+	}
+
+	/**
+	 * Sets the width of the lines in the units of the parent element
+	 *
+	 * @param lineWidth
+	 * @return this layer for chaining
+	 */
+	public RasterLayer lineWidth(double lineWidth) {
+		this.lineWidth = lineWidth;
+		return this;
+	}
+
+	/**
+	 * Sets the colors of the density ramp, see
+	 * {@link Rasterizer#densityColors(int, int)}
+	 *
+	 * @param lowDensityColor
+	 * @param highDensityColor
+	 * @return this layer for chaining
+	 */
+	public RasterLayer densityColors(int lowDensityColor, int highDensityColor) {
+		this.lowDensityColor = lowDensityColor;
+		this.highDensityColor = highDensityColor;
+		return this;
+	}
+
+	/**
+	 * Sets the number of image pixels per unit of the parent element, e.g. 2
+	 * for sharp images on high resolution screens or after zooming into the
+	 * chart with a transform
+	 *
+	 * @param resolution
+	 * @return this layer for chaining
+	 */
+	public RasterLayer resolution(double resolution) {
+		boolean isValidResolution = resolution > 0;
+		if (!isValidResolution) {
+			String message = "The resolution must be positive but is " + resolution;
+			throw new IllegalArgumentException(message);
+		}
+		this.resolution = resolution;
+		return this;
+	}
+
+	//#end region
+
+	//#region REDRAW LISTENER
+
+	/**
+	 * An event listener that renders the layer again
+	 */
+	private static class RedrawListener {
+
+		final JsObject behavior;
+
+		final String eventName;
+
+		final int callbackId;
+
+		RedrawListener(JsObject behavior, String eventName, int callbackId) {
+			this.behavior = behavior;
+			this.eventName = eventName;
+			this.callbackId = callbackId;
+		}
+	}
+
+	//#end region
+
+}
@@ -0,0 +1,25 @@
+package org.treez.javafxd3.d3.raster;
+
+/**
+ * The primitives that are drawn by a {@link Rasterizer}
+ */
+public enum RasterMode {
+
+	/**
+	 * Draws an anti-aliased disc for each point
+	 */
+	POINTS,
+
+	/**
+	 * Draws a polyline through the points in the order of the arrays. NaN
+	 * coordinates interrupt the line.
+	 */
+	LINES,
+
+	/**
+	 * Counts the points per pixel and maps the logarithmic counts to a color
+	 * ramp, e.g. for heat maps of point clouds that are too dense for
+	 * individual points
+	 */
+	DENSITY;
+}
@@ -0,0 +1,546 @@
+package org.treez.javafxd3.d3.raster;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.treez.javafxd3.d3.scales.ScaleMirror;
+
+/**
+ * Rasterizes points, lines or point densities into an ARGB pixel buffer in
+ * pure Java, see {@link RasterLayer}.
+ * <p>
+ * The image is split into tiles of {@link #TILE_HEIGHT} rows. The primitives
+ * are assigned to the tiles they overlap and the tiles are drawn in parallel,
+ * so that no synchronization is needed while drawing. The pixel coordinates
+ * of the primitives are passed as float arrays to halve the memory of large
+ * point clouds; use {@link #project} to compute them with a scale.
+ * <p>
+ * The settings must not be modified while {@link #rasterize} is running.
+ */
+public class Rasterizer {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The number of rows of a tile
+	 */
+	public static final int TILE_HEIGHT = 32;
+
+	/**
+	 * The number of values that are projected by a task of {@link #project}
+	 */
+	private static final int PROJECTION_CHUNK_SIZE = 1 << 16;
+
+	private final int width;
+
+	private final int height;
+
+	private RasterMode mode = RasterMode.POINTS;
+
+	private int color = 0xff1f77b4;
+
+	private double radius = 1.5;
+
+	private double lineWidth = 1;
+
+	private int lowDensityColor = 0x331f77b4;
+
+	private int highDensityColor = 0xffd62728;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * @param width
+	 *            the width of the image in pixels
+	 * @param height
+	 *            the height of the image in pixels
+	 */
+	public Rasterizer(int width, int height) {
+		boolean isValidSize = width > 0 && height > 0;
+		if (!isValidSize) {
+			String message = "The size of the image must be positive but is " + width + "x" + height;
+			throw new IllegalArgumentException(message);
+		}
+		this.width = width;
+		this.height = height;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Projects the given values to pixel coordinates in parallel:
+	 * (scale(value) - origin) * resolution. The scale must be usable by
+	 * other threads, e.g. a detached copy of a {@link ScaleMirror}.
+	 *
+	 * @param values
+	 * @param scale
+	 * @param origin
+	 *            the output value of the scale at the first pixel
+	 * @param resolution
+	 *            the number of pixels per output unit of the scale
+	 * @return the pixel coordinates
+	 */
+	public static float[] project(double[] values, ScaleMirror scale, double origin, double resolution) {
+		float[] coordinates = new float[values.length];
+		int numberOfChunks = (values.length + PROJECTION_CHUNK_SIZE - 1) / PROJECTION_CHUNK_SIZE;
+		IntStream.range(0, numberOfChunks).parallel().forEach((chunkIndex) -> {
+			int start = chunkIndex * PROJECTION_CHUNK_SIZE;
+			int end = Math.min(values.length, start + PROJECTION_CHUNK_SIZE);
+			for (int index = start; index < end; index++) {
+				coordinates[index] = (float) ((scale.applyAsDouble(values[index]) - origin) * resolution);
+			}
+		});
+		return coordinates;
+	}
+
+	/**
+	 * Rasterizes the primitives with the given pixel coordinates. The pixel
+	 * (column, row) covers the coordinates [column, column + 1) x [row, row +
+	 * 1). Points with NaN coordinates are skipped.
+	 *
+	 * @param x
+	 *            the x pixel coordinates of the points
+	 * @param y
+	 *            the y pixel coordinates of the points
+	 * @return the non-premultiplied ARGB values of the pixels, row by row
+	 */
+	public int[] rasterize(float[] x, float[] y) {
+		boolean hasSameLength = x.length == y.length;
+		if (!hasSameLength) {
+			String message = "The coordinate arrays must have the same length but have the lengths " + x.length
+					+ " and " + y.length;
+			throw new IllegalArgumentException(message);
+		}
+
+		int[] pixels = new int[width * height];
+		int numberOfTiles = (height + TILE_HEIGHT - 1) / TILE_HEIGHT;
+		Bins bins = createBins(x, y, numberOfTiles);
+
+		if (mode == RasterMode.DENSITY) {
+			IntStream.range(0, numberOfTiles).parallel().forEach((tile) -> countTile(pixels, x, y, bins, tile));
+			int maximumCount = Arrays.stream(pixels).parallel().max().orElse(0);
+			IntStream.range(0, numberOfTiles).parallel().forEach((tile) -> colorizeTile(pixels, tile, maximumCount));
+		} else {
+			PointStamps stamps = mode == RasterMode.POINTS ? new PointStamps(radius, color >>> 24) : null;
+			IntStream.range(0, numberOfTiles).parallel()
+					.forEach((tile) -> drawTile(pixels, stamps, x, y, bins, tile));
+		}
+		return pixels;
+	}
+
+	//#region BINNING
+
+	/**
+	 * Assigns the primitives (points or line segments) to the tiles they
+	 * overlap
+	 */
+	private Bins createBins(float[] x, float[] y, int numberOfTiles) {
+		boolean isLines = mode == RasterMode.LINES;
+		int numberOfPrimitives = isLines ? Math.max(0, x.length - 1) : x.length;
+		double margin = getMargin();
+
+		int[] firstTiles = new int[numberOfPrimitives];
+		int[] lastTiles = new int[numberOfPrimitives];
+		int[] offsets = new int[numberOfTiles + 1];
+		for (int index = 0; index < numberOfPrimitives; index++) {
+			int next = isLines ? index + 1 : index;
+			double minX = Math.min(x[index], x[next]) - margin;
+			double maxX = Math.max(x[index], x[next]) + margin;
+			double minY = Math.min(y[index], y[next]) - margin;
+			double maxY = Math.max(y[index], y[next]) + margin;
+			boolean isVisible = maxX >= 0 && minX < width && maxY >= 0 && minY < height;
+			if (!isVisible) {
+				firstTiles[index] = -1;
+				continue;
+			}
+			int firstTile = Math.max(0, (int) Math.floor(minY / TILE_HEIGHT));
+			int lastTile = Math.min(numberOfTiles - 1, (int) Math.floor(maxY / TILE_HEIGHT));
+			firstTiles[index] = firstTile;
+			lastTiles[index] = lastTile;
+			for (int tile = firstTile; tile <= lastTile; tile++) {
+				offsets[tile + 1]++;
+			}
+		}
+
+		for (int tile = 0; tile < numberOfTiles; tile++) {
+			offsets[tile + 1] += offsets[tile];
+		}
+		int[] positions = Arrays.copyOf(offsets, numberOfTiles);
+		int[] primitives = new int[offsets[numberOfTiles]];
+		for (int index = 0; index < numberOfPrimitives; index++) {
+			int firstTile = firstTiles[index];
+			if (firstTile < 0) {
+				continue;
+			}
+			for (int tile = firstTile; tile <= lastTiles[index]; tile++) {
+				primitives[positions[tile]++] = index;
+			}
+		}
+		return new Bins(offsets, primitives);
+	}
+
+	/**
+	 * Returns the distance from the position of a primitive to its farthest
+	 * pixel
+	 */
+	private double getMargin() {
+		switch (mode) {
+		case POINTS:
+			return radius + 0.5;
+		case LINES:
+			return lineWidth / 2 + 0.5;
+		default:
+			return 0;
+		}
+	}
+
+	//#end region
+
+	//#region DRAWING
+
+	private void drawTile(int[] pixels, PointStamps stamps, float[] x, float[] y, Bins bins, int tile) {
+		int firstRow = tile * TILE_HEIGHT;
+		int endRow = Math.min(height, firstRow + TILE_HEIGHT);
+		boolean isLines = mode == RasterMode.LINES;
+		for (int binIndex = bins.offsets[tile]; binIndex < bins.offsets[tile + 1]; binIndex++) {
+			int index = bins.primitives[binIndex];
+			if (isLines) {
+				drawSegment(pixels, x[index], y[index], x[index + 1], y[index + 1], firstRow, endRow);
+			} else {
+				drawPoint(pixels, stamps, x[index], y[index], firstRow, endRow);
+			}
+		}
+		unpremultiply(pixels, firstRow * width, endRow * width);
+	}
+
+	/**
+	 * Draws an anti-aliased disc by blending the stamp for the sub-pixel
+	 * position of its center
+	 */
+	private void drawPoint(int[] pixels, PointStamps stamps, double centerX, double centerY, int firstRow,
+			int endRow) {
+		double floorX = Math.floor(centerX);
+		double floorY = Math.floor(centerY);
+		int subColumn = (int) ((centerX - floorX) * PointStamps.STEPS);
+		int subRow = (int) ((centerY - floorY) * PointStamps.STEPS);
+		int[] stamp = stamps.get(subColumn, subRow);
+		int size = stamps.size;
+		int left = (int) floorX - stamps.extent;
+		int top = (int) floorY - stamps.extent;
+		int firstStampColumn = Math.max(0, -left);
+		int endStampColumn = Math.min(size, width - left);
+		int firstStampRow = Math.max(0, firstRow - top);
+		int endStampRow = Math.min(size, endRow - top);
+		for (int stampRow = firstStampRow; stampRow < endStampRow; stampRow++) {
+			int pixelOffset = (top + stampRow) * width + left;
+			int stampOffset = stampRow * size;
+			for (int stampColumn = firstStampColumn; stampColumn < endStampColumn; stampColumn++) {
+				int sourceAlpha = stamp[stampOffset + stampColumn];
+				if (sourceAlpha > 0) {
+					int pixelIndex = pixelOffset + stampColumn;
+					pixels[pixelIndex] = blend(pixels[pixelIndex], color, sourceAlpha);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Draws an anti-aliased line segment; the coverage of a pixel is
+	 * estimated from the distance of its center to the segment. Only the
+	 * pixels near the segment are visited: for each row, the segment is
+	 * clipped to the band of rows it can reach.
+	 */
+	private void drawSegment(int[] pixels, double x0, double y0, double x1, double y1, int firstRow, int endRow) {
+		double extent = lineWidth / 2 + 0.5;
+		double dx = x1 - x0;
+		double dy = y1 - y0;
+		double squaredLength = dx * dx + dy * dy;
+		int startRow = Math.max(firstRow, (int) Math.floor(Math.min(y0, y1) - extent));
+		int lastRow = Math.min(endRow - 1, (int) Math.floor(Math.max(y0, y1) + extent));
+		for (int row = startRow; row <= lastRow; row++) {
+			double centerY = row + 0.5;
+			double startT = 0;
+			double endT = 1;
+			boolean isHorizontal = Math.abs(dy) < 1e-12;
+			if (isHorizontal) {
+				if (Math.abs(y0 - centerY) > extent) {
+					continue;
+				}
+			} else {
+				double firstT = (centerY - extent - y0) / dy;
+				double secondT = (centerY + extent - y0) / dy;
+				startT = Math.max(0, Math.min(firstT, secondT));
+				endT = Math.min(1, Math.max(firstT, secondT));
+				if (startT > endT) {
+					continue;
+				}
+			}
+			double startX = x0 + startT * dx;
+			double endX = x0 + endT * dx;
+			int firstColumn = Math.max(0, (int) Math.floor(Math.min(startX, endX) - extent));
+			int lastColumn = Math.min(width - 1, (int) Math.floor(Math.max(startX, endX) + extent));
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				double centerX = column + 0.5;
+				double t = squaredLength > 0 ? ((centerX - x0) * dx + (centerY - y0) * dy) / squaredLength : 0;
+				t = Math.max(0, Math.min(1, t));
+				double distanceX = centerX - (x0 + t * dx);
+				double distanceY = centerY - (y0 + t * dy);
+				double coverage = Math.min(1, extent - Math.sqrt(distanceX * distanceX + distanceY * distanceY));
+				int sourceAlpha = (int) ((color >>> 24) * coverage + 0.5);
+				if (sourceAlpha > 0) {
+					int pixelIndex = row * width + column;
+					pixels[pixelIndex] = blend(pixels[pixelIndex], color, sourceAlpha);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Blends the given non-premultiplied color with the given alpha over the
+	 * given premultiplied pixel (source over)
+	 */
+	private static int blend(int pixel, int color, int sourceAlpha) {
+		if (sourceAlpha == 255) {
+			return color | 0xff000000;
+		}
+		int inverseAlpha = 255 - sourceAlpha;
+		int alpha = sourceAlpha + scale(pixel >>> 24, inverseAlpha);
+		int red = scale((color >> 16) & 0xff, sourceAlpha) + scale((pixel >> 16) & 0xff, inverseAlpha);
+		int green = scale((color >> 8) & 0xff, sourceAlpha) + scale((pixel >> 8) & 0xff, inverseAlpha);
+		int blue = scale(color & 0xff, sourceAlpha) + scale(pixel & 0xff, inverseAlpha);
+		return (alpha << 24) | (red << 16) | (green << 8) | blue;
+	}
+
+	/**
+	 * Returns channel * alpha / 255, rounded, without a division
+	 */
+	private static int scale(int channel, int alpha) {
+		int product = channel * alpha + 128;
+		return (product + (product >> 8)) >> 8;
+	}
+
+	/**
+	 * Converts the premultiplied pixels in the given range to
+	 * non-premultiplied ARGB values
+	 */
+	private static void unpremultiply(int[] pixels, int start, int end) {
+		for (int index = start; index < end; index++) {
+			int pixel = pixels[index];
+			int alpha = pixel >>> 24;
+			boolean isOpaque = alpha == 255;
+			if (alpha == 0 || isOpaque) {
+				continue;
+			}
+			int red = Math.min(255, (((pixel >> 16) & 0xff) * 255 + alpha / 2) / alpha);
+			int green = Math.min(255, (((pixel >> 8) & 0xff) * 255 + alpha / 2) / alpha);
+			int blue = Math.min(255, ((pixel & 0xff) * 255 + alpha / 2) / alpha);
+			pixels[index] = (alpha << 24) | (red << 16) | (green << 8) | blue;
+		}
+	}
+
+	//#end region
+
+	//#region DENSITY
+
+	private void countTile(int[] counts, float[] x, float[] y, Bins bins, int tile) {
+		int firstRow = tile * TILE_HEIGHT;
+		int endRow = Math.min(height, firstRow + TILE_HEIGHT);
+		for (int binIndex = bins.offsets[tile]; binIndex < bins.offsets[tile + 1]; binIndex++) {
+			int index = bins.primitives[binIndex];
+			int column = (int) Math.floor(x[index]);
+			int row = (int) Math.floor(y[index]);
+			boolean isInside = column >= 0 && column < width && row >= firstRow && row < endRow;
+			if (isInside) {
+				counts[row * width + column]++;
+			}
+		}
+	}
+
+	/**
+	 * Replaces the counts of the pixels of a tile with the colors of the
+	 * density ramp. The logarithm of the counts is used, so that sparse
+	 * regions stay visible next to dense clusters.
+	 */
+	private void colorizeTile(int[] pixels, int tile, int maximumCount) {
+		int start = tile * TILE_HEIGHT * width;
+		int end = Math.min(height, (tile + 1) * TILE_HEIGHT) * width;
+		for (int index = start; index < end; index++) {
+			int count = pixels[index];
+			if (count == 0) {
+				continue;
+			}
+			double ratio = maximumCount > 1 ? Math.log1p(count - 1) / Math.log1p(maximumCount - 1) : 1;
+			pixels[index] = interpolate(lowDensityColor, highDensityColor, ratio);
+		}
+	}
+
+	private static int interpolate(int startColor, int endColor, double ratio) {
+		int result = 0;
+		for (int shift = 0; shift < 32; shift += 8) {
+			int start = (startColor >>> shift) & 0xff;
+			int end = (endColor >>> shift) & 0xff;
+			int channel = (int) (start + (end - start) * ratio + 0.5);
+			result |= channel << shift;
+		}
+		return result;
+	}
+
+	//#end region
+
+	//#end region
+
+	//#region ACCESSORS
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public RasterMode getMode() {
+		return mode;
+	}
+
+	public Rasterizer mode(RasterMode mode) {
+		this.mode = mode;
+		return this;
+	}
+
+	public int getColor() {
+		return color;
+	}
+
+	/**
+	 * Sets the ARGB color of points and lines, e.g. 0x80ff0000 for
+	 * semi-transparent red
+	 *
+	 * @param color
+	 * @return
+	 */
+	public Rasterizer color(int color) {
+		this.color = color;
+		return this;
+	}
+
+	public double getRadius() {
+		return radius;
+	}
+
+	/**
+	 * Sets the radius of the points in pixels
+	 *
+	 * @param radius
+	 * @return
+	 */
+	public Rasterizer radius(double radius) {
+		this.radius = radius;
+		return this;
+	}
+
+	public double getLineWidth() {
+		return lineWidth;
+	}
+
+	/**
+	 * Sets the width of the lines in pixels
+	 *
+	 * @param lineWidth
+	 * @return
+	 */
+	public Rasterizer lineWidth(double lineWidth) {
+		this.lineWidth = lineWidth;
+		return this;
+	}
+
+	/**
+	 * Sets the ARGB colors of the pixels with a single point and of the pixels
+	 * with the maximum number of points
+	 *
+	 * @param lowDensityColor
+	 * @param highDensityColor
+	 * @return
+	 */
+	public Rasterizer densityColors(int lowDensityColor, int highDensityColor) {
+		this.lowDensityColor = lowDensityColor;
+		this.highDensityColor = highDensityColor;
+		return this;
+	}
+
+	//#end region
+
+	//#region STAMPS
+
+	/**
+	 * The alpha values of an anti-aliased disc for the sub-pixel positions of
+	 * its center. The coverage of a pixel is estimated from the distance of
+	 * its center to the center of the disc.
+	 */
+	private static class PointStamps {
+
+		/**
+		 * The number of sub-pixel positions per pixel and direction
+		 */
+		static final int STEPS = 4;
+
+		final int extent;
+
+		final int size;
+
+		private final int[][] stamps = new int[STEPS * STEPS][];
+
+		PointStamps(double radius, int alpha) {
+			double coverageExtent = radius + 0.5;
+			extent = (int) Math.ceil(coverageExtent);
+			size = 2 * extent + 1;
+			for (int subRow = 0; subRow < STEPS; subRow++) {
+				for (int subColumn = 0; subColumn < STEPS; subColumn++) {
+					double centerX = extent + (subColumn + 0.5) / STEPS;
+					double centerY = extent + (subRow + 0.5) / STEPS;
+					int[] stamp = new int[size * size];
+					for (int row = 0; row < size; row++) {
+						for (int column = 0; column < size; column++) {
+							double dx = column + 0.5 - centerX;
+							double dy = row + 0.5 - centerY;
+							double coverage = Math.min(1, coverageExtent - Math.sqrt(dx * dx + dy * dy));
+							stamp[row * size + column] = coverage > 0 ? (int) (alpha * coverage + 0.5) : 0;
+						}
+					}
+					stamps[subRow * STEPS + subColumn] = stamp;
+				}
+			}
+		}
+
+		int[] get(int subColumn, int subRow) {
+			return stamps[subRow * STEPS + subColumn];
+		}
+	}
+
+	//#end region
+
+	//#region BINS
+
+	/**
+	 * The indices of the primitives per tile: the primitives of tile t are
+	 * stored from offsets[t] (inclusive) to offsets[t + 1] (exclusive)
+	 */
+	private static class Bins {
+
+		final int[] offsets;
+
+		final int[] primitives;
+
+		Bins(int[] offsets, int[] primitives) {
+			this.offsets = offsets;
+			this.primitives = primitives;
+		}
+	}
+
+	//#end region
+
+}
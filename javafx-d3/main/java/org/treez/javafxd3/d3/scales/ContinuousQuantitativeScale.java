@@ -176,6 +176,32 @@ public abstract class ContinuousQuantitativeScale<S extends ContinuousQuantitati
 
 
 
+	//#end region
+
+	//#region MIRROR
+
+	@Override
+	protected ScaleMirror createMirror() {
+		return new ContinuousScaleMirror();
+	}
+
+	@Override
+	public ContinuousScaleMirror mirror() {
+		return (ContinuousScaleMirror) super.mirror();
+	}
+
+	/**
+	 * Returns the value in the input domain for the given value in the output
+	 * range. Uses the Java mirror of the scale and returns NaN if the output
+	 * range is not numeric.
+	 *
+	 * @param d
+	 * @return
+	 */
+	public double invertAsDouble(double d) {
+		return mirror().invertAsDouble(d);
+	}
+
 	//#end region
 
 }
@@ -0,0 +1,393 @@
+package org.treez.javafxd3.d3.scales;
+
+import java.util.Arrays;
+
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * Java mirror of a d3 linear scale (also the base of the mirrors of pow, log,
+ * identity and time scales). Like d3, a domain with more than two values
+ * results in a polylinear mapping. If the range is not numeric (e.g. colors) or
+ * a custom interpolator is used, the mirror falls back to the JavaScript scale.
+ */
+public class ContinuousScaleMirror extends ScaleMirror {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The maximum number of ticks that is created by
+	 * {@link #createTicks(double, double, double)}
+	 */
+	private static final int MAX_NUMBER_OF_TICKS = 1000000;
+
+	protected double[] domain = { 0, 1 };
+
+	protected double[] range = { 0, 1 };
+
+	protected boolean isClamping = false;
+
+	protected boolean isRounding = false;
+
+	/**
+	 * Is false if the range is not numeric or if a custom interpolator is used
+	 */
+	protected boolean isNumeric = true;
+
+	private PiecewiseLinearMapping forwardMapping;
+
+	private PiecewiseLinearMapping inverseMapping;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public ContinuousScaleMirror() {
+		updateMappings();
+	}
+
+	/**
+	 * Creates a detached copy of the given mirror
+	 */
+	protected ContinuousScaleMirror(ContinuousScaleMirror original) {
+		this.domain = original.domain;
+		this.range = original.range;
+		this.isClamping = original.isClamping;
+		this.isRounding = original.isRounding;
+		this.isNumeric = original.isNumeric;
+		this.forwardMapping = original.forwardMapping;
+		this.inverseMapping = original.inverseMapping;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	@Override
+	protected void readState(JsObject bridge, JsObject scale) {
+		String encodedState = (String) bridge.call("encodeContinuousScale", scale);
+		double[] state = ArrayTransfer.decodeDoubles(encodedState);
+
+		int domainLength = (int) state[0];
+		int rangeLength = (int) state[1];
+		int interpolation = (int) state[3];
+		int offset = 6;
+
+		isClamping = state[2] == 1;
+		isRounding = interpolation == 1;
+		readParameters(state[4], state[5]);
+		domain = Arrays.copyOfRange(state, offset, offset + domainLength);
+		range = Arrays.copyOfRange(state, offset + domainLength, offset + domainLength + rangeLength);
+
+		boolean hasCustomInterpolator = interpolation == 2;
+		isNumeric = !hasCustomInterpolator && !containsNaN(range);
+		updateMappings();
+	}
+
+	/**
+	 * Reads additional parameters of the scale
+	 *
+	 * @param exponent
+	 *            the exponent of a pow scale
+	 * @param base
+	 *            the base of a log scale
+	 */
+	protected void readParameters(double exponent, double base) {
+		// only required by some scales
+	}
+
+	/**
+	 * Updates the linear mappings after the domain or range has been changed
+	 */
+	protected void updateMappings() {
+		// like d3_scale_polylinear, only the first min(domain, range) entries
+		// are used if the lengths differ
+		int length = Math.min(domain.length, range.length);
+		double[] transformedDomain = new double[length];
+		for (int index = 0; index < length; index++) {
+			transformedDomain[index] = transform(domain[index]);
+		}
+		double[] truncatedRange = Arrays.copyOf(range, length);
+		boolean isPolylinear = length > 2;
+		forwardMapping = new PiecewiseLinearMapping(transformedDomain, truncatedRange, isPolylinear);
+		inverseMapping = new PiecewiseLinearMapping(truncatedRange, transformedDomain, isPolylinear);
+	}
+
+	/**
+	 * Transforms a domain value before it is mapped linearly, e.g. by a log
+	 * function
+	 *
+	 * @param value
+	 * @return
+	 */
+	protected double transform(double value) {
+		return value;
+	}
+
+	/**
+	 * Inverse of {@link #transform(double)}
+	 *
+	 * @param value
+	 * @return
+	 */
+	protected double untransform(double value) {
+		return value;
+	}
+
+	@Override
+	public double applyAsDouble(double value) {
+		syncIfRequired();
+		if (!isNumeric) {
+			return applyInJavaScript(value);
+		}
+		return forwardMapping.apply(transform(value), isClamping, isRounding);
+	}
+
+	/**
+	 * Returns the value in the input domain for the given value in the output
+	 * range. Returns NaN if the range is not numeric.
+	 *
+	 * @param value
+	 * @return
+	 */
+	public double invertAsDouble(double value) {
+		syncIfRequired();
+		if (!isNumeric) {
+			return Double.NaN;
+		}
+		return untransform(inverseMapping.apply(value, isClamping, false));
+	}
+
+	/**
+	 * Sets the domain of a mirror that is not bound to a JavaScript scale, e.g.
+	 * to use the scale without a JavaScript engine
+	 *
+	 * @param values
+	 * @return this mirror
+	 */
+	public ContinuousScaleMirror domain(double... values) {
+		assertDetached();
+		domain = values.clone();
+		updateMappings();
+		invalidate();
+		return this;
+	}
+
+	/**
+	 * Sets the range of a mirror that is not bound to a JavaScript scale
+	 *
+	 * @param values
+	 * @return this mirror
+	 */
+	public ContinuousScaleMirror range(double... values) {
+		assertDetached();
+		range = values.clone();
+		isNumeric = !containsNaN(range);
+		updateMappings();
+		invalidate();
+		return this;
+	}
+
+	private void assertDetached() {
+		if (!isDetached()) {
+			String message = "The state of a mirror that is bound to a JavaScript scale must be modified with the scale.";
+			throw new IllegalStateException(message);
+		}
+	}
+
+	/**
+	 * Returns a copy of the domain
+	 *
+	 * @return
+	 */
+	public double[] domainAsDoubles() {
+		syncIfRequired();
+		return domain.clone();
+	}
+
+	/**
+	 * Returns a copy of the range; the values are NaN if the range is not
+	 * numeric
+	 *
+	 * @return
+	 */
+	public double[] rangeAsDoubles() {
+		syncIfRequired();
+		return range.clone();
+	}
+
+	/**
+	 * Returns approximately count representative values from the domain,
+	 * computed like d3.scale.linear().ticks(count)
+	 *
+	 * @param count
+	 * @return
+	 */
+	public double[] ticksAsDoubles(int count) {
+		syncIfRequired();
+		if (domain.length == 0) {
+			return new double[] {};
+		}
+		double[] tickRange = createTickRange(domain[0], domain[domain.length - 1], count);
+		return createTicks(tickRange[0], tickRange[1], tickRange[2]);
+	}
+
+	@Override
+	public ContinuousScaleMirror copy() {
+		syncIfRequired();
+		return new ContinuousScaleMirror(this);
+	}
+
+	/**
+	 * Computes the start, stop and step of linear ticks for the given extent
+	 * like d3_scale_linearTickRange
+	 *
+	 * @param start
+	 * @param stop
+	 * @param count
+	 * @return
+	 */
+	protected static double[] createTickRange(double start, double stop, int count) {
+		double min = Math.min(start, stop);
+		double max = Math.max(start, stop);
+		double span = max - min;
+		double step = Math.pow(10, Math.floor(Math.log(span / count) / Math.log(10)));
+		double error = count / span * step;
+		if (error <= 0.15) {
+			step *= 10;
+		} else if (error <= 0.35) {
+			step *= 5;
+		} else if (error <= 0.75) {
+			step *= 2;
+		}
+		double tickStart = Math.ceil(min / step) * step;
+		double tickStop = Math.floor(max / step) * step + step * 0.5;
+		return new double[] { tickStart, tickStop, step };
+	}
+
+	/**
+	 * Creates the values from start (inclusive) to stop (exclusive) with the
+	 * given step like d3.range. The values are computed as integers where
+	 * possible to avoid floating point errors.
+	 *
+	 * @param start
+	 * @param stop
+	 * @param step
+	 * @return
+	 */
+	protected static double[] createTicks(double start, double stop, double step) {
+		boolean isFinite = Double.isFinite(start) && Double.isFinite(stop) && Double.isFinite(step) && step != 0;
+		if (!isFinite) {
+			return new double[] {};
+		}
+
+		double factor = 1;
+		while ((Math.abs(step) * factor) % 1 != 0 && factor < 1e15) {
+			factor *= 10;
+		}
+		double scaledStart = start * factor;
+		double scaledStop = stop * factor;
+		double scaledStep = step * factor;
+
+		double[] ticks = new double[16];
+		int numberOfTicks = 0;
+		while (numberOfTicks < MAX_NUMBER_OF_TICKS) {
+			double value = scaledStart + scaledStep * numberOfTicks;
+			boolean isInRange = scaledStep < 0 ? value > scaledStop : value < scaledStop;
+			if (!isInRange) {
+				break;
+			}
+			if (numberOfTicks == ticks.length) {
+				ticks = Arrays.copyOf(ticks, ticks.length * 2);
+			}
+			ticks[numberOfTicks] = value / factor;
+			numberOfTicks++;
+		}
+		return Arrays.copyOf(ticks, numberOfTicks);
+	}
+
+	private static boolean containsNaN(double[] values) {
+		for (double value : values) {
+			if (Double.isNaN(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	//#end region
+
+	//#region MAPPING
+
+	/**
+	 * Maps a value linearly from one interval to another like the bilinear and
+	 * polylinear functions of d3. Immutable, so that it can be shared by
+	 * copies.
+	 */
+	private static final class PiecewiseLinearMapping {
+
+		private final double[] from;
+
+		private final double[] to;
+
+		private final boolean isPolylinear;
+
+		private final int maxSegmentIndex;
+
+		PiecewiseLinearMapping(double[] from, double[] to, boolean isPolylinear) {
+			this.isPolylinear = isPolylinear;
+			int maxIndex = Math.min(from.length, to.length) - 1;
+			boolean isDescending = isPolylinear && maxIndex > 0 && from[maxIndex] < from[0];
+			if (isDescending) {
+				this.from = reverse(from);
+				this.to = reverse(to);
+			} else {
+				this.from = from;
+				this.to = to;
+			}
+			this.maxSegmentIndex = maxIndex;
+		}
+
+		double apply(double value, boolean isClamping, boolean isRounding) {
+
+			int segmentIndex = 0;
+			if (isPolylinear) {
+				segmentIndex = bisectRight(from, value, 1, maxSegmentIndex) - 1;
+			}
+
+			boolean hasSegment = segmentIndex + 1 < from.length && segmentIndex + 1 < to.length;
+			if (!hasSegment) {
+				return Double.NaN;
+			}
+
+			double start = from[segmentIndex];
+			double span = from[segmentIndex + 1] - start;
+			if (span == 0) {
+				span = 1 / span;
+			}
+			double t = (value - start) / span;
+			if (isClamping) {
+				t = Math.max(0, Math.min(1, t));
+			}
+
+			double targetStart = to[segmentIndex];
+			double targetEnd = to[segmentIndex + 1];
+			double result = targetStart * (1 - t) + targetEnd * t;
+			if (isRounding && !Double.isNaN(result)) {
+				return Math.floor(result + 0.5);
+			}
+			return result;
+		}
+
+		private static double[] reverse(double[] values) {
+			double[] reversedValues = new double[values.length];
+			for (int index = 0; index < values.length; index++) {
+				reversedValues[index] = values[values.length - 1 - index];
+			}
+			return reversedValues;
+		}
+	}
+
+	//#end region
+
+}
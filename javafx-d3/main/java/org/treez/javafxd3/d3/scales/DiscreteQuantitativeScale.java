@@ -62,4 +62,25 @@ public abstract class DiscreteQuantitativeScale<S extends DiscreteQuantitativeSc
 		return new Array<Double>(engine, result);
 	}
 
+	//#region MIRROR
+
+	@Override
+	public DiscreteScaleMirror mirror() {
+		return (DiscreteScaleMirror) super.mirror();
+	}
+
+	/**
+	 * Given a value x in the input domain, returns the corresponding value in
+	 * the output range as string, computed by the Java mirror of the scale.
+	 * Returns null if the output value is undefined.
+	 *
+	 * @param d
+	 * @return
+	 */
+	public String applyAsString(double d) {
+		return mirror().applyAsString(d);
+	}
+
+	//#end region
+
 }
@@ -0,0 +1,110 @@
+package org.treez.javafxd3.d3.scales;
+
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * Base class for the Java mirrors of d3 scales with a discrete output range
+ * (quantize, quantile, threshold). The range values are mirrored as numbers
+ * and as strings, so that scales with non-numeric ranges (e.g. colors) can be
+ * applied with {@link #applyAsString(double)}.
+ */
+public abstract class DiscreteScaleMirror extends ScaleMirror {
+
+	//#region ATTRIBUTES
+
+	protected double[] rangeNumbers = { 0, 1 };
+
+	protected String[] rangeStrings = { "0", "1" };
+
+	/**
+	 * Is false if the domain could not be mirrored, e.g. if the domain of a
+	 * threshold scale contains strings
+	 */
+	protected boolean isDomainSupported = true;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public DiscreteScaleMirror() {
+	}
+
+	/**
+	 * Creates a detached copy of the given mirror
+	 */
+	protected DiscreteScaleMirror(DiscreteScaleMirror original) {
+		this.rangeNumbers = original.rangeNumbers;
+		this.rangeStrings = original.rangeStrings;
+		this.isDomainSupported = original.isDomainSupported;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	@Override
+	protected void readState(JsObject bridge, JsObject scale) {
+		JsObject rangeArray = (JsObject) scale.call("range");
+		rangeNumbers = ArrayTransfer.decodeDoubles((String) bridge.call("encodeNumbers", rangeArray));
+		rangeStrings = ArrayTransfer.decodeStrings((String) bridge.call("encodeStrings", rangeArray));
+
+		JsObject domainArray = (JsObject) scale.call("domain");
+		double[] domain = ArrayTransfer.decodeDoubles((String) bridge.call("encodeNumbers", domainArray));
+		readDomain(domain);
+	}
+
+	/**
+	 * Reads the numeric domain of the scale. Domain values that are no numbers
+	 * are NaN.
+	 *
+	 * @param domain
+	 */
+	protected abstract void readDomain(double[] domain);
+
+	/**
+	 * Returns the index of the range value for the given domain value or -1
+	 * if the scale returns undefined
+	 *
+	 * @param value
+	 * @return
+	 */
+	protected abstract int rangeIndexOf(double value);
+
+	@Override
+	public double applyAsDouble(double value) {
+		syncIfRequired();
+		if (!isDomainSupported) {
+			return applyInJavaScript(value);
+		}
+		int index = rangeIndexOf(value);
+		boolean isInRange = index >= 0 && index < rangeNumbers.length;
+		if (!isInRange) {
+			return Double.NaN;
+		}
+		return rangeNumbers[index];
+	}
+
+	/**
+	 * Given a value in the input domain, returns the corresponding range value
+	 * as string (e.g. a color) or null if the scale returns undefined
+	 *
+	 * @param value
+	 * @return
+	 */
+	public String applyAsString(double value) {
+		syncIfRequired();
+		if (!isDomainSupported) {
+			return applyInJavaScriptForString(value);
+		}
+		int index = rangeIndexOf(value);
+		boolean isInRange = index >= 0 && index < rangeStrings.length;
+		if (!isInRange) {
+			return null;
+		}
+		return rangeStrings[index];
+	}
+
+	//#end region
+
+}
@@ -130,4 +130,40 @@ public class IdentityScale extends ContinuousQuantitativeScale<IdentityScale> {
 	}
 
 	//#end region
+
+	//#region MIRROR
+
+	@Override
+	protected ScaleMirror createMirror() {
+		return new IdentityScaleMirror();
+	}
+
+	@Override
+	public IdentityScaleMirror mirror() {
+		return (IdentityScaleMirror) super.mirror();
+	}
+
+	/**
+	 * Returns approximately count representative values from the input domain
+	 * like {@link #ticks(int)}, computed by the Java mirror of the scale
+	 *
+	 * @param count
+	 * @return
+	 */
+	public double[] ticksAsDoubles(int count) {
+		return mirror().ticksAsDoubles(count);
+	}
+
+	/**
+	 * Returns representative values from the input domain like
+	 * {@link #ticks()}, computed by the Java mirror of the scale
+	 *
+	 * @return
+	 */
+	public double[] ticksAsDoubles() {
+		return mirror().ticksAsDoubles(10);
+	}
+
+	//#end region
+
 }
@@ -0,0 +1,43 @@
+package org.treez.javafxd3.d3.scales;
+
+/**
+ * Java mirror of a d3 identity scale: apply and invert return the given value
+ */
+public class IdentityScaleMirror extends ContinuousScaleMirror {
+
+	//#region CONSTRUCTORS
+
+	public IdentityScaleMirror() {
+		super();
+	}
+
+	/**
+	 * Creates a detached copy of the given mirror
+	 */
+	protected IdentityScaleMirror(IdentityScaleMirror original) {
+		super(original);
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	@Override
+	public double applyAsDouble(double value) {
+		return value;
+	}
+
+	@Override
+	public double invertAsDouble(double value) {
+		return value;
+	}
+
+	@Override
+	public IdentityScaleMirror copy() {
+		syncIfRequired();
+		return new IdentityScaleMirror(this);
+	}
+
+	//#end region
+
+}
@@ -211,4 +211,29 @@ public class LinearScale extends ContinuousQuantitativeScale<LinearScale> {
 
 	//#end region
 
+	//#region MIRROR
+
+	/**
+	 * Returns approximately count representative values from the input domain
+	 * like {@link #ticks(int)}, computed by the Java mirror of the scale
+	 *
+	 * @param count
+	 * @return
+	 */
+	public double[] ticksAsDoubles(int count) {
+		return mirror().ticksAsDoubles(count);
+	}
+
+	/**
+	 * Returns representative values from the input domain like
+	 * {@link #ticks()}, computed by the Java mirror of the scale
+	 *
+	 * @return
+	 */
+	public double[] ticksAsDoubles() {
+		return mirror().ticksAsDoubles(10);
+	}
+
+	//#end region
+
 }
@@ -230,4 +230,28 @@ public class LogScale extends ContinuousQuantitativeScale<LogScale> {
 
 	//#end region
 
+	//#region MIRROR
+
+	@Override
+	protected ScaleMirror createMirror() {
+		return new LogScaleMirror();
+	}
+
+	@Override
+	public LogScaleMirror mirror() {
+		return (LogScaleMirror) super.mirror();
+	}
+
+	/**
+	 * Returns representative values from the input domain like
+	 * {@link #ticks()}, computed by the Java mirror of the scale
+	 *
+	 * @return
+	 */
+	public double[] ticksAsDoubles() {
+		return mirror().ticksAsDoubles();
+	}
+
+	//#end region
+
 }
@@ -0,0 +1,150 @@
+package org.treez.javafxd3.d3.scales;
+
+import java.util.Arrays;
+
+/**
+ * Java mirror of a d3 log scale: the domain values are transformed by a
+ * logarithm before they are mapped linearly. Like d3, negative domains are
+ * supported by mirroring the logarithm at the origin.
+ */
+public class LogScaleMirror extends ContinuousScaleMirror {
+
+	//#region ATTRIBUTES
+
+	private double base = 10;
+
+	/**
+	 * Is true if the domain starts with a value greater or equal to zero
+	 */
+	private boolean isPositive = true;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public LogScaleMirror() {
+		domain = new double[] { 1, 10 };
+		updateMappings();
+	}
+
+	/**
+	 * Creates a detached copy of the given mirror
+	 */
+	protected LogScaleMirror(LogScaleMirror original) {
+		super(original);
+		this.base = original.base;
+		this.isPositive = original.isPositive;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	@Override
+	protected void readParameters(double exponent, double base) {
+		this.base = base;
+	}
+
+	@Override
+	protected void updateMappings() {
+		isPositive = domain.length > 0 && domain[0] >= 0;
+		super.updateMappings();
+	}
+
+	@Override
+	protected double transform(double value) {
+		double logarithm;
+		if (isPositive) {
+			logarithm = Math.log(value < 0 ? 0 : value);
+		} else {
+			logarithm = -Math.log(value > 0 ? 0 : -value);
+		}
+		return logarithm / Math.log(base);
+	}
+
+	@Override
+	protected double untransform(double value) {
+		if (isPositive) {
+			return Math.pow(base, value);
+		}
+		return -Math.pow(base, -value);
+	}
+
+	/**
+	 * Returns representative values from the domain, computed like
+	 * d3.scale.log().ticks(): the values are uniformly spaced within each power
+	 * of the base.
+	 *
+	 * @return
+	 */
+	public double[] ticksAsDoubles() {
+		syncIfRequired();
+		if (domain.length == 0) {
+			return new double[] {};
+		}
+		double start = Math.min(domain[0], domain[domain.length - 1]);
+		double stop = Math.max(domain[0], domain[domain.length - 1]);
+
+		double startExponent = Math.floor(transform(start));
+		double stopExponent = Math.ceil(transform(stop));
+		boolean isFinite = Double.isFinite(stopExponent - startExponent);
+		if (!isFinite) {
+			return new double[] {};
+		}
+
+		int numberOfSubTicks = base % 1 != 0 ? 2 : (int) base;
+		int maxNumberOfTicks = (int) (stopExponent - startExponent + 1) * numberOfSubTicks;
+		double[] ticks = new double[maxNumberOfTicks];
+		int numberOfTicks = 0;
+		double exponent = startExponent;
+		if (isPositive) {
+			for (; exponent < stopExponent; exponent++) {
+				for (int factor = 1; factor < numberOfSubTicks; factor++) {
+					ticks[numberOfTicks++] = untransform(exponent) * factor;
+				}
+			}
+			ticks[numberOfTicks++] = untransform(exponent);
+		} else {
+			ticks[numberOfTicks++] = untransform(exponent);
+			while (exponent++ < stopExponent) {
+				for (int factor = numberOfSubTicks - 1; factor > 0; factor--) {
+					ticks[numberOfTicks++] = untransform(exponent) * factor;
+				}
+			}
+		}
+
+		int firstIndex = 0;
+		while (firstIndex < numberOfTicks && ticks[firstIndex] < start) {
+			firstIndex++;
+		}
+		int lastIndex = numberOfTicks;
+		while (lastIndex > 0 && ticks[lastIndex - 1] > stop) {
+			lastIndex--;
+		}
+		if (lastIndex <= firstIndex) {
+			return new double[] {};
+		}
+		return Arrays.copyOfRange(ticks, firstIndex, lastIndex);
+	}
+
+	@Override
+	public LogScaleMirror copy() {
+		syncIfRequired();
+		return new LogScaleMirror(this);
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	/**
+	 * Returns the mirrored base
+	 */
+	public double getBase() {
+		syncIfRequired();
+		return base;
+	}
+
+	//#end region
+
+}
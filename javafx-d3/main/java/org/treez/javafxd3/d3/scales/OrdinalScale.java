@@ -381,4 +381,42 @@ public class OrdinalScale extends Scale<OrdinalScale> {
 	
 	//#end region
 
+	//#region MIRROR
+
+	@Override
+	protected ScaleMirror createMirror() {
+		return new OrdinalScaleMirror();
+	}
+
+	@Override
+	public OrdinalScaleMirror mirror() {
+		return (OrdinalScaleMirror) super.mirror();
+	}
+
+	/**
+	 * Given a key of the input domain, returns the corresponding numeric value
+	 * of the output range, computed by the Java mirror of the scale. Returns
+	 * NaN if the output value is not numeric.
+	 *
+	 * @param key
+	 * @return
+	 */
+	public double applyAsDouble(String key) {
+		return mirror().applyAsDouble(key);
+	}
+
+	/**
+	 * Given a key of the input domain, returns the corresponding value of the
+	 * output range as string, computed by the Java mirror of the scale.
+	 * Returns null if the output value is undefined.
+	 *
+	 * @param key
+	 * @return
+	 */
+	public String applyAsString(String key) {
+		return mirror().applyAsString(key);
+	}
+
+	//#end region
+
 }
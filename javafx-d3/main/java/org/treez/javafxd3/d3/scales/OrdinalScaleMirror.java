@@ -0,0 +1,138 @@
+package org.treez.javafxd3.d3.scales;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * Java mirror of a d3 ordinal scale. The domain values are identified by their
+ * string representation. Unknown keys are applied by the JavaScript scale
+ * since d3 implicitly adds them to the domain.
+ */
+public class OrdinalScaleMirror extends ScaleMirror {
+
+	//#region ATTRIBUTES
+
+	private Map<String, Integer> domainIndices = new HashMap<>();
+
+	private double[] rangeNumbers = {};
+
+	private String[] rangeStrings = {};
+
+	private double rangeBand = 0;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public OrdinalScaleMirror() {
+	}
+
+	/**
+	 * Creates a detached copy of the given mirror
+	 */
+	protected OrdinalScaleMirror(OrdinalScaleMirror original) {
+		this.domainIndices = original.domainIndices;
+		this.rangeNumbers = original.rangeNumbers;
+		this.rangeStrings = original.rangeStrings;
+		this.rangeBand = original.rangeBand;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	@Override
+	protected void readState(JsObject bridge, JsObject scale) {
+		JsObject domainArray = (JsObject) scale.call("domain");
+		String[] domain = ArrayTransfer.decodeStrings((String) bridge.call("encodeStrings", domainArray));
+		Map<String, Integer> newDomainIndices = new HashMap<>();
+		for (int index = 0; index < domain.length; index++) {
+			newDomainIndices.put(domain[index], index);
+		}
+		domainIndices = newDomainIndices;
+
+		JsObject rangeArray = (JsObject) scale.call("range");
+		rangeNumbers = ArrayTransfer.decodeDoubles((String) bridge.call("encodeNumbers", rangeArray));
+		rangeStrings = ArrayTransfer.decodeStrings((String) bridge.call("encodeStrings", rangeArray));
+		rangeBand = toDouble(scale.call("rangeBand"));
+	}
+
+	@Override
+	public double applyAsDouble(double value) {
+		return applyAsDouble(toJavaScriptString(value));
+	}
+
+	/**
+	 * Returns the numeric range value for the given key or NaN if the range
+	 * value is not numeric
+	 *
+	 * @param key
+	 * @return
+	 */
+	public double applyAsDouble(String key) {
+		syncIfRequired();
+		Integer domainIndex = domainIndices.get(key);
+		boolean isUnknownKey = domainIndex == null || rangeNumbers.length == 0;
+		if (isUnknownKey) {
+			double result = applyInJavaScript(key);
+			invalidate();
+			return result;
+		}
+		return rangeNumbers[domainIndex % rangeNumbers.length];
+	}
+
+	/**
+	 * Returns the range value for the given key as string (e.g. a color)
+	 *
+	 * @param key
+	 * @return
+	 */
+	public String applyAsString(String key) {
+		syncIfRequired();
+		Integer domainIndex = domainIndices.get(key);
+		boolean isUnknownKey = domainIndex == null || rangeStrings.length == 0;
+		if (isUnknownKey) {
+			String result = applyInJavaScriptForString(key);
+			invalidate();
+			return result;
+		}
+		return rangeStrings[domainIndex % rangeStrings.length];
+	}
+
+	/**
+	 * Converts the given number to a string like JavaScript does for integer
+	 * values. Other values might be formatted differently and are then
+	 * handled as unknown keys.
+	 */
+	private static String toJavaScriptString(double value) {
+		boolean isInteger = value == Math.rint(value) && Math.abs(value) < 1e15;
+		if (isInteger) {
+			return Long.toString((long) value);
+		}
+		return Double.toString(value);
+	}
+
+	@Override
+	public OrdinalScaleMirror copy() {
+		syncIfRequired();
+		return new OrdinalScaleMirror(this);
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	/**
+	 * Returns the mirrored band width
+	 */
+	public double getRangeBand() {
+		syncIfRequired();
+		return rangeBand;
+	}
+
+	//#end region
+
+}
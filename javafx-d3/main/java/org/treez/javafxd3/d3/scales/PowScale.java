@@ -207,4 +207,39 @@ public class PowScale extends ContinuousQuantitativeScale<PowScale> {
 		return new PowScale(engine, result);	
 	}
 
+	//#region MIRROR
+
+	@Override
+	protected ScaleMirror createMirror() {
+		return new PowScaleMirror();
+	}
+
+	@Override
+	public PowScaleMirror mirror() {
+		return (PowScaleMirror) super.mirror();
+	}
+
+	/**
+	 * Returns approximately count representative values from the input domain
+	 * like {@link #ticks(int)}, computed by the Java mirror of the scale
+	 *
+	 * @param count
+	 * @return
+	 */
+	public double[] ticksAsDoubles(int count) {
+		return mirror().ticksAsDoubles(count);
+	}
+
+	/**
+	 * Returns representative values from the input domain like
+	 * {@link #ticks()}, computed by the Java mirror of the scale
+	 *
+	 * @return
+	 */
+	public double[] ticksAsDoubles() {
+		return mirror().ticksAsDoubles(10);
+	}
+
+	//#end region
+
 }
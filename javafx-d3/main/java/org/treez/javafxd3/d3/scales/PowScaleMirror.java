@@ -0,0 +1,75 @@
+package org.treez.javafxd3.d3.scales;
+
+/**
+ * Java mirror of a d3 pow (and sqrt) scale: the domain values are transformed
+ * by x^k (keeping the sign of x) before they are mapped linearly
+ */
+public class PowScaleMirror extends ContinuousScaleMirror {
+
+	//#region ATTRIBUTES
+
+	private double exponent = 1;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public PowScaleMirror() {
+		updateMappings();
+	}
+
+	/**
+	 * Creates a detached copy of the given mirror
+	 */
+	protected PowScaleMirror(PowScaleMirror original) {
+		super(original);
+		this.exponent = original.exponent;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	@Override
+	protected void readParameters(double exponent, double base) {
+		this.exponent = exponent;
+	}
+
+	@Override
+	protected double transform(double value) {
+		return power(value, exponent);
+	}
+
+	@Override
+	protected double untransform(double value) {
+		return power(value, 1 / exponent);
+	}
+
+	private static double power(double value, double exponent) {
+		if (value < 0) {
+			return -Math.pow(-value, exponent);
+		}
+		return Math.pow(value, exponent);
+	}
+
+	@Override
+	public PowScaleMirror copy() {
+		syncIfRequired();
+		return new PowScaleMirror(this);
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	/**
+	 * Returns the mirrored exponent
+	 */
+	public double getExponent() {
+		syncIfRequired();
+		return exponent;
+	}
+
+	//#end region
+
+}
@@ -85,4 +85,14 @@ public class QuantileScale extends DiscreteQuantitativeScale<QuantileScale> {
 	public QuantileScale createScale(JsEngine engine, JsObject result) {
 		return new QuantileScale(engine, result);
 	}
+
+	//#region MIRROR
+
+	@Override
+	protected ScaleMirror createMirror() {
+		return new QuantileScaleMirror();
+	}
+
+	//#end region
+
 }
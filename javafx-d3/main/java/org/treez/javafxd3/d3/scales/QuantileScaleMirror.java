@@ -0,0 +1,87 @@
+package org.treez.javafxd3.d3.scales;
+
+import java.util.Arrays;
+
+/**
+ * Java mirror of a d3 quantile scale. The quantile thresholds are computed
+ * from the sorted domain like d3.quantile.
+ */
+public class QuantileScaleMirror extends DiscreteScaleMirror {
+
+	//#region ATTRIBUTES
+
+	private double[] thresholds = {};
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public QuantileScaleMirror() {
+		super();
+	}
+
+	/**
+	 * Creates a detached copy of the given mirror
+	 */
+	protected QuantileScaleMirror(QuantileScaleMirror original) {
+		super(original);
+		this.thresholds = original.thresholds;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	@Override
+	protected void readDomain(double[] domain) {
+		int numberOfRangeValues = rangeNumbers.length;
+		double[] newThresholds = new double[Math.max(0, numberOfRangeValues - 1)];
+		for (int index = 1; index < numberOfRangeValues; index++) {
+			newThresholds[index - 1] = quantile(domain, (double) index / numberOfRangeValues);
+		}
+		thresholds = newThresholds;
+	}
+
+	private static double quantile(double[] sortedValues, double probability) {
+		if (sortedValues.length == 0) {
+			return Double.NaN;
+		}
+		double position = (sortedValues.length - 1) * probability + 1;
+		int lowerPosition = (int) Math.floor(position);
+		double value = sortedValues[lowerPosition - 1];
+		double fraction = position - lowerPosition;
+		if (fraction == 0) {
+			return value;
+		}
+		return value + fraction * (sortedValues[lowerPosition] - value);
+	}
+
+	@Override
+	protected int rangeIndexOf(double value) {
+		if (Double.isNaN(value)) {
+			return -1;
+		}
+		return bisectRight(thresholds, value, 0, thresholds.length);
+	}
+
+	@Override
+	public QuantileScaleMirror copy() {
+		syncIfRequired();
+		return new QuantileScaleMirror(this);
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	/**
+	 * Returns a copy of the quantile thresholds
+	 */
+	public double[] getThresholds() {
+		syncIfRequired();
+		return Arrays.copyOf(thresholds, thresholds.length);
+	}
+
+	//#end region
+
+}
@@ -65,4 +65,13 @@ public class QuantizeScale extends DiscreteQuantitativeScale<QuantizeScale> {
 	
 	//#end region
 
+	//#region MIRROR
+
+	@Override
+	protected ScaleMirror createMirror() {
+		return new QuantizeScaleMirror();
+	}
+
+	//#end region
+
 }
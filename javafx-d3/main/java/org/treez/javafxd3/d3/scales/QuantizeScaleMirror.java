@@ -0,0 +1,61 @@
+package org.treez.javafxd3.d3.scales;
+
+/**
+ * Java mirror of a d3 quantize scale: the domain [x0, x1] is divided into
+ * uniform segments, one for each range value
+ */
+public class QuantizeScaleMirror extends DiscreteScaleMirror {
+
+	//#region ATTRIBUTES
+
+	private double domainStart = 0;
+
+	private double domainEnd = 1;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public QuantizeScaleMirror() {
+		super();
+	}
+
+	/**
+	 * Creates a detached copy of the given mirror
+	 */
+	protected QuantizeScaleMirror(QuantizeScaleMirror original) {
+		super(original);
+		this.domainStart = original.domainStart;
+		this.domainEnd = original.domainEnd;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	@Override
+	protected void readDomain(double[] domain) {
+		domainStart = domain.length > 0 ? domain[0] : Double.NaN;
+		domainEnd = domain.length > 0 ? domain[domain.length - 1] : Double.NaN;
+	}
+
+	@Override
+	protected int rangeIndexOf(double value) {
+		int numberOfRangeValues = rangeNumbers.length;
+		double factor = numberOfRangeValues / (domainEnd - domainStart);
+		double index = Math.floor(factor * (value - domainStart));
+		if (Double.isNaN(index)) {
+			return -1;
+		}
+		return (int) Math.max(0, Math.min(numberOfRangeValues - 1, index));
+	}
+
+	@Override
+	public QuantizeScaleMirror copy() {
+		syncIfRequired();
+		return new QuantizeScaleMirror(this);
+	}
+
+	//#end region
+
+}
@@ -28,6 +28,15 @@ import org.treez.javafxd3.d3.core.JsObject;
  */
 public abstract class Scale<S extends Scale<?>> extends JavaScriptObject {
 
+	//#region ATTRIBUTES
+
+	/**
+	 * The Java mirror of this scale, see {@link #mirror()}
+	 */
+	private ScaleMirror mirror;
+
+	//#end region
+
 	//#region CONSTRUCTORS
 
 	/**
@@ -349,4 +358,72 @@ public abstract class Scale<S extends Scale<?>> extends JavaScriptObject {
     	Object result = eval(command);    	
     	return result.toString();    	
     }
+
+
+    // ==================== mirror ====================
+
+    /**
+     * Returns the pure Java mirror of this scale. The mirror is shared by all
+     * wrappers of the same JavaScript scale and is kept in sync when the domain
+     * or range of the scale is modified. Applying the mirror does not cross into
+     * the JavaScript engine.
+     * <p>
+     * Returns null if the scale type has no mirror.
+     *
+     * @return the mirror
+     */
+    public ScaleMirror mirror() {
+        boolean isCached = mirror != null;
+        if (isCached) {
+            return mirror;
+        }
+        JsObject jsObject = getJsObject();
+        Object registeredMirror = jsObject.getMember(ScaleMirror.MEMBER_NAME);
+        boolean isRegistered = registeredMirror instanceof ScaleMirror;
+        if (isRegistered) {
+            mirror = (ScaleMirror) registeredMirror;
+            return mirror;
+        }
+        ScaleMirror newMirror = createMirror();
+        if (newMirror != null) {
+            newMirror.observe(engine, jsObject);
+        }
+        mirror = newMirror;
+        return mirror;
+    }
+
+    /**
+     * Factory method for the mirror of this scale. Returns null if the scale
+     * type has no mirror.
+     *
+     * @return
+     */
+    protected ScaleMirror createMirror() {
+        return null;
+    }
+
+    /**
+     * Given a value x in the input domain, returns the corresponding numeric
+     * value in the output range. Uses the Java mirror of the scale (see
+     * {@link #mirror()}) if available. Returns NaN if the output value is not
+     * numeric.
+     *
+     * @param d
+     *            the input value
+     * @return the output value
+     */
+    public double applyAsDouble(double d) {
+        ScaleMirror scaleMirror = mirror();
+        if (scaleMirror != null) {
+            return scaleMirror.applyAsDouble(d);
+        }
+        Value value = apply(d);
+        if (value == null) {
+            return Double.NaN;
+        }
+        Object result = value.as();
+        boolean isNumber = result instanceof Number;
+        return isNumber ? ((Number) result).doubleValue() : Double.NaN;
+    }
+
 }
@@ -0,0 +1,212 @@
+package org.treez.javafxd3.d3.scales;
+
+import org.treez.javafxd3.d3.core.JsBridge;
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * Pure Java implementation of a d3 scale that mirrors the state (domain, range,
+ * clamping, ...) of a JavaScript scale. Applying the mirror does not cross into
+ * the JavaScript engine and does not allocate objects.
+ * <p>
+ * The mirror is registered at the JavaScript scale (see
+ * __jfxd3.observeScale). The mutator methods of the scale are wrapped so that
+ * the mirror is invalidated whenever the scale is modified, e.g. by
+ * {@link Scale#domain(double...)} or by the zoom behavior of d3. The state is
+ * read again with a single call on the next application.
+ * <p>
+ * Since the state is read from the JavaScript engine, an invalidated mirror
+ * must be applied on the JavaFX application thread. Use {@link #copy()} to get
+ * a detached snapshot that can be used by other threads.
+ */
+public abstract class ScaleMirror {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The name of the member of the JavaScript scale that references the
+	 * mirror
+	 */
+	public static final String MEMBER_NAME = "__jfxd3Mirror";
+
+	private JsEngine engine;
+
+	/**
+	 * The mirrored JavaScript scale or null for detached copies
+	 */
+	private JsObject scale;
+
+	private volatile boolean isValid = false;
+
+	/**
+	 * Is increased whenever the JavaScript scale is modified
+	 */
+	private volatile long version = 0;
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Registers this mirror at the given JavaScript scale
+	 *
+	 * @param engine
+	 * @param scale
+	 */
+	public void observe(JsEngine engine, JsObject scale) {
+		this.engine = engine;
+		this.scale = scale;
+		JsBridge.get(engine).call("observeScale", scale, this);
+		invalidate();
+	}
+
+	/**
+	 * Marks the mirrored state as outdated. This is called by the JavaScript
+	 * engine whenever the scale is modified.
+	 */
+	public void invalidate() {
+		isValid = false;
+		version++;
+	}
+
+	/**
+	 * Reads the state of the JavaScript scale if it has been modified since
+	 * the last call
+	 */
+	protected final void syncIfRequired() {
+		boolean isDetached = scale == null;
+		if (isValid || isDetached) {
+			return;
+		}
+		readState(JsBridge.get(engine), scale);
+		isValid = true;
+	}
+
+	/**
+	 * Reads the state of the given JavaScript scale
+	 *
+	 * @param bridge
+	 *            the JavaScript helper object __jfxd3
+	 * @param scale
+	 *            the JavaScript scale
+	 */
+	protected abstract void readState(JsObject bridge, JsObject scale);
+
+	/**
+	 * Given a value x in the input domain, returns the corresponding numeric
+	 * value in the output range. If the output range is not numeric, NaN is
+	 * returned.
+	 *
+	 * @param value
+	 * @return
+	 */
+	public abstract double applyAsDouble(double value);
+
+	/**
+	 * Returns a detached copy of this mirror that is not synchronized with the
+	 * JavaScript scale and that may be used by other threads
+	 *
+	 * @return
+	 */
+	public abstract ScaleMirror copy();
+
+	/**
+	 * Applies the JavaScript scale. This is used as fallback for values that
+	 * are not supported by the mirror, e.g. unknown keys of ordinal scales. The
+	 * detached copies return NaN.
+	 *
+	 * @param value
+	 * @return
+	 */
+	protected double applyInJavaScript(Object value) {
+		boolean isDetached = scale == null;
+		if (isDetached) {
+			return Double.NaN;
+		}
+		Object result = scale.call("call", null, value);
+		return toDouble(result);
+	}
+
+	/**
+	 * Applies the JavaScript scale and returns the result as string. The
+	 * detached copies return null.
+	 *
+	 * @param value
+	 * @return
+	 */
+	protected String applyInJavaScriptForString(Object value) {
+		boolean isDetached = scale == null;
+		if (isDetached) {
+			return null;
+		}
+		Object result = scale.call("call", null, value);
+		boolean isUndefined = result == null || "undefined".equals(result);
+		if (isUndefined) {
+			return null;
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Converts a result of the JavaScript engine to a double. Undefined
+	 * values and values that are no numbers are converted to NaN.
+	 *
+	 * @param result
+	 * @return
+	 */
+	protected static double toDouble(Object result) {
+		boolean isNumber = result instanceof Number;
+		if (isNumber) {
+			return ((Number) result).doubleValue();
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * Returns the index of the first element of the given sorted values that
+	 * is greater than the given value (like d3.bisectRight), searching
+	 * between the given indices (lowIndex inclusive, highIndex exclusive)
+	 *
+	 * @param sortedValues
+	 * @param value
+	 * @param lowIndex
+	 * @param highIndex
+	 * @return
+	 */
+	protected static int bisectRight(double[] sortedValues, double value, int lowIndex, int highIndex) {
+		int low = lowIndex;
+		int high = highIndex;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (value < sortedValues[middle]) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return low;
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	/**
+	 * Returns a number that is increased whenever the JavaScript scale is
+	 * modified, e.g. by the zoom behavior. Results that depend on the scale
+	 * can be cached as long as the version does not change.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns true if this mirror is a detached copy
+	 */
+	public boolean isDetached() {
+		return scale == null;
+	}
+
+	//#end region
+
+}
@@ -60,4 +60,13 @@ public class ThresholdScale extends DiscreteQuantitativeScale<ThresholdScale> {
 	
 	//#end region
 
+	//#region MIRROR
+
+	@Override
+	protected ScaleMirror createMirror() {
+		return new ThresholdScaleMirror();
+	}
+
+	//#end region
+
 }
@@ -0,0 +1,61 @@
+package org.treez.javafxd3.d3.scales;
+
+/**
+ * Java mirror of a d3 threshold scale: the range value is selected by
+ * bisecting the sorted numeric domain. Domains with non-numeric thresholds are
+ * applied by the JavaScript scale.
+ */
+public class ThresholdScaleMirror extends DiscreteScaleMirror {
+
+	//#region ATTRIBUTES
+
+	private double[] thresholds = { 0.5 };
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public ThresholdScaleMirror() {
+		super();
+	}
+
+	/**
+	 * Creates a detached copy of the given mirror
+	 */
+	protected ThresholdScaleMirror(ThresholdScaleMirror original) {
+		super(original);
+		this.thresholds = original.thresholds;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	@Override
+	protected void readDomain(double[] domain) {
+		thresholds = domain;
+		isDomainSupported = true;
+		for (double threshold : domain) {
+			if (Double.isNaN(threshold)) {
+				isDomainSupported = false;
+			}
+		}
+	}
+
+	@Override
+	protected int rangeIndexOf(double value) {
+		if (Double.isNaN(value)) {
+			return -1;
+		}
+		return bisectRight(thresholds, value, 0, thresholds.length);
+	}
+
+	@Override
+	public ThresholdScaleMirror copy() {
+		syncIfRequired();
+		return new ThresholdScaleMirror(this);
+	}
+
+	//#end region
+
+}
@@ -0,0 +1,199 @@
+package org.treez.javafxd3.d3.svg;
+
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * Base class of the path data generators that are implemented in Java, e.g.
+ * {@link LinePathGenerator}: in contrast to the wrapped d3 generators like
+ * {@link Line}, they do not call back to Java for each data value and can
+ * create the path data of many shapes in parallel.
+ * <p>
+ * The path strings of many shapes are assigned to the page with a single
+ * call, e.g. with {@link org.treez.javafxd3.d3.core.Selection#attr(String, String[])}.
+ * If only some of the shapes change between two updates, pass a version for
+ * each shape to the <code>paths</code> methods: the path strings of shapes
+ * whose version did not change are reused.
+ *
+ * @param <G>
+ *            the type of the generator
+ */
+public abstract class AbstractPathGenerator<G extends AbstractPathGenerator<G>> {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The builders of the threads, which are reused to avoid allocating a new
+	 * string builder for each path
+	 */
+	private static final ThreadLocal<PathStringBuilder> BUILDERS = ThreadLocal
+			.withInitial(() -> new PathStringBuilder(256));
+
+	/**
+	 * The builders of the threads are not reused if their capacity grew larger
+	 * than this number of characters
+	 */
+	private static final int MAX_REUSED_LENGTH = 1 << 20;
+
+	protected int precision = -1;
+
+	/**
+	 * Is increased whenever the configuration of the generator changes; the
+	 * cached path strings are only valid for the same configuration
+	 */
+	private long configurationVersion = 0;
+
+	private String[] cachedPaths;
+
+	private long[] cachedVersions;
+
+	private long cachedConfigurationVersion = -1;
+
+	//#end region
+
+	//#region METHODS
+
+	@SuppressWarnings("unchecked")
+	protected G self() {
+		return (G) this;
+	}
+
+	/**
+	 * Must be called by the setters of the derived classes: invalidates the
+	 * cached path strings
+	 *
+	 * @return this generator
+	 */
+	protected G changed() {
+		synchronized (this) {
+			configurationVersion++;
+		}
+		return self();
+	}
+
+	/**
+	 * Sets the number of decimal places of the coordinates, e.g. 2 to reduce
+	 * the length of the path strings; see
+	 * {@link PathStringBuilder#precision(int)}. The default value -1 writes
+	 * all decimal places.
+	 *
+	 * @param precision
+	 * @return this generator
+	 */
+	public G precision(int precision) {
+		if (precision > PathStringBuilder.MAX_PRECISION) {
+			String message = "The precision " + precision + " is larger than " + PathStringBuilder.MAX_PRECISION;
+			throw new IllegalStateException(message);
+		}
+		this.precision = precision < 0 ? -1 : precision;
+		return changed();
+	}
+
+	public int precision() {
+		return precision;
+	}
+
+	/**
+	 * @return the cleared builder of the current thread, with the precision of
+	 *         this generator
+	 */
+	protected PathStringBuilder builder() {
+		PathStringBuilder builder = BUILDERS.get();
+		if (builder.length() > MAX_REUSED_LENGTH) {
+			builder = new PathStringBuilder(256);
+			BUILDERS.set(builder);
+		}
+		return builder.clear().precision(precision);
+	}
+
+	/**
+	 * Creates the given number of path strings in parallel
+	 *
+	 * @param numberOfPaths
+	 * @param pathFunction
+	 *            creates the path string with the given index
+	 * @return the path strings
+	 */
+	protected static String[] generatePaths(int numberOfPaths, IntFunction<String> pathFunction) {
+		String[] paths = new String[numberOfPaths];
+		IntStream.range(0, numberOfPaths).parallel().forEach((index) -> {
+			paths[index] = pathFunction.apply(index);
+		});
+		return paths;
+	}
+
+	/**
+	 * Creates the given number of path strings in parallel; the path strings
+	 * of the previous call are reused if the version of the shape and the
+	 * configuration of this generator did not change
+	 *
+	 * @param versions
+	 *            the version of each shape, e.g. a counter that is increased
+	 *            whenever the data of the shape changes
+	 * @param pathFunction
+	 *            creates the path string with the given index
+	 * @return the path strings
+	 */
+	protected synchronized String[] generatePaths(long[] versions, IntFunction<String> pathFunction) {
+		int numberOfPaths = versions.length;
+		boolean isCacheValid = cachedPaths != null && cachedPaths.length == numberOfPaths
+				&& cachedConfigurationVersion == configurationVersion;
+		String[] previousPaths = isCacheValid ? cachedPaths : null;
+		long[] previousVersions = cachedVersions;
+
+		String[] paths = new String[numberOfPaths];
+		IntStream.range(0, numberOfPaths).parallel().forEach((index) -> {
+			boolean isCached = previousPaths != null && previousVersions[index] == versions[index];
+			paths[index] = isCached ? previousPaths[index] : pathFunction.apply(index);
+		});
+
+		cachedPaths = paths.clone();
+		cachedVersions = versions.clone();
+		cachedConfigurationVersion = configurationVersion;
+		return paths;
+	}
+
+	/**
+	 * Removes the path strings that have been cached by the <code>paths</code>
+	 * methods with versions
+	 */
+	public synchronized void clearCache() {
+		cachedPaths = null;
+		cachedVersions = null;
+		cachedConfigurationVersion = -1;
+	}
+
+	/**
+	 * Throws an exception if the given length does not match the expected
+	 * length
+	 *
+	 * @param name
+	 *            the name of the values, e.g. "y values"
+	 * @param length
+	 * @param expectedLength
+	 */
+	protected static void checkLength(String name, int length, int expectedLength) {
+		if (length != expectedLength) {
+			String message = "The number of " + name + " (" + length + ") must be " + expectedLength + ".";
+			throw new IllegalStateException(message);
+		}
+	}
+
+	/**
+	 * Transfers the given path strings to the page with a single call
+	 *
+	 * @param engine
+	 * @param paths
+	 * @return the JavaScript array of path strings
+	 */
+	public static JsObject toJsPaths(JsEngine engine, String[] paths) {
+		return ArrayTransfer.toJsArray(engine, paths);
+	}
+
+	//#end region
+
+}
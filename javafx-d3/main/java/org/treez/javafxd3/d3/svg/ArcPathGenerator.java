@@ -0,0 +1,247 @@
+package org.treez.javafxd3.d3.svg;
+
+/**
+ * Creates the path data of {@link Arc} in Java, e.g. for the slices of a pie
+ * or donut chart. The angles are given in radians, where 0 is at 12 o'clock
+ * and the angles increase clockwise. Corner radii and pad angles are not
+ * supported.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * ArcPathGenerator arc = new ArcPathGenerator().innerRadius(50).outerRadius(100);
+ * String[] paths = arc.paths(startAngles, endAngles);
+ * }
+ * </pre>
+ */
+public class ArcPathGenerator extends AbstractPathGenerator<ArcPathGenerator> {
+
+	//#region ATTRIBUTES
+
+	private static final double EPSILON = 1e-6;
+
+	private static final double FULL_CIRCLE = 2 * Math.PI - EPSILON;
+
+	private double innerRadius = 0;
+
+	private double outerRadius = 1;
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Sets the constant inner radius; the default inner radius is 0
+	 *
+	 * @param innerRadius
+	 * @return this generator
+	 */
+	public ArcPathGenerator innerRadius(double innerRadius) {
+		this.innerRadius = innerRadius;
+		return changed();
+	}
+
+	public double innerRadius() {
+		return innerRadius;
+	}
+
+	/**
+	 * Sets the constant outer radius; the default outer radius is 1
+	 *
+	 * @param outerRadius
+	 * @return this generator
+	 */
+	public ArcPathGenerator outerRadius(double outerRadius) {
+		this.outerRadius = outerRadius;
+		return changed();
+	}
+
+	public double outerRadius() {
+		return outerRadius;
+	}
+
+	/**
+	 * Creates the path data of an arc with the radii of this generator
+	 *
+	 * @param startAngle
+	 * @param endAngle
+	 * @return the path string
+	 */
+	public String path(double startAngle, double endAngle) {
+		return path(innerRadius, outerRadius, startAngle, endAngle);
+	}
+
+	/**
+	 * Creates the path data of an arc
+	 *
+	 * @param innerRadius
+	 * @param outerRadius
+	 * @param startAngle
+	 * @param endAngle
+	 * @return the path string
+	 */
+	public String path(double innerRadius, double outerRadius, double startAngle, double endAngle) {
+		PathStringBuilder path = builder();
+		appendPath(path, innerRadius, outerRadius, startAngle, endAngle);
+		return path.toString();
+	}
+
+	/**
+	 * Appends the path data of an arc to the given builder
+	 *
+	 * @param path
+	 * @param innerRadius
+	 * @param outerRadius
+	 * @param startAngle
+	 * @param endAngle
+	 */
+	public static void appendPath(PathStringBuilder path, double innerRadius, double outerRadius,
+			double startAngle, double endAngle) {
+		double inner = Math.max(0, innerRadius);
+		double outer = Math.max(0, outerRadius);
+		if (inner > outer) {
+			double radius = outer;
+			outer = inner;
+			inner = radius;
+		}
+		double start = startAngle - Math.PI / 2;
+		double end = endAngle - Math.PI / 2;
+		double delta = Math.abs(end - start);
+		boolean isClockwise = start <= end;
+
+		if (delta >= FULL_CIRCLE) {
+			appendCircle(path, outer, isClockwise);
+			if (inner > 0) {
+				appendCircle(path, inner, !isClockwise);
+			}
+			path.closePath();
+			return;
+		}
+
+		boolean isLargeArc = delta > Math.PI;
+		if (outer > 0) {
+			path.moveTo(outer * Math.cos(start), outer * Math.sin(start));
+			path.arcTo(outer, outer, isLargeArc, isClockwise, outer * Math.cos(end), outer * Math.sin(end));
+		} else {
+			path.moveTo(0, 0);
+		}
+		if (inner > 0) {
+			path.lineTo(inner * Math.cos(end), inner * Math.sin(end));
+			path.arcTo(inner, inner, isLargeArc, !isClockwise, inner * Math.cos(start), inner * Math.sin(start));
+		} else {
+			path.lineTo(0, 0);
+		}
+		path.closePath();
+	}
+
+	private static void appendCircle(PathStringBuilder path, double radius, boolean isSweep) {
+		path.moveTo(0, radius);
+		path.arcTo(radius, radius, true, isSweep, 0, -radius);
+		path.arcTo(radius, radius, true, isSweep, 0, radius);
+	}
+
+	/**
+	 * Creates the path data of many arcs with the radii of this generator in
+	 * parallel
+	 *
+	 * @param startAngles
+	 * @param endAngles
+	 * @return the path strings
+	 */
+	public String[] paths(double[] startAngles, double[] endAngles) {
+		return paths(null, null, startAngles, endAngles);
+	}
+
+	/**
+	 * Creates the path data of many arcs in parallel
+	 *
+	 * @param innerRadii
+	 *            the inner radius of each arc or null to use the inner radius
+	 *            of this generator
+	 * @param outerRadii
+	 *            the outer radius of each arc or null to use the outer radius
+	 *            of this generator
+	 * @param startAngles
+	 * @param endAngles
+	 * @return the path strings
+	 */
+	public String[] paths(double[] innerRadii, double[] outerRadii, double[] startAngles, double[] endAngles) {
+		checkArrays(innerRadii, outerRadii, startAngles, endAngles);
+		return generatePaths(startAngles.length,
+				(index) -> path(innerRadii == null ? innerRadius : innerRadii[index],
+						outerRadii == null ? outerRadius : outerRadii[index], startAngles[index], endAngles[index]));
+	}
+
+	/**
+	 * Creates the path data of many arcs in parallel; the path strings of arcs
+	 * whose version did not change since the previous call are reused
+	 *
+	 * @param innerRadii
+	 *            the inner radius of each arc or null
+	 * @param outerRadii
+	 *            the outer radius of each arc or null
+	 * @param startAngles
+	 * @param endAngles
+	 * @param versions
+	 *            the version of the data of each arc
+	 * @return the path strings
+	 */
+	public String[] paths(double[] innerRadii, double[] outerRadii, double[] startAngles, double[] endAngles,
+			long[] versions) {
+		checkArrays(innerRadii, outerRadii, startAngles, endAngles);
+		checkLength("versions", versions.length, startAngles.length);
+		return generatePaths(versions,
+				(index) -> path(innerRadii == null ? innerRadius : innerRadii[index],
+						outerRadii == null ? outerRadius : outerRadii[index], startAngles[index], endAngles[index]));
+	}
+
+	private static void checkArrays(double[] innerRadii, double[] outerRadii, double[] startAngles,
+			double[] endAngles) {
+		int numberOfArcs = startAngles.length;
+		checkLength("end angles", endAngles.length, numberOfArcs);
+		if (innerRadii != null) {
+			checkLength("inner radii", innerRadii.length, numberOfArcs);
+		}
+		if (outerRadii != null) {
+			checkLength("outer radii", outerRadii.length, numberOfArcs);
+		}
+	}
+
+	/**
+	 * Computes the center of an arc with the radii of this generator, e.g. to
+	 * place a label; see {@link Arc#centroid(Arc, int)}
+	 *
+	 * @param startAngle
+	 * @param endAngle
+	 * @return the x and y value of the centroid
+	 */
+	public double[] centroid(double startAngle, double endAngle) {
+		double radius = (innerRadius + outerRadius) / 2;
+		double angle = (startAngle + endAngle) / 2 - Math.PI / 2;
+		return new double[] { radius * Math.cos(angle), radius * Math.sin(angle) };
+	}
+
+	/**
+	 * Computes the centers of many arcs with the radii of this generator
+	 *
+	 * @param startAngles
+	 * @param endAngles
+	 * @return the x and y values of the centroids: x0, y0, x1, y1, ...
+	 */
+	public double[] centroids(double[] startAngles, double[] endAngles) {
+		int numberOfArcs = startAngles.length;
+		checkLength("end angles", endAngles.length, numberOfArcs);
+		double radius = (innerRadius + outerRadius) / 2;
+		double[] centroids = new double[2 * numberOfArcs];
+		for (int index = 0; index < numberOfArcs; index++) {
+			double angle = (startAngles[index] + endAngles[index]) / 2 - Math.PI / 2;
+			centroids[2 * index] = radius * Math.cos(angle);
+			centroids[2 * index + 1] = radius * Math.sin(angle);
+		}
+		return centroids;
+	}
+
+	//#end region
+
+}
@@ -2,6 +2,7 @@ package org.treez.javafxd3.d3.svg;
 
 import org.treez.javafxd3.d3.functions.DataFunction;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -35,6 +36,20 @@ import org.treez.javafxd3.d3.core.JsObject;
  */
 public class Area extends PathDataGenerator {
 
+	//#region ATTRIBUTES
+
+	/**
+	 * The accessors that are set by area.x
+	 */
+	private static final String[] X_ACCESSOR_NAMES = { "x0", "x1" };
+
+	/**
+	 * The accessors that are set by area.y
+	 */
+	private static final String[] Y_ACCESSOR_NAMES = { "y0", "y1" };
+
+	//#end region
+
 	//#region CONSTRUCTORS
 
 	/**
@@ -93,17 +108,8 @@ public class Area extends PathDataGenerator {
 	 * @return
 	 */
 	public Area x(final DataFunction<?> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3jsObj = getD3();
-		d3jsObj.setMember(memberName, callback);
-
-		String command = "this.x(function(d, i) { " + //
-				"   return d3." + memberName + ".apply(this,d,i); " + //
-				"});";
-		JsObject result = evalForJsObject(command);
+		JsObject result = callWithPermanentCallback("x", X_ACCESSOR_NAMES, CallbackDispatcher.DATA_FUNCTION,
+				callback);
 		if (result == null) {
 			return null;
 		}
@@ -141,22 +147,12 @@ public class Area extends PathDataGenerator {
 	 * @return
 	 */
 	public Area x0(final DataFunction<Double> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3jsObj = getD3();
-		d3jsObj.setMember(memberName, callback);
-
-		String command = "this.x0(function(d, i) { " + //
-				"  return d3." + memberName + ".apply(this,d,i); " + //
-				"});";
-		JsObject result = evalForJsObject(command);
+		JsObject result = callWithPermanentCallback("x0", X_ACCESSOR_NAMES, CallbackDispatcher.DATA_FUNCTION,
+				callback);
 		if (result == null) {
 			return null;
 		}
 		return new Area(engine, result);
-
 	}
 
 	/**
@@ -180,17 +176,8 @@ public class Area extends PathDataGenerator {
 	 * @return
 	 */
 	public Area x1(final DataFunction<Double> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3jsObj = getD3();
-		d3jsObj.setMember(memberName, callback);
-
-		String command = "this.x1(function(d, i) { " + //
-				"  return d3." + memberName + ".apply(this,d,i); " + //
-				"});";
-		JsObject result = evalForJsObject(command);
+		JsObject result = callWithPermanentCallback("x1", X_ACCESSOR_NAMES, CallbackDispatcher.DATA_FUNCTION,
+				callback);
 		if (result == null) {
 			return null;
 		}
@@ -252,17 +239,8 @@ public class Area extends PathDataGenerator {
 	 * @return the current area
 	 */
 	public Area y(final DataFunction<Double> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3jsObj = getD3();
-		d3jsObj.setMember(memberName, callback);
-
-		String command = "this.y(function(d, i) { " + //
-				"   return d3." + memberName + ".apply(this,d,i); " + //
-				"});";
-		JsObject result = evalForJsObject(command);
+		JsObject result = callWithPermanentCallback("y", Y_ACCESSOR_NAMES, CallbackDispatcher.DATA_FUNCTION,
+				callback);
 		if (result == null) {
 			return null;
 		}
@@ -282,17 +260,8 @@ public class Area extends PathDataGenerator {
 	 * @return the current area
 	 */
 	public Area y0(final DataFunction<Double> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3jsObj = getD3();
-		d3jsObj.setMember(memberName, callback);
-
-		String command = "this.y0(function(d, i) { " + //
-				"   return d3." + memberName + ".apply(this,d,i); " + //
-				"});";
-		JsObject result = evalForJsObject(command);
+		JsObject result = callWithPermanentCallback("y0", Y_ACCESSOR_NAMES, CallbackDispatcher.DATA_FUNCTION,
+				callback);
 		if (result == null) {
 			return null;
 		}
@@ -312,22 +281,12 @@ public class Area extends PathDataGenerator {
 	 * @return the current area
 	 */
 	public Area y1(final DataFunction<Double> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3jsObj = getD3();
-		d3jsObj.setMember(memberName, callback);
-
-		String command = "this.y1(function(d, i) { " + //
-				"   return d3." + memberName + ".apply(this,d,i); " + //
-				" });";
-		JsObject result = evalForJsObject(command);
+		JsObject result = callWithPermanentCallback("y1", Y_ACCESSOR_NAMES, CallbackDispatcher.DATA_FUNCTION,
+				callback);
 		if (result == null) {
 			return null;
 		}
 		return new Area(engine, result);
-
 	}
 
 	/**
@@ -345,24 +304,11 @@ public class Area extends PathDataGenerator {
 	 * @return
 	 */
 	public Line defined(final DataFunction<Boolean> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3jsObj = getD3();
-		d3jsObj.setMember(memberName, callback);
-
-		String command = "this.defined(function(d) { " //				
-				+ "var result = d3." + memberName + ".apply(null,d, 0); "//				
-				+ "return result; "//
-				+ "});";
-
-		JsObject result = evalForJsObject(command);
+		JsObject result = callWithPermanentCallback("defined", CallbackDispatcher.BOOLEAN_DATA_FUNCTION, callback);
 		if (result == null) {
 			return null;
 		}
 		return new Line(engine, result);
-
 	}
 
 	/**
@@ -437,6 +383,32 @@ public class Area extends PathDataGenerator {
 		return result;
 	}
 
+	/**
+	 * Generates the path data for the given x and y values with the default
+	 * accessors, which expect [x, y] arrays and use 0 as baseline
+	 *
+	 * @param x
+	 * @param y
+	 * @return the generated path data
+	 */
+	public String generate(double[] x, double[] y) {
+		return generateFromPoints(x, y, null);
+	}
+
+	/**
+	 * Generates the path data for the given x and y values after they have
+	 * been reduced by the given downsampler, e.g. to the points that are
+	 * visible at the current zoom level
+	 *
+	 * @param x
+	 * @param y
+	 * @param downsampler
+	 * @return the generated path data
+	 */
+	public String generate(double[] x, double[] y, Downsampler downsampler) {
+		return generateFromPoints(x, y, downsampler);
+	}
+
 	//#end region
 
 }
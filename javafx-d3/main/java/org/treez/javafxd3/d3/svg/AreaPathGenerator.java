@@ -0,0 +1,197 @@
+package org.treez.javafxd3.d3.svg;
+
+import java.util.Arrays;
+
+/**
+ * Creates the path data of {@link Area} in Java: the area between the
+ * topline (x1, y1) and the baseline (x0, y0). A point with a NaN value is
+ * undefined and splits the area into separate segments.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * AreaPathGenerator area = new AreaPathGenerator().interpolate(InterpolationMode.STEP_AFTER);
+ * String path = area.path(x, height, y);
+ * }
+ * </pre>
+ */
+public class AreaPathGenerator extends AbstractPathGenerator<AreaPathGenerator> {
+
+	//#region ATTRIBUTES
+
+	private InterpolationMode interpolationMode = InterpolationMode.LINEAR;
+
+	private double tension = Curves.DEFAULT_TENSION;
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Sets the interpolation mode; the default mode is
+	 * {@link InterpolationMode#LINEAR}
+	 *
+	 * @param interpolationMode
+	 * @return this generator
+	 */
+	public AreaPathGenerator interpolate(InterpolationMode interpolationMode) {
+		this.interpolationMode = interpolationMode;
+		return changed();
+	}
+
+	public InterpolationMode interpolate() {
+		return interpolationMode;
+	}
+
+	/**
+	 * Sets the tension of the cardinal and bundle interpolation; the default
+	 * tension is {@link Curves#DEFAULT_TENSION}
+	 *
+	 * @param tension
+	 * @return this generator
+	 */
+	public AreaPathGenerator tension(double tension) {
+		this.tension = tension;
+		return changed();
+	}
+
+	public double tension() {
+		return tension;
+	}
+
+	/**
+	 * Creates the path data of an area with a constant baseline
+	 *
+	 * @param x
+	 * @param y0
+	 *            the y value of the baseline, e.g. the height of the chart
+	 * @param y1
+	 *            the y values of the topline
+	 * @return the path string or null if no point is defined
+	 */
+	public String path(double[] x, double y0, double[] y1) {
+		double[] baseline = new double[x.length];
+		Arrays.fill(baseline, y0);
+		return path(x, baseline, x, y1);
+	}
+
+	/**
+	 * Creates the path data of an area with the same x values for the
+	 * baseline and the topline
+	 *
+	 * @param x
+	 * @param y0
+	 *            the y values of the baseline
+	 * @param y1
+	 *            the y values of the topline
+	 * @return the path string or null if no point is defined
+	 */
+	public String path(double[] x, double[] y0, double[] y1) {
+		return path(x, y0, x, y1);
+	}
+
+	/**
+	 * Creates the path data of an area
+	 *
+	 * @param x0
+	 *            the x values of the baseline
+	 * @param y0
+	 *            the y values of the baseline
+	 * @param x1
+	 *            the x values of the topline
+	 * @param y1
+	 *            the y values of the topline
+	 * @return the path string or null if no point is defined
+	 */
+	public String path(double[] x0, double[] y0, double[] x1, double[] y1) {
+		PathStringBuilder path = builder();
+		appendPath(path, x0, y0, x1, y1);
+		return path.isEmpty() ? null : path.toString();
+	}
+
+	/**
+	 * Appends the path data of an area to the given builder
+	 *
+	 * @param path
+	 * @param x0
+	 * @param y0
+	 * @param x1
+	 * @param y1
+	 */
+	public void appendPath(PathStringBuilder path, double[] x0, double[] y0, double[] x1, double[] y1) {
+		int numberOfPoints = x0.length;
+		checkLength("baseline y values", y0.length, numberOfPoints);
+		checkLength("topline x values", x1.length, numberOfPoints);
+		checkLength("topline y values", y1.length, numberOfPoints);
+
+		double[] toplinePoints = new double[2 * numberOfPoints];
+		double[] baselinePoints = new double[2 * numberOfPoints];
+		InterpolationMode reverseMode = Curves.reverse(interpolationMode);
+		char separator = Curves.isClosed(interpolationMode) ? 'M' : 'L';
+
+		int start = 0;
+		for (int index = 0; index <= numberOfPoints; index++) {
+			boolean isDefined = index < numberOfPoints && !Double.isNaN(x0[index]) && !Double.isNaN(y0[index])
+					&& !Double.isNaN(x1[index]) && !Double.isNaN(y1[index]);
+			if (isDefined) {
+				toplinePoints[2 * index] = x1[index];
+				toplinePoints[2 * index + 1] = y1[index];
+				continue;
+			}
+
+			if (index > start) {
+				// the baseline is drawn backwards
+				int baselineIndex = 0;
+				for (int pointIndex = index - 1; pointIndex >= start; pointIndex--) {
+					baselinePoints[baselineIndex++] = x0[pointIndex];
+					baselinePoints[baselineIndex++] = y0[pointIndex];
+				}
+				path.append('M');
+				Curves.interpolate(path, interpolationMode, tension, toplinePoints, start, index);
+				path.append(separator);
+				Curves.interpolate(path, reverseMode, tension, baselinePoints, 0, index - start);
+				path.closePath();
+			}
+			start = index + 1;
+		}
+	}
+
+	/**
+	 * Creates the path data of many areas in parallel
+	 *
+	 * @param xs
+	 *            the x values of each area
+	 * @param y0s
+	 *            the baseline y values of each area
+	 * @param y1s
+	 *            the topline y values of each area
+	 * @return the path strings
+	 */
+	public String[] paths(double[][] xs, double[][] y0s, double[][] y1s) {
+		checkLength("baselines", y0s.length, xs.length);
+		checkLength("toplines", y1s.length, xs.length);
+		return generatePaths(xs.length, (index) -> path(xs[index], y0s[index], y1s[index]));
+	}
+
+	/**
+	 * Creates the path data of many areas in parallel; the path strings of
+	 * areas whose version did not change since the previous call are reused
+	 *
+	 * @param xs
+	 * @param y0s
+	 * @param y1s
+	 * @param versions
+	 *            the version of the data of each area
+	 * @return the path strings
+	 */
+	public String[] paths(double[][] xs, double[][] y0s, double[][] y1s, long[] versions) {
+		checkLength("baselines", y0s.length, xs.length);
+		checkLength("toplines", y1s.length, xs.length);
+		checkLength("versions", versions.length, xs.length);
+		return generatePaths(versions, (index) -> path(xs[index], y0s[index], y1s[index]));
+	}
+
+	//#end region
+
+}
@@ -17,6 +17,7 @@ import org.treez.javafxd3.d3.time.Interval;
 import org.treez.javafxd3.d3.time.TimeScale;
 import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -423,24 +424,11 @@ public class Axis extends JavaScriptObject implements JsFunction {
 	 * @return the current {@link Axis}
 	 */
 	public Axis tickFormat(DataFunction<String> formatFunction) {
-
-		assertObjectIsNotAnonymous(formatFunction);
-		String memberName = createNewTemporaryInstanceName();
-		JsObject d3JsObj = getD3();
-		d3JsObj.setMember(memberName, formatFunction);
-
-		String command = "this.tickFormat(function(d,i) {"//
-				+ "return d3." + memberName + ".apply(null,d,i);"//
-				+ "});";
-
-		JsObject result = evalForJsObject(command);
-		
-		if(result==null){
+		JsObject result = callWithPermanentCallback("tickFormat", CallbackDispatcher.DATA_FUNCTION, formatFunction);
+		if (result == null) {
 			return null;
 		}
-
 		return new Axis(engine, result);
-
 	}
 	
 	public Axis tickFormatExpression(String formatFunctionExpression) {		
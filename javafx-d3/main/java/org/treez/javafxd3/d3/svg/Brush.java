@@ -14,6 +14,7 @@ import org.treez.javafxd3.d3.scales.QuantitativeScale;
 import org.treez.javafxd3.d3.scales.Scale;
 import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -320,30 +321,12 @@ public class Brush extends JavaScriptObject implements JsFunction {
 	 * @return the current brush.
 	 */
 	public Brush on(BrushEvent event, DataFunction<Void> listener) {
-
-		String eventString = event.getValue();
-
-		String memberName = createNewTemporaryInstanceName();
-		String varName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(memberName, listener);
-		
-		String command = "d3."+varName+" = function(d, i) {" //		      
-				+ "d3." + memberName + ".apply(this,d,i);" //
-				+ " }; ";
-
-		eval(command);
-		String onCommand = "this.on('" + eventString + "', d3."+varName+");";
-		
-		
-
-		JsObject result = evalForJsObject(onCommand);
-		
-		if(result==null){
+		String eventName = event.getValue();
+		JsObject result = callWithPermanentCallback("on", CallbackDispatcher.DATA_FUNCTION, listener, eventName);
+		if (result == null) {
 			return null;
 		}
 		return new Brush(engine, result);
-		
 	}
 
 	/**
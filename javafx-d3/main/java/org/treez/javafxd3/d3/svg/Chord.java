@@ -2,6 +2,7 @@ package org.treez.javafxd3.d3.svg;
 
 import org.treez.javafxd3.d3.functions.DataFunction;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -68,23 +69,11 @@ public class Chord extends PathDataGenerator {
 	 * @return the current chord generator
 	 */
 	public Chord source(final DataFunction<?> accessor) {
-
-		assertObjectIsNotAnonymous(accessor);
-
-		JsObject d3JsObject = getD3();
-		String accessorName = createNewTemporaryInstanceName();
-		d3JsObject.setMember(accessorName, accessor);
-
-		String command = "this.source(function(d, i) { " //
-				+ "return d3." + accessorName + ".apply(this,d,i);"//
-				+ " });";
-		
-		JsObject result = evalForJsObject(command);
-		if(result==null){
+		JsObject result = callWithPermanentCallback("source", CallbackDispatcher.DATA_FUNCTION, accessor);
+		if (result == null) {
 			return null;
 		}
 		return new Chord(engine, result);
-
 	}
 
 	/**
@@ -110,19 +99,8 @@ public class Chord extends PathDataGenerator {
 	 * @return the current chord generator
 	 */
 	public Chord target(final DataFunction<?> accessor) {
-
-		assertObjectIsNotAnonymous(accessor);
-
-		JsObject d3JsObject = getD3();
-		String accessorName = createNewTemporaryInstanceName();
-		d3JsObject.setMember(accessorName, accessor);
-
-		String command = "this.target(function(d, i) { " //
-				+ "return d3." + accessorName + ".apply(this,d,i);"//
-				+ " });";
-		
-		JsObject result = evalForJsObject(command);
-		if(result==null){
+		JsObject result = callWithPermanentCallback("target", CallbackDispatcher.DATA_FUNCTION, accessor);
+		if (result == null) {
 			return null;
 		}
 		return new Chord(engine, result);
@@ -141,19 +119,8 @@ public class Chord extends PathDataGenerator {
 	 * @return the current chord generator
 	 */
 	public Chord radius(final DataFunction<Double> accessor) {
-
-		assertObjectIsNotAnonymous(accessor);
-
-		JsObject d3JsObject = getD3();
-		String accessorName = createNewTemporaryInstanceName();
-		d3JsObject.setMember(accessorName, accessor);
-
-		String command = "this.radius(function(d, i) { " //
-				+ "return d3." + accessorName + ".apply(this,d,i);"//
-				+ " });";
-		
-		JsObject result = evalForJsObject(command);
-		if(result==null){
+		JsObject result = callWithPermanentCallback("radius", CallbackDispatcher.DATA_FUNCTION, accessor);
+		if (result == null) {
 			return null;
 		}
 		return new Chord(engine, result);
@@ -188,23 +155,11 @@ public class Chord extends PathDataGenerator {
 	 * @return the current chord generator
 	 */
 	public Chord startAngle(final DataFunction<Double> accessor) {
-
-		assertObjectIsNotAnonymous(accessor);
-
-		JsObject d3JsObject = getD3();
-		String accessorName = createNewTemporaryInstanceName();
-		d3JsObject.setMember(accessorName, accessor);
-
-		String command = "this.startAngle(function(d, i) { " //
-				+ "return d3." + accessorName + ".apply(this,d,i);"//
-				+ " });";
-		
-		JsObject result = evalForJsObject(command);
-		if(result==null){
+		JsObject result = callWithPermanentCallback("startAngle", CallbackDispatcher.DATA_FUNCTION, accessor);
+		if (result == null) {
 			return null;
 		}
 		return new Chord(engine, result);
-		
 	}
 
 	/**
@@ -238,19 +193,8 @@ public class Chord extends PathDataGenerator {
 	 * @return the current chord generator
 	 */
 	public Chord endAngle(final DataFunction<Double> accessor) {
-
-		assertObjectIsNotAnonymous(accessor);
-
-		JsObject d3JsObject = getD3();
-		String accessorName = createNewTemporaryInstanceName();
-		d3JsObject.setMember(accessorName, accessor);
-
-		String command = "this.endAngle(function(d, i) { " //
-				+ "return d3." + accessorName + ".apply(this,d,i);"//
-				+ " });";
-		
-		JsObject result = evalForJsObject(command);
-		if(result==null){
+		JsObject result = callWithPermanentCallback("endAngle", CallbackDispatcher.DATA_FUNCTION, accessor);
+		if (result == null) {
 			return null;
 		}
 		return new Chord(engine, result);
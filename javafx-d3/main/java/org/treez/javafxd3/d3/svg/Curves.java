@@ -0,0 +1,501 @@
+package org.treez.javafxd3.d3.svg;
+
+/**
+ * The interpolation modes of {@link Line} and {@link Area}, implemented in
+ * Java. The points are given as a single array of x and y values: x0, y0, x1,
+ * y1, ... The created path data is identical to the path data of d3, except
+ * for the formatting of very large and very small numbers.
+ * <p>
+ * Like the interpolators of d3, the methods append the path data without the
+ * initial "M" command; see {@link LinePathGenerator} and
+ * {@link AreaPathGenerator}.
+ */
+public final class Curves {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The default tension of the cardinal and bundle interpolation
+	 */
+	public static final double DEFAULT_TENSION = 0.7;
+
+	private static final double EPSILON = 1e-6;
+
+	private static final double[] BASIS_FIRST_CONTROL_POINT = { 0, 2.0 / 3, 1.0 / 3, 0 };
+
+	private static final double[] BASIS_SECOND_CONTROL_POINT = { 0, 1.0 / 3, 2.0 / 3, 0 };
+
+	private static final double[] BASIS_POINT = { 0, 1.0 / 6, 2.0 / 3, 1.0 / 6 };
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	private Curves() {
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Appends the path data of the given interpolation mode for the points
+	 * from start (inclusive) to end (exclusive)
+	 *
+	 * @param path
+	 * @param mode
+	 * @param tension
+	 *            the tension of the cardinal and bundle interpolation, see
+	 *            {@link #DEFAULT_TENSION}
+	 * @param points
+	 *            the x and y values: x0, y0, x1, y1, ...
+	 * @param start
+	 *            the index of the first point
+	 * @param end
+	 *            the index after the last point
+	 */
+	public static void interpolate(PathStringBuilder path, InterpolationMode mode, double tension, double[] points,
+			int start, int end) {
+		int numberOfPoints = end - start;
+		if (numberOfPoints <= 0) {
+			return;
+		}
+		switch (mode) {
+		case LINEAR:
+			linear(path, points, start, end);
+			break;
+		case LINEAR_CLOSED:
+			linearClosed(path, points, start, end);
+			break;
+		case STEP:
+			step(path, points, start, end);
+			break;
+		case STEP_BEFORE:
+			stepBefore(path, points, start, end);
+			break;
+		case STEP_AFTER:
+			stepAfter(path, points, start, end);
+			break;
+		case BASIS:
+			basis(path, points, start, end);
+			break;
+		case BASIS_OPEN:
+			basisOpen(path, points, start, end);
+			break;
+		case BASIS_CLOSED:
+			basisClosed(path, points, start, end);
+			break;
+		case BUNDLE:
+			bundle(path, tension, points, start, end);
+			break;
+		case CARDINAL:
+			cardinal(path, tension, points, start, end);
+			break;
+		case CARDINAL_OPEN:
+			cardinalOpen(path, tension, points, start, end);
+			break;
+		case CARDINAL_CLOSED:
+			cardinalClosed(path, tension, points, start, end);
+			break;
+		case MONOTONE:
+			monotone(path, points, start, end);
+			break;
+		default:
+			String message = "The interpolation mode " + mode + " is not known.";
+			throw new IllegalStateException(message);
+		}
+	}
+
+	/**
+	 * @param mode
+	 * @return true if the interpolation mode creates a closed shape; an area
+	 *         then moves to its baseline instead of drawing a line
+	 */
+	public static boolean isClosed(InterpolationMode mode) {
+		return mode == InterpolationMode.LINEAR_CLOSED || mode == InterpolationMode.BASIS_CLOSED
+				|| mode == InterpolationMode.CARDINAL_CLOSED;
+	}
+
+	/**
+	 * @param mode
+	 * @return the interpolation mode that is used for the reversed points,
+	 *         e.g. for the baseline of an area
+	 */
+	public static InterpolationMode reverse(InterpolationMode mode) {
+		switch (mode) {
+		case STEP_BEFORE:
+			return InterpolationMode.STEP_AFTER;
+		case STEP_AFTER:
+			return InterpolationMode.STEP_BEFORE;
+		default:
+			return mode;
+		}
+	}
+
+	//#region LINEAR
+
+	private static void linear(PathStringBuilder path, double[] points, int start, int end) {
+		appendPolyline(path, points, start, end);
+		if (end - start == 1) {
+			path.closePath();
+		}
+	}
+
+	private static void linearClosed(PathStringBuilder path, double[] points, int start, int end) {
+		appendPolyline(path, points, start, end);
+		path.closePath();
+	}
+
+	private static void appendPolyline(PathStringBuilder path, double[] points, int start, int end) {
+		appendPoint(path, points, start);
+		for (int index = start + 1; index < end; index++) {
+			path.append('L');
+			appendPoint(path, points, index);
+		}
+	}
+
+	//#end region
+
+	//#region STEP
+
+	private static void step(PathStringBuilder path, double[] points, int start, int end) {
+		appendPoint(path, points, start);
+		double previousX = points[2 * start];
+		for (int index = start + 1; index < end; index++) {
+			double x = points[2 * index];
+			path.horizontalLineTo((previousX + x) / 2);
+			path.verticalLineTo(points[2 * index + 1]);
+			previousX = x;
+		}
+		if (end - start > 1) {
+			path.horizontalLineTo(previousX);
+		}
+	}
+
+	private static void stepBefore(PathStringBuilder path, double[] points, int start, int end) {
+		appendPoint(path, points, start);
+		for (int index = start + 1; index < end; index++) {
+			path.verticalLineTo(points[2 * index + 1]);
+			path.horizontalLineTo(points[2 * index]);
+		}
+	}
+
+	private static void stepAfter(PathStringBuilder path, double[] points, int start, int end) {
+		appendPoint(path, points, start);
+		for (int index = start + 1; index < end; index++) {
+			path.horizontalLineTo(points[2 * index]);
+			path.verticalLineTo(points[2 * index + 1]);
+		}
+	}
+
+	//#end region
+
+	//#region BASIS
+
+	private static void basis(PathStringBuilder path, double[] points, int start, int end) {
+		int numberOfPoints = end - start;
+		if (numberOfPoints < 3) {
+			linear(path, points, start, end);
+			return;
+		}
+
+		double x0 = points[2 * start];
+		double y0 = points[2 * start + 1];
+		double[] xWindow = { x0, x0, x0, points[2 * start + 2] };
+		double[] yWindow = { y0, y0, y0, points[2 * start + 3] };
+		appendPoint(path, points, start);
+		path.append('L');
+		appendBasisPoint(path, xWindow, yWindow);
+
+		// the last point is used twice
+		for (int index = start + 2; index <= end; index++) {
+			int pointIndex = Math.min(index, end - 1);
+			shift(xWindow, points[2 * pointIndex]);
+			shift(yWindow, points[2 * pointIndex + 1]);
+			appendBasisCurve(path, xWindow, yWindow);
+		}
+		path.append('L');
+		appendPoint(path, points, end - 1);
+	}
+
+	private static void basisOpen(PathStringBuilder path, double[] points, int start, int end) {
+		int numberOfPoints = end - start;
+		if (numberOfPoints < 4) {
+			linear(path, points, start, end);
+			return;
+		}
+
+		double[] xWindow = { 0, points[2 * start], points[2 * start + 2], points[2 * start + 4] };
+		double[] yWindow = { 0, points[2 * start + 1], points[2 * start + 3], points[2 * start + 5] };
+		appendBasisPoint(path, xWindow, yWindow);
+		for (int index = start + 3; index < end; index++) {
+			shift(xWindow, points[2 * index]);
+			shift(yWindow, points[2 * index + 1]);
+			appendBasisCurve(path, xWindow, yWindow);
+		}
+	}
+
+	private static void basisClosed(PathStringBuilder path, double[] points, int start, int end) {
+		int numberOfPoints = end - start;
+		double[] xWindow = new double[4];
+		double[] yWindow = new double[4];
+		for (int offset = 0; offset < 4; offset++) {
+			int index = start + offset % numberOfPoints;
+			xWindow[offset] = points[2 * index];
+			yWindow[offset] = points[2 * index + 1];
+		}
+		appendBasisPoint(path, xWindow, yWindow);
+		for (int offset = 4; offset < numberOfPoints + 4; offset++) {
+			int index = start + offset % numberOfPoints;
+			shift(xWindow, points[2 * index]);
+			shift(yWindow, points[2 * index + 1]);
+			appendBasisCurve(path, xWindow, yWindow);
+		}
+	}
+
+	private static void bundle(PathStringBuilder path, double tension, double[] points, int start, int end) {
+		int lastIndex = end - start - 1;
+		if (lastIndex == 0) {
+			basis(path, points, start, end);
+			return;
+		}
+
+		// the points are straightened towards the line from the first to the
+		// last point
+		double[] straightenedPoints = new double[2 * (lastIndex + 1)];
+		double x0 = points[2 * start];
+		double y0 = points[2 * start + 1];
+		double deltaX = points[2 * (end - 1)] - x0;
+		double deltaY = points[2 * (end - 1) + 1] - y0;
+		for (int index = 0; index <= lastIndex; index++) {
+			double fraction = (double) index / lastIndex;
+			straightenedPoints[2 * index] = tension * points[2 * (start + index)]
+					+ (1 - tension) * (x0 + fraction * deltaX);
+			straightenedPoints[2 * index + 1] = tension * points[2 * (start + index) + 1]
+					+ (1 - tension) * (y0 + fraction * deltaY);
+		}
+		basis(path, straightenedPoints, 0, lastIndex + 1);
+	}
+
+	private static void shift(double[] window, double value) {
+		window[0] = window[1];
+		window[1] = window[2];
+		window[2] = window[3];
+		window[3] = value;
+	}
+
+	private static void appendBasisPoint(PathStringBuilder path, double[] xWindow, double[] yWindow) {
+		path.appendPoint(dot(BASIS_POINT, xWindow), dot(BASIS_POINT, yWindow));
+	}
+
+	private static void appendBasisCurve(PathStringBuilder path, double[] xWindow, double[] yWindow) {
+		path.append('C');
+		path.appendPoint(dot(BASIS_FIRST_CONTROL_POINT, xWindow), dot(BASIS_FIRST_CONTROL_POINT, yWindow));
+		path.append(',');
+		path.appendPoint(dot(BASIS_SECOND_CONTROL_POINT, xWindow), dot(BASIS_SECOND_CONTROL_POINT, yWindow));
+		path.append(',');
+		appendBasisPoint(path, xWindow, yWindow);
+	}
+
+	private static double dot(double[] weights, double[] window) {
+		return weights[0] * window[0] + weights[1] * window[1] + weights[2] * window[2] + weights[3] * window[3];
+	}
+
+	//#end region
+
+	//#region CARDINAL
+
+	private static void cardinal(PathStringBuilder path, double tension, double[] points, int start, int end) {
+		if (end - start < 3) {
+			linear(path, points, start, end);
+			return;
+		}
+		appendPoint(path, points, start);
+		double[] tangents = cardinalTangents(points, start, end, tension);
+		hermite(path, points, start, end, tangents);
+	}
+
+	private static void cardinalOpen(PathStringBuilder path, double tension, double[] points, int start, int end) {
+		if (end - start < 4) {
+			linear(path, points, start, end);
+			return;
+		}
+		appendPoint(path, points, start + 1);
+		double[] tangents = cardinalTangents(points, start, end, tension);
+		hermite(path, points, start + 1, end - 1, tangents);
+	}
+
+	private static void cardinalClosed(PathStringBuilder path, double tension, double[] points, int start,
+			int end) {
+		int numberOfPoints = end - start;
+		if (numberOfPoints < 3) {
+			linearClosed(path, points, start, end);
+			return;
+		}
+
+		// last point, all points, first point, second point
+		double[] closedPoints = new double[2 * (numberOfPoints + 3)];
+		System.arraycopy(points, 2 * (end - 1), closedPoints, 0, 2);
+		System.arraycopy(points, 2 * start, closedPoints, 2, 2 * numberOfPoints);
+		System.arraycopy(points, 2 * start, closedPoints, 2 * (numberOfPoints + 1), 4);
+
+		appendPoint(path, points, start);
+		double[] tangents = cardinalTangents(closedPoints, 0, numberOfPoints + 3, tension);
+		hermite(path, closedPoints, 1, numberOfPoints + 2, tangents);
+	}
+
+	/**
+	 * @return the tangents of the inner points: x0, y0, x1, y1, ...
+	 */
+	private static double[] cardinalTangents(double[] points, int start, int end, double tension) {
+		double factor = (1 - tension) / 2;
+		int numberOfTangents = end - start - 2;
+		double[] tangents = new double[2 * numberOfTangents];
+		for (int index = 0; index < numberOfTangents; index++) {
+			int previous = 2 * (start + index);
+			int next = previous + 4;
+			tangents[2 * index] = factor * (points[next] - points[previous]);
+			tangents[2 * index + 1] = factor * (points[next + 1] - points[previous + 1]);
+		}
+		return tangents;
+	}
+
+	//#end region
+
+	//#region MONOTONE
+
+	private static void monotone(PathStringBuilder path, double[] points, int start, int end) {
+		if (end - start < 3) {
+			linear(path, points, start, end);
+			return;
+		}
+		appendPoint(path, points, start);
+		hermite(path, points, start, end, monotoneTangents(points, start, end));
+	}
+
+	/**
+	 * Computes the tangents of the Fritsch-Carlson method, which preserve the
+	 * monotonicity of the points
+	 */
+	private static double[] monotoneTangents(double[] points, int start, int end) {
+		int numberOfPoints = end - start;
+		int lastIndex = numberOfPoints - 1;
+
+		double[] slopes = new double[numberOfPoints];
+		double secant = secant(points, start);
+		slopes[0] = secant;
+		for (int index = 1; index < lastIndex; index++) {
+			double nextSecant = secant(points, start + index);
+			slopes[index] = (secant + nextSecant) / 2;
+			secant = nextSecant;
+		}
+		slopes[lastIndex] = secant;
+
+		for (int index = 0; index < lastIndex; index++) {
+			secant = secant(points, start + index);
+			if (Math.abs(secant) < EPSILON) {
+				slopes[index] = 0;
+				slopes[index + 1] = 0;
+			} else {
+				double alpha = slopes[index] / secant;
+				double beta = slopes[index + 1] / secant;
+				double squaredLength = alpha * alpha + beta * beta;
+				if (squaredLength > 9) {
+					double factor = 3 * secant / Math.sqrt(squaredLength);
+					slopes[index] = factor * alpha;
+					slopes[index + 1] = factor * beta;
+				}
+			}
+		}
+
+		double[] tangents = new double[2 * numberOfPoints];
+		for (int index = 0; index < numberOfPoints; index++) {
+			double nextX = points[2 * (start + Math.min(lastIndex, index + 1))];
+			double previousX = points[2 * (start + Math.max(0, index - 1))];
+			double scale = (nextX - previousX) / (6 * (1 + slopes[index] * slopes[index]));
+			tangents[2 * index] = zeroIfNaN(scale);
+			tangents[2 * index + 1] = zeroIfNaN(slopes[index] * scale);
+		}
+		return tangents;
+	}
+
+	private static double secant(double[] points, int index) {
+		return (points[2 * index + 3] - points[2 * index + 1]) / (points[2 * index + 2] - points[2 * index]);
+	}
+
+	private static double zeroIfNaN(double value) {
+		return Double.isNaN(value) ? 0 : value;
+	}
+
+	//#end region
+
+	//#region HERMITE
+
+	/**
+	 * Appends cubic Hermite splines with the given tangents as Bezier curves.
+	 * The number of tangents is either the number of points or the number of
+	 * points minus two; in the latter case, the first and the last segment are
+	 * quadratic curves.
+	 */
+	private static void hermite(PathStringBuilder path, double[] points, int start, int end, double[] tangents) {
+		int numberOfPoints = end - start;
+		int numberOfTangents = tangents.length / 2;
+		boolean hasValidTangents = numberOfTangents >= 1
+				&& (numberOfPoints == numberOfTangents || numberOfPoints == numberOfTangents + 2);
+		if (!hasValidTangents) {
+			linear(path, points, start, end);
+			return;
+		}
+
+		boolean isQuadratic = numberOfPoints != numberOfTangents;
+		int previous = start;
+		int current = start + 1;
+		int tangent = 0;
+		int next = start + 1;
+		if (isQuadratic) {
+			path.append('Q');
+			path.appendPoint(points[2 * current] - 2 * tangents[0] / 3, points[2 * current + 1] - 2 * tangents[1] / 3);
+			path.append(',');
+			appendPoint(path, points, current);
+			previous = current;
+			next = start + 2;
+		}
+
+		if (numberOfTangents > 1) {
+			tangent = 1;
+			current = next++;
+			path.append('C');
+			path.appendPoint(points[2 * previous] + tangents[0], points[2 * previous + 1] + tangents[1]);
+			path.append(',');
+			path.appendPoint(points[2 * current] - tangents[2], points[2 * current + 1] - tangents[3]);
+			path.append(',');
+			appendPoint(path, points, current);
+			for (int index = 2; index < numberOfTangents; index++) {
+				tangent = index;
+				current = next++;
+				path.append('S');
+				path.appendPoint(points[2 * current] - tangents[2 * index],
+						points[2 * current + 1] - tangents[2 * index + 1]);
+				path.append(',');
+				appendPoint(path, points, current);
+			}
+		}
+
+		if (isQuadratic) {
+			path.append('Q');
+			path.appendPoint(points[2 * current] + 2 * tangents[2 * tangent] / 3,
+					points[2 * current + 1] + 2 * tangents[2 * tangent + 1] / 3);
+			path.append(',');
+			appendPoint(path, points, next);
+		}
+	}
+
+	//#end region
+
+	private static void appendPoint(PathStringBuilder path, double[] points, int index) {
+		path.appendPoint(points[2 * index], points[2 * index + 1]);
+	}
+
+	//#end region
+
+}
@@ -5,6 +5,7 @@ import org.treez.javafxd3.d3.functions.DataFunction;
 import org.treez.javafxd3.d3.layout.Node;
 import org.treez.javafxd3.d3.layout.Tree;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -82,22 +83,11 @@ public class Diagonal extends PathDataGenerator {
 	 * @return this diagonal object
 	 */
 	public Diagonal projection(DataFunction<?> function) {
-		
-		assertObjectIsNotAnonymous(function);
-
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(funcName, function);
-
-		String command = "this.projection(function(d, i) { return d3." + funcName + ".apply(this,d,i); });";
-		JsObject result = evalForJsObject(command);
-
-		if(result==null){
+		JsObject result = callWithPermanentCallback("projection", CallbackDispatcher.DATA_FUNCTION, function);
+		if (result == null) {
 			return null;
 		}
-
 		return new Diagonal(engine, result);
-
 	}
 
 	/**
@@ -169,21 +159,11 @@ public class Diagonal extends PathDataGenerator {
 	 * @return the diagonal object
 	 */
 	public Diagonal source(DataFunction<?> function) {
-		
-		assertObjectIsNotAnonymous(function);
-
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(funcName, function);
-
-		String command = "this.source(function(d, i) { return d3." + funcName + ".apply(this,d,i); });";
-		JsObject result = evalForJsObject(command);
-
-		
-
+		JsObject result = callWithPermanentCallback("source", CallbackDispatcher.DATA_FUNCTION, function);
+		if (result == null) {
+			return null;
+		}
 		return new Diagonal(engine, result);
-		
-		
 	}
 
 	/**
@@ -199,18 +179,10 @@ public class Diagonal extends PathDataGenerator {
 	 * @return the diagonal object
 	 */
 	public Diagonal target(DataFunction<?> function) {
-		
-		assertObjectIsNotAnonymous(function);
-
-		String funcName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(funcName, function);
-
-		String command = "this.target(function(d, i) { return d3." + funcName + ".apply(this,d,i); });";
-		JsObject result = evalForJsObject(command);
-
-		
-
+		JsObject result = callWithPermanentCallback("target", CallbackDispatcher.DATA_FUNCTION, function);
+		if (result == null) {
+			return null;
+		}
 		return new Diagonal(engine, result);
 	}
 
@@ -0,0 +1,192 @@
+package org.treez.javafxd3.d3.svg;
+
+/**
+ * Creates the path data of {@link Diagonal} in Java: a cubic Bezier curve from
+ * the source to the target point with vertical tangents at both ends. The
+ * points can be transformed with a {@link Projection}, e.g. to create the
+ * links of a tree that grows from left to right.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * DiagonalPathGenerator diagonal = new DiagonalPathGenerator().projection(DiagonalPathGenerator.HORIZONTAL);
+ * String[] paths = diagonal.paths(positions, sources, targets);
+ * }
+ * </pre>
+ */
+public class DiagonalPathGenerator extends AbstractPathGenerator<DiagonalPathGenerator> {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * Uses the points as they are
+	 */
+	public static final Projection IDENTITY = (x, y, point) -> {
+		point[0] = x;
+		point[1] = y;
+	};
+
+	/**
+	 * Swaps the x and y values, e.g. for a tree that grows from left to right
+	 */
+	public static final Projection HORIZONTAL = (x, y, point) -> {
+		point[0] = y;
+		point[1] = x;
+	};
+
+	/**
+	 * Interprets the x values as angles in radians and the y values as radii,
+	 * like the projection of d3.svg.diagonal.radial
+	 */
+	public static final Projection RADIAL = (x, y, point) -> {
+		double angle = x - Math.PI / 2;
+		point[0] = y * Math.cos(angle);
+		point[1] = y * Math.sin(angle);
+	};
+
+	private Projection projection = IDENTITY;
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Sets the projection of the points; the default projection is
+	 * {@link #IDENTITY}
+	 *
+	 * @param projection
+	 * @return this generator
+	 */
+	public DiagonalPathGenerator projection(Projection projection) {
+		this.projection = projection;
+		return changed();
+	}
+
+	public Projection projection() {
+		return projection;
+	}
+
+	/**
+	 * Creates the path data of a diagonal
+	 *
+	 * @param sourceX
+	 * @param sourceY
+	 * @param targetX
+	 * @param targetY
+	 * @return the path string
+	 */
+	public String path(double sourceX, double sourceY, double targetX, double targetY) {
+		PathStringBuilder path = builder();
+		appendPath(path, sourceX, sourceY, targetX, targetY);
+		return path.toString();
+	}
+
+	/**
+	 * Appends the path data of a diagonal to the given builder, e.g. to draw
+	 * all links of a tree with a single path element
+	 *
+	 * @param path
+	 * @param sourceX
+	 * @param sourceY
+	 * @param targetX
+	 * @param targetY
+	 */
+	public void appendPath(PathStringBuilder path, double sourceX, double sourceY, double targetX,
+			double targetY) {
+		double middleY = (sourceY + targetY) / 2;
+		double[] point = new double[2];
+		projection.project(sourceX, sourceY, point);
+		path.moveTo(point[0], point[1]);
+		path.append('C');
+		projection.project(sourceX, middleY, point);
+		path.appendPoint(point[0], point[1]);
+		path.append(' ');
+		projection.project(targetX, middleY, point);
+		path.appendPoint(point[0], point[1]);
+		path.append(' ');
+		projection.project(targetX, targetY, point);
+		path.appendPoint(point[0], point[1]);
+	}
+
+	/**
+	 * Creates the path data of many diagonals in parallel
+	 *
+	 * @param sourceX
+	 * @param sourceY
+	 * @param targetX
+	 * @param targetY
+	 * @return the path strings
+	 */
+	public String[] paths(double[] sourceX, double[] sourceY, double[] targetX, double[] targetY) {
+		int numberOfDiagonals = sourceX.length;
+		checkLength("source y values", sourceY.length, numberOfDiagonals);
+		checkLength("target x values", targetX.length, numberOfDiagonals);
+		checkLength("target y values", targetY.length, numberOfDiagonals);
+		return generatePaths(numberOfDiagonals,
+				(index) -> path(sourceX[index], sourceY[index], targetX[index], targetY[index]));
+	}
+
+	/**
+	 * Creates the path data of many diagonals between the given positions in
+	 * parallel, e.g. for the links of a layout
+	 *
+	 * @param positions
+	 *            the x and y values of the nodes: x0, y0, x1, y1, ...
+	 * @param sources
+	 *            the index of the source node of each diagonal
+	 * @param targets
+	 *            the index of the target node of each diagonal
+	 * @return the path strings
+	 */
+	public String[] paths(double[] positions, int[] sources, int[] targets) {
+		checkLength("targets", targets.length, sources.length);
+		return generatePaths(sources.length, (index) -> path(positions, sources[index], targets[index]));
+	}
+
+	/**
+	 * Creates the path data of many diagonals between the given positions in
+	 * parallel; the path strings of diagonals whose version did not change
+	 * since the previous call are reused
+	 *
+	 * @param positions
+	 * @param sources
+	 * @param targets
+	 * @param versions
+	 *            the version of each diagonal, e.g. of the positions of its
+	 *            nodes
+	 * @return the path strings
+	 */
+	public String[] paths(double[] positions, int[] sources, int[] targets, long[] versions) {
+		checkLength("targets", targets.length, sources.length);
+		checkLength("versions", versions.length, sources.length);
+		return generatePaths(versions, (index) -> path(positions, sources[index], targets[index]));
+	}
+
+	private String path(double[] positions, int source, int target) {
+		return path(positions[2 * source], positions[2 * source + 1], positions[2 * target],
+				positions[2 * target + 1]);
+	}
+
+	//#end region
+
+	//#region PROJECTION
+
+	/**
+	 * Transforms the points of a diagonal
+	 */
+	public interface Projection {
+
+		/**
+		 * @param x
+		 * @param y
+		 * @param point
+		 *            receives the projected x and y value
+		 */
+		void project(double x, double y, double[] point);
+
+	}
+
+	//#end region
+
+}
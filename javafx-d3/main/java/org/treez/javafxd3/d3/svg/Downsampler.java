@@ -0,0 +1,626 @@
+package org.treez.javafxd3.d3.svg;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.treez.javafxd3.d3.scales.ContinuousQuantitativeScale;
+import org.treez.javafxd3.d3.scales.ContinuousScaleMirror;
+
+/**
+ * Reduces large series to the points that are visible at the current pixel
+ * width before they are passed to a {@link Line} or {@link Area}, see
+ * {@link DownsamplingMode}. The downsampling runs in Java on primitive arrays
+ * and several series are processed in parallel.
+ * <p>
+ * The pixel width and the visible domain are usually taken from the x scale:
+ * if the scale is modified, e.g. by the zoom behavior, the points are
+ * selected again on the next call; otherwise the indices of the previous call
+ * are reused. Points outside of the visible domain are skipped if the x
+ * values are sorted. Points with a NaN value are kept as gaps.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * Downsampler downsampler = new Downsampler(DownsamplingMode.MIN_MAX).xScale(xScale);
+ * zoom.on(ZoomEventType.ZOOM, redrawFunction); // calls path.attr("d", line.generate(x, y, downsampler))
+ * }
+ * </pre>
+ */
+public class Downsampler {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The default number of points per pixel for {@link DownsamplingMode#LTTB}
+	 */
+	public static final double DEFAULT_POINTS_PER_PIXEL = 2;
+
+	private final DownsamplingMode mode;
+
+	private ContinuousScaleMirror xScale;
+
+	private double domainStart = Double.NaN;
+
+	private double domainEnd = Double.NaN;
+
+	private double pixelWidth = Double.NaN;
+
+	private double pointsPerPixel = DEFAULT_POINTS_PER_PIXEL;
+
+	/**
+	 * Is increased whenever the configuration changes; the cached indices are
+	 * only valid for the same configuration
+	 */
+	private long configurationVersion = 0;
+
+	private double[][] cachedXs;
+
+	private double[][] cachedYs;
+
+	private int[][] cachedIndices;
+
+	private long cachedScaleVersion = -1;
+
+	private long cachedConfigurationVersion = -1;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * @param mode
+	 */
+	public Downsampler(DownsamplingMode mode) {
+		this.mode = mode;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Uses the domain and range of the given scale to determine the visible
+	 * points and the pixel width
+	 *
+	 * @param xScale
+	 * @return this downsampler
+	 */
+	public Downsampler xScale(ContinuousQuantitativeScale<?> xScale) {
+		return xScale(xScale.mirror());
+	}
+
+	/**
+	 * Uses the domain and range of the given scale mirror to determine the
+	 * visible points and the pixel width
+	 *
+	 * @param xScale
+	 * @return this downsampler
+	 */
+	public synchronized Downsampler xScale(ContinuousScaleMirror xScale) {
+		this.xScale = xScale;
+		configurationVersion++;
+		return this;
+	}
+
+	/**
+	 * Sets the visible domain if no x scale is used; by default, the extent of
+	 * the x values is used
+	 *
+	 * @param start
+	 * @param end
+	 * @return this downsampler
+	 */
+	public synchronized Downsampler domain(double start, double end) {
+		domainStart = Math.min(start, end);
+		domainEnd = Math.max(start, end);
+		configurationVersion++;
+		return this;
+	}
+
+	/**
+	 * Sets the number of pixels of the visible domain if no x scale is used
+	 *
+	 * @param pixelWidth
+	 * @return this downsampler
+	 */
+	public synchronized Downsampler pixelWidth(double pixelWidth) {
+		this.pixelWidth = pixelWidth;
+		configurationVersion++;
+		return this;
+	}
+
+	/**
+	 * Sets the number of points that are kept per pixel by
+	 * {@link DownsamplingMode#LTTB}; the default value is
+	 * {@link #DEFAULT_POINTS_PER_PIXEL}
+	 *
+	 * @param pointsPerPixel
+	 * @return this downsampler
+	 */
+	public synchronized Downsampler pointsPerPixel(double pointsPerPixel) {
+		this.pointsPerPixel = pointsPerPixel;
+		configurationVersion++;
+		return this;
+	}
+
+	/**
+	 * Removes the indices that have been cached by the previous call, e.g.
+	 * after the values of the arrays have been modified
+	 */
+	public synchronized void clearCache() {
+		cachedIndices = null;
+		cachedXs = null;
+		cachedYs = null;
+	}
+
+	/**
+	 * Reduces the given series
+	 *
+	 * @param x
+	 * @param y
+	 * @return the reduced x and y values
+	 */
+	public double[][] apply(double[] x, double[] y) {
+		int[] indices = indices(x, y);
+		return new double[][] { select(x, indices), select(y, indices) };
+	}
+
+	/**
+	 * Determines the points of the given series that are kept
+	 *
+	 * @param x
+	 * @param y
+	 * @return the ascending indices of the kept points
+	 */
+	public int[] indices(double[] x, double[] y) {
+		return indices(new double[][] { x }, new double[][] { y })[0];
+	}
+
+	/**
+	 * Determines the points that are kept for many series in parallel. The
+	 * indices of the previous call are reused for the same arrays if neither
+	 * the configuration nor the x scale changed.
+	 *
+	 * @param xs
+	 *            the x values of each series
+	 * @param ys
+	 *            the y values of each series
+	 * @return the ascending indices of the kept points of each series
+	 */
+	public synchronized int[][] indices(double[][] xs, double[][] ys) {
+		int numberOfSeries = xs.length;
+		if (ys.length != numberOfSeries) {
+			String message = "The number of x series (" + numberOfSeries + ") and y series (" + ys.length
+					+ ") must be equal.";
+			throw new IllegalStateException(message);
+		}
+
+		long scaleVersion = xScale == null ? 0 : xScale.getVersion();
+		boolean isCacheValid = cachedIndices != null && cachedIndices.length == numberOfSeries
+				&& cachedScaleVersion == scaleVersion && cachedConfigurationVersion == configurationVersion;
+		int[][] previousIndices = isCacheValid ? cachedIndices : null;
+		double[][] previousXs = cachedXs;
+		double[][] previousYs = cachedYs;
+
+		Viewport viewport = createViewport();
+		int[][] indices = new int[numberOfSeries][];
+		IntStream.range(0, numberOfSeries).parallel().forEach((index) -> {
+			boolean isCached = previousIndices != null && previousXs[index] == xs[index]
+					&& previousYs[index] == ys[index];
+			indices[index] = isCached ? previousIndices[index] : computeIndices(xs[index], ys[index], viewport);
+		});
+
+		cachedXs = xs.clone();
+		cachedYs = ys.clone();
+		cachedIndices = indices;
+		cachedScaleVersion = scaleVersion;
+		cachedConfigurationVersion = configurationVersion;
+		return indices;
+	}
+
+	/**
+	 * Returns the values with the given indices
+	 *
+	 * @param values
+	 * @param indices
+	 * @return the selected values
+	 */
+	public static double[] select(double[] values, int[] indices) {
+		double[] selectedValues = new double[indices.length];
+		for (int index = 0; index < indices.length; index++) {
+			selectedValues[index] = values[indices[index]];
+		}
+		return selectedValues;
+	}
+
+	/**
+	 * Selects the given number of points with Largest-Triangle-Three-Buckets
+	 * from the given series, which must be sorted by x and must not contain
+	 * NaN values
+	 *
+	 * @param x
+	 * @param y
+	 * @param threshold
+	 *            the number of kept points
+	 * @return the ascending indices of the kept points
+	 */
+	public static int[] lttb(double[] x, double[] y, int threshold) {
+		Indices output = new Indices(Math.min(x.length, threshold));
+		Viewport identity = new Viewport(null, Double.NaN, Double.NaN, 0, 1, Double.NaN);
+		addLttbPoints(x, y, 0, x.length, threshold, identity, output);
+		return output.toArray();
+	}
+
+	/**
+	 * Selects the first, last, minimum and maximum point of each pixel column
+	 * from the given series, which must be sorted by x and must not contain
+	 * NaN values
+	 *
+	 * @param x
+	 * @param y
+	 * @param domainStart
+	 *            the x value at the first pixel
+	 * @param domainEnd
+	 *            the x value after the last pixel
+	 * @param numberOfPixels
+	 * @return the ascending indices of the kept points
+	 */
+	public static int[] minMax(double[] x, double[] y, double domainStart, double domainEnd, int numberOfPixels) {
+		Indices output = new Indices(4 * numberOfPixels);
+		Viewport viewport = new Viewport(null, domainStart, domainEnd, domainStart,
+				numberOfPixels / (domainEnd - domainStart), numberOfPixels);
+		addMinMaxPoints(x, y, 0, x.length, viewport, output);
+		return output.toArray();
+	}
+
+	//#region VIEWPORT
+
+	private Viewport createViewport() {
+		if (xScale == null) {
+			boolean hasDomain = !Double.isNaN(domainStart);
+			if (mode != DownsamplingMode.NONE && Double.isNaN(pixelWidth)) {
+				String message = "The pixel width must be specified if no x scale is used.";
+				throw new IllegalStateException(message);
+			}
+			double scale = hasDomain ? pixelWidth / (domainEnd - domainStart) : Double.NaN;
+			return new Viewport(null, domainStart, domainEnd, domainStart, scale, pixelWidth);
+		}
+
+		ContinuousScaleMirror mirror = xScale.copy();
+		double[] domain = mirror.domainAsDoubles();
+		double[] range = mirror.rangeAsDoubles();
+		double firstDomainValue = domain[0];
+		double lastDomainValue = domain[domain.length - 1];
+		double rangeStart = Math.min(range[0], range[range.length - 1]);
+		double width = Math.abs(range[range.length - 1] - range[0]);
+		return new Viewport(mirror, Math.min(firstDomainValue, lastDomainValue),
+				Math.max(firstDomainValue, lastDomainValue), rangeStart, Double.NaN, width);
+	}
+
+	//#end region
+
+	//#region DOWNSAMPLING
+
+	private int[] computeIndices(double[] x, double[] y, Viewport viewport) {
+		int numberOfPoints = x.length;
+		if (y.length != numberOfPoints) {
+			String message = "The number of x values (" + numberOfPoints + ") and y values (" + y.length
+					+ ") must be equal.";
+			throw new IllegalStateException(message);
+		}
+		boolean isReducible = mode != DownsamplingMode.NONE && numberOfPoints > 2;
+		if (!isReducible) {
+			return IntStream.range(0, numberOfPoints).toArray();
+		}
+
+		Viewport seriesViewport = viewport.hasDomain() ? viewport : viewport.withDomain(getExtent(x));
+
+		// the visible points and their outer neighbors
+		int first = 0;
+		int last = numberOfPoints - 1;
+		boolean isSorted = isAscending(x);
+		if (isSorted) {
+			first = Math.max(0, lowerBound(x, seriesViewport.domainStart) - 1);
+			last = Math.min(numberOfPoints - 1, upperBound(x, seriesViewport.domainEnd));
+		}
+
+		Indices output = new Indices(64);
+		int start = first;
+		for (int index = first; index <= last + 1; index++) {
+			boolean isDefined = index <= last && !Double.isNaN(x[index]) && !Double.isNaN(y[index]);
+			if (isDefined) {
+				continue;
+			}
+			if (index > start) {
+				addPoints(x, y, start, index, seriesViewport, isSorted, output);
+				if (index <= last) {
+					// the first undefined point is kept to split the line
+					output.add(index);
+				}
+			}
+			start = index + 1;
+		}
+		return output.toArray();
+	}
+
+	private void addPoints(double[] x, double[] y, int start, int end, Viewport viewport, boolean isSorted,
+			Indices output) {
+		int numberOfPoints = end - start;
+		if (mode == DownsamplingMode.MIN_MAX) {
+			if (numberOfPoints <= 4) {
+				output.addRange(start, end);
+			} else {
+				addMinMaxPoints(x, y, start, end, viewport, output);
+			}
+			return;
+		}
+
+		double pixelSpan = isSorted
+				? Math.abs(viewport.toPixel(x[end - 1]) - viewport.toPixel(x[start]))
+				: viewport.pixelWidth;
+		double threshold = Math.ceil(pointsPerPixel * (Math.min(pixelSpan, 2 * viewport.pixelWidth) + 1));
+		if (numberOfPoints <= Math.max(threshold, 3)) {
+			output.addRange(start, end);
+		} else {
+			addLttbPoints(x, y, start, end, Math.max((int) threshold, 3), viewport, output);
+		}
+	}
+
+	/**
+	 * Adds the points that span the largest triangles with the previously
+	 * selected point and the average point of the next bucket
+	 */
+	private static void addLttbPoints(double[] x, double[] y, int start, int end, int threshold,
+			Viewport viewport, Indices output) {
+		int numberOfPoints = end - start;
+		if (numberOfPoints <= threshold || threshold < 3) {
+			output.addRange(start, end);
+			return;
+		}
+
+		int numberOfBuckets = threshold - 2;
+		long numberOfInnerPoints = numberOfPoints - 2;
+		int selected = start;
+		output.add(selected);
+		for (int bucket = 0; bucket < numberOfBuckets; bucket++) {
+			int bucketStart = start + 1 + (int) (bucket * numberOfInnerPoints / numberOfBuckets);
+			int bucketEnd = start + 1 + (int) ((bucket + 1) * numberOfInnerPoints / numberOfBuckets);
+			int nextBucketEnd = start + 1 + (int) ((bucket + 2) * numberOfInnerPoints / numberOfBuckets);
+			nextBucketEnd = Math.min(Math.max(nextBucketEnd, bucketEnd + 1), end);
+
+			double averageX = 0;
+			double averageY = 0;
+			for (int index = bucketEnd; index < nextBucketEnd; index++) {
+				averageX += viewport.toPixel(x[index]);
+				averageY += y[index];
+			}
+			int numberOfNextPoints = nextBucketEnd - bucketEnd;
+			averageX /= numberOfNextPoints;
+			averageY /= numberOfNextPoints;
+
+			double selectedX = viewport.toPixel(x[selected]);
+			double selectedY = y[selected];
+			double maxArea = -1;
+			int next = bucketStart;
+			for (int index = bucketStart; index < bucketEnd; index++) {
+				double area = Math.abs((selectedX - averageX) * (y[index] - selectedY)
+						- (selectedX - viewport.toPixel(x[index])) * (averageY - selectedY));
+				if (area > maxArea) {
+					maxArea = area;
+					next = index;
+				}
+			}
+			output.add(next);
+			selected = next;
+		}
+		output.add(end - 1);
+	}
+
+	/**
+	 * Adds the first, last, minimum and maximum point of each pixel column
+	 */
+	private static void addMinMaxPoints(double[] x, double[] y, int start, int end, Viewport viewport,
+			Indices output) {
+		int columnStart = start;
+		long column = (long) Math.floor(viewport.toPixel(x[start]));
+		for (int index = start + 1; index < end; index++) {
+			long pointColumn = (long) Math.floor(viewport.toPixel(x[index]));
+			if (pointColumn != column) {
+				addColumnPoints(y, columnStart, index, output);
+				columnStart = index;
+				column = pointColumn;
+			}
+		}
+		addColumnPoints(y, columnStart, end, output);
+	}
+
+	private static void addColumnPoints(double[] y, int start, int end, Indices output) {
+		int minIndex = start;
+		int maxIndex = start;
+		for (int index = start + 1; index < end; index++) {
+			if (y[index] < y[minIndex]) {
+				minIndex = index;
+			}
+			if (y[index] > y[maxIndex]) {
+				maxIndex = index;
+			}
+		}
+		int[] columnIndices = { start, minIndex, maxIndex, end - 1 };
+		Arrays.sort(columnIndices);
+		for (int columnIndex : columnIndices) {
+			output.addIfNew(columnIndex);
+		}
+	}
+
+	//#end region
+
+	//#region UTILS
+
+	private static boolean isAscending(double[] values) {
+		for (int index = 1; index < values.length; index++) {
+			if (!(values[index] >= values[index - 1])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the index of the first value that is not smaller than the given
+	 *         value
+	 */
+	private static int lowerBound(double[] sortedValues, double value) {
+		int low = 0;
+		int high = sortedValues.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedValues[middle] < value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return the index of the first value that is larger than the given value
+	 */
+	private static int upperBound(double[] sortedValues, double value) {
+		int low = 0;
+		int high = sortedValues.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedValues[middle] <= value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private static double[] getExtent(double[] values) {
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (double value : values) {
+			if (value < min) {
+				min = value;
+			}
+			if (value > max) {
+				max = value;
+			}
+		}
+		return new double[] { min, max };
+	}
+
+	//#end region
+
+	//#end region
+
+	//#region ACCESSORS
+
+	public DownsamplingMode getMode() {
+		return mode;
+	}
+
+	//#end region
+
+	//#region VIEWPORT CLASS
+
+	/**
+	 * The mapping from x values to pixels; immutable, so it can be used by
+	 * several threads
+	 */
+	private static class Viewport {
+
+		/**
+		 * The detached scale mirror or null for a linear mapping
+		 */
+		private final ContinuousScaleMirror mirror;
+
+		private final double domainStart;
+
+		private final double domainEnd;
+
+		private final double rangeStart;
+
+		/**
+		 * The number of pixels per x unit of the linear mapping
+		 */
+		private final double scale;
+
+		private final double pixelWidth;
+
+		Viewport(ContinuousScaleMirror mirror, double domainStart, double domainEnd, double rangeStart,
+				double scale, double pixelWidth) {
+			this.mirror = mirror;
+			this.domainStart = domainStart;
+			this.domainEnd = domainEnd;
+			this.rangeStart = rangeStart;
+			this.scale = scale;
+			this.pixelWidth = pixelWidth;
+		}
+
+		boolean hasDomain() {
+			return !Double.isNaN(domainStart) && !Double.isNaN(scale) || mirror != null;
+		}
+
+		Viewport withDomain(double[] extent) {
+			double width = extent[1] - extent[0];
+			double extentScale = width > 0 ? pixelWidth / width : 1;
+			return new Viewport(null, extent[0], extent[1], extent[0], extentScale, pixelWidth);
+		}
+
+		double toPixel(double x) {
+			if (mirror != null) {
+				return mirror.applyAsDouble(x) - rangeStart;
+			}
+			return (x - rangeStart) * scale;
+		}
+
+	}
+
+	/**
+	 * A growing array of ascending indices
+	 */
+	private static class Indices {
+
+		private int[] values;
+
+		private int size = 0;
+
+		Indices(int capacity) {
+			values = new int[Math.max(capacity, 4)];
+		}
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, 2 * size);
+			}
+			values[size++] = value;
+		}
+
+		void addIfNew(int value) {
+			boolean isNew = size == 0 || values[size - 1] != value;
+			if (isNew) {
+				add(value);
+			}
+		}
+
+		void addRange(int start, int end) {
+			for (int index = start; index < end; index++) {
+				add(index);
+			}
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+
+	}
+
+	//#end region
+
+}
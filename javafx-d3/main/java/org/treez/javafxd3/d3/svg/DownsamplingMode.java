@@ -0,0 +1,30 @@
+package org.treez.javafxd3.d3.svg;
+
+/**
+ * Downsampling mode of a {@link Downsampler}
+ */
+public enum DownsamplingMode {
+
+	//#region VALUES
+
+	/**
+	 * all points are kept
+	 */
+	NONE,
+
+	/**
+	 * Largest-Triangle-Three-Buckets: keeps the points that span the largest
+	 * triangles with their neighbors; preserves the visual shape with a fixed
+	 * number of points per pixel
+	 */
+	LTTB,
+
+	/**
+	 * keeps the first, last, minimum and maximum point of each pixel column
+	 * (M4); the rasterized line is identical to the line of all points
+	 */
+	MIN_MAX;
+
+	//#end region
+
+}
@@ -2,6 +2,7 @@ package org.treez.javafxd3.d3.svg;
 
 import org.treez.javafxd3.d3.functions.DataFunction;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -152,25 +153,7 @@ public class Line extends PathDataGenerator {
 	}
 
 	private JsObject applyDataFunction(String methodName, final DataFunction<?> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		JsObject d3JsObject = getD3();
-		String callbackName = createNewTemporaryInstanceName();
-
-		d3JsObject.setMember(callbackName, callback);
-
-		String command = "this." + methodName + "(function(d,i) {" //
-				+ "return d3." + callbackName + ".apply(this, d, i);" //
-				+ "})";
-		JsObject result = evalForJsObject(command);
-		
-		
-		if(result==null){
-			return null;
-		}
-				
-		return result;
+		return callWithPermanentCallback(methodName, CallbackDispatcher.DATA_FUNCTION, callback);
 	}
 
 	/**
@@ -188,28 +171,39 @@ public class Line extends PathDataGenerator {
 	 * @return the current line
 	 */
 	public Line defined(final DataFunction<Boolean> callback) {
-
-		JsObject d3JsObject = getD3();
-		String callbackName = createNewTemporaryInstanceName();
-		d3JsObject.setMember(callbackName, callback);
-
-		String command = "this.defined(function(d) {" //
-				+ "  var result = d3." + callbackName + ".apply(null, d, 0);" //
-				+ "  if (result == null) { " //
-				+ "       return false; " //
-				+ "  } else {" //				
-				+ "       return result;"//
-				+ "  }"//
-				+ "});";
-		JsObject result = evalForJsObject(command);
-		
-		if(result==null){
+		JsObject result = callWithPermanentCallback("defined", CallbackDispatcher.BOOLEAN_DATA_FUNCTION, callback);
+		if (result == null) {
 			return null;
 		}
 		return new Line(engine, result);
 	}
-	
-	
+
+	/**
+	 * Generates the path data for the given x and y values with the default
+	 * x and y accessors, which expect [x, y] arrays
+	 *
+	 * @param x
+	 * @param y
+	 * @return the generated path data
+	 */
+	public String generate(double[] x, double[] y) {
+		return generateFromPoints(x, y, null);
+	}
+
+	/**
+	 * Generates the path data for the given x and y values after they have
+	 * been reduced by the given downsampler, e.g. to the points that are
+	 * visible at the current zoom level. Use {@link #defined(DataFunction)} to
+	 * skip NaN values.
+	 *
+	 * @param x
+	 * @param y
+	 * @param downsampler
+	 * @return the generated path data
+	 */
+	public String generate(double[] x, double[] y, Downsampler downsampler) {
+		return generateFromPoints(x, y, downsampler);
+	}
 
 	//#end region
 
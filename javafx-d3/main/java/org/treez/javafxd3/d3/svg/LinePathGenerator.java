@@ -0,0 +1,152 @@
+package org.treez.javafxd3.d3.svg;
+
+/**
+ * Creates the path data of {@link Line} in Java from arrays of x and y
+ * values. A point with a NaN value is undefined (see
+ * {@link Line#defined(org.treez.javafxd3.d3.functions.DataFunction)}) and
+ * splits the line into separate segments.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * LinePathGenerator line = new LinePathGenerator().interpolate(InterpolationMode.MONOTONE).precision(2);
+ * String[] paths = line.paths(xValuesOfSeries, yValuesOfSeries);
+ * selection.attr("d", paths);
+ * }
+ * </pre>
+ */
+public class LinePathGenerator extends AbstractPathGenerator<LinePathGenerator> {
+
+	//#region ATTRIBUTES
+
+	private InterpolationMode interpolationMode = InterpolationMode.LINEAR;
+
+	private double tension = Curves.DEFAULT_TENSION;
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Sets the interpolation mode; the default mode is
+	 * {@link InterpolationMode#LINEAR}
+	 *
+	 * @param interpolationMode
+	 * @return this generator
+	 */
+	public LinePathGenerator interpolate(InterpolationMode interpolationMode) {
+		this.interpolationMode = interpolationMode;
+		return changed();
+	}
+
+	public InterpolationMode interpolate() {
+		return interpolationMode;
+	}
+
+	/**
+	 * Sets the tension of the cardinal and bundle interpolation; the default
+	 * tension is {@link Curves#DEFAULT_TENSION}
+	 *
+	 * @param tension
+	 * @return this generator
+	 */
+	public LinePathGenerator tension(double tension) {
+		this.tension = tension;
+		return changed();
+	}
+
+	public double tension() {
+		return tension;
+	}
+
+	/**
+	 * Creates the path data of a single line
+	 *
+	 * @param x
+	 *            the x values
+	 * @param y
+	 *            the y values
+	 * @return the path string or null if no point is defined
+	 */
+	public String path(double[] x, double[] y) {
+		PathStringBuilder path = builder();
+		appendPath(path, x, y);
+		return path.isEmpty() ? null : path.toString();
+	}
+
+	/**
+	 * Appends the path data of a single line to the given builder, e.g. to
+	 * draw several lines with a single path element
+	 *
+	 * @param path
+	 * @param x
+	 * @param y
+	 */
+	public void appendPath(PathStringBuilder path, double[] x, double[] y) {
+		int numberOfPoints = x.length;
+		checkLength("y values", y.length, numberOfPoints);
+		double[] points = new double[2 * numberOfPoints];
+		for (int index = 0; index < numberOfPoints; index++) {
+			points[2 * index] = x[index];
+			points[2 * index + 1] = y[index];
+		}
+		project(points);
+
+		int start = 0;
+		for (int index = 0; index <= numberOfPoints; index++) {
+			boolean isDefined = index < numberOfPoints && !Double.isNaN(points[2 * index])
+					&& !Double.isNaN(points[2 * index + 1]);
+			if (!isDefined) {
+				if (index > start) {
+					path.append('M');
+					Curves.interpolate(path, interpolationMode, tension, points, start, index);
+				}
+				start = index + 1;
+			}
+		}
+	}
+
+	/**
+	 * Creates the path data of many lines in parallel
+	 *
+	 * @param xs
+	 *            the x values of each line
+	 * @param ys
+	 *            the y values of each line
+	 * @return the path strings
+	 */
+	public String[] paths(double[][] xs, double[][] ys) {
+		checkLength("y series", ys.length, xs.length);
+		return generatePaths(xs.length, (index) -> path(xs[index], ys[index]));
+	}
+
+	/**
+	 * Creates the path data of many lines in parallel; the path strings of
+	 * lines whose version did not change since the previous call are reused
+	 *
+	 * @param xs
+	 * @param ys
+	 * @param versions
+	 *            the version of the data of each line
+	 * @return the path strings
+	 */
+	public String[] paths(double[][] xs, double[][] ys, long[] versions) {
+		checkLength("y series", ys.length, xs.length);
+		checkLength("versions", versions.length, xs.length);
+		return generatePaths(versions, (index) -> path(xs[index], ys[index]));
+	}
+
+	/**
+	 * Transforms the points before they are interpolated, e.g. from polar
+	 * coordinates; the default implementation does nothing
+	 *
+	 * @param points
+	 *            the x and y values: x0, y0, x1, y1, ...
+	 */
+	protected void project(double[] points) {
+	}
+
+	//#end region
+
+}
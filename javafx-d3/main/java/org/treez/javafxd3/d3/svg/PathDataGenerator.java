@@ -4,11 +4,13 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.treez.javafxd3.d3.arrays.Array;
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
 import org.treez.javafxd3.d3.arrays.ArrayUtils;
 import org.treez.javafxd3.d3.functions.DataFunction;
 import org.treez.javafxd3.d3.functions.JsFunction;
 import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
 
+import org.treez.javafxd3.d3.core.JsBridge;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -189,5 +191,36 @@ public abstract class PathDataGenerator extends JavaScriptObject implements JsFu
 		return pathString;
 	}
 
+	/**
+	 * Generates the path data for the given points, which are transferred as
+	 * an array of [x, y] arrays. The points are optionally reduced with the
+	 * given downsampler before they are transferred.
+	 *
+	 * @param x
+	 * @param y
+	 * @param downsampler
+	 *            the downsampler or null to keep all points
+	 * @return the generated path data
+	 */
+	protected String generateFromPoints(double[] x, double[] y, Downsampler downsampler) {
+		if (x.length != y.length) {
+			String message = "The number of x values (" + x.length + ") and y values (" + y.length
+					+ ") must be equal.";
+			throw new IllegalStateException(message);
+		}
+		double[][] points = downsampler == null ? new double[][] { x, y } : downsampler.apply(x, y);
+		double[] pointX = points[0];
+		double[] pointY = points[1];
+		int numberOfPoints = pointX.length;
+		double[] interleavedPoints = new double[2 * numberOfPoints];
+		for (int index = 0; index < numberOfPoints; index++) {
+			interleavedPoints[2 * index] = pointX[index];
+			interleavedPoints[2 * index + 1] = pointY[index];
+		}
+		JsObject data = (JsObject) JsBridge.get(engine).call("decodeMatrix", ArrayTransfer.FLOAT64,
+				ArrayTransfer.encode(interleavedPoints), numberOfPoints, 2);
+		return (String) getJsObject().call("call", null, data);
+	}
+
 	//#end region
 }
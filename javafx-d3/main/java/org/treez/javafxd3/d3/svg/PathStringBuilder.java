@@ -0,0 +1,347 @@
+package org.treez.javafxd3.d3.svg;
+
+/**
+ * Builds the <code>d</code> attribute of SVG path elements in Java, in the
+ * same format as the path data generators of d3, e.g.
+ * "M0,0L10,0C10,5 20,5 20,10Z". Integer values are written without decimal
+ * places. Optionally, all values are rounded to a fixed number of decimal
+ * places, see {@link #precision(int)}.
+ * <p>
+ * The Java geometries, layouts and path generators use it to create the path
+ * strings of many shapes, which are then transferred to the page with a
+ * single call. A builder can be reused with {@link #clear()}.
+ */
+public class PathStringBuilder {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The maximum number of decimal places that can be set with
+	 * {@link #precision(int)}
+	 */
+	public static final int MAX_PRECISION = 15;
+
+	private static final long[] POWERS_OF_TEN = createPowersOfTen();
+
+	private final StringBuilder builder;
+
+	private int precision = -1;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public PathStringBuilder() {
+		builder = new StringBuilder();
+	}
+
+	/**
+	 * @param capacity
+	 *            the initial number of characters
+	 */
+	public PathStringBuilder(int capacity) {
+		builder = new StringBuilder(capacity);
+	}
+
+	/**
+	 * Creates a path string builder that appends to the given string builder
+	 *
+	 * @param builder
+	 */
+	public PathStringBuilder(StringBuilder builder) {
+		this.builder = builder;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	private static long[] createPowersOfTen() {
+		long[] powers = new long[MAX_PRECISION + 1];
+		powers[0] = 1;
+		for (int exponent = 1; exponent <= MAX_PRECISION; exponent++) {
+			powers[exponent] = 10 * powers[exponent - 1];
+		}
+		return powers;
+	}
+
+	/**
+	 * Sets the number of decimal places of the appended values; trailing
+	 * zeros are omitted. A negative value (the default) writes all decimal
+	 * places.
+	 *
+	 * @param precision
+	 *            a value from -1 to {@link #MAX_PRECISION}
+	 * @return this builder
+	 */
+	public PathStringBuilder precision(int precision) {
+		if (precision > MAX_PRECISION) {
+			String message = "The precision " + precision + " is larger than " + MAX_PRECISION;
+			throw new IllegalStateException(message);
+		}
+		this.precision = precision < 0 ? -1 : precision;
+		return this;
+	}
+
+	/**
+	 * @return the number of decimal places or -1 if all decimal places are
+	 *         written
+	 */
+	public int precision() {
+		return precision;
+	}
+
+	//#region COMMANDS
+
+	/**
+	 * Appends "M" + x + "," + y
+	 *
+	 * @param x
+	 * @param y
+	 * @return this builder
+	 */
+	public PathStringBuilder moveTo(double x, double y) {
+		builder.append('M');
+		appendPoint(x, y);
+		return this;
+	}
+
+	/**
+	 * Appends "L" + x + "," + y
+	 *
+	 * @param x
+	 * @param y
+	 * @return this builder
+	 */
+	public PathStringBuilder lineTo(double x, double y) {
+		builder.append('L');
+		appendPoint(x, y);
+		return this;
+	}
+
+	/**
+	 * Appends a quadratic Bezier curve: "Q" + x1 + "," + y1 + " " + x + "," +
+	 * y
+	 *
+	 * @param x1
+	 * @param y1
+	 * @param x
+	 * @param y
+	 * @return this builder
+	 */
+	public PathStringBuilder quadraticCurveTo(double x1, double y1, double x, double y) {
+		builder.append('Q');
+		appendPoint(x1, y1);
+		builder.append(' ');
+		appendPoint(x, y);
+		return this;
+	}
+
+	/**
+	 * Appends a cubic Bezier curve: "C" + x1 + "," + y1 + " " + x2 + "," + y2
+	 * + " " + x + "," + y
+	 *
+	 * @param x1
+	 * @param y1
+	 * @param x2
+	 * @param y2
+	 * @param x
+	 * @param y
+	 * @return this builder
+	 */
+	public PathStringBuilder bezierCurveTo(double x1, double y1, double x2, double y2, double x, double y) {
+		builder.append('C');
+		appendPoint(x1, y1);
+		builder.append(' ');
+		appendPoint(x2, y2);
+		builder.append(' ');
+		appendPoint(x, y);
+		return this;
+	}
+
+	/**
+	 * Appends "H" + x
+	 *
+	 * @param x
+	 * @return this builder
+	 */
+	public PathStringBuilder horizontalLineTo(double x) {
+		builder.append('H');
+		appendNumber(x);
+		return this;
+	}
+
+	/**
+	 * Appends "V" + y
+	 *
+	 * @param y
+	 * @return this builder
+	 */
+	public PathStringBuilder verticalLineTo(double y) {
+		builder.append('V');
+		appendNumber(y);
+		return this;
+	}
+
+	/**
+	 * Appends an elliptical arc without rotation like d3.svg.arc: "A" + rx +
+	 * "," + ry + " 0 " + largeArc + "," + sweep + " " + x + "," + y
+	 *
+	 * @param rx
+	 * @param ry
+	 * @param isLargeArc
+	 * @param isSweep
+	 * @param x
+	 * @param y
+	 * @return this builder
+	 */
+	public PathStringBuilder arcTo(double rx, double ry, boolean isLargeArc, boolean isSweep, double x, double y) {
+		builder.append('A');
+		appendPoint(rx, ry);
+		builder.append(" 0 ");
+		builder.append(isLargeArc ? '1' : '0');
+		builder.append(',');
+		builder.append(isSweep ? '1' : '0');
+		builder.append(' ');
+		appendPoint(x, y);
+		return this;
+	}
+
+	/**
+	 * Appends "Z"
+	 *
+	 * @return this builder
+	 */
+	public PathStringBuilder closePath() {
+		builder.append('Z');
+		return this;
+	}
+
+	/**
+	 * Appends the given path string
+	 *
+	 * @param path
+	 * @return this builder
+	 */
+	public PathStringBuilder append(String path) {
+		builder.append(path);
+		return this;
+	}
+
+	//#end region
+
+	//#region TOKENS
+
+	/**
+	 * Appends a single character, e.g. a command or a separator
+	 *
+	 * @param character
+	 * @return this builder
+	 */
+	public PathStringBuilder append(char character) {
+		builder.append(character);
+		return this;
+	}
+
+	/**
+	 * Appends x + "," + y
+	 *
+	 * @param x
+	 * @param y
+	 * @return this builder
+	 */
+	public PathStringBuilder appendPoint(double x, double y) {
+		appendNumber(x);
+		builder.append(',');
+		appendNumber(y);
+		return this;
+	}
+
+	/**
+	 * Appends the given number with the precision of this builder
+	 *
+	 * @param value
+	 * @return this builder
+	 */
+	public PathStringBuilder appendNumber(double value) {
+		if (precision < 0) {
+			appendNumber(builder, value);
+			return this;
+		}
+
+		long scale = POWERS_OF_TEN[precision];
+		double scaledValue = Math.abs(value) * scale;
+		boolean isRoundable = scaledValue < 9e15;
+		if (!isRoundable) {
+			appendNumber(builder, value);
+			return this;
+		}
+
+		long roundedValue = Math.round(scaledValue);
+		if (roundedValue == 0) {
+			builder.append('0');
+			return this;
+		}
+		if (value < 0) {
+			builder.append('-');
+		}
+		builder.append(roundedValue / scale);
+		long fraction = roundedValue % scale;
+		if (fraction > 0) {
+			builder.append('.');
+			int numberOfDecimals = precision;
+			while (fraction % 10 == 0) {
+				fraction /= 10;
+				numberOfDecimals--;
+			}
+			for (long power = POWERS_OF_TEN[numberOfDecimals - 1]; power > fraction; power /= 10) {
+				builder.append('0');
+			}
+			builder.append(fraction);
+		}
+		return this;
+	}
+
+	/**
+	 * Appends the given number; integers are written without decimal places
+	 *
+	 * @param builder
+	 * @param value
+	 */
+	public static void appendNumber(StringBuilder builder, double value) {
+		boolean isInteger = value == Math.rint(value) && Math.abs(value) < 1e15;
+		if (isInteger) {
+			builder.append((long) value);
+		} else {
+			builder.append(value);
+		}
+	}
+
+	//#end region
+
+	public boolean isEmpty() {
+		return builder.length() == 0;
+	}
+
+	public int length() {
+		return builder.length();
+	}
+
+	/**
+	 * Removes all commands
+	 *
+	 * @return this builder
+	 */
+	public PathStringBuilder clear() {
+		builder.setLength(0);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return builder.toString();
+	}
+
+	//#end region
+
+}
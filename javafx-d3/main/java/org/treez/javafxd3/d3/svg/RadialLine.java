@@ -2,6 +2,7 @@ package org.treez.javafxd3.d3.svg;
 
 import org.treez.javafxd3.d3.functions.DataFunction;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -54,19 +55,11 @@ public class RadialLine extends Line {
 	 * @return the current line
 	 */
 	public RadialLine radius(final DataFunction<Double> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String callbackName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(callbackName, callback);
-
-		String command = "this.radius(function(d, i) { " //
-				+ "return d3." + callbackName + ".apply(this,d,i);" //
-				+ " });";
-		JsObject result = evalForJsObject(command);
+		JsObject result = callWithPermanentCallback("radius", CallbackDispatcher.DATA_FUNCTION, callback);
+		if (result == null) {
+			return null;
+		}
 		return new RadialLine(engine, result);
-
 	}
 
 	/**
@@ -93,17 +86,10 @@ public class RadialLine extends Line {
 	 * @return the current line
 	 */
 	public RadialLine angle(final DataFunction<Double> callback) {
-
-		assertObjectIsNotAnonymous(callback);
-
-		String callbackName = createNewTemporaryInstanceName();
-		JsObject d3JsObject = getD3();
-		d3JsObject.setMember(callbackName, callback);
-
-		String command = "this.angle(function(d, i) { " //
-				+ "return d3." + callbackName + ".apply(this,d,i);" //
-				+ " });";
-		JsObject result = evalForJsObject(command);
+		JsObject result = callWithPermanentCallback("angle", CallbackDispatcher.DATA_FUNCTION, callback);
+		if (result == null) {
+			return null;
+		}
 		return new RadialLine(engine, result);
 	}
 
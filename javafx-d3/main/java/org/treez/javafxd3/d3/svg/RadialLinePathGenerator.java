@@ -0,0 +1,24 @@
+package org.treez.javafxd3.d3.svg;
+
+/**
+ * Creates the path data of {@link RadialLine} in Java: the x values of
+ * {@link LinePathGenerator} are the radii and the y values are the angles in
+ * radians, where 0 is at 12 o'clock and the angles increase clockwise.
+ */
+public class RadialLinePathGenerator extends LinePathGenerator {
+
+	//#region METHODS
+
+	@Override
+	protected void project(double[] points) {
+		for (int index = 0; index < points.length; index += 2) {
+			double radius = points[index];
+			double angle = points[index + 1] - Math.PI / 2;
+			points[index] = radius * Math.cos(angle);
+			points[index + 1] = radius * Math.sin(angle);
+		}
+	}
+
+	//#end region
+
+}
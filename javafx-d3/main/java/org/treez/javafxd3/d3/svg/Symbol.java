@@ -3,6 +3,7 @@ package org.treez.javafxd3.d3.svg;
 import org.treez.javafxd3.d3.behaviour.Drag.DragEventType;
 import org.treez.javafxd3.d3.functions.DataFunction;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
 
@@ -89,24 +90,15 @@ public class Symbol extends PathDataGenerator {
 	 * @return this instance for chaining
 	 */
 	public Symbol type(DataFunction<SymbolType> typeAccessorFunction) {
-
-		assertObjectIsNotAnonymous(typeAccessorFunction);
-
-		JsObject d3JsObject = getD3();
-		String accessorName = createNewTemporaryInstanceName();
-
-		d3JsObject.setMember(accessorName, typeAccessorFunction);
-
-		String command = "this.type(function(d, i) { " //
-				+ "var t = d3." + accessorName + ".apply(this,d,i);" //
-				+ " return t.getValue();" //
-				+ " });";
-		JsObject result = evalForJsObject(command);
-		if(result==null){
+		DataFunction<String> typeNameFunction = (context, d, index) -> {
+			SymbolType type = typeAccessorFunction.apply(context, d, index);
+			return type.getValue();
+		};
+		JsObject result = callWithPermanentCallback("type", CallbackDispatcher.DATA_FUNCTION, typeNameFunction);
+		if (result == null) {
 			return null;
 		}
 		return new Symbol(engine, result);
-
 	}
 
 	/**
@@ -133,26 +125,11 @@ public class Symbol extends PathDataGenerator {
 	 * @return this instance for chaining
 	 */
 	public Symbol size(DataFunction<Integer> sizeAccessorFunction) {
-
-		assertObjectIsNotAnonymous(sizeAccessorFunction);
-
-		JsObject d3JsObject = getD3();
-		String accessorName = createNewTemporaryInstanceName();
-
-		d3JsObject.setMember(accessorName, sizeAccessorFunction);
-
-		String command = "this.size(function(d, i) {" //
-				+ "return d3." + accessorName + ".apply(this,d,i);" //
-				+ " });";
-		JsObject result = evalForJsObject(command);
-		
-		d3JsObject.removeMember(accessorName);
-		if(result==null){
+		JsObject result = callWithPermanentCallback("size", CallbackDispatcher.DATA_FUNCTION, sizeAccessorFunction);
+		if (result == null) {
 			return null;
 		}
-		
 		return new Symbol(engine, result);
-
 	}
 	
 	/**
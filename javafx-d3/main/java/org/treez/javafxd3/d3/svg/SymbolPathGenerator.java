@@ -0,0 +1,226 @@
+package org.treez.javafxd3.d3.svg;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates the path data of {@link Symbol} in Java. The symbols are centered
+ * at the origin; they are usually positioned with a transform attribute.
+ * Since many data points share the same type and size, the path strings of
+ * the same type and size are only created once.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * SymbolPathGenerator symbol = new SymbolPathGenerator().type(SymbolType.DIAMOND).size(100);
+ * String[] paths = symbol.paths(types, null);
+ * }
+ * </pre>
+ */
+public class SymbolPathGenerator extends AbstractPathGenerator<SymbolPathGenerator> {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The default size of d3 in square pixels
+	 */
+	public static final double DEFAULT_SIZE = 64;
+
+	private static final double SQRT3 = Math.sqrt(3);
+
+	private static final double TAN30 = Math.tan(30 * Math.PI / 180);
+
+	private SymbolType type = SymbolType.CIRCLE;
+
+	private double size = DEFAULT_SIZE;
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Sets the constant type; the default type is {@link SymbolType#CIRCLE}
+	 *
+	 * @param type
+	 * @return this generator
+	 */
+	public SymbolPathGenerator type(SymbolType type) {
+		this.type = type;
+		return changed();
+	}
+
+	public SymbolType type() {
+		return type;
+	}
+
+	/**
+	 * Sets the constant size in square pixels; the default size is
+	 * {@link #DEFAULT_SIZE}
+	 *
+	 * @param size
+	 * @return this generator
+	 */
+	public SymbolPathGenerator size(double size) {
+		this.size = size;
+		return changed();
+	}
+
+	public double size() {
+		return size;
+	}
+
+	/**
+	 * @return the path data of the symbol with the type and size of this
+	 *         generator
+	 */
+	public String path() {
+		return path(type, size);
+	}
+
+	/**
+	 * Creates the path data of a symbol
+	 *
+	 * @param type
+	 * @param size
+	 *            the area in square pixels
+	 * @return the path string
+	 */
+	public String path(SymbolType type, double size) {
+		PathStringBuilder path = builder();
+		appendPath(path, type, size);
+		return path.toString();
+	}
+
+	/**
+	 * Appends the path data of a symbol to the given builder
+	 *
+	 * @param path
+	 * @param type
+	 * @param size
+	 *            the area in square pixels
+	 */
+	public static void appendPath(PathStringBuilder path, SymbolType type, double size) {
+		switch (type) {
+		case CIRCLE:
+			double radius = Math.sqrt(size / Math.PI);
+			path.moveTo(0, radius);
+			path.arcTo(radius, radius, true, true, 0, -radius);
+			path.arcTo(radius, radius, true, true, 0, radius);
+			path.closePath();
+			break;
+		case CROSS:
+			double armWidth = Math.sqrt(size / 5) / 2;
+			path.moveTo(-3 * armWidth, -armWidth);
+			path.horizontalLineTo(-armWidth);
+			path.verticalLineTo(-3 * armWidth);
+			path.horizontalLineTo(armWidth);
+			path.verticalLineTo(-armWidth);
+			path.horizontalLineTo(3 * armWidth);
+			path.verticalLineTo(armWidth);
+			path.horizontalLineTo(armWidth);
+			path.verticalLineTo(3 * armWidth);
+			path.horizontalLineTo(-armWidth);
+			path.verticalLineTo(armWidth);
+			path.horizontalLineTo(-3 * armWidth);
+			path.closePath();
+			break;
+		case DIAMOND:
+			double diamondHeight = Math.sqrt(size / (2 * TAN30));
+			double diamondWidth = diamondHeight * TAN30;
+			path.moveTo(0, -diamondHeight);
+			path.lineTo(diamondWidth, 0);
+			appendPolygonPoint(path, 0, diamondHeight);
+			appendPolygonPoint(path, -diamondWidth, 0);
+			path.closePath();
+			break;
+		case SQUARE:
+			double halfSide = Math.sqrt(size) / 2;
+			path.moveTo(-halfSide, -halfSide);
+			path.lineTo(halfSide, -halfSide);
+			appendPolygonPoint(path, halfSide, halfSide);
+			appendPolygonPoint(path, -halfSide, halfSide);
+			path.closePath();
+			break;
+		case TRIANGLE_DOWN:
+		case TRIANGLE_UP:
+			double triangleWidth = Math.sqrt(size / SQRT3);
+			double triangleHeight = triangleWidth * SQRT3 / 2;
+			double direction = type == SymbolType.TRIANGLE_UP ? -1 : 1;
+			path.moveTo(0, direction * triangleHeight);
+			path.lineTo(triangleWidth, -direction * triangleHeight);
+			appendPolygonPoint(path, -triangleWidth, -direction * triangleHeight);
+			path.closePath();
+			break;
+		default:
+			String message = "The symbol type " + type + " is not known.";
+			throw new IllegalStateException(message);
+		}
+	}
+
+	/**
+	 * Appends a further point of the polyline like d3: " " + x + "," + y
+	 */
+	private static void appendPolygonPoint(PathStringBuilder path, double x, double y) {
+		path.append(' ');
+		path.appendPoint(x, y);
+	}
+
+	/**
+	 * Creates the path data of many symbols in parallel; the path string of
+	 * each distinct combination of type and size is only created once
+	 *
+	 * @param types
+	 *            the type of each symbol or null to use the type of this
+	 *            generator
+	 * @param sizes
+	 *            the size of each symbol or null to use the size of this
+	 *            generator
+	 * @return the path strings
+	 */
+	public String[] paths(SymbolType[] types, double[] sizes) {
+		int numberOfSymbols = getNumberOfSymbols(types, sizes);
+		Map<SymbolType, Map<Double, String>> pathsByType = new HashMap<>();
+		String[] paths = new String[numberOfSymbols];
+		for (int index = 0; index < numberOfSymbols; index++) {
+			SymbolType symbolType = types == null ? type : types[index];
+			double symbolSize = sizes == null ? size : sizes[index];
+			Map<Double, String> pathsBySize = pathsByType.computeIfAbsent(symbolType, (key) -> new HashMap<>());
+			paths[index] = pathsBySize.computeIfAbsent(symbolSize, (key) -> path(symbolType, symbolSize));
+		}
+		return paths;
+	}
+
+	/**
+	 * Creates the path data of many symbols; the path strings of symbols whose
+	 * version did not change since the previous call are reused
+	 *
+	 * @param types
+	 *            the type of each symbol or null
+	 * @param sizes
+	 *            the size of each symbol or null
+	 * @param versions
+	 *            the version of the data of each symbol
+	 * @return the path strings
+	 */
+	public String[] paths(SymbolType[] types, double[] sizes, long[] versions) {
+		int numberOfSymbols = getNumberOfSymbols(types, sizes);
+		checkLength("versions", versions.length, numberOfSymbols);
+		return generatePaths(versions, (index) -> path(types == null ? type : types[index],
+				sizes == null ? size : sizes[index]));
+	}
+
+	private static int getNumberOfSymbols(SymbolType[] types, double[] sizes) {
+		if (types == null && sizes == null) {
+			String message = "Either the types or the sizes of the symbols must be specified.";
+			throw new IllegalStateException(message);
+		}
+		if (types != null && sizes != null) {
+			checkLength("sizes", sizes.length, types.length);
+		}
+		return types != null ? types.length : sizes.length;
+	}
+
+	//#end region
+
+}
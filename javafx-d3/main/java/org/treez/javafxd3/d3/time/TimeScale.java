@@ -10,6 +10,7 @@ import org.treez.javafxd3.d3.scales.LinearScale;
 
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
+import org.treez.javafxd3.d3.scales.ScaleMirror;
 
 /**
  * D3's time scale is an extension of {@link LinearScale} that uses JavaScript
@@ -246,4 +247,41 @@ public class TimeScale extends ContinuousQuantitativeScale<TimeScale> {
 
 	//#end region
 
+	//#region MIRROR
+
+	@Override
+	protected ScaleMirror createMirror() {
+		return new TimeScaleMirror();
+	}
+
+	@Override
+	public TimeScaleMirror mirror() {
+		return (TimeScaleMirror) super.mirror();
+	}
+
+	/**
+	 * Returns approximately count representative dates from the input domain
+	 * as epoch milliseconds like {@link #ticks(int)}, computed by the Java
+	 * mirror of the scale
+	 *
+	 * @param count
+	 * @return
+	 */
+	public long[] ticksAsEpochMillis(int count) {
+		return mirror().ticksAsEpochMillis(count);
+	}
+
+	/**
+	 * Returns representative dates from the input domain as epoch
+	 * milliseconds like {@link #ticks()}, computed by the Java mirror of the
+	 * scale
+	 *
+	 * @return
+	 */
+	public long[] ticksAsEpochMillis() {
+		return ticksAsEpochMillis(10);
+	}
+
+	//#end region
+
 }
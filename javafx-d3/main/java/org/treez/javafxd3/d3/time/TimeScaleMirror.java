@@ -0,0 +1,246 @@
+package org.treez.javafxd3.d3.time;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+import org.treez.javafxd3.d3.core.JsObject;
+import org.treez.javafxd3.d3.scales.ContinuousScaleMirror;
+
+/**
+ * Java mirror of a d3 time scale. The domain is mirrored as epoch milliseconds,
+ * so {@link #applyAsDouble(double)} expects and {@link #invertAsDouble(double)}
+ * returns epoch milliseconds. The ticks are computed like d3 (seconds, minutes,
+ * hours, days, weeks, months and years) in the local time zone or in UTC for
+ * UTC time scales.
+ */
+public class TimeScaleMirror extends ContinuousScaleMirror {
+
+	//#region ATTRIBUTES
+
+	private static final double MILLIS_PER_YEAR = 31536e6;
+
+	/**
+	 * The durations of the automatic tick intervals (d3_time_scaleSteps)
+	 */
+	private static final double[] STEP_DURATIONS = { 1e3, 5e3, 15e3, 3e4, 6e4, 3e5, 9e5, 18e5, 36e5, 108e5, 216e5,
+			432e5, 864e5, 1728e5, 6048e5, 2592e6, 7776e6, 31536e6 };
+
+	private static final TimeInterval[] STEP_INTERVALS = { TimeInterval.SECOND, TimeInterval.SECOND,
+			TimeInterval.SECOND, TimeInterval.SECOND, TimeInterval.MINUTE, TimeInterval.MINUTE, TimeInterval.MINUTE,
+			TimeInterval.MINUTE, TimeInterval.HOUR, TimeInterval.HOUR, TimeInterval.HOUR, TimeInterval.HOUR,
+			TimeInterval.DAY, TimeInterval.DAY, TimeInterval.WEEK, TimeInterval.MONTH, TimeInterval.MONTH,
+			TimeInterval.YEAR };
+
+	private static final int[] STEP_SKIPS = { 1, 5, 15, 30, 1, 5, 15, 30, 1, 3, 6, 12, 1, 2, 1, 1, 3, 1 };
+
+	private ZoneId zone = ZoneId.systemDefault();
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public TimeScaleMirror() {
+		super();
+	}
+
+	/**
+	 * Creates a detached copy of the given mirror
+	 */
+	protected TimeScaleMirror(TimeScaleMirror original) {
+		super(original);
+		this.zone = original.zone;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	@Override
+	protected void readState(JsObject bridge, JsObject scale) {
+		super.readState(bridge, scale);
+		boolean isUtc = Boolean.TRUE.equals(bridge.call("isUtcTimeScale", scale));
+		zone = isUtc ? ZoneOffset.UTC : ZoneId.systemDefault();
+	}
+
+	/**
+	 * Returns approximately count representative dates from the domain as
+	 * epoch milliseconds, computed like d3.time.scale().ticks(count)
+	 *
+	 * @param count
+	 * @return
+	 */
+	public long[] ticksAsEpochMillis(int count) {
+		syncIfRequired();
+		if (domain.length == 0) {
+			return new long[] {};
+		}
+		double start = Math.min(domain[0], domain[domain.length - 1]);
+		double stop = Math.max(domain[0], domain[domain.length - 1]);
+		double target = (stop - start) / count;
+		int stepIndex = bisectRight(STEP_DURATIONS, target, 0, STEP_DURATIONS.length);
+
+		boolean isLongerThanYears = stepIndex == STEP_DURATIONS.length;
+		if (isLongerThanYears) {
+			double yearStep = createTickRange(start / MILLIS_PER_YEAR, stop / MILLIS_PER_YEAR, count)[2];
+			return createTicks(TimeInterval.YEAR, start, stop + 1, (int) Math.max(1, yearStep));
+		}
+
+		boolean isShorterThanSeconds = stepIndex == 0;
+		if (isShorterThanSeconds) {
+			double step = createTickRange(start, stop, count)[2];
+			double[] ticks = createTicks(Math.ceil(start / step) * step, stop + 1, step);
+			long[] epochMillis = new long[ticks.length];
+			for (int index = 0; index < ticks.length; index++) {
+				epochMillis[index] = (long) ticks[index];
+			}
+			return epochMillis;
+		}
+
+		boolean isCloserToPreviousStep = target / STEP_DURATIONS[stepIndex - 1] < STEP_DURATIONS[stepIndex] / target;
+		int methodIndex = isCloserToPreviousStep ? stepIndex - 1 : stepIndex;
+		return createTicks(STEP_INTERVALS[methodIndex], start, stop + 1, STEP_SKIPS[methodIndex]);
+	}
+
+	/**
+	 * Creates the boundaries of the given interval between start (inclusive)
+	 * and stop (exclusive) like d3_time_interval.range. If skip is larger than
+	 * one, only boundaries whose number (e.g. the hour) is a multiple of skip
+	 * are included.
+	 */
+	private long[] createTicks(TimeInterval interval, double start, double stop, int skip) {
+		long[] ticks = new long[16];
+		int numberOfTicks = 0;
+		long time = interval.ceil((long) Math.ceil(start), zone);
+		while (time < stop) {
+			boolean isIncluded = skip <= 1 || interval.number(time, zone) % skip == 0;
+			if (isIncluded) {
+				if (numberOfTicks == ticks.length) {
+					ticks = Arrays.copyOf(ticks, ticks.length * 2);
+				}
+				ticks[numberOfTicks++] = time;
+			}
+			time = interval.offset(time, zone);
+		}
+		return Arrays.copyOf(ticks, numberOfTicks);
+	}
+
+	@Override
+	public TimeScaleMirror copy() {
+		syncIfRequired();
+		return new TimeScaleMirror(this);
+	}
+
+	//#end region
+
+	//#region TIME INTERVALS
+
+	/**
+	 * The time intervals that are used for automatic ticks
+	 */
+	private enum TimeInterval {
+
+		SECOND, MINUTE, HOUR, DAY, WEEK, MONTH, YEAR;
+
+		/**
+		 * Returns the latest boundary of this interval that is not after the
+		 * given time
+		 */
+		long floor(long epochMillis, ZoneId zone) {
+			switch (this) {
+			case SECOND:
+				return Math.floorDiv(epochMillis, 1000L) * 1000L;
+			case MINUTE:
+				return Math.floorDiv(epochMillis, 60000L) * 60000L;
+			case HOUR:
+				double offsetInHours = toDateTime(epochMillis, zone).getOffset().getTotalSeconds() / 3600.0;
+				return (long) ((Math.floor(epochMillis / 36e5 + offsetInHours) - offsetInHours) * 36e5);
+			case DAY:
+				return toEpochMillis(toDateTime(epochMillis, zone).truncatedTo(ChronoUnit.DAYS));
+			case WEEK:
+				ZonedDateTime day = toDateTime(epochMillis, zone).truncatedTo(ChronoUnit.DAYS);
+				int daysSinceSunday = day.getDayOfWeek().getValue() % DayOfWeek.SUNDAY.getValue();
+				return toEpochMillis(day.minusDays(daysSinceSunday));
+			case MONTH:
+				ZonedDateTime firstDayOfMonth = toDateTime(epochMillis, zone).withDayOfMonth(1);
+				return toEpochMillis(firstDayOfMonth.truncatedTo(ChronoUnit.DAYS));
+			case YEAR:
+				ZonedDateTime firstDayOfYear = toDateTime(epochMillis, zone).withDayOfYear(1);
+				return toEpochMillis(firstDayOfYear.truncatedTo(ChronoUnit.DAYS));
+			default:
+				throw new IllegalStateException("Unknown time interval " + this);
+			}
+		}
+
+		/**
+		 * Returns the earliest boundary of this interval that is not before
+		 * the given time
+		 */
+		long ceil(long epochMillis, ZoneId zone) {
+			return offset(floor(epochMillis - 1, zone), zone);
+		}
+
+		/**
+		 * Returns the next boundary after the given boundary
+		 */
+		long offset(long epochMillis, ZoneId zone) {
+			switch (this) {
+			case SECOND:
+				return epochMillis + 1000L;
+			case MINUTE:
+				return epochMillis + 60000L;
+			case HOUR:
+				return epochMillis + 3600000L;
+			case DAY:
+				return toEpochMillis(toDateTime(epochMillis, zone).plusDays(1));
+			case WEEK:
+				return toEpochMillis(toDateTime(epochMillis, zone).plusWeeks(1));
+			case MONTH:
+				return toEpochMillis(toDateTime(epochMillis, zone).plusMonths(1));
+			case YEAR:
+				return toEpochMillis(toDateTime(epochMillis, zone).plusYears(1));
+			default:
+				throw new IllegalStateException("Unknown time interval " + this);
+			}
+		}
+
+		/**
+		 * Returns the number of the given time that is used to skip
+		 * boundaries, e.g. the hour of the day
+		 */
+		int number(long epochMillis, ZoneId zone) {
+			ZonedDateTime dateTime = toDateTime(epochMillis, zone);
+			switch (this) {
+			case SECOND:
+				return dateTime.getSecond();
+			case MINUTE:
+				return dateTime.getMinute();
+			case HOUR:
+				return dateTime.getHour();
+			case DAY:
+				return dateTime.getDayOfMonth() - 1;
+			case MONTH:
+				return dateTime.getMonthValue() - 1;
+			case YEAR:
+				return dateTime.getYear();
+			default:
+				return 0;
+			}
+		}
+
+		private static ZonedDateTime toDateTime(long epochMillis, ZoneId zone) {
+			return Instant.ofEpochMilli(epochMillis).atZone(zone);
+		}
+
+		private static long toEpochMillis(ZonedDateTime dateTime) {
+			return dateTime.toInstant().toEpochMilli();
+		}
+	}
+
+	//#end region
+
+}
@@ -0,0 +1,188 @@
+package org.treez.javafxd3.d3.vdom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.core.JsBridge;
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * The operations that update the elements of a {@link VirtualDom} in the
+ * page. Each operation is stored as its operation code followed by its int
+ * arguments (element ids); the string arguments (names, values and texts)
+ * are stored in a separate list in the order of their operations. The whole
+ * patch is transferred to the page in a single call and applied by the
+ * JavaScript function __jfxd3.patchDom.
+ */
+public class DomPatch {
+
+	//#region ATTRIBUTES
+
+	//#region OPERATION CODES
+
+	/**
+	 * Arguments: id, parent id, id of the next sibling or -1 to append; uses
+	 * the next string argument as element name
+	 */
+	public static final int CREATE = 0;
+
+	/**
+	 * Arguments: id
+	 */
+	public static final int REMOVE = 1;
+
+	/**
+	 * Arguments: id, parent id, id of the next sibling or -1 to append
+	 */
+	public static final int MOVE = 2;
+
+	/**
+	 * Arguments: id; uses the next two string arguments as name and value
+	 */
+	public static final int SET_ATTRIBUTE = 3;
+
+	/**
+	 * Arguments: id; uses the next string argument as name
+	 */
+	public static final int REMOVE_ATTRIBUTE = 4;
+
+	/**
+	 * Arguments: id; uses the next two string arguments as name and value
+	 */
+	public static final int SET_STYLE = 5;
+
+	/**
+	 * Arguments: id; uses the next string argument as name
+	 */
+	public static final int REMOVE_STYLE = 6;
+
+	/**
+	 * Arguments: id; uses the next string argument as text
+	 */
+	public static final int SET_TEXT = 7;
+
+	//#end region
+
+	private int[] values = new int[256];
+
+	private int size;
+
+	private final List<String> strings = new ArrayList<>();
+
+	private int numberOfOperations;
+
+	//#end region
+
+	//#region METHODS
+
+	void create(int id, int parentId, int nextId, String name) {
+		add(CREATE, id, parentId, nextId);
+		strings.add(name);
+	}
+
+	void remove(int id) {
+		ensureCapacity(2);
+		values[size++] = REMOVE;
+		values[size++] = id;
+		numberOfOperations++;
+	}
+
+	void move(int id, int parentId, int nextId) {
+		add(MOVE, id, parentId, nextId);
+	}
+
+	void setAttribute(int id, String name, String value) {
+		addWithId(SET_ATTRIBUTE, id);
+		strings.add(name);
+		strings.add(value);
+	}
+
+	void removeAttribute(int id, String name) {
+		addWithId(REMOVE_ATTRIBUTE, id);
+		strings.add(name);
+	}
+
+	void setStyle(int id, String name, String value) {
+		addWithId(SET_STYLE, id);
+		strings.add(name);
+		strings.add(value);
+	}
+
+	void removeStyle(int id, String name) {
+		addWithId(REMOVE_STYLE, id);
+		strings.add(name);
+	}
+
+	void setText(int id, String text) {
+		addWithId(SET_TEXT, id);
+		strings.add(text);
+	}
+
+	private void add(int operationCode, int id, int parentId, int nextId) {
+		ensureCapacity(4);
+		values[size++] = operationCode;
+		values[size++] = id;
+		values[size++] = parentId;
+		values[size++] = nextId;
+		numberOfOperations++;
+	}
+
+	private void addWithId(int operationCode, int id) {
+		ensureCapacity(2);
+		values[size++] = operationCode;
+		values[size++] = id;
+		numberOfOperations++;
+	}
+
+	private void ensureCapacity(int numberOfAddedValues) {
+		int requiredLength = size + numberOfAddedValues;
+		if (requiredLength > values.length) {
+			values = Arrays.copyOf(values, Math.max(requiredLength, values.length * 2));
+		}
+	}
+
+	/**
+	 * Applies the operations to the elements of the given page state, see
+	 * __jfxd3.createDomPatcher
+	 */
+	void apply(JsEngine engine, JsObject state) {
+		if (isEmpty()) {
+			return;
+		}
+		String[] stringValues = getStrings();
+		JsBridge.get(engine).call("patchDom", state, ArrayTransfer.encode(getValues()),
+				ArrayTransfer.encodeLengths(stringValues), ArrayTransfer.concat(stringValues));
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	/**
+	 * Returns a copy of the encoded operations
+	 */
+	public int[] getValues() {
+		return Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * Returns the string arguments in the order of their operations
+	 */
+	public String[] getStrings() {
+		return strings.toArray(new String[strings.size()]);
+	}
+
+	public int getNumberOfOperations() {
+		return numberOfOperations;
+	}
+
+	public boolean isEmpty() {
+		return numberOfOperations == 0;
+	}
+
+	//#end region
+
+}
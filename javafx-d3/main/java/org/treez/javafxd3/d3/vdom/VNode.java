@@ -0,0 +1,328 @@
+package org.treez.javafxd3.d3.vdom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.treez.javafxd3.d3.svg.PathStringBuilder;
+
+/**
+ * The description of an element in a {@link VirtualDom}: its name, optional
+ * key, attributes, styles and either a text or child nodes.
+ * <p>
+ * Nodes are created for each render and must not be modified after they
+ * have been rendered. A rendered node may be passed to the next render at
+ * the same position again; then its subtree is not compared at all, which
+ * makes unchanged parts of a chart free.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * VNode group = VNode.element("g").attr("transform", "translate(20,20)");
+ * for (Point point : points) {
+ * 	group.child(VNode.element("circle").key(point.getId()).attr("cx", point.x).attr("cy", point.y).attr("r", 2));
+ * }
+ * }
+ * </pre>
+ */
+public class VNode {
+
+	//#region ATTRIBUTES
+
+	private final String name;
+
+	private Object key;
+
+	private final Pairs attributes = new Pairs();
+
+	private final Pairs styles = new Pairs();
+
+	private String text;
+
+	private List<VNode> children;
+
+	/**
+	 * The id of the element in the page; -1 if the node is not rendered
+	 */
+	int id = -1;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * @param name
+	 *            the element name, e.g. circle or svg:circle
+	 */
+	public VNode(String name) {
+		this.name = name;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Creates a node with the given element name
+	 */
+	public static VNode element(String name) {
+		return new VNode(name);
+	}
+
+	/**
+	 * Sets the key that identifies the node among its siblings. Nodes without
+	 * key are identified by their name and their position among the siblings
+	 * without key that have the same name.
+	 *
+	 * @param key
+	 *            the key; compared with {@link Object#equals(Object)}
+	 * @return this node
+	 */
+	public VNode key(Object key) {
+		assertNotRendered();
+		this.key = key;
+		return this;
+	}
+
+	/**
+	 * Sets an attribute; null removes the attribute
+	 *
+	 * @return this node
+	 */
+	public VNode attr(String name, String value) {
+		assertNotRendered();
+		attributes.put(name, value);
+		return this;
+	}
+
+	/**
+	 * Sets a numeric attribute; integers are written without decimal places
+	 *
+	 * @return this node
+	 */
+	public VNode attr(String name, double value) {
+		StringBuilder builder = new StringBuilder();
+		PathStringBuilder.appendNumber(builder, value);
+		return attr(name, builder.toString());
+	}
+
+	/**
+	 * Sets a style property; null removes the style property
+	 *
+	 * @return this node
+	 */
+	public VNode style(String name, String value) {
+		assertNotRendered();
+		styles.put(name, value);
+		return this;
+	}
+
+	/**
+	 * Sets the text content; a node either has a text or children
+	 *
+	 * @return this node
+	 */
+	public VNode text(String text) {
+		assertNotRendered();
+		if (children != null) {
+			throw new IllegalStateException("The node '" + name + "' has children and can not have a text.");
+		}
+		this.text = text;
+		return this;
+	}
+
+	/**
+	 * Appends a child node
+	 *
+	 * @return this node
+	 */
+	public VNode child(VNode child) {
+		assertNotRendered();
+		if (text != null) {
+			throw new IllegalStateException("The node '" + name + "' has a text and can not have children.");
+		}
+		if (children == null) {
+			children = new ArrayList<>();
+		}
+		children.add(child);
+		return this;
+	}
+
+	/**
+	 * Appends the given child nodes
+	 *
+	 * @return this node
+	 */
+	public VNode children(Collection<VNode> children) {
+		for (VNode child : children) {
+			child(child);
+		}
+		return this;
+	}
+
+	private void assertNotRendered() {
+		if (id >= 0) {
+			String message = "The node '" + name + "' has already been rendered. Please create a new node instead.";
+			throw new IllegalStateException(message);
+		}
+	}
+
+	/**
+	 * Creates a copy of this node and its descendants that has not been
+	 * rendered
+	 */
+	VNode copy() {
+		VNode copy = new VNode(name);
+		copy.key = key;
+		copy.attributes.putAll(attributes);
+		copy.styles.putAll(styles);
+		copy.text = text;
+		if (children != null) {
+			copy.children = new ArrayList<>(children.size());
+			for (VNode child : children) {
+				copy.children.add(child.copy());
+			}
+		}
+		return copy;
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	public String getName() {
+		return name;
+	}
+
+	public Object getKey() {
+		return key;
+	}
+
+	/**
+	 * Returns the value of the attribute with the given name or null
+	 */
+	public String getAttribute(String attributeName) {
+		return attributes.get(attributeName);
+	}
+
+	/**
+	 * Returns the value of the style property with the given name or null
+	 */
+	public String getStyle(String styleName) {
+		return styles.get(styleName);
+	}
+
+	Pairs getAttributes() {
+		return attributes;
+	}
+
+	Pairs getStyles() {
+		return styles;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Returns the child nodes
+	 */
+	public List<VNode> getChildren() {
+		if (children == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(children);
+	}
+
+	/**
+	 * Replaces the child at the given index; used for reused nodes that have
+	 * to be copied
+	 */
+	void setChild(int index, VNode child) {
+		children.set(index, child);
+	}
+
+	/**
+	 * Returns true if this node has been rendered by a {@link VirtualDom} and
+	 * has not been removed since
+	 */
+	public boolean isRendered() {
+		return id >= 0;
+	}
+
+	//#end region
+
+	//#region CLASSES
+
+	/**
+	 * A small list of name/value pairs that are stored in a flat array. A
+	 * null value is stored like other values and stands for a removed
+	 * property.
+	 */
+	static class Pairs {
+
+		private String[] values = new String[0];
+
+		private int size;
+
+		void put(String name, String value) {
+			for (int index = 0; index < size; index++) {
+				boolean isExisting = values[2 * index].equals(name);
+				if (isExisting) {
+					values[2 * index + 1] = value;
+					return;
+				}
+			}
+			if (2 * size == values.length) {
+				values = Arrays.copyOf(values, Math.max(8, values.length * 2));
+			}
+			values[2 * size] = name;
+			values[2 * size + 1] = value;
+			size++;
+		}
+
+		void putAll(Pairs pairs) {
+			values = Arrays.copyOf(pairs.values, pairs.values.length);
+			size = pairs.size;
+		}
+
+		String get(String name) {
+			int index = indexOf(name, 0);
+			return index < 0 ? null : values[2 * index + 1];
+		}
+
+		/**
+		 * Returns the index of the pair with the given name or -1. The search
+		 * starts at the given index, since the pairs of two versions of a
+		 * node usually have the same order.
+		 */
+		int indexOf(String name, int startIndex) {
+			for (int offset = 0; offset < size; offset++) {
+				int index = (startIndex + offset) % size;
+				if (values[2 * index].equals(name)) {
+					return index;
+				}
+			}
+			return -1;
+		}
+
+		String getName(int index) {
+			return values[2 * index];
+		}
+
+		String getValue(int index) {
+			return values[2 * index + 1];
+		}
+
+		int size() {
+			return size;
+		}
+
+	}
+
+	//#end region
+
+}
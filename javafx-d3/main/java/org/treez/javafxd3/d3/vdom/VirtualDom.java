@@ -0,0 +1,478 @@
+package org.treez.javafxd3.d3.vdom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.treez.javafxd3.d3.core.JsBridge;
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+import org.treez.javafxd3.d3.core.Selection;
+import org.treez.javafxd3.d3.vdom.VNode.Pairs;
+
+/**
+ * Renders a tree of {@link VNode}s into a container element of the page.
+ * Instead of issuing append and attr calls for each element on each refresh,
+ * the chart code describes the desired elements and the virtual DOM compares
+ * them with the previously rendered nodes. Only the differences are sent to
+ * the page as one {@link DomPatch}: created, removed and moved elements and
+ * changed attributes, styles and texts. Therefore the cost of a refresh in
+ * the page is proportional to the changes and not to the size of the chart.
+ * <p>
+ * Children are matched by their key or, if they have no key, by their name
+ * and their position among the siblings without key that have the same
+ * name. Matched elements are kept; the moves of reordered children are
+ * minimized with a longest increasing subsequence. Nodes that are passed to
+ * the next render at the same position again are not compared at all.
+ * <p>
+ * Other children of the container that are not created by the virtual DOM
+ * are left unchanged. The virtual DOM must be used on the JavaFX application
+ * thread.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * VirtualDom dom = new VirtualDom(engine, d3.select("svg"));
+ * ...
+ * dom.render(createChart(data));
+ * }
+ * </pre>
+ */
+public class VirtualDom {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The id of the container element
+	 */
+	static final int CONTAINER_ID = 0;
+
+	private final JsEngine engine;
+
+	private final Selection container;
+
+	/**
+	 * The elements of the page; null until the first render
+	 */
+	private JsObject state;
+
+	private List<VNode> children = Collections.emptyList();
+
+	private int nextId = CONTAINER_ID + 1;
+
+	private int[] freeIds = new int[16];
+
+	private int numberOfFreeIds;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * @param engine
+	 * @param container
+	 *            the selection of the element that contains the rendered
+	 *            elements
+	 */
+	public VirtualDom(JsEngine engine, Selection container) {
+		this.engine = engine;
+		this.container = container;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Updates the children of the container so that they match the given
+	 * nodes
+	 *
+	 * @param newChildren
+	 *            the desired children of the container
+	 */
+	public void render(VNode... newChildren) {
+		render(Arrays.asList(newChildren));
+	}
+
+	/**
+	 * Updates the children of the container so that they match the given
+	 * nodes
+	 *
+	 * @param newChildren
+	 *            the desired children of the container
+	 */
+	public void render(List<VNode> newChildren) {
+		DomPatch patch = diff(newChildren);
+		if (state == null) {
+			state = (JsObject) JsBridge.get(engine).call("createDomPatcher", container.getJsObject());
+		}
+		patch.apply(engine, state);
+	}
+
+	/**
+	 * Compares the given nodes with the previously rendered nodes and returns
+	 * the patch that updates the page. The rendered nodes are replaced with
+	 * the given nodes.
+	 */
+	DomPatch diff(List<VNode> newChildren) {
+		DomPatch patch = new DomPatch();
+		List<VNode> children = new ArrayList<>(newChildren);
+		diffChildren(CONTAINER_ID, this.children, children, null, patch);
+		this.children = children;
+		return patch;
+	}
+
+	/**
+	 * Returns a selection of the element of the given rendered node, e.g. to
+	 * add a listener
+	 */
+	public Selection select(VNode node) {
+		if (!node.isRendered()) {
+			throw new IllegalStateException("The node '" + node.getName() + "' has not been rendered.");
+		}
+		JsObject result = (JsObject) JsBridge.get(engine).call("selectPatchedNode", state, node.id);
+		return new Selection(engine, result);
+	}
+
+	/**
+	 * Removes all rendered elements
+	 */
+	public void clear() {
+		render(Collections.emptyList());
+	}
+
+	private void diffNode(VNode oldNode, VNode newNode, DomPatch patch) {
+		boolean isUnchanged = oldNode == newNode;
+		if (isUnchanged) {
+			return;
+		}
+
+		int id = oldNode.id;
+		newNode.id = id;
+		diffPairs(id, oldNode.getAttributes(), newNode.getAttributes(), false, patch);
+		diffPairs(id, oldNode.getStyles(), newNode.getStyles(), true, patch);
+
+		String oldText = oldNode.getText();
+		String newText = newNode.getText();
+		boolean isTextRemoved = oldText != null && newText == null;
+		if (isTextRemoved) {
+			patch.setText(id, "");
+		}
+		diffChildren(id, oldNode.getChildren(), newNode.getChildren(), newNode, patch);
+		boolean isTextChanged = newText != null && !newText.equals(oldText);
+		if (isTextChanged) {
+			patch.setText(id, newText);
+		}
+	}
+
+	private static void diffPairs(int id, Pairs oldPairs, Pairs newPairs, boolean isStyle, DomPatch patch) {
+		for (int index = 0; index < newPairs.size(); index++) {
+			String name = newPairs.getName(index);
+			String value = newPairs.getValue(index);
+			int oldIndex = oldPairs.indexOf(name, index);
+			String oldValue = oldIndex < 0 ? null : oldPairs.getValue(oldIndex);
+			boolean isChanged = !Objects.equals(value, oldValue);
+			if (!isChanged) {
+				continue;
+			}
+			if (value == null) {
+				removePair(id, name, isStyle, patch);
+			} else if (isStyle) {
+				patch.setStyle(id, name, value);
+			} else {
+				patch.setAttribute(id, name, value);
+			}
+		}
+
+		for (int oldIndex = 0; oldIndex < oldPairs.size(); oldIndex++) {
+			String name = oldPairs.getName(oldIndex);
+			boolean isRemoved = oldPairs.getValue(oldIndex) != null && newPairs.indexOf(name, oldIndex) < 0;
+			if (isRemoved) {
+				removePair(id, name, isStyle, patch);
+			}
+		}
+	}
+
+	private static void removePair(int id, String name, boolean isStyle, DomPatch patch) {
+		if (isStyle) {
+			patch.removeStyle(id, name);
+		} else {
+			patch.removeAttribute(id, name);
+		}
+	}
+
+	/**
+	 * Updates the children of the element with the given id
+	 *
+	 * @param parent
+	 *            the new parent node whose child list is modified if a
+	 *            reused node has to be copied; null for the container
+	 */
+	private void diffChildren(int parentId, List<VNode> oldChildren, List<VNode> newChildren, VNode parent,
+			DomPatch patch) {
+		int oldEnd = oldChildren.size();
+		int newEnd = newChildren.size();
+
+		// common prefix and suffix
+		int start = 0;
+		while (start < oldEnd && start < newEnd && isSameNode(oldChildren.get(start), newChildren.get(start))) {
+			VNode oldChild = oldChildren.get(start);
+			diffNode(oldChild, getUnrenderedChild(newChildren, parent, start, oldChild), patch);
+			start++;
+		}
+		while (start < oldEnd && start < newEnd
+				&& isSameNode(oldChildren.get(oldEnd - 1), newChildren.get(newEnd - 1))) {
+			VNode oldChild = oldChildren.get(oldEnd - 1);
+			diffNode(oldChild, getUnrenderedChild(newChildren, parent, newEnd - 1, oldChild), patch);
+			oldEnd--;
+			newEnd--;
+		}
+
+		// match the remaining children by their keys
+		Map<MatchKey, Integer> oldIndices = new HashMap<>();
+		Map<String, Integer> occurrences = new HashMap<>();
+		for (int oldIndex = start; oldIndex < oldEnd; oldIndex++) {
+			MatchKey key = createMatchKey(oldChildren.get(oldIndex), occurrences);
+			oldIndices.putIfAbsent(key, oldIndex);
+		}
+
+		int numberOfNewChildren = newEnd - start;
+		int[] sources = new int[numberOfNewChildren];
+		boolean[] isMatched = new boolean[oldEnd - start];
+		occurrences.clear();
+		for (int offset = 0; offset < numberOfNewChildren; offset++) {
+			int index = start + offset;
+			MatchKey key = createMatchKey(newChildren.get(index), occurrences);
+			Integer oldIndex = oldIndices.remove(key);
+			sources[offset] = oldIndex == null ? -1 : oldIndex;
+			if (oldIndex != null) {
+				isMatched[oldIndex - start] = true;
+				VNode oldChild = oldChildren.get(oldIndex);
+				diffNode(oldChild, getUnrenderedChild(newChildren, parent, index, oldChild), patch);
+			}
+		}
+
+		for (int oldIndex = start; oldIndex < oldEnd; oldIndex++) {
+			if (!isMatched[oldIndex - start]) {
+				VNode oldChild = oldChildren.get(oldIndex);
+				patch.remove(oldChild.id);
+				release(oldChild);
+			}
+		}
+
+		// create and move the remaining children from the last to the first,
+		// so that their next sibling is already at its position
+		boolean[] isStable = findLongestIncreasingSubsequence(sources);
+		int nextId = newEnd < newChildren.size() ? newChildren.get(newEnd).id : -1;
+		for (int offset = numberOfNewChildren - 1; offset >= 0; offset--) {
+			int index = start + offset;
+			VNode newChild = newChildren.get(index);
+			boolean isNew = sources[offset] < 0;
+			if (isNew) {
+				newChild = getUnrenderedChild(newChildren, parent, index, null);
+				create(newChild, parentId, nextId, patch);
+			} else if (!isStable[offset]) {
+				patch.move(newChild.id, parentId, nextId);
+			}
+			nextId = newChild.id;
+		}
+	}
+
+	/**
+	 * Returns the new child at the given index. A node that is already
+	 * rendered at another position (e.g. a node that is reused twice) is
+	 * replaced with a copy, since a node can only stand for one element.
+	 *
+	 * @param oldChild
+	 *            the matched old child or null
+	 */
+	private static VNode getUnrenderedChild(List<VNode> children, VNode parent, int index, VNode oldChild) {
+		VNode child = children.get(index);
+		boolean isRenderedElsewhere = child != oldChild && child.isRendered();
+		if (!isRenderedElsewhere) {
+			return child;
+		}
+		VNode copy = child.copy();
+		if (parent == null) {
+			children.set(index, copy);
+		} else {
+			parent.setChild(index, copy);
+		}
+		return copy;
+	}
+
+	private static boolean isSameNode(VNode oldNode, VNode newNode) {
+		if (oldNode == newNode) {
+			return true;
+		}
+		boolean hasSameName = oldNode.getName().equals(newNode.getName());
+		return hasSameName && Objects.equals(oldNode.getKey(), newNode.getKey());
+	}
+
+	/**
+	 * Returns the key of the given node combined with its name. Nodes without
+	 * key get the number of their preceding siblings without key and with the
+	 * same name instead.
+	 */
+	private static MatchKey createMatchKey(VNode node, Map<String, Integer> occurrences) {
+		String name = node.getName();
+		Object key = node.getKey();
+		int occurrence = key == null ? occurrences.merge(name, 1, Integer::sum) : 0;
+		return new MatchKey(name, key, occurrence);
+	}
+
+	private void create(VNode node, int parentId, int nextId, DomPatch patch) {
+		int id = allocateId();
+		node.id = id;
+		patch.create(id, parentId, nextId, node.getName());
+
+		Pairs attributes = node.getAttributes();
+		for (int index = 0; index < attributes.size(); index++) {
+			String value = attributes.getValue(index);
+			if (value != null) {
+				patch.setAttribute(id, attributes.getName(index), value);
+			}
+		}
+
+		Pairs styles = node.getStyles();
+		for (int index = 0; index < styles.size(); index++) {
+			String value = styles.getValue(index);
+			if (value != null) {
+				patch.setStyle(id, styles.getName(index), value);
+			}
+		}
+
+		String text = node.getText();
+		if (text != null) {
+			patch.setText(id, text);
+		}
+
+		List<VNode> children = node.getChildren();
+		for (int index = 0; index < children.size(); index++) {
+			VNode child = children.get(index);
+			if (child.isRendered()) {
+				child = child.copy();
+				node.setChild(index, child);
+			}
+			create(child, id, -1, patch);
+		}
+	}
+
+	private int allocateId() {
+		if (numberOfFreeIds > 0) {
+			return freeIds[--numberOfFreeIds];
+		}
+		return nextId++;
+	}
+
+	/**
+	 * Releases the ids of the given removed node and its descendants
+	 */
+	private void release(VNode node) {
+		if (numberOfFreeIds == freeIds.length) {
+			freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+		}
+		freeIds[numberOfFreeIds++] = node.id;
+		node.id = -1;
+		for (VNode child : node.getChildren()) {
+			release(child);
+		}
+	}
+
+	/**
+	 * Marks the entries of a longest increasing subsequence of the given old
+	 * indices; the entries -1 stand for new nodes and are ignored. The marked
+	 * nodes keep their positions and all other matched nodes are moved.
+	 */
+	static boolean[] findLongestIncreasingSubsequence(int[] sources) {
+		int length = sources.length;
+		int[] predecessors = new int[length];
+		int[] tails = new int[length];
+		int numberOfTails = 0;
+		for (int index = 0; index < length; index++) {
+			int value = sources[index];
+			if (value < 0) {
+				continue;
+			}
+			int low = 0;
+			int high = numberOfTails;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (sources[tails[middle]] < value) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			predecessors[index] = low > 0 ? tails[low - 1] : -1;
+			tails[low] = index;
+			if (low == numberOfTails) {
+				numberOfTails++;
+			}
+		}
+
+		boolean[] isStable = new boolean[length];
+		int index = numberOfTails > 0 ? tails[numberOfTails - 1] : -1;
+		while (index >= 0) {
+			isStable[index] = true;
+			index = predecessors[index];
+		}
+		return isStable;
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	/**
+	 * Returns the rendered children of the container
+	 */
+	public List<VNode> getChildren() {
+		return Collections.unmodifiableList(children);
+	}
+
+	//#end region
+
+	//#region CLASSES
+
+	/**
+	 * Identifies a child among its siblings
+	 */
+	private static final class MatchKey {
+
+		private final String name;
+
+		private final Object key;
+
+		private final int occurrence;
+
+		MatchKey(String name, Object key, int occurrence) {
+			this.name = name;
+			this.key = key;
+			this.occurrence = occurrence;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof MatchKey)) {
+				return false;
+			}
+			MatchKey other = (MatchKey) object;
+			return occurrence == other.occurrence && name.equals(other.name) && Objects.equals(key, other.key);
+		}
+
+		@Override
+		public int hashCode() {
+			return (name.hashCode() * 31 + Objects.hashCode(key)) * 31 + occurrence;
+		}
+
+	}
+
+	//#end region
+
+}
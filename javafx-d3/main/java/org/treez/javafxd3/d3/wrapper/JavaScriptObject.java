@@ -4,7 +4,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.ConversionUtil;
+import org.treez.javafxd3.d3.core.JsBridge;
+import org.treez.javafxd3.d3.functions.BatchDataFunction;
+import org.treez.javafxd3.d3.functions.data.wrapper.BatchDataFunctionWrapper;
 
 import org.treez.javafxd3.d3.core.JsEngine;
 import org.treez.javafxd3.d3.core.JsObject;
@@ -55,11 +60,7 @@ public class JavaScriptObject {
 	}
 
 	protected JsObject createEmptyArray() {
-		String dummyName = createNewTemporaryInstanceName();
-		engine.executeScript("var " +dummyName +"=[];");
-		JsObject emptyObject = (JsObject) engine.executeScript(dummyName);
-		engine.executeScript("var " +dummyName +"=undefined;");
-		return emptyObject;
+		return (JsObject) JsBridge.get(engine).call("toArray");
 	}
 	
 	protected void setEmptyObjectAsJsObject() {
@@ -67,11 +68,7 @@ public class JavaScriptObject {
 	}
 
 	protected JsObject createEmptyObject() {
-		String dummyName = createNewTemporaryInstanceName();
-		engine.executeScript("var " +dummyName +"={};");
-		JsObject emptyObject = (JsObject) engine.executeScript(dummyName);
-		engine.executeScript("var " +dummyName +"=undefined;");
-		return emptyObject;
+		return (JsObject) JsBridge.get(engine).call("newObject");
 	}
 
 	//#region CALL
@@ -203,6 +200,18 @@ public class JavaScriptObject {
 		checkIfMethodExists(methodName);
 		
 		Object resultObj = jsObject.call(methodName, args);
+		return toJsObjectResult(resultObj, methodName);
+	}
+
+	/**
+	 * Converts the result of the method with the given name to a JsObject.
+	 * Undefined results are returned as null.
+	 * 
+	 * @param resultObj
+	 * @param methodName
+	 * @return
+	 */
+	private static JsObject toJsObjectResult(Object resultObj, String methodName) {
 		
 		if (resultObj==null){
 			return null;
@@ -226,14 +235,142 @@ public class JavaScriptObject {
 			}
 		}		
 
-		String typeString = "null";
-		if (resultObj != null) {
-			typeString = resultObj.getClass().getName();
-		}
+		String typeString = resultObj.getClass().getName();
 		String message = "The result type '" + typeString + "' is not yet implemented for method '" + methodName + "'";
 		throw new IllegalStateException(message);
 	}
 
+	/**
+	 * Invokes the method with the given name and arguments and ignores the
+	 * result. The command might be buffered by the engine, see
+	 * JsEngine#enqueueCall. Use this for methods that return the wrapped
+	 * object itself, e.g. setters of d3 selections.
+	 * 
+	 * @param methodName
+	 * @param args
+	 */
+	protected void enqueueCall(String methodName, Object... args) {
+		Objects.requireNonNull(jsObject);
+		engine.enqueueCall(jsObject, methodName, args);
+	}
+
+	/**
+	 * Invokes the method with the given name and arguments, followed by a
+	 * JavaScript function that forwards its calls to the given Java callback
+	 * (see {@link CallbackDispatcher}). The callback is released after the
+	 * method returned. Therefore use this only for methods that call the
+	 * function immediately, e.g. selection.attr(name, function).
+	 * 
+	 * @param methodName
+	 * @param trampolineName
+	 *            the trampoline that creates the function, e.g.
+	 *            {@link CallbackDispatcher#DATA_FUNCTION}
+	 * @param callback
+	 * @param args
+	 *            the arguments that are passed before the function
+	 * @return
+	 */
+	protected JsObject callWithCallback(String methodName, String trampolineName, Object callback,
+			Object... args) {
+
+		Objects.requireNonNull(jsObject);
+		CallbackDispatcher dispatcher = engine.getCallbackDispatcher();
+		Object resultObj = dispatcher.callWithCallback(jsObject, methodName, trampolineName, callback, args);
+		return toJsObjectResult(resultObj, methodName);
+	}
+
+	/**
+	 * Creates a JavaScript function that forwards its calls to the given Java
+	 * callback (see {@link CallbackDispatcher}). The callback stays
+	 * registered, so that the function can be used for methods that call it
+	 * later, e.g. event listeners.
+	 * 
+	 * @param trampolineName
+	 *            the trampoline that creates the function, e.g.
+	 *            {@link CallbackDispatcher#DATA_FUNCTION}
+	 * @param callback
+	 * @return
+	 */
+	protected JsObject createCallbackFunction(String trampolineName, Object callback) {
+		CallbackDispatcher dispatcher = engine.getCallbackDispatcher();
+		return dispatcher.createPermanentFunction(trampolineName, callback);
+	}
+
+	/**
+	 * Invokes the method with the given name and arguments, followed by a
+	 * JavaScript function that forwards its calls to the given Java callback
+	 * (see {@link CallbackDispatcher}), e.g. line.x(function). Use this for
+	 * methods that store the function, e.g. accessors and listeners. The
+	 * callback stays registered until the method is called again with
+	 * another function. If the callback is null, null is passed instead of a
+	 * function.
+	 * 
+	 * @param methodName
+	 * @param trampolineName
+	 *            the trampoline that creates the function, e.g.
+	 *            {@link CallbackDispatcher#DATA_FUNCTION}
+	 * @param callback
+	 * @param args
+	 *            the arguments that are passed before the function
+	 * @return
+	 */
+	protected JsObject callWithPermanentCallback(String methodName, String trampolineName, Object callback,
+			Object... args) {
+		String[] accessorNames = { methodName };
+		return callWithPermanentCallback(methodName, accessorNames, trampolineName, callback, args);
+	}
+
+	/**
+	 * Like {@link #callWithPermanentCallback(String, String, Object, Object...)}
+	 * for methods that set several accessors, e.g. area.x sets x0 and x1. The
+	 * replaced functions of all given accessors are released.
+	 * 
+	 * @param methodName
+	 * @param accessorNames
+	 *            the names of the accessors that might be changed by the
+	 *            method
+	 * @param trampolineName
+	 * @param callback
+	 * @param args
+	 * @return
+	 */
+	protected JsObject callWithPermanentCallback(String methodName, String[] accessorNames, String trampolineName,
+			Object callback, Object... args) {
+
+		JsObject callbackFunction = null;
+		if (callback != null) {
+			callbackFunction = createCallbackFunction(trampolineName, callback);
+		}
+		return callReplacingFunction(methodName, accessorNames, callbackFunction, args);
+	}
+
+	/**
+	 * Invokes the method with the given name and arguments, followed by the
+	 * given function, e.g. a batch accessor, and releases the callback
+	 * function that is replaced by it (see
+	 * {@link #callWithPermanentCallback(String, String, Object, Object...)})
+	 * 
+	 * @param methodName
+	 * @param function
+	 * @param args
+	 *            the arguments that are passed before the function
+	 * @return
+	 */
+	protected JsObject callReplacingFunction(String methodName, JsObject function, Object... args) {
+		String[] accessorNames = { methodName };
+		return callReplacingFunction(methodName, accessorNames, function, args);
+	}
+
+	private JsObject callReplacingFunction(String methodName, String[] accessorNames, JsObject function,
+			Object... args) {
+		Object[] bridgeArgs = new Object[args.length + 3];
+		bridgeArgs[0] = methodName;
+		bridgeArgs[1] = String.join(",", accessorNames);
+		System.arraycopy(args, 0, bridgeArgs, 2, args.length);
+		bridgeArgs[bridgeArgs.length - 1] = function;
+		return callBridge("replaceFunction", bridgeArgs);
+	}
+
 	private void checkIfMethodExists(String methodName) {
 		Object method = jsObject.getMember(methodName);
 		Objects.requireNonNull(method, "Method "+methodName+" does not exist");
@@ -306,6 +443,88 @@ public class JavaScriptObject {
 		}
 	}
 
+	/**
+	 * Invokes the helper function with the given name of the JavaScript
+	 * bridge __jfxd3 with the wrapped object as first argument, followed by
+	 * the given arguments
+	 * 
+	 * @param functionName
+	 * @param args
+	 * @return
+	 */
+	protected JsObject callBridge(String functionName, Object... args) {
+		Objects.requireNonNull(jsObject);
+		Object[] bridgeArgs = new Object[args.length + 1];
+		bridgeArgs[0] = jsObject;
+		System.arraycopy(args, 0, bridgeArgs, 1, args.length);
+		Object result = JsBridge.get(engine).call(functionName, bridgeArgs);
+		return toJsObjectResult(result, functionName);
+	}
+
+	/**
+	 * Invokes the method with the given name, e.g. attr, with a value function
+	 * that returns the given values by element index. The values are
+	 * transferred in a single call. If the name is null, only the value
+	 * function is passed, e.g. for text.
+	 * 
+	 * @param methodName
+	 * @param name
+	 * @param values
+	 * @return
+	 */
+	protected JsObject callWithValues(String methodName, String name, double[] values) {
+		Object result = JsBridge.get(engine).call("callWithNumbers", jsObject, methodName, name,
+				ArrayTransfer.FLOAT64, ArrayTransfer.encode(values));
+		return toJsObjectResult(result, methodName);
+	}
+
+	/**
+	 * See {@link #callWithValues(String, String, double[])}. Null values are
+	 * supported, e.g. to remove attributes.
+	 * 
+	 * @param methodName
+	 * @param name
+	 * @param values
+	 * @return
+	 */
+	protected JsObject callWithValues(String methodName, String name, String[] values) {
+		return callWithValues(methodName, name, values, null);
+	}
+
+	/**
+	 * See {@link #callWithValues(String, String, double[])}. The priority is
+	 * passed to the method as third argument, e.g. "important" for style.
+	 * 
+	 * @param methodName
+	 * @param name
+	 * @param values
+	 * @param priority
+	 * @return
+	 */
+	protected JsObject callWithValues(String methodName, String name, String[] values, String priority) {
+		Object result = JsBridge.get(engine).call("callWithStrings", jsObject, methodName, name,
+				ArrayTransfer.encodeLengths(values), ArrayTransfer.concat(values), priority);
+		return toJsObjectResult(result, methodName);
+	}
+
+	/**
+	 * See {@link #callWithValues(String, String, double[])}.
+	 * 
+	 * @param methodName
+	 * @param name
+	 * @param values
+	 * @return
+	 */
+	protected JsObject callWithValues(String methodName, String name, boolean[] values) {
+		int[] intValues = new int[values.length];
+		for (int index = 0; index < values.length; index++) {
+			intValues[index] = values[index] ? 1 : 0;
+		}
+		Object result = JsBridge.get(engine).call("callWithBooleans", jsObject, methodName, name,
+				ArrayTransfer.encode(intValues));
+		return toJsObjectResult(result, methodName);
+	}
+
 	//#end region
 
 	//#region GET MEMBER
@@ -410,12 +629,22 @@ public class JavaScriptObject {
 	//#region SET MEMBER
 	
 	/**
-	 * Sets a member of the d3 java script object
+	 * Sets a member of the d3 java script object. The command might be
+	 * buffered by the engine, see JsEngine#enqueueSetMember
 	 * @param name
 	 * @param value
 	 */
 	public void setMember(String name, Object value) {
-		jsObject.setMember(name, value);		
+		engine.enqueueSetMember(jsObject, name, value);		
+	}
+	
+	/**
+	 * Removes a member of the d3 java script object. The command might be
+	 * buffered by the engine, see JsEngine#enqueueRemoveMember
+	 * @param name
+	 */
+	public void removeMember(String name) {
+		engine.enqueueRemoveMember(jsObject, name);		
 	}
 	
 	//#end region
@@ -603,15 +832,59 @@ public class JavaScriptObject {
 		return d3jsObj;
 	}
 	
-	protected void assertObjectIsNotAnonymous(final Object callback) {
-		Objects.requireNonNull(callback, "Callback must not be null");
-		Class<?> callbackClass = callback.getClass();
-		boolean isAnonymeous = callbackClass.isAnonymousClass();
-		if (isAnonymeous) {
-			String message = "Anonymous callback implementations are not supported. "
-					+ "Please create a named class for '" + callbackClass.getName() + "'";
-			throw new IllegalArgumentException(message);
-		}
+	/**
+	 * Calls the given batch function once with the data of all elements of
+	 * this selection (or transition) and returns a JavaScript value function
+	 * that returns the results in the order of the elements
+	 * 
+	 * @param batchFunction
+	 * @return
+	 */
+	protected JsObject createBatchValueFunction(BatchDataFunction<?> batchFunction) {
+		Objects.requireNonNull(batchFunction, "Batch function must not be null");
+		BatchDataFunctionWrapper<?> wrapper = new BatchDataFunctionWrapper<>(engine, batchFunction);
+		return (JsObject) JsBridge.get(engine).call("batchValueFunction", jsObject, wrapper);
+	}
+
+	/**
+	 * Creates a JavaScript accessor for layouts that evaluate the accessor for
+	 * all elements of an array in order (e.g. the charge of a force layout).
+	 * The batch function is called once with the array that is returned by the
+	 * method with the given name (e.g. "nodes").
+	 * 
+	 * @param batchFunction
+	 * @param dataMethodName
+	 * @return
+	 */
+	protected JsObject createBatchArrayFunction(BatchDataFunction<?> batchFunction, String dataMethodName) {
+		Objects.requireNonNull(batchFunction, "Batch function must not be null");
+		BatchDataFunctionWrapper<?> wrapper = new BatchDataFunctionWrapper<>(engine, batchFunction);
+		return (JsObject) JsBridge.get(engine).call("batchArrayFunction", wrapper, jsObject, dataMethodName);
+	}
+
+	/**
+	 * Creates a JavaScript coordinate accessor for geometries. The batch
+	 * function is called once for all vertices when the geometry is applied
+	 * with {@link #applyWithBatchAccessors(JsObject)}.
+	 * 
+	 * @param batchFunction
+	 * @return
+	 */
+	protected JsObject createBatchAccessor(BatchDataFunction<?> batchFunction) {
+		Objects.requireNonNull(batchFunction, "Batch function must not be null");
+		BatchDataFunctionWrapper<?> wrapper = new BatchDataFunctionWrapper<>(engine, batchFunction);
+		return (JsObject) JsBridge.get(engine).call("batchAccessor", wrapper);
+	}
+
+	/**
+	 * Applies this geometry (e.g. a hull) to the given data after the results
+	 * of batch coordinate accessors have been computed for all vertices
+	 * 
+	 * @param data
+	 * @return
+	 */
+	protected JsObject applyWithBatchAccessors(JsObject data) {
+		return (JsObject) JsBridge.get(engine).call("applyWithBatchAccessors", jsObject, data);
 	}
 	
 	//#end region
@@ -29,5 +29,21 @@ public class CanvasElement extends JavaScriptObject {
 
 	}
 
+	/**
+	 * Returns a 2D context that records the drawing commands and replays them
+	 * with a single call per frame, see {@link RecordingContext2d}
+	 */
+	public RecordingContext2d getRecordingContext2d() {
+
+		String command = "this.getContext('2d')";
+		JsObject result = evalForJsObject(command);
+		if (result == null) {
+			return null;
+		}
+
+		return new RecordingContext2d(engine, result);
+
+	}
+
 	//#end region
 }
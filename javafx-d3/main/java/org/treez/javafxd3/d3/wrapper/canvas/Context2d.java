@@ -45,10 +45,26 @@ public class Context2d extends JavaScriptObject {
 		call("lineTo",x,y);		
 	}
 
+	public void closePath() {
+		call("closePath");
+	}
+
+	public void rect(double x, double y, double width, double height) {
+		call("rect", x, y, width, height);
+	}
+
+	public void arc(double x, double y, double radius, double startAngle, double endAngle, boolean isAnticlockwise) {
+		call("arc", x, y, radius, startAngle, endAngle, isAnticlockwise);
+	}
+
 	public void stroke() {
 		call("stroke");		
 	}
 
+	public void fill() {
+		call("fill");
+	}
+
 	public void restore() {
 		call("restore");		
 	}
@@ -56,6 +72,15 @@ public class Context2d extends JavaScriptObject {
 	public void fillRect(int x, int y, double width, double height) {
 		call("fillRect",x,y,width,height);		
 	}	
+
+	public void clearRect(double x, double y, double width, double height) {
+		call("clearRect", x, y, width, height);
+	}
+
+	public void setGlobalAlpha(double value) {
+		String command = "this.globalAlpha =" + value;
+		eval(command);
+	}
 	
 	public void setLineWidth(double value) {
 		String command = "this.lineWidth ="+value;
@@ -0,0 +1,225 @@
+package org.treez.javafxd3.d3.wrapper.canvas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.treez.javafxd3.d3.arrays.ArrayTransfer;
+import org.treez.javafxd3.d3.core.JsBridge;
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+
+/**
+ * A compact list of canvas drawing commands, e.g. recorded by a
+ * {@link RecordingContext2d}. Each command is stored as its operation code
+ * followed by its numeric arguments; the string arguments (e.g. colors) are
+ * stored in a separate list in the order of their commands. The whole list is
+ * transferred to the page as a single float64 array and replayed on a 2D
+ * context by the JavaScript function __jfxd3.replayCanvas.
+ */
+public class DisplayList {
+
+	//#region ATTRIBUTES
+
+	//#region OPERATION CODES
+
+	public static final int SAVE = 0;
+
+	public static final int RESTORE = 1;
+
+	public static final int TRANSLATE = 2;
+
+	public static final int SCALE = 3;
+
+	public static final int ROTATE = 4;
+
+	public static final int BEGIN_PATH = 5;
+
+	public static final int CLOSE_PATH = 6;
+
+	public static final int MOVE_TO = 7;
+
+	public static final int LINE_TO = 8;
+
+	public static final int RECT = 9;
+
+	/**
+	 * Arguments: x, y, radius, start angle, end angle, 1 if anticlockwise
+	 */
+	public static final int ARC = 10;
+
+	public static final int STROKE = 11;
+
+	public static final int FILL = 12;
+
+	public static final int FILL_RECT = 13;
+
+	public static final int CLEAR_RECT = 14;
+
+	public static final int SET_LINE_WIDTH = 15;
+
+	public static final int SET_GLOBAL_ALPHA = 16;
+
+	/**
+	 * Uses the next string argument
+	 */
+	public static final int SET_STROKE_STYLE = 17;
+
+	/**
+	 * Uses the next string argument
+	 */
+	public static final int SET_FILL_STYLE = 18;
+
+	/**
+	 * Uses the next string argument
+	 */
+	public static final int SET_GLOBAL_COMPOSITE_OPERATION = 19;
+
+	//#end region
+
+	private double[] values = new double[256];
+
+	private int size = 0;
+
+	private List<String> strings = new ArrayList<>();
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Adds a command without arguments
+	 */
+	public void add(int operationCode) {
+		ensureCapacity(1);
+		values[size++] = operationCode;
+	}
+
+	/**
+	 * Adds a command with a single numeric argument
+	 */
+	public void add(int operationCode, double value) {
+		ensureCapacity(2);
+		values[size++] = operationCode;
+		values[size++] = value;
+	}
+
+	/**
+	 * Adds a command with two numeric arguments, e.g. a point
+	 */
+	public void add(int operationCode, double x, double y) {
+		ensureCapacity(3);
+		values[size++] = operationCode;
+		values[size++] = x;
+		values[size++] = y;
+	}
+
+	/**
+	 * Adds a command with four numeric arguments, e.g. a rectangle
+	 */
+	public void add(int operationCode, double x, double y, double width, double height) {
+		ensureCapacity(5);
+		values[size++] = operationCode;
+		values[size++] = x;
+		values[size++] = y;
+		values[size++] = width;
+		values[size++] = height;
+	}
+
+	/**
+	 * Adds an arc
+	 */
+	public void addArc(double x, double y, double radius, double startAngle, double endAngle,
+			boolean isAnticlockwise) {
+		ensureCapacity(7);
+		values[size++] = ARC;
+		values[size++] = x;
+		values[size++] = y;
+		values[size++] = radius;
+		values[size++] = startAngle;
+		values[size++] = endAngle;
+		values[size++] = isAnticlockwise ? 1 : 0;
+	}
+
+	/**
+	 * Adds a command with a string argument, e.g. a color
+	 */
+	public void add(int operationCode, String value) {
+		add(operationCode);
+		strings.add(value);
+	}
+
+	/**
+	 * Appends all commands of the given list
+	 */
+	public void append(DisplayList displayList) {
+		ensureCapacity(displayList.size);
+		System.arraycopy(displayList.values, 0, values, size, displayList.size);
+		size += displayList.size;
+		strings.addAll(displayList.strings);
+	}
+
+	/**
+	 * Removes all commands; the allocated memory is kept for the next commands
+	 */
+	public void clear() {
+		size = 0;
+		strings.clear();
+	}
+
+	/**
+	 * Replays the commands on the given JavaScript 2D context with a single
+	 * call of the JavaScript engine
+	 *
+	 * @param engine
+	 * @param context
+	 */
+	public void replay(JsEngine engine, JsObject context) {
+		if (isEmpty()) {
+			return;
+		}
+		String[] stringValues = strings.toArray(new String[strings.size()]);
+		JsBridge.get(engine).call("replayCanvas", context, ArrayTransfer.encode(Arrays.copyOf(values, size)),
+				ArrayTransfer.encodeLengths(stringValues), ArrayTransfer.concat(stringValues));
+	}
+
+	private void ensureCapacity(int numberOfAddedValues) {
+		int requiredLength = size + numberOfAddedValues;
+		if (requiredLength > values.length) {
+			values = Arrays.copyOf(values, Math.max(requiredLength, 2 * values.length));
+		}
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of encoded values (operation codes and numeric
+	 * arguments)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns a copy of the encoded values
+	 */
+	public double[] getValues() {
+		return Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * Returns a copy of the string arguments
+	 */
+	public String[] getStrings() {
+		return strings.toArray(new String[strings.size()]);
+	}
+
+	//#end region
+
+}
@@ -0,0 +1,316 @@
+package org.treez.javafxd3.d3.wrapper.canvas;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
+
+import javafx.application.Platform;
+
+/**
+ * A {@link Context2d} that records the drawing commands into a
+ * {@link DisplayList} instead of calling the JavaScript context for each
+ * primitive. The recorded commands are replayed on the JavaScript context with
+ * a single call by {@link #flush()} or, once per JavaFX pulse, after
+ * {@link #endFrame()}.
+ * <p>
+ * Setting the stroke style, fill style, line width, global alpha or composite
+ * operation to its current value is skipped; the state is tracked through
+ * {@link #save()} and {@link #restore()}. The frames are double buffered: the
+ * commands of the next frame can be recorded (e.g. on a background thread)
+ * while the previous frame is waiting to be replayed. If the page is slower
+ * than the recording, the waiting frame is extended by the new frame, so no
+ * commands are lost.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * RecordingContext2d context = canvasElement.getRecordingContext2d();
+ * context.setStrokeStyle("red");
+ * context.beginPath();
+ * context.moveTo(0, 0);
+ * context.lineTo(10, 10);
+ * context.stroke();
+ * context.endFrame();
+ * }
+ * </pre>
+ */
+public class RecordingContext2d extends Context2d {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The frame that receives the recorded commands; only used by the recording
+	 * thread
+	 */
+	private DisplayList recordingFrame = new DisplayList();
+
+	/**
+	 * The frame that waits to be replayed
+	 */
+	private DisplayList pendingFrame;
+
+	/**
+	 * A replayed frame that can be reused for recording
+	 */
+	private DisplayList spareFrame;
+
+	private final Object frameLock = new Object();
+
+	private State state = new State();
+
+	private final Deque<State> savedStates = new ArrayDeque<>();
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public RecordingContext2d(JsEngine engine, JsObject wrappedJsObject) {
+		super(engine, wrappedJsObject);
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	//#region FRAMES
+
+	/**
+	 * Ends the recording of the current frame and schedules its replay on the
+	 * JavaFX application thread. Can be called from any thread.
+	 */
+	public void endFrame() {
+		boolean isReplayScheduled = passRecordingFrame();
+		if (!isReplayScheduled) {
+			Platform.runLater(this::replayPendingFrame);
+		}
+	}
+
+	/**
+	 * Replays all recorded commands immediately; must be called on the thread
+	 * of the JavaScript engine
+	 */
+	public void flush() {
+		passRecordingFrame();
+		replayPendingFrame();
+	}
+
+	/**
+	 * Passes the recorded commands to the pending frame
+	 *
+	 * @return true if the replay of the pending frame has already been
+	 *         scheduled
+	 */
+	private boolean passRecordingFrame() {
+		synchronized (frameLock) {
+			boolean isReplayScheduled = pendingFrame != null;
+			if (recordingFrame.isEmpty()) {
+				return true;
+			}
+			if (isReplayScheduled) {
+				pendingFrame.append(recordingFrame);
+				recordingFrame.clear();
+			} else {
+				pendingFrame = recordingFrame;
+				recordingFrame = spareFrame == null ? new DisplayList() : spareFrame;
+				spareFrame = null;
+			}
+			return isReplayScheduled;
+		}
+	}
+
+	private void replayPendingFrame() {
+		DisplayList frame;
+		synchronized (frameLock) {
+			frame = pendingFrame;
+			pendingFrame = null;
+		}
+		if (frame == null) {
+			return;
+		}
+		frame.replay(engine, getJsObject());
+		frame.clear();
+		synchronized (frameLock) {
+			spareFrame = frame;
+		}
+	}
+
+	//#end region
+
+	//#region STATE
+
+	@Override
+	public void save() {
+		savedStates.push(state.copy());
+		recordingFrame.add(DisplayList.SAVE);
+	}
+
+	@Override
+	public void restore() {
+		state = savedStates.isEmpty() ? new State() : savedStates.pop();
+		recordingFrame.add(DisplayList.RESTORE);
+	}
+
+	@Override
+	public void setLineWidth(double value) {
+		boolean isChanged = Double.compare(state.lineWidth, value) != 0;
+		if (isChanged) {
+			state.lineWidth = value;
+			recordingFrame.add(DisplayList.SET_LINE_WIDTH, value);
+		}
+	}
+
+	@Override
+	public void setGlobalAlpha(double value) {
+		boolean isChanged = Double.compare(state.globalAlpha, value) != 0;
+		if (isChanged) {
+			state.globalAlpha = value;
+			recordingFrame.add(DisplayList.SET_GLOBAL_ALPHA, value);
+		}
+	}
+
+	@Override
+	public void setStrokeStyle(String style) {
+		boolean isChanged = !Objects.equals(state.strokeStyle, style);
+		if (isChanged) {
+			state.strokeStyle = style;
+			recordingFrame.add(DisplayList.SET_STROKE_STYLE, style);
+		}
+	}
+
+	@Override
+	public void setFillStyle(String value) {
+		boolean isChanged = !Objects.equals(state.fillStyle, value);
+		if (isChanged) {
+			state.fillStyle = value;
+			recordingFrame.add(DisplayList.SET_FILL_STYLE, value);
+		}
+	}
+
+	@Override
+	public void setGlobalCompositeOperation(String value) {
+		boolean isChanged = !Objects.equals(state.globalCompositeOperation, value);
+		if (isChanged) {
+			state.globalCompositeOperation = value;
+			recordingFrame.add(DisplayList.SET_GLOBAL_COMPOSITE_OPERATION, value);
+		}
+	}
+
+	//#end region
+
+	//#region TRANSFORMATION
+
+	@Override
+	public void translate(double x, double y) {
+		recordingFrame.add(DisplayList.TRANSLATE, x, y);
+	}
+
+	@Override
+	public void scale(int x, int y) {
+		recordingFrame.add(DisplayList.SCALE, x, y);
+	}
+
+	@Override
+	public void rotate(int angleInDegrees) {
+		recordingFrame.add(DisplayList.ROTATE, angleInDegrees);
+	}
+
+	//#end region
+
+	//#region PATHS
+
+	@Override
+	public void beginPath() {
+		recordingFrame.add(DisplayList.BEGIN_PATH);
+	}
+
+	@Override
+	public void closePath() {
+		recordingFrame.add(DisplayList.CLOSE_PATH);
+	}
+
+	@Override
+	public void moveTo(double x, double y) {
+		recordingFrame.add(DisplayList.MOVE_TO, x, y);
+	}
+
+	@Override
+	public void lineTo(double x, double y) {
+		recordingFrame.add(DisplayList.LINE_TO, x, y);
+	}
+
+	@Override
+	public void rect(double x, double y, double width, double height) {
+		recordingFrame.add(DisplayList.RECT, x, y, width, height);
+	}
+
+	@Override
+	public void arc(double x, double y, double radius, double startAngle, double endAngle,
+			boolean isAnticlockwise) {
+		recordingFrame.addArc(x, y, radius, startAngle, endAngle, isAnticlockwise);
+	}
+
+	@Override
+	public void stroke() {
+		recordingFrame.add(DisplayList.STROKE);
+	}
+
+	@Override
+	public void fill() {
+		recordingFrame.add(DisplayList.FILL);
+	}
+
+	//#end region
+
+	//#region RECTANGLES
+
+	@Override
+	public void fillRect(int x, int y, double width, double height) {
+		recordingFrame.add(DisplayList.FILL_RECT, x, y, width, height);
+	}
+
+	@Override
+	public void clearRect(double x, double y, double width, double height) {
+		recordingFrame.add(DisplayList.CLEAR_RECT, x, y, width, height);
+	}
+
+	//#end region
+
+	//#end region
+
+	//#region STATE CLASS
+
+	/**
+	 * The drawing state that is known on the Java side; null and NaN stand for
+	 * an unknown value, which is always recorded
+	 */
+	private static class State {
+
+		private double lineWidth = Double.NaN;
+
+		private double globalAlpha = Double.NaN;
+
+		private String strokeStyle;
+
+		private String fillStyle;
+
+		private String globalCompositeOperation;
+
+		State copy() {
+			State copy = new State();
+			copy.lineWidth = lineWidth;
+			copy.globalAlpha = globalAlpha;
+			copy.strokeStyle = strokeStyle;
+			copy.fillStyle = fillStyle;
+			copy.globalCompositeOperation = globalCompositeOperation;
+			return copy;
+		}
+
+	}
+
+	//#end region
+
+}
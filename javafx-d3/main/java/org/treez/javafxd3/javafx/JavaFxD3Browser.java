@@ -7,6 +7,8 @@ import java.io.InputStreamReader;
 import java.util.Objects;
 
 import org.treez.javafxd3.d3.D3;
+import org.treez.javafxd3.d3.core.JsBridge;
+import org.treez.javafxd3.d3.core.RenderPolicy;
 import org.treez.javafxd3.functionplot.FunctionPlot;
 import org.treez.javafxd3.plotly.Plotly;
 
@@ -43,6 +45,12 @@ public class JavaFxD3Browser extends Region {
 	 */
 	private WebEngine engine;
 
+	/**
+	 * Wraps the web engine. The same instance is used for all JavaScript
+	 * wrappers so that they share the command buffer.
+	 */
+	private JavaFxJsEngine jsEngine;
+
 	/**
 	 * The d3 wrapper
 	 */
@@ -56,6 +64,11 @@ public class JavaFxD3Browser extends Region {
 	 */
 	private Runnable loadingFinishedHook;
 
+	/**
+	 * The render policy that switches dense mark layers to canvas or null
+	 */
+	private RenderPolicy renderPolicy;
+
 	private Boolean enableDebugMode = false;
 	
 	private double browserWidth = 900;
@@ -110,6 +123,7 @@ public class JavaFxD3Browser extends Region {
 		//get web engine
 		engine = webView.getEngine();
 		Objects.requireNonNull(engine);
+		jsEngine = new JavaFxJsEngine(engine);
 
 		//enable java script
 		engine.setJavaScriptEnabled(true);
@@ -164,6 +178,7 @@ public class JavaFxD3Browser extends Region {
 	private void injectJavaScriptLibraries() {
 
 		injectD3();
+		injectJsBridge();
 		injectFunctionPlotter();
 		injectNvd3();	
 		injectPlotly();
@@ -181,6 +196,14 @@ public class JavaFxD3Browser extends Region {
 		engine.executeScript(d3Content);
 	}
 
+	private void injectJsBridge() {
+		// helper functions of javafx-d3, e.g. for transferring typed arrays
+		JsBridge.inject(jsEngine);
+		if (renderPolicy != null) {
+			renderPolicy.apply(jsEngine);
+		}
+	}
+
 	private void injectFunctionPlotter() {
 		// https://github.com/maurizzzio/function-plot/blob/master/dist/function-plot.js
 		String functionPlotterContent = getJavaScriptLibraryFromFile("function-plot.js");
@@ -359,7 +382,42 @@ public class JavaFxD3Browser extends Region {
 
 	
 	public JsEngine getJsEngine() {
-		return new JavaFxJsEngine(engine);
+		return jsEngine;
+	}
+
+	/**
+	 * Enables or disables the buffering of fire-and-forget commands like
+	 * Selection.attr(name, value). If enabled, the buffered commands are
+	 * executed with a single call when a result is needed and at the latest
+	 * at the beginning of the next JavaFX pulse, before the WebView is
+	 * rendered.
+	 * 
+	 * @param isBuffering
+	 */
+	public void setCommandBuffering(boolean isBuffering) {
+		jsEngine.setBuffering(isBuffering);
+	}
+
+	/**
+	 * Sets the render policy that switches dense mark layers (e.g. scatter
+	 * plots with many circles) from SVG elements to canvas layers once the
+	 * element budget of the policy is exceeded. The chart code keeps using the
+	 * same Selection calls. Pass null to append SVG elements only. The policy
+	 * applies to the elements that are appended afterwards.
+	 * 
+	 * @param renderPolicy
+	 */
+	public void setRenderPolicy(RenderPolicy renderPolicy) {
+		this.renderPolicy = renderPolicy;
+		boolean isLoaded = d3 != null;
+		if (!isLoaded) {
+			return;
+		}
+		if (renderPolicy != null) {
+			renderPolicy.apply(jsEngine);
+		} else {
+			RenderPolicy.remove(jsEngine);
+		}
 	}
 
 	
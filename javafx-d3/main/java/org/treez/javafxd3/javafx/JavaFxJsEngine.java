@@ -1,6 +1,8 @@
 package org.treez.javafxd3.javafx;
 
+import org.treez.javafxd3.d3.core.CallbackDispatcher;
 import org.treez.javafxd3.d3.core.JsEngine;
+import org.treez.javafxd3.d3.core.JsObject;
 
 import javafx.scene.web.WebEngine;
 import netscape.javascript.JSObject;
@@ -11,12 +13,25 @@ public class JavaFxJsEngine implements JsEngine {
 
 	private WebEngine wrappedJsEngine;
 
+	/**
+	 * Collects fire-and-forget commands if command buffering is enabled
+	 */
+	private JsCommandBuffer commandBuffer;
+
+	private boolean isBuffering = false;
+
+	/**
+	 * Routes calls of the JavaScript engine to Java callbacks
+	 */
+	private CallbackDispatcher callbackDispatcher;
+
 	//#end region
 
 	//#region CONSTRUCTORS
 
 	public JavaFxJsEngine(WebEngine wrappedJsEngine) {
 		this.wrappedJsEngine = wrappedJsEngine;
+		this.commandBuffer = new JsCommandBuffer(this);
 	}
 
 	//#end region
@@ -25,19 +40,112 @@ public class JavaFxJsEngine implements JsEngine {
 
 	@Override
 	public Object executeScript(String script) {
+		flush();
 		Object result = wrappedJsEngine.executeScript(script);
-		return JavaFxJsObject.wrapIfIsJSObject(result);
+		return wrapIfIsJSObject(result);
 	}
 
 	@Override
 	public Object toJsObjectIfNotSimpleType(Object argument) {
-		
+
 		boolean isJSObject = argument instanceof JSObject;
 		if(isJSObject){
 			JSObject jsArgument = (JSObject) argument;
-			return new JavaFxJsObject(jsArgument);
+			return new JavaFxJsObject(jsArgument, this);
+		}
+		return argument;
+	}
+
+	/**
+	 * Wraps the given result as JavaFxJsObject that flushes the command buffer
+	 * of this engine before it accesses the JavaScript engine
+	 */
+	Object wrapIfIsJSObject(Object result) {
+		boolean isJSObject = result instanceof JSObject;
+		if (isJSObject) {
+			return new JavaFxJsObject((JSObject) result, this);
+		}
+		return result;
+	}
+
+	@Override
+	public CallbackDispatcher getCallbackDispatcher() {
+		if (callbackDispatcher == null) {
+			callbackDispatcher = new CallbackDispatcher(this);
+		}
+		return callbackDispatcher;
+	}
+
+	//#region COMMAND BUFFER
+
+	@Override
+	public void enqueueCall(JsObject target, String methodName, Object... args) {
+		if (!isBuffering) {
+			target.call(methodName, args);
+			return;
+		}
+		JSObject jsTarget = (JSObject) target.unwrap();
+		commandBuffer.addCall(jsTarget, methodName, JavaFxJsObject.unwrapArguments(args));
+	}
+
+	@Override
+	public void enqueueSetMember(JsObject target, String name, Object value) {
+		if (!isBuffering) {
+			target.setMember(name, value);
+			return;
 		}
-		return argument;		
+		JSObject jsTarget = (JSObject) target.unwrap();
+		commandBuffer.addSetMember(jsTarget, name, JavaFxJsObject.unwrapIfIsJsObject(value));
+	}
+
+	@Override
+	public void enqueueRemoveMember(JsObject target, String name) {
+		if (!isBuffering) {
+			target.removeMember(name);
+			return;
+		}
+		JSObject jsTarget = (JSObject) target.unwrap();
+		commandBuffer.addRemoveMember(jsTarget, name);
+	}
+
+	@Override
+	public void flush() {
+		commandBuffer.flush();
+	}
+
+	//#end region
+
+	//#end region
+
+	//#region ACCESSORS
+
+	/**
+	 * Returns true if fire-and-forget commands are buffered
+	 */
+	public boolean isBuffering() {
+		return isBuffering;
+	}
+
+	/**
+	 * Enables or disables the buffering of fire-and-forget commands like
+	 * Selection.attr(name, value). Buffered commands are executed with a
+	 * single call when a result of the JavaScript engine is needed, and at the
+	 * latest at the beginning of the next JavaFX pulse. Errors of buffered
+	 * commands are therefore thrown when the buffer is flushed.
+	 */
+	public void setBuffering(boolean isBuffering) {
+		if (!isBuffering) {
+			flush();
+		}
+		this.isBuffering = isBuffering;
+	}
+
+	/**
+	 * Returns the wrapped engine. Scripts that are executed with it directly
+	 * do not flush the command buffer.
+	 */
+	WebEngine getWebEngine() {
+		return wrappedJsEngine;
 	}
 
 	//#end region
@@ -10,6 +10,12 @@ public class JavaFxJsObject implements JsObject {
 	//#region ATTRIBUTES
 	
 	private JSObject wrappedJSObject;
+
+	/**
+	 * The engine that created this object (might be null). Its command buffer
+	 * is flushed before this object accesses the JavaScript engine.
+	 */
+	private JavaFxJsEngine engine;
 	
 	//#end region
 	
@@ -17,7 +23,12 @@ public class JavaFxJsObject implements JsObject {
 	
 	public JavaFxJsObject(JSObject wrappedJSObject){
 		this.wrappedJSObject = wrappedJSObject;
-	}	
+	}
+
+	public JavaFxJsObject(JSObject wrappedJSObject, JavaFxJsEngine engine){
+		this.wrappedJSObject = wrappedJSObject;
+		this.engine = engine;
+	}
 	
 	//#end region
 	
@@ -33,49 +44,49 @@ public class JavaFxJsObject implements JsObject {
 	
 	@Override
 	public Object call(String methodName, Object... args) {
-		
-		Object[] unwrappedArgs = new Object[args.length];
-		for(int index=0; index < args.length; index++){
-			Object arg = args[index];
-			Object unwrappedArg = unwrapIfIsJsObject(arg);
-			unwrappedArgs[index]= unwrappedArg;			
-		}		
-		
+		flush();
+		Object[] unwrappedArgs = unwrapArguments(args);		
 		Object result = wrappedJSObject.call(methodName, unwrappedArgs);
-		return wrapIfIsJSObject(result);				
+		return wrap(result);				
 	}	
 
 	@Override
 	public Object eval(String command) {
+		flush();
 		Object result = wrappedJSObject.eval(command);
-		return wrapIfIsJSObject(result);	
+		return wrap(result);	
 	}
 
 	@Override
 	public Object getMember(String name) {
+		flush();
 		Object result = wrappedJSObject.getMember(name);		
-		return wrapIfIsJSObject(result);	
+		return wrap(result);	
 	}
 
 	@Override
 	public void setMember(String name, Object value) {
+		flush();
 		Object valueObj = unwrapIfIsJsObject(value);
 		wrappedJSObject.setMember(name, valueObj);		
 	}	
 
 	@Override
 	public void removeMember(String name) {
+		flush();
 		wrappedJSObject.removeMember(name);			
 	}
 
 	@Override
 	public Object getSlot(int index) {
+		flush();
 		Object result = wrappedJSObject.getSlot(index);
-		return wrapIfIsJSObject(result);
+		return wrap(result);
 	}
 
 	@Override
 	public void setSlot(int index, Object value) {
+		flush();
 		Object valueObj = unwrapIfIsJsObject(value);
 		wrappedJSObject.setSlot(index, valueObj);		
 	}
@@ -83,9 +94,32 @@ public class JavaFxJsObject implements JsObject {
 	@Override
 	public Object unwrap() {
 		return wrappedJSObject;
-	}	
+	}
+
+	private void flush() {
+		if (engine != null) {
+			engine.flush();
+		}
+	}
+
+	private Object wrap(Object result) {
+		if (engine != null) {
+			return engine.wrapIfIsJSObject(result);
+		}
+		return wrapIfIsJSObject(result);
+	}
+
+	static Object[] unwrapArguments(Object... args) {
+		Object[] unwrappedArgs = new Object[args.length];
+		for(int index=0; index < args.length; index++){
+			Object arg = args[index];
+			Object unwrappedArg = unwrapIfIsJsObject(arg);
+			unwrappedArgs[index]= unwrappedArg;			
+		}
+		return unwrappedArgs;
+	}
 	
-	private Object unwrapIfIsJsObject(Object value) {
+	static Object unwrapIfIsJsObject(Object value) {
 		boolean isJsObject = value instanceof JsObject;
 		if(isJsObject){
 			JsObject jsObject = (JsObject) value;
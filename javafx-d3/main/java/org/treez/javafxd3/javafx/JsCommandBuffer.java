@@ -0,0 +1,141 @@
+package org.treez.javafxd3.javafx;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.treez.javafxd3.d3.core.JsBridge;
+import org.treez.javafxd3.d3.core.JsEngine;
+
+import javafx.animation.AnimationTimer;
+import netscape.javascript.JSObject;
+
+/**
+ * Collects fire-and-forget commands (method calls, setting and removing
+ * members) whose results are not needed and executes them with a single call
+ * of the JavaScript function __jfxd3.runCommands. The commands are flushed
+ * when a result of the JavaScript engine is needed, when the buffer gets too
+ * large and at the latest at the beginning of the next JavaFX pulse, before
+ * the scene (and therefore the WebView) is rendered.
+ */
+public class JsCommandBuffer {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * Marks a command that sets a member
+	 */
+	public static final String SET_MEMBER = "=set";
+
+	/**
+	 * Marks a command that removes a member
+	 */
+	public static final String REMOVE_MEMBER = "=remove";
+
+	/**
+	 * The maximum number of arguments that is passed to the JavaScript engine
+	 * with a single call
+	 */
+	private static final int MAX_NUMBER_OF_ARGUMENTS = 30000;
+
+	private JsEngine engine;
+
+	/**
+	 * The buffered commands as flat list: target, command name, number of
+	 * arguments, arguments...
+	 */
+	private List<Object> commandArguments = new ArrayList<>();
+
+	/**
+	 * Flushes the buffer once at the beginning of the next pulse
+	 */
+	private final AnimationTimer pulseFlush = new AnimationTimer() {
+
+		@Override
+		public void handle(long now) {
+			stop();
+			isFlushScheduled = false;
+			flush();
+		}
+	};
+
+	private boolean isFlushScheduled = false;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public JsCommandBuffer(JsEngine engine) {
+		this.engine = engine;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Adds a method call to the buffer
+	 */
+	public void addCall(JSObject target, String methodName, Object... args) {
+		commandArguments.add(target);
+		commandArguments.add(methodName);
+		commandArguments.add(args.length);
+		for (Object arg : args) {
+			commandArguments.add(arg);
+		}
+		commandAdded();
+	}
+
+	/**
+	 * Adds a command that sets the member with the given name to the buffer
+	 */
+	public void addSetMember(JSObject target, String name, Object value) {
+		addCall(target, SET_MEMBER, name, value);
+	}
+
+	/**
+	 * Adds a command that removes the member with the given name to the buffer
+	 */
+	public void addRemoveMember(JSObject target, String name) {
+		addCall(target, REMOVE_MEMBER, name);
+	}
+
+	private void commandAdded() {
+		boolean isFull = commandArguments.size() >= MAX_NUMBER_OF_ARGUMENTS;
+		if (isFull) {
+			flush();
+			return;
+		}
+
+		if (!isFlushScheduled) {
+			isFlushScheduled = true;
+			pulseFlush.start();
+		}
+	}
+
+	/**
+	 * Executes all buffered commands
+	 */
+	public void flush() {
+		boolean isEmpty = commandArguments.isEmpty();
+		if (isEmpty) {
+			return;
+		}
+
+		Object[] args = commandArguments.toArray();
+		commandArguments = new ArrayList<>();
+		// hint: the bridge is looked up for each flush since it is replaced
+		// when a new page is loaded
+		JSObject bridge = (JSObject) JsBridge.get(engine).unwrap();
+		bridge.call("runCommands", args);
+	}
+
+	/**
+	 * Returns true if no commands are buffered
+	 */
+	public boolean isEmpty() {
+		return commandArguments.isEmpty();
+	}
+
+	//#end region
+
+}
@@ -0,0 +1,166 @@
+package org.treez.javafxd3.javafx.canvas;
+
+import java.util.Locale;
+import java.util.function.DoubleFunction;
+
+import org.treez.javafxd3.d3.scales.ContinuousScaleMirror;
+import org.treez.javafxd3.d3.svg.Axis.Orientation;
+import org.treez.javafxd3.d3.svg.PathStringBuilder;
+
+/**
+ * Creates the nodes of an axis in a {@link CanvasScene} like the d3 axis
+ * component: a domain path and a group with a line and a text for each tick.
+ * The ticks are computed in Java from a {@link ContinuousScaleMirror}, so the
+ * scale can be a detached mirror without JavaScript engine.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * ContinuousScaleMirror x = new ContinuousScaleMirror().domain(0, 100).range(0, 500);
+ * new CanvasAxis(x).orient(Orientation.BOTTOM).apply(scene.root().append("g").attr("transform", "translate(0,300)"));
+ * }
+ * </pre>
+ */
+public class CanvasAxis {
+
+	//#region ATTRIBUTES
+
+	private final ContinuousScaleMirror scale;
+
+	private Orientation orientation = Orientation.BOTTOM;
+
+	private int numberOfTicks = 10;
+
+	private double innerTickSize = 6;
+
+	private double outerTickSize = 6;
+
+	private double tickPadding = 3;
+
+	private DoubleFunction<String> tickFormat;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	public CanvasAxis(ContinuousScaleMirror scale) {
+		this.scale = scale;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	public CanvasAxis orient(Orientation orientation) {
+		this.orientation = orientation;
+		return this;
+	}
+
+	/**
+	 * Sets the approximate number of ticks; the default is 10
+	 */
+	public CanvasAxis ticks(int numberOfTicks) {
+		this.numberOfTicks = numberOfTicks;
+		return this;
+	}
+
+	/**
+	 * Sets the inner and outer tick size
+	 */
+	public CanvasAxis tickSize(double tickSize) {
+		this.innerTickSize = tickSize;
+		this.outerTickSize = tickSize;
+		return this;
+	}
+
+	public CanvasAxis tickPadding(double tickPadding) {
+		this.tickPadding = tickPadding;
+		return this;
+	}
+
+	/**
+	 * Sets the format of the tick labels; by default, the labels are
+	 * formatted with the precision of the tick step like d3
+	 */
+	public CanvasAxis tickFormat(DoubleFunction<String> tickFormat) {
+		this.tickFormat = tickFormat;
+		return this;
+	}
+
+	/**
+	 * Creates or replaces the axis nodes in each node of the given selection
+	 *
+	 * @param selection
+	 *            the selection of the axis groups
+	 */
+	public void apply(CanvasSelection selection) {
+		selection.selectAll(".tick").remove();
+		selection.selectAll(".domain").remove();
+
+		double[] ticks = scale.ticksAsDoubles(numberOfTicks);
+		DoubleFunction<String> format = tickFormat == null ? createDefaultFormat(ticks) : tickFormat;
+		boolean isHorizontal = orientation == Orientation.TOP || orientation == Orientation.BOTTOM;
+		double sign = orientation == Orientation.TOP || orientation == Orientation.LEFT ? -1 : 1;
+		String positionAttribute = isHorizontal ? "y" : "x";
+		double labelOffset = sign * (Math.max(innerTickSize, 0) + tickPadding);
+
+		for (double tick : ticks) {
+			double position = scale.applyAsDouble(tick);
+			PathStringBuilder translation = new PathStringBuilder().append("translate(");
+			if (isHorizontal) {
+				translation.appendPoint(position, 0);
+			} else {
+				translation.appendPoint(0, position);
+			}
+			translation.append(')');
+			CanvasSelection tickGroup = selection.append("g") //
+					.attr("class", "tick") //
+					.attr("transform", translation.toString());
+			tickGroup.append("line") //
+					.attr(isHorizontal ? "y2" : "x2", sign * innerTickSize) //
+					.attr("stroke", "black");
+			CanvasSelection label = tickGroup.append("text") //
+					.attr(positionAttribute, labelOffset) //
+					.attr("font-size", 10) //
+					.text(format.apply(tick));
+			if (isHorizontal) {
+				label.attr("dy", sign < 0 ? "0em" : ".71em").attr("text-anchor", "middle");
+			} else {
+				label.attr("dy", ".32em").attr("text-anchor", sign < 0 ? "end" : "start");
+			}
+		}
+
+		double[] range = scale.rangeAsDoubles();
+		double rangeStart = range[0];
+		double rangeEnd = range[range.length - 1];
+		double outerTick = sign * outerTickSize;
+		PathStringBuilder domainPath = new PathStringBuilder();
+		if (isHorizontal) {
+			domainPath.moveTo(rangeStart, outerTick).verticalLineTo(0).horizontalLineTo(rangeEnd)
+					.verticalLineTo(outerTick);
+		} else {
+			domainPath.moveTo(outerTick, rangeStart).horizontalLineTo(0).verticalLineTo(rangeEnd)
+					.horizontalLineTo(outerTick);
+		}
+		selection.append("path") //
+				.attr("class", "domain") //
+				.attr("d", domainPath.toString()) //
+				.attr("fill", "none") //
+				.attr("stroke", "black");
+	}
+
+	/**
+	 * Creates a format with a fixed number of decimals that is derived from
+	 * the tick step, like the default tick format of a d3 linear scale
+	 */
+	private static DoubleFunction<String> createDefaultFormat(double[] ticks) {
+		double step = ticks.length > 1 ? Math.abs(ticks[1] - ticks[0]) : 1;
+		int numberOfDecimals = (int) Math.max(0, -Math.floor(Math.log10(step) + 0.01));
+		String pattern = "%,." + numberOfDecimals + "f";
+		return (value) -> String.format(Locale.ROOT, pattern, value);
+	}
+
+	//#end region
+
+}
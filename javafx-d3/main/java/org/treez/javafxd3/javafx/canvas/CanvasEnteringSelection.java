@@ -0,0 +1,87 @@
+package org.treez.javafxd3.javafx.canvas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.treez.javafxd3.javafx.canvas.CanvasSelection.EnterGroup;
+import org.treez.javafxd3.javafx.canvas.CanvasSelection.Group;
+
+/**
+ * The data of a {@link CanvasUpdateSelection} for which nodes have to be
+ * created. Like in d3, the appended nodes are also added to the update
+ * selection.
+ */
+public class CanvasEnteringSelection {
+
+	//#region ATTRIBUTES
+
+	private final List<EnterGroup> enterGroups;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	protected CanvasEnteringSelection(List<EnterGroup> enterGroups) {
+		this.enterGroups = enterGroups;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Appends a node with the given name for each entering datum to the parent
+	 * of its group
+	 *
+	 * @param name
+	 *            the element name, e.g. circle
+	 * @return the selection of the new nodes
+	 */
+	public CanvasSelection append(String name) {
+		List<Group> appendedGroups = new ArrayList<>(enterGroups.size());
+		for (EnterGroup group : enterGroups) {
+			SceneNode[] appendedNodes = new SceneNode[group.values.length];
+			for (int index = 0; index < group.values.length; index++) {
+				if (!group.isEntering[index]) {
+					continue;
+				}
+				if (group.parent == null) {
+					String message = "Nodes can only be entered into a selection that has a parent node.";
+					throw new IllegalStateException(message);
+				}
+				SceneNode node = group.parent.append(name);
+				node.setDatum(group.values[index]);
+				appendedNodes[index] = node;
+				group.updateNodes[index] = node;
+			}
+			appendedGroups.add(new Group(group.parent, appendedNodes));
+		}
+		return new CanvasSelection(appendedGroups);
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	/**
+	 * Returns the number of entering data
+	 */
+	public int size() {
+		int size = 0;
+		for (EnterGroup group : enterGroups) {
+			for (boolean isEntering : group.isEntering) {
+				if (isEntering) {
+					size++;
+				}
+			}
+		}
+		return size;
+	}
+
+	public boolean empty() {
+		return size() == 0;
+	}
+
+	//#end region
+
+}
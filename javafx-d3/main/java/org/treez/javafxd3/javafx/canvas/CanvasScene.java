@@ -0,0 +1,233 @@
+package org.treez.javafxd3.javafx.canvas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.paint.Paint;
+
+/**
+ * A retained scene of {@link SceneNode}s that is drawn on a JavaFX
+ * {@link Canvas} instead of a WebView. The scene is built and modified with
+ * the same calls as a d3 {@link org.treez.javafxd3.d3.core.Selection}
+ * (select, append, attr, style, data, enter, exit, remove), see
+ * {@link CanvasSelection}. Together with the scale mirrors, the Java path
+ * generators and {@link CanvasAxis}, charts can be created without a
+ * JavaScript engine.
+ * <p>
+ * Modified nodes are marked as dirty; at the beginning of the next JavaFX
+ * pulse the region that contains the old and new bounds of the dirty nodes is
+ * repainted, so all modifications between two pulses are painted at once.
+ * The scene must be modified on the JavaFX application thread.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * {@code
+ * CanvasScene scene = new CanvasScene(800, 600);
+ * pane.getChildren().add(scene.getCanvas());
+ * scene.root().selectAll("circle").data(points).enter().append("circle")
+ * 		.attr("cx", (context, datum, index) -> xScale.applyAsDouble(...))
+ * 		.attr("r", 2);
+ * }
+ * </pre>
+ */
+public class CanvasScene {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * If more nodes are modified between two repaints, the whole canvas is
+	 * repainted instead of computing the dirty region
+	 */
+	public static final int MAX_NUMBER_OF_DIRTY_NODES = 10000;
+
+	private final Canvas canvas;
+
+	private final SceneNode root;
+
+	private final SceneRenderer renderer = new SceneRenderer();
+
+	private Paint background;
+
+	private List<SceneNode> dirtyNodes = new ArrayList<>();
+
+	/**
+	 * The bounds of removed nodes that have to be repainted
+	 */
+	private double[] dirtyBounds;
+
+	private boolean isFullRepaintRequired = true;
+
+	private boolean isRepaintScheduled = false;
+
+	/**
+	 * Repaints the scene once at the beginning of the next pulse; created
+	 * when the first repaint is scheduled
+	 */
+	private AnimationTimer pulseRepaint;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	/**
+	 * @param width
+	 * @param height
+	 */
+	public CanvasScene(double width, double height) {
+		canvas = new Canvas(width, height);
+		root = new SceneNode(this, "svg");
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Returns a selection that contains the root node
+	 */
+	public CanvasSelection root() {
+		return CanvasSelection.of(root);
+	}
+
+	/**
+	 * Selects the first node that matches the given selector, see
+	 * {@link SceneNode#matches(String)}
+	 */
+	public CanvasSelection select(String selector) {
+		return root().select(selector);
+	}
+
+	/**
+	 * Selects all nodes that match the given selector
+	 */
+	public CanvasSelection selectAll(String selector) {
+		return root().selectAll(selector);
+	}
+
+	/**
+	 * Changes the size of the canvas and repaints the whole scene
+	 */
+	public void setSize(double width, double height) {
+		canvas.setWidth(width);
+		canvas.setHeight(height);
+		requestFullRepaint();
+	}
+
+	/**
+	 * Sets the paint of the background; null for a transparent background
+	 */
+	public void setBackground(Paint background) {
+		this.background = background;
+		requestFullRepaint();
+	}
+
+	/**
+	 * Repaints the whole scene on the next pulse
+	 */
+	public void requestFullRepaint() {
+		isFullRepaintRequired = true;
+		scheduleRepaint();
+	}
+
+	void nodeChanged(SceneNode node) {
+		if (dirtyNodes.size() < MAX_NUMBER_OF_DIRTY_NODES) {
+			dirtyNodes.add(node);
+		} else {
+			isFullRepaintRequired = true;
+		}
+		scheduleRepaint();
+	}
+
+	void addDirtyBounds(double[] bounds) {
+		dirtyBounds = SceneRenderer.union(dirtyBounds, bounds);
+		scheduleRepaint();
+	}
+
+	private void scheduleRepaint() {
+		if (!isRepaintScheduled) {
+			isRepaintScheduled = true;
+			if (pulseRepaint == null) {
+				pulseRepaint = new AnimationTimer() {
+
+					@Override
+					public void handle(long now) {
+						repaint();
+					}
+				};
+			}
+			pulseRepaint.start();
+		}
+	}
+
+	/**
+	 * Repaints the dirty region immediately; usually, this is done
+	 * automatically at the beginning of the next pulse
+	 */
+	public void repaint() {
+		if (isRepaintScheduled) {
+			isRepaintScheduled = false;
+			pulseRepaint.stop();
+		}
+		double width = canvas.getWidth();
+		double height = canvas.getHeight();
+		double[] region = getDirtyRegion(width, height);
+		dirtyBounds = null;
+		dirtyNodes = new ArrayList<>();
+		isFullRepaintRequired = false;
+		if (region == null) {
+			return;
+		}
+
+		// include anti-aliased pixels and clip to the canvas
+		region[0] = Math.max(0, Math.floor(region[0]) - 1);
+		region[1] = Math.max(0, Math.floor(region[1]) - 1);
+		region[2] = Math.min(width, Math.ceil(region[2]) + 1);
+		region[3] = Math.min(height, Math.ceil(region[3]) + 1);
+		boolean isEmpty = region[0] >= region[2] || region[1] >= region[3];
+		if (isEmpty) {
+			return;
+		}
+		renderer.paint(canvas.getGraphicsContext2D(), root, region, background);
+	}
+
+	private double[] getDirtyRegion(double width, double height) {
+		if (isFullRepaintRequired) {
+			return new double[] { 0, 0, width, height };
+		}
+		double[] region = dirtyBounds == null ? null : dirtyBounds.clone();
+		for (SceneNode node : dirtyNodes) {
+			region = SceneRenderer.union(region, node.getPaintedBounds());
+			boolean isAttached = isAttached(node);
+			if (isAttached) {
+				region = SceneRenderer.union(region, renderer.computeBounds(node));
+			}
+		}
+		return region;
+	}
+
+	private boolean isAttached(SceneNode node) {
+		SceneNode ancestor = node;
+		while (ancestor.getParent() != null) {
+			ancestor = ancestor.getParent();
+		}
+		return ancestor == root;
+	}
+
+	//#end region
+
+	//#region ACCESSORS
+
+	public Canvas getCanvas() {
+		return canvas;
+	}
+
+	public SceneNode getRoot() {
+		return root;
+	}
+
+	//#end region
+
+}
@@ -0,0 +1,515 @@
+package org.treez.javafxd3.javafx.canvas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.treez.javafxd3.d3.functions.DataFunction;
+import org.treez.javafxd3.d3.functions.KeyFunction;
+
+/**
+ * A selection of {@link SceneNode}s of a {@link CanvasScene} with the core API
+ * of a d3 {@link org.treez.javafxd3.d3.core.Selection}. Like in d3, a
+ * selection is an array of groups: {@link #selectAll(String)} creates a group
+ * for each selected node and {@link #data(List)} joins the data to each
+ * group. The callbacks are called with the node as context, the bound Java
+ * datum and the index in the group.
+ */
+public class CanvasSelection {
+
+	//#region ATTRIBUTES
+
+	protected final List<Group> groups;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	protected CanvasSelection(List<Group> groups) {
+		this.groups = groups;
+	}
+
+	/**
+	 * Creates a selection that contains the given node
+	 */
+	public static CanvasSelection of(SceneNode node) {
+		Group group = new Group(node.getParent(), new SceneNode[] { node });
+		return new CanvasSelection(Collections.singletonList(group));
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	//#region SELECTION
+
+	/**
+	 * For each node, selects the first descendant that matches the given
+	 * selector; the datum of the node is propagated to the descendant
+	 */
+	public CanvasSelection select(String selector) {
+		List<Group> selectedGroups = new ArrayList<>(groups.size());
+		for (Group group : groups) {
+			SceneNode[] selectedNodes = new SceneNode[group.nodes.length];
+			for (int index = 0; index < group.nodes.length; index++) {
+				SceneNode node = group.nodes[index];
+				if (node == null) {
+					continue;
+				}
+				List<SceneNode> matchingNodes = new ArrayList<>(1);
+				node.collectDescendants(selector, matchingNodes, true);
+				if (!matchingNodes.isEmpty()) {
+					SceneNode selectedNode = matchingNodes.get(0);
+					if (node.getDatum() != null) {
+						selectedNode.setDatum(node.getDatum());
+					}
+					selectedNodes[index] = selectedNode;
+				}
+			}
+			selectedGroups.add(new Group(group.parent, selectedNodes));
+		}
+		return new CanvasSelection(selectedGroups);
+	}
+
+	/**
+	 * For each node, selects all descendants that match the given selector;
+	 * each node becomes the parent of a new group
+	 */
+	public CanvasSelection selectAll(String selector) {
+		List<Group> selectedGroups = new ArrayList<>();
+		for (Group group : groups) {
+			for (SceneNode node : group.nodes) {
+				if (node == null) {
+					continue;
+				}
+				List<SceneNode> matchingNodes = new ArrayList<>();
+				node.collectDescendants(selector, matchingNodes, false);
+				selectedGroups.add(new Group(node, matchingNodes.toArray(new SceneNode[matchingNodes.size()])));
+			}
+		}
+		return new CanvasSelection(selectedGroups);
+	}
+
+	//#end region
+
+	//#region TREE
+
+	/**
+	 * Appends a new child with the given name to each node; the datum of the
+	 * node is propagated to the child
+	 *
+	 * @param name
+	 *            the element name, e.g. circle
+	 * @return the selection of the new children
+	 */
+	public CanvasSelection append(String name) {
+		List<Group> appendedGroups = new ArrayList<>(groups.size());
+		for (Group group : groups) {
+			SceneNode[] appendedNodes = new SceneNode[group.nodes.length];
+			for (int index = 0; index < group.nodes.length; index++) {
+				SceneNode node = group.nodes[index];
+				if (node != null) {
+					SceneNode child = node.append(name);
+					child.setDatum(node.getDatum());
+					appendedNodes[index] = child;
+				}
+			}
+			appendedGroups.add(new Group(group.parent, appendedNodes));
+		}
+		return new CanvasSelection(appendedGroups);
+	}
+
+	/**
+	 * Removes the selected nodes from the scene
+	 *
+	 * @return this selection
+	 */
+	public CanvasSelection remove() {
+		for (SceneNode node : nodes()) {
+			node.remove();
+		}
+		return this;
+	}
+
+	//#end region
+
+	//#region ATTRIBUTES AND STYLES
+
+	/**
+	 * Returns the attribute of the first node or null
+	 */
+	public String attr(String name) {
+		SceneNode node = node();
+		return node == null ? null : node.getAttribute(name);
+	}
+
+	/**
+	 * Sets the attribute of all nodes; null removes the attribute
+	 */
+	public CanvasSelection attr(String name, String value) {
+		for (SceneNode node : nodes()) {
+			node.setAttribute(name, value);
+		}
+		return this;
+	}
+
+	public CanvasSelection attr(String name, double value) {
+		Double boxedValue = value;
+		for (SceneNode node : nodes()) {
+			node.setAttribute(name, boxedValue);
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the attribute of each node to the value of the given function;
+	 * numbers are stored without conversion and null removes the attribute
+	 */
+	public CanvasSelection attr(String name, DataFunction<?> callback) {
+		forEach((node, index) -> node.setAttribute(name, toValue(callback.apply(node, node.getDatum(), index))));
+		return this;
+	}
+
+	/**
+	 * Returns the style of the first node or null
+	 */
+	public String style(String name) {
+		SceneNode node = node();
+		return node == null ? null : node.getStyle(name);
+	}
+
+	/**
+	 * Sets the style of all nodes; null removes the style
+	 */
+	public CanvasSelection style(String name, String value) {
+		for (SceneNode node : nodes()) {
+			node.setStyle(name, value);
+		}
+		return this;
+	}
+
+	public CanvasSelection style(String name, double value) {
+		Double boxedValue = value;
+		for (SceneNode node : nodes()) {
+			node.setStyle(name, boxedValue);
+		}
+		return this;
+	}
+
+	public CanvasSelection style(String name, DataFunction<?> callback) {
+		forEach((node, index) -> node.setStyle(name, toValue(callback.apply(node, node.getDatum(), index))));
+		return this;
+	}
+
+	/**
+	 * Adds the class to or removes the class from the class attribute of all
+	 * nodes
+	 */
+	public CanvasSelection classed(String className, boolean isAdded) {
+		for (SceneNode node : nodes()) {
+			boolean hasClass = node.hasClass(className);
+			if (isAdded && !hasClass) {
+				String classes = node.getAttribute("class");
+				node.setAttribute("class", classes == null ? className : classes + " " + className);
+			} else if (!isAdded && hasClass) {
+				List<String> classes = new ArrayList<>(Arrays.asList(node.getAttribute("class").trim().split("\\s+")));
+				classes.remove(className);
+				node.setAttribute("class", classes.isEmpty() ? null : String.join(" ", classes));
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the text of the first node or null
+	 */
+	public String text() {
+		SceneNode node = node();
+		return node == null ? null : node.getText();
+	}
+
+	public CanvasSelection text(String text) {
+		for (SceneNode node : nodes()) {
+			node.setText(text);
+		}
+		return this;
+	}
+
+	public CanvasSelection text(DataFunction<?> callback) {
+		forEach((node, index) -> {
+			Object text = callback.apply(node, node.getDatum(), index);
+			node.setText(text == null ? null : text.toString());
+		});
+		return this;
+	}
+
+	private static Object toValue(Object result) {
+		if (result == null) {
+			return null;
+		}
+		if (result instanceof Number) {
+			return ((Number) result).doubleValue();
+		}
+		return result.toString();
+	}
+
+	//#end region
+
+	//#region DATA
+
+	/**
+	 * Returns the datum of the first node or null
+	 */
+	public Object datum() {
+		SceneNode node = node();
+		return node == null ? null : node.getDatum();
+	}
+
+	/**
+	 * Binds the given datum to all nodes without computing a join
+	 */
+	public CanvasSelection datum(Object datum) {
+		for (SceneNode node : nodes()) {
+			node.setDatum(datum);
+		}
+		return this;
+	}
+
+	/**
+	 * Joins the given data to each group by index
+	 */
+	public CanvasUpdateSelection data(List<?> values) {
+		return data(values, null);
+	}
+
+	public CanvasUpdateSelection data(Object[] values) {
+		return data(Arrays.asList(values), null);
+	}
+
+	public CanvasUpdateSelection data(Object[] values, KeyFunction<?> keyFunction) {
+		return data(Arrays.asList(values), keyFunction);
+	}
+
+	/**
+	 * Joins the given data to each group by key. The key function is called
+	 * for each node with the node as context and null as data array and for
+	 * each datum with the data list as context and as data array. The keys are
+	 * compared as strings.
+	 *
+	 * @param values
+	 * @param keyFunction
+	 *            the key function or null to join by index
+	 * @return the update selection
+	 */
+	public CanvasUpdateSelection data(List<?> values, KeyFunction<?> keyFunction) {
+		int numberOfGroups = groups.size();
+		List<Group> updateGroups = new ArrayList<>(numberOfGroups);
+		List<EnterGroup> enterGroups = new ArrayList<>(numberOfGroups);
+		List<Group> exitGroups = new ArrayList<>(numberOfGroups);
+		for (Group group : groups) {
+			SceneNode[] nodes = group.nodes;
+			int numberOfValues = values.size();
+			SceneNode[] updateNodes = new SceneNode[numberOfValues];
+			boolean[] isEntering = new boolean[numberOfValues];
+			SceneNode[] exitNodes = new SceneNode[nodes.length];
+
+			if (keyFunction == null) {
+				joinByIndex(nodes, values, updateNodes, isEntering, exitNodes);
+			} else {
+				joinByKey(nodes, values, keyFunction, updateNodes, isEntering, exitNodes);
+			}
+
+			updateGroups.add(new Group(group.parent, updateNodes));
+			enterGroups.add(new EnterGroup(group.parent, values.toArray(), isEntering, updateNodes));
+			exitGroups.add(new Group(group.parent, exitNodes));
+		}
+		return new CanvasUpdateSelection(updateGroups, enterGroups, exitGroups);
+	}
+
+	private static void joinByIndex(SceneNode[] nodes, List<?> values, SceneNode[] updateNodes,
+			boolean[] isEntering, SceneNode[] exitNodes) {
+		int numberOfValues = values.size();
+		int numberOfCommonItems = Math.min(nodes.length, numberOfValues);
+		for (int index = 0; index < numberOfCommonItems; index++) {
+			SceneNode node = nodes[index];
+			if (node == null) {
+				isEntering[index] = true;
+			} else {
+				node.setDatum(values.get(index));
+				updateNodes[index] = node;
+			}
+		}
+		for (int index = numberOfCommonItems; index < numberOfValues; index++) {
+			isEntering[index] = true;
+		}
+		for (int index = numberOfCommonItems; index < nodes.length; index++) {
+			exitNodes[index] = nodes[index];
+		}
+	}
+
+	private static void joinByKey(SceneNode[] nodes, List<?> values, KeyFunction<?> keyFunction,
+			SceneNode[] updateNodes, boolean[] isEntering, SceneNode[] exitNodes) {
+		Map<String, SceneNode> nodesByKey = new HashMap<>(2 * nodes.length);
+		String[] nodeKeys = new String[nodes.length];
+		for (int index = 0; index < nodes.length; index++) {
+			SceneNode node = nodes[index];
+			if (node == null) {
+				continue;
+			}
+			String key = String.valueOf(keyFunction.call(node, null, node.getDatum(), index));
+			nodeKeys[index] = key;
+			boolean isDuplicate = nodesByKey.containsKey(key);
+			if (isDuplicate) {
+				exitNodes[index] = node;
+			} else {
+				nodesByKey.put(key, node);
+			}
+		}
+
+		for (int index = 0; index < values.size(); index++) {
+			Object value = values.get(index);
+			String key = String.valueOf(keyFunction.call(values, values, value, index));
+			SceneNode node = nodesByKey.remove(key);
+			if (node == null) {
+				isEntering[index] = true;
+			} else {
+				node.setDatum(value);
+				updateNodes[index] = node;
+			}
+		}
+
+		for (int index = 0; index < nodes.length; index++) {
+			String key = nodeKeys[index];
+			boolean isUnused = key != null && nodesByKey.get(key) == nodes[index];
+			if (isUnused) {
+				exitNodes[index] = nodes[index];
+			}
+		}
+	}
+
+	/**
+	 * Calls the given function for each node
+	 */
+	public CanvasSelection each(DataFunction<?> callback) {
+		forEach((node, index) -> callback.apply(node, node.getDatum(), index));
+		return this;
+	}
+
+	private void forEach(NodeConsumer consumer) {
+		for (Group group : groups) {
+			for (int index = 0; index < group.nodes.length; index++) {
+				SceneNode node = group.nodes[index];
+				if (node != null) {
+					consumer.accept(node, index);
+				}
+			}
+		}
+	}
+
+	//#end region
+
+	//#end region
+
+	//#region ACCESSORS
+
+	/**
+	 * Returns the first node or null if the selection is empty
+	 */
+	public SceneNode node() {
+		for (Group group : groups) {
+			for (SceneNode node : group.nodes) {
+				if (node != null) {
+					return node;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns all nodes of all groups
+	 */
+	public List<SceneNode> nodes() {
+		List<SceneNode> nodes = new ArrayList<>();
+		for (Group group : groups) {
+			for (SceneNode node : group.nodes) {
+				if (node != null) {
+					nodes.add(node);
+				}
+			}
+		}
+		return nodes;
+	}
+
+	public int size() {
+		int size = 0;
+		for (Group group : groups) {
+			for (SceneNode node : group.nodes) {
+				if (node != null) {
+					size++;
+				}
+			}
+		}
+		return size;
+	}
+
+	public boolean empty() {
+		return node() == null;
+	}
+
+	//#end region
+
+	//#region GROUPS
+
+	/**
+	 * The nodes of a selection that have the same parent; may contain null
+	 * for missing nodes
+	 */
+	protected static class Group {
+
+		protected final SceneNode parent;
+
+		protected final SceneNode[] nodes;
+
+		protected Group(SceneNode parent, SceneNode[] nodes) {
+			this.parent = parent;
+			this.nodes = nodes;
+		}
+
+	}
+
+	/**
+	 * The data of a group for which nodes have to be created. The created
+	 * nodes are also added to the nodes of the update group.
+	 */
+	protected static class EnterGroup {
+
+		protected final SceneNode parent;
+
+		protected final Object[] values;
+
+		protected final boolean[] isEntering;
+
+		protected final SceneNode[] updateNodes;
+
+		protected EnterGroup(SceneNode parent, Object[] values, boolean[] isEntering, SceneNode[] updateNodes) {
+			this.parent = parent;
+			this.values = values;
+			this.isEntering = isEntering;
+			this.updateNodes = updateNodes;
+		}
+
+	}
+
+	private interface NodeConsumer {
+
+		void accept(SceneNode node, int index);
+
+	}
+
+	//#end region
+
+}
@@ -0,0 +1,49 @@
+package org.treez.javafxd3.javafx.canvas;
+
+import java.util.List;
+
+/**
+ * The result of a data join of a {@link CanvasSelection}: the nodes that have
+ * been joined to data, together with the data that have no nodes yet
+ * ({@link #enter()}) and the nodes that have no data anymore
+ * ({@link #exit()}).
+ */
+public class CanvasUpdateSelection extends CanvasSelection {
+
+	//#region ATTRIBUTES
+
+	private final List<EnterGroup> enterGroups;
+
+	private final List<Group> exitGroups;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	protected CanvasUpdateSelection(List<Group> groups, List<EnterGroup> enterGroups, List<Group> exitGroups) {
+		super(groups);
+		this.enterGroups = enterGroups;
+		this.exitGroups = exitGroups;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Returns the data for which nodes have to be created
+	 */
+	public CanvasEnteringSelection enter() {
+		return new CanvasEnteringSelection(enterGroups);
+	}
+
+	/**
+	 * Returns the nodes whose data have been removed
+	 */
+	public CanvasSelection exit() {
+		return new CanvasSelection(exitGroups);
+	}
+
+	//#end region
+
+}
@@ -0,0 +1,229 @@
+package org.treez.javafxd3.javafx.canvas;
+
+/**
+ * Computes conservative bounds of SVG path data: the bounds include all end
+ * and control points; arcs are enclosed by the boxes around their end points
+ * with twice the larger radius.
+ */
+public final class PathBounds {
+
+	//#region CONSTRUCTORS
+
+	private PathBounds() {
+		// utility class
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Computes the bounds of the given path data
+	 *
+	 * @param pathData
+	 * @param bounds
+	 *            receives min x, min y, max x, max y
+	 * @return false if the path data is empty
+	 */
+	public static boolean compute(String pathData, double[] bounds) {
+		if (pathData == null) {
+			return false;
+		}
+		Tokenizer tokenizer = new Tokenizer(pathData);
+		bounds[0] = Double.POSITIVE_INFINITY;
+		bounds[1] = Double.POSITIVE_INFINITY;
+		bounds[2] = Double.NEGATIVE_INFINITY;
+		bounds[3] = Double.NEGATIVE_INFINITY;
+
+		double x = 0;
+		double y = 0;
+		double startX = 0;
+		double startY = 0;
+		char command = 'M';
+		while (tokenizer.hasNext()) {
+			if (tokenizer.isCommand()) {
+				command = tokenizer.nextCommand();
+				if (command == 'Z' || command == 'z') {
+					x = startX;
+					y = startY;
+					continue;
+				}
+			}
+			if (!tokenizer.hasNumber()) {
+				tokenizer.skip();
+				continue;
+			}
+			boolean isRelative = Character.isLowerCase(command);
+			double offsetX = isRelative ? x : 0;
+			double offsetY = isRelative ? y : 0;
+			switch (Character.toUpperCase(command)) {
+			case 'M':
+			case 'L':
+			case 'T':
+				x = offsetX + tokenizer.nextNumber();
+				y = offsetY + tokenizer.nextNumber();
+				if (Character.toUpperCase(command) == 'M') {
+					startX = x;
+					startY = y;
+					// subsequent pairs are implicit line commands
+					command = isRelative ? 'l' : 'L';
+				}
+				break;
+			case 'H':
+				x = offsetX + tokenizer.nextNumber();
+				break;
+			case 'V':
+				y = offsetY + tokenizer.nextNumber();
+				break;
+			case 'C':
+				add(bounds, offsetX + tokenizer.nextNumber(), offsetY + tokenizer.nextNumber());
+				add(bounds, offsetX + tokenizer.nextNumber(), offsetY + tokenizer.nextNumber());
+				x = offsetX + tokenizer.nextNumber();
+				y = offsetY + tokenizer.nextNumber();
+				break;
+			case 'S':
+			case 'Q':
+				add(bounds, offsetX + tokenizer.nextNumber(), offsetY + tokenizer.nextNumber());
+				x = offsetX + tokenizer.nextNumber();
+				y = offsetY + tokenizer.nextNumber();
+				break;
+			case 'A': {
+				double radius = 2 * Math.max(Math.abs(tokenizer.nextNumber()), Math.abs(tokenizer.nextNumber()));
+				tokenizer.nextNumber();
+				tokenizer.nextFlag();
+				tokenizer.nextFlag();
+				add(bounds, x - radius, y - radius);
+				add(bounds, x + radius, y + radius);
+				x = offsetX + tokenizer.nextNumber();
+				y = offsetY + tokenizer.nextNumber();
+				add(bounds, x - radius, y - radius);
+				add(bounds, x + radius, y + radius);
+				break;
+			}
+			default:
+				tokenizer.skip();
+				continue;
+			}
+			add(bounds, x, y);
+		}
+		return bounds[0] <= bounds[2];
+	}
+
+	private static void add(double[] bounds, double x, double y) {
+		if (Double.isNaN(x) || Double.isNaN(y)) {
+			return;
+		}
+		bounds[0] = Math.min(bounds[0], x);
+		bounds[1] = Math.min(bounds[1], y);
+		bounds[2] = Math.max(bounds[2], x);
+		bounds[3] = Math.max(bounds[3], y);
+	}
+
+	//#end region
+
+	//#region TOKENIZER
+
+	/**
+	 * Splits path data into commands and numbers
+	 */
+	private static class Tokenizer {
+
+		private final String text;
+
+		private int index = 0;
+
+		Tokenizer(String text) {
+			this.text = text;
+			skipSeparators();
+		}
+
+		boolean hasNext() {
+			return index < text.length();
+		}
+
+		boolean isCommand() {
+			char character = text.charAt(index);
+			return Character.isLetter(character) && character != 'e' && character != 'E';
+		}
+
+		boolean hasNumber() {
+			return hasNext() && !isCommand();
+		}
+
+		char nextCommand() {
+			char command = text.charAt(index++);
+			skipSeparators();
+			return command;
+		}
+
+		/**
+		 * Returns the next number or NaN if there is none
+		 */
+		double nextNumber() {
+			if (!hasNumber()) {
+				return Double.NaN;
+			}
+			int start = index;
+			int length = text.length();
+			if (text.charAt(index) == '+' || text.charAt(index) == '-') {
+				index++;
+			}
+			boolean hasDecimalPoint = false;
+			while (index < length) {
+				char character = text.charAt(index);
+				if (Character.isDigit(character)) {
+					index++;
+				} else if (character == '.' && !hasDecimalPoint) {
+					hasDecimalPoint = true;
+					index++;
+				} else if ((character == 'e' || character == 'E') && index + 1 < length) {
+					index++;
+					if (text.charAt(index) == '+' || text.charAt(index) == '-') {
+						index++;
+					}
+				} else {
+					break;
+				}
+			}
+			double value;
+			try {
+				value = Double.parseDouble(text.substring(start, index));
+			} catch (NumberFormatException exception) {
+				index = Math.max(index, start + 1);
+				value = Double.NaN;
+			}
+			skipSeparators();
+			return value;
+		}
+
+		/**
+		 * Reads an arc flag, which may be written without separator
+		 */
+		void nextFlag() {
+			if (hasNumber()) {
+				index++;
+				skipSeparators();
+			}
+		}
+
+		void skip() {
+			index++;
+			skipSeparators();
+		}
+
+		private void skipSeparators() {
+			while (index < text.length()) {
+				char character = text.charAt(index);
+				boolean isSeparator = character == ',' || Character.isWhitespace(character);
+				if (!isSeparator) {
+					return;
+				}
+				index++;
+			}
+		}
+
+	}
+
+	//#end region
+
+}
@@ -0,0 +1,428 @@
+package org.treez.javafxd3.javafx.canvas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An element of a {@link CanvasScene}, e.g. a circle or a group. Like an SVG
+ * element, a node has a name, attributes, styles, an optional text and the
+ * datum that has been bound by a data join. The attributes and styles are
+ * stored in small arrays instead of maps, since scenes with a million nodes
+ * are expected.
+ * <p>
+ * The nodes are modified through a {@link CanvasSelection}; each modification
+ * marks the node as dirty, so that only the affected region of the canvas is
+ * repainted.
+ */
+public class SceneNode {
+
+	//#region ATTRIBUTES
+
+	private final String name;
+
+	private final CanvasScene scene;
+
+	private SceneNode parent;
+
+	private List<SceneNode> children;
+
+	/**
+	 * Is true if children have been removed; they are removed from the list
+	 * of children lazily, so that removing many nodes takes linear time
+	 */
+	private boolean hasRemovedChildren = false;
+
+	/**
+	 * The attributes; the values are strings or doubles
+	 */
+	private PropertyList attributes;
+
+	/**
+	 * The styles; the values are strings or doubles
+	 */
+	private PropertyList styles;
+
+	private String text;
+
+	private Object datum;
+
+	private boolean isDirty = false;
+
+	/**
+	 * Is true if a descendant is dirty
+	 */
+	private boolean isSubtreeDirty = false;
+
+	/**
+	 * The bounds of the node in canvas coordinates when it has been painted
+	 * the last time: min x, min y, max x, max y; null if the node has not been
+	 * painted yet
+	 */
+	private double[] paintedBounds;
+
+	//#end region
+
+	//#region CONSTRUCTORS
+
+	SceneNode(CanvasScene scene, String name) {
+		this.scene = scene;
+		this.name = name;
+	}
+
+	//#end region
+
+	//#region METHODS
+
+	//#region TREE
+
+	/**
+	 * Appends a new child with the given name
+	 */
+	SceneNode append(String childName) {
+		SceneNode child = new SceneNode(scene, childName);
+		child.parent = this;
+		if (children == null) {
+			children = new ArrayList<>();
+		}
+		removeDetachedChildren();
+		children.add(child);
+		child.changed();
+		return child;
+	}
+
+	/**
+	 * Removes this node from its parent
+	 */
+	void remove() {
+		if (parent == null) {
+			return;
+		}
+		scene.addDirtyBounds(paintedBounds);
+		parent.hasRemovedChildren = true;
+		parent = null;
+	}
+
+	private void removeDetachedChildren() {
+		if (hasRemovedChildren) {
+			children.removeIf((child) -> child.parent != this);
+			hasRemovedChildren = false;
+		}
+	}
+
+	/**
+	 * Returns true if this node matches the given simple selector: a name, a
+	 * class (.name), an id (#name) or a combination like circle.point
+	 */
+	public boolean matches(String selector) {
+		int index = 0;
+		int length = selector.length();
+		while (index < length) {
+			char prefix = selector.charAt(index);
+			boolean hasPrefix = prefix == '.' || prefix == '#';
+			int start = hasPrefix ? index + 1 : index;
+			int end = start;
+			while (end < length && selector.charAt(end) != '.' && selector.charAt(end) != '#') {
+				end++;
+			}
+			String part = selector.substring(start, end);
+			boolean isMatching;
+			if (prefix == '.') {
+				isMatching = hasClass(part);
+			} else if (prefix == '#') {
+				isMatching = part.equals(getAttribute("id"));
+			} else {
+				isMatching = part.equals("*") || part.equals(name);
+			}
+			if (!isMatching) {
+				return false;
+			}
+			index = end;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if the class attribute contains the given class name
+	 */
+	public boolean hasClass(String className) {
+		String classes = getAttribute("class");
+		if (classes == null) {
+			return false;
+		}
+		for (String existingClass : classes.trim().split("\\s+")) {
+			if (existingClass.equals(className)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the descendants that match the given selector in document order
+	 */
+	void collectDescendants(String selector, List<SceneNode> matchingNodes, boolean isFirstOnly) {
+		if (children == null) {
+			return;
+		}
+		removeDetachedChildren();
+		for (SceneNode child : children) {
+			if (child.matches(selector)) {
+				matchingNodes.add(child);
+				if (isFirstOnly) {
+					return;
+				}
+			}
+			int numberOfMatchingNodes = matchingNodes.size();
+			child.collectDescendants(selector, matchingNodes, isFirstOnly);
+			if (isFirstOnly && matchingNodes.size() > numberOfMatchingNodes) {
+				return;
+			}
+		}
+	}
+
+	//#end region
+
+	//#region PROPERTIES
+
+	void setAttribute(String attributeName, Object value) {
+		if (attributes == null) {
+			attributes = new PropertyList();
+		}
+		attributes.set(attributeName, value);
+		changed();
+	}
+
+	void setStyle(String styleName, Object value) {
+		if (styles == null) {
+			styles = new PropertyList();
+		}
+		styles.set(styleName, value);
+		changed();
+	}
+
+	void setText(String text) {
+		this.text = text;
+		changed();
+	}
+
+	void setDatum(Object datum) {
+		this.datum = datum;
+	}
+
+	private static double toDouble(Object value, double defaultValue) {
+		if (value == null) {
+			return defaultValue;
+		}
+		if (value instanceof Double) {
+			return (Double) value;
+		}
+		String stringValue = value.toString().trim();
+		if (stringValue.endsWith("px")) {
+			stringValue = stringValue.substring(0, stringValue.length() - 2);
+		}
+		try {
+			return Double.parseDouble(stringValue);
+		} catch (NumberFormatException exception) {
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Marks this node as dirty, so that its old and new region are repainted
+	 */
+	void changed() {
+		if (isDirty) {
+			return;
+		}
+		isDirty = true;
+		for (SceneNode ancestor = parent; ancestor != null && !ancestor.isSubtreeDirty; ancestor = ancestor.parent) {
+			ancestor.isSubtreeDirty = true;
+		}
+		scene.nodeChanged(this);
+	}
+
+	//#end region
+
+	//#end region
+
+	//#region ACCESSORS
+
+	public String getName() {
+		return name;
+	}
+
+	public CanvasScene getScene() {
+		return scene;
+	}
+
+	public SceneNode getParent() {
+		return parent;
+	}
+
+	public List<SceneNode> getChildren() {
+		if (children == null) {
+			return Collections.emptyList();
+		}
+		removeDetachedChildren();
+		return Collections.unmodifiableList(children);
+	}
+
+	/**
+	 * Returns the value of the attribute as string or null if the attribute
+	 * is not set
+	 */
+	public String getAttribute(String attributeName) {
+		Object value = get(attributes, attributeName);
+		return value == null ? null : toString(value);
+	}
+
+	/**
+	 * Returns the numeric value of the attribute or the given default value if
+	 * the attribute is not set or not numeric
+	 */
+	public double getNumericAttribute(String attributeName, double defaultValue) {
+		return toDouble(get(attributes, attributeName), defaultValue);
+	}
+
+	/**
+	 * Returns the value of the style as string or null if the style is not set
+	 */
+	public String getStyle(String styleName) {
+		Object value = get(styles, styleName);
+		return value == null ? null : toString(value);
+	}
+
+	/**
+	 * Returns the style or, if the style is not set, the attribute with the
+	 * given name, like a presentation attribute of SVG
+	 */
+	public String getPresentationValue(String propertyName) {
+		Object value = get(styles, propertyName);
+		if (value == null) {
+			value = get(attributes, propertyName);
+		}
+		return value == null ? null : toString(value);
+	}
+
+	/**
+	 * Returns the numeric style or attribute with the given name
+	 */
+	public double getNumericPresentationValue(String propertyName, double defaultValue) {
+		Object value = get(styles, propertyName);
+		if (value == null) {
+			value = get(attributes, propertyName);
+		}
+		return toDouble(value, defaultValue);
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public Object getDatum() {
+		return datum;
+	}
+
+	boolean isDirty() {
+		return isDirty;
+	}
+
+	boolean isSubtreeDirty() {
+		return isSubtreeDirty;
+	}
+
+	void setClean() {
+		isDirty = false;
+		isSubtreeDirty = false;
+	}
+
+	double[] getPaintedBounds() {
+		return paintedBounds;
+	}
+
+	void setPaintedBounds(double[] paintedBounds) {
+		this.paintedBounds = paintedBounds;
+	}
+
+	private static Object get(PropertyList properties, String propertyName) {
+		return properties == null ? null : properties.get(propertyName);
+	}
+
+	private static String toString(Object value) {
+		if (value instanceof Double) {
+			double number = (Double) value;
+			boolean isInteger = number == Math.rint(number) && !Double.isInfinite(number);
+			if (isInteger && Math.abs(number) < 1e15) {
+				return Long.toString((long) number);
+			}
+		}
+		return value.toString();
+	}
+
+	//#end region
+
+	//#region PROPERTY LIST
+
+	/**
+	 * A small map of named values that is stored as flat array: name0, value0,
+	 * name1, value1, ... The names are interned, so that most lookups are
+	 * identity checks.
+	 */
+	private static class PropertyList {
+
+		private Object[] values = new Object[8];
+
+		private int size = 0;
+
+		/**
+		 * Sets, replaces or (if the value is null) removes a value
+		 */
+		void set(String name, Object value) {
+			int index = indexOf(name);
+			boolean exists = index >= 0;
+			if (exists) {
+				if (value == null) {
+					int lastIndex = 2 * (size - 1);
+					values[index] = values[lastIndex];
+					values[index + 1] = values[lastIndex + 1];
+					values[lastIndex] = null;
+					values[lastIndex + 1] = null;
+					size--;
+				} else {
+					values[index + 1] = value;
+				}
+				return;
+			}
+			if (value == null) {
+				return;
+			}
+			if (2 * size == values.length) {
+				values = Arrays.copyOf(values, 2 * values.length);
+			}
+			values[2 * size] = name.intern();
+			values[2 * size + 1] = value;
+			size++;
+		}
+
+		Object get(String name) {
+			int index = indexOf(name);
+			return index < 0 ? null : values[index + 1];
+		}
+
+		private int indexOf(String name) {
+			for (int index = 0; index < 2 * size; index += 2) {
+				Object existingName = values[index];
+				if (existingName == name || existingName.equals(name)) {
+					return index;
+				}
+			}
+			return -1;
+		}
+
+	}
+
+	//#end region
+
+}
@@ -0,0 +1,689 @@
+package org.treez.javafxd3.javafx.canvas;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Paints the nodes of a {@link CanvasScene} on a graphics context and
+ * computes their bounds. The supported elements are g, svg, circle, ellipse,
+ * rect, line, path and text; the supported transforms are translate, scale,
+ * rotate and matrix. The presentation attributes and styles fill, stroke,
+ * stroke-width, opacity, fill-opacity, stroke-opacity, font-size, text-anchor
+ * and display are supported; fill, stroke, stroke-width, font-size and
+ * text-anchor are inherited like in SVG.
+ * <p>
+ * Only the nodes that intersect the repainted region are painted. Subtrees
+ * that did not change and that do not intersect the region are skipped
+ * without visiting their nodes.
+ */
+public class SceneRenderer {
+
+	//#region ATTRIBUTES
+
+	/**
+	 * The default font size of SVG
+	 */
+	public static final double DEFAULT_FONT_SIZE = 16;
+
+	/**
+	 * The approximate width of a character relative to the font size; used to
+	 * estimate the bounds of texts
+	 */
+	private static final double CHARACTER_WIDTH = 0.6;
+
+	private static final int MAX_NUMBER_OF_CACHED_PAINTS = 4096;
+
+	private static final double[] IDENTITY = { 1, 0, 0, 1, 0, 0 };
+
+	private final Map<String, Paint> paintCache = new HashMap<>();
+
+	/**
+	 * The resolved styles by depth; reused to avoid allocations
+	 */
+	private Style[] styles = new Style[0];
+
+	/**
+	 * The transforms by depth: a, b, c, d, e, f for each depth
+	 */
+	private double[] transforms = new double[0];
+
+	private final double[] localBounds = new double[4];
+
+	//#end region
+
+	//#region METHODS
+
+	/**
+	 * Paints the nodes of the given tree that intersect the given region
+	 *
+	 * @param context
+	 * @param root
+	 * @param region
+	 *            min x, min y, max x, max y in canvas coordinates
+	 * @param background
+	 *            the paint of the background or null for a transparent
+	 *            background
+	 */
+	public void paint(GraphicsContext context, SceneNode root, double[] region, Paint background) {
+		context.save();
+		context.beginPath();
+		context.rect(region[0], region[1], region[2] - region[0], region[3] - region[1]);
+		context.clip();
+		context.clearRect(region[0], region[1], region[2] - region[0], region[3] - region[1]);
+		if (background != null) {
+			context.setFill(background);
+			context.fillRect(region[0], region[1], region[2] - region[0], region[3] - region[1]);
+		}
+		ensureDepth(0);
+		System.arraycopy(IDENTITY, 0, transforms, 0, 6);
+		styles[0].reset();
+		paintNode(context, root, 0, region, false);
+		context.restore();
+	}
+
+	/**
+	 * Computes the current bounds of the given node (including its
+	 * descendants) in canvas coordinates
+	 *
+	 * @param node
+	 * @return min x, min y, max x, max y or null if nothing is painted
+	 */
+	public double[] computeBounds(SceneNode node) {
+		double[] transform = IDENTITY.clone();
+		for (SceneNode ancestor = node.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+			double[] ancestorTransform = parseTransform(ancestor.getAttribute("transform"));
+			if (ancestorTransform != null) {
+				transform = multiply(ancestorTransform, transform);
+			}
+		}
+		Style style = new Style();
+		style.reset();
+		for (SceneNode ancestor : getAncestors(node)) {
+			style.resolve(ancestor, style);
+		}
+		return computeBounds(node, transform, style);
+	}
+
+	private double[] computeBounds(SceneNode node, double[] parentTransform, Style parentStyle) {
+		boolean isHidden = "none".equals(node.getPresentationValue("display"));
+		if (isHidden) {
+			return null;
+		}
+		double[] transform = parentTransform;
+		double[] nodeTransform = parseTransform(node.getAttribute("transform"));
+		if (nodeTransform != null) {
+			transform = multiply(parentTransform, nodeTransform);
+		}
+		Style style = new Style();
+		style.resolve(node, parentStyle);
+
+		List<SceneNode> children = node.getChildren();
+		if (children.isEmpty()) {
+			return computeShapeBounds(node, transform, 0, style, new double[4]);
+		}
+		double[] bounds = null;
+		for (SceneNode child : children) {
+			bounds = union(bounds, computeBounds(child, transform, style));
+		}
+		return bounds;
+	}
+
+	private static List<SceneNode> getAncestors(SceneNode node) {
+		LinkedList<SceneNode> ancestors = new LinkedList<>();
+		for (SceneNode ancestor = node.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+			ancestors.addFirst(ancestor);
+		}
+		return ancestors;
+	}
+
+	/**
+	 * Paints the given node and its descendants; returns the bounds of the
+	 * painted node in canvas coordinates
+	 */
+	private double[] paintNode(GraphicsContext context, SceneNode node, int depth, double[] region,
+			boolean isParentChanged) {
+
+		boolean isChanged = isParentChanged || node.isDirty() || node.isSubtreeDirty();
+		double[] paintedBounds = node.getPaintedBounds();
+		boolean isSkipped = !isChanged && (paintedBounds == null || !intersects(paintedBounds, region));
+		if (isSkipped) {
+			return paintedBounds;
+		}
+		boolean isAncestorChanged = isParentChanged || node.isDirty();
+		node.setClean();
+
+		boolean isHidden = "none".equals(node.getPresentationValue("display"));
+		if (isHidden) {
+			node.setPaintedBounds(null);
+			return null;
+		}
+
+		ensureDepth(depth + 1);
+		Style parentStyle = styles[depth];
+		Style style = styles[depth + 1];
+		style.resolve(node, parentStyle);
+
+		int transformOffset = 6 * depth;
+		int childTransformOffset = 6 * (depth + 1);
+		System.arraycopy(transforms, transformOffset, transforms, childTransformOffset, 6);
+		double[] nodeTransform = parseTransform(node.getAttribute("transform"));
+		if (nodeTransform != null) {
+			multiplyInPlace(transforms, childTransformOffset, nodeTransform);
+			context.save();
+			context.transform(nodeTransform[0], nodeTransform[1], nodeTransform[2], nodeTransform[3],
+					nodeTransform[4], nodeTransform[5]);
+		}
+
+		double[] bounds = null;
+		List<SceneNode> children = node.getChildren();
+		if (children.isEmpty()) {
+			bounds = computeShapeBounds(node, transforms, childTransformOffset, style, new double[4]);
+			boolean isVisible = bounds != null && intersects(bounds, region);
+			if (isVisible) {
+				paintShape(context, node, style);
+			}
+		} else {
+			for (SceneNode child : children) {
+				bounds = union(bounds, paintNode(context, child, depth + 1, region, isAncestorChanged));
+			}
+		}
+
+		if (nodeTransform != null) {
+			context.restore();
+		}
+		node.setPaintedBounds(bounds);
+		return bounds;
+	}
+
+	//#region SHAPES
+
+	private void paintShape(GraphicsContext context, SceneNode node, Style style) {
+		Paint fill = getPaint(style.fill);
+		Paint stroke = getPaint(style.stroke);
+		double fillAlpha = style.opacity * style.fillOpacity;
+		double strokeAlpha = style.opacity * style.strokeOpacity;
+
+		switch (node.getName()) {
+		case "circle":
+		case "ellipse": {
+			double radiusX = node.getNumericAttribute(node.getName().equals("circle") ? "r" : "rx", 0);
+			double radiusY = node.getName().equals("circle") ? radiusX : node.getNumericAttribute("ry", 0);
+			if (radiusX <= 0 || radiusY <= 0) {
+				return;
+			}
+			double x = node.getNumericAttribute("cx", 0) - radiusX;
+			double y = node.getNumericAttribute("cy", 0) - radiusY;
+			if (fill != null) {
+				context.setGlobalAlpha(fillAlpha);
+				context.setFill(fill);
+				context.fillOval(x, y, 2 * radiusX, 2 * radiusY);
+			}
+			if (stroke != null) {
+				setStroke(context, stroke, strokeAlpha, style);
+				context.strokeOval(x, y, 2 * radiusX, 2 * radiusY);
+			}
+			return;
+		}
+		case "rect": {
+			double x = node.getNumericAttribute("x", 0);
+			double y = node.getNumericAttribute("y", 0);
+			double width = node.getNumericAttribute("width", 0);
+			double height = node.getNumericAttribute("height", 0);
+			if (width <= 0 || height <= 0) {
+				return;
+			}
+			if (fill != null) {
+				context.setGlobalAlpha(fillAlpha);
+				context.setFill(fill);
+				context.fillRect(x, y, width, height);
+			}
+			if (stroke != null) {
+				setStroke(context, stroke, strokeAlpha, style);
+				context.strokeRect(x, y, width, height);
+			}
+			return;
+		}
+		case "line": {
+			if (stroke != null) {
+				setStroke(context, stroke, strokeAlpha, style);
+				context.beginPath();
+				context.moveTo(node.getNumericAttribute("x1", 0), node.getNumericAttribute("y1", 0));
+				context.lineTo(node.getNumericAttribute("x2", 0), node.getNumericAttribute("y2", 0));
+				context.stroke();
+			}
+			return;
+		}
+		case "path": {
+			String pathData = node.getAttribute("d");
+			if (pathData == null || pathData.isEmpty()) {
+				return;
+			}
+			context.beginPath();
+			context.appendSVGPath(pathData);
+			if (fill != null) {
+				context.setGlobalAlpha(fillAlpha);
+				context.setFill(fill);
+				context.fill();
+			}
+			if (stroke != null) {
+				setStroke(context, stroke, strokeAlpha, style);
+				context.stroke();
+			}
+			return;
+		}
+		case "text": {
+			String text = node.getText();
+			if (text == null || text.isEmpty() || fill == null) {
+				return;
+			}
+			context.setGlobalAlpha(fillAlpha);
+			context.setFill(fill);
+			context.setFont(Font.font(style.fontSize));
+			context.setTextAlign(getTextAlignment(style.textAnchor));
+			context.setTextBaseline(VPos.BASELINE);
+			context.fillText(text, getTextX(node, style), getTextY(node, style));
+			return;
+		}
+		default:
+			return;
+		}
+	}
+
+	private static void setStroke(GraphicsContext context, Paint stroke, double alpha, Style style) {
+		context.setGlobalAlpha(alpha);
+		context.setStroke(stroke);
+		context.setLineWidth(style.strokeWidth);
+	}
+
+	/**
+	 * Computes the bounds of a shape in canvas coordinates; returns null if
+	 * the shape is empty
+	 */
+	private double[] computeShapeBounds(SceneNode node, double[] transform, int transformOffset, Style style,
+			double[] bounds) {
+		double[] local = localBounds;
+		switch (node.getName()) {
+		case "circle": {
+			double radius = node.getNumericAttribute("r", 0);
+			double x = node.getNumericAttribute("cx", 0);
+			double y = node.getNumericAttribute("cy", 0);
+			setBounds(local, x - radius, y - radius, x + radius, y + radius);
+			break;
+		}
+		case "ellipse": {
+			double radiusX = node.getNumericAttribute("rx", 0);
+			double radiusY = node.getNumericAttribute("ry", 0);
+			double x = node.getNumericAttribute("cx", 0);
+			double y = node.getNumericAttribute("cy", 0);
+			setBounds(local, x - radiusX, y - radiusY, x + radiusX, y + radiusY);
+			break;
+		}
+		case "rect": {
+			double x = node.getNumericAttribute("x", 0);
+			double y = node.getNumericAttribute("y", 0);
+			setBounds(local, x, y, x + node.getNumericAttribute("width", 0),
+					y + node.getNumericAttribute("height", 0));
+			break;
+		}
+		case "line": {
+			double x1 = node.getNumericAttribute("x1", 0);
+			double y1 = node.getNumericAttribute("y1", 0);
+			double x2 = node.getNumericAttribute("x2", 0);
+			double y2 = node.getNumericAttribute("y2", 0);
+			setBounds(local, Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2));
+			break;
+		}
+		case "path": {
+			boolean hasBounds = PathBounds.compute(node.getAttribute("d"), local);
+			if (!hasBounds) {
+				return null;
+			}
+			break;
+		}
+		case "text": {
+			String text = node.getText();
+			if (text == null || text.isEmpty()) {
+				return null;
+			}
+			double width = CHARACTER_WIDTH * style.fontSize * text.length();
+			double x = getTextX(node, style);
+			double y = getTextY(node, style);
+			if ("middle".equals(style.textAnchor)) {
+				x -= width / 2;
+			} else if ("end".equals(style.textAnchor)) {
+				x -= width;
+			}
+			setBounds(local, x, y - style.fontSize, x + width, y + 0.3 * style.fontSize);
+			break;
+		}
+		default:
+			return null;
+		}
+
+		boolean hasStroke = style.stroke != null && !"none".equals(style.stroke);
+		double margin = 1 + (hasStroke ? style.strokeWidth / 2 : 0);
+		local[0] -= margin;
+		local[1] -= margin;
+		local[2] += margin;
+		local[3] += margin;
+		transformBounds(transform, transformOffset, local, bounds);
+		return bounds;
+	}
+
+	private static double getTextX(SceneNode node, Style style) {
+		return node.getNumericAttribute("x", 0) + toPixels(node.getAttribute("dx"), style.fontSize);
+	}
+
+	private static double getTextY(SceneNode node, Style style) {
+		return node.getNumericAttribute("y", 0) + toPixels(node.getAttribute("dy"), style.fontSize);
+	}
+
+	/**
+	 * Converts a length with an optional unit em or px to pixels
+	 */
+	private static double toPixels(String length, double fontSize) {
+		if (length == null) {
+			return 0;
+		}
+		String value = length.trim();
+		double factor = 1;
+		if (value.endsWith("em")) {
+			factor = fontSize;
+			value = value.substring(0, value.length() - 2);
+		} else if (value.endsWith("px")) {
+			value = value.substring(0, value.length() - 2);
+		}
+		try {
+			return factor * Double.parseDouble(value);
+		} catch (NumberFormatException exception) {
+			return 0;
+		}
+	}
+
+	private static TextAlignment getTextAlignment(String textAnchor) {
+		if ("middle".equals(textAnchor)) {
+			return TextAlignment.CENTER;
+		}
+		if ("end".equals(textAnchor)) {
+			return TextAlignment.RIGHT;
+		}
+		return TextAlignment.LEFT;
+	}
+
+	/**
+	 * Returns the paint for the given CSS color or null for none and for
+	 * unsupported values
+	 */
+	private Paint getPaint(String color) {
+		if (color == null || "none".equals(color)) {
+			return null;
+		}
+		if (paintCache.containsKey(color)) {
+			return paintCache.get(color);
+		}
+		if (paintCache.size() >= MAX_NUMBER_OF_CACHED_PAINTS) {
+			paintCache.clear();
+		}
+		Paint paint;
+		try {
+			paint = Color.web(color);
+		} catch (IllegalArgumentException exception) {
+			paint = null;
+		}
+		paintCache.put(color, paint);
+		return paint;
+	}
+
+	//#end region
+
+	//#region TRANSFORMS
+
+	/**
+	 * Parses an SVG transform attribute
+	 *
+	 * @param transform
+	 * @return the matrix a, b, c, d, e, f or null if there is no transform
+	 */
+	public static double[] parseTransform(String transform) {
+		if (transform == null || transform.trim().isEmpty()) {
+			return null;
+		}
+		double[] matrix = IDENTITY.clone();
+		int index = 0;
+		int length = transform.length();
+		while (index < length) {
+			int openIndex = transform.indexOf('(', index);
+			int closeIndex = transform.indexOf(')', openIndex + 1);
+			if (openIndex < 0 || closeIndex < 0) {
+				break;
+			}
+			String name = transform.substring(index, openIndex).replace(",", " ").trim();
+			double[] values = parseNumbers(transform.substring(openIndex + 1, closeIndex));
+			double[] step = createTransform(name, values);
+			if (step != null) {
+				matrix = multiply(matrix, step);
+			}
+			index = closeIndex + 1;
+		}
+		return matrix;
+	}
+
+	private static double[] createTransform(String name, double[] values) {
+		double first = values.length > 0 ? values[0] : 0;
+		switch (name) {
+		case "translate":
+			return new double[] { 1, 0, 0, 1, first, values.length > 1 ? values[1] : 0 };
+		case "scale":
+			return new double[] { first, 0, 0, values.length > 1 ? values[1] : first, 0, 0 };
+		case "rotate": {
+			double angle = Math.toRadians(first);
+			double cos = Math.cos(angle);
+			double sin = Math.sin(angle);
+			double[] rotation = { cos, sin, -sin, cos, 0, 0 };
+			if (values.length > 2) {
+				double[] toCenter = { 1, 0, 0, 1, values[1], values[2] };
+				double[] fromCenter = { 1, 0, 0, 1, -values[1], -values[2] };
+				return multiply(multiply(toCenter, rotation), fromCenter);
+			}
+			return rotation;
+		}
+		case "matrix":
+			return values.length == 6 ? values : null;
+		default:
+			return null;
+		}
+	}
+
+	private static double[] parseNumbers(String text) {
+		String[] parts = text.trim().split("[\\s,]+");
+		double[] values = new double[parts.length];
+		int numberOfValues = 0;
+		for (String part : parts) {
+			if (part.isEmpty()) {
+				continue;
+			}
+			try {
+				values[numberOfValues++] = Double.parseDouble(part);
+			} catch (NumberFormatException exception) {
+				numberOfValues--;
+			}
+		}
+		return Arrays.copyOf(values, numberOfValues);
+	}
+
+	private static double[] multiply(double[] first, double[] second) {
+		double[] result = first.clone();
+		multiplyInPlace(result, 0, second);
+		return result;
+	}
+
+	/**
+	 * Multiplies the matrix at the given offset with the given matrix
+	 */
+	private static void multiplyInPlace(double[] matrices, int offset, double[] matrix) {
+		double a = matrices[offset];
+		double b = matrices[offset + 1];
+		double c = matrices[offset + 2];
+		double d = matrices[offset + 3];
+		double e = matrices[offset + 4];
+		double f = matrices[offset + 5];
+		matrices[offset] = a * matrix[0] + c * matrix[1];
+		matrices[offset + 1] = b * matrix[0] + d * matrix[1];
+		matrices[offset + 2] = a * matrix[2] + c * matrix[3];
+		matrices[offset + 3] = b * matrix[2] + d * matrix[3];
+		matrices[offset + 4] = a * matrix[4] + c * matrix[5] + e;
+		matrices[offset + 5] = b * matrix[4] + d * matrix[5] + f;
+	}
+
+	private static void transformBounds(double[] matrices, int offset, double[] local, double[] bounds) {
+		double a = matrices[offset];
+		double b = matrices[offset + 1];
+		double c = matrices[offset + 2];
+		double d = matrices[offset + 3];
+		double e = matrices[offset + 4];
+		double f = matrices[offset + 5];
+		boolean isAxisAligned = b == 0 && c == 0;
+		if (isAxisAligned) {
+			double x0 = a * local[0] + e;
+			double x1 = a * local[2] + e;
+			double y0 = d * local[1] + f;
+			double y1 = d * local[3] + f;
+			setBounds(bounds, Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1), Math.max(y0, y1));
+			return;
+		}
+		bounds[0] = Double.POSITIVE_INFINITY;
+		bounds[1] = Double.POSITIVE_INFINITY;
+		bounds[2] = Double.NEGATIVE_INFINITY;
+		bounds[3] = Double.NEGATIVE_INFINITY;
+		for (int corner = 0; corner < 4; corner++) {
+			double x = corner % 2 == 0 ? local[0] : local[2];
+			double y = corner < 2 ? local[1] : local[3];
+			double transformedX = a * x + c * y + e;
+			double transformedY = b * x + d * y + f;
+			bounds[0] = Math.min(bounds[0], transformedX);
+			bounds[1] = Math.min(bounds[1], transformedY);
+			bounds[2] = Math.max(bounds[2], transformedX);
+			bounds[3] = Math.max(bounds[3], transformedY);
+		}
+	}
+
+	//#end region
+
+	//#region BOUNDS
+
+	/**
+	 * Returns the union of the given bounds; one of them may be null
+	 */
+	public static double[] union(double[] first, double[] second) {
+		if (first == null) {
+			return second == null ? null : second.clone();
+		}
+		if (second == null) {
+			return first;
+		}
+		first[0] = Math.min(first[0], second[0]);
+		first[1] = Math.min(first[1], second[1]);
+		first[2] = Math.max(first[2], second[2]);
+		first[3] = Math.max(first[3], second[3]);
+		return first;
+	}
+
+	public static boolean intersects(double[] first, double[] second) {
+		return first[0] <= second[2] && second[0] <= first[2] && first[1] <= second[3] && second[1] <= first[3];
+	}
+
+	private static void setBounds(double[] bounds, double minX, double minY, double maxX, double maxY) {
+		bounds[0] = minX;
+		bounds[1] = minY;
+		bounds[2] = maxX;
+		bounds[3] = maxY;
+	}
+
+	private void ensureDepth(int depth) {
+		if (depth < styles.length) {
+			return;
+		}
+		int length = Math.max(depth + 1, 2 * styles.length);
+		Style[] newStyles = Arrays.copyOf(styles, length);
+		for (int index = styles.length; index < length; index++) {
+			newStyles[index] = new Style();
+		}
+		newStyles[0].reset();
+		styles = newStyles;
+		transforms = Arrays.copyOf(transforms, 6 * length);
+	}
+
+	//#end region
+
+	//#end region
+
+	//#region STYLE CLASS
+
+	/**
+	 * The resolved presentation values of a node
+	 */
+	private static class Style {
+
+		private String fill;
+
+		private String stroke;
+
+		private double strokeWidth;
+
+		private double opacity;
+
+		private double fillOpacity;
+
+		private double strokeOpacity;
+
+		private double fontSize;
+
+		private String textAnchor;
+
+		/**
+		 * Sets the initial values of SVG
+		 */
+		void reset() {
+			fill = "black";
+			stroke = null;
+			strokeWidth = 1;
+			opacity = 1;
+			fillOpacity = 1;
+			strokeOpacity = 1;
+			fontSize = DEFAULT_FONT_SIZE;
+			textAnchor = "start";
+		}
+
+		/**
+		 * Resolves the values of the given node; the inheritable values are
+		 * taken from the parent style if the node does not define them
+		 */
+		void resolve(SceneNode node, Style parent) {
+			String nodeFill = node.getPresentationValue("fill");
+			fill = nodeFill == null ? parent.fill : nodeFill;
+			String nodeStroke = node.getPresentationValue("stroke");
+			stroke = nodeStroke == null ? parent.stroke : nodeStroke;
+			strokeWidth = node.getNumericPresentationValue("stroke-width", parent.strokeWidth);
+			opacity = parent.opacity * node.getNumericPresentationValue("opacity", 1);
+			fillOpacity = node.getNumericPresentationValue("fill-opacity", 1);
+			strokeOpacity = node.getNumericPresentationValue("stroke-opacity", 1);
+			fontSize = node.getNumericPresentationValue("font-size", parent.fontSize);
+			String nodeTextAnchor = node.getPresentationValue("text-anchor");
+			textAnchor = nodeTextAnchor == null ? parent.textAnchor : nodeTextAnchor;
+		}
+
+	}
+
+	//#end region
+
+}
@@ -3,6 +3,7 @@ package org.treez.javafxd3.plotly.data;
 import java.util.List;
 
 import org.treez.javafxd3.d3.arrays.Array;
+import org.treez.javafxd3.d3.svg.Downsampler;
 import org.treez.javafxd3.d3.wrapper.JavaScriptObject;
 import org.treez.javafxd3.plotly.data.contour.ColorScale;
 import org.treez.javafxd3.plotly.data.contour.Contours;
@@ -48,6 +49,11 @@ public class Data extends JavaScriptObject {
 
 	//#region X
 
+	public void setX(double[] xData) {
+		Array<Double> array = Array.fromDoubles(engine, xData);
+		setX(array);
+	}
+
 	public void setX(Double[] xData) {
 		Array<Double> array = Array.fromDoubles(engine, xData);
 		setX(array);
@@ -58,6 +64,16 @@ public class Data extends JavaScriptObject {
 		setX(array);
 	}
 
+	/**
+	 * Sets the x values as JavaScript Date objects that are created from the
+	 * given epoch milliseconds
+	 */
+	public void setXDates(long[] epochMillis) {
+		Array<JsObject> array = Array.fromEpochMillis(engine, epochMillis);
+		JsObject arrayObj = array.getJsObject();
+		setMember("x", arrayObj);
+	}
+
 	public void setX(Array<Double> xData) {
 		JsObject arrayObj = xData.getJsObject();
 		setMember("x", arrayObj);
@@ -72,6 +88,11 @@ public class Data extends JavaScriptObject {
 
 	//#region Y
 
+	public void setY(double[] yData) {
+		Array<Double> array = Array.fromDoubles(engine, yData);
+		setY(array);
+	}
+
 	public void setY(Double[] yData) {
 		Array<Double> array = Array.fromDoubles(engine, yData);
 		setY(array);
@@ -94,13 +115,38 @@ public class Data extends JavaScriptObject {
 
 	//#end region
 
+	//#region XY
+
+	/**
+	 * Sets the x and y values after they have been reduced by the given
+	 * downsampler, e.g. to the points that are visible at the pixel width of
+	 * the plot
+	 */
+	public void setXY(double[] xData, double[] yData, Downsampler downsampler) {
+		double[][] points = downsampler.apply(xData, yData);
+		setX(points[0]);
+		setY(points[1]);
+	}
+
+	//#end region
+
 	//#region Z
 
+	public void setZ(double[] zData) {
+		Array<Double> array = Array.fromDoubles(engine, zData);
+		setZ(array);
+	}
+
 	public void setZ(Double[] zData) {
 		Array<Double> array = Array.fromDoubles(engine, zData);
 		setZ(array);
 	}
 
+	public void setZ(double[][] zData) {
+		Array<Double> array = Array.fromDoubles(engine, zData);
+		setZ(array);
+	}
+
 	public void setZ(Double[][] zData) {
 		Array<Double> array = Array.fromDoubles(engine, zData);
 		setZ(array);
@@ -3,6 +3,7 @@ package org.treez.javafxd3.plotly.data;
 import java.util.List;
 
 import org.treez.javafxd3.d3.arrays.Array;
+import org.treez.javafxd3.d3.svg.Downsampler;
 import org.treez.javafxd3.plotly.data.contour.ColorScale;
 import org.treez.javafxd3.plotly.data.contour.Contours;
 import org.treez.javafxd3.plotly.data.contour.colorbar.ColorBar;
@@ -94,6 +95,14 @@ public class SingleData extends Array<Data> {
 
 	//#end region
 
+	//#region XY
+
+	public void setXY(double[] xData, double[] yData, Downsampler downsampler) {
+		data.setXY(xData, yData, downsampler);
+	}
+
+	//#end region
+
 	//#region Z
 
 	public void setZ(Double[] zData) {
@@ -0,0 +1,3487 @@
+/*
+ * Helper functions of javafx-d3 that are installed once in the browser and
+ * are called from Java with JSObject.call(...). Please only use block
+ * comments in this file.
+ */
+var __jfxd3 = (function(existing) {
+
+	var bridge = existing || {};
+
+	/* #region TYPED ARRAYS */
+
+	/*
+	 * Decodes a base64 string into the bytes of a new Uint8Array
+	 */
+	bridge.decodeBytes = function(base64) {
+		var binary = atob(base64);
+		var length = binary.length;
+		var bytes = new Uint8Array(length);
+		for (var index = 0; index < length; index++) {
+			bytes[index] = binary.charCodeAt(index);
+		}
+		return bytes;
+	};
+
+	/*
+	 * Decodes a base64 string that contains little endian numbers into a typed
+	 * array of the given type ('float64', 'float32' or 'int32')
+	 */
+	bridge.decodeTypedArray = function(type, base64) {
+		var buffer = bridge.decodeBytes(base64).buffer;
+		switch (type) {
+		case 'float64':
+			return new Float64Array(buffer);
+		case 'float32':
+			return new Float32Array(buffer);
+		case 'int32':
+			return new Int32Array(buffer);
+		default:
+			throw new Error('Unknown typed array type ' + type);
+		}
+	};
+
+	/*
+	 * Copies the values of the given typed array into a new plain array
+	 */
+	bridge.toPlainArray = function(typedArray) {
+		var length = typedArray.length;
+		var array = new Array(length);
+		for (var index = 0; index < length; index++) {
+			array[index] = typedArray[index];
+		}
+		return array;
+	};
+
+	/*
+	 * Decodes a base64 string into a plain array of numbers
+	 */
+	bridge.decodeArray = function(type, base64) {
+		return bridge.toPlainArray(bridge.decodeTypedArray(type, base64));
+	};
+
+	/*
+	 * Decodes a base64 string that contains epoch milliseconds (float64) into
+	 * a plain array of Date objects
+	 */
+	bridge.decodeDates = function(base64) {
+		var millis = bridge.decodeTypedArray('float64', base64);
+		var length = millis.length;
+		var dates = new Array(length);
+		for (var index = 0; index < length; index++) {
+			dates[index] = new Date(millis[index]);
+		}
+		return dates;
+	};
+
+	/*
+	 * Decodes a base64 string into a two-dimensional plain array with the
+	 * given number of rows and columns
+	 */
+	bridge.decodeMatrix = function(type, base64, numberOfRows, numberOfColumns) {
+		var values = bridge.decodeTypedArray(type, base64);
+		var matrix = new Array(numberOfRows);
+		for (var rowIndex = 0; rowIndex < numberOfRows; rowIndex++) {
+			var row = new Array(numberOfColumns);
+			var offset = rowIndex * numberOfColumns;
+			for (var columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+				row[columnIndex] = values[offset + columnIndex];
+			}
+			matrix[rowIndex] = row;
+		}
+		return matrix;
+	};
+
+	/*
+	 * Decodes a base64 string that contains int32 values into a plain array of
+	 * booleans
+	 */
+	bridge.decodeBooleans = function(base64) {
+		var values = bridge.decodeTypedArray('int32', base64);
+		var length = values.length;
+		var booleans = new Array(length);
+		for (var index = 0; index < length; index++) {
+			booleans[index] = values[index] !== 0;
+		}
+		return booleans;
+	};
+
+	/*
+	 * Splits the given text into a plain array of strings. The lengths are
+	 * int32 values encoded as base64 string; a negative length stands for null.
+	 */
+	bridge.decodeStrings = function(lengthsBase64, text) {
+		var lengths = bridge.decodeTypedArray('int32', lengthsBase64);
+		var length = lengths.length;
+		var strings = new Array(length);
+		var offset = 0;
+		for (var index = 0; index < length; index++) {
+			var stringLength = lengths[index];
+			if (stringLength < 0) {
+				strings[index] = null;
+			} else {
+				strings[index] = text.substr(offset, stringLength);
+				offset += stringLength;
+			}
+		}
+		return strings;
+	};
+
+	/*
+	 * Encodes the bytes of the given typed array as base64 string
+	 */
+	bridge.encodeTypedArray = function(typedArray) {
+		var bytes = new Uint8Array(typedArray.buffer, typedArray.byteOffset, typedArray.byteLength);
+		var chunkSize = 8192;
+		var chunks = [];
+		for (var offset = 0; offset < bytes.length; offset += chunkSize) {
+			var chunk = bytes.subarray(offset, offset + chunkSize);
+			chunks.push(String.fromCharCode.apply(null, chunk));
+		}
+		return btoa(chunks.join(''));
+	};
+
+	/*
+	 * Creates a plain array with the given length
+	 */
+	bridge.createArray = function(length) {
+		return new Array(length);
+	};
+
+	/* #end region */
+
+	/* #region BATCH FUNCTIONS */
+
+	/*
+	 * Calls the Java BatchDataFunctionWrapper once with all data and indices
+	 * and returns the array of results
+	 */
+	bridge.applyBatchFunction = function(batchFunction, data, indices) {
+		var encodedIndices = bridge.encodeTypedArray(new Int32Array(indices));
+		return batchFunction.applyBatch(data, encodedIndices);
+	};
+
+	/*
+	 * Calls the batch function once with the data of all elements of the
+	 * selection and returns a value function that returns the results in the
+	 * order of the elements. Selection operators like attr, style, text and
+	 * filter visit the elements in the same order as each.
+	 */
+	bridge.batchValueFunction = function(selection, batchFunction) {
+		var data = [];
+		var indices = [];
+		selection.each(function(d, i) {
+			data.push(d);
+			indices.push(i);
+		});
+		var results = bridge.applyBatchFunction(batchFunction, data, indices);
+		var counter = 0;
+		return function() {
+			return results[counter++];
+		};
+	};
+
+	/*
+	 * Returns an accessor for layouts that evaluate the accessor for all
+	 * elements of an array in order, e.g. force.charge(accessor). The batch
+	 * function is called with the whole array when the accessor is evaluated
+	 * for the first element. The array is returned by the method with the
+	 * given name of the owner, e.g. force.nodes().
+	 */
+	bridge.batchArrayFunction = function(batchFunction, owner, dataMethodName) {
+		var results = null;
+		return function(d, i) {
+			if (i === 0 || results === null) {
+				var data = owner[dataMethodName]();
+				results = bridge.applyBatchFunction(batchFunction, data, d3.range(data.length));
+			}
+			return results[i];
+		};
+	};
+
+	/*
+	 * Returns a coordinate accessor for geometries (hull, voronoi, quadtree).
+	 * The results for all vertices are computed by prepare(data), see
+	 * applyWithBatchAccessors. Vertices that have not been prepared (e.g.
+	 * points that are added to a quadtree later) are evaluated one by one.
+	 */
+	bridge.batchAccessor = function(batchFunction) {
+		var preparedData = null;
+		var results = null;
+		var accessor = function(d, i) {
+			var isPrepared = results !== null && preparedData[i] === d;
+			if (isPrepared) {
+				return results[i];
+			}
+			return bridge.applyBatchFunction(batchFunction, [d], [i])[0];
+		};
+		accessor.prepare = function(data) {
+			preparedData = data;
+			results = bridge.applyBatchFunction(batchFunction, data, d3.range(data.length));
+		};
+		return accessor;
+	};
+
+	/*
+	 * Prepares the batch accessors x and y of the geometry for the given data
+	 * and applies the geometry to the data
+	 */
+	bridge.applyWithBatchAccessors = function(geometry, data) {
+		var accessorNames = [ 'x', 'y' ];
+		for (var index = 0; index < accessorNames.length; index++) {
+			var accessor = geometry[accessorNames[index]]();
+			if (accessor && accessor.prepare) {
+				accessor.prepare(data);
+			}
+		}
+		return geometry(data);
+	};
+
+	/* #end region */
+
+	/* #region VALUE ARRAYS */
+
+	/*
+	 * Returns a value function that returns the given values in the order
+	 * of its calls. Selection and transition operators like attr, style,
+	 * text and classed visit the elements in the same order as each, so the
+	 * values are assigned by element index over all groups.
+	 */
+	bridge.valueFunction = function(values) {
+		var counter = 0;
+		return function() {
+			return values[counter++];
+		};
+	};
+
+	/*
+	 * Calls the method of the target with the value function for the given
+	 * values, e.g. selection.attr(name, valueFunction). If the name is null
+	 * only the value function is passed, e.g. for selection.text. The
+	 * priority is passed for style.
+	 */
+	bridge.callWithValues = function(target, methodName, name, values, priority) {
+		var valueFunction = bridge.valueFunction(values);
+		if (name === null || name === undefined) {
+			return target[methodName](valueFunction);
+		}
+		if (priority) {
+			return target[methodName](name, valueFunction, priority);
+		}
+		return target[methodName](name, valueFunction);
+	};
+
+	/*
+	 * Same as callWithValues for base64 encoded numbers of the given type
+	 */
+	bridge.callWithNumbers = function(target, methodName, name, type, base64) {
+		return bridge.callWithValues(target, methodName, name, bridge.decodeTypedArray(type, base64));
+	};
+
+	/*
+	 * Same as callWithValues for strings that are encoded as for
+	 * decodeStrings
+	 */
+	bridge.callWithStrings = function(target, methodName, name, lengthsBase64, text, priority) {
+		return bridge.callWithValues(target, methodName, name, bridge.decodeStrings(lengthsBase64, text), priority);
+	};
+
+	/*
+	 * Same as callWithValues for booleans that are encoded as for
+	 * decodeBooleans
+	 */
+	bridge.callWithBooleans = function(target, methodName, name, base64) {
+		return bridge.callWithValues(target, methodName, name, bridge.decodeBooleans(base64));
+	};
+
+	/* #end region */
+
+	/* #region READBACK */
+
+	/*
+	 * Encodes the values of the attribute with the given name of the
+	 * selected elements as float64 values, in the order of selection.each.
+	 * Missing attributes and values that are no numbers are encoded as NaN.
+	 */
+	bridge.encodeAttributeValues = function(selection, name) {
+		var qualified = d3.ns.qualify(name);
+		var values = [];
+		selection.each(function() {
+			var value = qualified.local
+					? this.getAttributeNS(qualified.space, qualified.local)
+					: this.getAttribute(qualified);
+			values.push(value === null ? NaN : parseFloat(value));
+		});
+		return bridge.encodeTypedArray(new Float64Array(values));
+	};
+
+	/*
+	 * Encodes the bounding boxes of the selected elements as float64 values
+	 * x, y, width, height for each element, in the order of selection.each.
+	 * Elements without bounding box (e.g. html elements) are encoded as NaN.
+	 */
+	bridge.encodeBoundingBoxes = function(selection) {
+		var values = [];
+		selection.each(function() {
+			var box = this.getBBox ? this.getBBox() : null;
+			if (box) {
+				values.push(box.x, box.y, box.width, box.height);
+			} else {
+				values.push(NaN, NaN, NaN, NaN);
+			}
+		});
+		return bridge.encodeTypedArray(new Float64Array(values));
+	};
+
+	/* #end region */
+
+	/* #region SCALE MIRRORS */
+
+	/*
+	 * Names of the scale methods that modify the scale if they are called with
+	 * arguments
+	 */
+	bridge.scaleMutatorNames = [ 'domain', 'range', 'rangeRound', 'rangePoints', 'rangeRoundPoints', 'rangeBands',
+			'rangeRoundBands', 'clamp', 'interpolate', 'exponent', 'base' ];
+
+	/*
+	 * Registers the Java ScaleMirror for the given scale and wraps the mutator
+	 * methods of the scale so that the mirror is invalidated whenever the scale
+	 * is modified (also by d3 itself, e.g. by the zoom behavior)
+	 */
+	bridge.observeScale = function(scale, mirror) {
+		var isObserved = scale.__jfxd3Mirror !== undefined;
+		scale.__jfxd3Mirror = mirror;
+		if (isObserved) {
+			return;
+		}
+		var mutatorNames = bridge.scaleMutatorNames.concat([ 'nice' ]);
+		mutatorNames.forEach(function(name) {
+			var method = scale[name];
+			if (typeof method !== 'function') {
+				return;
+			}
+			scale[name] = function() {
+				var result = method.apply(this, arguments);
+				var isMutation = arguments.length > 0 || name === 'nice';
+				if (isMutation) {
+					scale.__jfxd3Mirror.invalidate();
+				}
+				return result;
+			};
+		});
+	};
+
+	/*
+	 * Encodes the given values as float64 values. Values that are no numbers
+	 * (e.g. colors) are encoded as NaN, dates as epoch milliseconds.
+	 */
+	bridge.encodeNumbers = function(values) {
+		var length = values.length;
+		var numbers = new Float64Array(length);
+		for (var index = 0; index < length; index++) {
+			var value = values[index];
+			numbers[index] = (value === null || typeof value === 'string') ? NaN : +value;
+		}
+		return bridge.encodeTypedArray(numbers);
+	};
+
+	/*
+	 * Encodes the given values as strings: the base64 encoded int32 lengths of
+	 * the strings (-1 for null and undefined), a colon and the concatenated
+	 * strings
+	 */
+	bridge.encodeStrings = function(values) {
+		var length = values.length;
+		var lengths = new Int32Array(length);
+		var strings = new Array(length);
+		for (var index = 0; index < length; index++) {
+			var value = values[index];
+			if (value === null || value === undefined) {
+				lengths[index] = -1;
+				strings[index] = '';
+			} else {
+				var string = String(value);
+				lengths[index] = string.length;
+				strings[index] = string;
+			}
+		}
+		return bridge.encodeTypedArray(lengths) + ':' + strings.join('');
+	};
+
+	/*
+	 * Encodes the state of a continuous scale (linear, pow, log, identity,
+	 * time) as float64 values: domain length, range length, clamp (0/1),
+	 * interpolation (0: default, 1: round, 2: other), exponent, base, domain
+	 * values, range values
+	 */
+	bridge.encodeContinuousScale = function(scale) {
+		var domain = scale.domain();
+		var range = scale.range();
+		var interpolate = scale.interpolate ? scale.interpolate() : d3.interpolate;
+		var interpolation = interpolate === d3.interpolate ? 0 : (interpolate === d3.interpolateRound ? 1 : 2);
+		var header = [ domain.length, range.length, scale.clamp && scale.clamp() ? 1 : 0, interpolation,
+				scale.exponent ? scale.exponent() : 1, scale.base ? scale.base() : 10 ];
+		return bridge.encodeNumbers(header.concat(domain, range));
+	};
+
+	/*
+	 * Returns true if the given time scale creates its ticks in UTC, e.g.
+	 * d3.time.scale.utc(). The daily ticks of local time scales are not
+	 * aligned with multiples of 24 hours unless the time zone is UTC.
+	 */
+	bridge.isUtcTimeScale = function(scale) {
+		var dayInMillis = 864e5;
+		var starts = [ Date.UTC(2000, 0, 1), Date.UTC(2000, 6, 1) ];
+		return starts.every(function(start) {
+			var domain = [ new Date(start), new Date(start + 3 * dayInMillis) ];
+			var ticks = scale.copy().domain(domain).ticks(3);
+			return ticks.every(function(tick) {
+				return +tick % dayInMillis === 0;
+			});
+		});
+	};
+
+	/* #end region */
+
+	/* #region COLUMNAR DATA */
+
+	/*
+	 * Creates the rows of a ColumnarDataset. The arguments are the number of
+	 * rows and, for each column, the name, the type ('float64', 'int32' or
+	 * 'dictionary'), the base64 encoded values and, for dictionary columns,
+	 * the encoded dictionary (see decodeStrings). Each row only stores its
+	 * index; the column values are read by getters of a shared prototype.
+	 * The typed columns are available as rows.columns.
+	 */
+	bridge.createColumnarRows = function(numberOfRows) {
+		var columns = {};
+		var Row = function(index) {
+			this.__index = index;
+		};
+		for (var offset = 1; offset < arguments.length; offset += 5) {
+			var name = arguments[offset];
+			var type = arguments[offset + 1];
+			var isDictionary = type === 'dictionary';
+			var values = bridge.decodeTypedArray(isDictionary ? 'int32' : type, arguments[offset + 2]);
+			var dictionary = isDictionary ? bridge.decodeStrings(arguments[offset + 3], arguments[offset + 4]) : null;
+			columns[name] = isDictionary ? {
+				codes : values,
+				dictionary : dictionary
+			} : values;
+			Object.defineProperty(Row.prototype, name, {
+				enumerable : true,
+				get : bridge.createColumnGetter(values, dictionary)
+			});
+		}
+
+		var rows = new Array(numberOfRows);
+		for (var index = 0; index < numberOfRows; index++) {
+			rows[index] = new Row(index);
+		}
+		rows.columns = columns;
+		return rows;
+	};
+
+	/*
+	 * Creates the getter of a column for the prototype of the columnar rows
+	 */
+	bridge.createColumnGetter = function(values, dictionary) {
+		if (dictionary) {
+			return function() {
+				var code = values[this.__index];
+				return code < 0 ? null : dictionary[code];
+			};
+		}
+		return function() {
+			return values[this.__index];
+		};
+	};
+
+	/*
+	 * Creates a key function(d) for selection.data(values, key) that returns
+	 * the member with the given name, e.g. a column of columnar rows
+	 */
+	bridge.memberKey = function(name) {
+		return function(d) {
+			return d[name];
+		};
+	};
+
+	/* #end region */
+
+	/* #region DATA JOIN */
+
+	/*
+	 * Creates the state of a keyed data join that is computed by the Java
+	 * class KeyedDataJoin from the update selection of a d3 join. The update
+	 * group is kept, so that the nodes that are appended to the enter
+	 * selection are included. Returns null for selections with several
+	 * groups.
+	 */
+	bridge.createDataJoin = function(update) {
+		if (update.length !== 1) {
+			return null;
+		}
+		var group = update[0];
+		var enterGroup = update.enter()[0];
+		var data = new Array(group.length);
+		for (var index = 0; index < group.length; index++) {
+			var node = group[index] || enterGroup[index];
+			data[index] = node ? node.__data__ : undefined;
+		}
+		return {
+			parentNode : group.parentNode,
+			nodes : group,
+			data : data
+		};
+	};
+
+	/*
+	 * Applies the differences of a keyed data join to the state of the
+	 * previous join and returns the update selection with the enter and exit
+	 * selections like selection.data(values, key). The differences are the
+	 * int32 encoded triples (new start, old start, length) of the kept node
+	 * ranges, the old indices of the exiting nodes and the new indices of the
+	 * rows that are passed as further arguments. Kept nodes that have been
+	 * removed in the meantime enter again. Returns null if the selection does
+	 * not contain the nodes of the previous join.
+	 */
+	bridge.patchDataJoin = function(state, selection, length, runsBase64, exitBase64, rowIndicesBase64) {
+		var parentNode = state.parentNode;
+		var isValid = selection.length === 1 && selection[0].parentNode === parentNode
+				&& bridge.countNodes(selection[0], null) === bridge.countNodes(state.nodes, parentNode);
+		if (!isValid) {
+			return null;
+		}
+
+		var runs = bridge.decodeTypedArray('int32', runsBase64);
+		var exitIndices = bridge.decodeTypedArray('int32', exitBase64);
+		var rowIndices = bridge.decodeTypedArray('int32', rowIndicesBase64);
+		var nodes = state.nodes;
+		var data = state.data;
+		var updateGroup = new Array(length);
+		var enterGroup = new Array(length);
+		var exitGroup = new Array(nodes.length);
+		var newData = new Array(length);
+		var index, node;
+
+		for (var runIndex = 0; runIndex < runs.length; runIndex += 3) {
+			var newStart = runs[runIndex];
+			var oldStart = runs[runIndex + 1];
+			var runLength = runs[runIndex + 2];
+			for (var offset = 0; offset < runLength; offset++) {
+				index = newStart + offset;
+				node = nodes[oldStart + offset];
+				newData[index] = data[oldStart + offset];
+				if (node && node.parentNode === parentNode) {
+					updateGroup[index] = node;
+				} else {
+					enterGroup[index] = {
+						__data__ : newData[index]
+					};
+				}
+			}
+		}
+
+		for (var rowIndex = 0; rowIndex < rowIndices.length; rowIndex++) {
+			index = rowIndices[rowIndex];
+			var datum = arguments[6 + rowIndex];
+			newData[index] = datum;
+			node = updateGroup[index] || enterGroup[index];
+			if (node) {
+				node.__data__ = datum;
+			} else {
+				enterGroup[index] = {
+					__data__ : datum
+				};
+			}
+		}
+
+		for (var exitIndex = 0; exitIndex < exitIndices.length; exitIndex++) {
+			index = exitIndices[exitIndex];
+			node = nodes[index];
+			if (node && node.parentNode === parentNode) {
+				exitGroup[index] = node;
+			}
+		}
+
+		updateGroup.parentNode = enterGroup.parentNode = exitGroup.parentNode = parentNode;
+		enterGroup.update = updateGroup;
+		var update = bridge.subclass([ updateGroup ], d3.selection.prototype);
+		var enter = bridge.subclass([ enterGroup ], d3.selection.enter.prototype);
+		var exit = bridge.subclass([ exitGroup ], d3.selection.prototype);
+		update.enter = function() {
+			return enter;
+		};
+		update.exit = function() {
+			return exit;
+		};
+
+		state.nodes = updateGroup;
+		state.data = newData;
+		return update;
+	};
+
+	/*
+	 * Counts the nodes of a group; if a parent node is given, only its
+	 * children are counted
+	 */
+	bridge.countNodes = function(group, parentNode) {
+		var count = 0;
+		for (var index = 0; index < group.length; index++) {
+			var node = group[index];
+			if (node && (!parentNode || node.parentNode === parentNode)) {
+				count++;
+			}
+		}
+		return count;
+	};
+
+	/*
+	 * Sets the prototype of the given array like d3 does for its selections
+	 */
+	bridge.subclass = function(array, prototype) {
+		array.__proto__ = prototype;
+		return array;
+	};
+
+	/* #end region */
+
+	/* #region VIRTUAL DOM */
+
+	/*
+	 * Creates the state of a Java VirtualDom: the elements by their id. The
+	 * id of the container is 0.
+	 */
+	bridge.createDomPatcher = function(container) {
+		return {
+			nodes : [ container.node() ]
+		};
+	};
+
+	/*
+	 * Applies a DomPatch to the elements of the given state. The operations
+	 * are int32 values: operation code, ids... The string arguments are taken
+	 * in order from the decoded strings. The operation codes are defined by
+	 * the Java class DomPatch.
+	 */
+	bridge.patchDom = function(state, base64, stringLengthsBase64, text) {
+		var values = bridge.decodeTypedArray('int32', base64);
+		var strings = bridge.decodeStrings(stringLengthsBase64, text);
+		var nodes = state.nodes;
+		var stringIndex = 0;
+		var length = values.length;
+		var index = 0;
+		var node, name, qualifiedName;
+		while (index < length) {
+			var operationCode = values[index];
+			node = nodes[values[index + 1]];
+			switch (operationCode) {
+			case 0:
+				var parent = nodes[values[index + 2]];
+				qualifiedName = d3.ns.qualify(strings[stringIndex++]);
+				node = qualifiedName.local ? parent.ownerDocument.createElementNS(qualifiedName.space,
+						qualifiedName.local) : parent.ownerDocument.createElementNS(parent.namespaceURI, qualifiedName);
+				node.__jfxd3id = values[index + 1];
+				nodes[values[index + 1]] = node;
+				bridge.insertPatchedNode(nodes, node, values[index + 2], values[index + 3]);
+				index += 4;
+				break;
+			case 1:
+				bridge.removePatchedNode(nodes, node);
+				index += 2;
+				break;
+			case 2:
+				bridge.insertPatchedNode(nodes, node, values[index + 2], values[index + 3]);
+				index += 4;
+				break;
+			case 3:
+				name = strings[stringIndex++];
+				qualifiedName = d3.ns.qualify(name);
+				if (qualifiedName.local) {
+					node.setAttributeNS(qualifiedName.space, qualifiedName.local, strings[stringIndex++]);
+				} else {
+					node.setAttribute(name, strings[stringIndex++]);
+				}
+				index += 2;
+				break;
+			case 4:
+				name = strings[stringIndex++];
+				qualifiedName = d3.ns.qualify(name);
+				if (qualifiedName.local) {
+					node.removeAttributeNS(qualifiedName.space, qualifiedName.local);
+				} else {
+					node.removeAttribute(name);
+				}
+				index += 2;
+				break;
+			case 5:
+				node.style.setProperty(strings[stringIndex], strings[stringIndex + 1], '');
+				stringIndex += 2;
+				index += 2;
+				break;
+			case 6:
+				node.style.removeProperty(strings[stringIndex++]);
+				index += 2;
+				break;
+			case 7:
+				node.textContent = strings[stringIndex++];
+				index += 2;
+				break;
+			default:
+				throw new Error('Unknown DOM patch operation ' + operationCode);
+			}
+		}
+	};
+
+	/*
+	 * Inserts or moves an element before the element with the given id or
+	 * appends it if the id is -1
+	 */
+	bridge.insertPatchedNode = function(nodes, node, parentId, nextId) {
+		var parent = nodes[parentId];
+		var nextNode = nextId < 0 ? null : nodes[nextId];
+		parent.insertBefore(node, nextNode);
+	};
+
+	/*
+	 * Removes an element and forgets it and its descendants
+	 */
+	bridge.removePatchedNode = function(nodes, node) {
+		var descendants = node.getElementsByTagName('*');
+		for (var index = 0; index < descendants.length; index++) {
+			var id = descendants[index].__jfxd3id;
+			if (id !== undefined && nodes[id] === descendants[index]) {
+				nodes[id] = undefined;
+			}
+		}
+		nodes[node.__jfxd3id] = undefined;
+		node.parentNode.removeChild(node);
+	};
+
+	/*
+	 * Returns a selection of the element with the given id
+	 */
+	bridge.selectPatchedNode = function(state, id) {
+		return d3.select(state.nodes[id]);
+	};
+
+	/* #end region */
+
+	/* #region PROGRESSIVE RENDERING */
+
+	/*
+	 * Appends elements with the given name for the placeholders of an enter
+	 * selection in chunks over several animation frames, see
+	 * bridge.renderProgressively. Like enter.append, the elements are
+	 * appended to the parent nodes of the groups and merged into the update
+	 * groups.
+	 */
+	bridge.appendProgressively = function(enter, name, chunkFunction, progressFunction, budget) {
+		var qualifiedName = d3.ns.qualify(name);
+		var createNode = function(group, placeholder, index) {
+			var parent = group.parentNode;
+			var node = qualifiedName.local ? parent.ownerDocument.createElementNS(qualifiedName.space,
+					qualifiedName.local) : parent.ownerDocument.createElementNS(parent.namespaceURI, qualifiedName);
+			node.__data__ = placeholder.__data__;
+			parent.appendChild(node);
+			group.update[index] = node;
+			return node;
+		};
+		return bridge.renderProgressively(enter, createNode, chunkFunction, progressFunction, budget);
+	};
+
+	/*
+	 * Passes the nodes of a selection in chunks over several animation frames
+	 * to the chunk function, see bridge.renderProgressively
+	 */
+	bridge.updateProgressively = function(selection, chunkFunction, progressFunction, budget) {
+		var createNode = function(group, node) {
+			return node;
+		};
+		return bridge.renderProgressively(selection, createNode, chunkFunction, progressFunction, budget);
+	};
+
+	/*
+	 * Starts a progressive render and returns its task. Each animation frame
+	 * processes chunks of nodes until the time budget in milliseconds is used
+	 * up. The nodes of a chunk are created by createNode(group, node, index)
+	 * and passed as selection to chunkFunction(chunk, offset). The number of
+	 * nodes per chunk is adapted to the measured duration of the previous
+	 * chunks. After each frame progressFunction(rendered, total, isCancelled)
+	 * is called.
+	 *
+	 * Running renders for the previous data join of the same parent nodes are
+	 * cancelled. The data join is identified by the update groups.
+	 */
+	bridge.renderProgressively = function(selection, createNode, chunkFunction, progressFunction, budget) {
+		var task = {
+			selection : selection,
+			createNode : createNode,
+			chunkFunction : chunkFunction,
+			progressFunction : progressFunction,
+			budget : budget,
+			total : 0,
+			rendered : 0,
+			groupIndex : 0,
+			index : 0,
+			nodesPerChunk : 16,
+			frame : null,
+			isDone : false
+		};
+
+		for (var groupIndex = 0; groupIndex < selection.length; groupIndex++) {
+			var group = selection[groupIndex];
+			task.total += bridge.countNodes(group, null);
+			bridge.registerProgressiveRender(task, group.parentNode, group.update || group);
+		}
+
+		bridge.requestProgressiveFrame(task);
+		return task;
+	};
+
+	/*
+	 * Registers a task at a parent node and cancels the tasks of other data
+	 * joins of the parent node
+	 */
+	bridge.registerProgressiveRender = function(task, parentNode, updateGroup) {
+		if (!parentNode) {
+			return;
+		}
+		var renders = parentNode.__jfxd3renders;
+		if (renders && renders.updateGroup !== updateGroup) {
+			var previousTasks = renders.tasks.slice();
+			for (var index = 0; index < previousTasks.length; index++) {
+				bridge.cancelProgressiveRender(previousTasks[index]);
+			}
+			renders = null;
+		}
+		if (!renders) {
+			renders = parentNode.__jfxd3renders = {
+				updateGroup : updateGroup,
+				tasks : []
+			};
+		}
+		if (renders.tasks.indexOf(task) < 0) {
+			renders.tasks.push(task);
+		}
+	};
+
+	/*
+	 * Removes a finished or cancelled task from its parent nodes
+	 */
+	bridge.unregisterProgressiveRender = function(task) {
+		var selection = task.selection;
+		for (var groupIndex = 0; groupIndex < selection.length; groupIndex++) {
+			var parentNode = selection[groupIndex].parentNode;
+			var renders = parentNode ? parentNode.__jfxd3renders : null;
+			if (!renders) {
+				continue;
+			}
+			var index = renders.tasks.indexOf(task);
+			if (index >= 0) {
+				renders.tasks.splice(index, 1);
+			}
+			if (renders.tasks.length === 0) {
+				delete parentNode.__jfxd3renders;
+			}
+		}
+	};
+
+	bridge.requestProgressiveFrame = function(task) {
+		task.frame = bridge.requestFrame(function() {
+			task.frame = null;
+			bridge.renderProgressiveFrame(task);
+		});
+	};
+
+	bridge.cancelProgressiveFrame = function(task) {
+		if (task.frame === null) {
+			return;
+		}
+		bridge.cancelFrame(task.frame);
+		task.frame = null;
+	};
+
+	/*
+	 * Calls the given function before the next repaint and returns the id of
+	 * the request
+	 */
+	bridge.requestFrame = function(callback) {
+		return window.requestAnimationFrame ? window.requestAnimationFrame(callback) : window.setTimeout(callback,
+				16);
+	};
+
+	bridge.cancelFrame = function(id) {
+		if (window.cancelAnimationFrame) {
+			window.cancelAnimationFrame(id);
+		} else {
+			window.clearTimeout(id);
+		}
+	};
+
+	/*
+	 * Processes the chunks of one animation frame and requests the next frame
+	 * if nodes are left
+	 */
+	bridge.renderProgressiveFrame = function(task) {
+		if (task.isDone) {
+			return;
+		}
+		bridge.cancelProgressiveFrame(task);
+
+		var frameStart = bridge.now();
+		var elapsed = 0;
+		while (!task.isDone && task.rendered < task.total && elapsed < task.budget) {
+			var chunkStart = bridge.now();
+			var offset = task.rendered;
+			var chunk = bridge.nextProgressiveChunk(task);
+			if (task.chunkFunction) {
+				task.chunkFunction(chunk, offset);
+			}
+			var now = bridge.now();
+			var numberOfNodes = task.rendered - offset;
+			var duration = now - chunkStart;
+			if (duration > 0) {
+				var nodesPerChunk = Math.floor(numberOfNodes * task.budget / (4 * duration));
+				task.nodesPerChunk = Math.max(1, Math.min(nodesPerChunk, 4 * task.nodesPerChunk));
+			} else {
+				task.nodesPerChunk *= 4;
+			}
+			elapsed = now - frameStart;
+		}
+
+		if (task.isDone) {
+			return;
+		}
+		var isFinished = task.rendered >= task.total;
+		if (isFinished) {
+			task.isDone = true;
+			bridge.unregisterProgressiveRender(task);
+		} else {
+			bridge.requestProgressiveFrame(task);
+		}
+		task.progressFunction(task.rendered, task.total, false);
+	};
+
+	/*
+	 * Creates the nodes of the next chunk and returns them as selection. The
+	 * groups of the chunk keep the parent nodes of the original groups.
+	 */
+	bridge.nextProgressiveChunk = function(task) {
+		var selection = task.selection;
+		var subgroups = [];
+		var count = 0;
+		while (count < task.nodesPerChunk && task.groupIndex < selection.length) {
+			var group = selection[task.groupIndex];
+			var subgroup = [];
+			subgroup.parentNode = group.parentNode;
+			while (count < task.nodesPerChunk && task.index < group.length) {
+				var node = group[task.index];
+				if (node) {
+					subgroup.push(task.createNode(group, node, task.index));
+					count++;
+				}
+				task.index++;
+			}
+			if (subgroup.length > 0) {
+				subgroups.push(subgroup);
+			}
+			if (task.index >= group.length) {
+				task.groupIndex++;
+				task.index = 0;
+			}
+		}
+		task.rendered += count;
+		return bridge.subclass(subgroups, d3.selection.prototype);
+	};
+
+	/*
+	 * Stops a progressive render after the current chunk and reports the
+	 * cancellation
+	 */
+	bridge.cancelProgressiveRender = function(task) {
+		if (task.isDone) {
+			return;
+		}
+		task.isDone = true;
+		bridge.cancelProgressiveFrame(task);
+		bridge.unregisterProgressiveRender(task);
+		task.progressFunction(task.rendered, task.total, true);
+	};
+
+	/*
+	 * Returns a timestamp in milliseconds
+	 */
+	bridge.now = function() {
+		return window.performance && window.performance.now ? window.performance.now() : Date.now();
+	};
+
+	/* #end region */
+
+	/* #region QUADTREE */
+
+	/*
+	 * Creates an object {x1, y1, x2, y2} for each cell of a Java quadtree
+	 * from the base64 encoded float64 bounds
+	 */
+	bridge.createQuadtreeCells = function(base64) {
+		var bounds = bridge.decodeTypedArray('float64', base64);
+		var length = bounds.length / 4;
+		var cells = new Array(length);
+		for (var index = 0; index < length; index++) {
+			var offset = 4 * index;
+			cells[index] = {
+				x1 : bounds[offset],
+				y1 : bounds[offset + 1],
+				x2 : bounds[offset + 2],
+				y2 : bounds[offset + 3]
+			};
+		}
+		return cells;
+	};
+
+	/* #end region */
+
+	/* #region FORCE SIMULATION */
+
+	/*
+	 * Assigns the base64 encoded float64 positions (x and y for each node)
+	 * of a Java force simulation to the given nodes
+	 */
+	bridge.setNodePositions = function(nodes, base64) {
+		var positions = bridge.decodeTypedArray('float64', base64);
+		var length = Math.min(nodes.length, positions.length / 2);
+		for (var index = 0; index < length; index++) {
+			var node = nodes[index];
+			node.x = positions[2 * index];
+			node.y = positions[2 * index + 1];
+		}
+	};
+
+	/* #end region */
+
+	/* #region HIERARCHY */
+
+	/*
+	 * Creates an object {index, parent, depth, x, y} for each node of a Java
+	 * hierarchy layout from the base64 encoded int32 parents and depths and
+	 * the float64 positions
+	 */
+	bridge.createHierarchyNodes = function(parentsBase64, depthsBase64, positionsBase64) {
+		var parents = bridge.decodeTypedArray('int32', parentsBase64);
+		var depths = bridge.decodeTypedArray('int32', depthsBase64);
+		var positions = bridge.decodeTypedArray('float64', positionsBase64);
+		var length = parents.length;
+		var nodes = new Array(length);
+		for (var index = 0; index < length; index++) {
+			nodes[index] = {
+				index : index,
+				parent : parents[index],
+				depth : depths[index],
+				x : positions[2 * index],
+				y : positions[2 * index + 1]
+			};
+		}
+		return nodes;
+	};
+
+	/* #end region */
+
+	/* #region CALLBACKS */
+
+	/*
+	 * The following trampolines create JavaScript functions that forward
+	 * their arguments to the Java CallbackDispatcher. The callback is
+	 * identified by its id, so that the functions do not need to be created
+	 * from generated source code.
+	 */
+
+	/*
+	 * Creates a function(d, i) that calls a DataFunction
+	 */
+	bridge.dataFunction = function(dispatcher, id) {
+		return function(d, i) {
+			return dispatcher.dispatch(id, this, d, i);
+		};
+	};
+
+	/*
+	 * Creates a function(d, i) that calls a DataFunction and converts its
+	 * result to a string, e.g. for style values
+	 */
+	bridge.stringDataFunction = function(dispatcher, id) {
+		return function(d, i) {
+			var result = dispatcher.dispatch(id, this, d, i);
+			return result ? result.toString() : null;
+		};
+	};
+
+	/*
+	 * Creates a function(d, i) that calls a DataFunction and replaces a null
+	 * result with false, e.g. for classed
+	 */
+	bridge.booleanDataFunction = function(dispatcher, id) {
+		return function(d, i) {
+			var result = dispatcher.dispatch(id, this, d, i);
+			return result == null ? false : result;
+		};
+	};
+
+	/*
+	 * Creates a function(d, i, a) that calls a ForEachCallback
+	 */
+	bridge.forEachFunction = function(dispatcher, id) {
+		return function(d, i, a) {
+			return dispatcher.dispatchForEach(id, this, d, i, a);
+		};
+	};
+
+	/*
+	 * Creates a function(element) that calls a ForEachObjectDelegate
+	 */
+	bridge.elementFunction = function(dispatcher, id) {
+		return function(element) {
+			dispatcher.dispatchElement(id, element);
+		};
+	};
+
+	/*
+	 * Creates a key function(d, i) for selection.data(values, key) that
+	 * calls a KeyFunction. The key function is called with the new data
+	 * array as context for the new data and with the element as context
+	 * for the existing elements.
+	 */
+	bridge.keyFunction = function(dispatcher, id, values) {
+		return function(d, i) {
+			var isNewData = this === values;
+			var context = isNewData ? null : this;
+			var newDataArray = isNewData ? this : null;
+			return dispatcher.dispatchKey(id, context, newDataArray, d, i);
+		};
+	};
+
+	/*
+	 * Creates a comparator function(a, b) that calls a Java Comparator
+	 */
+	bridge.comparator = function(dispatcher, id) {
+		return function(a, b) {
+			return dispatcher.dispatchCompare(id, a, b);
+		};
+	};
+
+	/*
+	 * Creates a function() for d3.timer that calls a TimerFunction
+	 */
+	bridge.timerFunction = function(dispatcher, id) {
+		return function() {
+			return dispatcher.dispatchTimer(id);
+		};
+	};
+
+	/*
+	 * Creates a function(node, x1, y1, x2, y2) for quadtree.visit that calls
+	 * a quadtree visit callback
+	 */
+	bridge.visitFunction = function(dispatcher, id) {
+		return function(node, x1, y1, x2, y2) {
+			return dispatcher.dispatchVisit(id, node, x1, y1, x2, y2);
+		};
+	};
+
+	/*
+	 * Creates a function(error, rows) that calls a DsvCallback
+	 */
+	bridge.dsvCallback = function(dispatcher, id) {
+		return function(error, rows) {
+			dispatcher.dispatchDsv(id, error, rows);
+		};
+	};
+
+	/*
+	 * Creates a function(row, i) that calls a DSV row accessor
+	 */
+	bridge.rowFunction = function(dispatcher, id) {
+		return function(row, i) {
+			return dispatcher.dispatchRow(id, row, i);
+		};
+	};
+
+	/*
+	 * Creates a tween function(d, i, a) for transition.attrTween and
+	 * transition.styleTween that calls a TweenFunction with the current
+	 * value of the attribute or style
+	 */
+	bridge.tweenFunction = function(dispatcher, id) {
+		return function(d, i, a) {
+			return dispatcher.dispatchTween(id, this, d, i, a);
+		};
+	};
+
+	/*
+	 * Creates a function(t) for transition.ease that calls an EasingFunction
+	 */
+	bridge.easingFunction = function(dispatcher, id) {
+		return function(t) {
+			return dispatcher.dispatchEase(id, t);
+		};
+	};
+
+	/*
+	 * Creates a function(chunk, offset) that calls a ChunkFunction
+	 */
+	bridge.chunkFunction = function(dispatcher, id) {
+		return function(chunk, offset) {
+			dispatcher.dispatchChunk(id, chunk, offset);
+		};
+	};
+
+	/*
+	 * Creates a function(rendered, total, isCancelled) that updates a
+	 * ProgressiveRender
+	 */
+	bridge.progressFunction = function(dispatcher, id) {
+		return function(rendered, total, isCancelled) {
+			dispatcher.dispatchProgress(id, rendered, total, isCancelled);
+		};
+	};
+
+	/*
+	 * Creates a function(t) that calls a CallableInterpolator
+	 */
+	bridge.interpolatorFunction = function(dispatcher, id) {
+		return function(t) {
+			return dispatcher.dispatchInterpolate(id, t);
+		};
+	};
+
+	/*
+	 * Creates a function(a, b) for d3.interpolators that calls an
+	 * AbstractInterpolatorFactory
+	 */
+	bridge.interpolatorFactoryFunction = function(dispatcher, id) {
+		return function(a, b) {
+			return dispatcher.dispatchInterpolatorFactory(id, a, b);
+		};
+	};
+
+	/* #end region */
+
+	/* #region CALLBACK RELEASE */
+
+	/*
+	 * Event listeners, accessors and transition callbacks are called after
+	 * the method that received them has returned. Their functions are created
+	 * by permanentFunction, which stores the callback id at the function. The
+	 * id is released when d3 does not reference the function any more.
+	 */
+
+	/*
+	 * The functions that are used by transitions and have not been released
+	 */
+	bridge.transitionCallbacks = [];
+
+	/*
+	 * The minimum time in milliseconds between two checks of the transition
+	 * callbacks
+	 */
+	bridge.TRANSITION_SWEEP_INTERVAL = 250;
+
+	/*
+	 * Creates a function with the given trampoline (see region CALLBACKS)
+	 * and stores the callback id at the function
+	 */
+	bridge.permanentFunction = function(trampolineName, dispatcher, id) {
+		var fn = bridge[trampolineName](dispatcher, id);
+		fn.__jfxd3callback = {
+			dispatcher : dispatcher,
+			id : id,
+			references : 0,
+			transitionUses : null
+		};
+		return fn;
+	};
+
+	/*
+	 * Releases the callback id of the given function. Functions that have
+	 * not been created by permanentFunction or have already been released
+	 * are ignored, so that a reused id is never released twice.
+	 */
+	bridge.releaseFunction = function(fn) {
+		var callback = fn && fn.__jfxd3callback;
+		if (callback) {
+			delete fn.__jfxd3callback;
+			callback.dispatcher.release(callback.id);
+		}
+	};
+
+	/*
+	 * Changes the number of elements that reference the given listener and
+	 * releases it if no element references it any more
+	 */
+	bridge.addReferences = function(fn, count) {
+		var callback = fn && fn.__jfxd3callback;
+		if (callback) {
+			callback.references += count;
+			if (callback.references <= 0) {
+				bridge.releaseFunction(fn);
+			}
+		}
+	};
+
+	/*
+	 * Calls selection.on(type, listener, capture) and releases the listeners
+	 * that have been replaced or removed. A listener may be registered at
+	 * several elements, so it is released when it has been removed from all
+	 * of them.
+	 */
+	bridge.on = function(selection, type, listener, capture) {
+		var isRemovingAll = type.charAt(0) === '.';
+		var replacedListeners = [];
+		if (isRemovingAll) {
+			if (!listener) {
+				var pattern = new RegExp('^__on([^.]+)' + d3.requote(type) + '$');
+				selection.each(function() {
+					for ( var name in this) {
+						if (pattern.test(name)) {
+							replacedListeners.push(this[name]._);
+						}
+					}
+				});
+			}
+		} else {
+			var listenerName = '__on' + type;
+			selection.each(function() {
+				var previous = this[listenerName];
+				if (previous) {
+					replacedListeners.push(previous._);
+				}
+			});
+		}
+
+		var result = selection.on(type, listener, capture || false);
+
+		var numberOfAddedListeners = isRemovingAll ? 0 : selection.size();
+		bridge.addReferences(listener, numberOfAddedListeners);
+		for (var index = 0; index < replacedListeners.length; index++) {
+			bridge.addReferences(replacedListeners[index], -1);
+		}
+		return result;
+	};
+
+	/*
+	 * Calls the method of the target with the remaining arguments, e.g.
+	 * line.x(fn) or drag.on(type, fn), and releases the functions that have
+	 * been replaced. Like d3 accessors, the methods with the given comma
+	 * separated names return their current function if they are called
+	 * without the last argument. If no names are given, only the called
+	 * method is checked. Several names are required if d3 sets more than one
+	 * accessor, e.g. area.x sets x0 and x1.
+	 */
+	bridge.replaceFunction = function(target, methodName, accessorNames) {
+		var args = Array.prototype.slice.call(arguments, 3);
+		var getterArgs = args.slice(0, args.length - 1);
+		var names = accessorNames ? accessorNames.split(',') : [ methodName ];
+		var previousFunctions = bridge.getAccessors(target, names, getterArgs);
+		var result = target[methodName].apply(target, args);
+		var currentFunctions = bridge.getAccessors(target, names, getterArgs);
+		for (var index = 0; index < previousFunctions.length; index++) {
+			var previous = previousFunctions[index];
+			var isReplaced = currentFunctions.indexOf(previous) < 0;
+			if (isReplaced) {
+				bridge.releaseFunction(previous);
+			}
+		}
+		return result;
+	};
+
+	/*
+	 * Returns the current values of the accessors with the given names
+	 */
+	bridge.getAccessors = function(target, names, getterArgs) {
+		return names.map(function(name) {
+			return target[name].apply(target, getterArgs);
+		});
+	};
+
+	/*
+	 * Releases the row accessor of the given d3.csv or d3.tsv request after
+	 * the request has been loaded or has failed. d3 calls the callback of
+	 * the request without the request as context, so a listener of its own
+	 * namespace is used. Registering it again replaces the listener.
+	 */
+	bridge.releaseRowOnCompletion = function(request) {
+		var release = function() {
+			request.on('load.jfxd3', null).on('error.jfxd3', null);
+			bridge.releaseFunction(request.row());
+		};
+		request.on('load.jfxd3', release).on('error.jfxd3', release);
+		return request;
+	};
+
+	/*
+	 * The methods of transitions whose callbacks create functions that are
+	 * used while the transition runs, e.g. the interpolators of attrTween
+	 */
+	bridge.transitionFactoryMethods = {
+		tween : true,
+		attrTween : true,
+		styleTween : true
+	};
+
+	/*
+	 * Calls the method of the transition with the remaining arguments, e.g.
+	 * attrTween(name, fn), and releases the given function when the
+	 * transition has ended, has been interrupted or has been cancelled on
+	 * all of its elements. The functions that are created by the callbacks
+	 * of tweens (e.g. by a CallableInterpolator) are released when the
+	 * transition of their element does not use them any more.
+	 */
+	bridge.callWithTransitionCallback = function(transition, methodName, fn) {
+		var args = Array.prototype.slice.call(arguments, 3);
+		var isFactoryMethod = bridge.transitionFactoryMethods[methodName] === true;
+		if (isFactoryMethod) {
+			var factoryIndex = args.indexOf(fn);
+			args[factoryIndex] = function() {
+				var createdFunction = fn.apply(this, arguments);
+				bridge.addTransitionUse(createdFunction, transition, [ this ]);
+				return createdFunction;
+			};
+		}
+		var result = transition[methodName].apply(transition, args);
+		bridge.releaseWithTransition(transition, fn);
+		return result;
+	};
+
+	/*
+	 * Releases the given function when no element of the transition
+	 * references it any more. The elements are checked periodically since
+	 * d3 does not dispatch an event for cancelled transitions.
+	 */
+	bridge.releaseWithTransition = function(transition, fn) {
+		var nodes = [];
+		bridge.eachTransitionNode(transition, function() {
+			nodes.push(this);
+		});
+		bridge.addTransitionUse(fn, transition, nodes);
+	};
+
+	/*
+	 * Adds the given elements of the transition to the elements that might
+	 * use the given function. The function is released by
+	 * sweepTransitionCallbacks when none of its transitions is scheduled or
+	 * running on these elements any more.
+	 */
+	bridge.addTransitionUse = function(fn, transition, nodes) {
+		var callback = fn && fn.__jfxd3callback;
+		if (!callback) {
+			return;
+		}
+
+		var isTracked = callback.transitionUses !== null;
+		if (!isTracked) {
+			callback.transitionUses = [];
+			bridge.trackTransitionCallback(fn);
+		}
+
+		var use = bridge.findTransitionUse(callback, transition);
+		if (use) {
+			use.nodes = use.nodes.concat(nodes);
+		} else {
+			callback.transitionUses.push({
+				namespace : transition.namespace,
+				transitionId : transition.id,
+				nodes : nodes
+			});
+		}
+	};
+
+	/*
+	 * Returns the use of the callback by the given transition or null
+	 */
+	bridge.findTransitionUse = function(callback, transition) {
+		var uses = callback.transitionUses || [];
+		for (var index = 0; index < uses.length; index++) {
+			var use = uses[index];
+			var isSameTransition = use.namespace === transition.namespace && use.transitionId === transition.id;
+			if (isSameTransition) {
+				return use;
+			}
+		}
+		return null;
+	};
+
+	/*
+	 * Adds the given function to the checked transition callbacks and starts
+	 * the periodic check if it is the first one
+	 */
+	bridge.trackTransitionCallback = function(fn) {
+		bridge.transitionCallbacks.push(fn);
+		var isFirstCallback = bridge.transitionCallbacks.length === 1;
+		if (isFirstCallback) {
+			var lastSweep = 0;
+			d3.timer(function(elapsed) {
+				if (elapsed - lastSweep < bridge.TRANSITION_SWEEP_INTERVAL) {
+					return false;
+				}
+				lastSweep = elapsed;
+				return bridge.sweepTransitionCallbacks();
+			});
+		}
+	};
+
+	/*
+	 * Adds the elements of the given sub transition (see transition.select
+	 * and transition.selectAll) to the custom easing functions that they
+	 * inherit from their parent elements
+	 */
+	bridge.inheritTransitionCallbacks = function(transition) {
+		var namespace = transition.namespace;
+		var id = transition.id;
+		bridge.eachTransitionNode(transition, function() {
+			var lock = this[namespace];
+			var ease = lock && lock[id] && lock[id].ease;
+			var callback = ease && ease.__jfxd3callback;
+			var use = callback && bridge.findTransitionUse(callback, transition);
+			if (use) {
+				use.nodes.push(this);
+			}
+		});
+		return transition;
+	};
+
+	/*
+	 * Calls the given function with each element of the transition as
+	 * context. Unlike transition.each this does not require that the
+	 * transition is still scheduled on the elements.
+	 */
+	bridge.eachTransitionNode = function(transition, fn) {
+		d3.selection.prototype.each.call(transition, fn);
+	};
+
+	/*
+	 * Releases the transition callbacks that are not used any more. Returns
+	 * true if no callbacks are left, which stops the timer of the sweep.
+	 */
+	bridge.sweepTransitionCallbacks = function() {
+		bridge.transitionCallbacks = bridge.transitionCallbacks.filter(function(fn) {
+			var isUsed = bridge.isUsedByTransition(fn);
+			if (!isUsed) {
+				bridge.releaseFunction(fn);
+			}
+			return isUsed;
+		});
+		return bridge.transitionCallbacks.length === 0;
+	};
+
+	/*
+	 * Returns true if one of the elements still has a scheduled or running
+	 * transition that uses the given function. Easing functions are
+	 * inherited by chained transitions, so every transition of the elements
+	 * is checked for them.
+	 */
+	bridge.isUsedByTransition = function(fn) {
+		var callback = fn.__jfxd3callback;
+		if (!callback) {
+			return false;
+		}
+		var uses = callback.transitionUses;
+		for (var useIndex = 0; useIndex < uses.length; useIndex++) {
+			var use = uses[useIndex];
+			for (var index = 0; index < use.nodes.length; index++) {
+				var lock = use.nodes[index][use.namespace];
+				if (!lock) {
+					continue;
+				}
+				if (lock[use.transitionId]) {
+					return true;
+				}
+				for ( var key in lock) {
+					var isTransition = key !== 'active' && key !== 'count';
+					if (isTransition && lock[key].ease === fn) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	};
+
+	/* #end region */
+
+	/* #region DATA CONVERSION */
+
+	/*
+	 * Returns the datum of a wrapper object {datum: d} that has been created
+	 * to pass a value to Java. Other objects are returned unchanged.
+	 */
+	bridge.unwrapDatum = function(object) {
+		var isWrapper = object != null && object.datum != null && Object.keys(object).length === 1;
+		return isWrapper ? object.datum : object;
+	};
+
+	/* #end region */
+
+	/* #region INVOCATION */
+
+	/*
+	 * The following functions replace the evaluation of generated source
+	 * code. Names, values and callbacks are passed as arguments, so that
+	 * they do not need to be quoted and no code has to be parsed.
+	 */
+
+	/*
+	 * Creates a function with the given trampoline (see region CALLBACKS)
+	 * and calls the method of the target with the remaining arguments,
+	 * followed by the created function. This combines the creation and the
+	 * use of a callback function in a single call from Java.
+	 */
+	bridge.callWithCallback = function(target, methodName, trampolineName, dispatcher, id) {
+		var args = Array.prototype.slice.call(arguments, 5);
+		args.push(bridge[trampolineName](dispatcher, id));
+		return target[methodName].apply(target, args);
+	};
+
+	/*
+	 * Returns a new array that contains the arguments
+	 */
+	bridge.toArray = function() {
+		return Array.prototype.slice.call(arguments);
+	};
+
+	/*
+	 * Returns a new empty object
+	 */
+	bridge.newObject = function() {
+		return {};
+	};
+
+	/* #end region */
+
+	/* #region COMMAND BUFFER */
+
+	/*
+	 * Executes buffered commands. The arguments are a flat list of commands:
+	 * target, command name, number of arguments, arguments... The command
+	 * names '=set' and '=remove' set and remove a member of the target.
+	 */
+	bridge.runCommands = function() {
+		var args = arguments;
+		var index = 0;
+		while (index < args.length) {
+			var target = args[index];
+			var commandName = args[index + 1];
+			var numberOfArguments = args[index + 2];
+			index += 3;
+			if (commandName === '=set') {
+				target[args[index]] = args[index + 1];
+			} else if (commandName === '=remove') {
+				delete target[args[index]];
+			} else {
+				var commandArguments = Array.prototype.slice.call(args, index, index + numberOfArguments);
+				target[commandName].apply(target, commandArguments);
+			}
+			index += numberOfArguments;
+		}
+	};
+
+	/* #end region */
+
+	/* #region CANVAS */
+
+	/*
+	 * Replays a display list on the given 2D context. The commands are float64
+	 * values: operation code, numeric arguments... The string arguments are
+	 * taken in order from the decoded strings. The operation codes are defined
+	 * by the Java class DisplayList.
+	 */
+	bridge.replayCanvas = function(context, base64, stringLengthsBase64, text) {
+		var values = bridge.decodeTypedArray('float64', base64);
+		var strings = bridge.decodeStrings(stringLengthsBase64, text);
+		var stringIndex = 0;
+		var length = values.length;
+		var index = 0;
+		while (index < length) {
+			var operationCode = values[index++];
+			switch (operationCode) {
+			case 0: context.save(); break;
+			case 1: context.restore(); break;
+			case 2: context.translate(values[index], values[index + 1]); index += 2; break;
+			case 3: context.scale(values[index], values[index + 1]); index += 2; break;
+			case 4: context.rotate(values[index]); index += 1; break;
+			case 5: context.beginPath(); break;
+			case 6: context.closePath(); break;
+			case 7: context.moveTo(values[index], values[index + 1]); index += 2; break;
+			case 8: context.lineTo(values[index], values[index + 1]); index += 2; break;
+			case 9:
+				context.rect(values[index], values[index + 1], values[index + 2], values[index + 3]);
+				index += 4;
+				break;
+			case 10:
+				context.arc(values[index], values[index + 1], values[index + 2], values[index + 3],
+						values[index + 4], values[index + 5] === 1);
+				index += 6;
+				break;
+			case 11: context.stroke(); break;
+			case 12: context.fill(); break;
+			case 13:
+				context.fillRect(values[index], values[index + 1], values[index + 2], values[index + 3]);
+				index += 4;
+				break;
+			case 14:
+				context.clearRect(values[index], values[index + 1], values[index + 2], values[index + 3]);
+				index += 4;
+				break;
+			case 15: context.lineWidth = values[index]; index += 1; break;
+			case 16: context.globalAlpha = values[index]; index += 1; break;
+			case 17: context.strokeStyle = strings[stringIndex++]; break;
+			case 18: context.fillStyle = strings[stringIndex++]; break;
+			case 19: context.globalCompositeOperation = strings[stringIndex++]; break;
+			default: throw new Error('Unknown canvas operation code ' + operationCode);
+			}
+		}
+	};
+
+	/* #end region */
+
+	/* #region CANVAS LAYERS */
+
+	/*
+	 * If a render policy is set, enter.append creates canvas marks instead
+	 * of SVG elements for dense mark layers: once a parent element would
+	 * contain more elements of a mark type (e.g. circle) than the element
+	 * budget, the new elements of that type are created as marks of a canvas
+	 * layer. A canvas layer draws all of its marks in a single loop on a
+	 * canvas that is embedded in the parent element with a foreignObject.
+	 * Existing SVG elements are not converted.
+	 *
+	 * The marks implement the parts of the element interface that d3 uses
+	 * (attributes, inline styles, classes, event listeners and removal), and
+	 * the parent element and its ancestors also return them from
+	 * querySelectorAll. Therefore the same selection calls work for SVG
+	 * elements and canvas marks. Selectors for marks may consist of element
+	 * names, classes, ids and attributes; the marks are returned after the
+	 * SVG elements.
+	 *
+	 * The bounds of the marks are stored in a grid index when the layer is
+	 * drawn. Mouse events that hit the SVG below a canvas layer are
+	 * dispatched to the topmost mark at the mouse position.
+	 */
+
+	bridge.svgNamespace = 'http://www.w3.org/2000/svg';
+
+	bridge.markStyleProperties = [ 'fill', 'fill-opacity', 'stroke', 'stroke-opacity', 'stroke-width', 'opacity' ];
+
+	bridge.markStyleSentinels = {
+		'fill' : 'rgb(1, 2, 3)',
+		'fill-opacity' : '0.123',
+		'stroke' : 'rgb(1, 2, 3)',
+		'stroke-opacity' : '0.123',
+		'stroke-width' : '0.123',
+		'opacity' : '0.123'
+	};
+
+	bridge.markEventTypes = [ 'mousemove', 'mousedown', 'mouseup', 'click', 'dblclick', 'contextmenu', 'mouseleave' ];
+
+	bridge.canvasLayers = [];
+
+	/*
+	 * Sets the render policy: the element budget per parent element and the
+	 * names of the elements that are drawn on canvas layers if the budget is
+	 * exceeded. A negative budget removes the render policy.
+	 */
+	bridge.setRenderPolicy = function(elementBudget) {
+		var enterPrototype = d3.selection.enter.prototype;
+		if (!bridge.appendElement) {
+			bridge.appendElement = enterPrototype.append;
+		}
+		if (elementBudget < 0) {
+			bridge.renderPolicy = null;
+			enterPrototype.append = bridge.appendElement;
+			return;
+		}
+		bridge.renderPolicy = {
+			elementBudget : elementBudget,
+			names : Array.prototype.slice.call(arguments, 1)
+		};
+		enterPrototype.append = bridge.appendToLayer;
+	};
+
+	/*
+	 * Replaces enter.append while a render policy is set
+	 */
+	bridge.appendToLayer = function(name) {
+		var layerName = bridge.getLayerName(name);
+		if (!layerName) {
+			return bridge.appendElement.call(this, name);
+		}
+		for (var groupIndex = 0; groupIndex < this.length; groupIndex++) {
+			bridge.prepareCanvasLayer(this[groupIndex], layerName);
+		}
+		return this.select(function() {
+			var layers = this.__jfxd3layers;
+			var layer = layers ? layers[layerName] : null;
+			if (layer) {
+				return bridge.createMark(layer);
+			}
+			return this.appendChild(bridge.createElement(this, name));
+		});
+	};
+
+	/*
+	 * Returns the local name of the given element name if elements with that
+	 * name may be drawn on canvas layers
+	 */
+	bridge.getLayerName = function(name) {
+		if (typeof name !== 'string') {
+			return null;
+		}
+		var qualifiedName = d3.ns.qualify(name);
+		var localName = qualifiedName.local ? qualifiedName.local : qualifiedName;
+		var isSvgName = !qualifiedName.local || qualifiedName.space === bridge.svgNamespace;
+		var isLayerName = isSvgName && bridge.renderPolicy.names.indexOf(localName) >= 0;
+		return isLayerName ? localName : null;
+	};
+
+	bridge.createElement = function(parent, name) {
+		var qualifiedName = d3.ns.qualify(name);
+		var document = parent.ownerDocument;
+		if (qualifiedName.local) {
+			return document.createElementNS(qualifiedName.space, qualifiedName.local);
+		}
+		return parent.namespaceURI ? document.createElementNS(parent.namespaceURI, qualifiedName) : document
+				.createElement(qualifiedName);
+	};
+
+	/*
+	 * Creates a canvas layer for the parent node of an enter group if the
+	 * entering and the existing elements exceed the element budget
+	 */
+	bridge.prepareCanvasLayer = function(group, name) {
+		var parent = group.parentNode;
+		var isSvgParent = parent && parent.namespaceURI === bridge.svgNamespace;
+		if (!isSvgParent) {
+			return;
+		}
+		var existingLayer = parent.__jfxd3layers ? parent.__jfxd3layers[name] : null;
+		var isDiscarded = existingLayer && existingLayer.foreignObject.parentNode !== parent;
+		if (isDiscarded) {
+			bridge.pruneCanvasLayers();
+			delete parent.__jfxd3layers[name];
+			existingLayer = null;
+		}
+		if (existingLayer) {
+			if (!existingLayer.isRegistered && bridge.isLayerAttached(existingLayer)) {
+				bridge.registerCanvasLayer(existingLayer);
+				bridge.invalidateLayer(existingLayer);
+			}
+			return;
+		}
+		var numberOfElements = bridge.countNodes(group, null);
+		var children = parent.childNodes;
+		for (var index = 0; index < children.length; index++) {
+			if (children[index].localName === name) {
+				numberOfElements++;
+			}
+		}
+		if (numberOfElements > bridge.renderPolicy.elementBudget) {
+			bridge.createCanvasLayer(parent, name);
+		}
+	};
+
+	bridge.createCanvasLayer = function(parent, name) {
+		var document = parent.ownerDocument;
+		var foreignObject = document.createElementNS(bridge.svgNamespace, 'foreignObject');
+		foreignObject.setAttribute('class', 'jfxd3-canvas-layer');
+		foreignObject.setAttribute('pointer-events', 'none');
+		var canvas = document.createElementNS('http://www.w3.org/1999/xhtml', 'canvas');
+		canvas.style.display = 'block';
+		canvas.style.pointerEvents = 'none';
+		foreignObject.appendChild(canvas);
+		Node.prototype.appendChild.call(parent, foreignObject);
+
+		var layer = {
+			parent : parent,
+			name : name,
+			document : bridge.createMarkDocument(parent),
+			foreignObject : foreignObject,
+			canvas : canvas,
+			context : canvas.getContext('2d'),
+			marks : [],
+			boxes : new Float64Array(0),
+			strokeWidths : new Float64Array(0),
+			grid : null,
+			frame : null,
+			isDirty : false,
+			isOrderDirty : false,
+			numberOfRemovedMarks : 0,
+			numberOfListeners : 0,
+			minimumOrder : 0,
+			maximumOrder : 0,
+			hoveredMark : null,
+			eventRoot : parent.ownerSVGElement || parent,
+			isRegistered : false,
+			hitStamp : null
+		};
+		if (!parent.__jfxd3layers) {
+			parent.__jfxd3layers = {};
+		}
+		parent.__jfxd3layers[name] = layer;
+		bridge.patchLayerParent(parent);
+		bridge.pruneCanvasLayers();
+		bridge.registerCanvasLayer(layer);
+		return layer;
+	};
+
+	/*
+	 * Adds the layer to the layers that are searched for marks and that
+	 * receive mouse events
+	 */
+	bridge.registerCanvasLayer = function(layer) {
+		layer.isRegistered = true;
+		bridge.canvasLayers.push(layer);
+		bridge.addLayerEventListeners(layer);
+	};
+
+	/*
+	 * Returns true if the foreignObject of the layer is a child of its
+	 * parent and the parent is part of the document
+	 */
+	bridge.isLayerAttached = function(layer) {
+		var parent = layer.parent;
+		return layer.foreignObject.parentNode === parent
+				&& bridge.containsNode(parent.ownerDocument.documentElement, parent);
+	};
+
+	/*
+	 * Removes the layers that are not attached any more from the searched
+	 * layers and from the event layers of their SVG elements. A layer whose
+	 * foreignObject has been removed from its parent is discarded, so that
+	 * a new layer is created for new marks. A layer whose parent has been
+	 * removed from the document is registered again if the parent is
+	 * attached and receives new marks (see prepareCanvasLayer).
+	 */
+	bridge.pruneCanvasLayers = function() {
+		var layers = bridge.canvasLayers;
+		var numberOfAttachedLayers = 0;
+		for (var index = 0; index < layers.length; index++) {
+			var layer = layers[index];
+			if (bridge.isLayerAttached(layer)) {
+				layers[numberOfAttachedLayers++] = layer;
+				continue;
+			}
+			layer.isRegistered = false;
+			layer.hoveredMark = null;
+			if (layer.frame !== null) {
+				bridge.cancelFrame(layer.frame);
+				layer.frame = null;
+				layer.isDirty = false;
+			}
+			var eventLayers = layer.eventRoot.__jfxd3eventLayers;
+			eventLayers.splice(eventLayers.indexOf(layer), 1);
+			var isDiscarded = layer.foreignObject.parentNode !== layer.parent;
+			var parentLayers = layer.parent.__jfxd3layers;
+			if (isDiscarded && parentLayers[layer.name] === layer) {
+				delete parentLayers[layer.name];
+			}
+		}
+		layers.length = numberOfAttachedLayers;
+	};
+
+	/*
+	 * Creates the ownerDocument of the marks, which provides the computed
+	 * styles of the marks for selection.style(name) and transitions
+	 */
+	bridge.createMarkDocument = function(parent) {
+		return {
+			documentElement : parent.ownerDocument.documentElement,
+			defaultView : {
+				getComputedStyle : function(mark) {
+					return {
+						getPropertyValue : function(name) {
+							return bridge.getMarkStyle(mark, name);
+						}
+					};
+				}
+			}
+		};
+	};
+
+	/*
+	 * Lets the parent of canvas layers handle marks in appendChild,
+	 * insertBefore and removeChild and lets the parent, its ancestors and
+	 * the document return marks from querySelectorAll and querySelector
+	 */
+	bridge.patchLayerParent = function(parent) {
+		if (!parent.__jfxd3patched) {
+			parent.__jfxd3patched = true;
+			parent.appendChild = bridge.appendChildWithMarks;
+			parent.insertBefore = bridge.insertBeforeWithMarks;
+			parent.removeChild = bridge.removeChildWithMarks;
+		}
+		for (var element = parent; element && element.querySelectorAll; element = element.parentNode) {
+			if (!element.__jfxd3querying) {
+				element.__jfxd3querying = true;
+				element.querySelectorAll = bridge.querySelectorAllWithMarks;
+				element.querySelector = bridge.querySelectorWithMarks;
+			}
+		}
+	};
+
+	bridge.appendChildWithMarks = function(node) {
+		if (node instanceof bridge.CanvasMark) {
+			bridge.orderMark(node, null);
+			return node;
+		}
+		return Node.prototype.appendChild.call(this, node);
+	};
+
+	bridge.insertBeforeWithMarks = function(node, nextNode) {
+		if (node instanceof bridge.CanvasMark) {
+			bridge.orderMark(node, nextNode);
+			return node;
+		}
+		if (nextNode instanceof bridge.CanvasMark) {
+			nextNode = nextNode.__jfxd3layer ? nextNode.__jfxd3layer.foreignObject : null;
+		}
+		return Node.prototype.insertBefore.call(this, node, nextNode);
+	};
+
+	bridge.removeChildWithMarks = function(node) {
+		if (node instanceof bridge.CanvasMark) {
+			bridge.removeMark(node);
+			return node;
+		}
+		return Node.prototype.removeChild.call(this, node);
+	};
+
+	bridge.querySelectorAllWithMarks = function(selector) {
+		var nodes = bridge.getNodePrototype(this).querySelectorAll.call(this, selector);
+		var marks = bridge.findMarks(this, selector, false);
+		if (marks.length === 0) {
+			return nodes;
+		}
+		return Array.prototype.slice.call(nodes).concat(marks);
+	};
+
+	bridge.querySelectorWithMarks = function(selector) {
+		var node = bridge.getNodePrototype(this).querySelector.call(this, selector);
+		return node ? node : bridge.findMarks(this, selector, true)[0] || null;
+	};
+
+	bridge.getNodePrototype = function(node) {
+		var isDocument = node.nodeType === 9;
+		return isDocument ? Document.prototype : Element.prototype;
+	};
+
+	/*
+	 * Returns the marks of the canvas layers inside the given element that
+	 * match the given selector
+	 */
+	bridge.findMarks = function(element, selector, isFirstOnly) {
+		var result = [];
+		bridge.pruneCanvasLayers();
+		var layers = bridge.canvasLayers;
+		if (layers.length === 0) {
+			return result;
+		}
+		var matcher = bridge.compileMarkSelector(selector);
+		for (var layerIndex = 0; layerIndex < layers.length; layerIndex++) {
+			var layer = layers[layerIndex];
+			var parent = layer.parent;
+			var isInside = parent === element || bridge.containsNode(element, parent);
+			if (!isInside) {
+				continue;
+			}
+			var marks = layer.marks;
+			for (var index = 0; index < marks.length; index++) {
+				var mark = marks[index];
+				if (!mark.isRemoved && matcher(mark)) {
+					result.push(mark);
+					if (isFirstOnly) {
+						return result;
+					}
+				}
+			}
+		}
+		return result;
+	};
+
+	bridge.containsNode = function(element, node) {
+		return element.contains ? element.contains(node) : (element.compareDocumentPosition(node) & 16) !== 0;
+	};
+
+	bridge.markSelectors = {};
+
+	/*
+	 * Compiles a selector to a function(mark). Selectors with unsupported
+	 * parts (e.g. pseudo classes) do not match any mark.
+	 */
+	bridge.compileMarkSelector = function(selector) {
+		var matcher = bridge.markSelectors[selector];
+		if (matcher) {
+			return matcher;
+		}
+		var parts = selector.split(',');
+		var matchers = [];
+		for (var partIndex = 0; partIndex < parts.length; partIndex++) {
+			var part = parts[partIndex].trim();
+			var match = /^(?:(.*?)\s*(>|\s)\s*)?([^\s>]+)$/.exec(part);
+			var compound = match ? bridge.parseCompoundSelector(match[3]) : null;
+			if (!compound) {
+				continue;
+			}
+			compound.ancestorSelector = match[1] || null;
+			compound.isChild = match[2] === '>';
+			matchers.push(compound);
+		}
+		matcher = function(mark) {
+			for (var index = 0; index < matchers.length; index++) {
+				if (bridge.matchesCompoundSelector(mark, matchers[index])) {
+					return true;
+				}
+			}
+			return false;
+		};
+		bridge.markSelectors[selector] = matcher;
+		return matcher;
+	};
+
+	bridge.parseCompoundSelector = function(selector) {
+		var match = /^([a-zA-Z][\w-]*|\*)?((?:[.#][\w-]+|\[[^\]]+\])*)$/.exec(selector);
+		if (!match) {
+			return null;
+		}
+		var compound = {
+			name : match[1] && match[1] !== '*' ? match[1] : null,
+			id : null,
+			classes : [],
+			attributes : []
+		};
+		var tokenPattern = /([.#])([\w-]+)|\[\s*([\w:-]+)\s*(?:=\s*(?:"([^"]*)"|'([^']*)'|([^\]\s]*))\s*)?\]/g;
+		var token;
+		while ((token = tokenPattern.exec(match[2]))) {
+			if (token[1] === '#') {
+				compound.id = token[2];
+			} else if (token[1] === '.') {
+				compound.classes.push(token[2]);
+			} else {
+				var value = token[4] !== undefined ? token[4] : token[5] !== undefined ? token[5] : token[6];
+				compound.attributes.push({
+					name : token[3],
+					value : value === undefined ? null : value
+				});
+			}
+		}
+		return compound;
+	};
+
+	bridge.matchesCompoundSelector = function(mark, compound) {
+		if (compound.name && compound.name !== mark.localName) {
+			return false;
+		}
+		var attributes = mark.markAttributes;
+		if (compound.id !== null && attributes.id !== compound.id) {
+			return false;
+		}
+		if (compound.classes.length > 0) {
+			var classNames = ' ' + (attributes['class'] || '').replace(/\s+/g, ' ') + ' ';
+			for (var classIndex = 0; classIndex < compound.classes.length; classIndex++) {
+				if (classNames.indexOf(' ' + compound.classes[classIndex] + ' ') < 0) {
+					return false;
+				}
+			}
+		}
+		for (var index = 0; index < compound.attributes.length; index++) {
+			var attribute = compound.attributes[index];
+			var value = attributes[attribute.name];
+			if (value === undefined || (attribute.value !== null && value !== attribute.value)) {
+				return false;
+			}
+		}
+		var ancestorSelector = compound.ancestorSelector;
+		if (!ancestorSelector) {
+			return true;
+		}
+		var parent = mark.parentNode;
+		var matches = parent.matches || parent.webkitMatchesSelector;
+		return matches.call(parent, ancestorSelector)
+				|| (!compound.isChild && matches.call(parent, ancestorSelector + ' *'));
+	};
+
+	/* #end region */
+
+	/* #region CANVAS MARKS */
+
+	/*
+	 * A mark of a canvas layer that replaces an SVG element
+	 */
+	bridge.CanvasMark = function(layer) {
+		this.__jfxd3layer = layer;
+		this.parentNode = layer.parent;
+		this.ownerDocument = layer.document;
+		this.ownerSVGElement = layer.parent.ownerSVGElement || layer.parent;
+		this.localName = this.tagName = this.nodeName = layer.name;
+		this.markAttributes = {};
+		this.style = new bridge.CanvasMarkStyle(this);
+		this.listeners = null;
+		this.order = ++layer.maximumOrder;
+		this.index = -1;
+		this.isRemoved = false;
+		this.pathCache = null;
+		this.transformCache = null;
+	};
+
+	bridge.CanvasMark.prototype.namespaceURI = bridge.svgNamespace;
+
+	bridge.CanvasMark.prototype.nodeType = 1;
+
+	bridge.CanvasMark.prototype.setAttribute = function(name, value) {
+		this.markAttributes[name] = '' + value;
+		bridge.invalidateMark(this);
+	};
+
+	bridge.CanvasMark.prototype.setAttributeNS = function(space, localName, value) {
+		this.setAttribute(localName, value);
+	};
+
+	bridge.CanvasMark.prototype.getAttribute = function(name) {
+		var value = this.markAttributes[name];
+		return value === undefined ? null : value;
+	};
+
+	bridge.CanvasMark.prototype.getAttributeNS = function(space, localName) {
+		return this.getAttribute(localName);
+	};
+
+	bridge.CanvasMark.prototype.hasAttribute = function(name) {
+		return this.markAttributes[name] !== undefined;
+	};
+
+	bridge.CanvasMark.prototype.removeAttribute = function(name) {
+		delete this.markAttributes[name];
+		bridge.invalidateMark(this);
+	};
+
+	bridge.CanvasMark.prototype.removeAttributeNS = function(space, localName) {
+		this.removeAttribute(localName);
+	};
+
+	bridge.CanvasMark.prototype.addEventListener = function(type, listener) {
+		if (!this.listeners) {
+			this.listeners = {};
+		}
+		var listeners = this.listeners[type] || (this.listeners[type] = []);
+		if (listeners.indexOf(listener) < 0) {
+			listeners.push(listener);
+			if (this.__jfxd3layer) {
+				this.__jfxd3layer.numberOfListeners++;
+			}
+		}
+	};
+
+	bridge.CanvasMark.prototype.removeEventListener = function(type, listener) {
+		var listeners = this.listeners ? this.listeners[type] : null;
+		var index = listeners ? listeners.indexOf(listener) : -1;
+		if (index >= 0) {
+			listeners.splice(index, 1);
+			if (this.__jfxd3layer) {
+				this.__jfxd3layer.numberOfListeners--;
+			}
+		}
+	};
+
+	bridge.CanvasMark.prototype.matches = function(selector) {
+		return bridge.compileMarkSelector(selector)(this);
+	};
+
+	/*
+	 * Returns the bounds in the user coordinates of the mark
+	 */
+	bridge.CanvasMark.prototype.getBBox = function() {
+		var box = [ Infinity, Infinity, -Infinity, -Infinity ];
+		bridge.addMarkBounds(this, null, box);
+		var isEmpty = box[0] > box[2];
+		return isEmpty ? {
+			x : 0,
+			y : 0,
+			width : 0,
+			height : 0
+		} : {
+			x : box[0],
+			y : box[1],
+			width : box[2] - box[0],
+			height : box[3] - box[1]
+		};
+	};
+
+	bridge.CanvasMark.prototype.getCTM = function() {
+		return this.parentNode.getCTM();
+	};
+
+	bridge.CanvasMark.prototype.getScreenCTM = function() {
+		return this.parentNode.getScreenCTM();
+	};
+
+	/*
+	 * The inline style of a mark
+	 */
+	bridge.CanvasMarkStyle = function(mark) {
+		this.mark = mark;
+		this.properties = {};
+	};
+
+	bridge.CanvasMarkStyle.prototype.setProperty = function(name, value) {
+		if (value === null || value === undefined || value === '') {
+			this.removeProperty(name);
+			return;
+		}
+		this.properties[name] = '' + value;
+		bridge.invalidateMark(this.mark);
+	};
+
+	bridge.CanvasMarkStyle.prototype.getPropertyValue = function(name) {
+		var value = this.properties[name];
+		return value === undefined ? '' : value;
+	};
+
+	bridge.CanvasMarkStyle.prototype.removeProperty = function(name) {
+		var value = this.getPropertyValue(name);
+		delete this.properties[name];
+		bridge.invalidateMark(this.mark);
+		return value;
+	};
+
+	bridge.createMark = function(layer) {
+		var mark = new bridge.CanvasMark(layer);
+		layer.marks.push(mark);
+		bridge.invalidateLayer(layer);
+		return mark;
+	};
+
+	bridge.removeMark = function(mark) {
+		var layer = mark.__jfxd3layer;
+		if (!layer) {
+			return;
+		}
+		if (layer.hoveredMark === mark) {
+			layer.hoveredMark = null;
+		}
+		for ( var type in mark.listeners) {
+			layer.numberOfListeners -= mark.listeners[type].length;
+		}
+		mark.__jfxd3layer = null;
+		mark.parentNode = null;
+		mark.isRemoved = true;
+		layer.numberOfRemovedMarks++;
+		bridge.invalidateLayer(layer);
+	};
+
+	/*
+	 * Moves a mark before the given next mark or to the end of its layer.
+	 * The order is applied when the layer is drawn.
+	 */
+	bridge.orderMark = function(mark, nextMark) {
+		var layer = mark.__jfxd3layer;
+		if (!layer) {
+			return;
+		}
+		var isBeforeMark = nextMark instanceof bridge.CanvasMark && nextMark.__jfxd3layer === layer;
+		if (isBeforeMark) {
+			layer.minimumOrder = Math.min(layer.minimumOrder, nextMark.order) - 1;
+			mark.order = layer.minimumOrder;
+		} else {
+			mark.order = ++layer.maximumOrder;
+		}
+		layer.isOrderDirty = true;
+		bridge.invalidateLayer(layer);
+	};
+
+	bridge.invalidateMark = function(mark) {
+		var layer = mark.__jfxd3layer;
+		if (layer && !layer.isDirty) {
+			bridge.invalidateLayer(layer);
+		}
+	};
+
+	bridge.invalidateLayer = function(layer) {
+		if (layer.isDirty) {
+			return;
+		}
+		layer.isDirty = true;
+		layer.frame = bridge.requestFrame(function() {
+			layer.frame = null;
+			bridge.drawCanvasLayer(layer);
+		});
+	};
+
+	/*
+	 * Draws the layer if it has been changed since it was drawn
+	 */
+	bridge.flushCanvasLayer = function(layer) {
+		if (layer.isDirty) {
+			bridge.drawCanvasLayer(layer);
+		}
+	};
+
+	/* #end region */
+
+	/* #region CANVAS LAYER DRAWING */
+
+	/*
+	 * Draws all marks of a layer and updates the grid index of their bounds
+	 */
+	bridge.drawCanvasLayer = function(layer) {
+		if (layer.frame !== null) {
+			bridge.cancelFrame(layer.frame);
+			layer.frame = null;
+		}
+		layer.isDirty = false;
+		bridge.compactCanvasLayer(layer);
+
+		var marks = layer.marks;
+		var length = marks.length;
+		var boxes = layer.boxes.length === 4 * length ? layer.boxes : new Float64Array(4 * length);
+		var strokeWidths = layer.strokeWidths.length === length ? layer.strokeWidths : new Float64Array(length);
+		var fills = new Array(length);
+		var strokes = new Array(length);
+		var fillAlphas = new Float64Array(length);
+		var strokeAlphas = new Float64Array(length);
+		var bounds = [ Infinity, Infinity, -Infinity, -Infinity ];
+		var probes = {};
+		var box = [ 0, 0, 0, 0 ];
+		var index, mark;
+
+		for (index = 0; index < length; index++) {
+			mark = marks[index];
+			mark.index = index;
+			var className = mark.markAttributes['class'] || '';
+			var probe = probes[className] || (probes[className] = bridge.createMarkStyleProbe(layer, className));
+			var isHidden = bridge.resolveMarkStyle(mark, probe, 'display') === 'none'
+					|| bridge.resolveMarkStyle(mark, probe, 'visibility') === 'hidden';
+			var opacity = isHidden ? 0 : bridge.parseOpacity(bridge.resolveMarkStyle(mark, probe, 'opacity'));
+			var fill = bridge.resolveMarkStyle(mark, probe, 'fill');
+			var stroke = bridge.resolveMarkStyle(mark, probe, 'stroke');
+			fills[index] = fill && fill !== 'none' ? fill : null;
+			strokes[index] = stroke && stroke !== 'none' ? stroke : null;
+			fillAlphas[index] = opacity * bridge.parseOpacity(bridge.resolveMarkStyle(mark, probe, 'fill-opacity'));
+			strokeAlphas[index] = opacity
+					* bridge.parseOpacity(bridge.resolveMarkStyle(mark, probe, 'stroke-opacity'));
+			var strokeWidth = strokes[index] ? parseFloat(bridge.resolveMarkStyle(mark, probe, 'stroke-width')) : 0;
+			strokeWidths[index] = isNaN(strokeWidth) ? 1 : strokeWidth;
+
+			box[0] = box[1] = Infinity;
+			box[2] = box[3] = -Infinity;
+			if (opacity > 0) {
+				bridge.addMarkBounds(mark, bridge.getMarkTransform(mark), box);
+			}
+			var isEmpty = box[0] > box[2];
+			var margin = strokeWidths[index] / 2;
+			boxes[4 * index] = isEmpty ? NaN : box[0] - margin;
+			boxes[4 * index + 1] = isEmpty ? NaN : box[1] - margin;
+			boxes[4 * index + 2] = isEmpty ? NaN : box[2] + margin;
+			boxes[4 * index + 3] = isEmpty ? NaN : box[3] + margin;
+			if (!isEmpty) {
+				bounds[0] = Math.min(bounds[0], boxes[4 * index]);
+				bounds[1] = Math.min(bounds[1], boxes[4 * index + 1]);
+				bounds[2] = Math.max(bounds[2], boxes[4 * index + 2]);
+				bounds[3] = Math.max(bounds[3], boxes[4 * index + 3]);
+			}
+		}
+		layer.boxes = boxes;
+		layer.strokeWidths = strokeWidths;
+
+		var context = bridge.resizeCanvasLayer(layer, bounds);
+		if (context) {
+			var scale = layer.scale;
+			var x = layer.x;
+			var y = layer.y;
+			var currentFill = null;
+			var currentStroke = null;
+			var currentAlpha = -1;
+			var currentLineWidth = -1;
+			var hasTransform = false;
+			for (index = 0; index < length; index++) {
+				var isVisible = !isNaN(boxes[4 * index]) && (fills[index] || strokes[index]);
+				if (!isVisible) {
+					continue;
+				}
+				mark = marks[index];
+				var matrix = bridge.getMarkTransform(mark);
+				if (matrix) {
+					context.setTransform(scale * matrix[0], scale * matrix[1], scale * matrix[2], scale * matrix[3],
+							scale * (matrix[4] - x), scale * (matrix[5] - y));
+					hasTransform = true;
+				} else if (hasTransform) {
+					context.setTransform(scale, 0, 0, scale, -scale * x, -scale * y);
+					hasTransform = false;
+				}
+				context.beginPath();
+				bridge.traceMark(mark, context);
+				if (fills[index] && fillAlphas[index] > 0) {
+					if (fills[index] !== currentFill) {
+						context.fillStyle = '#000';
+						context.fillStyle = currentFill = fills[index];
+					}
+					if (fillAlphas[index] !== currentAlpha) {
+						context.globalAlpha = currentAlpha = fillAlphas[index];
+					}
+					context.fill();
+				}
+				if (strokes[index] && strokeAlphas[index] > 0 && strokeWidths[index] > 0) {
+					if (strokes[index] !== currentStroke) {
+						context.strokeStyle = '#000';
+						context.strokeStyle = currentStroke = strokes[index];
+					}
+					if (strokeAlphas[index] !== currentAlpha) {
+						context.globalAlpha = currentAlpha = strokeAlphas[index];
+					}
+					if (strokeWidths[index] !== currentLineWidth) {
+						context.lineWidth = currentLineWidth = strokeWidths[index];
+					}
+					context.stroke();
+				}
+			}
+		}
+
+		layer.grid = bridge.createMarkGrid(boxes, length, bounds);
+	};
+
+	/*
+	 * Removes the removed marks and sorts the marks if they have been
+	 * reordered
+	 */
+	bridge.compactCanvasLayer = function(layer) {
+		if (layer.numberOfRemovedMarks > 0) {
+			var marks = layer.marks;
+			var count = 0;
+			for (var index = 0; index < marks.length; index++) {
+				if (!marks[index].isRemoved) {
+					marks[count++] = marks[index];
+				}
+			}
+			marks.length = count;
+			layer.numberOfRemovedMarks = 0;
+		}
+		if (layer.isOrderDirty) {
+			layer.marks.sort(function(first, second) {
+				return first.order - second.order;
+			});
+			layer.isOrderDirty = false;
+		}
+	};
+
+	/*
+	 * Places the canvas of a layer on the given bounds in the coordinates of
+	 * the parent element and returns its cleared context, or null if the
+	 * bounds are empty. The resolution considers the scale of the parent
+	 * element.
+	 */
+	bridge.resizeCanvasLayer = function(layer, bounds) {
+		var foreignObject = layer.foreignObject;
+		var canvas = layer.canvas;
+		var isEmpty = !(bounds[0] <= bounds[2]);
+		if (isEmpty) {
+			foreignObject.setAttribute('width', 0);
+			foreignObject.setAttribute('height', 0);
+			return null;
+		}
+		var x = Math.floor(bounds[0]);
+		var y = Math.floor(bounds[1]);
+		var width = Math.ceil(bounds[2]) - x + 1;
+		var height = Math.ceil(bounds[3]) - y + 1;
+		var matrix = layer.parent.getCTM ? layer.parent.getCTM() : null;
+		var scale = (matrix ? Math.sqrt(matrix.a * matrix.a + matrix.b * matrix.b) : 1) * (window.devicePixelRatio || 1);
+		scale = Math.min(scale || 1, 4096 / width, 4096 / height);
+
+		foreignObject.setAttribute('x', x);
+		foreignObject.setAttribute('y', y);
+		foreignObject.setAttribute('width', width);
+		foreignObject.setAttribute('height', height);
+		canvas.style.width = width + 'px';
+		canvas.style.height = height + 'px';
+		var canvasWidth = Math.max(1, Math.ceil(width * scale));
+		var canvasHeight = Math.max(1, Math.ceil(height * scale));
+		var context = layer.context;
+		if (canvas.width !== canvasWidth || canvas.height !== canvasHeight) {
+			canvas.width = canvasWidth;
+			canvas.height = canvasHeight;
+		} else {
+			context.setTransform(1, 0, 0, 1, 0, 0);
+			context.clearRect(0, 0, canvasWidth, canvasHeight);
+		}
+		context.setTransform(scale, 0, 0, scale, -scale * x, -scale * y);
+		context.globalAlpha = 1;
+		layer.x = x;
+		layer.y = y;
+		layer.scale = scale;
+		return context;
+	};
+
+	/*
+	 * Determines the styles of the marks with the given class from the style
+	 * sheets with a temporary SVG element: the default values of the style
+	 * properties and the values that are forced by style sheet rules and
+	 * override the attributes of the marks
+	 */
+	bridge.createMarkStyleProbe = function(layer, className) {
+		var parent = layer.parent;
+		var view = parent.ownerDocument.defaultView;
+		var element = parent.ownerDocument.createElementNS(bridge.svgNamespace, layer.name);
+		if (className) {
+			element.setAttribute('class', className);
+		}
+		Node.prototype.insertBefore.call(parent, element, layer.foreignObject);
+
+		var properties = bridge.markStyleProperties;
+		var defaults = {};
+		var forced = {};
+		var style = view.getComputedStyle(element, null);
+		var index, name;
+		for (index = 0; index < properties.length; index++) {
+			name = properties[index];
+			defaults[name] = style.getPropertyValue(name);
+		}
+		defaults.display = style.getPropertyValue('display');
+		defaults.visibility = style.getPropertyValue('visibility');
+
+		for (index = 0; index < properties.length; index++) {
+			name = properties[index];
+			element.setAttribute(name, bridge.markStyleSentinels[name]);
+		}
+		style = view.getComputedStyle(element, null);
+		for (index = 0; index < properties.length; index++) {
+			name = properties[index];
+			var value = style.getPropertyValue(name);
+			if (!bridge.isMarkStyleSentinel(name, value)) {
+				forced[name] = value;
+			}
+		}
+
+		Node.prototype.removeChild.call(parent, element);
+		return {
+			defaults : defaults,
+			forced : forced
+		};
+	};
+
+	bridge.isMarkStyleSentinel = function(name, value) {
+		var isColor = name === 'fill' || name === 'stroke';
+		if (isColor) {
+			var color = d3.rgb(value);
+			return value !== 'none' && color.r === 1 && color.g === 2 && color.b === 3;
+		}
+		return Math.abs(parseFloat(value) - 0.123) < 1e-3;
+	};
+
+	/*
+	 * Returns the value of a style property of a mark: the inline style, a
+	 * value that is forced by the style sheets, the attribute or the default
+	 * value
+	 */
+	bridge.resolveMarkStyle = function(mark, probe, name) {
+		var value = mark.style.properties[name];
+		if (value !== undefined) {
+			return value;
+		}
+		value = probe.forced[name];
+		if (value !== undefined) {
+			return value;
+		}
+		value = mark.markAttributes[name];
+		return value !== undefined ? value : probe.defaults[name];
+	};
+
+	/*
+	 * Returns the computed value of a style property of a mark
+	 */
+	bridge.getMarkStyle = function(mark, name) {
+		var layer = mark.__jfxd3layer;
+		if (!layer) {
+			return mark.style.getPropertyValue(name);
+		}
+		var probe = bridge.createMarkStyleProbe(layer, mark.markAttributes['class'] || '');
+		var value = bridge.resolveMarkStyle(mark, probe, name);
+		return value === undefined ? '' : value;
+	};
+
+	bridge.parseOpacity = function(value) {
+		var opacity = parseFloat(value);
+		return isNaN(opacity) ? 1 : Math.max(0, Math.min(1, opacity));
+	};
+
+	bridge.getNumericAttribute = function(mark, name) {
+		var value = parseFloat(mark.markAttributes[name]);
+		return isNaN(value) ? 0 : value;
+	};
+
+	/*
+	 * Adds the path of a mark to the current path of the context
+	 */
+	bridge.traceMark = function(mark, context) {
+		switch (mark.localName) {
+		case 'circle':
+			var cx = bridge.getNumericAttribute(mark, 'cx');
+			var cy = bridge.getNumericAttribute(mark, 'cy');
+			var radius = bridge.getNumericAttribute(mark, 'r');
+			if (radius > 0) {
+				context.moveTo(cx + radius, cy);
+				context.arc(cx, cy, radius, 0, 2 * Math.PI, false);
+			}
+			break;
+		case 'rect':
+			var width = bridge.getNumericAttribute(mark, 'width');
+			var height = bridge.getNumericAttribute(mark, 'height');
+			if (width > 0 && height > 0) {
+				context.rect(bridge.getNumericAttribute(mark, 'x'), bridge.getNumericAttribute(mark, 'y'), width,
+						height);
+			}
+			break;
+		case 'path':
+			bridge.tracePath(bridge.getMarkPath(mark), context);
+			break;
+		}
+	};
+
+	/*
+	 * Adds the bounds of a mark to the given box [x0, y0, x1, y1]. If a
+	 * transform is given, the corners of the bounds are transformed.
+	 */
+	bridge.addMarkBounds = function(mark, matrix, box) {
+		var x0, y0, x1, y1;
+		switch (mark.localName) {
+		case 'circle':
+			var radius = bridge.getNumericAttribute(mark, 'r');
+			if (!(radius > 0)) {
+				return;
+			}
+			var cx = bridge.getNumericAttribute(mark, 'cx');
+			var cy = bridge.getNumericAttribute(mark, 'cy');
+			x0 = cx - radius;
+			y0 = cy - radius;
+			x1 = cx + radius;
+			y1 = cy + radius;
+			break;
+		case 'rect':
+			var width = bridge.getNumericAttribute(mark, 'width');
+			var height = bridge.getNumericAttribute(mark, 'height');
+			if (!(width > 0 && height > 0)) {
+				return;
+			}
+			x0 = bridge.getNumericAttribute(mark, 'x');
+			y0 = bridge.getNumericAttribute(mark, 'y');
+			x1 = x0 + width;
+			y1 = y0 + height;
+			break;
+		case 'path':
+			var path = bridge.getMarkPath(mark);
+			if (!(path.bounds[0] <= path.bounds[2])) {
+				return;
+			}
+			x0 = path.bounds[0];
+			y0 = path.bounds[1];
+			x1 = path.bounds[2];
+			y1 = path.bounds[3];
+			break;
+		default:
+			return;
+		}
+		if (!matrix) {
+			box[0] = Math.min(box[0], x0);
+			box[1] = Math.min(box[1], y0);
+			box[2] = Math.max(box[2], x1);
+			box[3] = Math.max(box[3], y1);
+			return;
+		}
+		var corners = [ x0, y0, x1, y0, x1, y1, x0, y1 ];
+		for (var index = 0; index < 8; index += 2) {
+			var x = matrix[0] * corners[index] + matrix[2] * corners[index + 1] + matrix[4];
+			var y = matrix[1] * corners[index] + matrix[3] * corners[index + 1] + matrix[5];
+			box[0] = Math.min(box[0], x);
+			box[1] = Math.min(box[1], y);
+			box[2] = Math.max(box[2], x);
+			box[3] = Math.max(box[3], y);
+		}
+	};
+
+	/*
+	 * Returns the transform attribute of a mark as matrix [a, b, c, d, e, f]
+	 * or null
+	 */
+	bridge.getMarkTransform = function(mark) {
+		var value = mark.markAttributes.transform;
+		if (!value) {
+			return null;
+		}
+		var cache = mark.transformCache;
+		if (!cache || cache.value !== value) {
+			cache = mark.transformCache = {
+				value : value,
+				matrix : bridge.parseTransform(value)
+			};
+		}
+		return cache.matrix;
+	};
+
+	bridge.parseTransform = function(value) {
+		var matrix = [ 1, 0, 0, 1, 0, 0 ];
+		var pattern = /(\w+)\s*\(([^)]*)\)/g;
+		var match;
+		while ((match = pattern.exec(value))) {
+			var args = match[2].split(/[\s,]+/).filter(function(arg) {
+				return arg !== '';
+			}).map(parseFloat);
+			var transform;
+			switch (match[1]) {
+			case 'translate':
+				transform = [ 1, 0, 0, 1, args[0] || 0, args[1] || 0 ];
+				break;
+			case 'scale':
+				var scaleX = args.length > 0 ? args[0] : 1;
+				transform = [ scaleX, 0, 0, args.length > 1 ? args[1] : scaleX, 0, 0 ];
+				break;
+			case 'rotate':
+				var angle = (args[0] || 0) * Math.PI / 180;
+				var cos = Math.cos(angle);
+				var sin = Math.sin(angle);
+				var centerX = args[1] || 0;
+				var centerY = args[2] || 0;
+				transform = [ cos, sin, -sin, cos, centerX - cos * centerX + sin * centerY,
+						centerY - sin * centerX - cos * centerY ];
+				break;
+			case 'skewX':
+				transform = [ 1, 0, Math.tan((args[0] || 0) * Math.PI / 180), 1, 0, 0 ];
+				break;
+			case 'skewY':
+				transform = [ 1, Math.tan((args[0] || 0) * Math.PI / 180), 0, 1, 0, 0 ];
+				break;
+			case 'matrix':
+				transform = args.length === 6 ? args : [ 1, 0, 0, 1, 0, 0 ];
+				break;
+			default:
+				continue;
+			}
+			matrix = [ matrix[0] * transform[0] + matrix[2] * transform[1],
+					matrix[1] * transform[0] + matrix[3] * transform[1],
+					matrix[0] * transform[2] + matrix[2] * transform[3],
+					matrix[1] * transform[2] + matrix[3] * transform[3],
+					matrix[0] * transform[4] + matrix[2] * transform[5] + matrix[4],
+					matrix[1] * transform[4] + matrix[3] * transform[5] + matrix[5] ];
+		}
+		return matrix;
+	};
+
+	/*
+	 * Returns the parsed d attribute of a path mark
+	 */
+	bridge.getMarkPath = function(mark) {
+		var value = mark.markAttributes.d || '';
+		var cache = mark.pathCache;
+		if (!cache || cache.value !== value) {
+			cache = mark.pathCache = bridge.parsePath(value);
+			cache.value = value;
+		}
+		return cache;
+	};
+
+	/*
+	 * Parses SVG path data to absolute commands: 0 x y (move), 1 x y (line),
+	 * 2 x1 y1 x2 y2 x y (cubic), 3 x1 y1 x y (quadratic), 4 (close) and
+	 * 5 cx cy rx ry rotation startAngle endAngle anticlockwise (elliptical
+	 * arc). Also returns the bounds [x0, y0, x1, y1] of all points including
+	 * the control points.
+	 */
+	bridge.parsePath = function(value) {
+		var tokens = value.match(/[a-zA-Z]|[-+]?(?:\d+\.?\d*|\.\d+)(?:[eE][-+]?\d+)?/g) || [];
+		var commands = [];
+		var bounds = [ Infinity, Infinity, -Infinity, -Infinity ];
+		var addPoint = function(px, py) {
+			bounds[0] = Math.min(bounds[0], px);
+			bounds[1] = Math.min(bounds[1], py);
+			bounds[2] = Math.max(bounds[2], px);
+			bounds[3] = Math.max(bounds[3], py);
+		};
+		var x = 0, y = 0, startX = 0, startY = 0, controlX = 0, controlY = 0;
+		var previousCommand = '';
+		var index = 0;
+		var command = '';
+		var number = function() {
+			return parseFloat(tokens[index++]);
+		};
+		while (index < tokens.length) {
+			var token = tokens[index];
+			if (/[a-zA-Z]/.test(token)) {
+				command = token;
+				index++;
+			} else if (!command) {
+				break;
+			}
+			var isRelative = command === command.toLowerCase();
+			var offsetX = isRelative ? x : 0;
+			var offsetY = isRelative ? y : 0;
+			var x1, y1, x2, y2;
+			switch (command.toUpperCase()) {
+			case 'M':
+				x = offsetX + number();
+				y = offsetY + number();
+				startX = x;
+				startY = y;
+				commands.push(0, x, y);
+				addPoint(x, y);
+				command = isRelative ? 'l' : 'L';
+				break;
+			case 'L':
+				x = offsetX + number();
+				y = offsetY + number();
+				commands.push(1, x, y);
+				addPoint(x, y);
+				break;
+			case 'H':
+				x = offsetX + number();
+				commands.push(1, x, y);
+				addPoint(x, y);
+				break;
+			case 'V':
+				y = offsetY + number();
+				commands.push(1, x, y);
+				addPoint(x, y);
+				break;
+			case 'C':
+			case 'S':
+				var isSmooth = command.toUpperCase() === 'S';
+				var isPreviousCubic = /[CcSs]/.test(previousCommand);
+				x1 = isSmooth ? (isPreviousCubic ? 2 * x - controlX : x) : offsetX + number();
+				y1 = isSmooth ? (isPreviousCubic ? 2 * y - controlY : y) : offsetY + number();
+				x2 = offsetX + number();
+				y2 = offsetY + number();
+				x = offsetX + number();
+				y = offsetY + number();
+				commands.push(2, x1, y1, x2, y2, x, y);
+				addPoint(x1, y1);
+				addPoint(x2, y2);
+				addPoint(x, y);
+				controlX = x2;
+				controlY = y2;
+				break;
+			case 'Q':
+			case 'T':
+				var isShorthand = command.toUpperCase() === 'T';
+				var isPreviousQuadratic = /[QqTt]/.test(previousCommand);
+				x1 = isShorthand ? (isPreviousQuadratic ? 2 * x - controlX : x) : offsetX + number();
+				y1 = isShorthand ? (isPreviousQuadratic ? 2 * y - controlY : y) : offsetY + number();
+				x = offsetX + number();
+				y = offsetY + number();
+				commands.push(3, x1, y1, x, y);
+				addPoint(x1, y1);
+				addPoint(x, y);
+				controlX = x1;
+				controlY = y1;
+				break;
+			case 'A':
+				var radiusX = Math.abs(number());
+				var radiusY = Math.abs(number());
+				var rotation = number() * Math.PI / 180;
+				var isLargeArc = number() !== 0;
+				var isSweep = number() !== 0;
+				var endX = offsetX + number();
+				var endY = offsetY + number();
+				bridge.addArcCommand(commands, x, y, radiusX, radiusY, rotation, isLargeArc, isSweep, endX, endY,
+						addPoint);
+				x = endX;
+				y = endY;
+				break;
+			case 'Z':
+				commands.push(4);
+				x = startX;
+				y = startY;
+				break;
+			default:
+				return {
+					commands : commands,
+					bounds : bounds
+				};
+			}
+			previousCommand = command;
+			var hasInvalidNumber = isNaN(x) || isNaN(y);
+			if (hasInvalidNumber) {
+				break;
+			}
+		}
+		return {
+			commands : commands,
+			bounds : bounds
+		};
+	};
+
+	/*
+	 * Converts an SVG arc from its end point parameterization to an arc
+	 * around its center
+	 */
+	bridge.addArcCommand = function(commands, x1, y1, radiusX, radiusY, rotation, isLargeArc, isSweep, x2, y2,
+			addPoint) {
+		if (radiusX === 0 || radiusY === 0 || (x1 === x2 && y1 === y2)) {
+			commands.push(1, x2, y2);
+			addPoint(x2, y2);
+			return;
+		}
+		var cos = Math.cos(rotation);
+		var sin = Math.sin(rotation);
+		var dx = (x1 - x2) / 2;
+		var dy = (y1 - y2) / 2;
+		var x1p = cos * dx + sin * dy;
+		var y1p = -sin * dx + cos * dy;
+		var lambda = (x1p * x1p) / (radiusX * radiusX) + (y1p * y1p) / (radiusY * radiusY);
+		if (lambda > 1) {
+			radiusX *= Math.sqrt(lambda);
+			radiusY *= Math.sqrt(lambda);
+		}
+		var rx2 = radiusX * radiusX;
+		var ry2 = radiusY * radiusY;
+		var numerator = rx2 * ry2 - rx2 * y1p * y1p - ry2 * x1p * x1p;
+		var denominator = rx2 * y1p * y1p + ry2 * x1p * x1p;
+		var coefficient = (isLargeArc !== isSweep ? 1 : -1) * Math.sqrt(Math.max(0, numerator / denominator));
+		var cxp = coefficient * radiusX * y1p / radiusY;
+		var cyp = -coefficient * radiusY * x1p / radiusX;
+		var cx = cos * cxp - sin * cyp + (x1 + x2) / 2;
+		var cy = sin * cxp + cos * cyp + (y1 + y2) / 2;
+		var startAngle = Math.atan2((y1p - cyp) / radiusY, (x1p - cxp) / radiusX);
+		var endAngle = Math.atan2((-y1p - cyp) / radiusY, (-x1p - cxp) / radiusX);
+		commands.push(5, cx, cy, radiusX, radiusY, rotation, startAngle, endAngle, isSweep ? 0 : 1);
+		var radius = Math.max(radiusX, radiusY);
+		addPoint(cx - radius, cy - radius);
+		addPoint(cx + radius, cy + radius);
+	};
+
+	/*
+	 * Adds the commands of a parsed path to the current path of the context
+	 */
+	bridge.tracePath = function(path, context) {
+		var commands = path.commands;
+		var length = commands.length;
+		var index = 0;
+		while (index < length) {
+			switch (commands[index]) {
+			case 0:
+				context.moveTo(commands[index + 1], commands[index + 2]);
+				index += 3;
+				break;
+			case 1:
+				context.lineTo(commands[index + 1], commands[index + 2]);
+				index += 3;
+				break;
+			case 2:
+				context.bezierCurveTo(commands[index + 1], commands[index + 2], commands[index + 3],
+						commands[index + 4], commands[index + 5], commands[index + 6]);
+				index += 7;
+				break;
+			case 3:
+				context.quadraticCurveTo(commands[index + 1], commands[index + 2], commands[index + 3],
+						commands[index + 4]);
+				index += 5;
+				break;
+			case 4:
+				context.closePath();
+				index += 1;
+				break;
+			case 5:
+				var radiusX = commands[index + 3];
+				var radiusY = commands[index + 4];
+				var rotation = commands[index + 5];
+				var isAnticlockwise = commands[index + 8] === 1;
+				var isCircular = radiusX === radiusY && rotation === 0;
+				if (isCircular) {
+					context.arc(commands[index + 1], commands[index + 2], radiusX, commands[index + 6],
+							commands[index + 7], isAnticlockwise);
+				} else {
+					context.save();
+					context.translate(commands[index + 1], commands[index + 2]);
+					context.rotate(rotation);
+					context.scale(1, radiusY / radiusX);
+					context.arc(0, 0, radiusX, commands[index + 6], commands[index + 7], isAnticlockwise);
+					context.restore();
+				}
+				index += 9;
+				break;
+			default:
+				return;
+			}
+		}
+	};
+
+	/* #end region */
+
+	/* #region CANVAS LAYER HIT TESTING */
+
+	/*
+	 * Creates a grid index of the given boxes [x0, y0, x1, y1, ...]. Each
+	 * cell contains the indices of the boxes that intersect it, in ascending
+	 * order.
+	 */
+	bridge.createMarkGrid = function(boxes, length, bounds) {
+		var isEmpty = !(bounds[0] <= bounds[2]);
+		if (isEmpty) {
+			return null;
+		}
+		var numberOfCells = Math.max(1, Math.min(256, Math.ceil(Math.sqrt(length / 8))));
+		var grid = {
+			x : bounds[0],
+			y : bounds[1],
+			cellWidth : Math.max((bounds[2] - bounds[0]) / numberOfCells, 1e-9),
+			cellHeight : Math.max((bounds[3] - bounds[1]) / numberOfCells, 1e-9),
+			numberOfCells : numberOfCells,
+			cells : new Array(numberOfCells * numberOfCells)
+		};
+		for (var index = 0; index < length; index++) {
+			if (isNaN(boxes[4 * index])) {
+				continue;
+			}
+			var column0 = bridge.getGridCell(grid, boxes[4 * index], true);
+			var row0 = bridge.getGridCell(grid, boxes[4 * index + 1], false);
+			var column1 = bridge.getGridCell(grid, boxes[4 * index + 2], true);
+			var row1 = bridge.getGridCell(grid, boxes[4 * index + 3], false);
+			for (var row = row0; row <= row1; row++) {
+				for (var column = column0; column <= column1; column++) {
+					var cellIndex = row * numberOfCells + column;
+					var cell = grid.cells[cellIndex] || (grid.cells[cellIndex] = []);
+					cell.push(index);
+				}
+			}
+		}
+		return grid;
+	};
+
+	bridge.getGridCell = function(grid, value, isColumn) {
+		var cell = isColumn ? Math.floor((value - grid.x) / grid.cellWidth) : Math.floor((value - grid.y)
+				/ grid.cellHeight);
+		return Math.max(0, Math.min(grid.numberOfCells - 1, cell));
+	};
+
+	/*
+	 * Returns the topmost mark of a layer that contains the given point in
+	 * the coordinates of the parent element, or null
+	 */
+	bridge.findMarkAt = function(layer, x, y) {
+		bridge.flushCanvasLayer(layer);
+		var grid = layer.grid;
+		var isInside = grid && x >= grid.x && y >= grid.y && x <= grid.x + grid.cellWidth * grid.numberOfCells
+				&& y <= grid.y + grid.cellHeight * grid.numberOfCells;
+		if (!isInside) {
+			return null;
+		}
+		var column = bridge.getGridCell(grid, x, true);
+		var row = bridge.getGridCell(grid, y, false);
+		var cell = grid.cells[row * grid.numberOfCells + column];
+		if (!cell) {
+			return null;
+		}
+		for (var index = cell.length - 1; index >= 0; index--) {
+			var markIndex = cell[index];
+			if (bridge.containsPoint(layer, markIndex, x, y)) {
+				return layer.marks[markIndex];
+			}
+		}
+		return null;
+	};
+
+	/*
+	 * Returns true if the mark with the given index contains the given point
+	 */
+	bridge.containsPoint = function(layer, index, x, y) {
+		var boxes = layer.boxes;
+		var isInBox = x >= boxes[4 * index] && x <= boxes[4 * index + 2] && y >= boxes[4 * index + 1]
+				&& y <= boxes[4 * index + 3];
+		if (!isInBox) {
+			return false;
+		}
+		var mark = layer.marks[index];
+		var margin = layer.strokeWidths[index] / 2;
+		var matrix = bridge.getMarkTransform(mark);
+		if (matrix) {
+			var determinant = matrix[0] * matrix[3] - matrix[1] * matrix[2];
+			if (determinant === 0) {
+				return false;
+			}
+			var dx = x - matrix[4];
+			var dy = y - matrix[5];
+			x = (matrix[3] * dx - matrix[2] * dy) / determinant;
+			y = (matrix[0] * dy - matrix[1] * dx) / determinant;
+		}
+		switch (mark.localName) {
+		case 'circle':
+			var radius = bridge.getNumericAttribute(mark, 'r') + margin;
+			var distanceX = x - bridge.getNumericAttribute(mark, 'cx');
+			var distanceY = y - bridge.getNumericAttribute(mark, 'cy');
+			return distanceX * distanceX + distanceY * distanceY <= radius * radius;
+		case 'rect':
+			var left = bridge.getNumericAttribute(mark, 'x') - margin;
+			var top = bridge.getNumericAttribute(mark, 'y') - margin;
+			return x >= left && y >= top && x <= left + bridge.getNumericAttribute(mark, 'width') + 2 * margin
+					&& y <= top + bridge.getNumericAttribute(mark, 'height') + 2 * margin;
+		default:
+			var bounds = bridge.getMarkPath(mark).bounds;
+			return x >= bounds[0] - margin && y >= bounds[1] - margin && x <= bounds[2] + margin
+					&& y <= bounds[3] + margin;
+		}
+	};
+
+	/*
+	 * Returns the index (in the order of selection.each) of the topmost
+	 * element of the selection that contains the given point in the
+	 * coordinates of the parent elements, or -1. Canvas marks are tested
+	 * with the grid index of their layer; SVG elements with their
+	 * transformed bounding boxes. Only the attached layers of the selected
+	 * marks are tested.
+	 */
+	bridge.hitTest = function(selection, x, y) {
+		var nodes = bridge.getSelectedNodes(selection);
+		var stamp = {};
+		for (var nodeIndex = 0; nodeIndex < nodes.length; nodeIndex++) {
+			var layer = nodes[nodeIndex].__jfxd3layer;
+			var isUntestedLayer = layer && layer.hitStamp !== stamp;
+			if (!isUntestedLayer) {
+				continue;
+			}
+			layer.hitStamp = stamp;
+			if (!bridge.isLayerAttached(layer)) {
+				continue;
+			}
+			var hit = bridge.findMarkAt(layer, x, y);
+			if (hit) {
+				hit.hitStamp = stamp;
+			}
+		}
+		var box = [ 0, 0, 0, 0 ];
+		for (var index = nodes.length - 1; index >= 0; index--) {
+			var node = nodes[index];
+			if (node instanceof bridge.CanvasMark) {
+				if (node.hitStamp === stamp) {
+					return index;
+				}
+			} else if (bridge.getElementBox(node, box) && x >= box[0] && y >= box[1] && x <= box[2]
+					&& y <= box[3]) {
+				return index;
+			}
+		}
+		return -1;
+	};
+
+	/*
+	 * Encodes the indices (in the order of selection.each) of the elements of
+	 * the selection whose bounds intersect the given rectangle as int32
+	 * values, e.g. for brushing
+	 */
+	bridge.encodeIndicesInRect = function(selection, x0, y0, x1, y1) {
+		var nodes = bridge.getSelectedNodes(selection);
+		var indices = [];
+		var box = [ 0, 0, 0, 0 ];
+		for (var index = 0; index < nodes.length; index++) {
+			var node = nodes[index];
+			var hasBox;
+			if (node instanceof bridge.CanvasMark) {
+				var layer = node.__jfxd3layer;
+				hasBox = layer !== null;
+				if (hasBox) {
+					bridge.flushCanvasLayer(layer);
+					var offset = 4 * node.index;
+					box[0] = layer.boxes[offset];
+					box[1] = layer.boxes[offset + 1];
+					box[2] = layer.boxes[offset + 2];
+					box[3] = layer.boxes[offset + 3];
+				}
+			} else {
+				hasBox = bridge.getElementBox(node, box);
+			}
+			if (hasBox && box[0] <= x1 && box[2] >= x0 && box[1] <= y1 && box[3] >= y0) {
+				indices.push(index);
+			}
+		}
+		return bridge.encodeTypedArray(new Int32Array(indices));
+	};
+
+	/*
+	 * Returns true if the selection contains canvas marks
+	 */
+	bridge.isCanvasSelection = function(selection) {
+		var nodes = bridge.getSelectedNodes(selection);
+		for (var index = 0; index < nodes.length; index++) {
+			if (nodes[index] instanceof bridge.CanvasMark) {
+				return true;
+			}
+		}
+		return false;
+	};
+
+	bridge.getSelectedNodes = function(selection) {
+		var nodes = [];
+		selection.each(function() {
+			nodes.push(this);
+		});
+		return nodes;
+	};
+
+	/*
+	 * Writes the bounding box of an SVG element in the coordinates of its
+	 * parent to the given box [x0, y0, x1, y1]. Returns false if the element
+	 * has no bounding box.
+	 */
+	bridge.getElementBox = function(element, box) {
+		var bounds;
+		try {
+			bounds = element.getBBox ? element.getBBox() : null;
+		} catch (error) {
+			bounds = null;
+		}
+		if (!bounds) {
+			return false;
+		}
+		var transform = element.transform ? element.transform.baseVal.consolidate() : null;
+		var matrix = transform ? transform.matrix : null;
+		var corners = [ bounds.x, bounds.y, bounds.x + bounds.width, bounds.y, bounds.x + bounds.width,
+				bounds.y + bounds.height, bounds.x, bounds.y + bounds.height ];
+		box[0] = box[1] = Infinity;
+		box[2] = box[3] = -Infinity;
+		for (var index = 0; index < 8; index += 2) {
+			var x = matrix ? matrix.a * corners[index] + matrix.c * corners[index + 1] + matrix.e : corners[index];
+			var y = matrix ? matrix.b * corners[index] + matrix.d * corners[index + 1] + matrix.f
+					: corners[index + 1];
+			box[0] = Math.min(box[0], x);
+			box[1] = Math.min(box[1], y);
+			box[2] = Math.max(box[2], x);
+			box[3] = Math.max(box[3], y);
+		}
+		return true;
+	};
+
+	/* #end region */
+
+	/* #region CANVAS LAYER EVENTS */
+
+	/*
+	 * Listens to the mouse events of the SVG element of a layer, so that they
+	 * can be dispatched to the marks
+	 */
+	bridge.addLayerEventListeners = function(layer) {
+		var root = layer.eventRoot;
+		if (root.__jfxd3eventLayers) {
+			root.__jfxd3eventLayers.push(layer);
+			return;
+		}
+		root.__jfxd3eventLayers = [ layer ];
+		bridge.markEventTypes.forEach(function(type) {
+			root.addEventListener(type, function(event) {
+				bridge.dispatchLayerEvent(root, event);
+			}, false);
+		});
+	};
+
+	/*
+	 * Dispatches a mouse event to the topmost mark at the mouse position.
+	 * Only layers that are drawn above the target of the event are
+	 * considered, so that SVG elements above a layer keep their events.
+	 * Mouse moves update the hovered marks with mouseover, mouseenter,
+	 * mouseout and mouseleave events.
+	 */
+	bridge.dispatchLayerEvent = function(root, event) {
+		bridge.pruneCanvasLayers();
+		var layers = root.__jfxd3eventLayers;
+		var isLeaving = event.type === 'mouseleave';
+		var hitMark = null;
+		var index, layer;
+		for (index = layers.length - 1; index >= 0 && !isLeaving; index--) {
+			layer = layers[index];
+			var isActive = layer.numberOfListeners > 0 && bridge.containsNode(root, layer.foreignObject);
+			if (!isActive || !bridge.isBelowLayer(event.target, layer)) {
+				continue;
+			}
+			var point = bridge.toLayerPoint(layer, root, event);
+			hitMark = bridge.findMarkAt(layer, point[0], point[1]);
+			if (hitMark) {
+				break;
+			}
+		}
+
+		var isMove = event.type === 'mousemove' || isLeaving;
+		if (isMove) {
+			for (index = 0; index < layers.length; index++) {
+				layer = layers[index];
+				var hoveredMark = hitMark && hitMark.__jfxd3layer === layer ? hitMark : null;
+				if (layer.hoveredMark !== hoveredMark) {
+					var previousMark = layer.hoveredMark;
+					layer.hoveredMark = hoveredMark;
+					if (previousMark) {
+						bridge.dispatchMarkEvent(previousMark, 'mouseout', event);
+						bridge.dispatchMarkEvent(previousMark, 'mouseleave', event);
+					}
+					if (hoveredMark) {
+						bridge.dispatchMarkEvent(hoveredMark, 'mouseover', event);
+						bridge.dispatchMarkEvent(hoveredMark, 'mouseenter', event);
+					}
+				}
+			}
+		}
+		if (hitMark && !isLeaving) {
+			bridge.dispatchMarkEvent(hitMark, event.type, event);
+		}
+	};
+
+	bridge.isBelowLayer = function(target, layer) {
+		if (!target || target === layer.foreignObject) {
+			return true;
+		}
+		return (target.compareDocumentPosition(layer.foreignObject) & 4) !== 0;
+	};
+
+	bridge.toLayerPoint = function(layer, root, event) {
+		var point = root.createSVGPoint();
+		point.x = event.clientX;
+		point.y = event.clientY;
+		point = point.matrixTransform(layer.parent.getScreenCTM().inverse());
+		return [ point.x, point.y ];
+	};
+
+	/*
+	 * Calls the listeners of a mark with an event that wraps the given mouse
+	 * event as sourceEvent, so that d3.mouse works
+	 */
+	bridge.dispatchMarkEvent = function(mark, type, sourceEvent) {
+		var listeners = mark.listeners ? mark.listeners[type] : null;
+		if (!listeners || listeners.length === 0) {
+			return;
+		}
+		var event = {
+			type : type,
+			target : mark,
+			currentTarget : mark,
+			relatedTarget : null,
+			sourceEvent : sourceEvent,
+			clientX : sourceEvent.clientX,
+			clientY : sourceEvent.clientY,
+			pageX : sourceEvent.pageX,
+			pageY : sourceEvent.pageY,
+			screenX : sourceEvent.screenX,
+			screenY : sourceEvent.screenY,
+			button : sourceEvent.button,
+			buttons : sourceEvent.buttons,
+			altKey : sourceEvent.altKey,
+			ctrlKey : sourceEvent.ctrlKey,
+			metaKey : sourceEvent.metaKey,
+			shiftKey : sourceEvent.shiftKey,
+			timeStamp : sourceEvent.timeStamp,
+			preventDefault : function() {
+				sourceEvent.preventDefault();
+			},
+			stopPropagation : function() {
+				sourceEvent.stopPropagation();
+			}
+		};
+		listeners = listeners.slice();
+		for (var index = 0; index < listeners.length; index++) {
+			listeners[index].call(mark, event);
+		}
+	};
+
+	/* #end region */
+
+	return bridge;
+
+})(window.__jfxd3);